@@ -60,6 +60,7 @@ public class DMLOptions {
 	public boolean              lineage       = false;            // whether compute lineage trace
 	public boolean              lineage_dedup = false;            // whether deduplicate lineage items
 	public boolean              lineage_reuse = false;            // whether lineage-based reuse of intermediates
+	public String               profile       = null;             // output file of instruction-level profile
 
 	public final static DMLOptions defaultOptions = new DMLOptions(null);
 
@@ -85,6 +86,7 @@ public class DMLOptions {
 			", script='" + script + '\'' +
 			", help=" + help +
 			", lineage=" + lineage +
+			", profile=" + profile +
 			'}';
 	}
 	
@@ -159,6 +161,7 @@ public class DMLOptions {
 			}
 		}
 		dmlOptions.memStats = line.hasOption("mem");
+		dmlOptions.profile = line.getOptionValue("profile");
 
 		dmlOptions.clean = line.hasOption("clean");
 
@@ -248,6 +251,9 @@ public class DMLOptions {
 			.create("help");
 		Option lineageOpt = OptionBuilder.withDescription("computes lineage traces")
 			.hasOptionalArg().create("lineage");
+		Option profileOpt = OptionBuilder.withArgName("filename")
+			.withDescription("writes an instruction-level execution profile (*.json for chrome trace, otherwise collapsed stacks for flame graphs)")
+			.hasArg().create("profile");
 
 		options.addOption(configOpt);
 		options.addOption(cleanOpt);
@@ -259,6 +265,7 @@ public class DMLOptions {
 		options.addOption(debugOpt);
 		options.addOption(pythonOpt);
 		options.addOption(lineageOpt);
+		options.addOption(profileOpt);
 
 		// Either a clean(-clean), a file(-f), a script(-s) or help(-help) needs to be specified
 		OptionGroup fileOrScriptOpt = new OptionGroup()
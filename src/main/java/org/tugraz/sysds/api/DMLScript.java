@@ -50,6 +50,7 @@ import org.tugraz.sysds.conf.CompilerConfig;
 import org.tugraz.sysds.conf.ConfigurationManager;
 import org.tugraz.sysds.conf.DMLConfig;
 import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.hops.cost.CostCalibration;
 import org.tugraz.sysds.lops.Lop;
 import org.tugraz.sysds.parser.DMLProgram;
 import org.tugraz.sysds.parser.DMLTranslator;
@@ -66,8 +67,11 @@ import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContextFactory;
 import org.tugraz.sysds.runtime.controlprogram.context.SparkExecutionContext;
 import org.tugraz.sysds.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
 import org.tugraz.sysds.runtime.controlprogram.parfor.util.IDHandler;
+import org.tugraz.sysds.runtime.data.DenseBlockFactory;
 import org.tugraz.sysds.runtime.instructions.gpu.context.GPUContextPool;
 import org.tugraz.sysds.runtime.io.IOUtilFunctions;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixDatagen;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.mapred.MRConfigurationNames;
 import org.tugraz.sysds.runtime.matrix.mapred.MRJobConfiguration;
 import org.tugraz.sysds.runtime.util.LocalFileUtils;
@@ -98,6 +102,8 @@ public class DMLScript
 	public static boolean     LINEAGE = DMLOptions.defaultOptions.lineage;                  // whether compute lineage trace
 	public static boolean     LINEAGE_DEDUP = DMLOptions.defaultOptions.lineage_dedup;      // whether deduplicate lineage items
 	public static boolean     LINEAGE_REUSE = DMLOptions.defaultOptions.lineage_reuse;      // whether lineage-based reuse
+	public static String      PROFILE_FILE = DMLOptions.defaultOptions.profile;             // output file of instruction-level profile
+	public static boolean     PROFILE = (PROFILE_FILE != null);                             // whether to profile instructions
 
 	public static boolean           USE_ACCELERATOR     = DMLOptions.defaultOptions.gpu;
 	public static boolean           FORCE_ACCELERATOR   = DMLOptions.defaultOptions.forceGPU;
@@ -200,6 +206,8 @@ public class DMLScript
 			LINEAGE             = dmlOptions.lineage;
 			LINEAGE_DEDUP       = dmlOptions.lineage_dedup;
 			LINEAGE_REUSE       = dmlOptions.lineage_reuse;
+			PROFILE_FILE        = dmlOptions.profile;
+			PROFILE             = (PROFILE_FILE != null);
 
 			String fnameOptConfig = dmlOptions.configFile;
 			boolean isFile = dmlOptions.filePath != null;
@@ -424,9 +432,31 @@ public class DMLScript
 		if(CacheableData.CACHING_BUFFER_SIZE < 0 || CacheableData.CACHING_BUFFER_SIZE > 1) 
 			throw new RuntimeException("Incorrect value (" + CacheableData.CACHING_BUFFER_SIZE + ") for the configuration " + DMLConfig.CACHING_BUFFER_SIZE);
 		
+		//off-heap allocation of large dense blocks (threshold in MB)
+		double offHeapThreshold = dmlconf.getDoubleValue(DMLConfig.OFFHEAP_DENSE_THRESHOLD);
+		if( offHeapThreshold < 0 )
+			throw new RuntimeException("Incorrect value (" + offHeapThreshold + ") for the configuration " + DMLConfig.OFFHEAP_DENSE_THRESHOLD);
+		DenseBlockFactory.OFFHEAP_THRESHOLD = dmlconf.getBooleanValue(DMLConfig.OFFHEAP_DENSE) ?
+			(long)(offHeapThreshold * 1024 * 1024) : -1;
+		
+		//counter-based random number generation (rand, sample)
+		String prng = dmlconf.getTextValue(DMLConfig.RAND_PRNG);
+		if( !prng.equalsIgnoreCase("well") && !prng.equalsIgnoreCase("philox") )
+			throw new RuntimeException("Incorrect value (" + prng + ") for the configuration " + DMLConfig.RAND_PRNG);
+		LibMatrixDatagen.COUNTER_BASED_PRNG = prng.equalsIgnoreCase("philox");
+		
+		//doubly compressed sparse rows for ultra-sparse matrices
+		MatrixBlock.CONVERT_TO_DCSR = dmlconf.getBooleanValue(DMLConfig.SPARSE_DCSR);
+		
 		DMLScript.STATISTICS_MAX_WRAP_LEN = dmlconf.getIntValue(DMLConfig.STATS_MAX_WRAP_LEN);		
 		NativeHelper.initialize(dmlconf.getTextValue(DMLConfig.NATIVE_BLAS_DIR), dmlconf.getTextValue(DMLConfig.NATIVE_BLAS).trim());
 		
+		//load or obtain per-host coefficients of the cost model
+		if( dmlconf.getBooleanValue(DMLConfig.COST_CALIBRATION) )
+			CostCalibration.initialize();
+		else
+			CostCalibration.reset();
+		
 		DMLScript.SYNCHRONIZE_GPU = dmlconf.getBooleanValue(DMLConfig.SYNCHRONIZE_GPU);
 		DMLScript.EAGER_CUDA_FREE = dmlconf.getBooleanValue(DMLConfig.EAGER_CUDA_FREE);
 		DMLScript.PRINT_GPU_MEMORY_INFO = dmlconf.getBooleanValue(DMLConfig.PRINT_GPU_MEMORY_INFO);
@@ -19,24 +19,30 @@
 
 package org.tugraz.sysds.api;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.tugraz.sysds.api.mlcontext.ScriptExecutor;
 import org.tugraz.sysds.conf.ConfigurationManager;
 import org.tugraz.sysds.conf.DMLConfig;
 import org.tugraz.sysds.hops.codegen.SpoofCompiler;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.controlprogram.Program;
+import org.tugraz.sysds.runtime.controlprogram.caching.AsyncIOScheduler;
 import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
 import org.tugraz.sysds.runtime.instructions.cp.Data;
 import org.tugraz.sysds.runtime.instructions.gpu.context.GPUContext;
 import org.tugraz.sysds.runtime.instructions.gpu.context.GPUContextPool;
 import org.tugraz.sysds.runtime.instructions.gpu.context.GPUObject;
+import org.tugraz.sysds.utils.Profiler;
 import org.tugraz.sysds.utils.Statistics;
 
 public class ScriptExecutorUtils {
+	private static final Log LOG = LogFactory.getLog(ScriptExecutorUtils.class.getName());
 
 	/**
 	 * Execute the runtime program. This involves execution of the program
@@ -75,6 +81,8 @@ public class ScriptExecutorUtils {
 		boolean exceptionThrown = false;
 
 		Statistics.startRunTimer();
+		if( DMLScript.PROFILE )
+			Profiler.reset();
 		try {
 			// run execute (w/ exception handling to ensure proper shutdown)
 			if (DMLScript.USE_ACCELERATOR && ec != null) {
@@ -87,6 +95,9 @@ public class ScriptExecutorUtils {
 				ec.setGPUContexts(gCtxs);
 			}
 			rtprog.execute(ec);
+			
+			// flush pending asynchronous writes (incl error propagation)
+			AsyncIOScheduler.flushWrites();
 		} catch (Throwable e) {
 			exceptionThrown = true;
 			throw e;
@@ -119,6 +130,18 @@ public class ScriptExecutorUtils {
 			if( ConfigurationManager.isCodegenEnabled() )
 				SpoofCompiler.cleanupCodeGenerator();
 			
+			// write instruction-level profile (if enabled)
+			if( DMLScript.PROFILE ) {
+				//failures are only logged to neither mask the original
+				//exception nor skip the remaining cleanup and statistics
+				try {
+					Profiler.writeProfile(DMLScript.PROFILE_FILE);
+				}
+				catch(IOException ex) {
+					LOG.error("Failed to write profile to "+DMLScript.PROFILE_FILE, ex);
+				}
+			}
+			
 			// display statistics (incl caching stats if enabled)
 			Statistics.stopRunTimer();
 			(exceptionThrown ? System.err : System.out)
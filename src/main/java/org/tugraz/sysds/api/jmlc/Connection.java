@@ -59,6 +59,7 @@ import org.tugraz.sysds.runtime.io.FrameReaderFactory;
 import org.tugraz.sysds.runtime.io.IOUtilFunctions;
 import org.tugraz.sysds.runtime.io.MatrixReader;
 import org.tugraz.sysds.runtime.io.MatrixReaderFactory;
+import org.tugraz.sysds.runtime.io.MatrixRowIterator;
 import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
 import org.tugraz.sysds.runtime.matrix.data.InputInfo;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
@@ -410,6 +411,74 @@ public class Connection implements Closeable
 		}
 	}
 	
+	/**
+	 * Opens a streaming row iterator over an input matrix in binary-block or CSV
+	 * format on HDFS, which returns the rows in reused batches of dense row-major
+	 * values instead of materializing the entire matrix. The returned iterator
+	 * needs to be closed after use.
+	 * NOTE: this call currently only supports default configurations for CSV.
+	 * 
+	 * @param fname the filename of the input matrix
+	 * @param batchRows max number of rows per batch
+	 * @return row iterator over the matrix
+	 * @throws IOException if IOException occurs
+	 */
+	public MatrixRowIterator readMatrixRows(String fname, int batchRows) 
+		throws IOException
+	{
+		try {
+			//read json meta data 
+			String fnamemtd = DataExpression.getMTDFileName(fname);
+			JSONObject jmtd = new DataExpression().readMetadataFile(fnamemtd, false);
+			
+			//parse json meta data 
+			long rows = jmtd.getLong(DataExpression.READROWPARAM);
+			long cols = jmtd.getLong(DataExpression.READCOLPARAM);
+			int brlen = jmtd.containsKey(DataExpression.ROWBLOCKCOUNTPARAM)?
+					jmtd.getInt(DataExpression.ROWBLOCKCOUNTPARAM) : -1;
+			int bclen = jmtd.containsKey(DataExpression.COLUMNBLOCKCOUNTPARAM)?
+					jmtd.getInt(DataExpression.COLUMNBLOCKCOUNTPARAM) : -1;
+			String format = jmtd.getString(DataExpression.FORMAT_TYPE);
+			InputInfo iinfo = InputInfo.stringExternalToInputInfo(format);
+			
+			//open row iterator
+			return readMatrixRows(fname, iinfo, rows, cols, brlen, bclen, batchRows);
+		}
+		catch(Exception ex) {
+			throw new IOException(ex);
+		}
+	}
+	
+	/**
+	 * Opens a streaming row iterator over an input matrix in binary-block or CSV
+	 * format on HDFS, which returns the rows in reused batches of dense row-major
+	 * values instead of materializing the entire matrix. The returned iterator
+	 * needs to be closed after use.
+	 * NOTE: this call currently only supports default configurations for CSV.
+	 * 
+	 * @param fname the filename of the input matrix
+	 * @param iinfo InputInfo object
+	 * @param rows number of rows in the matrix
+	 * @param cols number of columns in the matrix
+	 * @param brlen number of rows per block
+	 * @param bclen number of columns per block
+	 * @param batchRows max number of rows per batch
+	 * @return row iterator over the matrix
+	 * @throws IOException if IOException occurs
+	 */
+	public MatrixRowIterator readMatrixRows(String fname, InputInfo iinfo, long rows, long cols, int brlen, int bclen, int batchRows) 
+		throws IOException
+	{
+		setLocalConfigs();
+		
+		try {
+			return MatrixRowIterator.create(fname, iinfo, rows, cols, brlen, bclen, null, batchRows);
+		}
+		catch(DMLRuntimeException ex) {
+			throw new IOException(ex);
+		}
+	}
+	
 	/**
 	 * Converts an input string representation of a matrix in csv or textcell format
 	 * into a dense double array. The meta data string is the SystemML generated
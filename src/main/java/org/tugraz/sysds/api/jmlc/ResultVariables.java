@@ -27,6 +27,7 @@ import org.tugraz.sysds.runtime.controlprogram.caching.FrameObject;
 import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.instructions.cp.Data;
 import org.tugraz.sysds.runtime.instructions.cp.ScalarObject;
+import org.tugraz.sysds.runtime.io.MatrixRowIterator;
 import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.util.DataConverter;
@@ -96,6 +97,26 @@ public class ResultVariables
 		return mb;
 	}
 	
+	/**
+	 * Obtain a row iterator over the matrix represented by the given output
+	 * variable, which returns the rows in reused batches of dense row-major
+	 * values instead of converting the entire matrix to a double array.
+	 * The iterator should be closed if not consumed entirely.
+	 * 
+	 * @param varname output variable name
+	 * @param batchRows max number of rows per batch
+	 * @return row iterator over the matrix
+	 */
+	public MatrixRowIterator getMatrixRows(String varname, int batchRows) {
+		Data dat = _out.get(varname);
+		if( dat == null )
+			throw new DMLException("Non-existent output variable: "+varname);
+		if( !(dat instanceof MatrixObject) )
+			throw new DMLException("Expected matrix result '"+varname+"' not a matrix.");
+		//pin the matrix until the iterator is closed or exhausted
+		return MatrixRowIterator.create((MatrixObject)dat, batchRows);
+	}
+	
 	/**
 	 * Obtain the frame represented by the given output variable.
 	 * 
@@ -54,6 +54,7 @@ import org.tugraz.sysds.runtime.instructions.spark.functions.CopyTextInputFuncti
 import org.tugraz.sysds.runtime.instructions.spark.utils.FrameRDDConverterUtils;
 import org.tugraz.sysds.runtime.instructions.spark.utils.RDDConverterUtils;
 import org.tugraz.sysds.runtime.instructions.spark.utils.SparkUtils;
+import org.tugraz.sysds.runtime.io.MatrixRowIterator;
 import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
 import org.tugraz.sysds.runtime.matrix.data.IJV;
 import org.tugraz.sysds.runtime.matrix.data.InputInfo;
@@ -1133,6 +1134,20 @@ public class MLContextConversionUtil {
 		return matrix;
 	}
 
+	/**
+	 * Convert a {@code MatrixObject} to a row iterator over batches of rows,
+	 * where the matrix is pinned until the iterator is closed or exhausted.
+	 *
+	 * @param matrixObject
+	 *            the {@code MatrixObject}
+	 * @param batchRows
+	 *            max number of rows per batch
+	 * @return the {@code MatrixObject} converted to a {@code MatrixRowIterator}
+	 */
+	public static MatrixRowIterator matrixObjectToRowIterator(MatrixObject matrixObject, int batchRows) {
+		return MatrixRowIterator.create(matrixObject, batchRows);
+	}
+
 	/**
 	 * Convert a {@code MatrixObject} to a {@code DataFrame}.
 	 *
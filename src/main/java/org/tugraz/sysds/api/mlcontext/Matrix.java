@@ -28,6 +28,7 @@ import org.tugraz.sysds.conf.ConfigurationManager;
 import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.controlprogram.context.SparkExecutionContext;
 import org.tugraz.sysds.runtime.instructions.spark.utils.RDDConverterUtils;
+import org.tugraz.sysds.runtime.io.MatrixRowIterator;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.data.MatrixIndexes;
 import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
@@ -123,6 +124,22 @@ public class Matrix {
 		return MLContextConversionUtil.matrixObjectTo2DDoubleArray(matrixObject);
 	}
 
+	/**
+	 * Obtain a row iterator over the matrix, which returns the rows in reused
+	 * batches of dense row-major values instead of a two-dimensional double array.
+	 * The iterator should be closed if not consumed entirely.
+	 *
+	 * @param batchRows
+	 *            max number of rows per batch
+	 * @return the row iterator over the matrix
+	 */
+	public MatrixRowIterator toRowIterator(int batchRows) {
+		if (matrixObject != null) {
+			return MLContextConversionUtil.matrixObjectToRowIterator(matrixObject, batchRows);
+		}
+		return MatrixRowIterator.create(toMatrixBlock(), batchRows);
+	}
+
 	/**
 	 * Obtain the matrix as a {@code JavaRDD<String>} in IJV format
 	 *
@@ -72,6 +72,11 @@ public class DMLConfig
 	public static final String YARN_APPQUEUE        = "sysml.yarn.app.queue"; 
 	public static final String CP_PARALLEL_OPS      = "sysml.cp.parallel.ops";
 	public static final String CP_PARALLEL_IO       = "sysml.cp.parallel.io";
+	public static final String IO_COLUMNAR_COMPRESS = "sysml.io.columnar.compress"; //boolean
+	public static final String RAND_PRNG            = "sysml.rand.prng"; //well or philox
+	public static final String SPARSE_DCSR          = "sysml.sparse.dcsr"; //boolean
+	public static final String LINEAGE_FORMAT       = "sysml.lineage.format"; //text or binary
+	public static final String LINEAGE_COMPRESS     = "sysml.lineage.compress"; //boolean
 	public static final String NATIVE_BLAS          = "sysml.native.blas";
 	public static final String NATIVE_BLAS_DIR      = "sysml.native.blas.directory";
 	public static final String CODEGEN              = "sysml.codegen.enabled"; //boolean
@@ -80,6 +85,9 @@ public class DMLConfig
 	public static final String CODEGEN_PLANCACHE    = "sysml.codegen.plancache"; //boolean
 	public static final String CODEGEN_LITERALS     = "sysml.codegen.literals"; //1..heuristic, 2..always
 	public static final String CACHING_BUFFER_SIZE 	= "sysml.caching.bufferSize"; //double: default:0.15
+	public static final String OFFHEAP_DENSE        = "sysml.offheap.dense"; //boolean
+	public static final String OFFHEAP_DENSE_THRESHOLD = "sysml.offheap.dense.threshold"; //double: MB, default:1024
+	public static final String COST_CALIBRATION     = "sysml.cost.calibration"; //boolean
 	public static final String EXTRA_FINEGRAINED_STATS = "sysml.stats.finegrained"; //boolean
 	public static final String STATS_MAX_WRAP_LEN   = "sysml.stats.maxWrapLength"; //int
 	public static final String AVAILABLE_GPUS       = "sysml.gpu.availableGPUs"; // String to specify which GPUs to use (a range, all GPUs, comma separated list or a specific GPU)
@@ -126,6 +134,11 @@ public class DMLConfig
 		_defaultVals.put(YARN_APPQUEUE,    	     "default" );
 		_defaultVals.put(CP_PARALLEL_OPS,        "true" );
 		_defaultVals.put(CP_PARALLEL_IO,         "true" );
+		_defaultVals.put(IO_COLUMNAR_COMPRESS,   "false" );
+		_defaultVals.put(RAND_PRNG,              "well" );
+		_defaultVals.put(SPARSE_DCSR,            "false" );
+		_defaultVals.put(LINEAGE_FORMAT,         "text" );
+		_defaultVals.put(LINEAGE_COMPRESS,       "false" );
 		_defaultVals.put(CODEGEN,                "false" );
 		_defaultVals.put(CODEGEN_COMPILER,       CompilerType.AUTO.name() );
 		_defaultVals.put(CODEGEN_OPTIMIZER,      PlanSelector.FUSE_COST_BASED_V2.name() );
@@ -143,6 +156,9 @@ public class DMLConfig
 		_defaultVals.put(GPU_EVICTION_POLICY,    "min_evict");
 		_defaultVals.put(SYNCHRONIZE_GPU,        "false" );
 		_defaultVals.put(CACHING_BUFFER_SIZE,    "0.15" );
+		_defaultVals.put(OFFHEAP_DENSE,          "false" );
+		_defaultVals.put(OFFHEAP_DENSE_THRESHOLD,"1024" );
+		_defaultVals.put(COST_CALIBRATION,       "false" );
 		_defaultVals.put(EAGER_CUDA_FREE,        "false" );
 		_defaultVals.put(FLOATING_POINT_PRECISION,        	 "double" );
 	}
@@ -422,9 +438,11 @@ public class DMLConfig
 				LOCAL_TMP_DIR,SCRATCH_SPACE,OPTIMIZATION_LEVEL,
 				NUM_REDUCERS, DEFAULT_BLOCK_SIZE,
 				YARN_APPMASTER, YARN_APPMASTERMEM, YARN_MAPREDUCEMEM, 
-				CP_PARALLEL_OPS, CP_PARALLEL_IO, NATIVE_BLAS, NATIVE_BLAS_DIR,
+				CP_PARALLEL_OPS, CP_PARALLEL_IO, IO_COLUMNAR_COMPRESS, RAND_PRNG, SPARSE_DCSR, LINEAGE_FORMAT, LINEAGE_COMPRESS,
+				NATIVE_BLAS, NATIVE_BLAS_DIR,
 				CODEGEN, CODEGEN_COMPILER, CODEGEN_OPTIMIZER, CODEGEN_PLANCACHE, CODEGEN_LITERALS,
 				EXTRA_FINEGRAINED_STATS, STATS_MAX_WRAP_LEN, PRINT_GPU_MEMORY_INFO, CACHING_BUFFER_SIZE,
+				OFFHEAP_DENSE, OFFHEAP_DENSE_THRESHOLD,
 				AVAILABLE_GPUS, SYNCHRONIZE_GPU, EAGER_CUDA_FREE, FLOATING_POINT_PRECISION, GPU_EVICTION_POLICY, EVICTION_SHADOW_BUFFERSIZE,
 				GPU_MEMORY_ALLOCATOR, GPU_MEMORY_UTILIZATION_FACTOR
 		}; 
@@ -412,7 +412,7 @@ public class BinaryOp extends MultiThreadedHop
 		} 
 		else 
 		{
-			// Both operands are Matrixes
+			// Both operands are Matrixes (or Tensors)
 			ExecType et = optFindExecType();
 			boolean isGPUSoftmax = et == ExecType.GPU && op == Hop.OpOp2.DIV && 
 					getInput().get(0) instanceof UnaryOp && getInput().get(1) instanceof AggUnaryOp && 
@@ -445,7 +445,7 @@ public class BinaryOp extends MultiThreadedHop
 				}
 				else
 					binary = new Binary(getInput().get(0).constructLops(), getInput().get(1).constructLops(), HopsOpOp2LopsB.get(op),
-						getDataType(), getValueType(), et);
+						getDataType(), getValueType(), et, OptimizerUtils.getConstrainedNumThreads(_maxNumThreads));
 				
 				setOutputDimensions(binary);
 				setLineNumbers(binary);
@@ -684,6 +684,10 @@ public class BinaryOp extends MultiThreadedHop
 		if( _etypeForced != null ) {		
 			_etype = _etypeForced;
 		}
+		else if( dt1 == DataType.TENSOR && dt2 == DataType.TENSOR ) {
+			//tensor operations are only supported in CP
+			_etype = ExecType.CP;
+		}
 		else 
 		{
 			if ( OptimizerUtils.isMemoryBasedOptLevel() ) 
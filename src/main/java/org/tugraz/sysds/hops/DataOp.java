@@ -346,6 +346,22 @@ public class DataOp extends Hop
 		return _inColsInBlock;
 	}
 	
+	/**
+	 * Indicates if all consumers of this persistent read are right indexing
+	 * operations in CP that read their ranges directly from the file, in which
+	 * case neither reblock nor checkpoint are required. Note that this only
+	 * uses already determined exec types of the parents (e.g., of the parent
+	 * whose lop construction triggered the construction of this read), while
+	 * parents without exec type conservatively retain reblock and checkpoint.
+	 * 
+	 * @return true if only consumed by range reads
+	 */
+	public boolean isRangeReadOnly() {
+		return _dataop == DataOpTypes.PERSISTENTREAD && !getParent().isEmpty()
+			&& getParent().stream().allMatch(p -> p instanceof IndexingOp
+				&& ((IndexingOp)p).isReadPushdown() && p.getExecType() == ExecType.CP);
+	}
+	
 	public boolean isRead()
 	{
 		return( _dataop == DataOpTypes.PERSISTENTREAD || _dataop == DataOpTypes.TRANSIENTREAD );
@@ -458,8 +474,8 @@ public class DataOp extends Hop
 		{
 			checkAndSetForcedPlatform();
 
-			//additional check for write only
-			if( getDataType()==DataType.SCALAR )
+			//additional check for write only (columnar format is single-file, CP-only)
+			if( getDataType()==DataType.SCALAR || _inFormat == FileFormatTypes.COLUMNAR )
 				_etypeForced = ExecType.CP;
 			
 			if( _etypeForced != null )
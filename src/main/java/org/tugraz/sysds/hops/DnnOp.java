@@ -134,6 +134,17 @@ public class DnnOp extends MultiThreadedHop
 				}
 				// break;
 			}
+			case CONV2D_BIAS_ADD_RELU:
+			{	
+				if(et == ExecType.CP) {
+					setLops(constructDnnLops(et, inputs));
+					break;
+				}
+				else {
+					throw new HopsException("Unimplemented DnnOp for execution type: " + et.name());
+				}
+				// break;
+			}
 			case BATCH_NORM2D_TEST:
 			case CHANNEL_SUMS:
 			case UPDATE_NESTEROV_X:
@@ -169,6 +180,8 @@ public class DnnOp extends MultiThreadedHop
 			case CONV2D_BACKWARD_FILTER:
 			case CONV2D_BACKWARD_DATA:
 				return 14;
+			case CONV2D_BIAS_ADD_RELU:
+				return 15;
 			case BIASADD:
 			case BIASMULT:
 				return 2;
@@ -207,6 +220,10 @@ public class DnnOp extends MultiThreadedHop
 		return HopRewriteUtils.isDnn(input, OpOpDnn.CONV2D);
 	}
 	
+	private boolean isConv2d() {
+		return op == OpOpDnn.CONV2D || op == OpOpDnn.CONV2D_BIAS_ADD_RELU;
+	}
+	
 	/**
 	 * Compares the input parameters for max_pool/max_pool_backward operations
 	 * 
@@ -285,6 +302,14 @@ public class DnnOp extends MultiThreadedHop
 			// Use the inputs from conv2d rather than bias_add
 			inputsOfPotentiallyFusedOp = inputs.get(0).getInput();
 		}
+		else if(op == OpOpDnn.CONV2D_BIAS_ADD_RELU) {
+			// the first lop is image, the second lop is bias (last input)
+			lhsInputLop = inputs.get(0).constructLops();
+			optionalRhsInputLop = inputs.get(14).constructLops();
+			
+			// Use the remaining conv2d inputs (filter and parameters)
+			inputsOfPotentiallyFusedOp = new ArrayList<>(inputs.subList(0, 14));
+		}
 		else {
 			lhsInputLop = inputs.get(0).constructLops();
 		}
@@ -461,7 +486,7 @@ public class DnnOp extends MultiThreadedHop
 	{	
 		ArrayList<IntermediateDimensions> gpuIntermediates = new ArrayList<>();
 		ArrayList<IntermediateDimensions> cpIntermediates = new ArrayList<>();
-		if(getOp() == OpOpDnn.CONV2D) {
+		if(isConv2d()) {
 			// Assumption: To compile a GPU conv2d operator, following should fit on the GPU:
 			// 1. output in dense format (i.e. computeOutputMemEstimate) 
 			// 2. input in any format
@@ -601,7 +626,7 @@ public class DnnOp extends MultiThreadedHop
 		
 		Hop imageHeightHop = null; Hop filterHeightHop = null;
 		if(op == OpOpDnn.MAX_POOL_BACKWARD || op == OpOpDnn.AVG_POOL_BACKWARD 
-				|| op == OpOpDnn.CONV2D 
+				|| isConv2d()
 				|| op == OpOpDnn.CONV2D_BACKWARD_FILTER
 				|| op == OpOpDnn.CONV2D_BACKWARD_DATA) {
 			_cachedParams.setIfUnknown(
@@ -634,7 +659,7 @@ public class DnnOp extends MultiThreadedHop
 		
 		if(INFER_TENSOR_SHAPE_FROM_PARENT_CONV_OP) {
 			boolean isPool = (getOp() == OpOpDnn.MAX_POOL || getOp() == OpOpDnn.AVG_POOL);
-			boolean isConv = getOp() == OpOpDnn.CONV2D;
+			boolean isConv = isConv2d();
 			boolean unknownCHWPQ = _cachedParams.C < 0 || _cachedParams.H < 0 || _cachedParams.W < 0 || _cachedParams.P < 0 || _cachedParams.Q < 0;
 			if((isPool || isConv) && unknownCHWPQ) {
 				// Only infer input shape for convolution and maxpool
@@ -716,7 +741,7 @@ public class DnnOp extends MultiThreadedHop
 				throwExceptionIfNotEqual(prevW, _cachedParams.W, "W");
 			}
 		}
-		else if(parentOp.getOp() == OpOpDnn.CONV2D) {
+		else if(parentOp.isConv2d()) {
 			DnnParameters parentParam = parentOp.parseInput();
 			int prevC = _cachedParams.C; int prevH = _cachedParams.H; int prevW = _cachedParams.W;
 			// [K, P, Q] from convolution becomes [C, H, W] of next op
@@ -775,6 +800,7 @@ public class DnnOp extends MultiThreadedHop
 				break;
 			}
 			case CONV2D:
+			case CONV2D_BIAS_ADD_RELU:
 			{
 				_dim1 = getDim("N");
 				_dim2 = getDim("KPQ");
@@ -858,7 +884,7 @@ public class DnnOp extends MultiThreadedHop
 		Hop dout = null;	// shape: N x KPQ
 		Hop dout1 = null;	// shape: N x CPQ
 		
-		if(getOp() == OpOpDnn.CONV2D) {
+		if(isConv2d()) {
 			input  = getInput().get(0);
 			filter = getInput().get(1);
 		}
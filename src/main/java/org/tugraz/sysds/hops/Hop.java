@@ -70,6 +70,7 @@ public abstract class Hop implements ParseInfo
 	private static IDSequence _seqHopID = new IDSequence();
 	
 	protected final long _ID;
+	protected long _originID; //ID of the originating hop (stable across deep copies)
 	protected String _name;
 	protected DataType _dataType;
 	protected ValueType _valueType;
@@ -117,6 +118,7 @@ public abstract class Hop implements ParseInfo
 	protected Hop(){
 		//default constructor for clone
 		_ID = getNextHopID();
+		_originID = _ID;
 	}
 		
 	public Hop(String l, DataType dt, ValueType vt) {
@@ -134,6 +136,16 @@ public abstract class Hop implements ParseInfo
 	public long getHopID() {
 		return _ID;
 	}
+	
+	/**
+	 * Obtains the ID of the originating hop, which is preserved
+	 * over deep copies (e.g., during dynamic recompilation).
+	 * 
+	 * @return origin hop ID
+	 */
+	public long getOriginHopID() {
+		return _originID;
+	}
 
 	/**
 	 * Check whether this Hop has a correct number of inputs.
@@ -269,6 +281,10 @@ public abstract class Hop implements ParseInfo
 		constructAndSetCheckpointLopIfRequired();
 	}
 
+	private boolean isRangeReadOnly() {
+		return this instanceof DataOp && ((DataOp)this).isRangeReadOnly();
+	}
+
 	private void constructAndSetReblockLopIfRequired() 
 	{
 		//determine execution type
@@ -280,7 +296,7 @@ public abstract class Hop implements ParseInfo
 		}
 
 		//add reblock lop to output if required
-		if( _requiresReblock && et != ExecType.CP )
+		if( _requiresReblock && et != ExecType.CP && !isRangeReadOnly() )
 		{
 			Lop input = getLops();
 			Lop reblock = null;
@@ -332,7 +348,7 @@ public abstract class Hop implements ParseInfo
 		}
 
 		//add checkpoint lop to output if required
-		if( _requiresCheckpoint && et != ExecType.CP )
+		if( _requiresCheckpoint && et != ExecType.CP && !isRangeReadOnly() )
 		{
 			try
 			{
@@ -1049,7 +1065,7 @@ public abstract class Hop implements ParseInfo
 		MAX_POOL, MAX_POOL_BACKWARD, AVG_POOL, AVG_POOL_BACKWARD,
 		CONV2D, CONV2D_BACKWARD_FILTER, CONV2D_BACKWARD_DATA,
 		BIASADD, BIASMULT, BATCH_NORM2D_TEST, CHANNEL_SUMS,
-		UPDATE_NESTEROV_X
+		UPDATE_NESTEROV_X, CONV2D_BIAS_ADD_RELU
 	}
 	
 	public enum DataGenMethod {
@@ -1064,7 +1080,7 @@ public abstract class Hop implements ParseInfo
 	}
 
 	public enum FileFormatTypes {
-		TEXT, BINARY, MM, CSV, LIBSVM
+		TEXT, BINARY, MM, CSV, LIBSVM, COLUMNAR
 	}
 
 	public enum DataOpTypes {
@@ -1125,6 +1141,7 @@ public abstract class Hop implements ParseInfo
 		HopsConv2Lops.put(OpOpDnn.BATCH_NORM2D_TEST, org.tugraz.sysds.lops.DnnTransform.OperationTypes.BATCH_NORM2D_TEST);
 		HopsConv2Lops.put(OpOpDnn.CHANNEL_SUMS, org.tugraz.sysds.lops.DnnTransform.OperationTypes.CHANNEL_SUMS);
 		HopsConv2Lops.put(OpOpDnn.UPDATE_NESTEROV_X, org.tugraz.sysds.lops.DnnTransform.OperationTypes.UPDATE_NESTEROV_X);
+		HopsConv2Lops.put(OpOpDnn.CONV2D_BIAS_ADD_RELU, org.tugraz.sysds.lops.DnnTransform.OperationTypes.CONV2D_BIAS_ADD_RELU);
 	}
 
 	protected static final HashMap<Hop.Direction, org.tugraz.sysds.lops.PartialAggregate.DirectionTypes> HopsDirection2Lops;
@@ -1820,6 +1837,7 @@ public abstract class Hop implements ParseInfo
 		if( withRefs )
 			throw new CloneNotSupportedException( "Hops deep copy w/ lops/inputs/parents not supported." );
 		
+		_originID = that._originID;
 		_name = that._name;
 		_dataType = that._dataType;
 		_valueType = that._valueType;
@@ -1896,6 +1914,7 @@ public abstract class Hop implements ParseInfo
 	protected void setLineNumbers(Lop lop)
 	{
 		lop.setAllPositions(this.getFilename(), this.getBeginLine(), this.getBeginColumn(), this.getEndLine(), this.getEndColumn());
+		lop.setHopID(getOriginHopID());
 	}
 
 	/**
@@ -37,6 +37,7 @@ public class IndexingOp extends Hop
 	
 	private boolean _rowLowerEqualsUpper = false;
 	private boolean _colLowerEqualsUpper = false;
+	private boolean _readPushdown = false; //range read of persistent input
 	
 	private enum IndexingMethod { 
 		CP_RIX, //in-memory range index
@@ -93,6 +94,14 @@ public class IndexingOp extends Hop
 		_colLowerEqualsUpper = passed;
 	}
 	
+	public boolean isReadPushdown() {
+		return _readPushdown;
+	}
+	
+	public void setReadPushdown(boolean flag) {
+		_readPushdown = flag;
+	}
+	
 	@Override
 	public boolean isGPUEnabled() {
 		if(!DMLScript.USE_ACCELERATOR) {
@@ -154,6 +163,7 @@ public class IndexingOp extends Hop
 							input.constructLops(), getInput().get(1).constructLops(), getInput().get(2).constructLops(),
 							getInput().get(3).constructLops(), getInput().get(4).constructLops(), dummy, dummy,
 							getDataType(), getValueType(), et);
+					reindex.setReadPushdown(_readPushdown && et == ExecType.CP);
 					
 					setOutputDimensions(reindex);
 					setLineNumbers(reindex);
@@ -199,7 +209,11 @@ public class IndexingOp extends Hop
 				_outputMemEstimate = lOutMemEst;
 				_memEstimate = getInputOutputSize();				
 			}
-		}		
+		}
+		
+		//range reads of persistent inputs only materialize the output
+		if( _readPushdown )
+			_memEstimate = _outputMemEstimate + _processingMemEstimate;
 	}
 	
 	@Override
@@ -451,6 +465,9 @@ public class IndexingOp extends Hop
 		//copy generic attributes
 		ret.clone(this, false);
 		//copy specific attributes
+		ret._rowLowerEqualsUpper = _rowLowerEqualsUpper;
+		ret._colLowerEqualsUpper = _colLowerEqualsUpper;
+		ret._readPushdown = _readPushdown;
 		return ret;
 	}
 	
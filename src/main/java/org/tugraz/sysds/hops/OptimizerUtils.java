@@ -181,12 +181,24 @@ public class OptimizerUtils
 	 */
 	public static boolean ALLOW_LOOP_UPDATE_IN_PLACE = true;
 	
+	/**
+	 * Enables a specific rewrite that pushes right indexing ranges on persistent reads
+	 * into the readers, which then skip blocks, splits, and columns outside the range.
+	 */
+	public static boolean ALLOW_READ_RANGE_PUSHDOWN = true;
+	
 	/**
 	 * Enables a specific rewrite for code motion, i.e., hoisting loop invariant code
 	 * out of while, for, and parfor loops.
 	 */
 	public static boolean ALLOW_CODE_MOTION = false;
 	
+	/**
+	 * Enables a bounded per-statement-block cache of dynamically recompiled instructions,
+	 * keyed by the input dimensions, sparsity buckets, and scalar values of the DAG.
+	 */
+	public static boolean ALLOW_RECOMPILE_CACHE = true;
+	
 	
 	/**
 	 * Specifies a multiplier computing the degree of parallelism of parallel
@@ -295,6 +307,7 @@ public class OptimizerUtils
 				IPA_NUM_REPETITIONS = 1;
 				ALLOW_BRANCH_REMOVAL = false;
 				ALLOW_SUM_PRODUCT_REWRITES = false;
+				ALLOW_READ_RANGE_PUSHDOWN = false;
 				break;
 			// opt level 1: memory-based (no advanced rewrites)	
 			case 1:
@@ -308,6 +321,7 @@ public class OptimizerUtils
 				ALLOW_BRANCH_REMOVAL = false;
 				ALLOW_SUM_PRODUCT_REWRITES = false;
 				ALLOW_LOOP_UPDATE_IN_PLACE = false;
+				ALLOW_READ_RANGE_PUSHDOWN = false;
 				break;
 			// opt level 2: memory-based (all advanced rewrites)
 			case 2:
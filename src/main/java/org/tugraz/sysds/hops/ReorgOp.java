@@ -149,7 +149,7 @@ public class ReorgOp extends MultiThreadedHop
 				Lop lin = getInput().get(0).constructLops();
 				if( lin instanceof Transform && ((Transform)lin).getOperationType()==OperationTypes.Transpose )
 					setLops(lin.getInputs().get(0)); //if input is already a transpose, avoid redundant transpose ops
-				else if( getDim1()==1 && getDim2()==1 )
+				else if( getDataType().isMatrix() && getDim1()==1 && getDim2()==1 )
 					setLops(lin); //if input of size 1x1, avoid unnecessary transpose
 				else { //general case
 					int k = OptimizerUtils.getConstrainedNumThreads(_maxNumThreads);
@@ -359,6 +359,11 @@ public class ReorgOp extends MultiThreadedHop
 		{
 			_etype = _etypeForced;
 		}
+		else if( getDataType() == DataType.TENSOR )
+		{
+			//tensor operations are only supported in CP
+			_etype = ExecType.CP;
+		}
 		else 
 		{	
 			if ( OptimizerUtils.isMemoryBasedOptLevel() ) {
@@ -450,7 +450,9 @@ public class UnaryOp extends MultiThreadedHop
 	public boolean isExpensiveUnaryOperation()  {
 		return (_op == OpOp1.EXP 
 			|| _op == OpOp1.LOG
-			|| _op == OpOp1.SIGMOID);
+			|| _op == OpOp1.SIGMOID
+			|| _op == OpOp1.INVERSE
+			|| _op == OpOp1.CHOLESKY);
 	}
 	
 	public boolean isMetadataOperation() {
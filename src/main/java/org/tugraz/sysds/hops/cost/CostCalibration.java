@@ -0,0 +1,341 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.hops.cost;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.util.EnumMap;
+import java.util.Properties;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.tugraz.sysds.conf.ConfigurationManager;
+import org.tugraz.sysds.conf.DMLConfig;
+import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.lops.Lop;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheDataOutput;
+import org.tugraz.sysds.runtime.functionobjects.Plus;
+import org.tugraz.sysds.runtime.io.IOUtilFunctions;
+import org.tugraz.sysds.runtime.io.MatrixReaderFactory;
+import org.tugraz.sysds.runtime.io.MatrixWriterFactory;
+import org.tugraz.sysds.runtime.matrix.data.InputInfo;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixMult;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
+import org.tugraz.sysds.runtime.util.LocalFileUtils;
+
+/**
+ * Per-host calibration of the coefficients of the static runtime cost model.
+ * On first use (if enabled via configuration), we run a short suite of single-
+ * threaded microbenchmarks (matrix multiplication, cellwise and aggregation
+ * operations, binary block and text I/O, as well as in-memory serialization),
+ * and persist the obtained coefficients in a host-specific properties file
+ * under the local tmp directory.
+ * Subsequent runs on the same host simply load the persisted coefficients.
+ * 
+ * All compute coefficients are obtained in terms of the FLOP counts of the cost
+ * model itself, which keeps them consistent with the estimated operation costs.
+ */
+public class CostCalibration 
+{
+	private static final Log LOG = LogFactory.getLog(CostCalibration.class.getName());
+	
+	private static final String FILE_PREFIX = "costcalib_";
+	private static final int NUM_RUNS = 3;
+	private static final long SEED = 7;
+	
+	public enum Coefficient {
+		//compute throughput [FLOP/s]
+		FLOPS_MATMULT(2d * 1024 * 1024 * 1024),
+		FLOPS_CELLWISE(2d * 1024 * 1024 * 1024),
+		FLOPS_AGGREGATE(2d * 1024 * 1024 * 1024),
+		//local IO read throughput [MB/s]
+		MBS_FSREAD_BINARYBLOCK_DENSE(200),
+		MBS_FSREAD_BINARYBLOCK_SPARSE(100),
+		//local IO write throughput [MB/s]
+		MBS_FSWRITE_BINARYBLOCK_DENSE(150),
+		MBS_FSWRITE_BINARYBLOCK_SPARSE(75),
+		//hdfs IO read/write throughput [MB/s]
+		MBS_HDFSREAD_BINARYBLOCK_DENSE(150),
+		MBS_HDFSREAD_BINARYBLOCK_SPARSE(75),
+		MBS_HDFSWRITE_BINARYBLOCK_DENSE(120),
+		MBS_HDFSWRITE_BINARYBLOCK_SPARSE(60),
+		MBS_HDFSREAD_TEXT_DENSE(60),
+		MBS_HDFSREAD_TEXT_SPARSE(40),
+		MBS_HDFSWRITE_TEXT_DENSE(40),
+		MBS_HDFSWRITE_TEXT_SPARSE(30),
+		//in-memory serialization throughput [MB/s]
+		MBS_SERIALIZE_DENSE(1000),
+		MBS_SERIALIZE_SPARSE(500);
+		
+		private final double _default;
+		
+		private Coefficient(double defaultVal) {
+			_default = defaultVal;
+		}
+		
+		public double getDefault() {
+			return _default;
+		}
+	}
+	
+	//calibrated coefficients, null if not calibrated
+	private static EnumMap<Coefficient, Double> _coeffs = null;
+	
+	/**
+	 * Obtains the calibrated coefficient if available, otherwise the default.
+	 * 
+	 * @param c coefficient type
+	 * @return coefficient value
+	 */
+	public static double get(Coefficient c) {
+		EnumMap<Coefficient, Double> coeffs = _coeffs;
+		Double ret = (coeffs != null) ? coeffs.get(c) : null;
+		return (ret != null) ? ret : c.getDefault();
+	}
+	
+	public static boolean isCalibrated() {
+		return _coeffs != null;
+	}
+	
+	public static void reset() {
+		_coeffs = null;
+	}
+	
+	/**
+	 * Loads the persisted coefficients of the current host, or runs the
+	 * microbenchmark suite and persists the obtained coefficients if
+	 * no calibration exists yet.
+	 */
+	public static synchronized void initialize() {
+		if( isCalibrated() )
+			return;
+		File file = getCalibrationFile();
+		try {
+			EnumMap<Coefficient, Double> coeffs = file.exists() ?
+				readCoefficients(file) : null;
+			if( coeffs == null ) {
+				coeffs = calibrate();
+				writeCoefficients(file, coeffs);
+			}
+			_coeffs = coeffs;
+		}
+		catch(Exception ex) {
+			LOG.warn("Failed to calibrate cost model, falling back to defaults.", ex);
+		}
+	}
+	
+	/**
+	 * Runs the microbenchmark suite and returns the obtained coefficients.
+	 * 
+	 * @return calibrated coefficients
+	 * @throws IOException if the IO benchmarks fail
+	 */
+	public static EnumMap<Coefficient, Double> calibrate() 
+		throws IOException
+	{
+		long t0 = System.nanoTime();
+		EnumMap<Coefficient, Double> ret = new EnumMap<>(Coefficient.class);
+		
+		//compute benchmarks (single-threaded, dense)
+		MatrixBlock A = MatrixBlock.randOperations(500, 500, 1.0, 0, 1, "uniform", SEED);
+		MatrixBlock B = MatrixBlock.randOperations(500, 500, 1.0, 0, 1, "uniform", SEED+1);
+		MatrixBlock X = MatrixBlock.randOperations(2000, 2000, 1.0, 0, 1, "uniform", SEED+2);
+		MatrixBlock Y = MatrixBlock.randOperations(2000, 2000, 1.0, 0, 1, "uniform", SEED+3);
+		
+		double tmm = measure(() -> LibMatrixMult.matrixMult(A, B, new MatrixBlock(500, 500, false)));
+		ret.put(Coefficient.FLOPS_MATMULT, getNFLOP("ba+*", A, B, A) / tmm);
+		BinaryOperator plus = new BinaryOperator(Plus.getPlusFnObject());
+		double tcw = measure(() -> X.binaryOperations(plus, Y, new MatrixBlock()));
+		ret.put(Coefficient.FLOPS_CELLWISE, getNFLOP("+", X, Y, X) / tcw);
+		double tagg = measure(() -> X.sum());
+		ret.put(Coefficient.FLOPS_AGGREGATE, getNFLOP("uak+", X, null, null) / tagg);
+		
+		//local IO benchmarks (binary block and text)
+		MatrixBlock D = MatrixBlock.randOperations(1000, 1000, 1.0, 0, 1, "uniform", SEED+4);
+		MatrixBlock S = MatrixBlock.randOperations(4000, 4000, 0.01, 0, 1, "uniform", SEED+5);
+		String dir = LocalFileUtils.getUniqueWorkingDir("calib");
+		String fname = dir + Lop.FILE_SEPARATOR + "X";
+		LocalFileUtils.createLocalFileIfNotExist(dir);
+		try {
+			double[] dense = measureBinaryBlockIO(D, fname);
+			double[] sparse = measureBinaryBlockIO(S, fname);
+			ret.put(Coefficient.MBS_FSWRITE_BINARYBLOCK_DENSE, dense[0]);
+			ret.put(Coefficient.MBS_FSREAD_BINARYBLOCK_DENSE, dense[1]);
+			ret.put(Coefficient.MBS_FSWRITE_BINARYBLOCK_SPARSE, sparse[0]);
+			ret.put(Coefficient.MBS_FSREAD_BINARYBLOCK_SPARSE, sparse[1]);
+			double[] tdense = measureTextIO(D, fname);
+			double[] tsparse = measureTextIO(S, fname);
+			ret.put(Coefficient.MBS_HDFSWRITE_TEXT_DENSE, tdense[0]);
+			ret.put(Coefficient.MBS_HDFSREAD_TEXT_DENSE, tdense[1]);
+			ret.put(Coefficient.MBS_HDFSWRITE_TEXT_SPARSE, tsparse[0]);
+			ret.put(Coefficient.MBS_HDFSREAD_TEXT_SPARSE, tsparse[1]);
+		}
+		finally {
+			LocalFileUtils.deleteFileIfExists(dir);
+		}
+		
+		//in-memory serialization benchmarks (e.g., buffer pool eviction)
+		ret.put(Coefficient.MBS_SERIALIZE_DENSE, measureSerialization(D));
+		ret.put(Coefficient.MBS_SERIALIZE_SPARSE, measureSerialization(S));
+		
+		//hdfs binary block IO scaled by the ratio of measured and default local IO
+		scale(ret, Coefficient.MBS_HDFSREAD_BINARYBLOCK_DENSE, Coefficient.MBS_FSREAD_BINARYBLOCK_DENSE);
+		scale(ret, Coefficient.MBS_HDFSREAD_BINARYBLOCK_SPARSE, Coefficient.MBS_FSREAD_BINARYBLOCK_SPARSE);
+		scale(ret, Coefficient.MBS_HDFSWRITE_BINARYBLOCK_DENSE, Coefficient.MBS_FSWRITE_BINARYBLOCK_DENSE);
+		scale(ret, Coefficient.MBS_HDFSWRITE_BINARYBLOCK_SPARSE, Coefficient.MBS_FSWRITE_BINARYBLOCK_SPARSE);
+		
+		if( LOG.isDebugEnabled() ) {
+			LOG.debug("Calibrated cost model in "+((System.nanoTime()-t0)/1e9)+"s: "+ret);
+		}
+		return ret;
+	}
+	
+	private static double measure(Runnable r) {
+		//best of multiple runs, after one warmup run
+		r.run();
+		long best = Long.MAX_VALUE;
+		for( int i=0; i<NUM_RUNS; i++ ) {
+			long t0 = System.nanoTime();
+			r.run();
+			best = Math.min(best, System.nanoTime()-t0);
+		}
+		return Math.max(best, 1) / 1e9;
+	}
+	
+	private static double[] measureBinaryBlockIO(MatrixBlock mb, String fname) 
+		throws IOException
+	{
+		double mbytes = getSizeOnDiskMB(mb);
+		double[] ret = new double[2];
+		ret[0] = mbytes / measure(() -> {
+			try { LocalFileUtils.writeMatrixBlockToLocal(fname, mb); }
+			catch(IOException ex) { throw new RuntimeException(ex); }
+		});
+		ret[1] = mbytes / measure(() -> {
+			try { LocalFileUtils.readMatrixBlockFromLocal(fname); }
+			catch(IOException ex) { throw new RuntimeException(ex); }
+		});
+		LocalFileUtils.deleteFileIfExists(fname);
+		return ret;
+	}
+	
+	private static double[] measureTextIO(MatrixBlock mb, String fname) 
+		throws IOException
+	{
+		//text size relative to binary consistent with cost model (2.75x)
+		double mbytes = 2.75 * getSizeOnDiskMB(mb);
+		int blen = OptimizerUtils.DEFAULT_BLOCKSIZE;
+		double[] ret = new double[2];
+		ret[0] = mbytes / measure(() -> {
+			try {
+				MatrixWriterFactory.createMatrixWriter(OutputInfo.CSVOutputInfo).writeMatrixToHDFS(
+					mb, fname, mb.getNumRows(), mb.getNumColumns(), blen, blen, mb.getNonZeros());
+			}
+			catch(IOException ex) { throw new RuntimeException(ex); }
+		});
+		ret[1] = mbytes / measure(() -> {
+			try {
+				MatrixReaderFactory.createMatrixReader(InputInfo.CSVInputInfo).readMatrixFromHDFS(
+					fname, mb.getNumRows(), mb.getNumColumns(), blen, blen, mb.getNonZeros());
+			}
+			catch(IOException ex) { throw new RuntimeException(ex); }
+		});
+		LocalFileUtils.deleteFileIfExists(fname);
+		return ret;
+	}
+	
+	private static double measureSerialization(MatrixBlock mb) {
+		//size on disk consistent with cost model (serialized size)
+		byte[] buff = new byte[(int)mb.getExactSerializedSize()];
+		return getSizeOnDiskMB(mb) / measure(() -> {
+			try { mb.write(new CacheDataOutput(buff)); }
+			catch(IOException ex) { throw new RuntimeException(ex); }
+		});
+	}
+	
+	private static double getSizeOnDiskMB(MatrixBlock mb) {
+		return ((double)MatrixBlock.estimateSizeOnDisk(mb.getNumRows(),
+			mb.getNumColumns(), mb.getNonZeros())) / (1024*1024);
+	}
+	
+	private static double getNFLOP(String opcode, MatrixBlock in1, MatrixBlock in2, MatrixBlock out) {
+		return CostEstimatorStaticRuntime.getNFLOP(opcode, false,
+			in1.getNumRows(), in1.getNumColumns(), in1.getSparsity(),
+			(in2!=null) ? in2.getNumRows() : -1, (in2!=null) ? in2.getNumColumns() : -1, (in2!=null) ? in2.getSparsity() : -1,
+			(out!=null) ? out.getNumRows() : -1, (out!=null) ? out.getNumColumns() : -1, (out!=null) ? out.getSparsity() : -1, null);
+	}
+	
+	private static void scale(EnumMap<Coefficient, Double> coeffs, Coefficient target, Coefficient ref) {
+		coeffs.put(target, target.getDefault() * coeffs.get(ref) / ref.getDefault());
+	}
+	
+	private static File getCalibrationFile() {
+		String host = "localhost";
+		try {
+			host = InetAddress.getLocalHost().getHostName();
+		}
+		catch(IOException ex) {
+			LOG.warn("Failed to obtain host name for cost model calibration.", ex);
+		}
+		String dir = ConfigurationManager.getDMLConfig().getTextValue(DMLConfig.LOCAL_TMP_DIR);
+		return new File(dir, FILE_PREFIX + host + ".properties");
+	}
+	
+	private static EnumMap<Coefficient, Double> readCoefficients(File file) 
+		throws IOException
+	{
+		Properties props = new Properties();
+		InputStream in = new FileInputStream(file);
+		try {
+			props.load(in);
+		}
+		finally {
+			IOUtilFunctions.closeSilently(in);
+		}
+		EnumMap<Coefficient, Double> ret = new EnumMap<>(Coefficient.class);
+		for( Coefficient c : Coefficient.values() ) {
+			String val = props.getProperty(c.name());
+			if( val == null ) //incomplete (e.g., older version)
+				return null;
+			ret.put(c, Double.parseDouble(val));
+		}
+		return ret;
+	}
+	
+	private static void writeCoefficients(File file, EnumMap<Coefficient, Double> coeffs) 
+		throws IOException
+	{
+		Properties props = new Properties();
+		for( Coefficient c : coeffs.keySet() )
+			props.setProperty(c.name(), String.valueOf(coeffs.get(c)));
+		file.getParentFile().mkdirs();
+		OutputStream out = new FileOutputStream(file);
+		try {
+			props.store(out, "SystemDS cost model calibration");
+		}
+		finally {
+			IOUtilFunctions.closeSilently(out);
+		}
+	}
+}
@@ -218,6 +218,7 @@ public abstract class CostEstimator
 				int bclen = Integer.parseInt(parts[9]);
 				long nnz = Long.parseLong(parts[10]);
 				VarStats vs = new VarStats(rlen, clen, brlen, bclen, nnz, false);
+				vs._format = parts[5];
 				stats.put(varname, vs);
 			}
 			else if ( optype.equals("cpvar") ) {
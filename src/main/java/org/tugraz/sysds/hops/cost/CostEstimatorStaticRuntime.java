@@ -21,6 +21,7 @@
 
 package org.tugraz.sysds.hops.cost;
 
+import org.tugraz.sysds.hops.cost.CostCalibration.Coefficient;
 import org.tugraz.sysds.lops.DataGen;
 import org.tugraz.sysds.lops.LeftIndex;
 import org.tugraz.sysds.lops.RightIndex;
@@ -41,28 +42,14 @@ import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 public class CostEstimatorStaticRuntime extends CostEstimator
 {
 	
-	//time-conversion
-	private static final long DEFAULT_FLOPS = 2L * 1024 * 1024 * 1024; //2GFLOPS
-	//private static final long UNKNOWN_TIME = -1;
-	
 	//floating point operations
 	private static final double DEFAULT_NFLOP_NOOP = 10; 
 	private static final double DEFAULT_NFLOP_UNKNOWN = 1; 
 	private static final double DEFAULT_NFLOP_CP = 1; 	
 	private static final double DEFAULT_NFLOP_TEXT_IO = 350; 
 	
-	//IO READ throughput
-	private static final double DEFAULT_MBS_FSREAD_BINARYBLOCK_DENSE = 200;
-	private static final double DEFAULT_MBS_FSREAD_BINARYBLOCK_SPARSE = 100;
-	private static final double DEFAULT_MBS_HDFSREAD_BINARYBLOCK_DENSE = 150;
-	private static final double DEFAULT_MBS_HDFSREAD_BINARYBLOCK_SPARSE = 75;
-	//IO WRITE throughput
-	private static final double DEFAULT_MBS_FSWRITE_BINARYBLOCK_DENSE = 150;
-	private static final double DEFAULT_MBS_FSWRITE_BINARYBLOCK_SPARSE = 75;
-	private static final double DEFAULT_MBS_HDFSWRITE_BINARYBLOCK_DENSE = 120;
-	private static final double DEFAULT_MBS_HDFSWRITE_BINARYBLOCK_SPARSE = 60;
-	private static final double DEFAULT_MBS_HDFSWRITE_TEXT_DENSE = 40;
-	private static final double DEFAULT_MBS_HDFSWRITE_TEXT_SPARSE = 30;
+	//note: time conversion and IO throughput obtained via
+	//CostCalibration (calibrated per host or defaults)
 	
 	@Override
 	@SuppressWarnings("unused")
@@ -73,20 +60,28 @@ public class CostEstimatorStaticRuntime extends CostEstimator
 		//load time into mem
 		double ltime = 0;
 		if( !vs[0]._inmem ){
-			ltime += getHDFSReadTime( vs[0]._rlen, vs[0]._clen, vs[0].getSparsity() );
-			//eviction costs
+			ltime += getHDFSReadTime( vs[0]._rlen, vs[0]._clen, vs[0].getSparsity(), vs[0]._format );
+			//eviction costs (serialization into write buffer, or local write)
 			if( CacheableData.CACHING_WRITE_CACHE_ON_READ &&
-				LazyWriteBuffer.getWriteBufferLimit()<MatrixBlock.estimateSizeOnDisk(vs[0]._rlen, vs[0]._clen, (long)((vs[0]._nnz<0)? vs[0]._rlen*vs[0]._clen:vs[0]._nnz)) )
+				LazyWriteBuffer.getWriteBufferLimit()>=MatrixBlock.estimateSizeOnDisk(vs[0]._rlen, vs[0]._clen, (long)((vs[0]._nnz<0)? vs[0]._rlen*vs[0]._clen:vs[0]._nnz)) )
+			{
+				ltime += getSerializeTime( vs[0]._rlen, vs[0]._clen, vs[0].getSparsity() );
+			}
+			else if( CacheableData.CACHING_WRITE_CACHE_ON_READ )
 			{
 				ltime += Math.abs( getFSWriteTime( vs[0]._rlen, vs[0]._clen, vs[0].getSparsity() ));
 			}
 			vs[0]._inmem = true;
 		}
 		if( !vs[1]._inmem ){
-			ltime += getHDFSReadTime( vs[1]._rlen, vs[1]._clen, vs[1].getSparsity() );
-			//eviction costs
+			ltime += getHDFSReadTime( vs[1]._rlen, vs[1]._clen, vs[1].getSparsity(), vs[1]._format );
+			//eviction costs (serialization into write buffer, or local write)
 			if( CacheableData.CACHING_WRITE_CACHE_ON_READ &&
-				LazyWriteBuffer.getWriteBufferLimit()<MatrixBlock.estimateSizeOnDisk(vs[1]._rlen, vs[1]._clen, (long)((vs[1]._nnz<0)? vs[1]._rlen*vs[1]._clen:vs[1]._nnz)) )
+				LazyWriteBuffer.getWriteBufferLimit()>=MatrixBlock.estimateSizeOnDisk(vs[1]._rlen, vs[1]._clen, (long)((vs[1]._nnz<0)? vs[1]._rlen*vs[1]._clen:vs[1]._nnz)) )
+			{
+				ltime += getSerializeTime( vs[1]._rlen, vs[1]._clen, vs[1].getSparsity() );
+			}
+			else if( CacheableData.CACHING_WRITE_CACHE_ON_READ )
 			{
 				ltime += Math.abs( getFSWriteTime( vs[1]._rlen, vs[1]._clen, vs[1].getSparsity()) );
 			}
@@ -138,9 +133,27 @@ public class CostEstimatorStaticRuntime extends CostEstimator
 		double ret = ((double)MatrixBlock.estimateSizeOnDisk((long)dm, (long)dn, (long)(ds*dm*dn))) / (1024*1024);  		
 		
 		if( sparse )
-			ret /= DEFAULT_MBS_HDFSREAD_BINARYBLOCK_SPARSE;
+			ret /= CostCalibration.get(Coefficient.MBS_HDFSREAD_BINARYBLOCK_SPARSE);
 		else //dense
-			ret /= DEFAULT_MBS_HDFSREAD_BINARYBLOCK_DENSE;
+			ret /= CostCalibration.get(Coefficient.MBS_HDFSREAD_BINARYBLOCK_DENSE);
+		
+		return ret;
+	}
+	
+	private static double getHDFSReadTime( long dm, long dn, double ds, String format )
+	{
+		//text read costs only w/ calibration (baseline estimates otherwise)
+		if( !CostCalibration.isCalibrated() || format == null
+			|| !(format.equals("textcell") || format.equals("csv")) )
+			return getHDFSReadTime(dm, dn, ds);
+		
+		boolean sparse = MatrixBlock.evalSparseFormatOnDisk(dm, dn, (long)(ds*dm*dn));
+		double ret = ((double)MatrixBlock.estimateSizeOnDisk(dm, dn, (long)(ds*dm*dn))) / (1024*1024);
+		if( sparse )
+			ret /= CostCalibration.get(Coefficient.MBS_HDFSREAD_TEXT_SPARSE);
+		else //dense
+			ret /= CostCalibration.get(Coefficient.MBS_HDFSREAD_TEXT_DENSE);
+		ret *= 2.75; //text commonly 2x-3.5x larger than binary
 		
 		return ret;
 	}
@@ -154,9 +167,9 @@ public class CostEstimatorStaticRuntime extends CostEstimator
 		
 		double ret = -1;
 		if( sparse )
-			ret = mbytes / DEFAULT_MBS_HDFSWRITE_BINARYBLOCK_SPARSE;
+			ret = mbytes / CostCalibration.get(Coefficient.MBS_HDFSWRITE_BINARYBLOCK_SPARSE);
 		else //dense
-			ret = mbytes / DEFAULT_MBS_HDFSWRITE_BINARYBLOCK_DENSE;
+			ret = mbytes / CostCalibration.get(Coefficient.MBS_HDFSWRITE_BINARYBLOCK_DENSE);
 		
 		//if( LOG.isDebugEnabled() )
 		//	LOG.debug("Costs[export] = "+ret+"s, "+mbytes+" MB ("+dm+","+dn+","+ds+").");
@@ -177,17 +190,17 @@ public class CostEstimatorStaticRuntime extends CostEstimator
 		if( format.equals("textcell") || format.equals("csv") )
 		{
 			if( sparse )
-				ret = mbytes / DEFAULT_MBS_HDFSWRITE_TEXT_SPARSE;
+				ret = mbytes / CostCalibration.get(Coefficient.MBS_HDFSWRITE_TEXT_SPARSE);
 			else //dense
-				ret = mbytes / DEFAULT_MBS_HDFSWRITE_TEXT_DENSE;	
+				ret = mbytes / CostCalibration.get(Coefficient.MBS_HDFSWRITE_TEXT_DENSE);	
 			ret *= 2.75; //text commonly 2x-3.5x larger than binary
 		}
 		else
 		{
 			if( sparse )
-				ret = mbytes / DEFAULT_MBS_HDFSWRITE_BINARYBLOCK_SPARSE;
+				ret = mbytes / CostCalibration.get(Coefficient.MBS_HDFSWRITE_BINARYBLOCK_SPARSE);
 			else //dense
-				ret = mbytes / DEFAULT_MBS_HDFSWRITE_BINARYBLOCK_DENSE;
+				ret = mbytes / CostCalibration.get(Coefficient.MBS_HDFSWRITE_BINARYBLOCK_DENSE);
 		}
 		//if( LOG.isDebugEnabled() )
 		//	LOG.debug("Costs[export] = "+ret+"s, "+mbytes+" MB ("+dm+","+dn+","+ds+").");
@@ -212,9 +225,9 @@ public class CostEstimatorStaticRuntime extends CostEstimator
 		
 		double ret = ((double)MatrixBlock.estimateSizeOnDisk(dm, dn, (long)(ds*dm*dn))) / (1024*1024);
 		if( sparse )
-			ret /= DEFAULT_MBS_FSREAD_BINARYBLOCK_SPARSE;
+			ret /= CostCalibration.get(Coefficient.MBS_FSREAD_BINARYBLOCK_SPARSE);
 		else //dense
-			ret /= DEFAULT_MBS_FSREAD_BINARYBLOCK_DENSE;
+			ret /= CostCalibration.get(Coefficient.MBS_FSREAD_BINARYBLOCK_DENSE);
 		
 		return ret;
 	}
@@ -226,14 +239,41 @@ public class CostEstimatorStaticRuntime extends CostEstimator
 		double ret = ((double)MatrixBlock.estimateSizeOnDisk(dm, dn, (long)(ds*dm*dn))) / (1024*1024);
 		
 		if( sparse )
-			ret /= DEFAULT_MBS_FSWRITE_BINARYBLOCK_SPARSE;
+			ret /= CostCalibration.get(Coefficient.MBS_FSWRITE_BINARYBLOCK_SPARSE);
 		else //dense
-			ret /= DEFAULT_MBS_FSWRITE_BINARYBLOCK_DENSE;
+			ret /= CostCalibration.get(Coefficient.MBS_FSWRITE_BINARYBLOCK_DENSE);
 		
 		return ret;
 	}
 
 	
+	/**
+	 * Returns the estimated time of in-memory serialization, e.g., 
+	 * on eviction into the buffer pool's write buffer. Without
+	 * calibration, these costs are ignored as in the baseline estimates.
+	 * 
+	 * @param dm number of rows
+	 * @param dn number of columns
+	 * @param ds sparsity
+	 * @return estimated serialization time
+	 */
+	private static double getSerializeTime( long dm, long dn, double ds )
+	{
+		if( !CostCalibration.isCalibrated() )
+			return 0;
+		
+		boolean sparse = MatrixBlock.evalSparseFormatOnDisk(dm, dn, (long)(ds*dm*dn));
+		
+		double ret = ((double)MatrixBlock.estimateSizeOnDisk(dm, dn, (long)(ds*dm*dn))) / (1024*1024);
+		
+		if( sparse )
+			ret /= CostCalibration.get(Coefficient.MBS_SERIALIZE_SPARSE);
+		else //dense
+			ret /= CostCalibration.get(Coefficient.MBS_SERIALIZE_DENSE);
+		
+		return ret;
+	}
+	
 	/////////////////////
 	// Operation Costs //
 	/////////////////////
@@ -269,7 +309,7 @@ public class CostEstimatorStaticRuntime extends CostEstimator
 	private static double getInstTimeEstimate( String opcode, boolean inMR, long d1m, long d1n, double d1s, long d2m, long d2n, double d2s, long d3m, long d3n, double d3s, String[] args )
 	{
 		double nflops = getNFLOP(opcode, inMR, d1m, d1n, d1s, d2m, d2n, d2s, d3m, d3n, d3s, args);
-		double time = nflops / DEFAULT_FLOPS;
+		double time = nflops / getFLOPS(opcode);
 		
 		if( LOG.isDebugEnabled() )
 			LOG.debug("Cost["+opcode+"] = "+time+"s, "+nflops+" flops ("+d1m+","+d1n+","+d1s+","+d2m+","+d2n+","+d2s+","+d3m+","+d3n+","+d3s+").");
@@ -277,7 +317,25 @@ public class CostEstimatorStaticRuntime extends CostEstimator
 		return time;
 	}
 	
-	private static double getNFLOP( String optype, boolean inMR, long d1m, long d1n, double d1s, long d2m, long d2n, double d2s, long d3m, long d3n, double d3s, String[] args )
+	private static double getFLOPS( String opcode ) {
+		//compute throughput of the operation class (calibrated per host or defaults)
+		CPType cptype = CPInstructionParser.String2CPInstructionType.get(opcode);
+		if( cptype == null )
+			return CostCalibration.get(Coefficient.FLOPS_CELLWISE);
+		switch( cptype ) {
+			case AggregateBinary:
+			case MMChain:
+			case MMTSJ:
+				return CostCalibration.get(Coefficient.FLOPS_MATMULT);
+			case AggregateUnary:
+			case AggregateTernary:
+				return CostCalibration.get(Coefficient.FLOPS_AGGREGATE);
+			default:
+				return CostCalibration.get(Coefficient.FLOPS_CELLWISE);
+		}
+	}
+	
+	static double getNFLOP( String optype, boolean inMR, long d1m, long d1n, double d1s, long d2m, long d2n, double d2s, long d3m, long d3n, double d3s, String[] args )
 	{
 		//operation costs in FLOP on matrix block level (for CP and MR instructions)
 		//(excludes IO and parallelism; assumes known dims for all inputs, outputs )
@@ -569,7 +627,7 @@ public class CostEstimatorStaticRuntime extends CostEstimator
 				case Partition:
 					return d1m * d1n * d1s + //partitioning costs
 						   (inMR ? 0 : //include write cost if in CP
-							getHDFSWriteTime(d1m, d1n, d1s)* DEFAULT_FLOPS);
+							getHDFSWriteTime(d1m, d1n, d1s) * CostCalibration.get(Coefficient.FLOPS_CELLWISE));
 				
 				default: 
 					throw new DMLRuntimeException("CostEstimator: unsupported instruction type: "+optype);
@@ -29,6 +29,7 @@ public class VarStats
 	int _bclen = -1;
 	long _nnz = -1;
 	boolean _inmem = false;
+	String _format = null; //file format if not in memory
 	
 	public VarStats( long rlen, long clen, int brlen, int bclen, long nnz, boolean inmem ) {
 		_rlen = rlen;
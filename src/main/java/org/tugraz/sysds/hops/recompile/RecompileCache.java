@@ -0,0 +1,201 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.hops.recompile;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.tugraz.sysds.common.Types.DataType;
+import org.tugraz.sysds.hops.AggUnaryOp;
+import org.tugraz.sysds.hops.DataOp;
+import org.tugraz.sysds.hops.Hop;
+import org.tugraz.sysds.hops.Hop.DataOpTypes;
+import org.tugraz.sysds.hops.Hop.OpOp1;
+import org.tugraz.sysds.hops.IndexingOp;
+import org.tugraz.sysds.hops.MultiThreadedHop;
+import org.tugraz.sysds.hops.rewrite.HopRewriteUtils;
+import org.tugraz.sysds.runtime.controlprogram.LocalVariableMap;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
+import org.tugraz.sysds.runtime.instructions.Instruction;
+import org.tugraz.sysds.runtime.instructions.cp.Data;
+import org.tugraz.sysds.runtime.instructions.cp.ScalarObject;
+import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+
+/**
+ * Bounded LRU cache of recompiled instructions for a single statement block,
+ * keyed by a signature of the DAG inputs (dimensions, sparsity buckets, and
+ * scalar values of all transient reads). This avoids repeated recompilation
+ * in loops where the input sizes alternate among a small set of shapes
+ * (e.g., mini-batches with a smaller remainder batch).
+ *
+ * DAGs with data-dependent literal replacement (e.g., as.scalar of right
+ * indexing, full aggregates, or list lookups) or persistent reads are never
+ * cached because their compiled plans are not fully determined by the key.
+ */
+public class RecompileCache
+{
+	//max number of cached instruction lists per statement block
+	public static final int CACHE_SIZE = 8;
+
+	//number of sparsity buckets per binary order of magnitude
+	private static final int SPARSITY_BUCKETS_PER_LOG2 = 4;
+
+	private final ArrayList<Hop> _hops;
+	private final LinkedHashMap<String, ArrayList<Instruction>> _cache;
+
+	public RecompileCache(ArrayList<Hop> hops) {
+		_hops = hops;
+		_cache = new LinkedHashMap<String, ArrayList<Instruction>>(CACHE_SIZE, 0.75f, true) {
+			private static final long serialVersionUID = -6468929413470573813L;
+			@Override
+			protected boolean removeEldestEntry(Entry<String, ArrayList<Instruction>> eldest) {
+				return size() > CACHE_SIZE;
+			}
+		};
+	}
+
+	/**
+	 * Indicates if this cache was created for the given DAG,
+	 * which allows to detect modifications of the statement block.
+	 *
+	 * @param hops list of DAG root nodes
+	 * @return true if the cache belongs to the given DAG
+	 */
+	public boolean isValid(ArrayList<Hop> hops) {
+		return _hops == hops;
+	}
+
+	public synchronized ArrayList<Instruction> get(String key) {
+		return _cache.get(key);
+	}
+
+	public synchronized void put(String key, ArrayList<Instruction> inst) {
+		_cache.put(key, inst);
+	}
+
+	public synchronized int size() {
+		return _cache.size();
+	}
+
+	public synchronized void clear() {
+		_cache.clear();
+	}
+
+	/**
+	 * Creates the cache key for the given DAG and symbol table, which captures
+	 * all inputs that affect recompilation. Note that this method does not rely
+	 * on the hop visit status and hence, can be called on shared DAGs.
+	 *
+	 * @param hops list of DAG root nodes
+	 * @param vars symbol table
+	 * @return cache key, or null if the DAG is not cacheable
+	 */
+	public static String createKey(List<Hop> hops, LocalVariableMap vars) {
+		TreeMap<String, String> reads = new TreeMap<>();
+		StringBuilder sb = new StringBuilder();
+		HashSet<Long> memo = new HashSet<>();
+		for( Hop hop : hops )
+			if( !rCreateKey(hop, vars, reads, sb, memo) )
+				return null;
+		for( Entry<String, String> e : reads.entrySet() ) {
+			sb.append(e.getKey());
+			sb.append('=');
+			sb.append(e.getValue());
+			sb.append(';');
+		}
+		return sb.toString();
+	}
+
+	private static boolean rCreateKey(Hop hop, LocalVariableMap vars,
+		TreeMap<String, String> reads, StringBuilder sb, HashSet<Long> memo)
+	{
+		if( !memo.add(hop.getHopID()) )
+			return true;
+
+		//reject data-dependent literal replacement and persistent reads
+		if( HopRewriteUtils.isData(hop, DataOpTypes.PERSISTENTREAD)
+			|| ((HopRewriteUtils.isUnary(hop, OpOp1.CAST_AS_SCALAR) || (hop instanceof AggUnaryOp
+				&& hop.getDataType()==DataType.SCALAR)) && isDataOrIndexedData(hop.getInput().get(0)))
+			|| (hop.getDataType()==DataType.LIST && !HopRewriteUtils.isData(hop, DataOpTypes.TRANSIENTWRITE)) )
+			return false;
+
+		//capture transient read inputs
+		if( HopRewriteUtils.isData(hop, DataOpTypes.TRANSIENTREAD) ) {
+			String varName = hop.getName();
+			reads.put(varName, getDataSignature(vars.get(varName)));
+		}
+
+		//capture hop-level configurations (e.g., by the parfor optimizer)
+		if( hop.getForcedExecType() != null || (hop instanceof MultiThreadedHop
+			&& ((MultiThreadedHop)hop).getMaxNumThreads() != -1) ) {
+			sb.append(hop.getHopID());
+			sb.append(':');
+			sb.append(hop.getForcedExecType());
+			if( hop instanceof MultiThreadedHop )
+				sb.append(((MultiThreadedHop)hop).getMaxNumThreads());
+			sb.append(';');
+		}
+
+		for( Hop c : hop.getInput() )
+			if( !rCreateKey(c, vars, reads, sb, memo) )
+				return false;
+		return true;
+	}
+
+	private static boolean isDataOrIndexedData(Hop hop) {
+		return hop instanceof DataOp
+			|| (hop instanceof IndexingOp && hop.getInput().get(0) instanceof DataOp);
+	}
+
+	private static String getDataSignature(Data dat) {
+		if( dat == null )
+			return "null";
+		if( dat instanceof ScalarObject )
+			return dat.getValueType().name() + ":" + ((ScalarObject)dat).getStringValue();
+		if( dat instanceof CacheableData<?> ) {
+			MatrixCharacteristics mc = ((CacheableData<?>)dat).getMatrixCharacteristics();
+			return dat.getDataType().name() + ":" + mc.getRows() + "x" + mc.getCols()
+				+ ":" + getSparsityBucket(mc.getRows(), mc.getCols(), mc.getNonZeros());
+		}
+		return dat.getDataType().name();
+	}
+
+	/**
+	 * Obtains a sparsity bucket with a fixed number of buckets per binary order
+	 * of magnitude, where unknown, empty and fully dense inputs get dedicated
+	 * buckets because several rewrites are specific to these cases.
+	 *
+	 * @param rlen number of rows
+	 * @param clen number of columns
+	 * @param nnz number of non-zeros
+	 * @return sparsity bucket
+	 */
+	protected static String getSparsityBucket(long rlen, long clen, long nnz) {
+		if( nnz < 0 || rlen <= 0 || clen <= 0 )
+			return "u";
+		if( nnz == 0 )
+			return "e";
+		if( nnz == rlen * clen )
+			return "d";
+		double sp = (double)nnz / rlen / clen;
+		return String.valueOf((int)Math.ceil(-Math.log(sp)/Math.log(2)*SPARSITY_BUCKETS_PER_LOG2));
+	}
+}
@@ -100,6 +100,7 @@ import org.tugraz.sysds.runtime.util.ProgramConverter;
 import org.tugraz.sysds.runtime.util.UtilFunctions;
 import org.tugraz.sysds.utils.Explain;
 import org.tugraz.sysds.utils.JSONHelper;
+import org.tugraz.sysds.utils.Statistics;
 import org.tugraz.sysds.utils.Explain.ExplainType;
 
 /**
@@ -151,7 +152,20 @@ public class Recompiler
 		//need for synchronization as we do temp changes in shared hops/lops
 		//however, we create deep copies for most dags to allow for concurrent recompile
 		synchronized( hops ) {
-			newInst = recompile(sb, hops, vars, status, inplace, replaceLit, true, false, false, null, tid);
+			//probe recompile cache of statement block (sizes, sparsity, scalars)
+			RecompileCache cache = isRecompileCacheApplicable(sb, status, inplace, replaceLit) ?
+				sb.getRecompileCache() : null;
+			String key = (cache != null) ? RecompileCache.createKey(hops, vars) : null;
+			newInst = (key != null) ? cache.get(key) : null;
+			if( newInst != null ) {
+				if( DMLScript.STATISTICS )
+					Statistics.incrementHOPRecompileCacheHits();
+			}
+			else {
+				newInst = recompile(sb, hops, vars, status, inplace, replaceLit, true, false, false, null, tid);
+				if( key != null )
+					cache.put(key, newInst);
+			}
 		}
 		
 		// replace thread ids in new instructions
@@ -393,6 +407,14 @@ public class Recompiler
 		return newInst;
 	}
 	
+	private static boolean isRecompileCacheApplicable(StatementBlock sb, RecompileStatus status, boolean inplace, boolean replaceLit) {
+		//only for deep-copied, literal-replaced DAGs w/o parfor recompile status,
+		//and not on explain of recompiled hops, which would be skipped on hits
+		return OptimizerUtils.ALLOW_RECOMPILE_CACHE
+			&& sb != null && status == null && !inplace && replaceLit
+			&& DMLScript.EXPLAIN != ExplainType.RECOMPILE_HOPS;
+	}
+	
 	private static void logExplainDAG(StatementBlock sb, ArrayList<Hop> hops, ArrayList<Instruction> inst) {
 		if( DMLScript.EXPLAIN == ExplainType.RECOMPILE_HOPS ) {
 			System.out.println("EXPLAIN RECOMPILE \nGENERIC (lines "+sb.getBeginLine()+"-"+sb.getEndLine()+"):\n" +
@@ -98,6 +98,8 @@ public class ProgramRewriter
 				_dagRuleSet.add( new RewriteCommonSubexpressionElimination()     );
 			if( OptimizerUtils.ALLOW_AUTO_VECTORIZATION )
 				_dagRuleSet.add( new RewriteIndexingVectorization()              ); //dependency: cse, simplifications
+			if( OptimizerUtils.ALLOW_READ_RANGE_PUSHDOWN )
+				_dagRuleSet.add( new RewriteReadRangePushdown()                  ); //dependency: cse, vectorization
 			_dagRuleSet.add( new RewriteInjectSparkPReadCheckpointing()          ); //dependency: reblock
 			
 			//add statement block rewrite rules
@@ -124,6 +126,9 @@ public class ProgramRewriter
 			if ( DMLScript.USE_ACCELERATOR ){
 				_dagRuleSet.add( new RewriteGPUSpecificOps() );	// gpu-specific rewrites
 			}
+			else if( OptimizerUtils.ALLOW_OPERATOR_FUSION ) {
+				_dagRuleSet.add( new RewriteFuseDnnOps() );	// cp-specific fused dnn ops
+			}
 			if ( OptimizerUtils.ALLOW_SUM_PRODUCT_REWRITES) {
 				_dagRuleSet.add( new RewriteMatrixMultChainOptimization()         ); //dependency: cse
 				_dagRuleSet.add( new RewriteElementwiseMultChainOptimization()    ); //dependency: cse
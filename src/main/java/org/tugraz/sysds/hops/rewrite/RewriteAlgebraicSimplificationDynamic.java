@@ -817,7 +817,7 @@ public class RewriteAlgebraicSimplificationDynamic extends HopRewriteRule
 			{
 				//reorg-operation-specific rewrite  
 				Hop hnew = null;
-				if( rhi.getOp() == ReOrgOp.TRANS )
+				if( rhi.getOp() == ReOrgOp.TRANS && input.getDataType().isMatrix() )
 					hnew = HopRewriteUtils.createDataGenOp(input, true, input, true, 0);
 				else if( rhi.getOp() == ReOrgOp.REV )
 					hnew = HopRewriteUtils.createDataGenOp(input, 0);
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.hops.rewrite;
+
+import java.util.ArrayList;
+
+import org.tugraz.sysds.hops.DnnOp;
+import org.tugraz.sysds.hops.Hop;
+import org.tugraz.sysds.hops.Hop.OpOp1;
+import org.tugraz.sysds.hops.Hop.OpOp2;
+import org.tugraz.sysds.hops.Hop.OpOpDnn;
+
+/*
+ * This class contains CP-specific rewrites for fused DNN (inference) operators,
+ * which process each conv2d output row once instead of separate passes over the
+ * full activation tensor:
+ * 
+ * 1. foldBatchNormTest: folds batch normalization with mode="test" into the
+ * filter and bias of the preceding conv2d, with scale = gamma * 1/sqrt(var+eps)
+ * norm = bias_multiply(bias_add(conv2d(X, W) [+ b], -mean), 1/sqrt(var+eps))
+ * hi = bias_add(bias_multiply(norm, gamma), beta)
+ * -> bias_add(conv2d(X, W * scale), beta + ([b] - mean) * scale)
+ * 
+ * 2. conv2dBiasAddRelu: fuses relu into conv2d with bias (computed with the
+ * bias per output row, similar to the lop-level fusion of conv2d_bias_add)
+ * hi = max(bias_add(conv2d(X, W), b), 0) -> conv2d_bias_add_relu(X, W, b)
+ * 
+ * Note: relu followed by max pooling is already fused into relu_maxpooling
+ * during lop construction. All rewrites require single-consumer intermediates.
+ */
+public class RewriteFuseDnnOps extends HopRewriteRule {
+
+	@Override
+	public ArrayList<Hop> rewriteHopDAGs(ArrayList<Hop> roots, ProgramRewriteStatus state) {
+		if( roots == null )
+			return roots;
+		
+		//one pass descend-rewrite (for rollup of batch norm and relu)
+		for( Hop h : roots )
+			rule_FuseDnnOps(h);
+		Hop.resetVisitStatus(roots, true);
+		
+		return roots;
+	}
+
+	@Override
+	public Hop rewriteHopDAG(Hop root, ProgramRewriteStatus state) {
+		if( root == null )
+			return root;
+		
+		//one pass descend-rewrite (for rollup of batch norm and relu)
+		rule_FuseDnnOps(root);
+		
+		return root;
+	}
+	
+	private void rule_FuseDnnOps(Hop hop) {
+		if( hop.isVisited() )
+			return;
+		
+		//recursively process children first (to allow roll-up)
+		for( int i=0; i<hop.getInput().size(); i++ ) {
+			Hop hi = hop.getInput().get(i);
+			rule_FuseDnnOps(hi);
+			
+			hi = foldBatchNormTest(hi);
+			hi = conv2dBiasAddRelu(hi);
+		}
+		
+		hop.setVisited();
+	}
+	
+	private static Hop foldBatchNormTest(Hop hi) {
+		// hi = bias_add(bias_multiply(norm, gamma), beta)
+		if( !(isBiasAdd(hi) && isBiasMultiply(hi.getInput().get(0)) && isSingleConsumer(hi.getInput().get(0))) )
+			return hi;
+		Hop scaled = hi.getInput().get(0);
+		Hop norm = scaled.getInput().get(0);
+		
+		// norm = bias_multiply(bias_add(X, -mean), 1/sqrt(var+eps))
+		if( !(isBiasMultiply(norm) && isSingleConsumer(norm) && isBiasAdd(norm.getInput().get(0))
+			&& isSingleConsumer(norm.getInput().get(0)) && isUnaryMinus(norm.getInput().get(0).getInput().get(1))
+			&& isOneDivideBySqrt(norm.getInput().get(1))) )
+			return hi;
+		Hop centered = norm.getInput().get(0);
+		
+		// X = conv2d(in, W) or X = bias_add(conv2d(in, W), b)
+		Hop X = centered.getInput().get(0);
+		Hop bias = null;
+		Hop conv = X;
+		if( isBiasAdd(X) && isSingleConsumer(X) ) {
+			bias = X.getInput().get(1);
+			conv = X.getInput().get(0);
+		}
+		if( !(HopRewriteUtils.isDnn(conv, OpOpDnn.CONV2D) && isSingleConsumer(conv)) )
+			return hi;
+		
+		// construct folded filter and bias (of size K x CRS and K x 1)
+		Hop negMean = centered.getInput().get(1);
+		Hop scale = HopRewriteUtils.createBinary(scaled.getInput().get(1), norm.getInput().get(1), OpOp2.MULT);
+		Hop filter = HopRewriteUtils.createBinary(conv.getInput().get(1), scale, OpOp2.MULT);
+		Hop shift = (bias != null) ? HopRewriteUtils.createBinary(bias, negMean, OpOp2.PLUS) : negMean;
+		shift = HopRewriteUtils.createBinary(hi.getInput().get(1),
+			HopRewriteUtils.createBinary(shift, scale, OpOp2.MULT), OpOp2.PLUS);
+		
+		ArrayList<Hop> inputs = new ArrayList<>(conv.getInput());
+		inputs.set(1, filter);
+		DnnOp newConv = createDnnOp(conv, OpOpDnn.CONV2D, inputs);
+		inputs = new ArrayList<>();
+		inputs.add(newConv);
+		inputs.add(shift);
+		DnnOp newHop = createDnnOp(hi, OpOpDnn.BIASADD, inputs);
+		
+		HopRewriteUtils.rewireAllParentChildReferences(hi, newHop);
+		HopRewriteUtils.cleanupUnreferenced(hi, scaled, norm, centered, X, conv);
+		LOG.debug("Applied foldBatchNormTest rewrite (line "+hi.getBeginLine()+").");
+		return newHop;
+	}
+	
+	private static Hop conv2dBiasAddRelu(Hop hi) {
+		// hi = max(bias_add(conv2d(X, W), b), 0) or max(0, bias_add(conv2d(X, W), b))
+		Hop in = getReLUInput(hi);
+		if( !(isBiasAdd(in) && isSingleConsumer(in)
+			&& HopRewriteUtils.isDnn(in.getInput().get(0), OpOpDnn.CONV2D)
+			&& isSingleConsumer(in.getInput().get(0))) )
+			return hi;
+		Hop conv = in.getInput().get(0);
+		
+		ArrayList<Hop> inputs = new ArrayList<>(conv.getInput());
+		inputs.add(in.getInput().get(1));
+		DnnOp newHop = createDnnOp(hi, OpOpDnn.CONV2D_BIAS_ADD_RELU, inputs);
+		newHop.setMaxNumThreads(((DnnOp)conv).getMaxNumThreads());
+		
+		HopRewriteUtils.rewireAllParentChildReferences(hi, newHop);
+		HopRewriteUtils.cleanupUnreferenced(hi, in, conv);
+		LOG.debug("Applied conv2dBiasAddRelu rewrite (line "+hi.getBeginLine()+").");
+		return newHop;
+	}
+	
+	private static DnnOp createDnnOp(Hop old, OpOpDnn op, ArrayList<Hop> inputs) {
+		DnnOp ret = new DnnOp(old.getName(), old.getDataType(), old.getValueType(), op, inputs);
+		if( old instanceof DnnOp )
+			ret.setMaxNumThreads(((DnnOp)old).getMaxNumThreads());
+		ret.setOutputBlocksizes(old.getRowsInBlock(), old.getColsInBlock());
+		HopRewriteUtils.copyLineNumbers(old, ret);
+		return ret;
+	}
+	
+	private static Hop getReLUInput(Hop h) {
+		if( !HopRewriteUtils.isBinary(h, OpOp2.MAX) )
+			return null;
+		if( HopRewriteUtils.isLiteralOfValue(h.getInput().get(0), 0) )
+			return h.getInput().get(1);
+		if( HopRewriteUtils.isLiteralOfValue(h.getInput().get(1), 0) )
+			return h.getInput().get(0);
+		return null;
+	}
+	
+	private static boolean isBiasAdd(Hop h) {
+		return HopRewriteUtils.isDnn(h, OpOpDnn.BIASADD);
+	}
+	
+	private static boolean isBiasMultiply(Hop h) {
+		return HopRewriteUtils.isDnn(h, OpOpDnn.BIASMULT);
+	}
+	
+	private static boolean isSingleConsumer(Hop h) {
+		return h.getParent().size() == 1;
+	}
+	
+	private static boolean isUnaryMinus(Hop h) {
+		return HopRewriteUtils.isBinary(h, OpOp2.MINUS)
+			&& HopRewriteUtils.isLiteralOfValue(h.getInput().get(0), 0);
+	}
+	
+	private static boolean isOneDivideBySqrt(Hop h) {
+		return HopRewriteUtils.isBinary(h, OpOp2.DIV)
+			&& HopRewriteUtils.isUnary(h.getInput().get(1), OpOp1.SQRT)
+			&& HopRewriteUtils.isLiteralOfValue(h.getInput().get(0), 1);
+	}
+}
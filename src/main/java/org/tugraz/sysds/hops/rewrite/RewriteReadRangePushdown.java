@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.hops.rewrite;
+
+import java.util.ArrayList;
+
+import org.tugraz.sysds.common.Types.DataType;
+import org.tugraz.sysds.hops.DataOp;
+import org.tugraz.sysds.hops.Hop;
+import org.tugraz.sysds.hops.Hop.DataOpTypes;
+import org.tugraz.sysds.hops.Hop.FileFormatTypes;
+import org.tugraz.sysds.hops.IndexingOp;
+
+/**
+ * Rule: ReadRangePushdown. For all persistent reads of matrices in binary
+ * block or csv format and frames in csv format, which are only consumed by
+ * right indexing operations, mark these indexing operations for pushing their
+ * index ranges into the reader. At runtime, CP right indexing then reads only
+ * the range from the file (skipping blocks, splits, and columns outside the
+ * range) instead of materializing the entire input, as long as the input is
+ * not yet available in memory.
+ * 
+ */
+public class RewriteReadRangePushdown extends HopRewriteRule
+{
+	@Override
+	public ArrayList<Hop> rewriteHopDAGs(ArrayList<Hop> roots, ProgramRewriteStatus state) {
+		if( roots == null )
+			return null;
+		for( Hop h : roots ) 
+			rule_ReadRangePushdown( h );
+		return roots;
+	}
+
+	@Override
+	public Hop rewriteHopDAG(Hop root, ProgramRewriteStatus state) {
+		//not applicable to predicates (we do not allow persistent reads there)
+		return root;
+	}
+
+	private void rule_ReadRangePushdown( Hop hop )
+	{
+		//check mark processed
+		if( hop.isVisited() )
+			return;
+		
+		//recursively process childs
+		ArrayList<Hop> inputs = hop.getInput();
+		for( int i=0; i<inputs.size(); i++ )
+			rule_ReadRangePushdown( inputs.get(i) );
+		
+		//mark right indexing consumers of supported persistent reads
+		if( isSupportedPersistentRead(hop) && isOnlyConsumedByRightIndexing(hop) ) {
+			for( Hop p : hop.getParent() )
+				((IndexingOp)p).setReadPushdown(true);
+			LOG.debug("Applied pushdown of right indexing ranges into read of '"+hop.getName()+"'.");
+		}
+		
+		hop.setVisited();
+	}
+	
+	private static boolean isSupportedPersistentRead(Hop hop) {
+		if( !(hop instanceof DataOp && ((DataOp)hop).getDataOpType()==DataOpTypes.PERSISTENTREAD) )
+			return false;
+		FileFormatTypes fmt = ((DataOp)hop).getInputFormatType();
+		return (hop.getDataType()==DataType.MATRIX && (fmt==FileFormatTypes.BINARY || fmt==FileFormatTypes.CSV))
+			|| (hop.getDataType()==DataType.FRAME && fmt==FileFormatTypes.CSV);
+	}
+	
+	private static boolean isOnlyConsumedByRightIndexing(Hop hop) {
+		if( hop.getParent().isEmpty() )
+			return false;
+		for( Hop p : hop.getParent() )
+			if( !(p instanceof IndexingOp && p.getInput().get(0) == hop)
+				|| HopRewriteUtils.isUnnecessaryRightIndexing(p) )
+				return false;
+		return true;
+	}
+}
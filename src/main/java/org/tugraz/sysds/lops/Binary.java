@@ -173,6 +173,16 @@ public class Binary extends Lop
 		}
 	}
 	
+	private boolean isMatrixMatrix() {
+		return getInputs().get(0).getDataType() == DataType.MATRIX
+			&& getInputs().get(1).getDataType() == DataType.MATRIX;
+	}
+	
+	private boolean isTensorTensor() {
+		return getInputs().get(0).getDataType() == DataType.TENSOR
+			&& getInputs().get(1).getDataType() == DataType.TENSOR;
+	}
+	
 	@Override
 	public String getInstructions(String input1, String input2, String output) {
 		StringBuilder sb = new StringBuilder();
@@ -190,7 +200,9 @@ public class Binary extends Lop
 		sb.append( this.prepOutputOperand(output));
 		
 		//append degree of parallelism for matrix multiplications
-		if( operation == OperationTypes.MATMULT && getExecType()==ExecType.CP ) {
+		//matrix-matrix and tensor-tensor cellwise operations, and solve
+		if( getExecType()==ExecType.CP && (operation == OperationTypes.MATMULT
+			|| isMatrixMatrix() || isTensorTensor()) ) {
 			sb.append( OPERAND_DELIMITOR );
 			sb.append( numThreads );
 		}
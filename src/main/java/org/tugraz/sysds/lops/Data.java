@@ -160,6 +160,8 @@ public class Data extends Lop
 			this.outParams.setFormat(Format.CSV);
 		else if (type == FileFormatTypes.LIBSVM )
 			this.outParams.setFormat(Format.LIBSVM);
+		else if (type == FileFormatTypes.COLUMNAR )
+			this.outParams.setFormat(Format.COLUMNAR);
 		else 
 			throw new LopsException("Unexpected format: " + type);
 		setLopProperties();
@@ -327,6 +329,8 @@ public class Data extends Lop
 					fmt = "csv";
 				else if (oparams.getFormat() == Format.LIBSVM)
 					fmt = "libsvm";
+				else if (oparams.getFormat() == Format.COLUMNAR)
+					fmt = "columnar";
 				else if ( oparams.getFormat() == Format.BINARY ){
 					if ( oparams.getRowsInBlock() > 0 || oparams.getColsInBlock() > 0 )
 						fmt = "binaryblock"; 
@@ -435,6 +439,8 @@ public class Data extends Lop
 				fmt = "csv";
 			else if ( oparams.getFormat() == Format.LIBSVM )
 				fmt = "libsvm";
+			else if ( oparams.getFormat() == Format.COLUMNAR )
+				fmt = "columnar";
 			else { //binary
 				fmt = ( getDataType() == DataType.FRAME || oparams.getRowsInBlock() > 0 
 					|| oparams.getColsInBlock() > 0 ) ? "binaryblock" : "binarycell";
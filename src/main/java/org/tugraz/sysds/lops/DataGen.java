@@ -301,6 +301,11 @@ public class DataGen extends Lop
 		sb.append( Lop.OPERAND_DELIMITOR );
 		sb.append( colsInBlockString );
 		sb.append( Lop.OPERAND_DELIMITOR );
+		if( getExecType() == ExecType.CP ) {
+			//append degree of parallelism
+			sb.append( _numThreads );
+			sb.append( OPERAND_DELIMITOR );
+		}
 		sb.append( prepOutputOperand(output) );
 		
 		return sb.toString();
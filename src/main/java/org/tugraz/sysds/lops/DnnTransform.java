@@ -29,7 +29,7 @@ public class DnnTransform extends Lop
 		MAX_POOL, MAX_POOL_BACKWARD, AVG_POOL, AVG_POOL_BACKWARD,
 		RELU_MAX_POOLING, RELU_MAX_POOLING_BACKWARD, RELU_BACKWARD,
 		CONV2D, CONV2D_BACKWARD_FILTER, CONV2D_BACKWARD_DATA,
-		BIAS_ADD, CONV2D_BIAS_ADD, BIAS_MULTIPLY, CHANNEL_SUMS, BATCH_NORM2D_TEST, 
+		BIAS_ADD, CONV2D_BIAS_ADD, CONV2D_BIAS_ADD_RELU, BIAS_MULTIPLY, CHANNEL_SUMS, BATCH_NORM2D_TEST, 
 		UPDATE_NESTEROV_X
 	}
 	
@@ -135,6 +135,9 @@ public class DnnTransform extends Lop
 		case CONV2D_BIAS_ADD:
 			return "conv2d_bias_add";
 		
+		case CONV2D_BIAS_ADD_RELU:
+			return "conv2d_bias_add_relu";
+		
 		case BIAS_ADD:
 			return "bias_add";
 		
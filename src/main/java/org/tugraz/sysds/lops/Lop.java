@@ -508,6 +508,12 @@ public abstract class Lop
 	public int getEndColumn()	{ return _endColumn; }
 	public String getFilename()	{ return _filename; }
 	
+	//originating hop (for profiling), -1 if unknown
+	private long _hopID = -1;
+	
+	public void setHopID(long hopID) { _hopID = hopID; }
+	public long getHopID() { return _hopID; }
+	
 	public String printErrorLocation(){
 		return "ERROR: line " + _beginLine + ", column " + _beginColumn + " -- ";
 	}
@@ -35,6 +35,9 @@ public class RightIndex extends Lop
 
 	//optional attribute for spark exec type
 	private SparkAggType _aggtype = SparkAggType.MULTI_BLOCK;
+	
+	//optional attribute for cp exec type (range read of persistent input)
+	private boolean _readPushdown = false;
 
 	public RightIndex(Lop input, Lop rowL, Lop rowU, Lop colL, Lop colU, Lop rowDim, Lop colDim, 
 			DataType dt, ValueType vt, ExecType et, boolean forleft)
@@ -80,6 +83,10 @@ public class RightIndex extends Lop
 		forLeftIndexing=forleft;
 	}
 	
+	public void setReadPushdown(boolean flag) {
+		_readPushdown = flag;
+	}
+	
 	private String getOpcode() {
 		if(forLeftIndexing)
 			return OPCODE+"ForLeft";
@@ -121,6 +128,11 @@ public class RightIndex extends Lop
 			sb.append( OPERAND_DELIMITOR );
 			sb.append( _aggtype );	
 		}
+		//in case of cp, we compile the optional read pushdown flag into the instruction.
+		else if( getExecType() == ExecType.CP && _readPushdown ) {
+			sb.append( OPERAND_DELIMITOR );
+			sb.append( _readPushdown );
+		}
 		
 		return sb.toString();
 	}
@@ -301,7 +301,9 @@ public class Unary extends Lop
 			|| op==OperationTypes.CUMSUMPROD
 			|| op==OperationTypes.EXP
 			|| op==OperationTypes.LOG
-			|| op==OperationTypes.SIGMOID;
+			|| op==OperationTypes.SIGMOID
+			|| op==OperationTypes.INVERSE
+			|| op==OperationTypes.CHOLESKY;
 	}
 	
 	@Override
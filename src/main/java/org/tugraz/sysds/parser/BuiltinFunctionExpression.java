@@ -815,8 +815,8 @@ public class BuiltinFunctionExpression extends DataIdentifier
 
 		case TRANS:
 			checkNumParameters(1);
-			checkMatrixParam(getFirstExpr());
-			output.setDataType(DataType.MATRIX);
+			checkMatrixTensorParam(getFirstExpr());
+			output.setDataType(id.getDataType());
 			output.setDimensions(id.getDim2(), id.getDim1());
 			output.setBlockDimensions (id.getColumnsInBlock(), id.getRowsInBlock());
 			output.setValueType(id.getValueType());
@@ -1720,7 +1720,8 @@ public class BuiltinFunctionExpression extends DataIdentifier
 		if (e.getOutput().getDataType() != DataType.MATRIX) {
 			// Param is not a matrix
 			// TODO get supported Operations form builtins
-			if (e.getOutput().getDataType() != DataType.TENSOR || getOpCode() != Builtins.SUM) {
+			if (e.getOutput().getDataType() != DataType.TENSOR
+				|| (getOpCode() != Builtins.SUM && getOpCode() != Builtins.TRANS)) {
 				// Param is also not a tensor, or the operation is not supported on tensor
 				raiseValidateError("Expected " + e.getText() + " to be a matrix or tensor argument for function "
 						+ this.getOpCode().toString().toLowerCase() + "().", false);
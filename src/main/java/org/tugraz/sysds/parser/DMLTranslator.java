@@ -1002,7 +1002,8 @@ public class DMLTranslator
 					case MM:
 					case CSV:
 					case LIBSVM:
-						// write output in textcell format
+					case COLUMNAR:
+						// write output in textcell format (or unblocked columnar format)
 						ae.setOutputParams(ae.getDim1(), ae.getDim2(), ae.getNnz(), ae.getUpdateType(), -1, -1);
 						break;
 						
@@ -2332,7 +2333,7 @@ public class DMLTranslator
 		case TRANS:
 		case DIAG:
 		case REV:
-			currBuiltinOp = new ReorgOp(target.getName(), DataType.MATRIX,
+			currBuiltinOp = new ReorgOp(target.getName(), target.getDataType(),
 				target.getValueType(), ReOrgOp.valueOf(source.getOpCode().name()), expr);
 			break;
 			
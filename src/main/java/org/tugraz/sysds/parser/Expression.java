@@ -73,10 +73,10 @@ public abstract class Expression implements ParseInfo
 	}
 
 	/**
-	 * Format types (text, binary, matrix market, csv, libsvm, unknown).
+	 * Format types (text, binary, matrix market, csv, libsvm, columnar, unknown).
 	 */
 	public enum FormatType {
-		TEXT, BINARY, MM, CSV, LIBSVM
+		TEXT, BINARY, MM, CSV, LIBSVM, COLUMNAR
 	}
 	
 	protected static final Log LOG = LogFactory.getLog(Expression.class.getName());
@@ -230,6 +230,9 @@ public abstract class Expression implements ParseInfo
 		if (format.equalsIgnoreCase(DataExpression.FORMAT_TYPE_VALUE_LIBSVM))  {
 			return FileFormatTypes.LIBSVM;
 		}
+		if (format.equalsIgnoreCase(DataExpression.FORMAT_TYPE_VALUE_COLUMNAR))  {
+			return FileFormatTypes.COLUMNAR;
+		}
 		// ToDo : throw parse exception for invalid / unsupported format type
 		return FileFormatTypes.TEXT;
 	}
@@ -109,6 +109,21 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 		}
 	}
 	
+	/**
+	 * Indicates if the two-phase execution of sparse-unsafe operations applies,
+	 * which computes the zero-value result once, processes only the non-zeros,
+	 * and analytically corrects the aggregates for the unseen zeros. This requires
+	 * an operation whose zero-value result is independent of the cell position,
+	 * i.e., no side inputs and no seq.
+	 * 
+	 * @param b side inputs
+	 * @param sparseSafe sparse-safeness of the operation
+	 * @return true if the two-phase execution applies
+	 */
+	private boolean isTwoPhase(SideInput[] b, boolean sparseSafe) {
+		return !sparseSafe && b.length == 0 && !containsSeq();
+	}
+	
 	@Override
 	public ScalarObject execute(ArrayList<MatrixBlock> inputs, ArrayList<ScalarObject> scalarObjects, int k) {
 		return execute(inputs, scalarObjects, k, 0);
@@ -130,7 +145,7 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 		boolean sparseSafe = isSparseSafe() || (b.length == 0
 				&& genexec( 0, b, scalars, m, n, 0, 0 ) == 0);
 		
-		long inputSize = sparseSafe ? 
+		long inputSize = (sparseSafe || (a.isInSparseFormat() && isTwoPhase(b, sparseSafe))) ? 
 			getTotalInputNnz(inputs) : getTotalInputSize(inputs);
 		if( inputSize < PAR_NUMCELL_THRESHOLD ) {
 			k = 1; //serial execution
@@ -210,7 +225,7 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 		boolean sparseSafe = isSparseSafe() || (b.length == 0
 				&& genexec( 0, b, scalars, m, n, 0, 0 ) == 0);
 		
-		long inputSize = sparseSafe ? 
+		long inputSize = (sparseSafe || (a.isInSparseFormat() && isTwoPhase(b, sparseSafe))) ? 
 			getTotalInputNnz(inputs) : getTotalInputSize(inputs);
 		if( inputSize < PAR_NUMCELL_THRESHOLD ) {
 			k = 1; //serial execution
@@ -325,6 +340,17 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 		if( sparseSafe && sblock == null )
 			return 0;
 		
+		//two-phase execution for sparse-unsafe operations w/o side inputs
+		if( isTwoPhase(b, sparseSafe) ) {
+			double zval = genexec(0, b, scalars, m, n, 0, 0, 0);
+			if( _type == CellType.NO_AGG && !out.isInSparseFormat() )
+				return executeSparseNoAggDenseTwoPhase(sblock, b, scalars, zval, out, m, n, rl, ru, rix);
+			else if( _type == CellType.ROW_AGG )
+				return executeSparseRowAggTwoPhase(sblock, b, scalars, zval, out, m, n, rl, ru, rix);
+			else if( _type == CellType.COL_AGG )
+				return executeSparseColAggTwoPhase(sblock, b, scalars, zval, out, m, n, rl, ru, rix);
+		}
+		
 		SideInput[] lb = createSparseSideInputs(b);
 		if( _type == CellType.NO_AGG ) {
 			if( out.isInSparseFormat() )
@@ -354,6 +380,12 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 		if( sparseSafe && sblock == null )
 			return 0;
 		
+		//two-phase execution for sparse-unsafe operations w/o side inputs
+		if( isTwoPhase(b, sparseSafe) ) {
+			double zval = genexec(0, b, scalars, m, n, 0, 0, 0);
+			return executeSparseAggTwoPhase(sblock, b, scalars, zval, m, n, rl, ru, rix);
+		}
+		
 		SideInput[] lb = createSparseSideInputs(b);
 		if( _aggOp == AggOp.SUM || _aggOp == AggOp.SUM_SQ )
 			return executeSparseAggSum(sblock, lb, scalars, m, n, sparseSafe, rl, ru, rix);
@@ -894,6 +926,163 @@ public abstract class SpoofCellwise extends SpoofOperator implements Serializabl
 		return ret;
 	}
 	
+	private long executeSparseNoAggDenseTwoPhase(SparseBlock sblock, SideInput[] b, double[] scalars,
+			double zval, MatrixBlock out, int m, int n, int rl, int ru, long rix)
+	{
+		//note: the output is initialized with the zero-value result
+		//and subsequently overwritten with the results of non-zeros
+		DenseBlock c = out.getDenseBlock();
+		long lnnz = 0;
+		for(int i=rl; i<ru; i++) {
+			double[] cvals = c.values(i);
+			int cix = c.pos(i);
+			int alen = (sblock != null) ? sblock.size(i) : 0;
+			if( zval != 0 ) {
+				Arrays.fill(cvals, cix, cix+n, zval);
+				lnnz += n - alen;
+			}
+			if( alen > 0 ) {
+				int apos = sblock.pos(i);
+				int[] aix = sblock.indexes(i);
+				double[] avals = sblock.values(i);
+				for(int k=apos; k<apos+alen; k++)
+					lnnz += ((cvals[cix+aix[k]]=genexec(avals[k], b, scalars, m, n, rix+i, i, aix[k]))!=0)?1:0;
+			}
+		}
+		return lnnz;
+	}
+	
+	private long executeSparseRowAggTwoPhase(SparseBlock sblock, SideInput[] b, double[] scalars,
+			double zval, MatrixBlock out, int m, int n, int rl, int ru, long rix)
+	{
+		boolean sum = (_aggOp == AggOp.SUM || _aggOp == AggOp.SUM_SQ);
+		double initialVal = (_aggOp==AggOp.MIN) ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+		ValueFunction vfun = getAggFunction();
+		KahanObject kbuff = new KahanObject(0, 0);
+		
+		double[] c = out.getDenseBlockValues();
+		long lnnz = 0;
+		for(int i=rl; i<ru; i++) {
+			kbuff.set(0, 0);
+			double tmp = initialVal;
+			//phase 1: process non-zeros
+			int alen = (sblock != null) ? sblock.size(i) : 0;
+			if( alen > 0 ) {
+				int apos = sblock.pos(i);
+				int[] aix = sblock.indexes(i);
+				double[] avals = sblock.values(i);
+				for(int k=apos; k<apos+alen; k++) {
+					double val = genexec(avals[k], b, scalars, m, n, rix+i, i, aix[k]);
+					if( sum )
+						((KahanFunction)vfun).execute2(kbuff, val);
+					else
+						tmp = vfun.execute(tmp, val);
+				}
+			}
+			//phase 2: correction for unseen zeros
+			if( sum ) {
+				addZeroValues(kbuff, zval, n-alen);
+				c[i] = kbuff._sum;
+			}
+			else
+				c[i] = (alen < n) ? vfun.execute(tmp, zval) : tmp;
+			lnnz += (c[i]!=0) ? 1 : 0;
+		}
+		return lnnz;
+	}
+	
+	private long executeSparseColAggTwoPhase(SparseBlock sblock, SideInput[] b, double[] scalars,
+			double zval, MatrixBlock out, int m, int n, int rl, int ru, long rix)
+	{
+		boolean sum = (_aggOp == AggOp.SUM || _aggOp == AggOp.SUM_SQ);
+		ValueFunction vfun = getAggFunction();
+		KahanObject kbuff = new KahanObject(0, 0);
+		double[] c = out.getDenseBlockValues();
+		double[] corr = sum ? new double[n] : null;
+		int[] count = new int[n];
+		if( !sum )
+			Arrays.fill(c, (_aggOp==AggOp.MIN) ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY);
+		
+		//phase 1: process non-zeros
+		for(int i=rl; sblock != null && i<ru; i++) {
+			if( sblock.isEmpty(i) ) continue;
+			int apos = sblock.pos(i);
+			int alen = sblock.size(i);
+			int[] aix = sblock.indexes(i);
+			double[] avals = sblock.values(i);
+			for(int k=apos; k<apos+alen; k++) {
+				int j = aix[k];
+				double val = genexec(avals[k], b, scalars, m, n, rix+i, i, j);
+				if( sum ) {
+					kbuff.set(c[j], corr[j]);
+					((KahanFunction)vfun).execute2(kbuff, val);
+					c[j] = kbuff._sum;
+					corr[j] = kbuff._correction;
+				}
+				else
+					c[j] = vfun.execute(c[j], val);
+				count[j] ++;
+			}
+		}
+		
+		//phase 2: correction for unseen zeros
+		for(int j=0; j<n; j++) {
+			int nz = ru - rl - count[j];
+			if( nz <= 0 ) continue;
+			if( sum ) {
+				kbuff.set(c[j], corr[j]);
+				addZeroValues(kbuff, zval, nz);
+				c[j] = kbuff._sum;
+			}
+			else
+				c[j] = vfun.execute(c[j], zval);
+		}
+		return -1;
+	}
+	
+	private double executeSparseAggTwoPhase(SparseBlock sblock, SideInput[] b, double[] scalars,
+			double zval, int m, int n, int rl, int ru, long rix)
+	{
+		boolean sum = (_aggOp == AggOp.SUM || _aggOp == AggOp.SUM_SQ);
+		double ret = (_aggOp==AggOp.MIN) ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+		ValueFunction vfun = getAggFunction();
+		KahanObject kbuff = new KahanObject(0, 0);
+		
+		//phase 1: process non-zeros
+		long lnnz = 0;
+		for(int i=rl; sblock != null && i<ru; i++) {
+			if( sblock.isEmpty(i) ) continue;
+			int apos = sblock.pos(i);
+			int alen = sblock.size(i);
+			int[] aix = sblock.indexes(i);
+			double[] avals = sblock.values(i);
+			for(int k=apos; k<apos+alen; k++) {
+				double val = genexec(avals[k], b, scalars, m, n, rix+i, i, aix[k]);
+				if( sum )
+					((KahanFunction)vfun).execute2(kbuff, val);
+				else
+					ret = vfun.execute(ret, val);
+			}
+			lnnz += alen;
+		}
+		
+		//phase 2: correction for unseen zeros
+		long nz = (long)(ru-rl) * n - lnnz;
+		if( sum ) {
+			addZeroValues(kbuff, zval, nz);
+			return kbuff._sum;
+		}
+		return (nz > 0) ? vfun.execute(ret, zval) : ret;
+	}
+	
+	private void addZeroValues(KahanObject kbuff, double zval, long cnt) {
+		//note: sum_sq squares its inputs, which we account for upfront
+		if( cnt > 0 ) {
+			double val = (_aggOp == AggOp.SUM_SQ) ? zval * zval : zval;
+			KahanPlus.getKahanPlusFnObject().execute2(kbuff, cnt * val);
+		}
+	}
+	
 	//local execution where grix==rix
 	protected final double genexec( double a, SideInput[] b,
 		double[] scalars, int m, int n, int rix, int cix) {
@@ -58,6 +58,7 @@ import org.tugraz.sysds.runtime.controlprogram.parfor.DataPartitionerLocal;
 import org.tugraz.sysds.runtime.controlprogram.parfor.DataPartitionerRemoteSpark;
 import org.tugraz.sysds.runtime.controlprogram.parfor.LocalParWorker;
 import org.tugraz.sysds.runtime.controlprogram.parfor.LocalTaskQueue;
+import org.tugraz.sysds.runtime.controlprogram.parfor.LocalTaskQueueWorkStealing;
 import org.tugraz.sysds.runtime.controlprogram.parfor.ParForBody;
 import org.tugraz.sysds.runtime.controlprogram.parfor.RemoteDPParForSpark;
 import org.tugraz.sysds.runtime.controlprogram.parfor.RemoteParForJobReturn;
@@ -67,6 +68,7 @@ import org.tugraz.sysds.runtime.controlprogram.parfor.ResultMergeLocalAutomatic;
 import org.tugraz.sysds.runtime.controlprogram.parfor.ResultMergeLocalFile;
 import org.tugraz.sysds.runtime.controlprogram.parfor.ResultMergeLocalMemory;
 import org.tugraz.sysds.runtime.controlprogram.parfor.ResultMergeRemoteSpark;
+import org.tugraz.sysds.runtime.controlprogram.parfor.ResultRegionTracker;
 import org.tugraz.sysds.runtime.controlprogram.parfor.Task;
 import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitioner;
 import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitionerFactoring;
@@ -75,6 +77,7 @@ import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitionerFactoringCm
 import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitionerFixedsize;
 import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitionerNaive;
 import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitionerStatic;
+import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitionerWorkStealing;
 import org.tugraz.sysds.runtime.controlprogram.parfor.opt.OptTreeConverter;
 import org.tugraz.sysds.runtime.controlprogram.parfor.opt.OptimizationWrapper;
 import org.tugraz.sysds.runtime.controlprogram.parfor.opt.OptimizerRuleBased;
@@ -94,6 +97,7 @@ import org.tugraz.sysds.runtime.instructions.cp.StringObject;
 import org.tugraz.sysds.runtime.instructions.cp.VariableCPInstruction;
 import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
 import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+import org.tugraz.sysds.runtime.util.IndexRange;
 import org.tugraz.sysds.runtime.util.ProgramConverter;
 import org.tugraz.sysds.runtime.util.UtilFunctions;
 import org.tugraz.sysds.utils.Statistics;
@@ -129,6 +133,7 @@ public class ParForProgramBlock extends ForProgramBlock
 		FACTORING,      //factoring task partitioner  
 		FACTORING_CMIN, //constrained factoring task partitioner, uses tasksize as min constraint
 		FACTORING_CMAX, //constrained factoring task partitioner, uses tasksize as max constraint
+		WORK_STEALING,  //work-stealing of per-worker ranges (local only), uses tasksize as min constraint
 		UNSPECIFIED
 	}
 	
@@ -724,7 +729,8 @@ public class ParForProgramBlock extends ForProgramBlock
 		{
 			// Step 1) create task queue and init workers in parallel
 			// (including preparation of update-in-place variables)
-			LocalTaskQueue<Task> queue = new LocalTaskQueue<>();
+			LocalTaskQueue<Task> queue = (_taskPartitioner == PTaskPartitioner.WORK_STEALING
+				&& USE_STREAMING_TASK_CREATION) ? new LocalTaskQueueWorkStealing(_numThreads) : new LocalTaskQueue<>();
 			Thread[] threads         = new Thread[_numThreads];
 			LocalParWorker[] workers = new LocalParWorker[_numThreads];
 			IntStream.range(0, _numThreads).parallel().forEach(i -> {
@@ -772,22 +778,36 @@ public class ParForProgramBlock extends ForProgramBlock
 			for( Thread thread : threads )
 				thread.join();
 			
+			//tasks of work-stealing queue created on demand
+			if( queue instanceof LocalTaskQueueWorkStealing ) {
+				LocalTaskQueueWorkStealing wsqueue = (LocalTaskQueueWorkStealing) queue;
+				numCreatedTasks = wsqueue.getNumCreatedTasks();
+				if( DMLScript.STATISTICS )
+					Statistics.incrementParForSteals(wsqueue.getNumSteals());
+				if( _monitor )
+					StatisticMonitor.putPFStat(_ID, Stat.PARFOR_NUMSTEALS, wsqueue.getNumSteals());
+			}
+			
 			if( _monitor ) 
 				StatisticMonitor.putPFStat(_ID, Stat.PARFOR_WAIT_EXEC_T, time.stop());
 			
 			// Step 4) collecting results from each parallel worker
 			//obtain results and cleanup other intermediates before result merge
 			LocalVariableMap [] localVariables = new LocalVariableMap [_numThreads]; 
+			ResultRegionTracker[] regionTrackers = new ResultRegionTracker[_numThreads];
 			for( int i=0; i<_numThreads; i++ ) {
 				localVariables[i] = workers[i].getVariables();
+				regionTrackers[i] = workers[i].getExecutionContext().getResultRegionTracker();
 				localVariables[i].removeAllNotIn(_resultVars.stream()
 					.map(v -> v._name).collect(Collectors.toSet()));
 				numExecutedTasks += workers[i].getExecutedTasks();
 				numExecutedIterations += workers[i].getExecutedIterations();
+				if( DMLScript.STATISTICS )
+					Statistics.incrementParForIdleTime(workers[i].getIdleTime());
 			}
 			//consolidate results into global symbol table
 			consolidateAndCheckResults( ec, numIterations, numCreatedTasks,
-				numExecutedIterations, numExecutedTasks, localVariables );
+				numExecutedIterations, numExecutedTasks, localVariables, regionTrackers );
 			
 			// Step 5) cleanup local parworkers (e.g., remove created functions)
 			for( int i=0; i<_numThreads; i++ )
@@ -871,7 +891,7 @@ public class ParForProgramBlock extends ForProgramBlock
 		
 		//consolidate results into global symbol table
 		consolidateAndCheckResults( ec, numIterations, numCreatedTasks,
-			numExecutedIterations , numExecutedTasks, ret.getVariables() );
+			numExecutedIterations , numExecutedTasks, ret.getVariables(), null );
 		if( flagForced ) //see step 0
 			releaseForcedRecompile(0);
 		
@@ -933,7 +953,7 @@ public class ParForProgramBlock extends ForProgramBlock
 		
 		//consolidate results into global symbol table
 		consolidateAndCheckResults( ec, numIterations, numCreatedTasks,
-			numExecutedIterations, numExecutedTasks, ret.getVariables() );
+			numExecutedIterations, numExecutedTasks, ret.getVariables(), null );
 		
 		if( flagForced ) //see step 0
 			releaseForcedRecompile(0);
@@ -1185,6 +1205,9 @@ public class ParForProgramBlock extends ForProgramBlock
 			//prepare basic update-in-place variables (vars dropped on result merge)
 			prepareUpdateInPlaceVariables(cpEc, pwID);
 			
+			//track dirty regions of result variables for result merge
+			cpEc.setResultRegionTracker(new ResultRegionTracker(_resultVars, cpEc.getVariables()));
+			
 			//copy compiler configuration (for jmlc w/o global config)
 			CompilerConfig cconf = ConfigurationManager.getCompilerConfig();
 			
@@ -1239,7 +1262,12 @@ public class ParForProgramBlock extends ForProgramBlock
 				//for constrained factoring the tasksize is used as the minimum constraint
 				tp = new TaskPartitionerFactoringCmax(_taskSize,_numThreads, 
 					_taskSize, _iterPredVar, from, to, incr);
-				break;	
+				break;
+			case WORK_STEALING:
+				//for work stealing the tasksize is used as the minimum task size
+				tp = new TaskPartitionerWorkStealing(
+					_taskSize,_numThreads, _iterPredVar, from, to, incr);
+				break;
 			default:
 				throw new DMLRuntimeException("Undefined task partitioner: '"+_taskPartitioner+"'.");
 		}
@@ -1318,6 +1346,17 @@ public class ParForProgramBlock extends ForProgramBlock
 		return rm;
 	}
 	
+	private static void setDirtyRegions(ResultMerge rm, String varName, MatrixObject[] in, ResultRegionTracker[] trackers) {
+		//dirty regions only available for local parfor workers
+		if( trackers == null )
+			return;
+		List<List<IndexRange>> regions = new ArrayList<>();
+		for( int i=0; i<in.length; i++ )
+			regions.add((trackers[i] != null) ?
+				trackers[i].getDirtyRegions(varName, in[i]) : null);
+		rm.setDirtyRegions(regions);
+	}
+	
 	/**
 	 * Recompile program block hierarchy to forced CP if MR instructions or functions.
 	 * Returns true if recompile was necessary and possible
@@ -1349,7 +1388,7 @@ public class ParForProgramBlock extends ForProgramBlock
 			_childBlocks, tid, new HashSet<String>(), null);
 	}
 
-	private void consolidateAndCheckResults(ExecutionContext ec, long expIters, long expTasks, long numIters, long numTasks, LocalVariableMap [] results) 
+	private void consolidateAndCheckResults(ExecutionContext ec, long expIters, long expTasks, long numIters, long numTasks, LocalVariableMap [] results, ResultRegionTracker[] trackers) 
 	{
 		Timing time = new Timing(true);
 		
@@ -1378,7 +1417,7 @@ public class ParForProgramBlock extends ForProgramBlock
 				//run result merge workers
 				ResultMergeWorker[] rmWorkers = new ResultMergeWorker[par];
 				for( int i=0; i<par; i++ )
-					rmWorkers[i] = new ResultMergeWorker(q, results, ec);
+					rmWorkers[i] = new ResultMergeWorker(q, results, trackers, ec);
 				for( int i=0; i<par; i++ ) //start all
 					rmWorkers[i].start();
 				for( int i=0; i<par; i++ ) { //wait for all
@@ -1406,7 +1445,8 @@ public class ParForProgramBlock extends ForProgramBlock
 						vars.get(var._name)).toArray(MatrixObject[]::new);
 					String fname = constructResultMergeFileName();
 					ResultMerge rm = createResultMerge(_resultMerge, out, in, fname, var._isAccum, ec);
-					MatrixObject outNew = USE_PARALLEL_RESULT_MERGE ?
+					setDirtyRegions(rm, var._name, in, trackers);
+					MatrixObject outNew = (USE_PARALLEL_RESULT_MERGE || rm.hasDirtyRegions()) ?
 						rm.executeParallelMerge(_numThreads) :
 						rm.executeSerialMerge();
 					
@@ -1594,13 +1634,15 @@ public class ParForProgramBlock extends ForProgramBlock
 	{
 		private LocalTaskQueue<ResultVar> _q = null;
 		private LocalVariableMap[] _refVars = null;
+		private ResultRegionTracker[] _trackers = null;
 		private ExecutionContext _ec = null;
 		private boolean _success = false;
 		
-		public ResultMergeWorker( LocalTaskQueue<ResultVar> q, LocalVariableMap[] results, ExecutionContext ec )
+		public ResultMergeWorker( LocalTaskQueue<ResultVar> q, LocalVariableMap[] results, ResultRegionTracker[] trackers, ExecutionContext ec )
 		{
 			_q = q;
 			_refVars = results;
+			_trackers = trackers;
 			_ec = ec;
 		}
 		
@@ -1630,6 +1672,7 @@ public class ParForProgramBlock extends ForProgramBlock
 					String fname = constructResultMergeFileName();
 				
 					ResultMerge rm = createResultMerge(_resultMerge, out, in, fname, var._isAccum, _ec);
+					setDirtyRegions(rm, var._name, in, _trackers);
 					MatrixObject outNew = null;
 					if( USE_PARALLEL_RESULT_MERGE )
 						outNew = rm.executeParallelMerge( _numThreads );
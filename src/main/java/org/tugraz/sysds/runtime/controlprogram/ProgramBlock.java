@@ -47,6 +47,7 @@ import org.tugraz.sysds.runtime.instructions.cp.ScalarObject;
 import org.tugraz.sysds.runtime.instructions.cp.StringObject;
 import org.tugraz.sysds.runtime.lineage.LineageCache;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.utils.Profiler;
 import org.tugraz.sysds.utils.Statistics;
 
 
@@ -196,8 +197,9 @@ public abstract class ProgramBlock implements ParseInfo
 		try
 		{
 			// start time measurement for statistics
-			long t0 = (DMLScript.STATISTICS || LOG.isTraceEnabled()) ?
+			long t0 = (DMLScript.STATISTICS || DMLScript.PROFILE || LOG.isTraceEnabled()) ?
 				System.nanoTime() : 0;
+			long a0 = DMLScript.PROFILE ? Profiler.getAllocatedBytes() : 0;
 
 			// pre-process instruction (inst patching, listeners, lineage)
 			Instruction tmp = currInst.preprocessInstruction( ec );
@@ -220,6 +222,10 @@ public abstract class ProgramBlock implements ParseInfo
 			}
 			if (DMLScript.JMLC_MEM_STATISTICS && DMLScript.FINEGRAINED_STATISTICS)
 				ec.getVariables().getPinnedDataSize();
+			
+			// maintain instruction-level profile (time, allocation, sizes)
+			if( DMLScript.PROFILE )
+				Profiler.maintainProfile(this, tmp, ec, t0, System.nanoTime(), a0);
 
 			// optional trace information (instruction and runtime)
 			if( LOG.isTraceEnabled() ) {
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.controlprogram.caching;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.Path;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+
+/**
+ * Scheduler for asynchronous prefetch of persistent reads and write-behind
+ * of persistent writes. Reads are tracked as futures on the individual cacheable
+ * data objects, while writes are tracked by file name in order to flush pending
+ * writes before the same file is read or written again, and before program end.
+ * 
+ * Reads and writes use separate, bounded thread pools, because reads may wait
+ * for pending writes of the same file (but never vice versa). The readers and
+ * writers are multi-threaded themselves, so few concurrent tasks suffice.
+ */
+public class AsyncIOScheduler
+{
+	private static final Log LOG = LogFactory.getLog(AsyncIOScheduler.class.getName());
+	
+	//max number of concurrent async reads and writes, respectively
+	public static final int MAX_THREADS = 2;
+	
+	private static ExecutorService _readPool = null;
+	private static ExecutorService _writePool = null;
+
+	//pending writes by (normalized) file name
+	private static final HashMap<String, Future<?>> _writes = new HashMap<>();
+
+	private static synchronized ExecutorService getReadPool() {
+		if( _readPool == null )
+			_readPool = createPool("async-read-thread-%d");
+		return _readPool;
+	}
+	
+	private static synchronized ExecutorService getWritePool() {
+		if( _writePool == null )
+			_writePool = createPool("async-write-thread-%d");
+		return _writePool;
+	}
+	
+	private static ExecutorService createPool(String pattern) {
+		//bounded pool of daemon threads (no blocking of jvm shutdown)
+		return Executors.newFixedThreadPool(MAX_THREADS,
+			new BasicThreadFactory.Builder().namingPattern(pattern).daemon(true).build());
+	}
+
+	public static <T> Future<T> submitRead(Callable<T> task) {
+		return getReadPool().submit(task);
+	}
+
+	public static void submitWrite(String fname, Callable<?> task) {
+		//serialize writes of the same file
+		waitForWrite(fname);
+		Future<?> f = getWritePool().submit(task);
+		synchronized( _writes ) {
+			_writes.put(getKey(fname), f);
+		}
+	}
+
+	/**
+	 * Waits for a pending write of the given file, if any.
+	 * 
+	 * @param fname file name
+	 */
+	public static void waitForWrite(String fname) {
+		Future<?> f = null;
+		synchronized( _writes ) {
+			if( !_writes.isEmpty() )
+				f = _writes.remove(getKey(fname));
+		}
+		if( f != null )
+			waitFor(f, fname);
+	}
+
+	/**
+	 * Obtains the pending write of the given file, if any, without
+	 * waiting for it or removing it from the pending writes.
+	 * 
+	 * @param fname file name
+	 * @return future of the pending write, or null if none
+	 */
+	public static Future<?> getPendingWrite(String fname) {
+		synchronized( _writes ) {
+			return _writes.get(getKey(fname));
+		}
+	}
+
+	/**
+	 * Waits for all pending writes, and throws the first
+	 * encountered write failure (if any) after all writes
+	 * are completed.
+	 */
+	public static void flushWrites() {
+		ArrayList<String> fnames = null;
+		ArrayList<Future<?>> futures = null;
+		synchronized( _writes ) {
+			if( _writes.isEmpty() )
+				return;
+			fnames = new ArrayList<>(_writes.keySet());
+			futures = new ArrayList<>(_writes.values());
+			_writes.clear();
+		}
+		DMLRuntimeException err = null;
+		for( int i=0; i<futures.size(); i++ ) {
+			try {
+				waitFor(futures.get(i), fnames.get(i));
+			}
+			catch(DMLRuntimeException ex) {
+				err = (err == null) ? ex : err;
+			}
+		}
+		if( err != null )
+			throw err;
+	}
+
+	public static void cleanup() {
+		//wait for pending writes (write failures of regular program
+		//execution are already propagated via flushWrites)
+		try {
+			flushWrites();
+		}
+		catch(DMLRuntimeException ex) {
+			LOG.warn("Failed to flush pending writes on cleanup: "+ex.getMessage());
+		}
+		synchronized( AsyncIOScheduler.class ) {
+			if( _readPool != null )
+				_readPool.shutdown();
+			if( _writePool != null )
+				_writePool.shutdown();
+			_readPool = null;
+			_writePool = null;
+		}
+	}
+
+	private static void waitFor(Future<?> f, String fname) {
+		try {
+			f.get();
+		}
+		catch(ExecutionException ex) {
+			throw new DMLRuntimeException("Asynchronous write of "+fname+" failed.", ex);
+		}
+		catch(InterruptedException ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+
+	private static String getKey(String fname) {
+		return new Path(fname).toString();
+	}
+}
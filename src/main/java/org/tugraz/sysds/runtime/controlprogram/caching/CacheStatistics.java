@@ -54,6 +54,7 @@ public class CacheStatistics
 	private static final LongAdder _numHitsFSBuff   = new LongAdder();
 	private static final LongAdder _numHitsFS       = new LongAdder();
 	private static final LongAdder _numHitsHDFS     = new LongAdder();
+	private static final LongAdder _numRangeHDFS    = new LongAdder(); //range reads
 	
 	//write statistics caching
 	private static final LongAdder _numWritesFSBuff = new LongAdder();
@@ -71,6 +72,7 @@ public class CacheStatistics
 		_numHitsFSBuff.reset();
 		_numHitsFS.reset();
 		_numHitsHDFS.reset();
+		_numRangeHDFS.reset();
 		
 		_numWritesFSBuff.reset();
 		_numWritesFS.reset();
@@ -129,6 +131,14 @@ public class CacheStatistics
 	public static long getHDFSHits() {
 		return _numHitsHDFS.longValue();
 	}
+	
+	public static void incrementHDFSRangeReads() {
+		_numRangeHDFS.increment();
+	}
+	
+	public static long getHDFSRangeReads() {
+		return _numRangeHDFS.longValue();
+	}
 
 	public static void incrementFSBuffWrites() {
 		_numWritesFSBuff.increment();
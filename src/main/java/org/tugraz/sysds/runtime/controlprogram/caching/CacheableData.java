@@ -24,6 +24,9 @@ import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang.mutable.MutableBoolean;
@@ -84,6 +87,8 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 	public static final String  CACHING_COUNTER_GROUP_NAME    = "SystemML Caching Counters";
 	public static final String  CACHING_EVICTION_FILEEXTENSION = ".dat";
 	public static final boolean CACHING_ASYNC_FILECLEANUP = true;
+	public static boolean CACHING_ASYNC_PREFETCH = true;   //async read of persistent inputs
+	public static boolean CACHING_ASYNC_WRITEBEHIND = true; //async write of persistent outputs
 	
 	/**
 	 * Defines all possible cache status types for a data blob.
@@ -188,6 +193,9 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 	private String  _cacheFileName = null; //local eviction file name
 	private boolean _requiresLocalWrite = false; //flag if local write for read obj
 	private boolean _isAcquireFromEmpty = false; //flag if read from status empty 
+	private Future<T> _prefetch = null;   //pending or completed async read
+	private long _prefetchSize = 0;       //reserved buffer pool memory of async read
+	private AtomicBoolean _prefetchStarted = null; //claimed by async read or range read
 	
 	//spark-specific handles
 	//note: we use the abstraction of LineageObjects for two reasons: (1) to keep track of cleanup
@@ -248,6 +256,72 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 		return _cacheStatus;
 	}
 
+	/**
+	 * Indicates if the data is only available in its (unmodified) persistent
+	 * file, i.e., not in memory, evicted, or backed by RDDs, broadcasts, or GPU
+	 * objects, in which case indexed reads may read only a range of the file
+	 * instead of the entire data object.
+	 * 
+	 * @return true if only available in persistent file
+	 */
+	public synchronized boolean isAvailableInFileOnly() {
+		return _cacheStatus == CacheStatus.EMPTY && _data == null
+			&& !_dirtyFlag && _hdfsFileName != null
+			&& _rddHandle == null && _bcHandle == null
+			&& (_gpuObjects == null || _gpuObjects.isEmpty())
+			&& _prefetch == null;
+	}
+	
+	/**
+	 * Indicates if an indexed read may read only a range of the persistent
+	 * file. A prefetch that has not started yet is cancelled in favor of the
+	 * range read, while a running or completed prefetch is reused (i.e., the
+	 * range is sliced from the full read) to avoid reading the file twice.
+	 * 
+	 * @return true if range read allowed
+	 */
+	public synchronized boolean allowsRangeRead() {
+		//note: future.cancel also succeeds for running tasks, hence the explicit claim
+		if( _prefetch != null && _prefetchStarted.compareAndSet(false, true) )
+			discardPrefetch();
+		return isAvailableInFileOnly();
+	}
+	
+	/**
+	 * Starts an asynchronous read of the persistent file, which is consumed
+	 * by the first acquireRead. The prefetch is only issued if the data is
+	 * available in its persistent file only and its estimated size can be
+	 * reserved in the buffer pool (which accounts for all pending prefetches).
+	 */
+	public synchronized void prefetch() {
+		if( !CACHING_ASYNC_PREFETCH || !isCachingActive() || _prefetch != null
+			|| DMLScript.getGlobalExecMode() == ExecMode.SPARK || !isAvailableInFileOnly() )
+			return;
+		MatrixCharacteristics mc = getMatrixCharacteristics();
+		if( mc == null || !mc.dimsKnown() )
+			return;
+		long size = OptimizerUtils.estimateSize(mc);
+		try {
+			if( !LazyWriteBuffer.reserve(size) )
+				return;
+		}
+		catch(IOException ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		if( LOG.isTraceEnabled() )
+			LOG.trace("Prefetch "+hashCode()+" from "+_hdfsFileName);
+		final String fname = _hdfsFileName;
+		final AtomicBoolean started = new AtomicBoolean(false);
+		_prefetchSize = size;
+		_prefetchStarted = started;
+		_prefetch = AsyncIOScheduler.submitRead(() ->
+			started.compareAndSet(false, true) ? readBlobFromHDFS(fname) : null);
+	}
+	
+	public synchronized boolean isPrefetched() {
+		return _prefetch != null;
+	}
+
 	public boolean isHDFSFileExists() {
 		return _hdfsFileExists;
 	}
@@ -261,9 +335,11 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 	}
 
 	public synchronized void setFileName( String file ) {
-		if( _hdfsFileName!=null && !_hdfsFileName.equals(file) )
+		if( _hdfsFileName!=null && !_hdfsFileName.equals(file) ) {
 			if( !isEmpty(true) )
 				_dirtyFlag = true;
+			discardPrefetch();
+		}
 		_hdfsFileName = file;
 	}
 	
@@ -430,7 +506,12 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 				if( DMLScript.STATISTICS )
 					CacheStatistics.incrementHDFSHits();
 				
-				if( getRDDHandle()==null || getRDDHandle().allowsShortCircuitRead() ) {
+				if( _prefetch != null ) {
+					//wait for async read of cacheable data from hdfs
+					_data = getPrefetchedBlob();
+					_requiresLocalWrite = CACHING_WRITE_CACHE_ON_READ;
+				}
+				else if( getRDDHandle()==null || getRDDHandle().allowsShortCircuitRead() ) {
 					//check filename
 					if( _hdfsFileName == null )
 						throw new DMLRuntimeException("Cannot read matrix for empty filename.");
@@ -452,6 +533,7 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 				}
 				
 				setDirty(false);
+				claimBlock(_data, this);
 			}
 			catch (IOException e) {
 				throw new DMLRuntimeException("Reading of " + _hdfsFileName + " ("+hashCode()+") failed.", e);
@@ -503,8 +585,9 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 		if (! isAvailableToModify ())
 			throw new DMLRuntimeException("CacheableData not available to modify.");
 		
-		//clear old data
-		clearData();
+		//clear old data (but retain in-place updated data)
+		clearData(_data != newData);
+		discardPrefetch();
 		
 		//cache status maintenance
 		acquire (true, false); //no need to load evicted matrix
@@ -515,6 +598,7 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 		//set references to new data
 		if (newData == null)
 			throw new DMLRuntimeException("acquireModify with empty cache block.");
+		claimBlock(newData, this);
 		return _data = newData;
 	}
 	
@@ -593,7 +677,11 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 	 * Out-Status: EMPTY.
 	 * 
 	 */
-	public synchronized void clearData() 
+	public synchronized void clearData() {
+		clearData(true);
+	}
+	
+	private synchronized void clearData(boolean releaseBlock)
 	{
 		// check if cleanup enabled and possible 
 		if( !isCleanupEnabled() ) 
@@ -607,9 +695,13 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 			  ||(_data!=null && !isCachingActive()) )) //additional condition for JMLC
 			freeEvictedBlob();
 
-		// clear the in-memory data
+		// clear the in-memory data (incl explicitly owned off-heap memory of pinned or cached blocks)
+		T data = (_data != null) ? _data : (_cache != null) ? _cache.get() : null;
+		if( releaseBlock && data != null )
+			releaseBlock(data);
 		_data = null;
 		clearCache();
+		discardPrefetch();
 		
 		// clear rdd/broadcast back refs
 		if( _rddHandle != null )
@@ -631,6 +723,58 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 		exportData( -1 );
 	}
 	
+	/**
+	 * Writes the cache block data to HDFS in the background (write-behind), if
+	 * the data is dirty and available in memory or evicted. The meta data file is
+	 * written synchronously, while the pending data write is tracked by file name
+	 * and flushed before the file is read or written again, and at program end.
+	 * In all other cases, this method falls back to a synchronous export.
+	 * 
+	 * @param fName file name
+	 * @param outputFormat format
+	 * @param formatProperties file format properties
+	 */
+	public synchronized void exportDataAsync(String fName, String outputFormat, FileFormatProperties formatProperties) {
+		if( !CACHING_ASYNC_WRITEBEHIND || !isCachingActive() || !isDirty() || isEmpty(true)
+			|| fName.equals(_hdfsFileName) || _rddHandle != null || _gpuObjects != null ) {
+			exportData(fName, outputFormat, -1, formatProperties);
+			return;
+		}
+		if( LOG.isTraceEnabled() )
+			LOG.trace("Export data async "+hashCode()+" "+fName);
+		long t0 = DMLScript.STATISTICS ? System.nanoTime() : 0;
+		
+		//prevent concurrent modifications
+		if ( !isAvailableToRead() )
+			throw new DMLRuntimeException("MatrixObject not available to read.");
+		
+		//pin the data (incl restore if evicted), which remains reachable
+		//by the write task even if this object is evicted or cleared later on
+		if( _data == null )
+			getCache();
+		acquire( false, _data==null );
+		try {
+			writeMetaData( fName, outputFormat, formatProperties );
+			final T data = _data;
+			claimBlock(data, AsyncIOScheduler.class); //shared w/ write task
+			AsyncIOScheduler.submitWrite(fName, () -> {
+				writeBlobToHDFS( data, fName, outputFormat, -1, formatProperties );
+				return null;
+			});
+		}
+		catch (Exception e) {
+			throw new DMLRuntimeException("Export to " + fName + " failed.", e);
+		}
+		finally {
+			release();
+		}
+		
+		if( DMLScript.STATISTICS ){
+			long t1 = System.nanoTime();
+			CacheStatistics.incrementExportTime(t1-t0);
+		}
+	}
+	
 	/**
 	 * Writes, or flushes, the cache block data to HDFS.
 	 * 
@@ -679,6 +823,9 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 
 		LOG.trace("Exporting " + this.getDebugName() + " to " + fName + " in format " + outputFormat);
 		
+		//flush pending async write of the same file
+		AsyncIOScheduler.waitForWrite(fName);
+		
 		if( DMLScript.USE_ACCELERATOR && _gpuObjects != null ) {
 			boolean copiedFromGPU = false;
 			for (Map.Entry<GPUContext, GPUObject> kv : _gpuObjects.entrySet()) {
@@ -714,11 +861,14 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 				//note: for large rdd outputs, we compile dedicated writespinstructions (no need to handle this here) 
 				try
 				{
-					if( getRDDHandle()==null || getRDDHandle().allowsShortCircuitRead() )
+					if( _prefetch != null )
+						_data = getPrefetchedBlob();
+					else if( getRDDHandle()==null || getRDDHandle().allowsShortCircuitRead() )
 						_data = readBlobFromHDFS( _hdfsFileName );
 					else
 						_data = readBlobFromRDD( getRDDHandle(), new MutableBoolean() );
 					setDirty(false);
+					claimBlock(_data, this);
 				}
 				catch (IOException e)
 				{
@@ -733,7 +883,7 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 			// b) write the matrix 
 			try {
 				writeMetaData( fName, outputFormat, formatProperties );
-				writeBlobToHDFS( fName, outputFormat, replication, formatProperties );
+				writeBlobToHDFS( _data, fName, outputFormat, replication, formatProperties );
 				if ( !pWrite )
 					setDirty(false);
 			}
@@ -791,6 +941,37 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 		}
 	}
 	
+	private T getPrefetchedBlob() throws IOException {
+		try {
+			return _prefetch.get();
+		}
+		catch(ExecutionException ex) {
+			throw new IOException(ex.getCause());
+		}
+		catch(InterruptedException ex) {
+			throw new IOException(ex);
+		}
+		finally {
+			//memory now held by the pinned data
+			releasePrefetch();
+		}
+	}
+	
+	private void discardPrefetch() {
+		//note: no interrupt of running reads, result is dropped
+		if( _prefetch != null )
+			_prefetch.cancel(false);
+		releasePrefetch();
+	}
+	
+	private void releasePrefetch() {
+		if( _prefetch != null )
+			LazyWriteBuffer.release(_prefetchSize);
+		_prefetch = null;
+		_prefetchSize = 0;
+		_prefetchStarted = null;
+	}
+	
 	// --------- ABSTRACT LOW-LEVEL CACHE I/O OPERATIONS ----------
 
 	/**
@@ -832,6 +1013,7 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 		//check for success
 		if (_data == null)
 			throw new DMLRuntimeException (cacheFilePathAndName + " : Restore failed.");
+		claimBlock(_data, this);
 		
 		if( LOG.isTraceEnabled() )
 			LOG.trace("Restoring matrix - COMPLETED ... " + (System.currentTimeMillis()-begin) + " msec.");
@@ -840,6 +1022,28 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 	protected abstract T readBlobFromCache(String fname)
 		throws IOException;
 	
+	/**
+	 * Claims the ownership of memory held outside the JVM heap by the
+	 * given cache block, either by this object or by another holder, in
+	 * which case the block is considered shared (see DenseBlock.claim).
+	 * 
+	 * @param data cache block
+	 * @param owner owner object
+	 */
+	protected void claimBlock(T data, Object owner) {
+		//do nothing
+	}
+	
+	/**
+	 * Releases the memory held outside the JVM heap by the given cache
+	 * block, if exclusively owned by this object.
+	 * 
+	 * @param data cache block
+	 */
+	protected void releaseBlock(T data) {
+		//do nothing
+	}
+	
 	/**
 	 * Low-level cache I/O method that deletes the file containing the
 	 * evicted data blob, without reading it.
@@ -882,6 +1086,9 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 	protected T readBlobFromHDFS(String fname) 
 		throws IOException 
 	{
+		//flush pending async write of the same file
+		AsyncIOScheduler.waitForWrite(fname);
+		
 		MetaDataFormat iimd = (MetaDataFormat) _metaData;
 		MatrixCharacteristics mc = iimd.getMatrixCharacteristics();
 		return readBlobFromHDFS(fname, mc.getRows(), mc.getCols());
@@ -893,7 +1100,7 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 	protected abstract T readBlobFromRDD(RDDObject rdd, MutableBoolean status)
 		throws IOException;
 
-	protected abstract void writeBlobToHDFS(String fname, String ofmt, int rep, FileFormatProperties fprop) 
+	protected abstract void writeBlobToHDFS(T data, String fname, String ofmt, int rep, FileFormatProperties fprop) 
 		throws IOException;
 
 	protected abstract void writeBlobFromRDDtoHDFS(RDDObject rdd, String fname, String ofmt) 
@@ -1176,6 +1383,9 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 		//cleanup remaining cached writes
 		LazyWriteBuffer.cleanup();
 		
+		//flush pending async writes
+		AsyncIOScheduler.cleanup();
+		
 		//delete cache dir and files
 		cleanupCacheDir(true);
 	}
@@ -1264,6 +1474,9 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 		
 		try
 		{
+			//flush pending async write of the same file
+			AsyncIOScheduler.waitForWrite(fName);
+			
 			//check for common file scheme (otherwise no copy/rename)
 			boolean eqScheme = IOUtilFunctions.isSameFileScheme(
 				new Path(_hdfsFileName), new Path(fName));
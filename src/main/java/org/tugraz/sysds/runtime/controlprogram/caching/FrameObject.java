@@ -25,6 +25,7 @@ import java.util.Arrays;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.mutable.MutableBoolean;
+import org.tugraz.sysds.api.DMLScript;
 import org.tugraz.sysds.parser.DataExpression;
 import org.tugraz.sysds.common.Types.DataType;
 import org.tugraz.sysds.common.Types.ValueType;
@@ -42,6 +43,7 @@ import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
 import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
 import org.tugraz.sysds.runtime.meta.MetaData;
 import org.tugraz.sysds.runtime.meta.MetaDataFormat;
+import org.tugraz.sysds.runtime.util.IndexRange;
 import org.tugraz.sysds.runtime.util.UtilFunctions;
 
 public class FrameObject extends CacheableData<FrameBlock>
@@ -188,6 +190,40 @@ public class FrameObject extends CacheableData<FrameBlock>
 		return data;
 	}
 
+	/**
+	 * Reads the given index range directly from the persistent file, without
+	 * materializing the entire frame in the buffer pool. This is only valid
+	 * if the frame is available in its persistent file only.
+	 * 
+	 * @param ixrange 0-based, inclusive index range
+	 * @return frame block of the index range
+	 */
+	public synchronized FrameBlock readFrameRange( IndexRange ixrange ) {
+		if( !isAvailableInFileOnly() )
+			throw new DMLRuntimeException("FrameObject not available to range read.");
+		if( DMLScript.STATISTICS ) {
+			CacheStatistics.incrementHDFSHits();
+			CacheStatistics.incrementHDFSRangeReads();
+		}
+		
+		MetaDataFormat iimd = (MetaDataFormat) _metaData;
+		MatrixCharacteristics mc = iimd.getMatrixCharacteristics();
+		
+		//handle missing schema if necessary
+		long clen = mc.getCols();
+		ValueType[] lschema = (_schema!=null) ? _schema : 
+			UtilFunctions.nCopies(clen>=1 ? (int)clen : 1, ValueType.STRING);
+		
+		try {
+			FrameReader reader = FrameReaderFactory.createFrameReader(iimd.getInputInfo(), getFileFormatProperties());
+			return reader.readFrameFromHDFS(_hdfsFileName, lschema,
+				reader.getDefColNames(lschema.length), mc.getRows(), clen, ixrange);
+		}
+		catch(IOException ex) {
+			throw new DMLRuntimeException("Reading of range "+ixrange.add(1)+" of "+_hdfsFileName+" failed.", ex);
+		}
+	}
+
 	@Override
 	protected FrameBlock readBlobFromRDD(RDDObject rdd, MutableBoolean status)
 			throws IOException 
@@ -230,12 +266,12 @@ public class FrameObject extends CacheableData<FrameBlock>
 	}
 
 	@Override
-	protected void writeBlobToHDFS(String fname, String ofmt, int rep, FileFormatProperties fprop) 
+	protected void writeBlobToHDFS(FrameBlock data, String fname, String ofmt, int rep, FileFormatProperties fprop) 
 		throws IOException, DMLRuntimeException 
 	{
 		OutputInfo oinfo = OutputInfo.stringToOutputInfo(ofmt);
 		FrameWriter writer = FrameWriterFactory.createFrameWriter(oinfo, fprop);
-		writer.writeFrameToHDFS(_data, fname,  getNumRows(), getNumColumns());
+		writer.writeFrameToHDFS(data, fname,  getNumRows(), getNumColumns());
 	}
 
 	@Override
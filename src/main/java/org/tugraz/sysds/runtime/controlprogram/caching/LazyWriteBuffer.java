@@ -43,6 +43,9 @@ public class LazyWriteBuffer
 	//current size in bytes
 	private static long _size;
 	
+	//reserved size in bytes (e.g., for pending async reads)
+	private static long _reserved;
+	
 	//eviction queue of <filename,buffer> pairs (implemented via linked hash map
 	//for (1) queue semantics and (2) constant time get/insert/delete operations)
 	private static EvictionQueue _mQueue;
@@ -75,24 +78,7 @@ public class LazyWriteBuffer
 			synchronized( _mQueue )
 			{
 				//evict matrices to make room (by default FIFO)
-				while( _size+lSize > _limit && !_mQueue.isEmpty() )
-				{
-					//remove first entry from eviction queue
-					Entry<String, ByteBuffer> entry = _mQueue.removeFirst();
-					String ftmp = entry.getKey();
-					ByteBuffer tmp = entry.getValue();
-					
-					if( tmp != null ) {
-						//wait for pending serialization
-						tmp.checkSerialized();
-						
-						//evict matrix
-						tmp.evictBuffer(ftmp);
-						tmp.freeMemory();
-						_size -= tmp.getSize();
-						numEvicted++;
-					}
-				}
+				numEvicted += evict(lSize);
 				
 				//put placeholder into buffer pool (reserve mem)
 				_mQueue.addLast(fname, bbuff);
@@ -120,6 +106,69 @@ public class LazyWriteBuffer
 		return numEvicted;
 	}
 	
+	/**
+	 * Reserves the given size in the buffer pool, for data that is not
+	 * buffered but held in memory on behalf of the buffer pool (e.g., the
+	 * results of pending asynchronous reads). Buffered blocks are evicted
+	 * as necessary to make room. The reservation fails if the size does not
+	 * fit into the buffer limit minus all existing reservations.
+	 * 
+	 * @param size size in bytes
+	 * @return true if the reservation succeeded
+	 * @throws IOException if IOException occurs
+	 */
+	public static boolean reserve(long size)
+		throws IOException
+	{
+		int numEvicted = 0;
+		synchronized( _mQueue ) {
+			if( _reserved + size > _limit )
+				return false;
+			numEvicted = evict(size);
+			_reserved += size;
+		}
+		if( DMLScript.STATISTICS )
+			CacheStatistics.incrementFSWrites(numEvicted);
+		return true;
+	}
+	
+	/**
+	 * Releases a reservation of the given size.
+	 * 
+	 * @param size size in bytes
+	 */
+	public static void release(long size) {
+		synchronized( _mQueue ) {
+			_reserved = Math.max(_reserved - size, 0);
+		}
+	}
+	
+	private static int evict(long lSize)
+		throws IOException
+	{
+		//note: only called within synchronized( _mQueue )
+		int numEvicted = 0;
+		while( _size+_reserved+lSize > _limit && !_mQueue.isEmpty() )
+		{
+			//remove first entry from eviction queue
+			Entry<String, ByteBuffer> entry = _mQueue.removeFirst();
+			String ftmp = entry.getKey();
+			ByteBuffer tmp = entry.getValue();
+			
+			if( tmp != null ) {
+				//wait for pending serialization
+				tmp.checkSerialized();
+				
+				//evict matrix
+				tmp.evictBuffer(ftmp);
+				tmp.freeMemory();
+				_size -= tmp.getSize();
+				numEvicted++;
+			}
+		}
+		return numEvicted;
+	}
+	
 	public static void deleteBlock(String fname)
 	{
 		boolean requiresDelete = true;
@@ -182,6 +231,7 @@ public class LazyWriteBuffer
 		_mQueue = new EvictionQueue();
 		_fClean = new FileCleaner();
 		_size = 0;
+		_reserved = 0;
 		if( CacheableData.CACHING_BUFFER_PAGECACHE )
 			PageCache.init();
 	}
@@ -208,7 +258,12 @@ public class LazyWriteBuffer
 	
 	public static long getWriteBufferFree() {
 		synchronized( _mQueue ) {
-			return _limit - _size; }
+			return _limit - _size - _reserved; }
+	}
+	
+	public static long getReservedSize() {
+		synchronized( _mQueue ) {
+			return _reserved; }
 	}
 	
 	public static long getCacheBlockSize(CacheBlock cb) {
@@ -35,6 +35,7 @@ import org.tugraz.sysds.runtime.controlprogram.ParForProgramBlock.PDataPartition
 import org.tugraz.sysds.runtime.controlprogram.context.SparkExecutionContext;
 import org.tugraz.sysds.runtime.instructions.spark.data.RDDObject;
 import org.tugraz.sysds.runtime.io.FileFormatProperties;
+import org.tugraz.sysds.runtime.io.ReadProperties;
 import org.tugraz.sysds.runtime.matrix.data.InputInfo;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
@@ -143,6 +144,15 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 		_diag = diag;
 	}
 	
+	@Override
+	public synchronized void exportDataAsync(String fName, String outputFormat, FileFormatProperties formatProperties) {
+		//no write-behind for in-place updates, which would modify the pinned block
+		if( _updateType.isInPlace() )
+			exportData(fName, outputFormat, -1, formatProperties);
+		else
+			super.exportDataAsync(fName, outputFormat, formatProperties);
+	}
+	
 	@Override
 	public void updateMatrixCharacteristics (MatrixCharacteristics mc) {
 		_metaData.getMatrixCharacteristics().set(mc);
@@ -415,6 +425,18 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 		return (MatrixBlock)LazyWriteBuffer.readBlock(fname, true);
 	}
 	
+	@Override
+	protected void claimBlock(MatrixBlock data, Object owner) {
+		if( data != null && data.getDenseBlock() != null )
+			data.getDenseBlock().claim(owner);
+	}
+	
+	@Override
+	protected void releaseBlock(MatrixBlock data) {
+		if( data.getDenseBlock() != null )
+			data.getDenseBlock().release(this);
+	}
+	
 
 	@Override
 	protected MatrixBlock readBlobFromHDFS(String fname, long rlen, long clen)
@@ -445,6 +467,45 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 		return newData;
 	}
 
+	/**
+	 * Reads the given index range directly from the persistent file, without
+	 * materializing the entire matrix in the buffer pool. This is only valid
+	 * if the matrix is available in its persistent file only.
+	 * 
+	 * @param ixrange 0-based, inclusive index range
+	 * @return matrix block of the index range
+	 */
+	public synchronized MatrixBlock readMatrixRange( IndexRange ixrange ) {
+		if( !isAvailableInFileOnly() )
+			throw new DMLRuntimeException("MatrixObject not available to range read.");
+		if( LOG.isTraceEnabled() )
+			LOG.trace("Read range "+hashCode()+" "+ixrange.add(1)+" from "+_hdfsFileName);
+		if( DMLScript.STATISTICS ) {
+			CacheStatistics.incrementHDFSHits();
+			CacheStatistics.incrementHDFSRangeReads();
+		}
+		
+		MetaDataFormat iimd = (MetaDataFormat) _metaData;
+		MatrixCharacteristics mc = iimd.getMatrixCharacteristics();
+		ReadProperties prop = new ReadProperties();
+		prop.path = _hdfsFileName;
+		prop.inputInfo = iimd.getInputInfo();
+		prop.rlen = mc.getRows();
+		prop.clen = mc.getCols();
+		prop.brlen = mc.getRowsPerBlock();
+		prop.bclen = mc.getColsPerBlock();
+		prop.expectedNnz = mc.getNonZeros();
+		prop.formatProperties = getFileFormatProperties();
+		prop.indexRange = ixrange;
+		
+		try {
+			return DataConverter.readMatrixFromHDFS(prop);
+		}
+		catch(IOException ex) {
+			throw new DMLRuntimeException("Reading of range "+ixrange.add(1)+" of "+_hdfsFileName+" failed.", ex);
+		}
+	}
+
 	@Override
 	protected MatrixBlock readBlobFromRDD(RDDObject rdd, MutableBoolean writeStatus) 
 		throws IOException
@@ -514,7 +575,7 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 	 * Writes in-memory matrix to HDFS in a specified format.
 	 */
 	@Override
-	protected void writeBlobToHDFS(String fname, String ofmt, int rep, FileFormatProperties fprop)
+	protected void writeBlobToHDFS(MatrixBlock data, String fname, String ofmt, int rep, FileFormatProperties fprop)
 		throws IOException, DMLRuntimeException
 	{
 		long begin = 0;
@@ -526,7 +587,7 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 		
 		MetaDataFormat iimd = (MetaDataFormat) _metaData;
 
-		if (_data != null)
+		if (data != null)
 		{
 			// Get the dimension information from the metadata stored within MatrixObject
 			MatrixCharacteristics mc = iimd.getMatrixCharacteristics ();
@@ -539,18 +600,18 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 			if ( oinfo == OutputInfo.BinaryBlockOutputInfo && DMLScript.getGlobalExecMode() == ExecMode.SINGLE_NODE &&
 				(mc.getRowsPerBlock() != ConfigurationManager.getBlocksize() || mc.getColsPerBlock() != ConfigurationManager.getBlocksize()) ) 
 			{
-				DataConverter.writeMatrixToHDFS(_data, fname, oinfo, new MatrixCharacteristics(mc.getRows(), mc.getCols(),
+				DataConverter.writeMatrixToHDFS(data, fname, oinfo, new MatrixCharacteristics(mc.getRows(), mc.getCols(),
 					ConfigurationManager.getBlocksize(), ConfigurationManager.getBlocksize(), mc.getNonZeros()), rep, fprop, _diag);
 			}
 			else {
-				DataConverter.writeMatrixToHDFS(_data, fname, oinfo, mc, rep, fprop, _diag);
+				DataConverter.writeMatrixToHDFS(data, fname, oinfo, mc, rep, fprop, _diag);
 			}
 
 			if( LOG.isTraceEnabled() )
 				LOG.trace("Writing matrix to HDFS ("+fname+") - COMPLETED... " + (System.currentTimeMillis()-begin) + " msec.");
 		}
 		else if( LOG.isTraceEnabled() ) {
-			LOG.trace ("Writing matrix to HDFS ("+fname+") - NOTHING TO WRITE (_data == null).");
+			LOG.trace ("Writing matrix to HDFS ("+fname+") - NOTHING TO WRITE (data == null).");
 		}
 		
 		if( DMLScript.STATISTICS )
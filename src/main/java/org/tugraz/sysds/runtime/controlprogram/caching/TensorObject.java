@@ -112,7 +112,7 @@ public class TensorObject extends CacheableData<TensorBlock>
 	}
 
 	@Override
-	protected void writeBlobToHDFS(String fname, String ofmt, int rep, FileFormatProperties fprop) 
+	protected void writeBlobToHDFS(TensorBlock data, String fname, String ofmt, int rep, FileFormatProperties fprop) 
 		throws IOException, DMLRuntimeException 
 	{
 		//TODO write
@@ -38,6 +38,7 @@ import org.tugraz.sysds.runtime.controlprogram.caching.FrameObject;
 import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject.UpdateType;
 import org.tugraz.sysds.runtime.controlprogram.caching.TensorObject;
+import org.tugraz.sysds.runtime.controlprogram.parfor.ResultRegionTracker;
 import org.tugraz.sysds.runtime.data.TensorBlock;
 import org.tugraz.sysds.runtime.instructions.cp.CPOperand;
 import org.tugraz.sysds.runtime.instructions.cp.Data;
@@ -74,6 +75,9 @@ public class ExecutionContext {
 	protected List<GPUContext> _gpuContexts = new ArrayList<>();
 	protected LineagePath _lineagePath = new LineagePath();
 	
+	//tracking of dirty regions of parfor result variables (local parfor workers only)
+	protected ResultRegionTracker _regionTracker = null;
+	
 	protected ExecutionContext()
 	{
 		//protected constructor to force use of ExecutionContextFactory
@@ -105,6 +109,14 @@ public class ExecutionContext {
 		_prog = prog;
 	}
 	
+	public ResultRegionTracker getResultRegionTracker() {
+		return _regionTracker;
+	}
+	
+	public void setResultRegionTracker(ResultRegionTracker tracker) {
+		_regionTracker = tracker;
+	}
+	
 	public LocalVariableMap getVariables() {
 		return _variables;
 	}
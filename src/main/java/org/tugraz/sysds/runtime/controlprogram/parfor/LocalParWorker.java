@@ -46,6 +46,7 @@ public class LocalParWorker extends ParWorker implements Runnable
 	protected final boolean _stopped;
 	protected final int _max_retry;
 	protected Collection<String> _fnNames = null;
+	protected long _idleTime = 0; //in nano sec
 	
 	public LocalParWorker( long ID, LocalTaskQueue<Task> q, ParForBody body, CompilerConfig cconf, int max_retry, boolean monitor ) {
 		super(ID, body, monitor);
@@ -63,6 +64,16 @@ public class LocalParWorker extends ParWorker implements Runnable
 		return _fnNames;
 	}
 	
+	/**
+	 * Returns the time spent waiting for or stealing tasks, and
+	 * hence should only be called after execution.
+	 * 
+	 * @return idle time in milli sec
+	 */
+	public long getIdleTime() {
+		return _idleTime / 1000000;
+	}
+	
 	@Override
 	public void run() 
 	{
@@ -98,7 +109,9 @@ public class LocalParWorker extends ParWorker implements Runnable
 			while( !_stopped ) {
 				//dequeue the next task (abort on NO_MORE_TASKS or error)
 				try {
+					long t0 = System.nanoTime();
 					lTask = _taskQueue.dequeueTask();
+					_idleTime += System.nanoTime() - t0;
 					
 					if( lTask == LocalTaskQueue.NO_MORE_TASKS ) // task queue closed (no more tasks)
 						break; //normal end of parallel worker
@@ -148,6 +161,7 @@ public class LocalParWorker extends ParWorker implements Runnable
 			StatisticMonitor.putPWStat(_workerID, Stat.PARWRK_NUMTASKS, _numTasks);
 			StatisticMonitor.putPWStat(_workerID, Stat.PARWRK_NUMITERS, _numIters);
 			StatisticMonitor.putPWStat(_workerID, Stat.PARWRK_EXEC_T, time1.stop());
+			StatisticMonitor.putPWStat(_workerID, Stat.PARWRK_IDLE_T, (double)_idleTime / 1000000);
 		}
 	}
 }
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.controlprogram.parfor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.controlprogram.parfor.Task.TaskType;
+import org.tugraz.sysds.runtime.instructions.cp.IntObject;
+
+/**
+ * Lock-free task queue for local parfor with work stealing. Instead of a shared
+ * FIFO of pre-created tasks, the iteration space is split into one contiguous
+ * range of iterations per worker. Workers take adaptively sized chunks (a fraction
+ * of their remaining range, but at least the min task size) from the front of
+ * their own range, and idle workers steal the upper half of the remaining range of
+ * another worker. All range updates are atomic compare-and-swap operations on
+ * immutable ranges, which avoids the monitor contention of LocalTaskQueue for many
+ * tiny iterations and the tail imbalance of statically pre-chunked tasks.
+ *
+ * Worker threads are bound to their own range on their first dequeue, which blocks
+ * until the ranges are initialized (workers are usually started before the task
+ * partitioner runs). The queue returns NO_MORE_TASKS once a worker finds neither
+ * local nor stealable work.
+ */
+public class LocalTaskQueueWorkStealing extends LocalTaskQueue<Task>
+{
+	//fraction of the remaining local range taken as next task
+	private static final int CHUNK_FRACTION = 8;
+
+	private final AtomicReference<Range>[] _ranges;
+	private final AtomicInteger _numWorkers = new AtomicInteger(0);
+	private final ThreadLocal<Integer> _worker =
+		ThreadLocal.withInitial(() -> _numWorkers.getAndIncrement() % size());
+	private final AtomicLong _numTasks = new AtomicLong(0);
+	private final AtomicLong _numSteals = new AtomicLong(0);
+	private final CountDownLatch _initialized = new CountDownLatch(1);
+
+	private String _iterVar = null;
+	private long _from = -1;
+	private long _incr = -1;
+	private long _minChunk = 1;
+
+	@SuppressWarnings("unchecked")
+	public LocalTaskQueueWorkStealing(int numWorkers) {
+		_ranges = new AtomicReference[numWorkers];
+		for( int i=0; i<numWorkers; i++ )
+			_ranges[i] = new AtomicReference<>(new Range(0, 0));
+	}
+
+	/**
+	 * Initializes the per-worker ranges by evenly splitting the iteration
+	 * space (from, to, incr) of the given number of iterations and closes
+	 * the input of the queue.
+	 *
+	 * @param iterVar name of the index variable
+	 * @param from first index value
+	 * @param incr positive increment
+	 * @param numIter number of iterations
+	 * @param minChunk minimum number of iterations per task
+	 */
+	public void initRanges(String iterVar, long from, long incr, long numIter, long minChunk) {
+		_iterVar = iterVar;
+		_from = from;
+		_incr = incr;
+		_minChunk = Math.max(minChunk, 1);
+		int P = size();
+		long lo = 0;
+		for( int i=0; i<P; i++ ) {
+			long len = numIter / P + ((i < numIter % P) ? 1 : 0);
+			_ranges[i].set(new Range(lo, lo+len));
+			lo += len;
+		}
+		closeInput();
+	}
+
+	public int size() {
+		return _ranges.length;
+	}
+
+	public long getNumCreatedTasks() {
+		return _numTasks.get();
+	}
+
+	public long getNumSteals() {
+		return _numSteals.get();
+	}
+
+	@Override
+	public void enqueueTask(Task t) {
+		throw new DMLRuntimeException("Work-stealing task queue does not support explicit enqueue of tasks.");
+	}
+
+	@Override
+	public void closeInput() {
+		super.closeInput();
+		//publish ranges to waiting workers
+		_initialized.countDown();
+	}
+
+	@Override
+	public Task dequeueTask() 
+		throws InterruptedException
+	{
+		_initialized.await();
+		int w = _worker.get();
+		Task t = takeLocal(w);
+		while( t == null && steal(w) )
+			t = takeLocal(w);
+		return t; //NO_MORE_TASKS if null
+	}
+
+	private Task takeLocal(int w) {
+		AtomicReference<Range> local = _ranges[w];
+		while( true ) {
+			Range r = local.get();
+			long rem = r.size();
+			if( rem <= 0 )
+				return null;
+			long len = Math.min(rem, Math.max(_minChunk,
+				(rem + CHUNK_FRACTION - 1) / CHUNK_FRACTION));
+			if( local.compareAndSet(r, new Range(r._lo + len, r._hi)) )
+				return createTask(r._lo, r._lo + len);
+		}
+	}
+
+	private boolean steal(int w) {
+		int P = size();
+		for( int j=1; j<P; j++ ) {
+			AtomicReference<Range> victim = _ranges[(w + j) % P];
+			while( true ) {
+				Range r = victim.get();
+				long rem = r.size();
+				if( rem <= 0 )
+					break;
+				//steal upper half (or the last remaining iteration)
+				long mid = r._lo + rem / 2;
+				if( victim.compareAndSet(r, new Range(r._lo, mid)) ) {
+					_ranges[w].set(new Range(mid, r._hi));
+					_numSteals.incrementAndGet();
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private Task createTask(long lo, long hi) {
+		_numTasks.incrementAndGet();
+		Task t = new Task(_iterVar, TaskType.RANGE);
+		t.addIteration(new IntObject(_from + lo * _incr));
+		t.addIteration(new IntObject(_from + (hi - 1) * _incr));
+		t.addIteration(new IntObject(_incr));
+		return t;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("WORK-STEALING TASK QUEUE (size=");
+		sb.append(size());
+		sb.append(",tasks=");
+		sb.append(_numTasks.get());
+		sb.append(",steals=");
+		sb.append(_numSteals.get());
+		sb.append(")\n");
+		for( int i=0; i<size(); i++ ) {
+			Range r = _ranges[i].get();
+			sb.append("  WORKER #");
+			sb.append(i);
+			sb.append(": [");
+			sb.append(r._lo);
+			sb.append(",");
+			sb.append(r._hi);
+			sb.append(")\n");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Immutable range [lo, hi) of iteration positions.
+	 */
+	private static class Range {
+		private final long _lo;
+		private final long _hi;
+
+		public Range(long lo, long hi) {
+			_lo = lo;
+			_hi = hi;
+		}
+
+		public long size() {
+			return _hi - _lo;
+		}
+	}
+}
@@ -29,6 +29,7 @@ import org.tugraz.sysds.runtime.data.DenseBlock;
 import org.tugraz.sysds.runtime.instructions.InstructionUtils;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
+import org.tugraz.sysds.runtime.util.IndexRange;
 
 /**
  * Due to independence of all iterations, any result has the following properties:
@@ -52,6 +53,9 @@ public abstract class ResultMerge implements Serializable
 	protected String         _outputFName = null;
 	protected boolean        _isAccum     = false;
 	
+	//dirty regions per input (if known from local parfor workers)
+	protected List<List<IndexRange>> _dirtyRegions = null;
+	
 	protected ResultMerge( ) {
 		//do nothing
 	}
@@ -63,6 +67,30 @@ public abstract class ResultMerge implements Serializable
 		_isAccum = accum;
 	}
 	
+	/**
+	 * Sets the dirty regions per input, i.e., the regions written by left indexing
+	 * in the parfor worker that produced the input (null if unknown).
+	 * 
+	 * @param regions list of dirty regions per input, aligned with the inputs
+	 */
+	public void setDirtyRegions(List<List<IndexRange>> regions) {
+		_dirtyRegions = regions;
+	}
+	
+	/**
+	 * Indicates if the dirty regions of all non-empty inputs are known.
+	 * 
+	 * @return true if dirty regions of all inputs known
+	 */
+	public boolean hasDirtyRegions() {
+		if( _dirtyRegions == null || _dirtyRegions.size() != _inputs.length )
+			return false;
+		for( int i=0; i<_inputs.length; i++ )
+			if( _inputs[i] != null && _inputs[i] != _output && _dirtyRegions.get(i) == null )
+				return false;
+		return true;
+	}
+	
 	/**
 	 * Merge all given input matrices sequentially into the given output matrix.
 	 * The required space in-memory is the size of the output matrix plus the size
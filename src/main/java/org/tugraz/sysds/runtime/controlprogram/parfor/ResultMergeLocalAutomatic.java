@@ -48,6 +48,7 @@ public class ResultMergeLocalAutomatic extends ResultMerge
 			_rm = new ResultMergeLocalMemory( _output, _inputs, _outputFName, _isAccum );
 		else
 			_rm = new ResultMergeLocalFile( _output, _inputs, _outputFName, _isAccum );
+		_rm.setDirtyRegions(_dirtyRegions);
 		
 		MatrixObject ret = _rm.executeSerialMerge();
 
@@ -66,6 +67,7 @@ public class ResultMergeLocalAutomatic extends ResultMerge
 			_rm = new ResultMergeLocalMemory( _output, _inputs, _outputFName, _isAccum );
 		else
 			_rm = new ResultMergeLocalFile( _output, _inputs, _outputFName, _isAccum );
+		_rm.setDirtyRegions(_dirtyRegions);
 		
 		return _rm.executeParallelMerge(par);
 	}
@@ -20,18 +20,29 @@
 package org.tugraz.sysds.runtime.controlprogram.parfor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import org.tugraz.sysds.api.DMLScript;
 import org.tugraz.sysds.common.Types.ValueType;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
 import org.tugraz.sysds.runtime.data.DenseBlock;
+import org.tugraz.sysds.runtime.data.SparseBlock;
 import org.tugraz.sysds.runtime.matrix.data.InputInfo;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
 import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
 import org.tugraz.sysds.runtime.meta.MetaDataFormat;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
 import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.runtime.util.IndexRange;
+import org.tugraz.sysds.runtime.util.UtilFunctions;
+import org.tugraz.sysds.utils.Statistics;
 
 /**
  * Local in-memory realization of result merge. If the resulting matrix is
@@ -54,6 +65,10 @@ public class ResultMergeLocalMemory extends ResultMerge
 	@Override
 	public MatrixObject executeSerialMerge() 
 	{
+		//merge of dirty regions if known for all inputs
+		if( hasDirtyRegions() )
+			return executeDirtyRegionMerge(1);
+		
 		MatrixObject moNew = null; //always create new matrix object (required for nested parallelism)
 		
 		if( LOG.isTraceEnabled() )
@@ -142,6 +157,10 @@ public class ResultMergeLocalMemory extends ResultMerge
 	@Override
 	public MatrixObject executeParallelMerge( int par ) 
 	{
+		//merge of dirty regions if known for all inputs
+		if( hasDirtyRegions() )
+			return executeDirtyRegionMerge(par);
+		
 		MatrixObject moNew = null; //always create new matrix object (required for nested parallelism)
 		
 		if( LOG.isTraceEnabled() )
@@ -216,6 +235,186 @@ public class ResultMergeLocalMemory extends ResultMerge
 		return moNew;
 	}
 
+	/**
+	 * Merges only the dirty regions of all inputs, i.e., the regions written by
+	 * left indexing in the parfor workers. In contrast to the merge with compare,
+	 * this requires no dense copy of the original output, keeps the sparse or dense
+	 * representation of the output, and compares only cells of dirty regions.
+	 * The merge is done in parallel over disjoint row partitions of the output,
+	 * which avoids concurrent updates of the same rows by different inputs.
+	 * 
+	 * @param par degree of parallelism
+	 * @return output (merged) matrix
+	 */
+	private MatrixObject executeDirtyRegionMerge( int par ) 
+	{
+		if( LOG.isTraceEnabled() )
+			LOG.trace("ResultMerge (local, in-memory): Execute dirty region merge (par="+par+") "
+				+ "for output "+_output.hashCode()+" (fname="+_output.getFileName()+")");
+		if( DMLScript.STATISTICS )
+			Statistics.incrementParForDirtyRegionMerges();
+		
+		MatrixObject moNew = null;
+		try
+		{
+			//collect inputs with non-empty dirty regions
+			MatrixBlock outMB = _output.acquireRead();
+			ArrayList<MatrixObject> inMO = new ArrayList<>();
+			ArrayList<List<IndexRange>> inRegions = new ArrayList<>();
+			for( int i=0; i<_inputs.length; i++ ) {
+				if( _inputs[i] != null && _inputs[i] != _output && !_dirtyRegions.get(i).isEmpty() ) {
+					inMO.add(_inputs[i]);
+					inRegions.add(_dirtyRegions.get(i));
+				}
+			}
+			
+			if( !inMO.isEmpty() ) //if there exist something to merge
+			{
+				//create output in the representation of the original output
+				//or the estimated number of non-zeros (if original output empty)
+				MatrixBlock outMBNew = null;
+				if( !outMB.isEmptyBlock(false) ) {
+					outMBNew = new MatrixBlock();
+					outMBNew.copy(outMB);
+				}
+				else {
+					outMBNew = new MatrixBlock(outMB.getNumRows(), 
+						outMB.getNumColumns(), getOutputNnzEstimate()).allocateBlock();
+				}
+				
+				//pin all inputs
+				MatrixBlock[] inMB = new MatrixBlock[inMO.size()];
+				for( int i=0; i<inMO.size(); i++ )
+					inMB[i] = inMO.get(i).acquireRead();
+				
+				//merge dirty regions per row partition (serial/parallel)
+				int rlen = outMBNew.getNumRows();
+				int k = outMBNew.isThreadSafe() ? Math.min(par, 
+					InfrastructureAnalyzer.getLocalParallelism()) : 1;
+				long nnz = outMBNew.getNonZeros();
+				if( k <= 1 ) {
+					nnz += mergeDirtyRegions(outMBNew, outMB, inMB, inRegions, 0, rlen);
+				}
+				else {
+					ExecutorService pool = CommonThreadPool.get(k);
+					ArrayList<Callable<Long>> tasks = new ArrayList<>();
+					ArrayList<Integer> blklens = UtilFunctions.getBalancedBlockSizesDefault(rlen, k, false);
+					final MatrixBlock out = outMBNew;
+					for( int i=0, lb=0; i<blklens.size(); lb+=blklens.get(i), i++ ) {
+						final int rl = lb, ru = lb + blklens.get(i);
+						tasks.add(() -> mergeDirtyRegions(out, outMB, inMB, inRegions, rl, ru));
+					}
+					for( Future<Long> task : pool.invokeAll(tasks) )
+						nnz += task.get();
+					pool.shutdown();
+				}
+				outMBNew.setNonZeros(nnz);
+				
+				//unpin and clear in-memory inputs
+				for( MatrixObject in : inMO ) {
+					in.release();
+					in.clearData();
+				}
+				
+				moNew = createNewMatrixObject( outMBNew );
+			}
+			else {
+				moNew = _output; //return old matrix, to prevent copy
+			}
+			
+			//release old output
+			_output.release();
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		
+		return moNew;
+	}
+	
+	/**
+	 * Merges all dirty regions of the given inputs that intersect the row
+	 * range [rl, ru) into the output, and returns the change of non-zeros.
+	 * Within the regions, only cells that differ from the original output
+	 * are merged (with the same NaN awareness and accumulation semantics
+	 * as the merge with compare). The regions are processed as row segments,
+	 * which are copied into dense buffers and written back as a whole.
+	 */
+	private long mergeDirtyRegions(MatrixBlock out, MatrixBlock compare, MatrixBlock[] in,
+		List<List<IndexRange>> regions, int rl, int ru)
+	{
+		int maxw = 0;
+		for( List<IndexRange> list : regions )
+			for( IndexRange r : list )
+				maxw = Math.max(maxw, (int)(r.colEnd - r.colStart + 1));
+		double[] bcmp = new double[maxw];
+		double[] bin = new double[maxw];
+		double[] bout = new double[maxw];
+		
+		long lnnz = 0;
+		for( int j=0; j<in.length; j++ ) {
+			for( IndexRange r : regions.get(j) ) {
+				int rl2 = Math.max(rl, (int)r.rowStart);
+				int ru2 = Math.min(ru-1, (int)r.rowEnd);
+				int cl = (int)r.colStart, cu = (int)r.colEnd + 1;
+				for( int i=rl2; i<=ru2; i++ ) {
+					getRowSegment(compare, i, cl, cu, bcmp);
+					getRowSegment(in[j], i, cl, cu, bin);
+					getRowSegment(out, i, cl, cu, bout);
+					boolean changed = false;
+					for( int c=0; c<cu-cl; c++ ) {
+						double valOld = bcmp[c];
+						double valNew = bin[c];
+						if( (valNew != valOld && !Double.isNaN(valNew) )      //for changed values 
+							|| Double.isNaN(valNew) != Double.isNaN(valOld) ) //NaN awareness 
+						{
+							double valOut = bout[c];
+							double value = !_isAccum ? valNew : (valOut + (valNew - valOld));
+							lnnz += ((value != 0) ? 1 : 0) - ((valOut != 0) ? 1 : 0);
+							bout[c] = value;
+							changed = true;
+						}
+					}
+					if( changed )
+						setRowSegment(out, i, cl, cu, bout);
+				}
+			}
+		}
+		return lnnz;
+	}
+	
+	private static void getRowSegment(MatrixBlock mb, int i, int cl, int cu, double[] buff) {
+		//note: no nnz-based empty check, as the output nnz are maintained at the end
+		Arrays.fill(buff, 0, cu-cl, 0);
+		if( mb.isInSparseFormat() ) {
+			SparseBlock a = mb.getSparseBlock();
+			if( a == null || a.isEmpty(i) )
+				return;
+			int apos = a.pos(i);
+			int alen = a.size(i);
+			int[] aix = a.indexes(i);
+			double[] avals = a.values(i);
+			int k = (cl == 0) ? 0 : a.posFIndexGTE(i, cl);
+			for( k = (k < 0) ? alen : k; k<alen && aix[apos+k]<cu; k++ )
+				buff[aix[apos+k]-cl] = avals[apos+k];
+		}
+		else if( mb.getDenseBlock() != null ) {
+			DenseBlock a = mb.getDenseBlock();
+			System.arraycopy(a.values(i), a.pos(i, cl), buff, 0, cu-cl);
+		}
+	}
+	
+	private static void setRowSegment(MatrixBlock mb, int i, int cl, int cu, double[] buff) {
+		if( mb.isInSparseFormat() ) {
+			//replaces all existing values in [cl,cu)
+			mb.getSparseBlock().setIndexRange(i, cl, cu, buff, 0, cu-cl);
+		}
+		else {
+			DenseBlock a = mb.getDenseBlock();
+			System.arraycopy(buff, 0, a.values(i), a.pos(i, cl), cu-cl);
+		}
+	}
+
 	private static DenseBlock getCompareMatrix( MatrixBlock output ) {
 		//create compare matrix only if required
 		if( !output.isEmptyBlock(false) )
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.controlprogram.parfor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.tugraz.sysds.parser.ParForStatementBlock.ResultVar;
+import org.tugraz.sysds.runtime.controlprogram.LocalVariableMap;
+import org.tugraz.sysds.runtime.instructions.cp.Data;
+import org.tugraz.sysds.runtime.util.IndexRange;
+
+/**
+ * Tracks the regions of parfor result variables that are written by left indexing
+ * within a local parfor worker, which allows the result merge to compare and merge
+ * only these dirty regions instead of all cells of the worker results.
+ *
+ * A tracked variable refers to the data object it is bound to. Every left indexing
+ * of this object adds its index range and moves the reference to the output object.
+ * Any other assignment of the variable leaves a stale reference, which is detected
+ * by object identity on left indexing or when querying the regions. In this case,
+ * the dirty regions are unknown and the result merge falls back to a full compare.
+ * The regions per variable are kept pairwise disjoint (overlapping regions are
+ * combined into their bounding box), which is required for correct accumulation.
+ */
+public class ResultRegionTracker
+{
+	//max number of regions per variable before collapsing into a bounding box
+	private static final int MAX_REGIONS = 256;
+
+	private final HashMap<String, TrackedVar> _vars = new HashMap<>();
+
+	public ResultRegionTracker(Collection<ResultVar> resultVars, LocalVariableMap vars) {
+		for( ResultVar var : resultVars )
+			_vars.put(var._name, new TrackedVar(vars.get(var._name)));
+	}
+
+	/**
+	 * Tracks a left indexing operation of the given input object into the given
+	 * output object (equal for update in-place).
+	 *
+	 * @param varName name of the left indexing target variable
+	 * @param in input data object
+	 * @param out output data object
+	 * @param ix 0-based, inclusive index range
+	 * @param inplace true if in-place update of the input
+	 */
+	public void trackLeftIndexing(String varName, Data in, Data out, IndexRange ix, boolean inplace) {
+		TrackedVar var = _vars.get(varName);
+		if( var != null ) {
+			if( var._obj == in && !var._unknown ) {
+				var.add(ix);
+				var._obj = out;
+			}
+			else
+				var._unknown = true;
+		}
+		//robustness for in-place updates of tracked objects under different names
+		if( inplace ) {
+			for( Entry<String, TrackedVar> e : _vars.entrySet() )
+				if( e.getValue()._obj == in && !e.getKey().equals(varName) )
+					e.getValue()._unknown = true;
+		}
+	}
+
+	/**
+	 * Returns the dirty regions of the given variable, if the given final
+	 * data object was exclusively created by tracked left indexing.
+	 *
+	 * @param varName variable name
+	 * @param current final data object of this variable
+	 * @return list of disjoint, 0-based inclusive index ranges, or null if unknown
+	 */
+	public List<IndexRange> getDirtyRegions(String varName, Data current) {
+		TrackedVar var = _vars.get(varName);
+		return (var != null && !var._unknown && var._obj == current) ?
+			var._regions : null;
+	}
+
+	private static class TrackedVar {
+		private Data _obj;
+		private boolean _unknown = false;
+		private final ArrayList<IndexRange> _regions = new ArrayList<>();
+
+		public TrackedVar(Data obj) {
+			_obj = obj;
+		}
+
+		public void add(IndexRange ix) {
+			IndexRange r = new IndexRange(ix.rowStart, ix.rowEnd, ix.colStart, ix.colEnd);
+			//extend last region for adjacent rows/cols (e.g., row-wise appends)
+			if( !_regions.isEmpty() ) {
+				IndexRange last = _regions.get(_regions.size()-1);
+				if( last.colStart == r.colStart && last.colEnd == r.colEnd
+					&& last.rowEnd + 1 == r.rowStart && !overlapsAny(r) ) {
+					last.rowEnd = r.rowEnd;
+					return;
+				}
+				if( last.rowStart == r.rowStart && last.rowEnd == r.rowEnd
+					&& last.colEnd + 1 == r.colStart && !overlapsAny(r) ) {
+					last.colEnd = r.colEnd;
+					return;
+				}
+			}
+			//combine overlapping regions into bounding box (until disjoint)
+			boolean changed = true;
+			while( changed ) {
+				changed = false;
+				for( int i=0; i<_regions.size(); i++ ) {
+					IndexRange o = _regions.get(i);
+					if( contains(o, r) )
+						return;
+					if( overlaps(o, r) ) {
+						r.set(Math.min(o.rowStart, r.rowStart), Math.max(o.rowEnd, r.rowEnd),
+							Math.min(o.colStart, r.colStart), Math.max(o.colEnd, r.colEnd));
+						_regions.remove(i);
+						changed = true;
+						break;
+					}
+				}
+			}
+			_regions.add(r);
+			//collapse into single bounding box if too many regions
+			if( _regions.size() > MAX_REGIONS ) {
+				for( IndexRange o : _regions )
+					r.set(Math.min(o.rowStart, r.rowStart), Math.max(o.rowEnd, r.rowEnd),
+						Math.min(o.colStart, r.colStart), Math.max(o.colEnd, r.colEnd));
+				_regions.clear();
+				_regions.add(r);
+			}
+		}
+
+		private boolean overlapsAny(IndexRange r) {
+			for( IndexRange o : _regions )
+				if( overlaps(o, r) )
+					return true;
+			return false;
+		}
+
+		private static boolean overlaps(IndexRange a, IndexRange b) {
+			return a.rowStart <= b.rowEnd && b.rowStart <= a.rowEnd
+				&& a.colStart <= b.colEnd && b.colStart <= a.colEnd;
+		}
+
+		private static boolean contains(IndexRange a, IndexRange b) {
+			return a.rowStart <= b.rowStart && b.rowEnd <= a.rowEnd
+				&& a.colStart <= b.colStart && b.colEnd <= a.colEnd;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.controlprogram.parfor;
+
+import org.tugraz.sysds.runtime.instructions.cp.IntObject;
+
+/**
+ * Work-stealing task partitioner for local parfor. Instead of pre-creating tasks,
+ * it initializes the per-worker iteration ranges of a LocalTaskQueueWorkStealing,
+ * from which tasks are created on demand (with the task size as minimum number of
+ * iterations per task). For all other queues and for full task creation (e.g., in
+ * remote parfor), it falls back to factoring.
+ */
+public class TaskPartitionerWorkStealing extends TaskPartitionerFactoring
+{
+	public TaskPartitionerWorkStealing( long taskSize, int numThreads, String iterVarName, IntObject fromVal, IntObject toVal, IntObject incrVal ) 
+	{
+		super(taskSize, numThreads, iterVarName, fromVal, toVal, incrVal);
+	}
+
+	@Override
+	public long createTasks(LocalTaskQueue<Task> queue) 
+	{
+		if( !(queue instanceof LocalTaskQueueWorkStealing) )
+			return super.createTasks(queue);
+		
+		//init worker ranges, tasks are created on dequeue
+		((LocalTaskQueueWorkStealing)queue).initRanges(_iterVarName,
+			_fromVal.getLongValue(), _incrVal.getLongValue(), _numIter, _taskSize);
+		return 0;
+	}
+}
@@ -39,6 +39,7 @@ public enum Stat
 	PARFOR_EXECMODE,	
 	PARFOR_NUMTASKS,
 	PARFOR_NUMITERS,
+	PARFOR_NUMSTEALS,
 	PARFOR_JITCOMPILE,
 	PARFOR_JVMGC_COUNT,
 	PARFOR_JVMGC_TIME,
@@ -54,7 +55,8 @@ public enum Stat
 	PARWRK_TASKSIZE,
 	PARWRK_ITER_T,
 	PARWRK_TASK_T,
-	PARWRK_EXEC_T;
+	PARWRK_EXEC_T,
+	PARWRK_IDLE_T;
 	
 
 }
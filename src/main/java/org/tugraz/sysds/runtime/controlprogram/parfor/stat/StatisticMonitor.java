@@ -165,6 +165,8 @@ public class StatisticMonitor
 				sb.append("  Exec Mode        = "+PExecMode.values()[(int)(double)stats.get(Stat.PARFOR_EXECMODE).get(i)]+"\n");
 				sb.append("  Num Tasks        = "+(int)(double)stats.get(Stat.PARFOR_NUMTASKS).get(i)+"\n");
 				sb.append("  Num Iterations   = "+(int)(double)stats.get(Stat.PARFOR_NUMITERS).get(i)+"\n");
+				if( stats.containsKey(Stat.PARFOR_NUMSTEALS) )
+					sb.append("  Num Steals       = "+(int)(double)stats.get(Stat.PARFOR_NUMSTEALS).get(i)+"\n");
 				
 				if( stats.containsKey(Stat.OPT_OPTIMIZER) )
 				{
@@ -199,6 +201,8 @@ public class StatisticMonitor
 						sb.append("       Num Tasks = "+ntasks+"\n");
 						sb.append("       Num Iters = "+niters+"\n");
 						sb.append("       Time EXEC = "+stats2.get(Stat.PARWRK_EXEC_T).get(0)+"ms\n");
+						if( stats2.containsKey(Stat.PARWRK_IDLE_T) )
+							sb.append("       Time IDLE = "+stats2.get(Stat.PARWRK_IDLE_T).get(0)+"ms\n");
 						
 						LinkedList<Double> taskexec = stats2.get(Stat.PARWRK_TASK_T);
 						LinkedList<Double> tasksize = stats2.get(Stat.PARWRK_TASKSIZE);
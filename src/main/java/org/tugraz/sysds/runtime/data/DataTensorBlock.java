@@ -16,8 +16,859 @@
 
 package org.tugraz.sysds.runtime.data;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.tugraz.sysds.common.Types.BlockType;
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.io.IOUtilFunctions;
+import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.operators.AggregateOperator;
+import org.tugraz.sysds.runtime.matrix.operators.AggregateUnaryOperator;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
+import org.tugraz.sysds.runtime.util.UtilFunctions;
+
+/**
+ * Tensor block with heterogeneous value types along the second dimension
+ * (columns), e.g., for mixed-schema time-series features. The data is stored
+ * columnar: each column is a homogeneous dense block of its value type with
+ * dimensions [d0, prod(d2,...,dn-1)]. Columns of 2-dimensional tensors can be
+ * exchanged with frame columns without copy (FP64, INT64, STRING), and the
+ * bulk column accessors read whole row ranges of a column into primitive arrays.
+ */
 public class DataTensorBlock extends TensorBlock
 {
+	//min 1M cells for multi-threaded casts
+	private static final long PAR_NUMCELL_THRESHOLD = 1024*1024;
+	//number of rows per block for casts
+	private static final int CAST_BLOCKSIZE = 1024;
+
+	//value types and columnar storage of the second dimension
+	protected ValueType[] _schema = null;
+	protected DenseBlock[] _colBlocks = null;
+
+	public DataTensorBlock(ValueType[] schema, int[] dims) {
+		super();
+		if( dims.length < 2 || schema.length != dims[1] )
+			throw new DMLRuntimeException("Invalid schema of length "+schema.length
+				+" for data tensor of dimensions "+Arrays.toString(dims)+".");
+		for( int i=0; i<dims.length; i++ )
+			if( dims[i] < 0 )
+				throw new DMLRuntimeException("Invalid "+i+"th dimensions: "+dims[i]);
+		_vt = ValueType.UNKNOWN;
+		_dims = dims;
+		_schema = schema.clone();
+		_sparse = false;
+		_nnz = 0;
+	}
+
+	public DataTensorBlock(FrameBlock fb) {
+		this(fb, 0, fb.getNumColumns()-1);
+	}
+
+	/**
+	 * Creates a 2-dimensional data tensor from the given column range of a frame,
+	 * where FP64, INT64, and STRING columns are wrapped without copy and hence
+	 * share updates with the frame.
+	 *
+	 * @param fb frame block
+	 * @param cl column lower index (inclusive)
+	 * @param cu column upper index (inclusive)
+	 */
+	public DataTensorBlock(FrameBlock fb, int cl, int cu) {
+		this(Arrays.copyOfRange(fb.getSchema(), cl, cu+1), new int[]{fb.getNumRows(), cu-cl+1});
+		_colBlocks = new DenseBlock[_schema.length];
+		for( int j=0; j<_schema.length; j++ ) {
+			Object data = fb.getColumnData(cl + j);
+			_colBlocks[j] = (data != null) ? wrapColumn(_schema[j], data, getDim(0)) :
+				DenseBlockFactory.createDenseBlock(_schema[j], new int[]{getDim(0), 1});
+		}
+	}
+
+	////////
+	// Basic meta data and allocation
+
+	public ValueType[] getSchema() {
+		return _schema;
+	}
+
+	public ValueType getValueType(int col) {
+		return _schema[col];
+	}
+
+	/**
+	 * Gets the number of cells per column and row, i.e., the product of dims 2 to n-1.
+	 *
+	 * @return inner length
+	 */
+	public int getInnerLength() {
+		return (int) UtilFunctions.prod(_dims, 2);
+	}
+
+	/**
+	 * Gets the number of cells per column, i.e., the length of bulk column accesses.
+	 *
+	 * @return column length
+	 */
+	public int getColumnLength() {
+		return getDim(0) * getInnerLength();
+	}
+
+	@Override
+	public boolean isAllocated() {
+		return _colBlocks != null;
+	}
+
+	@Override
+	public boolean isEmpty(boolean safe) {
+		return _colBlocks == null;
+	}
+
+	@Override
+	public boolean allocateDenseBlock(boolean clearNNZ) {
+		boolean reset = (_colBlocks == null);
+		if( reset )
+			_colBlocks = new DenseBlock[_schema.length];
+		int[] cdims = new int[]{getDim(0), getInnerLength()};
+		for( int j=0; j<_schema.length; j++ )
+			if( _colBlocks[j] == null ) {
+				_colBlocks[j] = DenseBlockFactory.createDenseBlock(_schema[j], cdims);
+				reset = true;
+			}
+		if( clearNNZ )
+			_nnz = 0;
+		return reset;
+	}
+
+	@Override
+	public boolean allocateSparseBlock(boolean clearNNZ) {
+		//columnar storage is always dense
+		return allocateDenseBlock(clearNNZ);
+	}
+
+	@Override
+	public TensorBlock allocateBlock() {
+		allocateDenseBlock(true);
+		return this;
+	}
+
+	@Override
+	public void reset() {
+		reset(_dims);
+	}
+
+	/**
+	 * Resets the data tensor to the given dimensions, where the size of the
+	 * second dimension is fixed by the schema, and clears allocated columns.
+	 *
+	 * @param dims number and size of dimensions
+	 */
+	@Override
+	public void reset(int[] dims) {
+		if( dims.length < 2 || dims[1] != _schema.length )
+			throw new DMLRuntimeException("Invalid dimensions "+Arrays.toString(dims)
+				+" for data tensor with schema of length "+_schema.length+".");
+		for( int i=0; i<dims.length; i++ )
+			if( dims[i] < 0 )
+				throw new DMLRuntimeException("Invalid "+i+"th dimensions: "+dims[i]);
+		_dims = dims;
+		_nnz = 0;
+		if( _colBlocks != null ) {
+			int[] cdims = new int[]{getDim(0), getInnerLength()};
+			for( DenseBlock a : _colBlocks ) {
+				if( a == null )
+					continue;
+				a.reset(cdims);
+				//clear strings to empty instead of "0.0"
+				if( a instanceof DenseBlockString )
+					Arrays.fill(((DenseBlockString)a).getData(), 0, getColumnLength(), null);
+			}
+		}
+	}
+
+	@Override
+	public void reset(int[] dims, long estnnz) {
+		reset(dims);
+	}
+
+	@Override
+	public void reset(int[] dims, boolean sp) {
+		reset(dims);
+	}
+
+	@Override
+	public void reset(int[] dims, boolean sp, long estnnz) {
+		reset(dims);
+	}
+
+	@Override
+	public long getNonZeros() {
+		//non-zeros are not maintained on updates, hence computed over all columns
+		//(non-empty strings, which are not necessarily numeric, count as non-zeros)
+		long nnz = 0;
+		for( int j=0; _colBlocks != null && j<_colBlocks.length; j++ ) {
+			DenseBlock a = _colBlocks[j];
+			if( a instanceof DenseBlockString ) {
+				String[] avals = ((DenseBlockString)a).getData();
+				for( int i=0; i<getColumnLength(); i++ )
+					nnz += (avals[i] != null && !avals[i].isEmpty()) ? 1 : 0;
+			}
+			else if( a != null )
+				nnz += a.countNonZeros();
+		}
+		_nnz = nnz;
+		return nnz;
+	}
+
+	////////
+	// Cell access (dims 2 to n-1 are linearized within columns)
+
+	@Override
+	public double get(int[] ix) {
+		return _colBlocks[ix[1]].get(ix[0], getInnerIndex(ix));
+	}
+
+	@Override
+	public double get(int r, int c) {
+		int inner = getInnerLength();
+		return _colBlocks[c / inner].get(r, c % inner);
+	}
+
+	@Override
+	public String getString(int[] ix) {
+		return _colBlocks[ix[1]].getString(new int[]{ix[0], getInnerIndex(ix)});
+	}
+
+	@Override
+	public void set(int[] ix, double v) {
+		_colBlocks[ix[1]].set(ix[0], getInnerIndex(ix), v);
+	}
+
+	@Override
+	public void set(int r, int c, double v) {
+		int inner = getInnerLength();
+		_colBlocks[c / inner].set(r, c % inner, v);
+	}
+
+	@Override
+	public void set(int[] ix, String v) {
+		_colBlocks[ix[1]].set(new int[]{ix[0], getInnerIndex(ix)}, v);
+	}
+
+	@Override
+	public void set(double v) {
+		allocateDenseBlock(false);
+		for( DenseBlock a : _colBlocks )
+			a.set(v);
+	}
+
+	@Override
+	public void set(String str) {
+		allocateDenseBlock(false);
+		for( DenseBlock a : _colBlocks )
+			a.set(str);
+	}
+
+	private int getInnerIndex(int[] ix) {
+		int c = 0;
+		for( int i=2; i<ix.length; i++ )
+			c = c * _dims[i] + ix[i];
+		return c;
+	}
+
+	@Override
+	void getRow(int r, int cl, int cu, double[] c, int cpos) {
+		//row access for tensor operations over data tensors
+		int inner = getInnerLength();
+		for( int j=cl; j<cu; j++ ) {
+			DenseBlock a = (_colBlocks != null) ? _colBlocks[j / inner] : null;
+			c[cpos + j - cl] = (a == null) ? 0 :
+				(a instanceof DenseBlockString) ? parseDouble(a.getString(
+					new int[]{r, j % inner})) : a.get(r, j % inner);
+		}
+	}
+
+	////////
+	// Bulk column access
+
+	public DenseBlock getColumnBlock(int col) {
+		return _colBlocks[col];
+	}
+
+	public double[] getColumnFP64(int col) {
+		return readColumnFP64(col, 0, getDim(0), new double[getColumnLength()], 0);
+	}
+
+	public long[] getColumnINT64(int col) {
+		return readColumnINT64(col, 0, getDim(0), new long[getColumnLength()], 0);
+	}
+
+	public boolean[] getColumnBoolean(int col) {
+		return readColumnBoolean(col, 0, getDim(0), new boolean[getColumnLength()], 0);
+	}
+
+	public String[] getColumnString(int col) {
+		return readColumnString(col, 0, getDim(0), new String[getColumnLength()], 0);
+	}
+
+	/**
+	 * Reads a row range of a column as FP64 values, with type-specialized
+	 * bulk copies or casts over the column storage.
+	 *
+	 * @param col column index
+	 * @param rl row lower index
+	 * @param ru row upper index (exclusive)
+	 * @param c output array of length (ru-rl)*innerLength
+	 * @param cpos output array offset
+	 * @return output array
+	 */
+	public double[] readColumnFP64(int col, int rl, int ru, double[] c, int cpos) {
+		DenseBlock a = (_colBlocks != null) ? _colBlocks[col] : null;
+		int inner = getInnerLength();
+		int off = rl * inner;
+		int len = (ru - rl) * inner;
+		if( a == null )
+			Arrays.fill(c, cpos, cpos+len, 0);
+		else if( a instanceof DenseBlockFP64 )
+			System.arraycopy(a.valuesAt(0), off, c, cpos, len);
+		else if( a instanceof DenseBlockFP32 ) {
+			float[] avals = ((DenseBlockFP32)a).getData();
+			for( int i=0; i<len; i++ )
+				c[cpos+i] = avals[off+i];
+		}
+		else if( a instanceof DenseBlockInt64 ) {
+			long[] avals = ((DenseBlockInt64)a).getData();
+			for( int i=0; i<len; i++ )
+				c[cpos+i] = avals[off+i];
+		}
+		else if( a instanceof DenseBlockInt32 ) {
+			int[] avals = ((DenseBlockInt32)a).getData();
+			for( int i=0; i<len; i++ )
+				c[cpos+i] = avals[off+i];
+		}
+		else if( a instanceof DenseBlockBool ) {
+			BitSet avals = ((DenseBlockBool)a).getData();
+			for( int i=0; i<len; i++ )
+				c[cpos+i] = avals.get(off+i) ? 1 : 0;
+		}
+		else if( a instanceof DenseBlockString ) {
+			String[] avals = ((DenseBlockString)a).getData();
+			for( int i=0; i<len; i++ )
+				c[cpos+i] = parseDouble(avals[off+i]);
+		}
+		else { //large dense blocks
+			for( int r=rl, i=cpos; r<ru; r++ )
+				for( int j=0; j<inner; j++, i++ )
+					c[i] = (_schema[col] == ValueType.STRING) ?
+						parseDouble(a.getString(new int[]{r, j})) : a.get(r, j);
+		}
+		return c;
+	}
+
+	public long[] readColumnINT64(int col, int rl, int ru, long[] c, int cpos) {
+		DenseBlock a = (_colBlocks != null) ? _colBlocks[col] : null;
+		int off = rl * getInnerLength();
+		int len = (ru - rl) * getInnerLength();
+		if( a instanceof DenseBlockInt64 )
+			System.arraycopy(((DenseBlockInt64)a).getData(), off, c, cpos, len);
+		else if( a instanceof DenseBlockString ) {
+			String[] avals = ((DenseBlockString)a).getData();
+			for( int i=0; i<len; i++ )
+				c[cpos+i] = (avals[off+i] == null || avals[off+i].isEmpty()) ?
+					0 : UtilFunctions.parseToLong(avals[off+i]);
+		}
+		else {
+			double[] tmp = readColumnFP64(col, rl, ru, new double[len], 0);
+			for( int i=0; i<len; i++ )
+				c[cpos+i] = UtilFunctions.toLong(tmp[i]);
+		}
+		return c;
+	}
+
+	public boolean[] readColumnBoolean(int col, int rl, int ru, boolean[] c, int cpos) {
+		DenseBlock a = (_colBlocks != null) ? _colBlocks[col] : null;
+		int off = rl * getInnerLength();
+		int len = (ru - rl) * getInnerLength();
+		if( a instanceof DenseBlockBool ) {
+			BitSet avals = ((DenseBlockBool)a).getData();
+			for( int i=0; i<len; i++ )
+				c[cpos+i] = avals.get(off+i);
+		}
+		else if( a instanceof DenseBlockString ) {
+			String[] avals = ((DenseBlockString)a).getData();
+			for( int i=0; i<len; i++ )
+				c[cpos+i] = Boolean.parseBoolean(avals[off+i]);
+		}
+		else {
+			double[] tmp = readColumnFP64(col, rl, ru, new double[len], 0);
+			for( int i=0; i<len; i++ )
+				c[cpos+i] = (tmp[i] != 0);
+		}
+		return c;
+	}
+
+	public String[] readColumnString(int col, int rl, int ru, String[] c, int cpos) {
+		DenseBlock a = (_colBlocks != null) ? _colBlocks[col] : null;
+		int off = rl * getInnerLength();
+		int len = (ru - rl) * getInnerLength();
+		if( a instanceof DenseBlockString )
+			System.arraycopy(((DenseBlockString)a).getData(), off, c, cpos, len);
+		else if( a instanceof DenseBlockBool ) {
+			boolean[] tmp = readColumnBoolean(col, rl, ru, new boolean[len], 0);
+			for( int i=0; i<len; i++ )
+				c[cpos+i] = String.valueOf(tmp[i]);
+		}
+		else if( a instanceof DenseBlockInt64 || a instanceof DenseBlockInt32 ) {
+			long[] tmp = readColumnINT64(col, rl, ru, new long[len], 0);
+			for( int i=0; i<len; i++ )
+				c[cpos+i] = String.valueOf(tmp[i]);
+		}
+		else {
+			double[] tmp = readColumnFP64(col, rl, ru, new double[len], 0);
+			for( int i=0; i<len; i++ )
+				c[cpos+i] = String.valueOf(tmp[i]);
+		}
+		return c;
+	}
+
+	/**
+	 * Sets a column by wrapping the given array (FP64, INT64, STRING) without
+	 * copy, or copying it into a boolean dense block, and sets the column value type.
+	 *
+	 * @param col column index
+	 * @param data array of doubles, longs, booleans, or strings
+	 */
+	public void setColumn(int col, Object data) {
+		ValueType vt = (data instanceof double[]) ? ValueType.FP64 :
+			(data instanceof long[]) ? ValueType.INT64 :
+			(data instanceof boolean[]) ? ValueType.BOOLEAN :
+			(data instanceof String[]) ? ValueType.STRING : ValueType.UNKNOWN;
+		if( vt == ValueType.UNKNOWN )
+			throw new DMLRuntimeException("Unsupported column data: "+data.getClass().getSimpleName());
+		if( java.lang.reflect.Array.getLength(data) < getColumnLength() )
+			throw new DMLRuntimeException("Column data too small for column length "+getColumnLength()+".");
+		if( _colBlocks == null )
+			_colBlocks = new DenseBlock[_schema.length];
+		_schema[col] = vt;
+		_colBlocks[col] = wrapColumn(vt, data, getDim(0), getInnerLength());
+	}
+
+	private static DenseBlock wrapColumn(ValueType vt, Object data, int rlen) {
+		return wrapColumn(vt, data, rlen, 1);
+	}
+
+	private static DenseBlock wrapColumn(ValueType vt, Object data, int rlen, int inner) {
+		int[] cdims = new int[]{rlen, inner};
+		switch( vt ) {
+			case FP64:    return DenseBlockFactory.createDenseBlock((double[])data, cdims);
+			case INT64:   return DenseBlockFactory.createDenseBlock((long[])data, cdims);
+			case STRING:  return DenseBlockFactory.createDenseBlock((String[])data, cdims);
+			case BOOLEAN: return new DenseBlockBool(cdims, (boolean[])data);
+			default:
+				throw new DMLRuntimeException("Unsupported column value type: "+vt);
+		}
+	}
+
+	private DenseBlock copyColumn(int col) {
+		switch( _schema[col] ) {
+			case FP64:    return wrapColumn(ValueType.FP64, getColumnFP64(col), getDim(0), getInnerLength());
+			case INT64:   return wrapColumn(ValueType.INT64, getColumnINT64(col), getDim(0), getInnerLength());
+			case BOOLEAN: return wrapColumn(ValueType.BOOLEAN, getColumnBoolean(col), getDim(0), getInnerLength());
+			case STRING:  return wrapColumn(ValueType.STRING, getColumnString(col), getDim(0), getInnerLength());
+			default:
+				DenseBlock ret = DenseBlockFactory.createDenseBlock(_schema[col], new int[]{getDim(0), getInnerLength()});
+				setValues(ret, getColumnFP64(col), getInnerLength());
+				return ret;
+		}
+	}
+
+	private static void setValues(DenseBlock a, double[] vals, int inner) {
+		for( int i=0; i<vals.length; i++ )
+			a.set(i / inner, i % inner, vals[i]);
+	}
+
+	private static double parseDouble(String s) {
+		return (s == null || s.isEmpty()) ? 0 : UtilFunctions.parseToDouble(s);
+	}
+
+	////////
+	// Copy and conversions
+
+	@Override
+	public void copy(TensorBlock that) {
+		if( !(that instanceof DataTensorBlock) )
+			throw new DMLRuntimeException("Data tensors can only be copied from data tensors.");
+		DataTensorBlock dt = (DataTensorBlock) that;
+		_dims = dt._dims.clone();
+		_schema = dt._schema.clone();
+		_colBlocks = null;
+		if( dt.isAllocated() ) {
+			_colBlocks = new DenseBlock[_schema.length];
+			for( int j=0; j<_schema.length; j++ )
+				_colBlocks[j] = dt.copyColumn(j);
+		}
+		_nnz = dt._nnz;
+	}
+
+	@Override
+	public TensorBlock copyShallow(TensorBlock that) {
+		if( !(that instanceof DataTensorBlock) )
+			throw new DMLRuntimeException("Data tensors can only be copied from data tensors.");
+		DataTensorBlock dt = (DataTensorBlock) that;
+		_dims = dt._dims.clone();
+		_schema = dt._schema.clone();
+		_colBlocks = (dt._colBlocks != null) ? dt._colBlocks.clone() : null;
+		_nnz = dt._nnz;
+		return this;
+	}
+
+	/**
+	 * Casts the data tensor to a dense FP64 tensor block of the same dimensions,
+	 * which is the input of aggregate, binary, and reorg operations.
+	 *
+	 * @return FP64 tensor block
+	 */
+	public TensorBlock toBasicTensor() {
+		TensorBlock ret = new TensorBlock(ValueType.FP64, _dims.clone(), false);
+		if( !isAllocated() || getLength() == 0 )
+			return ret;
+		int clen = getRowLength();
+		double[] tmp = new double[clen];
+		long nnz = 0;
+		for( int i=0; i<getDim(0); i++ ) {
+			getRow(i, 0, clen, tmp, 0);
+			nnz += ret.setRow(i, 0, clen, tmp, 0);
+		}
+		ret._nnz = nnz;
+		return ret;
+	}
+
+	public FrameBlock toFrameBlock() {
+		return toFrameBlock(0, getDim(1)-1);
+	}
+
+	/**
+	 * Converts a column range of a 2-dimensional data tensor into a frame,
+	 * where FP64, INT64, and STRING columns are passed without copy (if their
+	 * capacity matches the number of rows), and other columns are converted
+	 * to FP64 (FP32), INT64 (INT32), or BOOLEAN frame columns.
+	 *
+	 * @param cl column lower index (inclusive)
+	 * @param cu column upper index (inclusive)
+	 * @return frame block
+	 */
+	public FrameBlock toFrameBlock(int cl, int cu) {
+		if( getNumDims() != 2 )
+			throw new DMLRuntimeException("Frame conversion requires a 2-dimensional data tensor: "+Arrays.toString(_dims));
+		int rlen = getDim(0);
+		FrameBlock ret = new FrameBlock();
+		for( int j=cl; j<=cu; j++ ) {
+			DenseBlock a = (_colBlocks != null) ? _colBlocks[j] : null;
+			switch( _schema[j] ) {
+				case FP64:
+				case FP32:
+					ret.appendColumn((a instanceof DenseBlockFP64 && a.valuesAt(0).length == rlen) ?
+						a.valuesAt(0) : getColumnFP64(j));
+					break;
+				case INT64:
+				case INT32:
+					ret.appendColumn((a instanceof DenseBlockInt64 && ((DenseBlockInt64)a).getData().length == rlen) ?
+						((DenseBlockInt64)a).getData() : getColumnINT64(j));
+					break;
+				case BOOLEAN:
+					ret.appendColumn(getColumnBoolean(j));
+					break;
+				case STRING:
+					ret.appendColumn((a instanceof DenseBlockString && ((DenseBlockString)a).getData().length == rlen) ?
+						((DenseBlockString)a).getData() : getColumnString(j));
+					break;
+				default:
+					throw new DMLRuntimeException("Unsupported column value type: "+_schema[j]);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Casts the data tensor to a FP64 matrix of dimensions d0 x prod(d1,...,dn-1)
+	 * in the linearized row layout of tensors, multi-threaded over row ranges.
+	 * String values are parsed, where null or empty strings are cast to 0.
+	 *
+	 * @param k degree of parallelism
+	 * @return matrix block
+	 */
+	public MatrixBlock toMatrixBlock(int k) {
+		int rlen = getDim(0);
+		int clen = getRowLength();
+		MatrixBlock ret = new MatrixBlock(rlen, clen, false);
+		if( !isAllocated() || getLength() == 0 )
+			return ret;
+		ret.allocateDenseBlock();
+
+		long nnz = 0;
+		if( k <= 1 || rlen <= 1 || getLength() < PAR_NUMCELL_THRESHOLD )
+			nnz = castToMatrix(ret, 0, rlen);
+		else {
+			try {
+				ExecutorService pool = CommonThreadPool.get(k);
+				ArrayList<CastTask> tasks = new ArrayList<>();
+				ArrayList<Integer> blklens = UtilFunctions.getBalancedBlockSizesDefault(rlen, k, false);
+				for( int i=0, lb=0; i<blklens.size(); lb+=blklens.get(i), i++ )
+					tasks.add(new CastTask(this, ret, lb, lb+blklens.get(i)));
+				for( Future<Long> task : pool.invokeAll(tasks) )
+					nnz += task.get();
+				pool.shutdown();
+			}
+			catch(Exception ex) {
+				throw new DMLRuntimeException(ex);
+			}
+		}
+		ret.setNonZeros(nnz);
+		ret.examSparsity();
+		return ret;
+	}
+
+	private long castToMatrix(MatrixBlock ret, int rl, int ru) {
+		DenseBlock c = ret.getDenseBlock();
+		int ncol = getDim(1);
+		int inner = getInnerLength();
+		int clen = ncol * inner;
+		int blen = Math.min(ru - rl, CAST_BLOCKSIZE);
+		double[] tmp = new double[blen * inner];
+		double[] rows = new double[blen * clen];
+		long nnz = 0;
+		//column-wise bulk reads per row block, row-wise writes
+		for( int bi=rl; bi<ru; bi+=blen ) {
+			int bu = Math.min(bi + blen, ru);
+			for( int j=0; j<ncol; j++ ) {
+				readColumnFP64(j, bi, bu, tmp, 0);
+				for( int i=0; i<bu-bi; i++ )
+					System.arraycopy(tmp, i*inner, rows, i*clen + j*inner, inner);
+			}
+			for( int i=0; i<bu-bi; i++ ) {
+				c.setRow(bi+i, 0, clen, rows, i*clen);
+				nnz += UtilFunctions.computeNnz(rows, i*clen, clen);
+			}
+		}
+		return nnz;
+	}
+
+	////////
+	// Operations (over FP64 casts of the columnar layout)
+
+	@Override
+	public TensorBlock aggregateUnaryOperations(AggregateUnaryOperator op, TensorBlock result) {
+		return toBasicTensor().aggregateUnaryOperations(op, result);
+	}
+
+	@Override
+	public TensorBlock aggregateUnaryOperations(AggregateUnaryOperator op, int axis, TensorBlock result) {
+		return toBasicTensor().aggregateUnaryOperations(op, axis, result);
+	}
+
+	@Override
+	public TensorBlock binaryOperations(BinaryOperator op, TensorBlock that, TensorBlock result) {
+		return toBasicTensor().binaryOperations(op,
+			(that instanceof DataTensorBlock) ? ((DataTensorBlock)that).toBasicTensor() : that, result);
+	}
+
+	@Override
+	public TensorBlock permute(int[] perm, TensorBlock result, int k) {
+		return toBasicTensor().permute(perm, result, k);
+	}
+
+	@Override
+	public TensorBlock transpose(TensorBlock result, int k) {
+		return toBasicTensor().transpose(result, k);
+	}
+
+	@Override
+	public TensorBlock slice(int[] lower, int[] upper, TensorBlock result, int k) {
+		return toBasicTensor().slice(lower, upper, result, k);
+	}
+
+	@Override
+	public void incrementalAggregate(AggregateOperator aggOp, TensorBlock newWithCorrection) {
+		throw new DMLRuntimeException("Incremental aggregation into data tensors not supported.");
+	}
+
+	////////
+	// Input/Output functions
+
+	@Override
+	public void readFields(DataInput in) throws IOException {
+		//step 1: read header and schema
+		_vt = ValueType.values()[in.readByte()];
+		_dims = new int[in.readInt()];
+		for( int i=0; i<_dims.length; i++ )
+			_dims[i] = in.readInt();
+		_nnz = in.readLong();
+		_schema = new ValueType[_dims[1]];
+		for( int j=0; j<_schema.length; j++ )
+			_schema[j] = ValueType.values()[in.readByte()];
+
+		//step 2: read column data
+		_colBlocks = null;
+		if( BlockType.values()[in.readByte()] == BlockType.EMPTY_BLOCK )
+			return;
+		_colBlocks = new DenseBlock[_schema.length];
+		int rlen = getDim(0);
+		int inner = getInnerLength();
+		int len = getColumnLength();
+		for( int j=0; j<_schema.length; j++ ) {
+			switch( _schema[j] ) {
+				case FP64: {
+					double[] c = new double[len];
+					for( int i=0; i<len; i++ )
+						c[i] = in.readDouble();
+					_colBlocks[j] = wrapColumn(ValueType.FP64, c, rlen, inner);
+					break;
+				}
+				case INT64: {
+					long[] c = new long[len];
+					for( int i=0; i<len; i++ )
+						c[i] = in.readLong();
+					_colBlocks[j] = wrapColumn(ValueType.INT64, c, rlen, inner);
+					break;
+				}
+				case BOOLEAN: {
+					boolean[] c = new boolean[len];
+					for( int i=0; i<len; i++ )
+						c[i] = in.readBoolean();
+					_colBlocks[j] = wrapColumn(ValueType.BOOLEAN, c, rlen, inner);
+					break;
+				}
+				case STRING: {
+					String[] c = new String[len];
+					for( int i=0; i<len; i++ ) {
+						String tmp = in.readUTF();
+						c[i] = (!tmp.isEmpty()) ? tmp : null;
+					}
+					_colBlocks[j] = wrapColumn(ValueType.STRING, c, rlen, inner);
+					break;
+				}
+				case FP32:
+				case INT32: {
+					double[] c = new double[len];
+					for( int i=0; i<len; i++ )
+						c[i] = (_schema[j] == ValueType.FP32) ? in.readFloat() : in.readInt();
+					_colBlocks[j] = DenseBlockFactory.createDenseBlock(_schema[j], new int[]{rlen, inner});
+					setValues(_colBlocks[j], c, inner);
+					break;
+				}
+				default:
+					throw new DMLRuntimeException("Unsupported column value type: "+_schema[j]);
+			}
+		}
+	}
+
+	@Override
+	public void write(DataOutput out) throws IOException {
+		//step 1: write header and schema
+		out.writeByte(_vt.ordinal()); // value type
+		out.writeInt(getNumDims()); // num dims
+		for( int i=0; i<getNumDims(); i++ )
+			out.writeInt(getDim(i)); // dim
+		out.writeLong(getNonZeros()); // nnz
+		for( ValueType vt : _schema )
+			out.writeByte(vt.ordinal()); // column value types
+
+		//step 2: write column data (type-specific, without conversion)
+		if( !isAllocated() ) {
+			out.writeByte(BlockType.EMPTY_BLOCK.ordinal());
+			return;
+		}
+		out.writeByte(BlockType.DENSE_BLOCK.ordinal());
+		for( int j=0; j<_schema.length; j++ ) {
+			switch( _schema[j] ) {
+				case FP64:
+					for( double v : getColumnFP64(j) )
+						out.writeDouble(v);
+					break;
+				case FP32:
+					for( double v : getColumnFP64(j) )
+						out.writeFloat((float)v);
+					break;
+				case INT64:
+					for( long v : getColumnINT64(j) )
+						out.writeLong(v);
+					break;
+				case INT32:
+					for( long v : getColumnINT64(j) )
+						out.writeInt((int)v);
+					break;
+				case BOOLEAN:
+					for( boolean v : getColumnBoolean(j) )
+						out.writeBoolean(v);
+					break;
+				case STRING:
+					for( String v : getColumnString(j) )
+						out.writeUTF((v!=null) ? v : "");
+					break;
+				default:
+					throw new DMLRuntimeException("Unsupported column value type: "+_schema[j]);
+			}
+		}
+	}
+
+	@Override
+	public long getExactSerializedSize() {
+		//header size (vt, num dims, dims, nnz, schema, type)
+		long size = 1 + 4 * (1+_dims.length) + 8 + _schema.length + 1;
+		if( !isAllocated() )
+			return size;
+		long len = getColumnLength();
+		for( int j=0; j<_schema.length; j++ ) {
+			switch( _schema[j] ) {
+				case FP64:
+				case INT64:   size += 8 * len; break;
+				case FP32:
+				case INT32:   size += 4 * len; break;
+				case BOOLEAN: size += len; break;
+				case STRING:
+					for( String v : getColumnString(j) )
+						size += IOUtilFunctions.getUTFSize(v);
+					break;
+				default:
+					throw new DMLRuntimeException("Unsupported column value type: "+_schema[j]);
+			}
+		}
+		return size;
+	}
+
+	@Override
+	public boolean isShallowSerialize(boolean inclConvert) {
+		//columnar blocks of heterogeneous types require deep serialization
+		return false;
+	}
+
+	private static class CastTask implements Callable<Long>
+	{
+		private final DataTensorBlock _in;
+		private final MatrixBlock _ret;
+		private final int _rl;
+		private final int _ru;
+
+		protected CastTask(DataTensorBlock in, MatrixBlock ret, int rl, int ru) {
+			_in = in;
+			_ret = ret;
+			_rl = rl;
+			_ru = ru;
+		}
 
-	//TODO handle of schema via multiple dense or sparse blocks of homogeneous types and col mapping
+		@Override
+		public Long call() {
+			return _in.castToMatrix(_ret, _rl, _ru);
+		}
+	}
 }
@@ -549,6 +549,69 @@ public abstract class DenseBlock implements Serializable
 	 */
 	public abstract String getString(int[] ix);
 
+	/**
+	 * Copy the values of the given row and column range into
+	 * the given array.
+	 * 
+	 * @param r row index
+	 * @param cl column lower index
+	 * @param cu column upper index (exclusive)
+	 * @param c output array
+	 * @param cpos output array offset
+	 */
+	public void getRow(int r, int cl, int cu, double[] c, int cpos) {
+		System.arraycopy(values(r), pos(r)+cl, c, cpos, cu-cl);
+	}
+	
+	/**
+	 * Copy the values of the given array into the given
+	 * row and column range.
+	 * 
+	 * @param r row index
+	 * @param cl column lower index
+	 * @param cu column upper index (exclusive)
+	 * @param a input array
+	 * @param apos input array offset
+	 * @return self
+	 */
+	public DenseBlock setRow(int r, int cl, int cu, double[] a, int apos) {
+		System.arraycopy(a, apos, values(r), pos(r)+cl, cu-cl);
+		return this;
+	}
+	
+	/**
+	 * Indicates if the values of this dense block are stored outside
+	 * the JVM heap, in which case kernels should access the block via
+	 * getRow/setRow, while values/valuesAt convert it to heap arrays.
+	 * 
+	 * @return true if stored off-heap
+	 */
+	public boolean isOffHeap() {
+		return false;
+	}
+	
+	/**
+	 * Claims ownership of this dense block for the explicit release
+	 * of memory outside the JVM heap. Blocks claimed by multiple 
+	 * owners are considered shared and never explicitly released.
+	 * 
+	 * @param owner owner object
+	 */
+	public void claim(Object owner) {
+		//do nothing
+	}
+	
+	/**
+	 * Releases the memory held outside the JVM heap if this block is
+	 * exclusively owned by the given owner. The block must not be used
+	 * afterwards.
+	 * 
+	 * @param owner owner object
+	 */
+	public void release(Object owner) {
+		//do nothing
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
@@ -31,6 +31,9 @@ import java.util.BitSet;
 
 public abstract class DenseBlockFactory
 {
+	//min size in bytes of FP64 dense blocks allocated off-heap (-1 disabled)
+	public static long OFFHEAP_THRESHOLD = -1;
+	
 	public static DenseBlock createDenseBlock(int rlen, int clen) {
 		return createDenseBlock(new int[]{rlen, clen});
 	}
@@ -40,6 +43,8 @@ public abstract class DenseBlockFactory
 	}
 	
 	public static DenseBlock createDenseBlock(ValueType vt, int[] dims) {
+		if( vt == ValueType.FP64 && isOffHeapAllocation(UtilFunctions.prod(dims)) )
+			return new DenseBlockOffHeap(dims);
 		DenseBlock.Type type = (UtilFunctions.prod(dims) < Integer.MAX_VALUE) ?
 			DenseBlock.Type.DRB : DenseBlock.Type.LDRB;
 		return createDenseBlock(vt, type, dims);
@@ -106,6 +111,18 @@ public abstract class DenseBlockFactory
 		}
 	}
 
+	/**
+	 * Indicates if a FP64 dense block of the given number of cells
+	 * would be allocated outside the JVM heap.
+	 * 
+	 * @param cells number of cells
+	 * @return true if allocated off-heap
+	 */
+	public static boolean isOffHeapAllocation(long cells) {
+		return OFFHEAP_THRESHOLD >= 0 && 8 * cells >= OFFHEAP_THRESHOLD
+			&& cells > 0 && DenseBlockOffHeap.isSupported();
+	}
+
 	public static boolean isDenseBlockType(DenseBlock sblock, DenseBlock.Type type) {
 		return (getDenseBlockType(sblock) == type);
 	}
@@ -49,6 +49,15 @@ public abstract class DenseBlockLDRB extends DenseBlock
 	 */
 	protected abstract void allocateBlocks(int numBlocks);
 
+	/**
+	 * Obtain the maximum number of cells per block.
+	 * 
+	 * @return max number of cells per block
+	 */
+	protected int maxBlockSize() {
+		return Integer.MAX_VALUE;
+	}
+
 	@Override
 	public int blockSize() {
 	    return _blen;
@@ -62,7 +71,7 @@ public abstract class DenseBlockLDRB extends DenseBlock
 	@Override
 	public void reset(int rlen, int[] odims, double v) {
 		long dataLength = (long) rlen * odims[0];
-		int newBlockSize = Math.min(rlen, Integer.MAX_VALUE / odims[0]);
+		int newBlockSize = Math.min(rlen, maxBlockSize() / odims[0]);
 		int numBlocks = UtilFunctions.toInt(Math.ceil((double) rlen / newBlockSize));
 		if (_blen == newBlockSize && dataLength <= capacity()) {
 			IntStream.range(0, numBlocks)
@@ -0,0 +1,496 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.runtime.data;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.util.DirectBufferUtils;
+import org.tugraz.sysds.runtime.util.UtilFunctions;
+
+/**
+ * Large dense row block of FP64 values, whose blocks are allocated outside
+ * the JVM heap (as direct buffers), which avoids the garbage collection
+ * overhead and heap limits for very large dense intermediates. Kernels
+ * access the block via get/set and getRow/setRow. Since values/valuesAt
+ * need to expose heap arrays, these calls convert the block to heap arrays
+ * (with the same blocking) and drop the off-heap memory, which keeps kernels
+ * without off-heap support correct. Off-heap writes and this conversion are
+ * mutually exclusive, so no concurrent write is lost. Note that this
+ * conversion temporarily requires twice the size of the block (until the
+ * dropped direct buffers are freed), and keeps the block on the heap
+ * afterwards. Operations on off-heap blocks should therefore use
+ * get/set and getRow/setRow wherever possible.
+ * 
+ * The off-heap memory is released explicitly by its exclusive owner (see
+ * claim/release), or otherwise once the block becomes unreachable.
+ */
+public class DenseBlockOffHeap extends DenseBlockLDRB
+{
+	private static final long serialVersionUID = 4406386577287530470L;
+
+	//max cells per block (direct buffers are indexed by int bytes)
+	private static final int MAX_BLOCK_SIZE = Integer.MAX_VALUE / 8;
+
+	//deallocators of unreachable blocks, and allocated bytes
+	private static final ReferenceQueue<DenseBlockOffHeap> QUEUE = new ReferenceQueue<>();
+	private static final Set<Deallocator> DEALLOCATORS = ConcurrentHashMap.newKeySet();
+	private static final AtomicLong ALLOCATED = new AtomicLong(0);
+	private static final Object SHARED = new Object();
+
+	private final transient Memory _mem;
+	private final transient ReentrantReadWriteLock _lock;
+	private transient volatile double[][] _heap;
+	private transient Object _owner;
+
+	public DenseBlockOffHeap(int[] dims) {
+		super(dims);
+		if( _odims[0] > MAX_BLOCK_SIZE )
+			throw new DMLRuntimeException("Off-heap dense blocks with rows of "
+				+ _odims[0] + " cells not supported.");
+		_mem = new Memory();
+		_lock = new ReentrantReadWriteLock();
+		DEALLOCATORS.add(new Deallocator(this, _mem));
+		freeUnreachable();
+		reset(_rlen, _odims, 0);
+	}
+
+	/**
+	 * Indicates if off-heap dense blocks with explicit release are
+	 * supported by the JVM. Otherwise, released off-heap memory is only
+	 * freed once the garbage collector cleans up the direct buffers.
+	 * 
+	 * @return true if explicit release supported
+	 */
+	public static boolean isSupported() {
+		return DirectBufferUtils.isSupported();
+	}
+
+	/**
+	 * Obtain the number of bytes currently allocated outside the JVM
+	 * heap by all off-heap dense blocks.
+	 * 
+	 * @return number of allocated bytes
+	 */
+	public static long getAllocatedBytes() {
+		freeUnreachable();
+		return ALLOCATED.get();
+	}
+
+	@Override
+	protected int maxBlockSize() {
+		return MAX_BLOCK_SIZE;
+	}
+
+	@Override
+	protected void allocateBlocks(int numBlocks) {
+		if( _heap != null ) {
+			_heap = new double[numBlocks][];
+			return;
+		}
+		_mem.free();
+		_mem.raw = new ByteBuffer[numBlocks];
+		_mem.bufs = new DoubleBuffer[numBlocks];
+	}
+
+	@Override
+	protected void allocateBlock(int bix, int length) {
+		if( _heap != null ) {
+			_heap[bix] = new double[length];
+			return;
+		}
+		//note: direct buffers are zero-initialized
+		ByteBuffer raw = ByteBuffer.allocateDirect(8 * length);
+		_mem.raw[bix] = raw;
+		_mem.bufs[bix] = raw.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+		ALLOCATED.addAndGet(8L * length);
+	}
+
+	@Override
+	public boolean isNumeric() {
+		return true;
+	}
+
+	@Override
+	public boolean isOffHeap() {
+		return _heap == null;
+	}
+
+	@Override
+	public boolean isContiguous() {
+		return numBlocks() == 1;
+	}
+
+	@Override
+	public int numBlocks() {
+		DoubleBuffer[] bufs = _mem.bufs;
+		double[][] heap = _heap;
+		return (heap != null) ? heap.length :
+			(bufs != null) ? bufs.length : 0;
+	}
+
+	@Override
+	public long capacity() {
+		DoubleBuffer[] bufs = _mem.bufs;
+		double[][] heap = _heap;
+		long ret = 0;
+		if( heap != null ) {
+			for( double[] block : heap )
+				ret += (block != null) ? block.length : 0;
+		}
+		else if( bufs != null ) {
+			for( DoubleBuffer buf : bufs )
+				ret += (buf != null) ? buf.capacity() : 0;
+		}
+		else
+			return -1;
+		return ret;
+	}
+
+	@Override
+	protected long computeNnz(int bix, int start, int length) {
+		DoubleBuffer[] bufs = _mem.bufs;
+		double[][] heap = _heap;
+		if( heap != null )
+			return UtilFunctions.computeNnz(heap[bix], start, length);
+		DoubleBuffer buf = buf(bufs, bix);
+		long nnz = 0;
+		for( int i=start; i<start+length; i++ )
+			nnz += (buf.get(i) != 0) ? 1 : 0;
+		return nnz;
+	}
+
+	@Override
+	public double[] values(int r) {
+		return valuesAt(index(r));
+	}
+
+	/**
+	 * Obtains the heap array of the given block, which converts the entire
+	 * block to heap arrays if still off-heap (see class documentation).
+	 * 
+	 * @param bix block index
+	 * @return heap array of the block
+	 */
+	@Override
+	public double[] valuesAt(int bix) {
+		double[][] heap = _heap;
+		return (heap != null) ? heap[bix] : toHeap()[bix];
+	}
+
+	@Override
+	public void incr(int r, int c) {
+		incr(r, c, 1);
+	}
+
+	@Override
+	public void incr(int r, int c, double delta) {
+		int bix = index(r), ix = pos(r, c);
+		double[][] heap = _heap;
+		if( heap != null ) {
+			heap[bix][ix] += delta;
+			return;
+		}
+		_lock.readLock().lock();
+		try {
+			if( (heap = _heap) != null )
+				heap[bix][ix] += delta;
+			else {
+				DoubleBuffer buf = buf(bix);
+				buf.put(ix, buf.get(ix) + delta);
+			}
+		}
+		finally {
+			_lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	protected void fillBlock(int bix, int fromIndex, int toIndex, double v) {
+		double[][] heap = _heap;
+		if( heap != null ) {
+			Arrays.fill(heap[bix], fromIndex, toIndex, v);
+			return;
+		}
+		_lock.readLock().lock();
+		try {
+			if( (heap = _heap) != null )
+				Arrays.fill(heap[bix], fromIndex, toIndex, v);
+			else {
+				DoubleBuffer buf = buf(bix);
+				for( int i=fromIndex; i<toIndex; i++ )
+					buf.put(i, v);
+			}
+		}
+		finally {
+			_lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	protected void setInternal(int bix, int ix, double v) {
+		double[][] heap = _heap;
+		if( heap != null ) {
+			heap[bix][ix] = v;
+			return;
+		}
+		_lock.readLock().lock();
+		try {
+			if( (heap = _heap) != null )
+				heap[bix][ix] = v;
+			else
+				buf(bix).put(ix, v);
+		}
+		finally {
+			_lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public DenseBlock set(int r, int c, double v) {
+		setInternal(index(r), pos(r, c), v);
+		return this;
+	}
+
+	@Override
+	public DenseBlock set(int[] ix, double v) {
+		setInternal(index(ix[0]), pos(ix), v);
+		return this;
+	}
+
+	@Override
+	public DenseBlock set(int[] ix, String v) {
+		return set(ix, Double.parseDouble(v));
+	}
+
+	@Override
+	public DenseBlock set(int r, double[] v) {
+		return setRow(r, 0, _odims[0], v, 0);
+	}
+
+	@Override
+	public DenseBlock set(DenseBlock db) {
+		return set(0, _rlen, 0, _odims[0], db);
+	}
+
+	@Override
+	public DenseBlock set(int rl, int ru, int cl, int cu, DenseBlock db) {
+		int len = cu - cl;
+		double[] tmp = db.isOffHeap() ? new double[len] : null;
+		for( int i=rl; i<ru; i++ ) {
+			if( tmp != null ) {
+				db.getRow(i-rl, 0, len, tmp, 0);
+				setRow(i, cl, cu, tmp, 0);
+			}
+			else
+				setRow(i, cl, cu, db.values(i-rl), db.pos(i-rl));
+		}
+		return this;
+	}
+
+	@Override
+	public double get(int r, int c) {
+		DoubleBuffer[] bufs = _mem.bufs;
+		double[][] heap = _heap;
+		return (heap != null) ? heap[index(r)][pos(r, c)] :
+			buf(bufs, index(r)).get(pos(r, c));
+	}
+
+	@Override
+	public double get(int[] ix) {
+		DoubleBuffer[] bufs = _mem.bufs;
+		double[][] heap = _heap;
+		return (heap != null) ? heap[index(ix[0])][pos(ix)] :
+			buf(bufs, index(ix[0])).get(pos(ix));
+	}
+
+	@Override
+	public String getString(int[] ix) {
+		return String.valueOf(get(ix));
+	}
+
+	@Override
+	public void getRow(int r, int cl, int cu, double[] c, int cpos) {
+		DoubleBuffer[] bufs = _mem.bufs;
+		double[][] heap = _heap;
+		if( heap != null )
+			System.arraycopy(heap[index(r)], pos(r)+cl, c, cpos, cu-cl);
+		else
+			copyToArray(buf(bufs, index(r)), pos(r)+cl, c, cpos, cu-cl);
+	}
+
+	@Override
+	public DenseBlock setRow(int r, int cl, int cu, double[] a, int apos) {
+		double[][] heap = _heap;
+		if( heap != null ) {
+			System.arraycopy(a, apos, heap[index(r)], pos(r)+cl, cu-cl);
+			return this;
+		}
+		_lock.readLock().lock();
+		try {
+			if( (heap = _heap) != null )
+				System.arraycopy(a, apos, heap[index(r)], pos(r)+cl, cu-cl);
+			else
+				copyFromArray(a, apos, buf(index(r)), pos(r)+cl, cu-cl);
+		}
+		finally {
+			_lock.readLock().unlock();
+		}
+		return this;
+	}
+
+	@Override
+	public synchronized void claim(Object owner) {
+		_owner = (_owner == null || _owner == owner) ? owner : SHARED;
+	}
+
+	@Override
+	public synchronized void release(Object owner) {
+		if( _owner != owner || owner == null )
+			return;
+		_mem.free();
+		_owner = null;
+	}
+
+	/**
+	 * Converts the off-heap blocks into heap arrays of equal size, which
+	 * are used for all subsequent accesses. The off-heap memory is dropped
+	 * but not freed explicitly, because concurrent readers might still
+	 * access it (the direct buffers are freed once unreachable). Readers
+	 * access the block without lock, but obtain the buffers before the heap
+	 * arrays, which are set before the buffers are dropped. Hence, readers
+	 * either see the heap arrays or a still valid buffer reference.
+	 * 
+	 * @return heap arrays of all blocks
+	 */
+	private double[][] toHeap() {
+		_lock.writeLock().lock();
+		try {
+			if( _heap != null )
+				return _heap;
+			DoubleBuffer[] bufs = _mem.bufs;
+			if( bufs == null )
+				throw new DMLRuntimeException("Invalid access to released off-heap dense block.");
+			double[][] heap = new double[bufs.length][];
+			for( int bix=0; bix<heap.length; bix++ ) {
+				heap[bix] = new double[bufs[bix].capacity()];
+				copyToArray(bufs[bix], 0, heap[bix], 0, heap[bix].length);
+			}
+			_heap = heap;
+			_mem.drop();
+			return heap;
+		}
+		finally {
+			_lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Replaces this block by a heap-based copy on Java serialization.
+	 * 
+	 * @return heap-based dense block
+	 */
+	private Object writeReplace() {
+		int[] dims = new int[numDims()];
+		for( int i=0; i<dims.length; i++ )
+			dims[i] = getDim(i);
+		DenseBlock ret = DenseBlockFactory.createDenseBlock(
+			ValueType.FP64, DenseBlock.Type.LDRB, dims);
+		for( int i=0; i<_rlen; i++ )
+			getRow(i, 0, _odims[0], ret.values(i), ret.pos(i));
+		return ret;
+	}
+
+	private DoubleBuffer buf(int bix) {
+		return buf(_mem.bufs, bix);
+	}
+
+	private static DoubleBuffer buf(DoubleBuffer[] bufs, int bix) {
+		if( bufs == null )
+			throw new DMLRuntimeException("Invalid access to released off-heap dense block.");
+		return bufs[bix];
+	}
+
+	private static void copyToArray(DoubleBuffer buf, int pos, double[] c, int cpos, int len) {
+		//bulk get on a view, which keeps the shared buffer position untouched
+		DoubleBuffer tmp = buf.duplicate();
+		tmp.position(pos);
+		tmp.get(c, cpos, len);
+	}
+
+	private static void copyFromArray(double[] a, int apos, DoubleBuffer buf, int pos, int len) {
+		DoubleBuffer tmp = buf.duplicate();
+		tmp.position(pos);
+		tmp.put(a, apos, len);
+	}
+
+	private static void freeUnreachable() {
+		Deallocator d = null;
+		while( (d = (Deallocator) QUEUE.poll()) != null ) {
+			d._mem.free();
+			DEALLOCATORS.remove(d);
+		}
+	}
+
+	/**
+	 * Off-heap memory of a block, separated from the block to
+	 * allow deallocation after the block became unreachable.
+	 */
+	private static class Memory
+	{
+		private ByteBuffer[] raw;
+		private volatile DoubleBuffer[] bufs;
+
+		private synchronized void free() {
+			ByteBuffer[] tmp = drop();
+			if( tmp != null )
+				for( ByteBuffer buf : tmp )
+					DirectBufferUtils.free(buf);
+		}
+
+		private synchronized ByteBuffer[] drop() {
+			ByteBuffer[] tmp = raw;
+			raw = null;
+			bufs = null;
+			if( tmp != null )
+				for( ByteBuffer buf : tmp )
+					ALLOCATED.addAndGet((buf != null) ? -buf.capacity() : 0);
+			return tmp;
+		}
+	}
+
+	private static class Deallocator extends PhantomReference<DenseBlockOffHeap>
+	{
+		private final Memory _mem;
+
+		public Deallocator(DenseBlockOffHeap block, Memory mem) {
+			super(block, QUEUE);
+			_mem = mem;
+		}
+	}
+}
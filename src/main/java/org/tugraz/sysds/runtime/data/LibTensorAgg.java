@@ -18,6 +18,8 @@ package org.tugraz.sysds.runtime.data;
 import org.apache.commons.lang.NotImplementedException;
 import org.tugraz.sysds.common.Types;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.functionobjects.Builtin;
+import org.tugraz.sysds.runtime.functionobjects.Builtin.BuiltinCode;
 import org.tugraz.sysds.runtime.functionobjects.KahanPlus;
 import org.tugraz.sysds.runtime.functionobjects.ValueFunction;
 import org.tugraz.sysds.runtime.instructions.cp.KahanObject;
@@ -30,10 +32,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class LibTensorAgg {
+	private static final long PAR_NUMCELL_THRESHOLD = 1024*1024; //Min 1M elements
+	
 	private enum AggType {
 		KAHAN_SUM,
+		MIN,
+		MAX,
 		INVALID,
 	}
 
@@ -83,15 +90,63 @@ public class LibTensorAgg {
 			}
 		} else {
 			// Actually a complete aggregation
-			if (!in.isSparse()) {
-				aggregateUnaryTensorPartial(in, out, aggType, uaop.aggOp.increOp.fn, 0, in.getDim(0));
-			} else {
-				throw new NotImplementedException("Tensor aggregation not supported for sparse tensors.");
-			}
+			aggregateUnaryTensorPartial(in, out, aggType, uaop.aggOp.increOp.fn, 0, in.getDim(0));
 		}
 		// TODO change to sparse if worth it
 	}
 
+	/**
+	 * Aggregate a tensor-block along the given axis with the given unary operator.
+	 * The output has the dimensions of the input except for the aggregated axis,
+	 * which is reduced to size 1. Aggregations along dims 1 to n-1 are multi-threaded
+	 * over ranges of the first dimension, and aggregations along the first dimension
+	 * over ranges of the linearized remaining dimensions.
+	 *
+	 * @param in   the input tensor block
+	 * @param out  the output tensor block (with value type of the result)
+	 * @param uaop the unary operation to apply
+	 * @param axis the dimension to aggregate
+	 */
+	public static void aggregateUnaryTensor(TensorBlock in, TensorBlock out, AggregateUnaryOperator uaop, int axis) {
+		AggType aggType = getAggType(uaop);
+		if (in.getValueType() == Types.ValueType.STRING)
+			throw new DMLRuntimeException("Aggregation over string tensor is not supported.");
+
+		//prepare dense output
+		int[] dims = in._dims.clone();
+		dims[axis] = 1;
+		out.reset(dims, false);
+		out.allocateDenseBlock();
+		if (in.getLength() == 0)
+			return;
+
+		ValueFunction fn = uaop.aggOp.increOp.fn;
+		int len = (axis == 0) ? in.getRowLength() : in.getDim(0);
+		int numThreads = uaop.getNumThreads();
+		if (numThreads <= 1 || len <= 1 || in.getLength() < PAR_NUMCELL_THRESHOLD
+			|| out.getValueType() == Types.ValueType.BOOLEAN) {
+			out._nnz = (axis == 0) ?
+				aggregateAxisFirstDim(in, out, aggType, fn, 0, len) :
+				aggregateAxisOtherDim(in, out, aggType, fn, axis, 0, len);
+			return;
+		}
+
+		try {
+			ExecutorService pool = CommonThreadPool.get(numThreads);
+			ArrayList<AxisAggTask> tasks = new ArrayList<>();
+			ArrayList<Integer> blklens = UtilFunctions.getBalancedBlockSizesDefault(len, numThreads, false);
+			for (int i = 0, lb = 0; i < blklens.size(); lb += blklens.get(i), i++)
+				tasks.add(new AxisAggTask(in, out, aggType, fn, axis, lb, lb + blklens.get(i)));
+			long nnz = 0;
+			for (Future<Long> task : pool.invokeAll(tasks))
+				nnz += task.get();
+			pool.shutdown();
+			out._nnz = nnz;
+		} catch (Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+
 	/**
 	 * Aggregate a empty tensor-block with a unary operator.
 	 *
@@ -102,7 +157,8 @@ public class LibTensorAgg {
 	private static void aggregateUnaryTensorEmpty(TensorBlock in, TensorBlock out, AggType optype) {
 		// TODO implement for other optypes
 		double val;
-		if (optype == AggType.KAHAN_SUM) {
+		if (optype != AggType.INVALID && in.getLength() > 0) {
+			//all cells are zero
 			val = 0;
 		} else {
 			val = Double.NaN;
@@ -140,6 +196,11 @@ public class LibTensorAgg {
 		//(kahan) sum
 		if (vfn instanceof KahanPlus)
 			return AggType.KAHAN_SUM;
+		//min / max
+		if (Builtin.isBuiltinCode(vfn, BuiltinCode.MIN))
+			return AggType.MIN;
+		if (Builtin.isBuiltinCode(vfn, BuiltinCode.MAX))
+			return AggType.MAX;
 		return AggType.INVALID;
 	}
 
@@ -171,6 +232,9 @@ public class LibTensorAgg {
 			// TODO handle different index functions
 			kahanSum(in, out, (KahanPlus) fn, rl, ru);
 		}
+		else if (aggtype == AggType.MIN || aggtype == AggType.MAX) {
+			minMax(in, out, aggtype, fn, rl, ru);
+		}
 		// TODO other aggregations
 	}
 
@@ -222,15 +286,26 @@ public class LibTensorAgg {
 		if (aop.correctionExists)
 			out.incrementalAggregate(aop, partout);
 		else
-			throw new NotImplementedException();
+			out.set(0, 0, aop.increOp.fn.execute(out.get(0, 0), partout.get(0, 0)));
 		//out.binaryOperationsInPlace(laop.increOp, partout);
 	}
 
 	private static void kahanSum(TensorBlock in, TensorBlock out, KahanPlus kplus, int rl, int ru) {
 		KahanObject kbuff = new KahanObject(0, 0);
-		// TODO: SparseBlock
 		if (in.isSparse()) {
-			throw new DMLRuntimeException("Sparse aggregation not implemented for Tensor");
+			//sum over non-zero values of the linearized rows
+			SparseBlock a = in.getSparseBlock();
+			for (int r = rl; r < ru; r++) {
+				if (a == null || a.isEmpty(r))
+					continue;
+				int apos = a.pos(r);
+				int alen = a.size(r);
+				double[] avals = a.values(r);
+				for (int k = apos; k < apos + alen; k++)
+					kplus.execute2(kbuff, avals[k]);
+			}
+			out.getDenseBlock().set(kbuff);
+			return;
 		}
 		switch (in.getValueType()) {
 			case BOOLEAN: {
@@ -259,6 +334,114 @@ public class LibTensorAgg {
 		out.getDenseBlock().set(kbuff);
 	}
 
+	private static void minMax(TensorBlock in, TensorBlock out, AggType aggtype, ValueFunction fn, int rl, int ru) {
+		if (in.getValueType() == Types.ValueType.STRING)
+			throw new DMLRuntimeException("Min/max over string tensor is not supported.");
+		int len = in.getRowLength();
+		double[] a = new double[len];
+		double val = getInitValue(aggtype);
+		for (int r = rl; r < ru; r++) {
+			in.getRow(r, 0, len, a, 0);
+			for (int j = 0; j < len; j++)
+				val = fn.execute(val, a[j]);
+		}
+		out.getDenseBlock().set(0, 0, val);
+	}
+
+	/**
+	 * Aggregate a subset of rows along one of the dims 1 to n-1, where each
+	 * row is aggregated independently into the corresponding output row.
+	 *
+	 * @param in      the tensor block to aggregate
+	 * @param out     the dense output tensor block
+	 * @param aggtype the type of aggregation to use
+	 * @param fn      the function to use
+	 * @param axis    the dimension to aggregate
+	 * @param rl      the lower index of rows to use
+	 * @param ru      the upper index of rows to use (exclusive)
+	 * @return number of non-zeros of the output rows
+	 */
+	private static long aggregateAxisOtherDim(TensorBlock in, TensorBlock out, AggType aggtype, ValueFunction fn,
+	                                          int axis, int rl, int ru) {
+		final int alen = in.getRowLength();
+		final int clen = out.getRowLength();
+		final int n = in.getDim(axis);
+		final int inner = (int) UtilFunctions.prod(in._dims, axis + 1);
+		final int outer = clen / inner;
+
+		double[] a = new double[alen];
+		double[] c = new double[clen];
+		double[] corr = (aggtype == AggType.KAHAN_SUM) ? new double[clen] : null;
+		KahanObject kbuff = new KahanObject(0, 0);
+		long nnz = 0;
+		for (int r = rl; r < ru; r++) {
+			in.getRow(r, 0, alen, a, 0);
+			initAggregates(c, corr, aggtype);
+			for (int o = 0; o < outer; o++)
+				for (int i = 0; i < n; i++)
+					aggregateValues(a, (o * n + i) * inner, c, corr, o * inner, inner, aggtype, fn, kbuff);
+			nnz += out.setRow(r, 0, clen, c, 0);
+		}
+		return nnz;
+	}
+
+	/**
+	 * Aggregate a column range of the linearized rows along the first dimension.
+	 *
+	 * @param in      the tensor block to aggregate
+	 * @param out     the dense output tensor block
+	 * @param aggtype the type of aggregation to use
+	 * @param fn      the function to use
+	 * @param cl      the lower index of columns to use
+	 * @param cu      the upper index of columns to use (exclusive)
+	 * @return number of non-zeros of the output column range
+	 */
+	private static long aggregateAxisFirstDim(TensorBlock in, TensorBlock out, AggType aggtype, ValueFunction fn,
+	                                          int cl, int cu) {
+		final int len = cu - cl;
+		double[] a = new double[len];
+		double[] c = new double[len];
+		double[] corr = (aggtype == AggType.KAHAN_SUM) ? new double[len] : null;
+		KahanObject kbuff = new KahanObject(0, 0);
+		initAggregates(c, corr, aggtype);
+		for (int r = 0; r < in.getDim(0); r++) {
+			in.getRow(r, cl, cu, a, 0);
+			aggregateValues(a, 0, c, corr, 0, len, aggtype, fn, kbuff);
+		}
+		return out.setRow(0, cl, cu, c, 0);
+	}
+
+	private static void initAggregates(double[] c, double[] corr, AggType aggtype) {
+		Arrays.fill(c, getInitValue(aggtype));
+		if (corr != null)
+			Arrays.fill(corr, 0);
+	}
+
+	private static void aggregateValues(double[] a, int apos, double[] c, double[] corr, int cpos, int len,
+	                                    AggType aggtype, ValueFunction fn, KahanObject kbuff) {
+		if (aggtype == AggType.KAHAN_SUM) {
+			KahanPlus kplus = (KahanPlus) fn;
+			for (int j = 0; j < len; j++) {
+				kbuff.set(c[cpos + j], corr[cpos + j]);
+				kplus.execute2(kbuff, a[apos + j]);
+				c[cpos + j] = kbuff._sum;
+				corr[cpos + j] = kbuff._correction;
+			}
+		}
+		else {
+			for (int j = 0; j < len; j++)
+				c[cpos + j] = fn.execute(c[cpos + j], a[apos + j]);
+		}
+	}
+
+	private static double getInitValue(AggType aggtype) {
+		switch (aggtype) {
+			case MIN: return Double.POSITIVE_INFINITY;
+			case MAX: return Double.NEGATIVE_INFINITY;
+			default: return 0;
+		}
+	}
+
 	// TODO maybe merge this, and other parts, with `LibMatrixAgg`
 	private static abstract class AggTask implements Callable<Object> {}
 
@@ -294,4 +477,32 @@ public class LibTensorAgg {
 			return _ret;
 		}
 	}
+
+	private static class AxisAggTask implements Callable<Long> {
+		private final TensorBlock _in;
+		private final TensorBlock _ret;
+		private final AggType _aggtype;
+		private final ValueFunction _fn;
+		private final int _axis;
+		private final int _lb;
+		private final int _ub;
+
+		protected AxisAggTask(TensorBlock in, TensorBlock ret, AggType aggtype, ValueFunction fn, int axis, int lb, int ub) {
+			_in = in;
+			_ret = ret;
+			_aggtype = aggtype;
+			_fn = fn;
+			_axis = axis;
+			_lb = lb;
+			_ub = ub;
+		}
+
+		@Override
+		public Long call() {
+			//disjoint output column ranges (axis 0) or output rows
+			return (_axis == 0) ?
+				aggregateAxisFirstDim(_in, _ret, _aggtype, _fn, _lb, _ub) :
+				aggregateAxisOtherDim(_in, _ret, _aggtype, _fn, _axis, _lb, _ub);
+		}
+	}
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tugraz.sysds.runtime.data;
+
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.functionobjects.ValueFunction;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
+import org.tugraz.sysds.runtime.util.UtilFunctions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Library for cell-wise binary operations over tensors of arbitrary
+ * dimensions with broadcasting: both inputs have the same number of
+ * dimensions, and each dimension is either equal or 1 in one of the
+ * inputs (replicated along this dimension). The operations are
+ * multi-threaded over disjoint ranges of the first output dimension.
+ * 
+ * Limitation: while inputs are read row-wise independent of their format,
+ * the outputs are always dense, also for sparse-safe operations (e.g.,
+ * multiply) over sparse inputs.
+ */
+public class LibTensorBincell {
+	private static final long PAR_NUMCELL_THRESHOLD = 1024*1024; //Min 1M elements
+
+	private LibTensorBincell() {
+		//prevent instantiation via private constructor
+	}
+
+	/**
+	 * Checks if the dimensions of the two input tensors are compatible
+	 * for a cell-wise binary operation with broadcasting.
+	 *
+	 * @param m1 the first input tensor
+	 * @param m2 the second input tensor
+	 * @return true if compatible, false otherwise
+	 */
+	public static boolean isValidDimensionsBinary(TensorBlock m1, TensorBlock m2) {
+		if( m1.getNumDims() != m2.getNumDims() )
+			return false;
+		for( int i=0; i<m1.getNumDims(); i++ )
+			if( m1.getDim(i) != m2.getDim(i) && m1.getDim(i) != 1 && m2.getDim(i) != 1 )
+				return false;
+		return true;
+	}
+
+	/**
+	 * Gets the output dimensions of a cell-wise binary operation with broadcasting.
+	 *
+	 * @param m1 the first input tensor
+	 * @param m2 the second input tensor
+	 * @return output dimensions
+	 */
+	public static int[] getBinaryOutputDims(TensorBlock m1, TensorBlock m2) {
+		int[] dims = new int[m1.getNumDims()];
+		for( int i=0; i<dims.length; i++ )
+			dims[i] = (m1.getDim(i) == 1) ? m2.getDim(i) : m1.getDim(i);
+		return dims;
+	}
+
+	/**
+	 * Cell-wise binary operation with broadcasting, where the output
+	 * tensor is reset to the output dimensions and allocated in dense format.
+	 *
+	 * @param m1 the first input tensor
+	 * @param m2 the second input tensor
+	 * @param ret the output tensor
+	 * @param op the binary operator
+	 */
+	public static void bincellOp(TensorBlock m1, TensorBlock m2, TensorBlock ret, BinaryOperator op) {
+		//check validity
+		if( !isValidDimensionsBinary(m1, m2) ) {
+			throw new DMLRuntimeException("Binary tensor operation requires matching or broadcastable dimensions ("
+				+ Arrays.toString(m1._dims) + ", " + Arrays.toString(m2._dims) + ").");
+		}
+		if( m1.getValueType() == ValueType.STRING || m2.getValueType() == ValueType.STRING )
+			throw new DMLRuntimeException("Binary tensor operations not supported for string tensors.");
+
+		//prepare dense output
+		ret.reset(getBinaryOutputDims(m1, m2), false);
+		ret.allocateDenseBlock();
+		if( ret.getLength() == 0 )
+			return;
+
+		int rlen = ret.getDim(0);
+		int k = op.getNumThreads();
+		if( k <= 1 || rlen <= 1 || ret.getLength() < PAR_NUMCELL_THRESHOLD
+			|| ret.getValueType() == ValueType.BOOLEAN ) {
+			ret._nnz = bincellOpDense(m1, m2, ret, op.fn, 0, rlen);
+			return;
+		}
+
+		//multi-threaded over disjoint ranges of the first output dimension
+		try {
+			ExecutorService pool = CommonThreadPool.get(k);
+			ArrayList<BincellTask> tasks = new ArrayList<>();
+			ArrayList<Integer> blklens = UtilFunctions.getBalancedBlockSizesDefault(rlen, k, false);
+			for( int i=0, lb=0; i<blklens.size(); lb+=blklens.get(i), i++ )
+				tasks.add(new BincellTask(m1, m2, ret, op.fn, lb, lb+blklens.get(i)));
+			long nnz = 0;
+			for( Future<Long> task : pool.invokeAll(tasks) )
+				nnz += task.get();
+			pool.shutdown();
+			ret._nnz = nnz;
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+
+	private static long bincellOpDense(TensorBlock m1, TensorBlock m2, TensorBlock ret, ValueFunction fn, int rl, int ru) {
+		final int n = ret.getNumDims();
+		final int alen = m1.getRowLength();
+		final int blen = m2.getRowLength();
+		final int clen = ret.getRowLength();
+		final boolean aRep = m1.getDim(0) == 1;
+		final boolean bRep = m2.getDim(0) == 1;
+
+		//strides of the inputs over dims 1 to n-1 (0 for broadcast dims)
+		int[] aStride = getBroadcastStrides(m1, ret);
+		int[] bStride = getBroadcastStrides(m2, ret);
+		final int inner = ret.getDim(n-1);
+		final int ais = aStride[n-1];
+		final int bis = bStride[n-1];
+		final boolean noBroadcast = (alen == clen && blen == clen);
+
+		double[] a = new double[alen];
+		double[] b = new double[blen];
+		double[] c = new double[clen];
+		int[] ix = new int[n];
+		long nnz = 0;
+		for( int i=rl; i<ru; i++ ) {
+			//read input rows once per output row (once for replicated rows)
+			if( i == rl || !aRep )
+				m1.getRow(aRep ? 0 : i, 0, alen, a, 0);
+			if( i == rl || !bRep )
+				m2.getRow(bRep ? 0 : i, 0, blen, b, 0);
+
+			if( noBroadcast ) {
+				for( int j=0; j<clen; j++ )
+					c[j] = fn.execute(a[j], b[j]);
+			}
+			else {
+				//iterate over dims 1 to n-2, with contiguous inner dimension
+				Arrays.fill(ix, 0);
+				for( int cix=0; cix<clen; cix+=inner ) {
+					int apos = 0, bpos = 0;
+					for( int d=1; d<n-1; d++ ) {
+						apos += ix[d] * aStride[d];
+						bpos += ix[d] * bStride[d];
+					}
+					for( int j=0; j<inner; j++ )
+						c[cix+j] = fn.execute(a[apos+j*ais], b[bpos+j*bis]);
+					for( int d=n-2; d>=1 && ++ix[d]==ret.getDim(d); d-- )
+						ix[d] = 0;
+				}
+			}
+			nnz += ret.setRow(i, 0, clen, c, 0);
+		}
+		return nnz;
+	}
+
+	/**
+	 * Gets the strides of an input row (linearized over dims 1 to n-1) with
+	 * respect to the output dimensions, where broadcast dimensions have stride 0.
+	 *
+	 * @param in the input tensor
+	 * @param out the output tensor
+	 * @return strides per dimension (stride of dim 0 is unused)
+	 */
+	private static int[] getBroadcastStrides(TensorBlock in, TensorBlock out) {
+		int n = in.getNumDims();
+		int[] ret = new int[n];
+		for( int i=n-1, stride=1; i>=1; i-- ) {
+			ret[i] = (in.getDim(i) == 1 && out.getDim(i) != 1) ? 0 : stride;
+			stride *= in.getDim(i);
+		}
+		return ret;
+	}
+
+	private static class BincellTask implements Callable<Long> {
+		private final TensorBlock _m1;
+		private final TensorBlock _m2;
+		private final TensorBlock _ret;
+		private final ValueFunction _fn;
+		private final int _rl;
+		private final int _ru;
+
+		protected BincellTask(TensorBlock m1, TensorBlock m2, TensorBlock ret, ValueFunction fn, int rl, int ru) {
+			_m1 = m1;
+			_m2 = m2;
+			_ret = ret;
+			_fn = fn;
+			_rl = rl;
+			_ru = ru;
+		}
+
+		@Override
+		public Long call() {
+			return bincellOpDense(_m1, _m2, _ret, _fn, _rl, _ru);
+		}
+	}
+}
@@ -16,14 +16,23 @@
 package org.tugraz.sysds.runtime.data;
 
 import org.apache.commons.lang.NotImplementedException;
+import org.tugraz.sysds.common.Types.ValueType;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
+import org.tugraz.sysds.runtime.util.UtilFunctions;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class LibTensorReorg {
 	//allow shallow dense/sparse copy for unchanged data (which is
 	//safe due to copy-on-write and safe update-in-place handling)
 	private static final boolean SHALLOW_COPY_REORG = true;
+	
+	private static final long PAR_NUMCELL_THRESHOLD = 1024*1024; //1M
 
 	private LibTensorReorg() {
 		//prevent instantiation via private constructor
@@ -115,4 +124,201 @@ public class LibTensorReorg {
 		}
 		out.set(in);
 	}
+
+	/**
+	 * CP transpose operation, which reverses the order of dimensions
+	 * (equivalent to a matrix transpose for 2-dimensional tensors).
+	 *
+	 * @param in input tensor
+	 * @param out output tensor
+	 * @param k degree of parallelism
+	 * @return output tensor
+	 */
+	public static TensorBlock transpose(TensorBlock in, TensorBlock out, int k) {
+		int n = in.getNumDims();
+		int[] perm = new int[n];
+		for( int i=0; i<n; i++ )
+			perm[i] = n - i - 1;
+		return permute(in, out, perm, k);
+	}
+
+	/**
+	 * CP permute operation, where the i-th output dimension is the
+	 * perm[i]-th input dimension. The output is computed in dense format,
+	 * multi-threaded over disjoint ranges of the first output dimension.
+	 *
+	 * @param in input tensor
+	 * @param out output tensor
+	 * @param perm permutation of dimensions
+	 * @param k degree of parallelism
+	 * @return output tensor
+	 */
+	public static TensorBlock permute(TensorBlock in, TensorBlock out, int[] perm, int k) {
+		int n = in.getNumDims();
+		//check validity
+		boolean[] used = new boolean[n];
+		for( int i=0; i<Math.max(perm.length, n); i++ ) {
+			if( perm.length != n || perm[i] < 0 || perm[i] >= n || used[perm[i]] )
+				throw new DMLRuntimeException("Invalid permutation "+Arrays.toString(perm)
+					+" for tensor with "+n+" dimensions.");
+			used[perm[i]] = true;
+		}
+		if( in.getValueType() == ValueType.STRING )
+			throw new DMLRuntimeException("Permute not supported for string tensors.");
+
+		int[] dims = new int[n];
+		for( int i=0; i<n; i++ )
+			dims[i] = in.getDim(perm[i]);
+
+		//strides of input dims within rows (dims 1 to n-1)
+		int[] inStride = new int[n];
+		for( int i=n-1, stride=1; i>=1; i-- ) {
+			inStride[i] = stride;
+			stride *= in.getDim(i);
+		}
+		//output dims map to input rows (first input dim) or columns
+		int[] rowStep = new int[n];
+		int[] colStep = new int[n];
+		for( int i=0; i<n; i++ ) {
+			rowStep[i] = (perm[i] == 0) ? 1 : 0;
+			colStep[i] = (perm[i] == 0) ? 0 : inStride[perm[i]];
+		}
+
+		out.reset(dims, false);
+		out.allocateDenseBlock();
+		return execute(out, k, (rl, ru) -> permuteDense(in, out, rowStep, colStep, rl, ru));
+	}
+
+	/**
+	 * CP slice operation (single input, single output tensor), where the
+	 * lower and upper indexes of all dimensions are inclusive. The output is
+	 * computed in dense format, multi-threaded over disjoint ranges of the
+	 * first output dimension.
+	 *
+	 * @param in input tensor
+	 * @param out output tensor
+	 * @param lower lower indexes per dimension (inclusive)
+	 * @param upper upper indexes per dimension (inclusive)
+	 * @param k degree of parallelism
+	 * @return output tensor
+	 */
+	public static TensorBlock slice(TensorBlock in, TensorBlock out, int[] lower, int[] upper, int k) {
+		int n = in.getNumDims();
+		//check validity
+		if( lower.length != n || upper.length != n )
+			throw new DMLRuntimeException("Invalid number of slice indexes for tensor with "+n+" dimensions.");
+		int[] dims = new int[n];
+		for( int i=0; i<n; i++ ) {
+			if( lower[i] < 0 || upper[i] >= in.getDim(i) || lower[i] > upper[i] )
+				throw new DMLRuntimeException("Invalid values for tensor slice: ["+Arrays.toString(lower)+" : "
+					+Arrays.toString(upper)+"] for tensor of dimensions "+Arrays.toString(in._dims)+".");
+			dims[i] = upper[i] - lower[i] + 1;
+		}
+		if( in.getValueType() == ValueType.STRING )
+			throw new DMLRuntimeException("Slice not supported for string tensors.");
+
+		out.reset(dims, false);
+		out.allocateDenseBlock();
+		return execute(out, k, (rl, ru) -> sliceDense(in, out, lower, rl, ru));
+	}
+
+	private static long permuteDense(TensorBlock in, TensorBlock out, int[] rowStep, int[] colStep, int rl, int ru) {
+		final int n = out.getNumDims();
+		final int clen = out.getRowLength();
+		final int inner = out.getDim(n-1);
+		//input row buffer if the first dimension is unchanged
+		double[] a = (rowStep[0] == 1) ? new double[in.getRowLength()] : null;
+		double[] c = new double[clen];
+		int[] ix = new int[n];
+		long nnz = 0;
+		for( int i=rl; i<ru; i++ ) {
+			if( a != null )
+				in.getRow(i, 0, a.length, a, 0);
+			Arrays.fill(ix, 0);
+			for( int cix=0; cix<clen; cix+=inner ) {
+				int rin = i * rowStep[0];
+				int cin = i * colStep[0];
+				for( int d=1; d<n-1; d++ ) {
+					rin += ix[d] * rowStep[d];
+					cin += ix[d] * colStep[d];
+				}
+				if( a != null ) {
+					for( int j=0; j<inner; j++ )
+						c[cix+j] = a[cin + j*colStep[n-1]];
+				}
+				else {
+					for( int j=0; j<inner; j++ )
+						c[cix+j] = in.get(rin + j*rowStep[n-1], cin + j*colStep[n-1]);
+				}
+				for( int d=n-2; d>=1 && ++ix[d]==out.getDim(d); d-- )
+					ix[d] = 0;
+			}
+			nnz += out.setRow(i, 0, clen, c, 0);
+		}
+		return nnz;
+	}
+
+	private static long sliceDense(TensorBlock in, TensorBlock out, int[] lower, int rl, int ru) {
+		final int n = out.getNumDims();
+		final int clen = out.getRowLength();
+		final int inner = out.getDim(n-1);
+		//strides of input dims within rows (dims 1 to n-1)
+		int[] inStride = new int[n];
+		for( int i=n-1, stride=1; i>=1; i-- ) {
+			inStride[i] = stride;
+			stride *= in.getDim(i);
+		}
+		double[] c = new double[clen];
+		int[] ix = new int[n];
+		long nnz = 0;
+		for( int i=rl; i<ru; i++ ) {
+			Arrays.fill(ix, 0);
+			//copy contiguous segments of the inner dimension
+			for( int cix=0; cix<clen; cix+=inner ) {
+				int cin = lower[n-1];
+				for( int d=1; d<n-1; d++ )
+					cin += (lower[d] + ix[d]) * inStride[d];
+				in.getRow(lower[0] + i, cin, cin + inner, c, cix);
+				for( int d=n-2; d>=1 && ++ix[d]==out.getDim(d); d-- )
+					ix[d] = 0;
+			}
+			nnz += out.setRow(i, 0, clen, c, 0);
+		}
+		return nnz;
+	}
+
+	private static TensorBlock execute(TensorBlock out, int k, RowRangeKernel kernel) {
+		int rlen = out.getDim(0);
+		if( out.getLength() == 0 )
+			return out;
+		if( k <= 1 || rlen <= 1 || out.getLength() < PAR_NUMCELL_THRESHOLD
+			|| out.getValueType() == ValueType.BOOLEAN ) {
+			out._nnz = kernel.apply(0, rlen);
+			return out;
+		}
+
+		//multi-threaded over disjoint ranges of the first output dimension
+		try {
+			ExecutorService pool = CommonThreadPool.get(k);
+			ArrayList<Callable<Long>> tasks = new ArrayList<>();
+			ArrayList<Integer> blklens = UtilFunctions.getBalancedBlockSizesDefault(rlen, k, false);
+			for( int i=0, lb=0; i<blklens.size(); lb+=blklens.get(i), i++ ) {
+				final int rl = lb, ru = lb + blklens.get(i);
+				tasks.add(() -> kernel.apply(rl, ru));
+			}
+			long nnz = 0;
+			for( Future<Long> task : pool.invokeAll(tasks) )
+				nnz += task.get();
+			pool.shutdown();
+			out._nnz = nnz;
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		return out;
+	}
+
+	private interface RowRangeKernel {
+		long apply(int rl, int ru);
+	}
 }
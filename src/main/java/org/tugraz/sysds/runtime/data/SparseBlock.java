@@ -51,6 +51,7 @@ public abstract class SparseBlock implements Serializable
 		MCSR,
 		CSR,
 		COO,
+		DCSR,
 	}
 	
 	
@@ -0,0 +1,868 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.runtime.data;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.tugraz.sysds.runtime.matrix.data.IJV;
+import org.tugraz.sysds.runtime.util.SortUtils;
+import org.tugraz.sysds.runtime.util.UtilFunctions;
+
+/**
+ * SparseBlock implementation that realizes a 'doubly compressed sparse row'
+ * representation, where only non-empty rows are stored: rindexes holds the
+ * sorted indexes of non-empty rows, ptr the offsets per non-empty row, and
+ * indexes/values the column indexes and values of non-zero entries. In contrast
+ * to CSR, the size of this format is independent of the number of rows, which
+ * makes it very memory efficient for ultra-sparse matrices and matrices with
+ * many empty rows (e.g., skewed graphs). 
+ * 
+ * In order to retain constant-time access by logical row index, we maintain
+ * a bitmap of non-empty rows and the number of non-empty rows before every
+ * 64-bit word (i.e., a rank directory), which requires 1.5 bits per row.
+ * Hence, existing row-wise kernels operate unchanged over this format.
+ * 
+ */
+public class SparseBlockDCSR extends SparseBlock
+{
+	private static final long serialVersionUID = -4375432806518279152L;
+
+	private int _rlen = 0;           //number of rows
+	private int[] _rindexes = null;  //non-empty row index array (size: >=nrows)
+	private int[] _ptr = null;       //row pointer array (size: >=nrows+1)
+	private int _nrows = 0;          //actual number of non-empty rows
+	private int[] _indexes = null;   //column index array (size: >=nnz)
+	private double[] _values = null; //value array (size: >=nnz)
+	private int _size = 0;           //actual number of nnz
+	private long[] _bits = null;     //bitmap of non-empty rows
+	private int[] _rank = null;      //number of non-empty rows before word
+	private volatile int _stale = 0; //first word with outdated rank (lazy updates)
+	
+	public SparseBlockDCSR(int rlen) {
+		this(rlen, INIT_CAPACITY);
+	}
+	
+	public SparseBlockDCSR(int rlen, int capacity) {
+		_rlen = rlen;
+		int rcap = Math.min(rlen, capacity);
+		_rindexes = new int[rcap];
+		_ptr = new int[rcap+1]; //ix0=0
+		_indexes = new int[capacity];
+		_values = new double[capacity];
+		_bits = new long[(rlen+63)/64];
+		_rank = new int[_bits.length];
+		_stale = _bits.length;
+	}
+	
+	/**
+	 * Copy constructor sparse block abstraction. 
+	 * 
+	 * @param sblock sparse block to copy
+	 */
+	public SparseBlockDCSR(SparseBlock sblock)
+	{
+		long size = sblock.size();
+		if( size > Integer.MAX_VALUE )
+			throw new RuntimeException("SparseBlockDCSR supports nnz<=Integer.MAX_VALUE but got "+size);
+		
+		//special case SparseBlockDCSR
+		if( sblock instanceof SparseBlockDCSR ) {
+			SparseBlockDCSR odcsr = (SparseBlockDCSR)sblock;
+			_rlen = odcsr._rlen;
+			_nrows = odcsr._nrows;
+			_rindexes = Arrays.copyOf(odcsr._rindexes, _nrows);
+			_ptr = Arrays.copyOf(odcsr._ptr, _nrows+1);
+			_indexes = Arrays.copyOf(odcsr._indexes, odcsr._size);
+			_values = Arrays.copyOf(odcsr._values, odcsr._size);
+			_size = odcsr._size;
+			_bits = odcsr._bits.clone();
+			_rank = odcsr._rank.clone();
+			_stale = odcsr._stale;
+		}
+		//general case SparseBlock
+		else {
+			_rlen = sblock.numRows();
+			for( int i=0; i<_rlen; i++ )
+				_nrows += sblock.isEmpty(i) ? 0 : 1;
+			
+			_rindexes = new int[_nrows];
+			_ptr = new int[_nrows+1];
+			_indexes = new int[(int)size];
+			_values = new double[(int)size];
+			_size = (int)size;
+			
+			for( int i=0, k=0, pos=0; i<_rlen; i++ ) {
+				if( sblock.isEmpty(i) ) continue;
+				int apos = sblock.pos(i);
+				int alen = sblock.size(i);
+				System.arraycopy(sblock.indexes(i), apos, _indexes, pos, alen);
+				System.arraycopy(sblock.values(i), apos, _values, pos, alen);
+				pos += alen;
+				_rindexes[k] = i;
+				_ptr[++k] = pos;
+			}
+			
+			_bits = new long[(_rlen+63)/64];
+			_rank = new int[_bits.length];
+			buildRowIndex();
+		}
+	}
+	
+	/**
+	 * Get the estimated in-memory size of the sparse block in DCSR 
+	 * with the given dimensions w/o accounting for overallocation. 
+	 * 
+	 * @param nrows number of rows
+	 * @param ncols number of columns
+	 * @param sparsity sparsity ratio
+	 * @return memory estimate
+	 */
+	public static long estimateMemory(long nrows, long ncols, double sparsity) {
+		double lnnz = Math.max(INIT_CAPACITY, Math.ceil(sparsity*nrows*ncols));
+		double lrows = Math.min(nrows, lnnz); //worst-case non-empty rows
+		double lwords = Math.ceil(nrows/64d);
+		
+		//32B overhead per array, int arr in non-empty rows, int/double arr in nnz,
+		//long/int arr in number of 64-bit words of row bitmap
+		double size = 16 + 12;       //object + 3 int fields
+		size += 24 + lrows * 4d;     //rindexes array (row indexes)
+		size += 24 + (lrows+1) * 4d; //ptr array (row pointers)
+		size += 24 + lnnz * 4d;      //indexes array (column indexes)
+		size += 24 + lnnz * 8d;      //values array (non-zero values)
+		size += 24 + lwords * 8d;    //bits array (row bitmap)
+		size += 24 + lwords * 4d;    //rank array (row ranks)
+		
+		//robustness for long overflows
+		return (long) Math.min(size, Long.MAX_VALUE);
+	}
+	
+	/**
+	 * Get the number of non-empty rows.
+	 * 
+	 * @return number of non-empty rows
+	 */
+	public int numNonEmptyRows() {
+		return _nrows;
+	}
+	
+	/**
+	 * Get raw access to underlying array of non-empty row indexes.
+	 * 
+	 * @return array of row indexes
+	 */
+	public int[] rowIndexes() {
+		return _rindexes;
+	}
+	
+	/**
+	 * Get raw access to underlying array of row pointers,
+	 * which are aligned with the non-empty row indexes.
+	 * 
+	 * @return array of row pointers
+	 */
+	public int[] rowPointers() {
+		return _ptr;
+	}
+	
+	/** 
+	 * Get raw access to underlying array of column indices
+	 * 
+	 * @return array of column indexes
+	 */
+	public int[] indexes() {
+		return _indexes;
+	}
+	
+	/**
+	 * Get raw access to underlying array of values
+	 * 
+	 * @return array of values
+	 */
+	public double[] values() {
+		return _values;
+	}
+	
+	/**
+	 * Get the indexes of non-empty rows in descending order of
+	 * their number of non-zeros (with ties in row order), which
+	 * allows degree-aware scheduling of row-wise operations.
+	 * 
+	 * @return array of row indexes, ordered by degree
+	 */
+	public int[] getRowsByDegree() {
+		//counting sort by row nnz (stable)
+		int maxlen = 0;
+		for( int k=0; k<_nrows; k++ )
+			maxlen = Math.max(maxlen, _ptr[k+1]-_ptr[k]);
+		int[] cnt = new int[maxlen+2];
+		for( int k=0; k<_nrows; k++ )
+			cnt[maxlen-(_ptr[k+1]-_ptr[k])+1]++;
+		for( int i=1; i<cnt.length; i++ )
+			cnt[i] += cnt[i-1];
+		int[] ret = new int[_nrows];
+		for( int k=0; k<_nrows; k++ )
+			ret[cnt[maxlen-(_ptr[k+1]-_ptr[k])]++] = _rindexes[k];
+		return ret;
+	}
+	
+	///////////////////
+	//SparseBlock implementation
+
+	@Override
+	public void allocate(int r) {
+		//do nothing everything preallocated
+	}
+	
+	@Override
+	public void allocate(int r, int nnz) {
+		//do nothing everything preallocated
+	}
+	
+	@Override
+	public void allocate(int r, int ennz, int maxnnz) {
+		//do nothing everything preallocated
+	}
+	
+	@Override
+	public void compact(int r) {
+		//do nothing everything preallocated
+	}
+
+	@Override
+	public int numRows() {
+		return _rlen;
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return false;
+	}
+	
+	@Override
+	public boolean isContiguous() {
+		return true;
+	}
+	
+	@Override
+	public boolean isAllocated(int r) {
+		return true;
+	}
+
+	@Override 
+	public void reset() {
+		if( _size > 0 || _nrows > 0 ) {
+			Arrays.fill(_bits, 0);
+			Arrays.fill(_rank, 0);
+			_stale = _bits.length;
+			_ptr[0] = 0;
+			_nrows = 0;
+			_size = 0;
+		}
+	}
+
+	@Override 
+	public void reset(int ennz, int maxnnz) {
+		reset();
+	}
+	
+	@Override 
+	public void reset(int r, int ennz, int maxnnz) {
+		int k = rowIndex(r);
+		if( k < 0 )
+			return;
+		
+		//overlapping array copy (shift rhs values left)
+		int pos = _ptr[k];
+		int len = _ptr[k+1] - pos;
+		shiftLeftByN(pos+len, len);
+		decrPtr(k+1, len);
+		removeRow(k);
+	}
+	
+	@Override
+	public long size() {
+		return _size;
+	}
+
+	@Override
+	public int size(int r) {
+		int k = rowIndex(r);
+		return (k >= 0) ? _ptr[k+1] - _ptr[k] : 0;
+	}
+	
+	@Override
+	public long size(int rl, int ru) {
+		return _ptr[rowLowerBound(ru)] - _ptr[rowLowerBound(rl)];
+	}
+
+	@Override
+	public long size(int rl, int ru, int cl, int cu) {
+		long nnz = 0;
+		for( int k=rowLowerBound(rl); k<rowLowerBound(ru); k++ ) {
+			int pos = _ptr[k];
+			int len = _ptr[k+1] - pos;
+			nnz += lowerBound(pos, len, cu) - lowerBound(pos, len, cl);
+		}
+		return nnz;
+	}
+	
+	@Override
+	public boolean isEmpty(int r) {
+		//non-empty rows are guaranteed to be stored
+		return rowIndex(r) < 0;
+	}
+	
+	@Override
+	public int[] indexes(int r) {
+		return _indexes;
+	}
+
+	@Override
+	public double[] values(int r) {
+		return _values;
+	}
+
+	@Override
+	public int pos(int r) {
+		//for empty rows, position of subsequent non-zeros
+		return _ptr[rowLowerBound(r)];
+	}
+
+	@Override
+	public boolean set(int r, int c, double v) {
+		int k = rowIndex(r);
+		if( k < 0 ) {
+			//early abort on zero (if no overwrite)
+			if( v == 0 ) return false;
+			k = insertRow(r, -k-1);
+		}
+		int pos = _ptr[k];
+		int len = _ptr[k+1] - pos;
+		
+		//search for existing col index
+		int index = Arrays.binarySearch(_indexes, pos, pos+len, c);
+		if( index >= 0 ) {
+			//delete/overwrite existing value (on value delete, we shift 
+			//left for (1) correct nnz maintenance, and (2) smaller size)
+			if( v == 0 ) {
+				shiftLeftByN(index+1, 1);
+				decrPtr(k+1, 1);
+				if( len == 1 )
+					removeRow(k);
+				return true; // nnz--
+			}
+			else {
+				_values[index] = v;
+				return false;
+			}
+		}
+		
+		//early abort on zero (if no overwrite)
+		if( v==0 ) return false;
+		
+		//insert new index-value pair
+		insert(Math.abs(index+1), c, v);
+		incrPtr(k+1, 1);
+		return true; // nnz++
+	}
+	
+	@Override
+	public boolean add(int r, int c, double v) {
+		//early abort on zero
+		if( v==0 ) return false;
+		
+		int k = ensureRow(r);
+		int pos = _ptr[k];
+		int len = _ptr[k+1] - pos;
+		
+		//search for existing col index
+		int index = Arrays.binarySearch(_indexes, pos, pos+len, c);
+		if( index >= 0 ) {
+			//add to existing value
+			_values[index] += v;
+			return false;
+		}
+		
+		//insert new index-value pair
+		insert(Math.abs(index+1), c, v);
+		incrPtr(k+1, 1);
+		return true; // nnz++
+	}
+
+	@Override
+	public void set(int r, SparseRow row, boolean deep) {
+		//delete existing values if necessary
+		reset(r, -1, -1);
+		
+		int alen = row.size();
+		if( alen == 0 )
+			return;
+		
+		//prepare free space (allocate and shift)
+		int k = ensureRow(r);
+		int pos = _ptr[k];
+		if( _values.length < _size+alen )
+			resize(_size+alen);
+		shiftRightByN(pos, alen); //incl size update
+		incrPtr(k+1, alen);
+		
+		//copy input row into internal representation
+		System.arraycopy(row.indexes(), 0, _indexes, pos, alen);
+		System.arraycopy(row.values(), 0, _values, pos, alen);
+	}
+	
+	@Override
+	public void append(int r, int c, double v) {
+		//early abort on zero 
+		if( v==0 ) return;
+		
+		int k = ensureRow(r);
+		insert(_ptr[k+1], c, v);
+		incrPtr(k+1, 1);
+	}
+
+	@Override
+	public void setIndexRange(int r, int cl, int cu, double[] v, int vix, int vlen) {
+		//delete existing values in range if necessary
+		deleteIndexRange(r, cl, cu);
+		
+		//determine input nnz
+		int lnnz = UtilFunctions.computeNnz(v, vix, vlen);
+		if( lnnz == 0 )
+			return;
+		
+		//prepare free space (allocate and shift)
+		int index = prepareIndexRange(r, cl, lnnz);
+		
+		//insert values
+		for( int i=vix; i<vix+vlen; i++ )
+			if( v[i] != 0 ) {
+				_indexes[ index ] = cl+i-vix;
+				_values[ index ] = v[i];
+				index++;
+			}
+	}
+	
+	@Override
+	public void setIndexRange(int r, int cl, int cu, double[] v, int[] vix, int vpos, int vlen) {
+		//delete existing values in range if necessary
+		deleteIndexRange(r, cl, cu);
+		if( vlen == 0 )
+			return;
+		
+		//prepare free space (allocate and shift)
+		int index = prepareIndexRange(r, cl, vlen);
+		
+		//insert values
+		for( int i=vpos; i<vpos+vlen; i++ ) {
+			_indexes[ index ] = cl+vix[i];
+			_values[ index ] = v[i];
+			index++;
+		}
+	}
+
+	@Override
+	public void deleteIndexRange(int r, int cl, int cu) {
+		int k = rowIndex(r);
+		if( k < 0 ) //nothing to delete
+			return;
+		
+		int pos = _ptr[k];
+		int len = _ptr[k+1] - pos;
+		int start = lowerBound(pos, len, cl);
+		int end = lowerBound(pos, len, cu);
+		if( start == end ) //nothing to delete
+			return;
+		
+		//overlapping array copy (shift rhs values left)
+		shiftLeftByN(end, end-start);
+		decrPtr(k+1, end-start);
+		if( end-start == len )
+			removeRow(k);
+	}
+
+	@Override
+	public void sort() {
+		for( int k=0; k<_nrows; k++ )
+			sortRow(k);
+	}
+
+	@Override
+	public void sort(int r) {
+		int k = rowIndex(r);
+		if( k >= 0 )
+			sortRow(k);
+	}
+
+	@Override
+	public double get(int r, int c) {
+		int k = rowIndex(r);
+		if( k < 0 )
+			return 0;
+		
+		//search for existing col index in [pos,pos+len)
+		int index = Arrays.binarySearch(_indexes, _ptr[k], _ptr[k+1], c);
+		return (index >= 0) ? _values[index] : 0;
+	}
+	
+	@Override 
+	public SparseRow get(int r) {
+		int k = rowIndex(r);
+		if( k < 0 )
+			return new SparseRowScalar();
+		int pos = _ptr[k];
+		int len = _ptr[k+1] - pos;
+		
+		SparseRowVector row = new SparseRowVector(len);
+		System.arraycopy(_indexes, pos, row.indexes(), 0, len);
+		System.arraycopy(_values, pos, row.values(), 0, len);
+		row.setSize(len);
+		return row;
+	}
+	
+	@Override
+	public int posFIndexLTE(int r, int c) {
+		int k = rowIndex(r);
+		if( k < 0 )
+			return -1;
+		int pos = _ptr[k];
+		int len = _ptr[k+1] - pos;
+		
+		//search for existing col index in [pos,pos+len)
+		int index = Arrays.binarySearch(_indexes, pos, pos+len, c);
+		if( index >= 0 )
+			return index-pos;
+		
+		//search lt col index (see binary search)
+		index = Math.abs( index+1 );
+		return (index-1 >= pos) ? index-1-pos : -1;
+	}
+
+	@Override
+	public int posFIndexGTE(int r, int c) {
+		int k = rowIndex(r);
+		if( k < 0 )
+			return -1;
+		int pos = _ptr[k];
+		int len = _ptr[k+1] - pos;
+		
+		//search for existing or gt col index
+		int index = lowerBound(pos, len, c);
+		return (index < pos+len) ? index-pos : -1;
+	}
+
+	@Override
+	public int posFIndexGT(int r, int c) {
+		int k = rowIndex(r);
+		if( k < 0 )
+			return -1;
+		int pos = _ptr[k];
+		int len = _ptr[k+1] - pos;
+		
+		//search for gt col index
+		int index = lowerBound(pos, len, c);
+		if( index < pos+len && _indexes[index] == c )
+			index++;
+		return (index < pos+len) ? index-pos : -1;
+	}
+	
+	@Override
+	public Iterator<IJV> getIterator() {
+		return new SparseBlockDCSRIterator(0, _nrows);
+	}
+	
+	@Override
+	public Iterator<IJV> getIterator(int ru) {
+		return new SparseBlockDCSRIterator(0, rowLowerBound(ru));
+	}
+
+	@Override
+	public Iterator<IJV> getIterator(int rl, int ru) {
+		return new SparseBlockDCSRIterator(rowLowerBound(rl), rowLowerBound(ru));
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("SparseBlockDCSR: rlen=");
+		sb.append(_rlen);
+		sb.append(", nnz=");
+		sb.append(_size);
+		sb.append(", non-empty rows=");
+		sb.append(_nrows);
+		sb.append("\n");
+		for( int k=0; k<_nrows; k++ ) {
+			sb.append("row +");
+			sb.append(_rindexes[k]);
+			sb.append(": ");
+			//append row
+			for(int j=_ptr[k]; j<_ptr[k+1]; j++) {
+				sb.append(_indexes[j]);
+				sb.append(": ");
+				sb.append(_values[j]);
+				sb.append("\t");
+			}
+			sb.append("\n");
+		}
+		
+		return sb.toString();
+	}
+
+	@Override
+	public boolean checkValidity(int rlen, int clen, long nnz, boolean strict) {
+		//1. correct meta data
+		if( rlen < 0 || clen < 0 || rlen != _rlen )
+			throw new RuntimeException("Invalid block dimensions: "+rlen+" "+clen);
+
+		//2. correct array lengths
+		if( _size != nnz || _ptr[_nrows] != _size
+			|| _values.length < nnz || _indexes.length < nnz )
+			throw new RuntimeException("Incorrect array lengths.");
+		
+		//3. strictly increasing row indexes of non-empty rows
+		for( int k=0; k<_nrows; k++ ) {
+			if( (k>0 && _rindexes[k-1] >= _rindexes[k]) || _rindexes[k] >= _rlen )
+				throw new RuntimeException("Wrong row indexes at non-empty row: "+k);
+			if( _ptr[k] >= _ptr[k+1] )
+				throw new RuntimeException("Empty or decreasing row pointers at row: "+_rindexes[k]
+					+ ", with pointers "+_ptr[k]+" >= "+_ptr[k+1]);
+		}
+		
+		//4. consistent row bitmap and rank directory
+		if( _bits.length > _stale )
+			updateRank(_bits.length-1);
+		for( int w=0, cnt=0; w<_bits.length; w++ ) {
+			if( _rank[w] != cnt )
+				throw new RuntimeException("Wrong row rank at word: "+w+", "+_rank[w]+" vs "+cnt);
+			cnt += Long.bitCount(_bits[w]);
+		}
+		for( int k=0; k<_nrows; k++ )
+			if( rowIndex(_rindexes[k]) != k )
+				throw new RuntimeException("Wrong row bitmap at row: "+_rindexes[k]);
+
+		//5. sorted column indexes per row, non-existing zero values
+		for( int k=0; k<_nrows; k++ ) {
+			for( int j=_ptr[k]; j<_ptr[k+1]; j++ ) {
+				if( j>_ptr[k] && _indexes[j-1] >= _indexes[j] )
+					throw new RuntimeException("Wrong sparse row ordering: "
+						+ j + " "+_indexes[j-1]+" "+_indexes[j]);
+				if( _values[j] == 0 )
+					throw new RuntimeException("Wrong sparse row: zero at "
+						+ j + " at col index " + _indexes[j]);
+			}
+		}
+
+		return true;
+	}
+
+	///////////////////////////
+	// private helper methods
+	
+	/**
+	 * Obtains the position of row r in the array of non-empty rows
+	 * via the row bitmap and rank directory in amortized constant time.
+	 * 
+	 * @param r row index
+	 * @return position if non-empty, otherwise -(insertion point)-1
+	 */
+	private int rowIndex(int r) {
+		int w = r >>> 6;
+		long mask = 1L << (r & 63);
+		if( w >= _stale )
+			updateRank(w);
+		int k = _rank[w] + Long.bitCount(_bits[w] & (mask-1));
+		return ((_bits[w] & mask) != 0) ? k : -k-1;
+	}
+	
+	private int rowLowerBound(int r) {
+		if( r >= _rlen )
+			return _nrows;
+		int k = rowIndex(r);
+		return (k >= 0) ? k : -k-1;
+	}
+	
+	private int lowerBound(int pos, int len, int c) {
+		int index = Arrays.binarySearch(_indexes, pos, pos+len, c);
+		return (index >= 0) ? index : -index-1;
+	}
+	
+	private int ensureRow(int r) {
+		int k = rowIndex(r);
+		return (k >= 0) ? k : insertRow(r, -k-1);
+	}
+	
+	private int insertRow(int r, int k) {
+		if( _nrows == _rindexes.length ) {
+			int newCap = (int)Math.min(Math.max(
+				_rindexes.length * RESIZE_FACTOR1, INIT_CAPACITY), _rlen);
+			_rindexes = Arrays.copyOf(_rindexes, newCap);
+			_ptr = Arrays.copyOf(_ptr, newCap+1);
+		}
+		//shift rhs rows right by 1, new row empty at ptr[k]
+		System.arraycopy(_rindexes, k, _rindexes, k+1, _nrows-k);
+		System.arraycopy(_ptr, k, _ptr, k+1, _nrows-k+1);
+		_rindexes[k] = r;
+		_nrows++;
+		
+		//update row bitmap, invalidate rank directory of following words
+		_bits[r >>> 6] |= 1L << (r & 63);
+		_stale = Math.min(_stale, (r>>>6)+1);
+		return k;
+	}
+	
+	private void removeRow(int k) {
+		int r = _rindexes[k];
+		//shift rhs rows left by 1 (row k empty)
+		System.arraycopy(_rindexes, k+1, _rindexes, k, _nrows-k-1);
+		System.arraycopy(_ptr, k+1, _ptr, k, _nrows-k);
+		_nrows--;
+		
+		//update row bitmap, invalidate rank directory of following words
+		_bits[r >>> 6] &= ~(1L << (r & 63));
+		_stale = Math.min(_stale, (r>>>6)+1);
+	}
+	
+	/**
+	 * Lazily recomputes the outdated rank directory up to and including
+	 * word w, which makes row insertions and removals independent of the
+	 * number of rows. The stale marker is published after the ranks, so 
+	 * concurrent readers either see valid ranks or recompute the same values.
+	 * 
+	 * @param w word index
+	 */
+	private void updateRank(int w) {
+		//note: stale>=1 because word 0 has always rank 0
+		for( int i=_stale; i<=w; i++ )
+			_rank[i] = _rank[i-1] + Long.bitCount(_bits[i-1]);
+		_stale = w + 1;
+	}
+	
+	private void buildRowIndex() {
+		for( int k=0; k<_nrows; k++ )
+			_bits[_rindexes[k] >>> 6] |= 1L << (_rindexes[k] & 63);
+		for( int w=0, cnt=0; w<_bits.length; w++ ) {
+			_rank[w] = cnt;
+			cnt += Long.bitCount(_bits[w]);
+		}
+		_stale = _bits.length;
+	}
+	
+	private int prepareIndexRange(int r, int cl, int len) {
+		if( _values.length < _size+len )
+			resize(_size+len);
+		int k = ensureRow(r);
+		int index = lowerBound(_ptr[k], _ptr[k+1]-_ptr[k], cl);
+		shiftRightByN(index, len);
+		incrPtr(k+1, len);
+		return index;
+	}
+	
+	private void sortRow(int k) {
+		int pos = _ptr[k];
+		int len = _ptr[k+1] - pos;
+		if( len<=100 || !SortUtils.isSorted(pos, pos+len, _indexes) )
+			SortUtils.sortByIndex(pos, pos+len, _indexes, _values);
+	}
+	
+	private int newCapacity(int minsize) {
+		//compute new size until minsize reached
+		double tmpCap = Math.max(_values.length, 1);
+		while( tmpCap < minsize ) {
+			tmpCap *= (tmpCap <= 1024) ? 
+				RESIZE_FACTOR1 : RESIZE_FACTOR2;
+		}
+		return (int)Math.min(tmpCap, Integer.MAX_VALUE);
+	}
+
+	private void resize(int minsize) {
+		//reallocate arrays and copy old values
+		int newCap = newCapacity(minsize);
+		_indexes = Arrays.copyOf(_indexes, newCap);
+		_values = Arrays.copyOf(_values, newCap);
+	}
+	
+	private void insert(int ix, int c, double v) {
+		if( _size == _values.length )
+			resize(_size+1);
+		shiftRightByN(ix, 1);
+		_indexes[ix] = c;
+		_values[ix] = v;
+	}
+	
+	private void shiftRightByN(int ix, int n) {
+		//overlapping array copy (shift rhs values right by n)
+		System.arraycopy(_indexes, ix, _indexes, ix+n, _size-ix);
+		System.arraycopy(_values, ix, _values, ix+n, _size-ix);
+		_size += n;
+	}
+
+	private void shiftLeftByN(int ix, int n) {
+		//overlapping array copy (shift rhs values left by n)
+		System.arraycopy(_indexes, ix, _indexes, ix-n, _size-ix);
+		System.arraycopy(_values, ix, _values, ix-n, _size-ix);
+		_size -= n;
+	}
+
+	private void incrPtr(int kl, int cnt) {
+		for( int k=kl; k<_nrows+1; k++ )
+			_ptr[k] += cnt;
+	}
+
+	private void decrPtr(int kl, int cnt) {
+		for( int k=kl; k<_nrows+1; k++ )
+			_ptr[k] -= cnt;
+	}
+	
+	/**
+	 * Iterator over the non-empty rows [kl, ku) in compressed form,
+	 * which avoids scanning empty rows.
+	 */
+	private class SparseBlockDCSRIterator implements Iterator<IJV>
+	{
+		private int _k = 0;   //current non-empty row
+		private int _pos = 0; //current nnz position
+		private int _len = 0; //upper nnz position (exclusive)
+		private IJV retijv = new IJV(); //reuse output tuple
+
+		protected SparseBlockDCSRIterator(int kl, int ku) {
+			_k = kl;
+			_pos = _ptr[kl];
+			_len = _ptr[ku];
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return _pos<_len;
+		}
+
+		@Override
+		public IJV next( ) {
+			while( _ptr[_k+1] <= _pos )
+				_k++;
+			retijv.set(_rindexes[_k], _indexes[_pos], _values[_pos]);
+			_pos++;
+			return retijv;
+		}
+
+		@Override
+		public void remove() {
+			throw new RuntimeException("SparseBlockDCSRIterator is unsupported!");
+		}
+	}
+}
@@ -19,6 +19,7 @@ package org.tugraz.sysds.runtime.data;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.apache.commons.lang.NotImplementedException;
 import org.tugraz.sysds.common.Types.BlockType;
@@ -26,11 +27,16 @@ import org.tugraz.sysds.common.Types.ValueType;
 import org.tugraz.sysds.lops.PartialAggregate;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.controlprogram.caching.CacheBlock;
+import org.tugraz.sysds.runtime.functionobjects.Divide;
 import org.tugraz.sysds.runtime.functionobjects.KahanPlus;
+import org.tugraz.sysds.runtime.functionobjects.Power;
 import org.tugraz.sysds.runtime.functionobjects.ReduceAll;
+import org.tugraz.sysds.runtime.functionobjects.ReduceCol;
+import org.tugraz.sysds.runtime.functionobjects.ReduceRow;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.operators.AggregateOperator;
 import org.tugraz.sysds.runtime.matrix.operators.AggregateUnaryOperator;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
 import org.tugraz.sysds.runtime.util.UtilFunctions;
 
 public class TensorBlock implements CacheBlock
@@ -148,7 +154,7 @@ public class TensorBlock implements CacheBlock
 		//handle to dense block allocation and
 		//reset dense block to given value
 		if( _denseBlock != null )
-			_denseBlock.reset(getDim(0), getDim(1), val);
+			_denseBlock.reset(_dims, val);
 		else {
 			if( val != 0 ) {
 				allocateDenseBlock(false);
@@ -394,9 +400,7 @@ public class TensorBlock implements CacheBlock
 	
 	public double get(int[] ix) {
 		if (_sparse) {
-			// TODO: Implement sparse
-			throw new NotImplementedException();
-			//return _sparseBlock.get(ix);
+			return get(ix[0], getColIndex(ix));
 		} else {
 			return _denseBlock.get(ix);
 		}
@@ -404,9 +408,8 @@ public class TensorBlock implements CacheBlock
 	
 	public double get(int r, int c) {
 		if (_sparse) {
-			// TODO: Implement sparse
-			throw new NotImplementedException();
-			//return _sparseBlock.get(ix);
+			//sparse tensors use the linearized dims 1 to n-1 as columns
+			return (_sparseBlock != null) ? _sparseBlock.get(r, c) : 0;
 		} else {
 			return _denseBlock.get(r, c);
 		}
@@ -424,7 +427,7 @@ public class TensorBlock implements CacheBlock
 
 	public void set(int[] ix, double v) {
 		if (_sparse) {
-			throw new NotImplementedException();
+			set(ix[0], getColIndex(ix), v);
 		} else {
 			_denseBlock.set(ix, v);
 		}
@@ -432,7 +435,9 @@ public class TensorBlock implements CacheBlock
 	
 	public void set(int r, int c, double v) {
 		if (_sparse) {
-			throw new NotImplementedException();
+			if( _sparseBlock == null )
+				allocateSparseBlock(false);
+			_sparseBlock.set(r, c, v);
 		} else {
 			_denseBlock.set(r, c, v);
 		}
@@ -525,6 +530,82 @@ public class TensorBlock implements CacheBlock
 		_denseBlock.set(that._denseBlock);
 	}
 
+	/**
+	 * Gets the column index of a cell in the linearized representation
+	 * of dims 1 to n-1, which is used as column index of sparse tensors.
+	 * 
+	 * @param ix cell index
+	 * @return linearized column index
+	 */
+	private int getColIndex(int[] ix) {
+		int c = 0;
+		for( int i=1; i<ix.length; i++ )
+			c = c * _dims[i] + ix[i];
+		return c;
+	}
+	
+	/**
+	 * Copies the values of a row (i.e., all cells with the given index in
+	 * the first dimension, linearized over dims 1 to n-1) in the given column
+	 * range into a dense array, for both dense and sparse tensor blocks.
+	 * 
+	 * @param r row index
+	 * @param cl column lower index
+	 * @param cu column upper index (exclusive)
+	 * @param c output array
+	 * @param cpos output array offset
+	 */
+	void getRow(int r, int cl, int cu, double[] c, int cpos) {
+		if( _sparse ) {
+			Arrays.fill(c, cpos, cpos+cu-cl, 0);
+			if( _sparseBlock == null || _sparseBlock.isEmpty(r) )
+				return;
+			int apos = _sparseBlock.pos(r);
+			int alen = _sparseBlock.size(r);
+			int[] aix = _sparseBlock.indexes(r);
+			double[] avals = _sparseBlock.values(r);
+			int k = (cl == 0) ? 0 : _sparseBlock.posFIndexGTE(r, cl);
+			for( k = (k < 0) ? alen : k; k<alen && aix[apos+k]<cu; k++ )
+				c[cpos + aix[apos+k] - cl] = avals[apos+k];
+		}
+		else if( _denseBlock == null )
+			Arrays.fill(c, cpos, cpos+cu-cl, 0);
+		else if( _vt == ValueType.FP64 )
+			_denseBlock.getRow(r, cl, cu, c, cpos);
+		else
+			for( int j=cl; j<cu; j++ )
+				c[cpos + j - cl] = _denseBlock.get(r, j);
+	}
+	
+	/**
+	 * Copies the values of the given array into the given row and column
+	 * range of an allocated dense tensor block (linearized over dims 1 to n-1).
+	 * 
+	 * @param r row index
+	 * @param cl column lower index
+	 * @param cu column upper index (exclusive)
+	 * @param a input array
+	 * @param apos input array offset
+	 * @return number of non-zeros of the copied values
+	 */
+	int setRow(int r, int cl, int cu, double[] a, int apos) {
+		if( _vt == ValueType.FP64 )
+			_denseBlock.setRow(r, cl, cu, a, apos);
+		else
+			for( int j=cl; j<cu; j++ )
+				_denseBlock.set(r, j, a[apos + j - cl]);
+		return UtilFunctions.computeNnz(a, apos, cu-cl);
+	}
+	
+	/**
+	 * Gets the number of cells per row, i.e., the product of dims 1 to n-1.
+	 * 
+	 * @return row length
+	 */
+	int getRowLength() {
+		return (int) UtilFunctions.prod(_dims, 1);
+	}
+
 	////////
 	// Size estimation and format decisions
 	
@@ -537,7 +618,12 @@ public class TensorBlock implements CacheBlock
 	///////
 	// Aggregations
 	public TensorBlock aggregateUnaryOperations(AggregateUnaryOperator op, TensorBlock result) {
-		// TODO allow to aggregate along a dimension?
+		//column and row aggregates along the first and second dimension
+		if( op.indexFn instanceof ReduceRow )
+			return aggregateUnaryOperations(op, 0, result);
+		else if( op.indexFn instanceof ReduceCol )
+			return aggregateUnaryOperations(op, 1, result);
+		
 		// TODO performance
 		int dim0 = 1;
 		int dim1 = 1;
@@ -554,12 +640,76 @@ public class TensorBlock implements CacheBlock
 			if (op.indexFn instanceof ReduceAll)
 				LibTensorAgg.aggregateUnaryTensor(this, result, op);
 			else
-				throw new DMLRuntimeException("Only ReduceAll UnaryAggregationOperators are supported for tensor");
+				throw new DMLRuntimeException("Only ReduceAll, ReduceRow and ReduceCol UnaryAggregationOperators are supported for tensor");
 		else
 			throw new DMLRuntimeException("Current UnaryAggregationOperator not supported for tensor");
 		return result;
 	}
 
+	/**
+	 * Aggregates the tensor along the given axis, where the result has
+	 * the same dimensions except size 1 for the aggregated axis. Sums are
+	 * computed in FP64 for floating point and INT64 for other value types.
+	 * 
+	 * @param op aggregate unary operator (index function ignored)
+	 * @param axis dimension to aggregate
+	 * @param result output tensor block or null
+	 * @return output tensor block
+	 */
+	public TensorBlock aggregateUnaryOperations(AggregateUnaryOperator op, int axis, TensorBlock result) {
+		if( !LibTensorAgg.isSupportedUnaryAggregateOperator(op) )
+			throw new DMLRuntimeException("Current UnaryAggregationOperator not supported for tensor");
+		if( axis < 0 || axis >= getNumDims() )
+			throw new DMLRuntimeException("Invalid aggregation axis "+axis+" for tensor with "+getNumDims()+" dimensions.");
+		
+		ValueType vt = !(op.aggOp.increOp.fn instanceof KahanPlus) ? _vt :
+			(_vt == ValueType.FP32 || _vt == ValueType.FP64) ? ValueType.FP64 : ValueType.INT64;
+		if( result == null || result.getValueType() != vt )
+			result = new TensorBlock(vt, DEFAULT_DIMS.clone(), false);
+		LibTensorAgg.aggregateUnaryTensor(this, result, op, axis);
+		return result;
+	}
+	
+	///////
+	// Binary and reorg operations
+	
+	/**
+	 * Cell-wise binary operation with broadcasting of dimensions of size 1
+	 * (see LibTensorBincell). The result has the common value type of both
+	 * inputs, except FP64 for divisions, powers and mixed value types.
+	 * 
+	 * @param op binary operator
+	 * @param that second input tensor block
+	 * @param result output tensor block or null
+	 * @return output tensor block
+	 */
+	public TensorBlock binaryOperations(BinaryOperator op, TensorBlock that, TensorBlock result) {
+		ValueType vt = (_vt == that._vt && _vt != ValueType.BOOLEAN
+			&& !(op.fn instanceof Divide || op.fn instanceof Power)) ? _vt : ValueType.FP64;
+		if( result == null || result.getValueType() != vt )
+			result = new TensorBlock(vt, DEFAULT_DIMS.clone(), false);
+		LibTensorBincell.bincellOp(this, that, result, op);
+		return result;
+	}
+	
+	public TensorBlock permute(int[] perm, TensorBlock result, int k) {
+		if( result == null || result.getValueType() != _vt )
+			result = new TensorBlock(_vt, DEFAULT_DIMS.clone(), false);
+		return LibTensorReorg.permute(this, result, perm, k);
+	}
+	
+	public TensorBlock transpose(TensorBlock result, int k) {
+		if( result == null || result.getValueType() != _vt )
+			result = new TensorBlock(_vt, DEFAULT_DIMS.clone(), false);
+		return LibTensorReorg.transpose(this, result, k);
+	}
+	
+	public TensorBlock slice(int[] lower, int[] upper, TensorBlock result, int k) {
+		if( result == null || result.getValueType() != _vt )
+			result = new TensorBlock(_vt, DEFAULT_DIMS.clone(), false);
+		return LibTensorReorg.slice(this, result, lower, upper, k);
+	}
+
 	public void incrementalAggregate(AggregateOperator aggOp, TensorBlock newWithCorrection) {
 		if(aggOp.correctionLocation == PartialAggregate.CorrectionLocationType.LASTROW ||
 			aggOp.correctionLocation == PartialAggregate.CorrectionLocationType.LASTCOLUMN)
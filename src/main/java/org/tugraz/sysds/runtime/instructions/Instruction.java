@@ -61,6 +61,7 @@ public abstract class Instruction
 	protected int endLine = -1;  
 	protected int beginCol = -1; 
 	protected int endCol = -1;
+	protected long hopID = -1;
 	
 	public String getFilename() {
 		return filename;
@@ -82,6 +83,14 @@ public abstract class Instruction
 		return endCol;
 	}
 	
+	/**
+	 * Getter for the originating hop ID (if known)
+	 * @return hop ID, -1 if unknown
+	 */
+	public long getHopID() {
+		return hopID;
+	}
+	
 	public abstract IType getType();
 	
 	public void setLocation(String filename, int beginLine, int endLine, int beginCol, int endCol) {
@@ -99,6 +108,7 @@ public abstract class Instruction
 			this.endLine = lop._endLine;
 			this.beginCol = lop._beginColumn;
 			this.endCol = lop._endColumn;
+			this.hopID = lop.getHopID();
 		}
 	}
 	
@@ -119,6 +129,7 @@ public abstract class Instruction
 			this.endLine = oldInst.endLine;
 			this.beginCol = oldInst.beginCol;
 			this.endCol = oldInst.endCol;
+			this.hopID = oldInst.hopID;
 		}
 	}
 	
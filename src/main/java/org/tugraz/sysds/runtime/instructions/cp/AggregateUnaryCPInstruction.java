@@ -188,7 +188,8 @@ public class AggregateUnaryCPInstruction extends UnaryCPInstruction
 							case INT32:
 								// Calculate accurate result
 								long sum = UtilFunctions.toLong(resultBlock.get(new int[]{0, 0}));
-								long corr = UtilFunctions.toLong(resultBlock.get(new int[]{0, 1}));
+								long corr = (resultBlock.getDim(1) > 1) ? //no correction for min/max
+									UtilFunctions.toLong(resultBlock.get(new int[]{0, 1})) : 0;
 								IntObject i = new IntObject(sum + corr);
 								ec.setScalarOutput(output_name, i);
 								break;
@@ -23,6 +23,7 @@ import org.tugraz.sysds.common.Types.DataType;
 import org.tugraz.sysds.common.Types.ValueType;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.instructions.InstructionUtils;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
 import org.tugraz.sysds.runtime.matrix.operators.Operator;
 
 public abstract class BinaryCPInstruction extends ComputationCPInstruction {
@@ -48,15 +49,28 @@ public abstract class BinaryCPInstruction extends ComputationCPInstruction {
 		
 		if( in1.getDataType() == DataType.SCALAR && in2.getDataType() == DataType.SCALAR ) 
 			return new BinaryScalarScalarCPInstruction(operator, in1, in2, out, opcode, str);
-		else if( in1.getDataType() == DataType.MATRIX && in2.getDataType() == DataType.MATRIX )
+		else if( in1.getDataType() == DataType.MATRIX && in2.getDataType() == DataType.MATRIX ) {
+			//degree of parallelism for matrix-matrix operations (if given)
+			String[] parts = InstructionUtils.getInstructionPartsWithValueType(str);
+			if( parts.length == 5 && (operator == null || operator instanceof BinaryOperator) )
+				operator = new BinaryOperator((operator != null) ? //null for solve
+					((BinaryOperator)operator).fn : null, Integer.parseInt(parts[4]));
 			return new BinaryMatrixMatrixCPInstruction(operator, in1, in2, out, opcode, str);
+		}
+		else if( in1.getDataType() == DataType.TENSOR && in2.getDataType() == DataType.TENSOR ) {
+			//degree of parallelism for tensor-tensor operations (if given)
+			String[] parts = InstructionUtils.getInstructionPartsWithValueType(str);
+			if( parts.length == 5 && operator instanceof BinaryOperator )
+				operator = new BinaryOperator(((BinaryOperator)operator).fn, Integer.parseInt(parts[4]));
+			return new BinaryTensorTensorCPInstruction(operator, in1, in2, out, opcode, str);
+		}
 		else
 			return new BinaryMatrixScalarCPInstruction(operator, in1, in2, out, opcode, str);
 	}
 	
 	protected static String parseBinaryInstruction(String instr, CPOperand in1, CPOperand in2, CPOperand out) {
 		String[] parts = InstructionUtils.getInstructionPartsWithValueType(instr);
-		InstructionUtils.checkNumFields ( parts, 3 );
+		InstructionUtils.checkNumFields ( parts, 3, 4 );
 		String opcode = parts[0];
 		in1.split(parts[1]);
 		in2.split(parts[2]);
@@ -82,5 +96,8 @@ public abstract class BinaryCPInstruction extends ComputationCPInstruction {
 		if((in1.getDataType() == DataType.MATRIX || in2.getDataType() == DataType.MATRIX) && out.getDataType() != DataType.MATRIX)
 			throw new DMLRuntimeException("Element-wise matrix operations between variables " + in1.getName() + 
 					" and " + in2.getName() + " must produce a matrix, which " + out.getName() + " is not");
+		if( in1.getDataType() == DataType.TENSOR && in2.getDataType() == DataType.TENSOR && out.getDataType() != DataType.TENSOR )
+			throw new DMLRuntimeException("Element-wise tensor operations between variables " + in1.getName() + 
+					" and " + in2.getName() + " must produce a tensor, which " + out.getName() + " is not");
 	}
 }
@@ -35,8 +35,9 @@ public class BinaryMatrixMatrixCPInstruction extends BinaryCPInstruction {
 	@Override
 	public void processInstruction(ExecutionContext ec) {
 		if ( LibCommonsMath.isSupportedMatrixMatrixOperation(getOpcode()) ) {
+			int k = (_optr != null) ? ((BinaryOperator)_optr).getNumThreads() : 1;
 			MatrixBlock solution = LibCommonsMath.matrixMatrixOperations(
-				ec.getMatrixInput(input1.getName()), ec.getMatrixInput(input2.getName()), getOpcode());
+				ec.getMatrixInput(input1.getName()), ec.getMatrixInput(input2.getName()), getOpcode(), k);
 			ec.setMatrixOutput(output.getName(), solution);
 			ec.releaseMatrixInput(input1.getName());
 			ec.releaseMatrixInput(input2.getName());
@@ -114,9 +114,9 @@ public class DataGenCPInstruction extends UnaryCPInstruction {
 	}
 
 	private DataGenCPInstruction(Operator op, DataGenMethod mthd, CPOperand in, CPOperand out, CPOperand rows, CPOperand cols,
-			CPOperand dims, int rpb, int cpb, String maxValue, boolean replace, long seed, String opcode, String istr) {
+			CPOperand dims, int rpb, int cpb, String maxValue, boolean replace, long seed, int k, String opcode, String istr) {
 		this(op, mthd, in, out, rows, cols, dims, rpb, cpb, "0", maxValue, 1.0, seed,
-			null, null, 1, null, null, null, replace, opcode, istr);
+			null, null, k, null, null, null, replace, opcode, istr);
 	}
 
 	private DataGenCPInstruction(Operator op, DataGenMethod mthd, CPOperand in, CPOperand out, CPOperand rows, CPOperand cols,
@@ -189,8 +189,8 @@ public class DataGenCPInstruction extends UnaryCPInstruction {
 		}
 		else if ( opcode.equalsIgnoreCase(DataGen.SAMPLE_OPCODE) ) {
 			method = DataGenMethod.SAMPLE;
-			// 7 operands: range, size, replace, seed, rpb, cpb, outvar
-			InstructionUtils.checkNumFields ( s, 7 ); 
+			// 8 operands: range, size, replace, seed, rpb, cpb, k, outvar
+			InstructionUtils.checkNumFields ( s, 8 ); 
 		}
 		else if ( opcode.equalsIgnoreCase(DataGen.TIME_OPCODE) ) {
 			method = DataGenMethod.TIME;
@@ -240,8 +240,9 @@ public class DataGenCPInstruction extends UnaryCPInstruction {
 			long seed = Long.parseLong(s[SEED_POSITION_SAMPLE]);
 			int rpb = Integer.parseInt(s[5]);
 			int cpb = Integer.parseInt(s[6]);
+			int k = Integer.parseInt(s[7]);
 			
-			return new DataGenCPInstruction(op, method, null, out, rows, cols, null, rpb, cpb, s[1], replace, seed, opcode, str);
+			return new DataGenCPInstruction(op, method, null, out, rows, cols, null, rpb, cpb, s[1], replace, seed, k, opcode, str);
 		}
 		else if ( method == DataGenMethod.TIME) 
 		{
@@ -336,7 +337,7 @@ public class DataGenCPInstruction extends UnaryCPInstruction {
 				throw new DMLRuntimeException("Sample (size=" + lrows + ") larger than population (size=" + range + ") can only be generated with replacement.");
 			
 			//TODO handle runtime seed
-			soresBlock = MatrixBlock.sampleOperations(range, (int)lrows, replace, seed);
+			soresBlock = MatrixBlock.sampleOperations(range, (int)lrows, replace, seed, numThreads);
 		}
 		else if ( method == DataGenMethod.TIME ) {
 			soresScalar = new IntObject(System.nanoTime());
@@ -29,6 +29,7 @@ import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
 import org.tugraz.sysds.runtime.instructions.InstructionUtils;
 import org.tugraz.sysds.runtime.matrix.data.DnnParameters;
 import org.tugraz.sysds.runtime.matrix.data.LibMatrixDNN;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixDNNRelu;
 import org.tugraz.sysds.runtime.matrix.data.LibMatrixNative;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.data.LibMatrixDNN.PoolingType;
@@ -192,7 +193,7 @@ public class DnnCPInstruction extends UnaryCPInstruction {
 			return new DnnCPInstruction(in, in2, out, opcode, str, stride,
 					padding, input_shape, filter_shape, k, Double.parseDouble(parts[17]));
 		}
-		else if (opcode.equalsIgnoreCase("conv2d_bias_add")) {
+		else if (opcode.equalsIgnoreCase("conv2d_bias_add") || opcode.equalsIgnoreCase("conv2d_bias_add_relu")) {
 			InstructionUtils.checkNumFields(parts, 18);
 			// dout, stride1, stride2, padding1, padding2
 			// input_shape1, input_shape2, input_shape3, input_shape4,
@@ -500,7 +501,8 @@ public class DnnCPInstruction extends UnaryCPInstruction {
 			}
 			ec.releaseMatrixInput(_in2.getName());
 		}
-		else if (instOpcode.equalsIgnoreCase("conv2d_bias_add")) {
+		else if (instOpcode.equalsIgnoreCase("conv2d_bias_add") || instOpcode.equalsIgnoreCase("conv2d_bias_add_relu")) {
+			boolean relu = instOpcode.equalsIgnoreCase("conv2d_bias_add_relu");
 			resetNumThreads(params, C*R*S, P*Q, matBlock.getNonZeros() / (matBlock.getNumRows()*matBlock.getNumColumns()));
 			MatrixBlock filter = ec.getMatrixInput(_in3.getName());
 			MatrixBlock bias = ec.getMatrixInput(_in2.getName());
@@ -520,6 +522,9 @@ public class DnnCPInstruction extends UnaryCPInstruction {
 				for(int n = 0;  n < params.N; n++) 
 					DnnUtils.fillBias(bias, outputBlock.getDenseBlockValues(),
 						n, n+1, params.N, params.K, params.P*params.Q);
+				if(relu) // relu(bias_add(empty mb, bias))
+					LibMatrixDNNRelu.reluInPlace(outputBlock.getDenseBlockValues(), 0, N*K*P*Q);
+				outputBlock.recomputeNonZeros();
 			}
 			else {
 				outputBlock = new MatrixBlock(N, K*P*Q, false).allocateBlock();
@@ -527,6 +532,7 @@ public class DnnCPInstruction extends UnaryCPInstruction {
 					// Handle situation where both input and filter are non empty, but bias is empty
 					params.bias = bias;
 				}
+				params.applyRelu = relu;
 				if(params.enableNative && !isFilterSparse(filter) && !matBlock.isInSparseFormat())
 					LibMatrixNative.conv2d(matBlock, filter, outputBlock, params);
 				else
@@ -23,6 +23,7 @@ import org.tugraz.sysds.lops.LeftIndex;
 import org.tugraz.sysds.lops.RightIndex;
 import org.tugraz.sysds.common.Types.DataType;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.controlprogram.caching.FrameObject;
 import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
 import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
 import org.tugraz.sysds.runtime.util.IndexRange;
@@ -34,6 +35,11 @@ public final class FrameIndexingCPInstruction extends IndexingCPInstruction {
 		super(in, rl, ru, cl, cu, out, opcode, istr);
 	}
 
+	protected FrameIndexingCPInstruction(CPOperand in, CPOperand rl, CPOperand ru, CPOperand cl,
+			CPOperand cu, CPOperand out, boolean pushdown, String opcode, String istr) {
+		super(in, rl, ru, cl, cu, out, pushdown, opcode, istr);
+	}
+
 	protected FrameIndexingCPInstruction(CPOperand lhsInput, CPOperand rhsInput, CPOperand rl,
 			CPOperand ru, CPOperand cl, CPOperand cu, CPOperand out, String opcode, String istr) {
 		super(lhsInput, rhsInput, rl, ru, cl, cu, out, opcode, istr);
@@ -46,12 +52,20 @@ public final class FrameIndexingCPInstruction extends IndexingCPInstruction {
 		
 		//right indexing
 		if( opcode.equalsIgnoreCase(RightIndex.OPCODE) ) {
-			//execute right indexing operation
-			FrameBlock in = ec.getFrameInput(input1.getName());
-			FrameBlock out = in.slice(ixrange, new FrameBlock());
+			FrameObject fo = ec.getFrameObject(input1.getName());
+			FrameBlock out = null;
 			
-			//unpin rhs input
-			ec.releaseFrameInput(input1.getName());
+			if( readPushdown && fo.allowsRangeRead() ) { //via range read
+				out = fo.readFrameRange(ixrange);
+			}
+			else { //via slicing the in-memory frame
+				//execute right indexing operation
+				FrameBlock in = ec.getFrameInput(input1.getName());
+				out = in.slice(ixrange, new FrameBlock());
+				
+				//unpin rhs input
+				ec.releaseFrameInput(input1.getName());
+			}
 			
 			//unpin output
 			ec.setFrameOutput(output.getName(), out);
@@ -29,14 +29,21 @@ import org.tugraz.sysds.runtime.util.IndexRange;
 
 public abstract class IndexingCPInstruction extends UnaryCPInstruction {
 	protected final CPOperand rowLower, rowUpper, colLower, colUpper;
+	protected final boolean readPushdown; //range read of persistent inputs
 
 	protected IndexingCPInstruction(CPOperand in, CPOperand rl, CPOperand ru, CPOperand cl, CPOperand cu,
 			CPOperand out, String opcode, String istr) {
+		this(in, rl, ru, cl, cu, out, false, opcode, istr);
+	}
+
+	protected IndexingCPInstruction(CPOperand in, CPOperand rl, CPOperand ru, CPOperand cl, CPOperand cu,
+			CPOperand out, boolean pushdown, String opcode, String istr) {
 		super(CPType.MatrixIndexing, null, in, out, opcode, istr);
 		rowLower = rl;
 		rowUpper = ru;
 		colLower = cl;
 		colUpper = cu;
+		readPushdown = pushdown;
 	}
 
 	protected IndexingCPInstruction(CPOperand lhsInput, CPOperand rhsInput, CPOperand rl, CPOperand ru,
@@ -46,6 +53,7 @@ public abstract class IndexingCPInstruction extends UnaryCPInstruction {
 		rowUpper = ru;
 		colLower = cl;
 		colUpper = cu;
+		readPushdown = false;
 	}
 
 	protected IndexRange getIndexRange(ExecutionContext ec) {
@@ -61,7 +69,7 @@ public abstract class IndexingCPInstruction extends UnaryCPInstruction {
 		String opcode = parts[0];
 		
 		if ( opcode.equalsIgnoreCase(RightIndex.OPCODE) ) {
-			if ( parts.length == 7 ) {
+			if ( parts.length == 7 || parts.length == 8 ) {
 				CPOperand in, rl, ru, cl, cu, out;
 				in = new CPOperand(parts[1]);
 				rl = new CPOperand(parts[2]);
@@ -69,10 +77,11 @@ public abstract class IndexingCPInstruction extends UnaryCPInstruction {
 				cl = new CPOperand(parts[4]);
 				cu = new CPOperand(parts[5]);
 				out = new CPOperand(parts[6]);
+				boolean pushdown = (parts.length == 8) && Boolean.parseBoolean(parts[7]);
 				if( in.getDataType()==DataType.MATRIX )
-					return new MatrixIndexingCPInstruction(in, rl, ru, cl, cu, out, opcode, str);
+					return new MatrixIndexingCPInstruction(in, rl, ru, cl, cu, out, pushdown, opcode, str);
 				else if( in.getDataType() == DataType.FRAME )
-					return new FrameIndexingCPInstruction(in, rl, ru, cl, cu, out, opcode, str);
+					return new FrameIndexingCPInstruction(in, rl, ru, cl, cu, out, pushdown, opcode, str);
 				else if( in.getDataType() == DataType.LIST )
 					return new ListIndexingCPInstruction(in, rl, ru, cl, cu, out, opcode, str);
 				else 
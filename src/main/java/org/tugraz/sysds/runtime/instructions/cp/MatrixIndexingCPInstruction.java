@@ -43,6 +43,11 @@ public final class MatrixIndexingCPInstruction extends IndexingCPInstruction {
 		super(in, rl, ru, cl, cu, out, opcode, istr);
 	}
 
+	public MatrixIndexingCPInstruction(CPOperand in, CPOperand rl, CPOperand ru, CPOperand cl, CPOperand cu,
+			CPOperand out, boolean pushdown, String opcode, String istr) {
+		super(in, rl, ru, cl, cu, out, pushdown, opcode, istr);
+	}
+
 	protected MatrixIndexingCPInstruction(CPOperand lhsInput, CPOperand rhsInput, CPOperand rl,
 			CPOperand ru, CPOperand cl, CPOperand cu, CPOperand out, String opcode, String istr) {
 		super(lhsInput, rhsInput, rl, ru, cl, cu, out, opcode, istr);
@@ -63,6 +68,8 @@ public final class MatrixIndexingCPInstruction extends IndexingCPInstruction {
 			
 			if( mo.isPartitioned() ) //via data partitioning
 				resultBlock = mo.readMatrixPartition(ixrange.add(1));
+			else if( readPushdown && mo.allowsRangeRead() ) //via range read
+				resultBlock = mo.readMatrixRange(ixrange);
 			else //via slicing the in-memory matrix
 			{
 				//execute right indexing operation (with shallow row copies for range
@@ -117,6 +124,12 @@ public final class MatrixIndexingCPInstruction extends IndexingCPInstruction {
 			
 			//unpin output
 			ec.setMatrixOutput(output.getName(), resultBlock, updateType, getExtendedOpcode());
+			
+			//track dirty regions of parfor result variables (by target variable,
+			//because the output is a temporary that is moved to the target)
+			if( ec.getResultRegionTracker() != null )
+				ec.getResultRegionTracker().trackLeftIndexing(input1.getName(), mo,
+					ec.getVariable(output.getName()), ixrange, updateType.isInPlace());
 		}
 		else
 			throw new DMLRuntimeException("Invalid opcode (" + opcode +") encountered in MatrixIndexingCPInstruction.");
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 
 import org.tugraz.sysds.common.Types.DataType;
 import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.hops.OptimizerUtils;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
 import org.tugraz.sysds.runtime.instructions.InstructionUtils;
@@ -103,7 +104,8 @@ public class MultiReturnBuiltinCPInstruction extends ComputationCPInstruction {
 			throw new DMLRuntimeException("Invalid opcode in MultiReturnBuiltin instruction: " + getOpcode());
 		
 		MatrixBlock in = ec.getMatrixInput(input1.getName());
-		MatrixBlock[] out = LibCommonsMath.multiReturnOperations(in, getOpcode());
+		MatrixBlock[] out = LibCommonsMath.multiReturnOperations(in, getOpcode(),
+			OptimizerUtils.getConstrainedNumThreads(-1));
 		ec.releaseMatrixInput(input1.getName());
 		for(int i=0; i < _outputs.size(); i++) {
 			ec.setMatrixOutput(_outputs.get(i).getName(), out[i]);
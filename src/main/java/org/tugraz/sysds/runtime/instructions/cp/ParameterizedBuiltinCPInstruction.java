@@ -207,8 +207,9 @@ public class ParameterizedBuiltinCPInstruction extends ComputationCPInstruction
 			
 			// compute the result
 			boolean emptyReturn = Boolean.parseBoolean(params.get("empty.return").toLowerCase());
+			int numThreads = params.containsKey("k") ? Integer.parseInt(params.get("k")) : 1;
 			MatrixBlock soresBlock = target.removeEmptyOperations(new MatrixBlock(),
-				margin.equals("rows"), emptyReturn, select);
+				margin.equals("rows"), emptyReturn, select, numThreads);
 			
 			//release locks
 			ec.setMatrixOutput(output.getName(), soresBlock);
@@ -23,6 +23,7 @@ import org.tugraz.sysds.common.Types.DataType;
 import org.tugraz.sysds.common.Types.ValueType;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
+import org.tugraz.sysds.runtime.data.TensorBlock;
 import org.tugraz.sysds.runtime.functionobjects.DiagIndex;
 import org.tugraz.sysds.runtime.functionobjects.RevIndex;
 import org.tugraz.sysds.runtime.functionobjects.SortIndex;
@@ -124,9 +125,20 @@ public class ReorgCPInstruction extends UnaryCPInstruction {
 	
 	@Override
 	public void processInstruction(ExecutionContext ec) {
+		ReorgOperator r_op = (ReorgOperator) _optr;
+		if( input1.getDataType() == DataType.TENSOR ) {
+			//tensor transpose (reverse order of dimensions)
+			if( !(r_op.fn instanceof SwapIndex) )
+				throw new DMLRuntimeException(getOpcode() + " not supported on tensors.");
+			TensorBlock tensorBlock = ec.getTensorInput(input1.getName());
+			TensorBlock resultBlock = tensorBlock.transpose(null, r_op.getNumThreads());
+			ec.releaseTensorInput(input1.getName());
+			ec.setTensorOutput(output.getName(), resultBlock);
+			return;
+		}
+		
 		//acquire inputs
 		MatrixBlock matBlock = ec.getMatrixInput(input1.getName());
-		ReorgOperator r_op = (ReorgOperator) _optr;
 		if( r_op.fn instanceof SortIndex ) {
 			//additional attributes for sort
 			int[] cols = _col.getDataType().isMatrix() ? DataConverter.convertToIntVector(ec.getMatrixInput(_col.getName())) :
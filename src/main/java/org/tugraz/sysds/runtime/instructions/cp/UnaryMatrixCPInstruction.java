@@ -36,7 +36,8 @@ public class UnaryMatrixCPInstruction extends UnaryCPInstruction {
 		MatrixBlock retBlock = null;
 		
 		if(LibCommonsMath.isSupportedUnaryOperation(getOpcode())) {
-			retBlock = LibCommonsMath.unaryOperations(inBlock, getOpcode());
+			int k = (_optr != null) ? ((UnaryOperator)_optr).getNumThreads() : 1;
+			retBlock = LibCommonsMath.unaryOperations(inBlock, getOpcode(), k);
 			ec.releaseMatrixInput(input1.getName());
 		}
 		else {
@@ -38,6 +38,7 @@ import org.tugraz.sysds.lops.UnaryCP;
 import org.tugraz.sysds.common.Types.DataType;
 import org.tugraz.sysds.common.Types.ValueType;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.controlprogram.caching.AsyncIOScheduler;
 import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
 import org.tugraz.sysds.runtime.controlprogram.caching.FrameObject;
 import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
@@ -516,6 +517,7 @@ public class VariableCPInstruction extends CPInstruction implements LineageTrace
 					((MatrixObject)obj).setUpdateType(_updateType);
 					if(DMLScript.STATISTICS && _updateType.isInPlace())
 						Statistics.incrementTotalUIPVar();
+					prefetchPersistentRead(obj);
 				}
 			}
 			else if( getInput1().getDataType() == DataType.FRAME ) {
@@ -528,6 +530,7 @@ public class VariableCPInstruction extends CPInstruction implements LineageTrace
 				fobj.enableCleanup(!getInput1().getName()
 					.startsWith(org.tugraz.sysds.lops.Data.PREAD_PREFIX));
 				ec.setVariable(getInput1().getName(), fobj);
+				prefetchPersistentRead(fobj);
 			}
 			else if ( getInput1().getDataType() == DataType.SCALAR ){
 				//created variable not called for scalars
@@ -849,15 +852,18 @@ public class VariableCPInstruction extends CPInstruction implements LineageTrace
 			else if (outFmt.equalsIgnoreCase("csv") )
 				writeCSVFile(ec, fname);
 			else {
-				// Default behavior
+				// Default behavior (write-behind if possible)
 				MatrixObject mo = ec.getMatrixObject(getInput1().getName());
-				mo.exportData(fname, outFmt, _formatProperties);
+				mo.exportDataAsync(fname, outFmt, _formatProperties);
 			}
+			//register written matrix for lineage-based reuse
+			if( DMLScript.LINEAGE )
+				Lineage.tracePersisted(this, ec);
 		}
 		else if( getInput1().getDataType() == DataType.FRAME ) {
 			String outFmt = getInput3().getName();
 			FrameObject mo = ec.getFrameObject(getInput1().getName());
-			mo.exportData(fname, outFmt, _formatProperties);
+			mo.exportDataAsync(fname, outFmt, _formatProperties);
 		}
 		else if( getInput1().getDataType() == DataType.TENSOR ) {
 			// TODO write tensor
@@ -865,6 +871,19 @@ public class VariableCPInstruction extends CPInstruction implements LineageTrace
 		}
 	}
 	
+	/**
+	 * Starts the asynchronous read of persistent inputs as soon as the file name
+	 * is known, after flushing a pending asynchronous write of the same file.
+	 * 
+	 * @param obj cacheable data object
+	 */
+	private void prefetchPersistentRead(CacheableData<?> obj) {
+		if( !getInput1().getName().startsWith(org.tugraz.sysds.lops.Data.PREAD_PREFIX) )
+			return;
+		AsyncIOScheduler.waitForWrite(obj.getFileName());
+		obj.prefetch();
+	}
+	
 	/**
 	 * Remove variable instruction externalized as a static function in order to allow various
 	 * cleanup procedures to use the same codepath as the actual rmVar instruction
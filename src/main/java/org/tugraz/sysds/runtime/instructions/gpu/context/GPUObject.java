@@ -35,6 +35,7 @@ import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.data.SparseBlock;
 import org.tugraz.sysds.runtime.data.SparseBlockCOO;
 import org.tugraz.sysds.runtime.data.SparseBlockCSR;
+import org.tugraz.sysds.runtime.data.SparseBlockDCSR;
 import org.tugraz.sysds.runtime.data.SparseBlockMCSR;
 import org.tugraz.sysds.runtime.instructions.cp.CPInstruction;
 import org.tugraz.sysds.runtime.instructions.gpu.GPUInstruction;
@@ -826,6 +827,14 @@ public class GPUObject {
 						GPUStatistics.cudaSparseConversionTime.add(System.nanoTime() - t0);
 					if (DMLScript.STATISTICS)
 						GPUStatistics.cudaSparseConversionCount.increment();
+				} else if (block instanceof SparseBlockDCSR) {
+					if (DMLScript.STATISTICS)
+						t0 = System.nanoTime();
+					csrBlock = new SparseBlockCSR(block);
+					if (DMLScript.STATISTICS)
+						GPUStatistics.cudaSparseConversionTime.add(System.nanoTime() - t0);
+					if (DMLScript.STATISTICS)
+						GPUStatistics.cudaSparseConversionCount.increment();
 				} else {
 					throw new DMLRuntimeException("Unsupported sparse matrix format for CUDA operations");
 				}
@@ -333,7 +333,8 @@ public class RandSPInstruction extends UnarySPInstruction {
 		//step 4: execute rand instruction over seed input
 		JavaPairRDD<MatrixIndexes, MatrixBlock> out = seedsRDD
 				.mapToPair(new GenerateRandomBlock(lrows, lcols, rowsInBlock, colsInBlock, 
-					sparsity, minValue, maxValue, pdf, pdfParams)); 
+					sparsity, minValue, maxValue, pdf, pdfParams,
+					LibMatrixDatagen.COUNTER_BASED_PRNG ? lSeed : null)); 
 		
 		//step 5: output handling
 		MatrixCharacteristics mcOut = sec.getMatrixCharacteristics(output.getName());
@@ -662,8 +663,10 @@ public class RandSPInstruction extends UnarySPInstruction {
 		private double _max; 
 		private String _pdf; 
 		private String _pdfParams;
+		//global seed of counter-based rand (null for block-level seeds)
+		private Long _cbSeed;
 		
-		public GenerateRandomBlock(long rlen, long clen, int brlen, int bclen, double sparsity, double min, double max, String pdf, String pdfParams) {
+		public GenerateRandomBlock(long rlen, long clen, int brlen, int bclen, double sparsity, double min, double max, String pdf, String pdfParams, Long cbSeed) {
 			_rlen = rlen;
 			_clen = clen;
 			_brlen = brlen;
@@ -673,6 +676,7 @@ public class RandSPInstruction extends UnarySPInstruction {
 			_max = max;
 			_pdf = pdf;
 			_pdfParams = pdfParams;
+			_cbSeed = cbSeed;
 		}
 
 		@Override
@@ -691,7 +695,11 @@ public class RandSPInstruction extends UnarySPInstruction {
 			RandomMatrixGenerator rgen = LibMatrixDatagen
 				.createRandomMatrixGenerator(_pdf, lrlen, lclen,
 					lrlen, lclen,_sparsity, _min, _max, _pdfParams);
-			blk.randOperationsInPlace(rgen, null, seed);
+			if( _cbSeed != null ) //counter-based, w/ global cell positions
+				LibMatrixDatagen.generateRandomBlockCounterBased(blk, rgen, _cbSeed,
+					(blockRowIndex-1)*_brlen, (blockColIndex-1)*_bclen, _clen, 1);
+			else
+				blk.randOperationsInPlace(rgen, null, seed);
 			blk.examSparsity();
 			return new Tuple2<>(kv._1, blk);
 		}
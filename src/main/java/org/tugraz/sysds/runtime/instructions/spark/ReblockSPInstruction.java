@@ -97,7 +97,8 @@ public class ReblockSPInstruction extends UnarySPInstruction {
 		InputInfo iinfo = iimd.getInputInfo();
 
 		//check for in-memory reblock (w/ lazy spark context, potential for latency reduction)
-		if( Recompiler.checkCPReblock(sec, input1.getName()) ) {
+		//(columnar files are only readable in CP, hence always reblocked in-memory)
+		if( iinfo == InputInfo.ColumnarInputInfo || Recompiler.checkCPReblock(sec, input1.getName()) ) {
 			if( input1.getDataType() == DataType.MATRIX )
 				Recompiler.executeInMemoryMatrixReblock(sec, input1.getName(), output.getName());
 			else if( input1.getDataType() == DataType.FRAME )
@@ -0,0 +1,371 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.tugraz.sysds.common.Types.BlockType;
+import org.tugraz.sysds.runtime.data.DenseBlock;
+import org.tugraz.sysds.runtime.data.SparseBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixIndexes;
+import org.tugraz.sysds.runtime.util.DirectBufferUtils;
+
+/**
+ * Direct writer of binary block matrices to local sequence files. The blocks
+ * of a row range are serialized straight from the dense arrays or sparse rows
+ * of the source matrix (without slicing them into intermediate blocks and
+ * serializing them via output buffers) through a direct byte buffer and file
+ * channel, which the channel writes without an additional copy. The buffer
+ * is allocated per writer and freed explicitly on close. The output follows the uncompressed SequenceFile format
+ * with MatrixIndexes keys, MatrixBlock values, and sync markers, and hence
+ * remains readable by all binary block readers.
+ */
+final class BinaryBlockDirectWriter implements Closeable
+{
+	private static final byte[] VERSION = new byte[] {'S', 'E', 'Q', 6};
+	private static final int SYNC_ESCAPE = -1;
+	private static final int SYNC_HASH_SIZE = 16;
+	private static final int KEY_SIZE = 16;
+	private static final int HEADER_SIZE = 9; //rlen, clen, type
+	private static final int BUFFER_SIZE = 1024 * 1024;
+
+	private final FileChannel _channel;
+	private ByteBuffer _buff;
+	private final byte[] _sync;
+	private long _written = 0;    //bytes flushed to the channel
+	private long _lastSyncPos = 0;
+	private double[] _row = null; //reusable row buffer for sparse-dense
+
+	public BinaryBlockDirectWriter(File file) throws IOException {
+		if( file.getParentFile() != null )
+			file.getParentFile().mkdirs();
+		_channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+			StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		//direct buffer per writer (i.e., per file), reused for all blocks
+		//note: heap buffers would be copied into temporary direct buffers
+		_buff = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		_sync = new byte[SYNC_HASH_SIZE];
+		new Random().nextBytes(_sync);
+		writeFileHeader();
+	}
+
+	/**
+	 * Writes all blocks of the given row range of the source matrix.
+	 * 
+	 * @param src source matrix
+	 * @param brlen number of rows in block
+	 * @param bclen number of columns in block
+	 * @param rl row lower bound (aligned with blocks)
+	 * @param ru row upper bound (exclusive)
+	 * @throws IOException if IOException occurs
+	 */
+	public void writeBlocks(MatrixBlock src, int brlen, int bclen, int rl, int ru)
+		throws IOException
+	{
+		int clen = src.getNumColumns();
+		for(int blockRow = rl/brlen; blockRow < (int)Math.ceil(ru/(double)brlen); blockRow++)
+			for(int blockCol = 0; blockCol < (int)Math.ceil(clen/(double)bclen); blockCol++) {
+				int row_offset = blockRow*brlen;
+				int col_offset = blockCol*bclen;
+				int maxRow = Math.min(brlen, src.getNumRows() - row_offset);
+				int maxCol = Math.min(bclen, clen - col_offset);
+				writeBlock(src, blockRow+1, blockCol+1, row_offset, maxRow, col_offset, maxCol);
+			}
+	}
+
+	private void writeFileHeader() throws IOException {
+		DataOutputBuffer header = new DataOutputBuffer();
+		header.write(VERSION);
+		Text.writeString(header, MatrixIndexes.class.getName());
+		Text.writeString(header, MatrixBlock.class.getName());
+		header.writeBoolean(false); //no compression
+		header.writeBoolean(false); //no block compression
+		new SequenceFile.Metadata().write(header);
+		header.write(_sync);
+		put(header.getData(), header.getLength());
+	}
+
+	private void writeBlock(MatrixBlock src, long bi, long bj, int r0, int nr, int c0, int nc)
+		throws IOException
+	{
+		//determine block format (consistent with MatrixBlock.write)
+		boolean sparseSrc = src.isInSparseFormat();
+		boolean empty = src.isEmptyBlock(false)
+			|| (sparseSrc ? src.getSparseBlock()==null : src.getDenseBlock()==null);
+		long nnz = empty ? 0 : sparseSrc ?
+			countNonZeros(src.getSparseBlock(), r0, nr, c0, nc) :
+			countNonZeros(src.getDenseBlock(), r0, nr, c0, nc);
+		boolean sparseDst = nnz > 0 && MatrixBlock.evalSparseFormatOnDisk(nr, nc, nnz);
+		BlockType type = (nnz == 0) ? BlockType.EMPTY_BLOCK :
+			(sparseDst && nnz < nr) ? BlockType.ULTRA_SPARSE_BLOCK :
+			sparseDst ? BlockType.SPARSE_BLOCK : BlockType.DENSE_BLOCK;
+		boolean longNnz = (long)nr * nc > Integer.MAX_VALUE;
+		long vlen = HEADER_SIZE;
+		switch( type ) {
+			case ULTRA_SPARSE_BLOCK: vlen += 4 + nnz * ((nc > 1) ? 16 : 12); break;
+			case SPARSE_BLOCK: vlen += (longNnz ? 8 : 4) + 4L * nr + 12 * nnz; break;
+			case DENSE_BLOCK: vlen += 8L * nr * nc; break;
+			default: //empty
+		}
+		if( vlen + KEY_SIZE > Integer.MAX_VALUE )
+			throw new IOException("Block size exceeds max record length: "+vlen);
+
+		//write sync marker (if necessary), record and key lengths, and key
+		checkAndWriteSync();
+		ensure(24 + HEADER_SIZE);
+		_buff.putInt((int)vlen + KEY_SIZE);
+		_buff.putInt(KEY_SIZE);
+		_buff.putLong(bi);
+		_buff.putLong(bj);
+
+		//write value (block header and data)
+		_buff.putInt(nr);
+		_buff.putInt(nc);
+		_buff.put((byte)type.ordinal());
+		switch( type ) {
+			case ULTRA_SPARSE_BLOCK:
+				putInt((int)nnz);
+				if( sparseSrc )
+					writeSparseToUltraSparse(src.getSparseBlock(), r0, nr, c0, nc);
+				else
+					writeDenseToUltraSparse(src.getDenseBlock(), r0, nr, c0, nc);
+				break;
+			case SPARSE_BLOCK:
+				if( longNnz )
+					putLong(nnz);
+				else
+					putInt((int)nnz);
+				if( sparseSrc )
+					writeSparseToSparse(src.getSparseBlock(), r0, nr, c0, nc);
+				else
+					writeDenseToSparse(src.getDenseBlock(), r0, nr, c0, nc);
+				break;
+			case DENSE_BLOCK:
+				if( sparseSrc )
+					writeSparseToDense(src.getSparseBlock(), r0, nr, c0, nc);
+				else
+					writeDenseToDense(src.getDenseBlock(), r0, nr, c0, nc);
+				break;
+			default: //empty
+		}
+	}
+
+	private void writeDenseToDense(DenseBlock a, int r0, int nr, int c0, int nc) throws IOException {
+		for( int i=r0; i<r0+nr; i++ )
+			putDoubles(a.values(i), a.pos(i, c0), nc);
+	}
+
+	private void writeDenseToSparse(DenseBlock a, int r0, int nr, int c0, int nc) throws IOException {
+		for( int i=r0; i<r0+nr; i++ ) {
+			double[] avals = a.values(i);
+			int apos = a.pos(i, c0);
+			putInt(countNonZeros(avals, apos, nc));
+			for( int j=0; j<nc; j++ )
+				if( avals[apos+j] != 0 ) {
+					ensure(12);
+					_buff.putInt(j);
+					_buff.putDouble(avals[apos+j]);
+				}
+		}
+	}
+
+	private void writeDenseToUltraSparse(DenseBlock a, int r0, int nr, int c0, int nc) throws IOException {
+		for( int i=r0; i<r0+nr; i++ ) {
+			double[] avals = a.values(i);
+			int apos = a.pos(i, c0);
+			for( int j=0; j<nc; j++ )
+				if( avals[apos+j] != 0 )
+					putCell(i-r0, j, avals[apos+j], nc);
+		}
+	}
+
+	private void writeSparseToSparse(SparseBlock a, int r0, int nr, int c0, int nc) throws IOException {
+		for( int i=r0; i<r0+nr; i++ ) {
+			int k1 = posFIndexGTE(a, i, c0);
+			int k2 = posFIndexGTE(a, i, c0+nc);
+			putInt(k2 - k1);
+			if( k2 <= k1 ) continue;
+			int apos = a.pos(i);
+			int[] aix = a.indexes(i);
+			double[] avals = a.values(i);
+			for( int k=apos+k1; k<apos+k2; k++ ) {
+				ensure(12);
+				_buff.putInt(aix[k]-c0);
+				_buff.putDouble(avals[k]);
+			}
+		}
+	}
+
+	private void writeSparseToUltraSparse(SparseBlock a, int r0, int nr, int c0, int nc) throws IOException {
+		for( int i=r0; i<r0+nr; i++ ) {
+			int k1 = posFIndexGTE(a, i, c0);
+			int k2 = posFIndexGTE(a, i, c0+nc);
+			if( k2 <= k1 ) continue;
+			int apos = a.pos(i);
+			int[] aix = a.indexes(i);
+			double[] avals = a.values(i);
+			for( int k=apos+k1; k<apos+k2; k++ )
+				putCell(i-r0, aix[k]-c0, avals[k], nc);
+		}
+	}
+
+	private void writeSparseToDense(SparseBlock a, int r0, int nr, int c0, int nc) throws IOException {
+		if( _row == null || _row.length < nc )
+			_row = new double[nc];
+		for( int i=r0; i<r0+nr; i++ ) {
+			int k1 = posFIndexGTE(a, i, c0);
+			int k2 = posFIndexGTE(a, i, c0+nc);
+			if( k2 > k1 ) {
+				int apos = a.pos(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				for( int k=apos+k1; k<apos+k2; k++ )
+					_row[aix[k]-c0] = avals[k];
+			}
+			putDoubles(_row, 0, nc);
+			if( k2 > k1 )
+				Arrays.fill(_row, 0, nc, 0);
+		}
+	}
+
+	private static long countNonZeros(DenseBlock a, int r0, int nr, int c0, int nc) {
+		long nnz = 0;
+		for( int i=r0; i<r0+nr; i++ )
+			nnz += countNonZeros(a.values(i), a.pos(i, c0), nc);
+		return nnz;
+	}
+
+	private static int countNonZeros(double[] avals, int apos, int len) {
+		int nnz = 0;
+		for( int j=apos; j<apos+len; j++ )
+			nnz += (avals[j] != 0) ? 1 : 0;
+		return nnz;
+	}
+
+	private static long countNonZeros(SparseBlock a, int r0, int nr, int c0, int nc) {
+		long nnz = 0;
+		for( int i=r0; i<r0+nr; i++ )
+			nnz += posFIndexGTE(a, i, c0+nc) - posFIndexGTE(a, i, c0);
+		return nnz;
+	}
+
+	/**
+	 * Gets the position of the first column index greater than or equal to
+	 * column c in row r (relative to pos(r)), or size(r) if no such index exists.
+	 */
+	private static int posFIndexGTE(SparseBlock a, int r, int c) {
+		if( a.isEmpty(r) )
+			return 0;
+		int alen = a.size(r);
+		if( c <= 0 )
+			return 0;
+		if( a.indexes(r)[a.pos(r)+alen-1] < c )
+			return alen;
+		int k = a.posFIndexGTE(r, c);
+		return (k < 0) ? alen : k;
+	}
+
+	private void putCell(int i, int j, double v, int nc) throws IOException {
+		ensure(16);
+		_buff.putInt(i);
+		if( nc > 1 )
+			_buff.putInt(j);
+		_buff.putDouble(v);
+	}
+
+	private void putInt(int v) throws IOException {
+		ensure(4);
+		_buff.putInt(v);
+	}
+
+	private void putLong(long v) throws IOException {
+		ensure(8);
+		_buff.putLong(v);
+	}
+
+	private void putDoubles(double[] vals, int pos, int len) throws IOException {
+		while( len > 0 ) {
+			int n = Math.min(len, _buff.remaining() / 8);
+			if( n == 0 ) {
+				flush();
+				continue;
+			}
+			_buff.asDoubleBuffer().put(vals, pos, n);
+			_buff.position(_buff.position() + 8*n);
+			pos += n;
+			len -= n;
+		}
+	}
+
+	private void put(byte[] data, int len) throws IOException {
+		for( int off=0; off<len; ) {
+			int n = Math.min(len - off, _buff.remaining());
+			if( n == 0 ) {
+				flush();
+				continue;
+			}
+			_buff.put(data, off, n);
+			off += n;
+		}
+	}
+
+	private void checkAndWriteSync() throws IOException {
+		long pos = _written + _buff.position();
+		if( pos >= _lastSyncPos + SequenceFile.SYNC_INTERVAL ) {
+			putInt(SYNC_ESCAPE);
+			put(_sync, SYNC_HASH_SIZE);
+			_lastSyncPos = _written + _buff.position();
+		}
+	}
+
+	private void ensure(int len) throws IOException {
+		if( _buff.remaining() < len )
+			flush();
+	}
+
+	private void flush() throws IOException {
+		_buff.flip();
+		while( _buff.hasRemaining() )
+			_written += _channel.write(_buff);
+		_buff.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if( _buff == null )
+			return;
+		try {
+			flush();
+		}
+		finally {
+			_channel.close();
+			DirectBufferUtils.free(_buff);
+			_buff = null;
+		}
+	}
+}
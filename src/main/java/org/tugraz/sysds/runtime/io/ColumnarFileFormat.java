@@ -0,0 +1,1145 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.tugraz.sysds.common.Types.ValueType;
+
+/**
+ * Layout, chunk encodings, and codec of the columnar binary format, a single-file
+ * format for matrices and frames that stores every column in chunks of a fixed
+ * number of rows. Each chunk is encoded with the smallest of the lightweight
+ * encodings PLAIN, DICT (1/2-byte codes), RLE, DELTA (zig-zag varints), and SPARSE
+ * (row gaps and values), and optionally compressed with deflate if that further
+ * reduces its size. Integer-valued double columns are stored as varints. Chunks
+ * that are entirely zero (or null for frame string columns) are omitted.
+ *
+ * <pre>
+ * header: magic (int), version (int)
+ * chunks: encoded column chunks
+ * footer: data type, rows, cols, chunk rows, frame schema and column names,
+ *         per chunk: column, row chunk, offset, lengths, encoding, flags, nnz, min, max
+ * tail:   footer offset (long), magic (int)
+ * </pre>
+ *
+ * The footer allows to read all chunks independently, which the readers exploit
+ * for parallel, positional reads via FileChannels for files on the local file system.
+ */
+public class ColumnarFileFormat
+{
+	public static final int MAGIC = 0x43534453; //"SDSC"
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 8;
+	public static final int TAIL_SIZE = 12;
+	public static final int CHUNK_ROWS = 64 * 1024;
+
+	//max number of distinct values for dictionary encoding (2-byte codes)
+	private static final int MAX_DICT_SIZE = 65536;
+	//min relative size reduction to keep deflated chunks
+	private static final double MIN_DEFLATE_RATIO = 0.9;
+
+	public static final byte FLAG_INTEGRAL = 1; //words are integers, stored as varints
+	public static final byte FLAG_DEFLATE = 2;  //chunk payload is deflated
+
+	public enum Encoding {
+		PLAIN, DICT, RLE, DELTA, SPARSE
+	}
+
+	/**
+	 * Footer entry of an encoded column chunk.
+	 */
+	public static class ChunkMeta {
+		public int col;
+		public int rowChunk;
+		public long offset;
+		public int length;
+		public int rawLength;
+		public Encoding enc;
+		public byte flags;
+		public long nnz;
+		public double min;
+		public double max;
+
+		public boolean isIntegral() {
+			return (flags & FLAG_INTEGRAL) != 0;
+		}
+
+		public boolean isDeflated() {
+			return (flags & FLAG_DEFLATE) != 0;
+		}
+	}
+
+	/**
+	 * Encoded column chunk, i.e., its footer entry and payload.
+	 */
+	public static class EncodedChunk {
+		public final ChunkMeta meta;
+		public final byte[] data;
+
+		public EncodedChunk(ChunkMeta meta, byte[] data) {
+			this.meta = meta;
+			this.data = data;
+		}
+	}
+
+	/**
+	 * File footer with the data characteristics and the index of all chunks.
+	 */
+	public static class Footer {
+		public boolean frame;
+		public long rows;
+		public long cols;
+		public int chunkRows;
+		public ValueType[] schema;
+		public String[] names;
+		public ArrayList<ChunkMeta> chunks = new ArrayList<>();
+
+		public int getNumRowChunks() {
+			return (int)((rows + chunkRows - 1) / chunkRows);
+		}
+
+		public int getChunkLength(int rowChunk) {
+			return (int)Math.min(chunkRows, rows - (long)rowChunk * chunkRows);
+		}
+
+		public long getNonZeros() {
+			long nnz = 0;
+			for( ChunkMeta m : chunks )
+				nnz += m.nnz;
+			return nnz;
+		}
+
+		/**
+		 * Groups the chunks by row chunk, ordered by column.
+		 *
+		 * @return list of chunks per row chunk
+		 */
+		public ArrayList<ArrayList<ChunkMeta>> getChunksByRowChunk() {
+			ArrayList<ArrayList<ChunkMeta>> ret = new ArrayList<>();
+			for( int i=0; i<getNumRowChunks(); i++ )
+				ret.add(new ArrayList<>());
+			for( ChunkMeta m : chunks )
+				ret.get(m.rowChunk).add(m);
+			for( ArrayList<ChunkMeta> list : ret )
+				list.sort(Comparator.comparingInt(m -> m.col));
+			return ret;
+		}
+	}
+
+	/**
+	 * Reusable buffer of a decoded double column chunk, either in dense
+	 * format (vals[0..n)) or sparse format (ix/vals[0..nnz)).
+	 */
+	public static class ColumnBuffer {
+		public int n;
+		public boolean sparse;
+		public int nnz;
+		public int[] ix;
+		public double[] vals;
+		private long[] words;
+
+		private long[] getWords(int len) {
+			if( words == null || words.length < len )
+				words = new long[len];
+			return words;
+		}
+
+		private void allocate(int len, boolean sparse) {
+			if( vals == null || vals.length < len )
+				vals = new double[len];
+			if( sparse && (ix == null || ix.length < len) )
+				ix = new int[len];
+		}
+	}
+
+	////////////////////////
+	// Chunk Encoding     //
+	////////////////////////
+
+	/**
+	 * Encodes a dense double column chunk.
+	 *
+	 * @param vals column values
+	 * @param pos start position in vals
+	 * @param n number of rows in the chunk
+	 * @param col column index
+	 * @param rowChunk row chunk index
+	 * @param compress if true, try deflate on the encoded chunk
+	 * @return encoded chunk, or null if all values are zero
+	 */
+	public static EncodedChunk encodeDoubles(double[] vals, int pos, int n, int col, int rowChunk, boolean compress) {
+		ChunkMeta meta = createMeta(col, rowChunk);
+		boolean integral = true;
+		meta.min = Double.POSITIVE_INFINITY;
+		meta.max = Double.NEGATIVE_INFINITY;
+		boolean allZero = true;
+		for( int i=pos; i<pos+n; i++ ) {
+			double v = vals[i];
+			meta.nnz += (v != 0) ? 1 : 0;
+			meta.min = Math.min(meta.min, v);
+			meta.max = Math.max(meta.max, v);
+			integral &= isIntegral(v);
+			allZero &= (Double.doubleToRawLongBits(v) == 0);
+		}
+		if( allZero )
+			return null;
+
+		//convert to words (integer values or raw bits)
+		long[] words = new long[n];
+		for( int i=0; i<n; i++ )
+			words[i] = integral ? (long)vals[pos+i] : Double.doubleToRawLongBits(vals[pos+i]);
+		meta.flags = integral ? FLAG_INTEGRAL : 0;
+		return encodeWords(meta, words, n, compress);
+	}
+
+	/**
+	 * Encodes a sparse double column chunk, given as sorted row positions
+	 * (relative to the chunk) and values.
+	 *
+	 * @param ix row positions
+	 * @param vals values
+	 * @param nnz number of entries
+	 * @param n number of rows in the chunk
+	 * @param col column index
+	 * @param rowChunk row chunk index
+	 * @param compress if true, try deflate on the encoded chunk
+	 * @return encoded chunk, or null if all values are zero
+	 */
+	public static EncodedChunk encodeSparseDoubles(int[] ix, double[] vals, int nnz, int n, int col, int rowChunk, boolean compress) {
+		if( nnz == 0 )
+			return null;
+		//densify columns that are not sparse (full choice of encodings)
+		if( (long)nnz * 4 >= n ) {
+			double[] tmp = new double[n];
+			for( int k=0; k<nnz; k++ )
+				tmp[ix[k]] = vals[k];
+			return encodeDoubles(tmp, 0, n, col, rowChunk, compress);
+		}
+		ChunkMeta meta = createMeta(col, rowChunk);
+		boolean integral = true;
+		meta.min = 0;
+		meta.max = 0;
+		for( int k=0; k<nnz; k++ ) {
+			double v = vals[k];
+			meta.nnz += (v != 0) ? 1 : 0;
+			meta.min = Math.min(meta.min, v);
+			meta.max = Math.max(meta.max, v);
+			integral &= isIntegral(v);
+		}
+		meta.flags = integral ? FLAG_INTEGRAL : 0;
+		meta.enc = Encoding.SPARSE;
+		ByteWriter out = new ByteWriter(nnz * (integral ? 4 : 10) + 8);
+		out.writeVarLong(nnz);
+		int last = 0;
+		for( int k=0; k<nnz; k++ ) {
+			out.writeVarLong(ix[k] - last);
+			writeWord(out, integral ? (long)vals[k] : Double.doubleToRawLongBits(vals[k]), integral);
+			last = ix[k];
+		}
+		return finalizeChunk(meta, out, compress);
+	}
+
+	/**
+	 * Encodes a chunk of a frame column of the given value type.
+	 *
+	 * @param vt value type
+	 * @param coldata column array (String[], boolean[], long[], or double[])
+	 * @param pos start position in the column
+	 * @param n number of rows in the chunk
+	 * @param col column index
+	 * @param rowChunk row chunk index
+	 * @param compress if true, try deflate on the encoded chunk
+	 * @return encoded chunk, or null if all values are null/zero
+	 */
+	public static EncodedChunk encodeFrameColumn(ValueType vt, Object coldata, int pos, int n, int col, int rowChunk, boolean compress) {
+		switch( vt ) {
+			case FP64:
+				return encodeDoubles((double[])coldata, pos, n, col, rowChunk, compress);
+			case INT64: {
+				long[] data = (long[]) coldata;
+				ChunkMeta meta = createMeta(col, rowChunk);
+				meta.flags = FLAG_INTEGRAL;
+				meta.min = Double.POSITIVE_INFINITY;
+				meta.max = Double.NEGATIVE_INFINITY;
+				for( int i=pos; i<pos+n; i++ ) {
+					meta.nnz += (data[i] != 0) ? 1 : 0;
+					meta.min = Math.min(meta.min, data[i]);
+					meta.max = Math.max(meta.max, data[i]);
+				}
+				return (meta.nnz == 0) ? null :
+					encodeWords(meta, Arrays.copyOfRange(data, pos, pos+n), n, compress);
+			}
+			case BOOLEAN: {
+				boolean[] data = (boolean[]) coldata;
+				ChunkMeta meta = createMeta(col, rowChunk);
+				meta.flags = FLAG_INTEGRAL;
+				long[] words = new long[n];
+				for( int i=0; i<n; i++ ) {
+					words[i] = data[pos+i] ? 1 : 0;
+					meta.nnz += words[i];
+				}
+				meta.min = (meta.nnz == n) ? 1 : 0;
+				meta.max = (meta.nnz > 0) ? 1 : 0;
+				return (meta.nnz == 0) ? null :
+					encodeWords(meta, words, n, compress);
+			}
+			case STRING:
+				return encodeStrings((String[])coldata, pos, n, col, rowChunk, compress);
+			default:
+				throw new RuntimeException("Unsupported value type: "+vt);
+		}
+	}
+
+	private static EncodedChunk encodeWords(ChunkMeta meta, long[] words, int n, boolean compress) {
+		boolean integral = meta.isIntegral();
+
+		//single pass over all words to compute the sizes of all encodings
+		long plain = 0, delta = 0, rle = 0, sparse = 0, dict = 0;
+		int nnz = 0, lastNz = 0, runLen = 0;
+		HashMap<Long, Integer> dmap = new HashMap<>();
+		long prev = 0;
+		for( int i=0; i<n; i++ ) {
+			long w = words[i];
+			int wsize = wordSize(w, integral);
+			plain += wsize;
+			delta += varLongSize(zigzag(w - prev));
+			if( w != 0 ) {
+				sparse += varLongSize(i - lastNz) + wsize;
+				lastNz = i;
+				nnz++;
+			}
+			if( i > 0 && w != prev ) {
+				rle += varLongSize(runLen) + wordSize(prev, integral);
+				runLen = 0;
+			}
+			runLen++;
+			if( dmap != null && !dmap.containsKey(w) ) {
+				if( dmap.size() < MAX_DICT_SIZE ) {
+					dmap.put(w, dmap.size());
+					dict += wsize;
+				}
+				else
+					dmap = null;
+			}
+			prev = w;
+		}
+		rle += varLongSize(runLen) + wordSize(prev, integral);
+		sparse += varLongSize(nnz);
+		int width = (dmap != null && dmap.size() <= 256) ? 1 : 2;
+		dict = (dmap != null) ? varLongSize(dmap.size()) + dict + 1 + (long)n * width : Long.MAX_VALUE;
+
+		//select the smallest encoding (plain on ties)
+		meta.enc = Encoding.PLAIN;
+		long min = plain;
+		if( dict < min ) { meta.enc = Encoding.DICT; min = dict; }
+		if( rle < min ) { meta.enc = Encoding.RLE; min = rle; }
+		if( delta < min ) { meta.enc = Encoding.DELTA; min = delta; }
+		if( sparse < min ) { meta.enc = Encoding.SPARSE; min = sparse; }
+
+		//encode selected representation
+		ByteWriter out = new ByteWriter((int)Math.min(min + 16, Integer.MAX_VALUE));
+		switch( meta.enc ) {
+			case PLAIN:
+				for( int i=0; i<n; i++ )
+					writeWord(out, words[i], integral);
+				break;
+			case DICT: {
+				long[] dvals = new long[dmap.size()];
+				for( Entry<Long, Integer> e : dmap.entrySet() )
+					dvals[e.getValue()] = e.getKey();
+				out.writeVarLong(dvals.length);
+				for( long w : dvals )
+					writeWord(out, w, integral);
+				out.writeByte(width);
+				for( int i=0; i<n; i++ ) {
+					int code = dmap.get(words[i]);
+					if( width == 1 )
+						out.writeByte(code);
+					else
+						out.writeShort(code);
+				}
+				break;
+			}
+			case RLE: {
+				int start = 0;
+				for( int i=1; i<=n; i++ )
+					if( i == n || words[i] != words[start] ) {
+						out.writeVarLong(i - start);
+						writeWord(out, words[start], integral);
+						start = i;
+					}
+				break;
+			}
+			case DELTA: {
+				long last = 0;
+				for( int i=0; i<n; i++ ) {
+					out.writeVarLong(zigzag(words[i] - last));
+					last = words[i];
+				}
+				break;
+			}
+			case SPARSE: {
+				out.writeVarLong(nnz);
+				int last = 0;
+				for( int i=0; i<n; i++ )
+					if( words[i] != 0 ) {
+						out.writeVarLong(i - last);
+						writeWord(out, words[i], integral);
+						last = i;
+					}
+				break;
+			}
+		}
+		return finalizeChunk(meta, out, compress);
+	}
+
+	private static EncodedChunk encodeStrings(String[] data, int pos, int n, int col, int rowChunk, boolean compress) {
+		ChunkMeta meta = createMeta(col, rowChunk);
+		meta.min = Double.NaN;
+		meta.max = Double.NaN;
+
+		//encode all strings once and compute the size of plain and dictionary encoding
+		byte[][] bytes = new byte[n][];
+		long plain = 0, dict = 0;
+		HashMap<String, Integer> dmap = new HashMap<>();
+		ArrayList<byte[]> dvals = new ArrayList<>();
+		for( int i=0; i<n; i++ ) {
+			String s = data[pos+i];
+			meta.nnz += (s != null) ? 1 : 0;
+			bytes[i] = (s != null) ? s.getBytes(StandardCharsets.UTF_8) : null;
+			int size = stringSize(bytes[i]);
+			plain += size;
+			if( dmap != null && !dmap.containsKey(s) ) {
+				if( dmap.size() < MAX_DICT_SIZE ) {
+					dmap.put(s, dmap.size());
+					dvals.add(bytes[i]);
+					dict += size;
+				}
+				else
+					dmap = null;
+			}
+		}
+		if( meta.nnz == 0 )
+			return null;
+		int width = (dmap != null && dmap.size() <= 256) ? 1 : 2;
+		dict = (dmap != null) ? varLongSize(dmap.size()) + dict + 1 + (long)n * width : Long.MAX_VALUE;
+
+		meta.enc = (dict < plain) ? Encoding.DICT : Encoding.PLAIN;
+		ByteWriter out = new ByteWriter((int)Math.min(Math.min(dict, plain) + 16, Integer.MAX_VALUE));
+		if( meta.enc == Encoding.DICT ) {
+			out.writeVarLong(dvals.size());
+			for( byte[] b : dvals )
+				writeString(out, b);
+			out.writeByte(width);
+			for( int i=0; i<n; i++ ) {
+				int code = dmap.get(data[pos+i]);
+				if( width == 1 )
+					out.writeByte(code);
+				else
+					out.writeShort(code);
+			}
+		}
+		else {
+			for( int i=0; i<n; i++ )
+				writeString(out, bytes[i]);
+		}
+		return finalizeChunk(meta, out, compress);
+	}
+
+	private static ChunkMeta createMeta(int col, int rowChunk) {
+		ChunkMeta meta = new ChunkMeta();
+		meta.col = col;
+		meta.rowChunk = rowChunk;
+		return meta;
+	}
+
+	private static EncodedChunk finalizeChunk(ChunkMeta meta, ByteWriter out, boolean compress) {
+		byte[] data = out.toByteArray();
+		meta.rawLength = data.length;
+		if( compress ) {
+			byte[] cdata = deflate(data);
+			if( cdata.length < MIN_DEFLATE_RATIO * data.length ) {
+				data = cdata;
+				meta.flags |= FLAG_DEFLATE;
+			}
+		}
+		meta.length = data.length;
+		return new EncodedChunk(meta, data);
+	}
+
+	private static boolean isIntegral(double v) {
+		//exact round trip including the sign of zero, w/o loss for |v| <= 2^53
+		return Math.abs(v) <= (1L << 53)
+			&& Double.doubleToRawLongBits(v) == Double.doubleToRawLongBits((double)(long)v);
+	}
+
+	////////////////////////
+	// Chunk Decoding     //
+	////////////////////////
+
+	/**
+	 * Decodes a double column chunk into the given buffer, which is in
+	 * sparse format for SPARSE encoded chunks and in dense format otherwise.
+	 *
+	 * @param meta chunk meta data
+	 * @param data chunk payload
+	 * @param n number of rows in the chunk
+	 * @param buff reusable output buffer
+	 * @throws IOException if the payload is corrupted
+	 */
+	public static void decodeDoubles(ChunkMeta meta, byte[] data, int n, ColumnBuffer buff)
+		throws IOException
+	{
+		ByteReader in = new ByteReader(inflateIfNecessary(meta, data));
+		boolean integral = meta.isIntegral();
+		buff.n = n;
+		buff.sparse = (meta.enc == Encoding.SPARSE);
+		if( buff.sparse ) {
+			int nnz = (int)in.readVarLong();
+			buff.allocate(nnz, true);
+			int row = 0;
+			for( int k=0; k<nnz; k++ ) {
+				row += (int)in.readVarLong();
+				buff.ix[k] = row;
+				buff.vals[k] = toDouble(readWord(in, integral), integral);
+			}
+			buff.nnz = nnz;
+		}
+		else {
+			long[] words = buff.getWords(n);
+			decodeWords(meta.enc, integral, in, n, words);
+			buff.allocate(n, false);
+			for( int i=0; i<n; i++ )
+				buff.vals[i] = toDouble(words[i], integral);
+			buff.nnz = n;
+		}
+	}
+
+	/**
+	 * Decodes a chunk of a frame column into the column array of the given value type.
+	 *
+	 * @param meta chunk meta data
+	 * @param data chunk payload
+	 * @param vt value type
+	 * @param coldata column array (String[], boolean[], long[], or double[])
+	 * @param pos start position in the column
+	 * @param n number of rows in the chunk
+	 * @throws IOException if the payload is corrupted
+	 */
+	public static void decodeFrameColumn(ChunkMeta meta, byte[] data, ValueType vt, Object coldata, int pos, int n)
+		throws IOException
+	{
+		ByteReader in = new ByteReader(inflateIfNecessary(meta, data));
+		if( vt == ValueType.STRING ) {
+			String[] out = (String[]) coldata;
+			if( meta.enc == Encoding.DICT ) {
+				String[] dvals = new String[(int)in.readVarLong()];
+				for( int j=0; j<dvals.length; j++ )
+					dvals[j] = readString(in);
+				int width = in.readByte();
+				for( int i=0; i<n; i++ )
+					out[pos+i] = dvals[(width == 1) ? in.readByte() : in.readShort()];
+			}
+			else {
+				for( int i=0; i<n; i++ )
+					out[pos+i] = readString(in);
+			}
+			return;
+		}
+
+		boolean integral = meta.isIntegral();
+		long[] words = new long[n];
+		decodeWords(meta.enc, integral, in, n, words);
+		switch( vt ) {
+			case FP64: {
+				double[] out = (double[]) coldata;
+				for( int i=0; i<n; i++ )
+					out[pos+i] = toDouble(words[i], integral);
+				break;
+			}
+			case INT64:
+				System.arraycopy(words, 0, coldata, pos, n);
+				break;
+			case BOOLEAN: {
+				boolean[] out = (boolean[]) coldata;
+				for( int i=0; i<n; i++ )
+					out[pos+i] = (words[i] != 0);
+				break;
+			}
+			default:
+				throw new RuntimeException("Unsupported value type: "+vt);
+		}
+	}
+
+	private static void decodeWords(Encoding enc, boolean integral, ByteReader in, int n, long[] out)
+		throws IOException
+	{
+		switch( enc ) {
+			case PLAIN:
+				for( int i=0; i<n; i++ )
+					out[i] = readWord(in, integral);
+				break;
+			case DICT: {
+				long[] dvals = new long[(int)in.readVarLong()];
+				for( int j=0; j<dvals.length; j++ )
+					dvals[j] = readWord(in, integral);
+				int width = in.readByte();
+				for( int i=0; i<n; i++ )
+					out[i] = dvals[(width == 1) ? in.readByte() : in.readShort()];
+				break;
+			}
+			case RLE: {
+				int i = 0;
+				while( i < n ) {
+					int len = (int)in.readVarLong();
+					long w = readWord(in, integral);
+					if( i + len > n )
+						throw new IOException("Corrupt RLE chunk: run exceeds chunk length.");
+					Arrays.fill(out, i, i+len, w);
+					i += len;
+				}
+				break;
+			}
+			case DELTA: {
+				long last = 0;
+				for( int i=0; i<n; i++ )
+					out[i] = last = last + unzigzag(in.readVarLong());
+				break;
+			}
+			case SPARSE: {
+				Arrays.fill(out, 0, n, 0);
+				int nnz = (int)in.readVarLong();
+				int row = 0;
+				for( int k=0; k<nnz; k++ ) {
+					row += (int)in.readVarLong();
+					out[row] = readWord(in, integral);
+				}
+				break;
+			}
+		}
+	}
+
+	private static double toDouble(long w, boolean integral) {
+		return integral ? (double)w : Double.longBitsToDouble(w);
+	}
+
+	////////////////////////
+	// Footer and Files   //
+	////////////////////////
+
+	public static void writeHeader(FSDataOutputStream out) throws IOException {
+		ByteWriter w = new ByteWriter(HEADER_SIZE);
+		w.writeInt(MAGIC);
+		w.writeInt(VERSION);
+		out.write(w.buff, 0, w.len);
+	}
+
+	/**
+	 * Writes the footer and tail at the current position of the output stream.
+	 *
+	 * @param out output stream
+	 * @param footer file footer
+	 * @throws IOException if IOException occurs
+	 */
+	public static void writeFooter(FSDataOutputStream out, Footer footer) throws IOException {
+		long offset = out.getPos();
+		ByteWriter w = new ByteWriter(64 + footer.chunks.size() * 40);
+		w.writeByte(footer.frame ? 1 : 0);
+		w.writeVarLong(footer.rows);
+		w.writeVarLong(footer.cols);
+		w.writeVarLong(footer.chunkRows);
+		if( footer.frame ) {
+			for( int j=0; j<footer.cols; j++ ) {
+				w.writeByte(footer.schema[j].ordinal());
+				writeString(w, footer.names[j].getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		w.writeVarLong(footer.chunks.size());
+		for( ChunkMeta m : footer.chunks ) {
+			w.writeVarLong(m.col);
+			w.writeVarLong(m.rowChunk);
+			w.writeVarLong(m.offset);
+			w.writeVarLong(m.length);
+			w.writeVarLong(m.rawLength);
+			w.writeByte(m.enc.ordinal());
+			w.writeByte(m.flags);
+			w.writeVarLong(m.nnz);
+			w.writeLong(Double.doubleToRawLongBits(m.min));
+			w.writeLong(Double.doubleToRawLongBits(m.max));
+		}
+		w.writeLong(offset);
+		w.writeInt(MAGIC);
+		out.write(w.buff, 0, w.len);
+	}
+
+	/**
+	 * Reads and validates the header and footer of a columnar file.
+	 *
+	 * @param src chunk source
+	 * @return file footer
+	 * @throws IOException if the file is not a valid columnar file
+	 */
+	public static Footer readFooter(ChunkSource src) throws IOException {
+		long len = src.length();
+		if( len < HEADER_SIZE + TAIL_SIZE )
+			throw new IOException("Invalid columnar file: too small ("+len+" bytes).");
+		ByteReader head = new ByteReader(src.read(0, HEADER_SIZE));
+		if( head.readInt() != MAGIC )
+			throw new IOException("Invalid columnar file: wrong magic number.");
+		int version = head.readInt();
+		if( version != VERSION )
+			throw new IOException("Unsupported columnar file version: "+version);
+		ByteReader tail = new ByteReader(src.read(len - TAIL_SIZE, TAIL_SIZE));
+		long offset = tail.readLong();
+		if( tail.readInt() != MAGIC || offset < HEADER_SIZE || offset > len - TAIL_SIZE )
+			throw new IOException("Invalid columnar file: corrupted tail.");
+
+		ByteReader in = new ByteReader(src.read(offset, (int)(len - TAIL_SIZE - offset)));
+		Footer footer = new Footer();
+		footer.frame = in.readByte() == 1;
+		footer.rows = in.readVarLong();
+		footer.cols = in.readVarLong();
+		footer.chunkRows = (int)in.readVarLong();
+		if( footer.frame ) {
+			footer.schema = new ValueType[(int)footer.cols];
+			footer.names = new String[(int)footer.cols];
+			for( int j=0; j<footer.cols; j++ ) {
+				footer.schema[j] = ValueType.values()[in.readByte()];
+				footer.names[j] = readString(in);
+			}
+		}
+		int nchunks = (int)in.readVarLong();
+		for( int i=0; i<nchunks; i++ ) {
+			ChunkMeta m = new ChunkMeta();
+			m.col = (int)in.readVarLong();
+			m.rowChunk = (int)in.readVarLong();
+			m.offset = in.readVarLong();
+			m.length = (int)in.readVarLong();
+			m.rawLength = (int)in.readVarLong();
+			m.enc = Encoding.values()[in.readByte()];
+			m.flags = (byte)in.readByte();
+			m.nnz = in.readVarLong();
+			m.min = Double.longBitsToDouble(in.readLong());
+			m.max = Double.longBitsToDouble(in.readLong());
+			footer.chunks.add(m);
+		}
+		return footer;
+	}
+
+	/**
+	 * Splits the given chunks, in file order, into groups of contiguous chunks
+	 * of similar size for parallel reads (about 4 groups per thread).
+	 *
+	 * @param chunks list of chunks
+	 * @param k degree of parallelism
+	 * @param maxBytes max number of bytes per group
+	 * @return list of chunk groups
+	 */
+	public static List<List<ChunkMeta>> groupChunks(List<ChunkMeta> chunks, int k, long maxBytes) {
+		ArrayList<ChunkMeta> tmp = new ArrayList<>(chunks);
+		tmp.sort(Comparator.comparingLong(m -> m.offset));
+		long total = 0;
+		for( ChunkMeta m : tmp )
+			total += m.length;
+		long target = Math.min(Math.max(total / (4L * k), 1), maxBytes);
+		List<List<ChunkMeta>> ret = new ArrayList<>();
+		List<ChunkMeta> group = new ArrayList<>();
+		long size = 0;
+		for( ChunkMeta m : tmp ) {
+			group.add(m);
+			size += m.length;
+			if( size >= target ) {
+				ret.add(group);
+				group = new ArrayList<>();
+				size = 0;
+			}
+		}
+		if( !group.isEmpty() )
+			ret.add(group);
+		return ret;
+	}
+
+	/**
+	 * Reads the payloads of a group of chunks with a single positional
+	 * read of their byte range.
+	 *
+	 * @param src chunk source
+	 * @param chunks group of chunks
+	 * @return chunk payloads in the order of the given chunks
+	 * @throws IOException if IOException occurs
+	 */
+	public static byte[][] readChunks(ChunkSource src, List<ChunkMeta> chunks) throws IOException {
+		long lb = Long.MAX_VALUE, ub = 0;
+		for( ChunkMeta m : chunks ) {
+			lb = Math.min(lb, m.offset);
+			ub = Math.max(ub, m.offset + m.length);
+		}
+		byte[] buff = src.read(lb, (int)(ub - lb));
+		byte[][] ret = new byte[chunks.size()][];
+		for( int i=0; i<chunks.size(); i++ ) {
+			ChunkMeta m = chunks.get(i);
+			ret[i] = Arrays.copyOfRange(buff, (int)(m.offset - lb), (int)(m.offset - lb) + m.length);
+		}
+		return ret;
+	}
+
+	/**
+	 * Positional, thread-safe read access to the chunks of a columnar file.
+	 */
+	public interface ChunkSource extends Closeable {
+		public long length() throws IOException;
+		public byte[] read(long pos, int len) throws IOException;
+	}
+
+	/**
+	 * Opens a chunk source for the given file, which uses a FileChannel
+	 * for files on the local file system and a Hadoop input stream otherwise.
+	 *
+	 * @param fs file system
+	 * @param path file path
+	 * @return chunk source
+	 * @throws IOException if IOException occurs
+	 */
+	public static ChunkSource openChunkSource(FileSystem fs, Path path) throws IOException {
+		return (fs instanceof LocalFileSystem) ?
+			new LocalChunkSource(FileChannel.open(((LocalFileSystem)fs)
+				.pathToFile(path).toPath(), StandardOpenOption.READ)) :
+			new HDFSChunkSource(fs.open(path), fs.getFileStatus(path).getLen());
+	}
+
+	public static ChunkSource openChunkSource(InputStream is) throws IOException {
+		return new ByteArrayChunkSource(IOUtils.toByteArray(is));
+	}
+
+	private static class LocalChunkSource implements ChunkSource {
+		private final FileChannel _channel;
+
+		public LocalChunkSource(FileChannel channel) {
+			_channel = channel;
+		}
+
+		@Override
+		public long length() throws IOException {
+			return _channel.size();
+		}
+
+		@Override
+		public byte[] read(long pos, int len) throws IOException {
+			byte[] ret = new byte[len];
+			ByteBuffer buff = ByteBuffer.wrap(ret);
+			while( buff.hasRemaining() ) {
+				if( _channel.read(buff, pos + buff.position()) < 0 )
+					throw new IOException("Unexpected end of columnar file.");
+			}
+			return ret;
+		}
+
+		@Override
+		public void close() throws IOException {
+			_channel.close();
+		}
+	}
+
+	private static class HDFSChunkSource implements ChunkSource {
+		private final FSDataInputStream _in;
+		private final long _len;
+
+		public HDFSChunkSource(FSDataInputStream in, long len) {
+			_in = in;
+			_len = len;
+		}
+
+		@Override
+		public long length() {
+			return _len;
+		}
+
+		@Override
+		public synchronized byte[] read(long pos, int len) throws IOException {
+			byte[] ret = new byte[len];
+			_in.readFully(pos, ret, 0, len);
+			return ret;
+		}
+
+		@Override
+		public void close() throws IOException {
+			_in.close();
+		}
+	}
+
+	private static class ByteArrayChunkSource implements ChunkSource {
+		private final byte[] _data;
+
+		public ByteArrayChunkSource(byte[] data) {
+			_data = data;
+		}
+
+		@Override
+		public long length() {
+			return _data.length;
+		}
+
+		@Override
+		public byte[] read(long pos, int len) throws IOException {
+			if( pos + len > _data.length )
+				throw new IOException("Unexpected end of columnar input.");
+			return Arrays.copyOfRange(_data, (int)pos, (int)pos + len);
+		}
+
+		@Override
+		public void close() {
+			//do nothing
+		}
+	}
+
+	////////////////////////
+	// Codec and Bytes    //
+	////////////////////////
+
+	private static byte[] deflate(byte[] data) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			ByteWriter out = new ByteWriter(data.length / 2 + 64);
+			byte[] buff = new byte[8192];
+			while( !deflater.finished() ) {
+				int len = deflater.deflate(buff);
+				out.write(buff, 0, len);
+			}
+			return out.toByteArray();
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+	private static byte[] inflateIfNecessary(ChunkMeta meta, byte[] data) throws IOException {
+		if( !meta.isDeflated() )
+			return data;
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(data);
+			byte[] ret = new byte[meta.rawLength];
+			int off = 0;
+			while( off < ret.length && !inflater.finished() ) {
+				int len = inflater.inflate(ret, off, ret.length - off);
+				if( len == 0 && (inflater.needsInput() || inflater.needsDictionary()) )
+					break;
+				off += len;
+			}
+			if( off != ret.length )
+				throw new IOException("Corrupt deflated chunk: "+off+" of "+ret.length+" bytes.");
+			return ret;
+		}
+		catch(DataFormatException ex) {
+			throw new IOException(ex);
+		}
+		finally {
+			inflater.end();
+		}
+	}
+
+	private static long zigzag(long v) {
+		return (v << 1) ^ (v >> 63);
+	}
+
+	private static long unzigzag(long v) {
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	private static int varLongSize(long v) {
+		return (63 - Long.numberOfLeadingZeros(v | 1)) / 7 + 1;
+	}
+
+	private static int wordSize(long w, boolean integral) {
+		return integral ? varLongSize(zigzag(w)) : 8;
+	}
+
+	private static void writeWord(ByteWriter out, long w, boolean integral) {
+		if( integral )
+			out.writeVarLong(zigzag(w));
+		else
+			out.writeLong(w);
+	}
+
+	private static long readWord(ByteReader in, boolean integral) throws IOException {
+		return integral ? unzigzag(in.readVarLong()) : in.readLong();
+	}
+
+	private static int stringSize(byte[] b) {
+		return (b != null) ? varLongSize(b.length + 1) + b.length : 1;
+	}
+
+	private static void writeString(ByteWriter out, byte[] b) {
+		//length+1 prefix, 0 for null
+		out.writeVarLong((b != null) ? b.length + 1 : 0);
+		if( b != null )
+			out.write(b, 0, b.length);
+	}
+
+	private static String readString(ByteReader in) throws IOException {
+		int len = (int)in.readVarLong() - 1;
+		return (len < 0) ? null : in.readString(len);
+	}
+
+	/**
+	 * Growable little-endian byte buffer with varint support.
+	 */
+	private static class ByteWriter {
+		private byte[] buff;
+		private int len = 0;
+
+		public ByteWriter(int initialCapacity) {
+			buff = new byte[Math.max(initialCapacity, 16)];
+		}
+
+		private void ensureCapacity(int add) {
+			if( len + add > buff.length )
+				buff = Arrays.copyOf(buff, (int)Math.min(Math.max(
+					2L * buff.length, (long)len + add), Integer.MAX_VALUE - 8));
+		}
+
+		public void writeByte(int v) {
+			ensureCapacity(1);
+			buff[len++] = (byte) v;
+		}
+
+		public void writeShort(int v) {
+			ensureCapacity(2);
+			buff[len++] = (byte) v;
+			buff[len++] = (byte) (v >>> 8);
+		}
+
+		public void writeInt(int v) {
+			ensureCapacity(4);
+			for( int i=0; i<4; i++ )
+				buff[len++] = (byte) (v >>> (8*i));
+		}
+
+		public void writeLong(long v) {
+			ensureCapacity(8);
+			for( int i=0; i<8; i++ )
+				buff[len++] = (byte) (v >>> (8*i));
+		}
+
+		public void writeVarLong(long v) {
+			ensureCapacity(10);
+			while( (v & ~0x7FL) != 0 ) {
+				buff[len++] = (byte) ((v & 0x7F) | 0x80);
+				v >>>= 7;
+			}
+			buff[len++] = (byte) v;
+		}
+
+		public void write(byte[] b, int off, int blen) {
+			ensureCapacity(blen);
+			System.arraycopy(b, off, buff, len, blen);
+			len += blen;
+		}
+
+		public byte[] toByteArray() {
+			return Arrays.copyOf(buff, len);
+		}
+	}
+
+	/**
+	 * Little-endian byte reader with varint support.
+	 */
+	private static class ByteReader {
+		private final byte[] buff;
+		private int pos = 0;
+
+		public ByteReader(byte[] data) {
+			buff = data;
+		}
+
+		private void check(int len) throws IOException {
+			if( pos + len > buff.length )
+				throw new IOException("Unexpected end of columnar chunk.");
+		}
+
+		public int readByte() throws IOException {
+			check(1);
+			return buff[pos++] & 0xFF;
+		}
+
+		public int readShort() throws IOException {
+			check(2);
+			int v = (buff[pos] & 0xFF) | ((buff[pos+1] & 0xFF) << 8);
+			pos += 2;
+			return v;
+		}
+
+		public int readInt() throws IOException {
+			check(4);
+			int v = 0;
+			for( int i=0; i<4; i++ )
+				v |= (buff[pos++] & 0xFF) << (8*i);
+			return v;
+		}
+
+		public long readLong() throws IOException {
+			check(8);
+			long v = 0;
+			for( int i=0; i<8; i++ )
+				v |= (buff[pos++] & 0xFFL) << (8*i);
+			return v;
+		}
+
+		public long readVarLong() throws IOException {
+			long v = 0;
+			for( int shift=0; shift<64; shift+=7 ) {
+				check(1);
+				byte b = buff[pos++];
+				v |= (long)(b & 0x7F) << shift;
+				if( (b & 0x80) == 0 )
+					return v;
+			}
+			throw new IOException("Corrupt varint in columnar chunk.");
+		}
+
+		public String readString(int len) throws IOException {
+			check(len);
+			String ret = new String(buff, pos, len, StandardCharsets.UTF_8);
+			pos += len;
+			return ret;
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.io;
+
+import java.io.IOException;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.InputSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+
+/**
+ * Input format for files in the columnar binary format (see ColumnarFileFormat).
+ * Since chunk offsets are only known from the footer, files are not splittable
+ * and the record reader returns the entire file as a single record, which can
+ * be decoded via the footer at the end of the returned bytes.
+ */
+public class ColumnarInputFormat extends FileInputFormat<NullWritable, BytesWritable>
+{
+	@Override
+	protected boolean isSplitable(FileSystem fs, Path filename) {
+		return false;
+	}
+
+	@Override
+	public RecordReader<NullWritable, BytesWritable> getRecordReader(InputSplit split, JobConf job, Reporter reporter) 
+		throws IOException 
+	{
+		return new ColumnarRecordReader((FileSplit) split, job);
+	}
+
+	private static class ColumnarRecordReader implements RecordReader<NullWritable, BytesWritable>
+	{
+		private final FileSplit _split;
+		private final JobConf _job;
+		private boolean _done = false;
+
+		public ColumnarRecordReader(FileSplit split, JobConf job) {
+			_split = split;
+			_job = job;
+		}
+
+		@Override
+		public NullWritable createKey() {
+			return NullWritable.get();
+		}
+
+		@Override
+		public BytesWritable createValue() {
+			return new BytesWritable();
+		}
+
+		@Override
+		public long getPos() throws IOException {
+			return _done ? _split.getLength() : 0;
+		}
+
+		@Override
+		public float getProgress() throws IOException {
+			return _done ? 1 : 0;
+		}
+
+		@Override
+		public boolean next(NullWritable key, BytesWritable value) throws IOException {
+			if( _done )
+				return false;
+			if( _split.getLength() > Integer.MAX_VALUE )
+				throw new IOException("Columnar file exceeds max record size: "+_split.getPath());
+			byte[] buff = new byte[(int)_split.getLength()];
+			Path path = _split.getPath();
+			FSDataInputStream in = IOUtilFunctions.getFileSystem(path, _job).open(path);
+			try {
+				in.readFully(0, buff, 0, buff.length);
+			}
+			finally {
+				IOUtilFunctions.closeSilently(in);
+			}
+			value.set(buff, 0, buff.length);
+			_done = true;
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			//do nothing (file closed on read)
+		}
+	}
+}
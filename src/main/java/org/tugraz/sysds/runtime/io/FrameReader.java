@@ -22,6 +22,7 @@ package org.tugraz.sysds.runtime.io;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -30,6 +31,7 @@ import org.tugraz.sysds.common.Types.ValueType;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
 import org.tugraz.sysds.runtime.util.HDFSTool;
+import org.tugraz.sysds.runtime.util.IndexRange;
 import org.tugraz.sysds.runtime.util.UtilFunctions;
 
 /**
@@ -56,6 +58,28 @@ public abstract class FrameReader
 		return readFrameFromHDFS(fname, getDefSchema(clen), getDefColNames(clen), rlen, clen);
 	}
 
+	/**
+	 * Reads the given 0-based, inclusive row and column range of a frame.
+	 * By default, this reads the entire frame and slices the range, while
+	 * readers that can skip splits or columns outside the range override
+	 * this method to avoid materializing the entire frame.
+	 * 
+	 * @param fname file name
+	 * @param schema schema of the entire frame
+	 * @param names column names of the entire frame
+	 * @param rlen number of rows of the entire frame
+	 * @param clen number of columns of the entire frame
+	 * @param ixrange 0-based, inclusive index range
+	 * @return frame block of the index range
+	 * @throws IOException if IOException occurs
+	 */
+	public FrameBlock readFrameFromHDFS( String fname, ValueType[] schema, String[] names, long rlen, long clen, IndexRange ixrange )
+		throws IOException, DMLRuntimeException
+	{
+		FrameBlock tmp = readFrameFromHDFS(fname, schema, names, rlen, clen);
+		return tmp.slice(ixrange, new FrameBlock());
+	}
+
 	public abstract FrameBlock readFrameFromInputStream( InputStream is, ValueType[] schema, String[] names, long rlen, long clen)
 		throws IOException, DMLRuntimeException;
 
@@ -120,6 +144,15 @@ public abstract class FrameReader
 		return names;
 	}
 
+	protected static String[] createOutputNames(String[] names, IndexRange ixrange) {
+		//preserve default column names (consistent with FrameBlock.slice)
+		int cl = (int)ixrange.colStart, cu = (int)ixrange.colEnd;
+		for( int j=0; j<names.length; j++ )
+			if( !names[j].equals(FrameBlock.createColName(j+1)) )
+				return Arrays.copyOfRange(names, cl, cu+1);
+		return FrameBlock.createColNames(cu-cl+1);
+	}
+
 	protected static void checkValidInputFile(FileSystem fs, Path path) 
 		throws IOException
 	{
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.conf.ConfigurationManager;
+import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.io.ColumnarFileFormat.ChunkMeta;
+import org.tugraz.sysds.runtime.io.ColumnarFileFormat.ChunkSource;
+import org.tugraz.sysds.runtime.io.ColumnarFileFormat.Footer;
+import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
+
+/**
+ * Reader for frames in the columnar binary format (see ColumnarFileFormat).
+ * The schema and column names are taken from the file footer, and groups of
+ * chunks are read and decoded in parallel into the typed column arrays.
+ */
+public class FrameReaderColumnar extends FrameReader
+{
+	//max number of bytes per read task
+	private static final long MAX_TASK_BYTES = 64L * 1024 * 1024;
+
+	private final int _numThreads;
+
+	public FrameReaderColumnar() {
+		_numThreads = OptimizerUtils.getParallelBinaryReadParallelism();
+	}
+
+	@Override
+	public final FrameBlock readFrameFromHDFS(String fname, ValueType[] schema, String[] names, long rlen, long clen)
+		throws IOException, DMLRuntimeException
+	{
+		//prepare file access
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+		Path path = new Path( fname );
+		FileSystem fs = IOUtilFunctions.getFileSystem(path, job);
+
+		//check existence and non-empty file
+		checkValidInputFile(fs, path);
+
+		//core read (parallel positional reads)
+		ChunkSource src = ColumnarFileFormat.openChunkSource(fs, path);
+		try {
+			return readColumnarFrame(src, rlen, clen, _numThreads);
+		}
+		finally {
+			IOUtilFunctions.closeSilently(src);
+		}
+	}
+
+	@Override
+	public FrameBlock readFrameFromInputStream(InputStream is, ValueType[] schema, String[] names, long rlen, long clen)
+		throws IOException, DMLRuntimeException
+	{
+		return readColumnarFrame(ColumnarFileFormat.openChunkSource(is), rlen, clen, _numThreads);
+	}
+
+	private static FrameBlock readColumnarFrame(ChunkSource src, long rlen, long clen, int k)
+		throws IOException
+	{
+		Footer footer = ColumnarFileFormat.readFooter(src);
+		if( !footer.frame )
+			throw new IOException("Columnar input file contains a matrix, but a frame was expected.");
+
+		//check dimensions against meta data (if known)
+		if( (rlen >= 0 && rlen != footer.rows) || (clen >= 0 && clen != footer.cols) )
+			throw new DMLRuntimeException("Read frame dimensions differ from meta data: ["
+				+footer.rows+"x"+footer.cols+"] vs. ["+rlen+"x"+clen+"].");
+
+		//allocate output frame block w/ schema and names of the file
+		FrameBlock ret = createOutputFrameBlock(footer.schema, footer.names, footer.rows);
+
+		//read and decode groups of chunks in parallel
+		ArrayList<ReadChunksTask> tasks = new ArrayList<>();
+		for( List<ChunkMeta> group : ColumnarFileFormat.groupChunks(footer.chunks, k, MAX_TASK_BYTES) )
+			tasks.add(new ReadChunksTask(src, footer, group, ret));
+		ExecutorService pool = CommonThreadPool.get(k);
+		try {
+			for( Future<Object> task : pool.invokeAll(tasks) )
+				task.get();
+		}
+		catch(Exception ex) {
+			throw new IOException("Failed parallel read of columnar file.", ex);
+		}
+		finally {
+			pool.shutdown();
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Reads a group of chunks and decodes them into the columns of the output frame.
+	 */
+	private static class ReadChunksTask implements Callable<Object>
+	{
+		private final ChunkSource _src;
+		private final Footer _footer;
+		private final List<ChunkMeta> _chunks;
+		private final FrameBlock _dest;
+
+		public ReadChunksTask(ChunkSource src, Footer footer, List<ChunkMeta> chunks, FrameBlock dest) {
+			_src = src;
+			_footer = footer;
+			_chunks = chunks;
+			_dest = dest;
+		}
+
+		@Override
+		public Object call() throws IOException {
+			byte[][] data = ColumnarFileFormat.readChunks(_src, _chunks);
+			for( int i=0; i<_chunks.size(); i++ ) {
+				ChunkMeta m = _chunks.get(i);
+				ColumnarFileFormat.decodeFrameColumn(m, data[i], _footer.schema[m.col],
+					_dest.getColumnData(m.col), m.rowChunk * _footer.chunkRows,
+					_footer.getChunkLength(m.rowChunk));
+			}
+			return null;
+		}
+	}
+}
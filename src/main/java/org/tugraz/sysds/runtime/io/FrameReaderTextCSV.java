@@ -21,6 +21,7 @@ package org.tugraz.sysds.runtime.io;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -38,6 +39,7 @@ import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
 import org.tugraz.sysds.runtime.matrix.data.Pair;
 import org.tugraz.sysds.runtime.transform.TfUtils;
+import org.tugraz.sysds.runtime.util.IndexRange;
 import org.tugraz.sysds.runtime.util.InputStreamInputFormat;
 import org.tugraz.sysds.runtime.util.UtilFunctions;
 import org.apache.hadoop.mapred.InputFormat;
@@ -81,7 +83,46 @@ public class FrameReaderTextCSV extends FrameReader
 		FrameBlock ret = createOutputFrameBlock(lschema, lnames, rlen);
 	
 		//core read (sequential/parallel) 
-		readCSVFrameFromHDFS(path, job, fs, ret, lschema, lnames, rlen, clen);
+		readCSVFrameFromHDFS(path, job, fs, ret, lschema, lnames, rlen, clen, null);
+		
+		return ret;
+	}
+	
+	@Override
+	public final FrameBlock readFrameFromHDFS(String fname, ValueType[] schema, String[] names,
+			long rlen, long clen, IndexRange ixrange)
+		throws IOException, DMLRuntimeException 
+	{
+		//prepare file access
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());	
+		Path path = new Path( fname );
+		FileSystem fs = IOUtilFunctions.getFileSystem(path, job);
+		FileInputFormat.addInputPath(job, path);
+		
+		//check existence and non-empty file
+		checkValidInputFile(fs, path); 
+		
+		//compute size if necessary
+		if( rlen <= 0 || clen <= 0 ) {
+			Pair<Integer,Integer> size = computeCSVSize(path, job, fs);
+			rlen = size.getKey();
+			clen = size.getValue();
+		}
+		
+		//check valid index range
+		if( ixrange.rowStart < 0 || ixrange.rowEnd < ixrange.rowStart || ixrange.rowEnd >= rlen
+			|| ixrange.colStart < 0 || ixrange.colEnd < ixrange.colStart || ixrange.colEnd >= clen )
+			throw new DMLRuntimeException("Invalid values for frame indexing: "+ixrange.add(1)
+				+" must be within frame dimensions ["+rlen+","+clen+"]");
+		
+		//allocate output frame block of the range
+		ValueType[] lschema = Arrays.copyOfRange(createOutputSchema(schema, clen),
+			(int)ixrange.colStart, (int)ixrange.colEnd+1);
+		String[] lnames = createOutputNames(createOutputNames(names, clen), ixrange);
+		FrameBlock ret = createOutputFrameBlock(lschema, lnames, ixrange.rowEnd-ixrange.rowStart+1);
+		
+		//core read (sequential/parallel, skips splits and columns outside the range) 
+		readCSVFrameFromHDFS(path, job, fs, ret, lschema, lnames, rlen, clen, ixrange);
 		
 		return ret;
 	}
@@ -105,16 +146,21 @@ public class FrameReaderTextCSV extends FrameReader
 	}
 
 	protected void readCSVFrameFromHDFS( Path path, JobConf job, FileSystem fs, 
-			FrameBlock dest, ValueType[] schema, String[] names, long rlen, long clen) 
+			FrameBlock dest, ValueType[] schema, String[] names, long rlen, long clen, IndexRange ixrange) 
 		throws IOException
 	{
 		TextInputFormat informat = new TextInputFormat();
 		informat.configure(job);
 		InputSplit[] splits = informat.getSplits(job, 1);
 		splits = IOUtilFunctions.sortInputSplits(splits);
-		for( int i=0, rpos=0; i<splits.length; i++ )
-			rpos = readCSVFrameFromInputSplit(splits[i], informat,
-				job, dest, schema, names, rlen, clen, rpos, i==0);
+		for( int i=0, rpos=0; i<splits.length; i++ ) {
+			if( ixrange == null )
+				rpos = readCSVFrameFromInputSplit(splits[i], informat,
+					job, dest, schema, names, rlen, clen, rpos, i==0);
+			else if( rpos <= ixrange.rowEnd )
+				rpos = readCSVFrameRangeFromInputSplit(splits[i], informat,
+					job, dest, schema, clen, rpos, i==0, ixrange);
+		}
 	}
 
 	protected final int readCSVFrameFromInputSplit( InputSplit split, InputFormat<LongWritable,Text> informat, JobConf job, 
@@ -188,6 +234,102 @@ public class FrameReaderTextCSV extends FrameReader
 		return row;
 	}
 
+	/**
+	 * Reads the rows of an input split that fall into the given index range, where
+	 * only the tokens of the columns in range are materialized and parsed. Reading
+	 * stops after the last row in range.
+	 * 
+	 * @param split input split
+	 * @param informat input format
+	 * @param job job configuration
+	 * @param dest output frame block of the index range
+	 * @param schema schema of the index range
+	 * @param clen number of columns of the entire frame
+	 * @param rl row offset of the split in the entire frame
+	 * @param first true if first split
+	 * @param ixrange 0-based, inclusive index range
+	 * @return row offset of the next split, or a position after the range
+	 * @throws IOException if IOException occurs
+	 */
+	protected final int readCSVFrameRangeFromInputSplit( InputSplit split, InputFormat<LongWritable,Text> informat, JobConf job, 
+			FrameBlock dest, ValueType[] schema, long clen, int rl, boolean first, IndexRange ixrange)
+		throws IOException
+	{
+		boolean hasHeader = _props.hasHeader();
+		boolean isFill = _props.isFill();
+		double dfillValue = _props.getFillValue();
+		String sfillValue = String.valueOf(_props.getFillValue());
+		String delim = _props.getDelim();
+		int rs = (int)ixrange.rowStart, re = (int)ixrange.rowEnd;
+		int cl = (int)ixrange.colStart, cu = (int)ixrange.colEnd;
+		
+		//create record reader
+		RecordReader<LongWritable, Text> reader = informat.getRecordReader(split, job, Reporter.NULL);
+		LongWritable key = new LongWritable();
+		Text value = new Text();
+		String[] parts = new String[cu-cl+1];
+		int row = rl;
+		
+		//handle header if existing
+		if(first && hasHeader ) {
+			reader.next(key, value); //read header
+			dest.setColumnNames(createOutputNames(value.toString().split(delim), ixrange));
+		}
+		
+		// Read the data
+		boolean emptyValuesFound = false;
+		try
+		{
+			while( row <= re && reader.next(key, value) ) //foreach line
+			{
+				String cellStr = value.toString().trim();
+				
+				//parse frame meta data (missing values / num distinct)
+				if( cellStr.startsWith(TfUtils.TXMTD_MVPREFIX) || cellStr.startsWith(TfUtils.TXMTD_NDPREFIX) ) {
+					String[] mparts = IOUtilFunctions.splitCSV(cellStr, delim);
+					if( mparts[0].equals(TfUtils.TXMTD_MVPREFIX) )
+						for( int j=0; j<dest.getNumColumns(); j++ )
+							dest.getColumnMetadata(j).setMvValue(mparts[cl+j+1]);
+					else if( mparts[0].equals(TfUtils.TXMTD_NDPREFIX) )
+						for( int j=0; j<dest.getNumColumns(); j++ )
+							dest.getColumnMetadata(j).setNumDistinct(Long.parseLong(mparts[cl+j+1]));
+					continue;
+				}
+				
+				//skip rows before the range
+				if( row < rs ) {
+					row++;
+					continue;
+				}
+				
+				emptyValuesFound = false;
+				int ncol = IOUtilFunctions.splitCSV(cellStr, delim, cl, cu, parts);
+				for( int col=0; col<parts.length; col++ ) //foreach cell in range
+				{
+					String part = parts[col].trim();
+					if ( part.isEmpty() ) {
+						if( isFill && dfillValue!=0 )
+							dest.set(row-rs, col, UtilFunctions.stringToObject(schema[col], sfillValue));
+						emptyValuesFound = true;
+					}
+					else {
+						dest.set(row-rs, col, UtilFunctions.stringToObject(schema[col], part));
+					}
+				}
+				
+				//sanity checks for empty values and number of columns
+				IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(cellStr, isFill, emptyValuesFound);
+				IOUtilFunctions.checkAndRaiseErrorCSVNumColumns("", cellStr, ncol, clen);
+				row++;
+			}
+		}
+		finally {
+			IOUtilFunctions.closeSilently(reader);
+		}
+		
+		return row;
+	}
+
 	protected Pair<Integer,Integer> computeCSVSize( Path path, JobConf job, FileSystem fs) 
 		throws IOException 
 	{	
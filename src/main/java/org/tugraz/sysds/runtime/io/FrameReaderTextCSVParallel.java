@@ -41,6 +41,7 @@ import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
 import org.tugraz.sysds.runtime.matrix.data.Pair;
 import org.tugraz.sysds.runtime.transform.TfUtils;
 import org.tugraz.sysds.runtime.util.CommonThreadPool;
+import org.tugraz.sysds.runtime.util.IndexRange;
 
 /**
  * Multi-threaded frame text csv reader.
@@ -54,7 +55,7 @@ public class FrameReaderTextCSVParallel extends FrameReaderTextCSV
 
 	@Override
 	protected void readCSVFrameFromHDFS( Path path, JobConf job, FileSystem fs, 
-			FrameBlock dest, ValueType[] schema, String[] names, long rlen, long clen) 
+			FrameBlock dest, ValueType[] schema, String[] names, long rlen, long clen, IndexRange ixrange) 
 		throws IOException
 	{
 		int numThreads = OptimizerUtils.getParallelTextReadParallelism();
@@ -78,15 +79,20 @@ public class FrameReaderTextCSVParallel extends FrameReaderTextCSV
 			//compute row offset per split via cumsum on row counts
 			long offset = 0;
 			List<Long> offsets = new ArrayList<>();
+			List<Long> counts = new ArrayList<>();
 			for( Future<Long> count : cret ) {
 				offsets.add(offset);
+				counts.add(count.get());
 				offset += count.get();
 			}
 			
-			//read individual splits
+			//read individual splits (overlapping with the index range, or header)
 			ArrayList<ReadRowsTask> tasks2 = new ArrayList<>();
 			for( int i=0; i<splits.length; i++ )
-				tasks2.add( new ReadRowsTask(splits[i], informat, job, dest, offsets.get(i).intValue(), i==0));
+				if( ixrange == null || (i==0 && _props.hasHeader()) || (offsets.get(i) <= ixrange.rowEnd
+					&& offsets.get(i) + counts.get(i) > ixrange.rowStart) )
+					tasks2.add( new ReadRowsTask(splits[i], informat, job, dest,
+						offsets.get(i).intValue(), i==0, clen, ixrange));
 			List<Future<Object>> rret = pool.invokeAll(tasks2);
 			pool.shutdown();
 			
@@ -183,10 +189,11 @@ public class FrameReaderTextCSVParallel extends FrameReaderTextCSV
 		private FrameBlock _dest = null;
 		private int _offset = -1;
 		private boolean _isFirstSplit = false;
-		
+		private long _clen = -1;
+		private IndexRange _ixrange = null;
 		
 		public ReadRowsTask(InputSplit split, TextInputFormat informat, JobConf job, 
-				FrameBlock dest, int offset, boolean first) 
+				FrameBlock dest, int offset, boolean first, long clen, IndexRange ixrange) 
 		{
 			_split = split;
 			_informat = informat;
@@ -194,14 +201,20 @@ public class FrameReaderTextCSVParallel extends FrameReaderTextCSV
 			_dest = dest;
 			_offset = offset;
 			_isFirstSplit = first;
+			_clen = clen;
+			_ixrange = ixrange;
 		}
 
 		@Override
 		public Object call() 
 			throws Exception 
 		{
-			readCSVFrameFromInputSplit(_split, _informat, _job, _dest, _dest.getSchema(), 
-					_dest.getColumnNames(), _dest.getNumRows(), _dest.getNumColumns(), _offset, _isFirstSplit);
+			if( _ixrange != null )
+				readCSVFrameRangeFromInputSplit(_split, _informat, _job, _dest,
+					_dest.getSchema(), _clen, _offset, _isFirstSplit, _ixrange);
+			else
+				readCSVFrameFromInputSplit(_split, _informat, _job, _dest, _dest.getSchema(), 
+						_dest.getColumnNames(), _dest.getNumRows(), _dest.getNumColumns(), _offset, _isFirstSplit);
 			return null;
 		}
 	}
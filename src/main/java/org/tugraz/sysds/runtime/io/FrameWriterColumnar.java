@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+import org.tugraz.sysds.conf.ConfigurationManager;
+import org.tugraz.sysds.conf.DMLConfig;
+import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.io.ColumnarFileFormat.EncodedChunk;
+import org.tugraz.sysds.runtime.io.ColumnarFileFormat.Footer;
+import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
+import org.tugraz.sysds.runtime.util.HDFSTool;
+
+/**
+ * Writer for frames in the columnar binary format (see ColumnarFileFormat),
+ * which encodes every chunk of a column according to its value type and
+ * stores the schema and column names in the footer.
+ */
+public class FrameWriterColumnar extends FrameWriter
+{
+	private final int _numThreads;
+	private final boolean _compress;
+
+	public FrameWriterColumnar() {
+		this(ConfigurationManager.getDMLConfig()
+			.getBooleanValue(DMLConfig.IO_COLUMNAR_COMPRESS));
+	}
+
+	public FrameWriterColumnar(boolean compress) {
+		_numThreads = OptimizerUtils.getParallelBinaryWriteParallelism();
+		_compress = compress;
+	}
+
+	@Override
+	public final void writeFrameToHDFS( FrameBlock src, String fname, long rlen, long clen )
+		throws IOException, DMLRuntimeException
+	{
+		//prepare file access
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+		Path path = new Path( fname );
+		FileSystem fs = IOUtilFunctions.getFileSystem(path, job);
+
+		//if the file already exists on HDFS, remove it.
+		HDFSTool.deleteFileIfExistOnHDFS( fname );
+
+		//bound check for src block
+		if( src.getNumRows() > rlen || src.getNumColumns() > clen ) {
+			throw new IOException("Frame block [1:"+src.getNumRows()+",1:"+src.getNumColumns()+"] " +
+				"out of overall frame range [1:"+rlen+",1:"+clen+"].");
+		}
+
+		//create encode tasks per row chunk and column
+		Footer footer = WriterColumnar.createFooter(true, src.getNumRows(), src.getNumColumns());
+		footer.schema = src.getSchema();
+		footer.names = src.getColumnNames();
+		ArrayList<Callable<List<EncodedChunk>>> tasks = new ArrayList<>();
+		for( int rc=0; rc<footer.getNumRowChunks(); rc++ )
+			for( int j=0; j<src.getNumColumns(); j++ )
+				tasks.add(new EncodeTask(src, rc, footer.chunkRows * rc, footer.getChunkLength(rc), j, _compress));
+
+		//core write (parallel encode, sequential write)
+		WriterColumnar.writeChunksToHDFS(path, fs, footer, tasks, _numThreads);
+
+		IOUtilFunctions.deleteCrcFilesFromLocalFileSystem(fs, path);
+	}
+
+	private static class EncodeTask implements Callable<List<EncodedChunk>>
+	{
+		private final FrameBlock _src;
+		private final int _rowChunk;
+		private final int _rl, _len, _col;
+		private final boolean _compress;
+
+		public EncodeTask(FrameBlock src, int rowChunk, int rl, int len, int col, boolean compress) {
+			_src = src;
+			_rowChunk = rowChunk;
+			_rl = rl;
+			_len = len;
+			_col = col;
+			_compress = compress;
+		}
+
+		@Override
+		public List<EncodedChunk> call() {
+			EncodedChunk chunk = ColumnarFileFormat.encodeFrameColumn(_src.getSchema()[_col],
+				_src.getColumnData(_col), _rl, _len, _col, _rowChunk, _compress);
+			return (chunk != null) ? Collections.singletonList(chunk) : Collections.emptyList();
+		}
+	}
+}
@@ -27,6 +27,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.StringReader;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -119,6 +120,15 @@ public class IOUtilFunctions
 		return scheme.startsWith("s3") || scheme.startsWith("swift");
 	}
 	
+	public static boolean isLocalFileSystem(String fname) {
+		try {
+			return getFileSystem(fname) instanceof LocalFileSystem;
+		}
+		catch(IOException ex) {
+			return false;
+		}
+	}
+	
 	public static String getPartFileName(int pos) {
 		return String.format("0-m-%05d", pos);
 	}
@@ -148,6 +158,88 @@ public class IOUtilFunctions
 		//return FloatingDecimal.parseDouble(str);
 		return Double.parseDouble(str);
 	}
+	
+	/**
+	 * Parses a double directly from a range of ASCII bytes without intermediate
+	 * string allocation. Decimal numbers with up to 18 significant digits whose
+	 * mantissa fits into 53 bits and whose decimal exponent is within [-22,22]
+	 * are computed exactly by a single multiplication or division with a power
+	 * of ten, which yields the same correctly rounded result as Double.parseDouble.
+	 * All other inputs (e.g., NaN, Infinity, long mantissas, large exponents)
+	 * fall back to Double.parseDouble.
+	 * 
+	 * @param buff byte buffer
+	 * @param off offset of the first character
+	 * @param len number of characters (without leading/trailing whitespace)
+	 * @return parsed double value
+	 */
+	public static double parseDouble(byte[] buff, final int off, final int len) {
+		final int end = off + len;
+		int pos = off;
+		boolean neg = false;
+		if( pos < end && (buff[pos] == '-' || buff[pos] == '+') )
+			neg = (buff[pos++] == '-');
+		
+		//parse mantissa digits (w/o leading zeros) and decimal point
+		long mant = 0;
+		int ndigits = 0, nfrac = 0;
+		boolean anyDigit = false, point = false;
+		for( ; pos < end; pos++ ) {
+			int c = buff[pos];
+			if( c >= '0' && c <= '9' ) {
+				anyDigit = true;
+				if( mant == 0 && c == '0' ) {
+					nfrac += point ? 1 : 0;
+					continue;
+				}
+				if( ++ndigits > 18 ) //avoid long overflow
+					return parseDoubleFallback(buff, off, len);
+				mant = mant * 10 + (c - '0');
+				nfrac += point ? 1 : 0;
+			}
+			else if( c == '.' && !point )
+				point = true;
+			else
+				break;
+		}
+		
+		//parse optional exponent
+		int exp = 0;
+		if( anyDigit && pos < end && (buff[pos] == 'e' || buff[pos] == 'E') ) {
+			pos++;
+			boolean eneg = false;
+			if( pos < end && (buff[pos] == '-' || buff[pos] == '+') )
+				eneg = (buff[pos++] == '-');
+			int epos = pos;
+			for( ; pos < end && buff[pos] >= '0' && buff[pos] <= '9'; pos++ ) {
+				if( exp > 1000 )
+					return parseDoubleFallback(buff, off, len);
+				exp = exp * 10 + (buff[pos] - '0');
+			}
+			if( epos == pos )
+				return parseDoubleFallback(buff, off, len);
+			exp = eneg ? -exp : exp;
+		}
+		
+		//fallback for invalid or special inputs and inexact fast paths
+		if( !anyDigit || pos != end || mant > (1L << 53) )
+			return parseDoubleFallback(buff, off, len);
+		if( mant == 0 )
+			return neg ? -0d : 0d;
+		exp -= nfrac;
+		if( exp < -22 || exp > 22 )
+			return parseDoubleFallback(buff, off, len);
+		double ret = (exp >= 0) ? mant * POW10[exp] : mant / POW10[-exp];
+		return neg ? -ret : ret;
+	}
+	
+	private static final double[] POW10 = new double[] {1e0, 1e1, 1e2, 1e3, 1e4, 
+		1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 
+		1e18, 1e19, 1e20, 1e21, 1e22};
+	
+	private static double parseDoubleFallback(byte[] buff, int off, int len) {
+		return Double.parseDouble(new String(buff, off, len, StandardCharsets.US_ASCII));
+	}
 
 	public static void checkAndRaiseErrorCSVEmptyField(String row, boolean fill, boolean emptyFound) 
 		throws IOException
@@ -161,8 +253,12 @@ public class IOUtilFunctions
 	public static void checkAndRaiseErrorCSVNumColumns(String fname, String line, String[] parts, long ncol) 
 		throws IOException
 	{
-		int realncol = parts.length;
-		
+		checkAndRaiseErrorCSVNumColumns(fname, line, parts.length, ncol);
+	}
+	
+	public static void checkAndRaiseErrorCSVNumColumns(String fname, String line, int realncol, long ncol) 
+		throws IOException
+	{
 		if( realncol != ncol ) {
 			throw new IOException("Invalid number of columns (" + realncol + ", expected=" + ncol + ") "
 					+ "found in delimited file (" + fname + ") for line: " + line);
@@ -185,6 +281,38 @@ public class IOUtilFunctions
 		return StringUtils.splitByWholeSeparatorPreserveAllTokens(str, delim);
 	}
 	
+	/**
+	 * Splits a string by a specified delimiter but only materializes the tokens
+	 * of the given 0-based, inclusive column range, while the remaining tokens
+	 * are only counted (e.g., for projection pushdown into CSV reads).
+	 * 
+	 * @param str string to split
+	 * @param delim delimiter
+	 * @param cl column lower index, inclusive, 0-based
+	 * @param cu column upper index, inclusive, 0-based
+	 * @param tokens array for the tokens of the column range, length cu-cl+1
+	 * @return total number of tokens
+	 */
+	public static int split(String str, String delim, int cl, int cu, String[] tokens)
+	{
+		// check for empty input (consistent with split)
+		if( str == null || str.isEmpty() )
+			return 0;
+		
+		// scan string and slice out tokens in range
+		int from = 0, to = 0, pos = 0;
+		int len = str.length();
+		while( to < len ) { // for all tokens
+			to = str.indexOf(delim, from);
+			to = (to >= 0) ? to : len;
+			if( pos >= cl && pos <= cu )
+				tokens[pos-cl] = str.substring(from, to);
+			from = to + delim.length();
+			pos++;
+		}
+		return pos;
+	}
+	
 	/**
 	 * Splits a string by a specified delimiter into all tokens, including empty
 	 * while respecting the rules for quotes and escapes defined in RFC4180,
@@ -292,6 +420,71 @@ public class IOUtilFunctions
 		return tokens;
 	}
 	
+	/**
+	 * Splits a string by a specified delimiter, respecting the rules for quotes
+	 * and escapes defined in RFC4180, but only materializes the tokens of the
+	 * given 0-based, inclusive column range, while the remaining tokens are
+	 * only counted (e.g., for projection pushdown into CSV reads).
+	 * 
+	 * @param str string to split
+	 * @param delim delimiter
+	 * @param cl column lower index, inclusive, 0-based
+	 * @param cu column upper index, inclusive, 0-based
+	 * @param tokens array for the tokens of the column range, length cu-cl+1
+	 * @return total number of tokens
+	 */
+	public static int splitCSV(String str, String delim, int cl, int cu, String[] tokens)
+	{
+		// check for empty input
+		if( str == null || str.isEmpty() ) {
+			if( cl == 0 )
+				tokens[0] = "";
+			return 1;
+		}
+		
+		// scan string and slice out tokens in range
+		int from = 0, to = 0; 
+		int len = str.length();
+		int dlen = delim.length();
+		int pos = 0;
+		while( from < len  ) { // for all tokens
+			if( str.charAt(from) == CSV_QUOTE_CHAR
+				&& str.indexOf(CSV_QUOTE_CHAR, from+1) > 0 ) {
+				to = str.indexOf(CSV_QUOTE_CHAR, from+1);
+				// handle escaped inner quotes, e.g. "aa""a"
+				while( to+1 < len && str.charAt(to+1)==CSV_QUOTE_CHAR )
+					to = str.indexOf(CSV_QUOTE_CHAR, to+2); // to + ""
+				to += 1; // last "
+				// handle remaining non-quoted characters "aa"a 
+				if( to<len-1 && !str.regionMatches(to, delim, 0, dlen) )
+					to = str.indexOf(delim, to+1);
+			}
+			else if( str.regionMatches(from, delim, 0, dlen) ) {
+				to = from; // empty string
+			}
+			else { // default: unquoted non-empty
+				to = str.indexOf(delim, from+1);
+			}
+			
+			// slice out token if in range and advance position
+			to = (to >= 0) ? to : len;
+			if( pos >= cl && pos <= cu )
+				tokens[pos-cl] = str.substring(from, to);
+			from = to + delim.length();
+			pos++;
+		}
+		
+		// handle empty string at end
+		if( from == len ) {
+			if( pos >= cl && pos <= cu )
+				tokens[pos-cl] = "";
+			pos++;
+		}
+		
+		// return number of tokens
+		return pos;
+	}
+	
 	/**
 	 * Counts the number of tokens defined by the given delimiter, respecting 
 	 * the rules for quotes and escapes defined in RFC4180,
@@ -39,6 +39,7 @@ import org.tugraz.sysds.runtime.data.SparseBlock;
 import org.tugraz.sysds.runtime.data.SparseBlockMCSR;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.util.HDFSTool;
+import org.tugraz.sysds.runtime.util.IndexRange;
 
 /**
  * Base class for all format-specific matrix readers. Every reader is required to implement the basic 
@@ -58,6 +59,29 @@ public abstract class MatrixReader
 	public abstract MatrixBlock readMatrixFromHDFS( String fname, long rlen, long clen, int brlen, int bclen, long estnnz )
 		throws IOException, DMLRuntimeException;
 
+	/**
+	 * Reads the given 0-based, inclusive row and column range of a matrix.
+	 * By default, this reads the entire matrix and slices the range, while
+	 * readers that can skip blocks, splits, or columns outside the range
+	 * override this method to avoid materializing the entire matrix.
+	 * 
+	 * @param fname file name
+	 * @param rlen number of rows of the entire matrix
+	 * @param clen number of columns of the entire matrix
+	 * @param brlen number of rows in a block
+	 * @param bclen number of columns in a block
+	 * @param estnnz estimated number of non-zeros of the entire matrix
+	 * @param ixrange 0-based, inclusive index range
+	 * @return matrix block of the index range
+	 * @throws IOException if IOException occurs
+	 */
+	public MatrixBlock readMatrixFromHDFS( String fname, long rlen, long clen, int brlen, int bclen, long estnnz, IndexRange ixrange )
+		throws IOException, DMLRuntimeException
+	{
+		MatrixBlock tmp = readMatrixFromHDFS(fname, rlen, clen, brlen, bclen, estnnz);
+		return tmp.slice(ixrange, new MatrixBlock());
+	}
+
 	public abstract MatrixBlock readMatrixFromInputStream( InputStream is, long rlen, long clen, int brlen, int bclen, long estnnz )
 			throws IOException, DMLRuntimeException;
 	
@@ -112,6 +136,15 @@ public abstract class MatrixReader
 		return ret;
 	}
 
+	protected static void checkValidIndexRange(IndexRange ixrange, long rlen, long clen)
+		throws IOException
+	{
+		if( ixrange.rowStart < 0 || ixrange.rowEnd < ixrange.rowStart || (rlen >= 0 && ixrange.rowEnd >= rlen)
+			|| ixrange.colStart < 0 || ixrange.colEnd < ixrange.colStart || (clen >= 0 && ixrange.colEnd >= clen) )
+			throw new IOException("Invalid index range for read: "+ixrange.add(1)
+				+" must be within matrix dimensions ["+rlen+","+clen+"].");
+	}
+
 	protected static void checkValidInputFile(FileSystem fs, Path path) 
 		throws IOException
 	{
@@ -55,6 +55,8 @@ public class MatrixReaderFactory
 			else
 				reader = new ReaderBinaryBlock( false );
 		}
+		else if( iinfo == InputInfo.ColumnarInputInfo )
+			reader = new ReaderColumnar();
 		else {
 			throw new DMLRuntimeException("Failed to create matrix reader for unknown input info: "
 		                                   + InputInfo.inputInfoToString(iinfo));
@@ -79,10 +81,18 @@ public class MatrixReaderFactory
 				reader = new ReaderTextCell( iinfo );
 		}
 		else if( iinfo == InputInfo.CSVInputInfo ) {
-			if( ConfigurationManager.getCompilerConfigFlag(ConfigType.PARALLEL_CP_READ_TEXTFORMATS) && MatrixBlock.DEFAULT_SPARSEBLOCK == SparseBlock.Type.MCSR )
-				reader = new ReaderTextCSVParallel( props.formatProperties!=null ? (FileFormatPropertiesCSV)props.formatProperties : new FileFormatPropertiesCSV());
+			FileFormatPropertiesCSV fprops = props.formatProperties!=null ?
+				(FileFormatPropertiesCSV)props.formatProperties : new FileFormatPropertiesCSV();
+			if( ConfigurationManager.getCompilerConfigFlag(ConfigType.PARALLEL_CP_READ_TEXTFORMATS) && MatrixBlock.DEFAULT_SPARSEBLOCK == SparseBlock.Type.MCSR ) {
+				//single-pass reader over memory-mapped files for local file system
+				//(range reads use the two-pass reader, which skips splits by row offsets)
+				if( props.path != null && props.indexRange == null && IOUtilFunctions.isLocalFileSystem(props.path) )
+					reader = new ReaderTextCSVLocalParallel( fprops );
+				else
+					reader = new ReaderTextCSVParallel( fprops );
+			}
 			else
-				reader = new ReaderTextCSV( props.formatProperties!=null ? (FileFormatPropertiesCSV)props.formatProperties : new FileFormatPropertiesCSV());
+				reader = new ReaderTextCSV( fprops );
 		}
 		else if( iinfo == InputInfo.LIBSVMInputInfo) {
 			if( ConfigurationManager.getCompilerConfigFlag(ConfigType.PARALLEL_CP_READ_TEXTFORMATS) && MatrixBlock.DEFAULT_SPARSEBLOCK == SparseBlock.Type.MCSR )
@@ -98,6 +108,8 @@ public class MatrixReaderFactory
 			else
 				reader = new ReaderBinaryBlock( props.localFS );
 		}
+		else if( iinfo == InputInfo.ColumnarInputInfo )
+			reader = new ReaderColumnar();
 		else {
 			throw new DMLRuntimeException("Failed to create matrix reader for unknown input info: "
 		                                   + InputInfo.inputInfoToString(iinfo));
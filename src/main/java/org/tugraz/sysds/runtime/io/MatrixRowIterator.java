@@ -0,0 +1,473 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.runtime.io;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.mapred.JobConf;
+import org.tugraz.sysds.conf.ConfigurationManager;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
+import org.tugraz.sysds.runtime.data.DenseBlock;
+import org.tugraz.sysds.runtime.data.SparseBlock;
+import org.tugraz.sysds.runtime.matrix.data.InputInfo;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixIndexes;
+import org.tugraz.sysds.runtime.matrix.mapred.MRJobConfiguration;
+import org.tugraz.sysds.runtime.util.UtilFunctions;
+
+/**
+ * Streaming iterator over the rows of a matrix in batches of consecutive
+ * rows, either from an in-memory matrix block or a persisted binary-block
+ * or CSV matrix. All batches are returned in a single, reused row batch
+ * (row-major dense values), which is only valid until the next call of
+ * {@code next()}. Persisted matrices are read incrementally, i.e., for
+ * binary-block only the blocks of the current block row (plus out-of-order
+ * blocks) are kept in memory, and blocks not found in the input are treated
+ * as empty blocks.
+ */
+public abstract class MatrixRowIterator implements Iterator<MatrixRowIterator.RowBatch>, Closeable
+{
+	public static final int DEFAULT_BATCH_ROWS = 1024;
+
+	protected final int _rlen;
+	protected final int _clen;
+	private final RowBatch _batch;
+	private int _rix = 0;
+
+	protected MatrixRowIterator(long rlen, long clen, int batchRows) {
+		if( rlen < 0 || clen < 0 )
+			throw new DMLRuntimeException("Streaming row iterator requires known dimensions: "+rlen+" x "+clen+".");
+		if( rlen > Integer.MAX_VALUE || clen > Integer.MAX_VALUE )
+			throw new DMLRuntimeException("Matrix dimensions too large for streaming row iterator: "+rlen+" x "+clen+".");
+		_rlen = (int) rlen;
+		_clen = (int) clen;
+		//bound batch size by number of rows and max array length
+		int nrow = Math.min(Math.max(batchRows, 1), Math.max(_rlen, 1));
+		nrow = (int) Math.max(Math.min(nrow, Integer.MAX_VALUE / Math.max(clen, 1)), 1);
+		_batch = new RowBatch(nrow, _clen);
+	}
+
+	/**
+	 * Creates a row iterator over an in-memory matrix block.
+	 *
+	 * @param mb matrix block
+	 * @param batchRows max number of rows per batch
+	 * @return row iterator
+	 */
+	public static MatrixRowIterator create(MatrixBlock mb, int batchRows) {
+		return new BlockRowIterator(mb, null, batchRows);
+	}
+
+	/**
+	 * Creates a row iterator over the in-memory matrix block of a matrix
+	 * object, which is pinned until the iterator is closed or exhausted.
+	 *
+	 * @param mo matrix object
+	 * @param batchRows max number of rows per batch
+	 * @return row iterator
+	 */
+	public static MatrixRowIterator create(MatrixObject mo, int batchRows) {
+		MatrixBlock mb = mo.acquireRead();
+		try {
+			return new BlockRowIterator(mb, mo, batchRows);
+		}
+		catch(RuntimeException ex) {
+			mo.release();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Creates a row iterator over a persisted matrix in binary-block or CSV
+	 * format, which needs to be closed after use.
+	 *
+	 * @param fname file name
+	 * @param iinfo input info (binary-block or CSV)
+	 * @param rlen number of rows
+	 * @param clen number of columns
+	 * @param brlen number of rows per block
+	 * @param bclen number of columns per block
+	 * @param props CSV file format properties, or null for defaults
+	 * @param batchRows max number of rows per batch
+	 * @return row iterator
+	 * @throws IOException if IOException occurs
+	 */
+	public static MatrixRowIterator create(String fname, InputInfo iinfo, long rlen, long clen,
+		int brlen, int bclen, FileFormatPropertiesCSV props, int batchRows)
+		throws IOException
+	{
+		if( iinfo == InputInfo.BinaryBlockInputInfo )
+			return new BinaryBlockRowIterator(fname, rlen, clen, brlen, bclen, batchRows);
+		else if( iinfo == InputInfo.CSVInputInfo )
+			return new CSVRowIterator(fname, rlen, clen,
+				(props != null) ? props : new FileFormatPropertiesCSV(), batchRows);
+		throw new DMLRuntimeException("Unsupported format for streaming row iterator: "
+			+ InputInfo.inputInfoToString(iinfo));
+	}
+
+	@Override
+	public boolean hasNext() {
+		return _rix < _rlen;
+	}
+
+	@Override
+	public RowBatch next() {
+		if( !hasNext() )
+			throw new NoSuchElementException();
+		int n = Math.min(_batch._maxRows, _rlen - _rix);
+		try {
+			readRows(_batch._values, _rix, n);
+		}
+		catch(IOException ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		_batch._rowIndex = _rix;
+		_batch._numRows = n;
+		_rix += n;
+		return _batch;
+	}
+
+	@Override
+	public void close() throws IOException {
+		//do nothing
+	}
+
+	/**
+	 * Reads the next n rows (starting at row rl) into the given row-major
+	 * dense array, overwriting all n*clen values.
+	 *
+	 * @param dest row-major output array
+	 * @param rl row lower index, 0-based
+	 * @param n number of rows
+	 * @throws IOException if IOException occurs
+	 */
+	protected abstract void readRows(double[] dest, int rl, int n) throws IOException;
+
+	/**
+	 * Copies n rows of the given block (starting at block-local row rl)
+	 * into a row-major array with the given row stride and column offset.
+	 */
+	protected static void copyRows(MatrixBlock src, int rl, int n, double[] dest, int dpos, int stride, int cl) {
+		int ncol = src.getNumColumns();
+		if( src.isEmptyBlock(false) ) {
+			for( int i=0, pos=dpos+cl; i<n; i++, pos+=stride )
+				Arrays.fill(dest, pos, pos+ncol, 0);
+		}
+		else if( src.isInSparseFormat() ) {
+			SparseBlock a = src.getSparseBlock();
+			for( int i=rl, pos=dpos+cl; i<rl+n; i++, pos+=stride ) {
+				Arrays.fill(dest, pos, pos+ncol, 0);
+				if( a.isEmpty(i) ) continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				for( int k=apos; k<apos+alen; k++ )
+					dest[pos+aix[k]] = avals[k];
+			}
+		}
+		else {
+			DenseBlock a = src.getDenseBlock();
+			for( int i=rl, pos=dpos+cl; i<rl+n; i++, pos+=stride )
+				System.arraycopy(a.values(i), a.pos(i), dest, pos, ncol);
+		}
+	}
+
+	/**
+	 * Batch of consecutive rows in row-major dense format. The underlying
+	 * array is reused across batches and may be larger than the batch.
+	 */
+	public static class RowBatch
+	{
+		private final double[] _values;
+		private final int _maxRows;
+		private final int _numCols;
+		private int _rowIndex;
+		private int _numRows;
+
+		private RowBatch(int maxRows, int numCols) {
+			_values = new double[maxRows * numCols];
+			_maxRows = maxRows;
+			_numCols = numCols;
+		}
+
+		public double[] values() {
+			return _values;
+		}
+
+		public int pos(int i) {
+			return i * _numCols;
+		}
+
+		public double get(int i, int j) {
+			return _values[i * _numCols + j];
+		}
+
+		public int getRowIndex() {
+			return _rowIndex;
+		}
+
+		public int getNumRows() {
+			return _numRows;
+		}
+
+		public int getNumColumns() {
+			return _numCols;
+		}
+	}
+
+	private static class BlockRowIterator extends MatrixRowIterator
+	{
+		private final MatrixBlock _src;
+		private MatrixObject _pinned; //released on close or exhaustion
+
+		public BlockRowIterator(MatrixBlock src, MatrixObject pinned, int batchRows) {
+			super(src.getNumRows(), src.getNumColumns(), batchRows);
+			_src = src;
+			_pinned = pinned;
+		}
+
+		@Override
+		public boolean hasNext() {
+			boolean ret = super.hasNext();
+			if( !ret )
+				release();
+			return ret;
+		}
+
+		@Override
+		protected void readRows(double[] dest, int rl, int n) {
+			copyRows(_src, rl, n, dest, 0, _clen, 0);
+			//batches are copies, so the last batch does not require the pin
+			if( rl + n >= _rlen )
+				release();
+		}
+
+		@Override
+		public void close() {
+			release();
+		}
+
+		private void release() {
+			if( _pinned != null ) {
+				_pinned.release();
+				_pinned = null;
+			}
+		}
+	}
+
+	private static class BinaryBlockRowIterator extends MatrixRowIterator
+	{
+		private final int _brlen;
+		private final int _bclen;
+		private final int _ncb;
+		private final JobConf _job;
+		private final Path[] _files;
+		private int _fileIx = 0;
+		private SequenceFile.Reader _reader = null;
+		private final MatrixIndexes _key = new MatrixIndexes();
+
+		//blocks of incomplete block rows, and reusable blocks
+		private final HashMap<Long, MatrixBlock[]> _pending = new HashMap<>();
+		private final HashMap<Long, Integer> _counts = new HashMap<>();
+		private final ArrayDeque<MatrixBlock> _free = new ArrayDeque<>();
+		private MatrixBlock[] _cur = null;
+		private long _curBix = -1;
+
+		public BinaryBlockRowIterator(String fname, long rlen, long clen, int brlen, int bclen, int batchRows)
+			throws IOException
+		{
+			super(rlen, clen, batchRows);
+			_brlen = brlen;
+			_bclen = bclen;
+			_ncb = (int) Math.max(Math.ceil((double)clen/bclen), 1);
+			_job = new JobConf(ConfigurationManager.getCachedJobConf());
+			Path path = new Path(fname);
+			FileSystem fs = IOUtilFunctions.getFileSystem(path, _job);
+			MatrixReader.checkValidInputFile(fs, path);
+			_files = IOUtilFunctions.getSequenceFilePaths(fs, path);
+			Arrays.sort(_files);
+
+			//set up preferred custom serialization framework for binary block format
+			if( MRJobConfiguration.USE_BINARYBLOCK_SERIALIZATION )
+				MRJobConfiguration.addBinaryBlockSerializationFramework(_job);
+		}
+
+		@Override
+		protected void readRows(double[] dest, int rl, int n) throws IOException {
+			int dpos = 0;
+			for( int i=rl; i<rl+n; ) {
+				long bix = i / _brlen;
+				if( bix != _curBix )
+					nextBlockRow(bix);
+				int lrl = i - (int)bix * _brlen;
+				int lnrow = Math.min(rl + n - i, _cur[0].getNumRows() - lrl);
+				for( int cb=0; cb<_ncb; cb++ )
+					copyRows(_cur[cb], lrl, lnrow, dest, dpos, _clen, cb*_bclen);
+				dpos += lnrow * _clen;
+				i += lnrow;
+			}
+		}
+
+		private void nextBlockRow(long bix) throws IOException {
+			//recycle blocks of the consumed block row
+			if( _cur != null )
+				Collections.addAll(_free, _cur);
+			//read blocks until the requested block row is complete
+			while( _counts.getOrDefault(bix, 0) < _ncb ) {
+				MatrixBlock value = _free.isEmpty() ? new MatrixBlock() : _free.poll();
+				if( !readBlock(value) ) {
+					//fill blocks not written (e.g., empty blocks)
+					MatrixBlock[] blocks = _pending.computeIfAbsent(bix, k -> new MatrixBlock[_ncb]);
+					int nrow = (int)Math.min(_brlen, _rlen - bix*_brlen);
+					for( int c=0; c<_ncb; c++ )
+						if( blocks[c] == null )
+							blocks[c] = new MatrixBlock(nrow, Math.min(_bclen, _clen - c*_bclen), true);
+					break;
+				}
+				long r = _key.getRowIndex() - 1;
+				int c = (int)_key.getColumnIndex() - 1;
+				if( r < 0 || r*_brlen + value.getNumRows() > _rlen || c < 0
+					|| (long)c*_bclen + value.getNumColumns() > _clen ) {
+					throw new IOException("Matrix block ["+_key.getRowIndex()+","+_key.getColumnIndex()+"] "
+						+ "out of overall matrix range [1:"+_rlen+",1:"+_clen+"].");
+				}
+				MatrixBlock[] blocks = _pending.computeIfAbsent(r, k -> new MatrixBlock[_ncb]);
+				if( blocks[c] == null )
+					_counts.put(r, _counts.getOrDefault(r, 0) + 1);
+				blocks[c] = value;
+			}
+			_cur = _pending.remove(bix);
+			_counts.remove(bix);
+			_curBix = bix;
+		}
+
+		private boolean readBlock(MatrixBlock value) throws IOException {
+			while( _reader == null || !_reader.next(_key, value) ) {
+				IOUtilFunctions.closeSilently(_reader);
+				_reader = null;
+				if( _fileIx >= _files.length )
+					return false;
+				_reader = new SequenceFile.Reader(_job, SequenceFile.Reader.file(_files[_fileIx++]));
+			}
+			return true;
+		}
+
+		@Override
+		public void close() {
+			IOUtilFunctions.closeSilently(_reader);
+			_reader = null;
+			_pending.clear();
+			_free.clear();
+		}
+	}
+
+	private static class CSVRowIterator extends MatrixRowIterator
+	{
+		private final String _fname;
+		private final FileSystem _fs;
+		private final ArrayList<Path> _files = new ArrayList<>();
+		private final FileFormatPropertiesCSV _props;
+		private final String[] _tokens;
+		private int _fileIx = 0;
+		private BufferedReader _reader = null;
+
+		public CSVRowIterator(String fname, long rlen, long clen, FileFormatPropertiesCSV props, int batchRows)
+			throws IOException
+		{
+			super(rlen, clen, batchRows);
+			_fname = fname;
+			_props = props;
+			_tokens = new String[Math.max(_clen, 1)];
+			JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+			Path path = new Path(fname);
+			_fs = IOUtilFunctions.getFileSystem(path, job);
+			MatrixReader.checkValidInputFile(_fs, path);
+
+			//prepare file paths in alphanumeric order
+			if( _fs.isDirectory(path) ) {
+				for( FileStatus stat : _fs.listStatus(path, IOUtilFunctions.hiddenFileFilter) )
+					_files.add(stat.getPath());
+				Collections.sort(_files);
+			}
+			else
+				_files.add(path);
+		}
+
+		@Override
+		protected void readRows(double[] dest, int rl, int n) throws IOException {
+			String delim = _props.getDelim();
+			boolean fill = _props.isFill();
+			double fillValue = _props.getFillValue();
+			for( int i=0, pos=0; i<n; i++, pos+=_clen ) {
+				String line = nextLine();
+				if( line == null )
+					throw new IOException("Fewer rows than expected ("+_rlen+") in delimited file ("+_fname+").");
+				String cellStr = line.trim();
+				int ncol = IOUtilFunctions.splitCSV(cellStr, delim, 0, _clen-1, _tokens);
+				IOUtilFunctions.checkAndRaiseErrorCSVNumColumns(_fname, cellStr, ncol, _clen);
+				boolean emptyValuesFound = false;
+				for( int j=0; j<_clen; j++ ) {
+					String part = _tokens[j].trim();
+					if( part.isEmpty() ) {
+						emptyValuesFound = true;
+						dest[pos+j] = fillValue;
+					}
+					else
+						dest[pos+j] = UtilFunctions.parseToDouble(part);
+				}
+				IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(cellStr, fill, emptyValuesFound);
+			}
+		}
+
+		private String nextLine() throws IOException {
+			String line = null;
+			while( _reader == null || (line = _reader.readLine()) == null ) {
+				IOUtilFunctions.closeSilently(_reader);
+				_reader = null;
+				if( _fileIx >= _files.size() )
+					return null;
+				_reader = new BufferedReader(new InputStreamReader(_fs.open(_files.get(_fileIx))));
+				if( _fileIx++ == 0 && _props.hasHeader() )
+					_reader.readLine(); //ignore header
+			}
+			return line;
+		}
+
+		@Override
+		public void close() {
+			IOUtilFunctions.closeSilently(_reader);
+			_reader = null;
+		}
+	}
+}
@@ -73,6 +73,9 @@ public class MatrixWriterFactory
 			else
 				writer = new WriterBinaryBlock(replication);
 		}
+		else if( oinfo == OutputInfo.ColumnarOutputInfo ) {
+			writer = new WriterColumnar();
+		}
 		else {
 			throw new DMLRuntimeException("Failed to create matrix writer for unknown output info: "
 		                                   + OutputInfo.outputInfoToString(oinfo));
@@ -20,6 +20,7 @@
 package org.tugraz.sysds.runtime.io;
 
 import org.tugraz.sysds.runtime.matrix.data.InputInfo;
+import org.tugraz.sysds.runtime.util.IndexRange;
 
 public class ReadProperties 
 {
@@ -31,6 +32,9 @@ public class ReadProperties
 	public InputInfo inputInfo;
 	public boolean localFS;
 	
+	// Optional 0-based row/column range to read (null for entire matrix)
+	public IndexRange indexRange;
+	
 	// Properties specific to CSV files
 	public FileFormatProperties formatProperties;
 	
@@ -42,5 +46,6 @@ public class ReadProperties
 		expectedNnz = -1;
 		inputInfo = null;
 		localFS = false;
+		indexRange = null;
 	}
 }
@@ -39,6 +39,7 @@ import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.data.MatrixIndexes;
 import org.tugraz.sysds.runtime.matrix.mapred.MRJobConfiguration;
 import org.tugraz.sysds.runtime.util.CommonThreadPool;
+import org.tugraz.sysds.runtime.util.IndexRange;
 
 
 public class ReaderBinaryBlockParallel extends ReaderBinaryBlock 
@@ -74,7 +75,7 @@ public class ReaderBinaryBlockParallel extends ReaderBinaryBlock
 		int numThreads = OptimizerUtils.getParallelBinaryReadParallelism();
 		long numBlocks = (long)Math.ceil((double)rlen / brlen);
 		readBinaryBlockMatrixFromHDFS(path, job, fs, ret,
-			rlen, clen, brlen, bclen, numThreads<=numBlocks);
+			rlen, clen, brlen, bclen, null, numThreads<=numBlocks);
 		
 		//finally check if change of sparse/dense block representation required
 		if( !AGGREGATE_BLOCK_NNZ )
@@ -83,9 +84,57 @@ public class ReaderBinaryBlockParallel extends ReaderBinaryBlock
 		
 		return ret;
 	}
+	
+	@Override
+	public MatrixBlock readMatrixFromHDFS(String fname, long rlen, long clen, int brlen, int bclen, long estnnz, IndexRange ixrange) 
+		throws IOException, DMLRuntimeException 
+	{
+		checkValidIndexRange(ixrange, rlen, clen);
+		long rlen2 = ixrange.rowEnd - ixrange.rowStart + 1;
+		long clen2 = ixrange.colEnd - ixrange.colStart + 1;
+		
+		//early abort for known empty matrices (e.g., remote parfor result vars)
+		if( RETURN_EMPTY_NNZ0 && estnnz == 0 )
+			return new MatrixBlock((int)rlen2, (int)clen2, true);
+		
+		//allocate output matrix block of the range (w/ nnz estimate under uniform distribution)
+		long estnnz2 = (estnnz < 0) ? -1 :
+			(long)Math.ceil((double)estnnz / rlen / clen * rlen2 * clen2);
+		MatrixBlock ret = createOutputMatrixBlock(rlen2, clen2, brlen, bclen, estnnz2, true, false);
+		if( ret.isInSparseFormat() ) {
+			//allocate all rows for fine-grained locking, because block
+			//boundaries are not aligned with the rows of the range
+			ret.allocateSparseRowsBlock();
+			SparseBlock sblock = ret.getSparseBlock();
+			if( sblock instanceof SparseBlockMCSR && isMultiColBlock(ixrange, bclen) )
+				for( int i=0; i<rlen2; i++ )
+					sblock.allocate(i, Math.max((int)(Math.max(estnnz2,0)/rlen2),2), (int)clen2);
+		}
+		
+		//prepare file access
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+		Path path = new Path( (_localFS ? "file:///" : "") + fname); 
+		FileSystem fs = IOUtilFunctions.getFileSystem(path, job);
+		
+		//check existence and non-empty file
+		checkValidInputFile(fs, path); 
+		
+		//core read (skips blocks outside the index range)
+		readBinaryBlockMatrixFromHDFS(path, job, fs, ret,
+			rlen, clen, brlen, bclen, ixrange, false);
+		
+		//finally check if change of sparse/dense block representation required
+		ret.examSparsity();
+		
+		return ret;
+	}
+
+	private static boolean isMultiColBlock(IndexRange ixrange, int bclen) {
+		return ixrange.colStart / bclen != ixrange.colEnd / bclen;
+	}
 
 	private static void readBinaryBlockMatrixFromHDFS( Path path, JobConf job, FileSystem fs, MatrixBlock dest,
-			long rlen, long clen, int brlen, int bclen, boolean syncBlock )
+			long rlen, long clen, int brlen, int bclen, IndexRange ixrange, boolean syncBlock )
 		throws IOException, DMLRuntimeException
 	{
 		//set up preferred custom serialization framework for binary block format
@@ -98,7 +147,7 @@ public class ReaderBinaryBlockParallel extends ReaderBinaryBlock
 			ExecutorService pool = CommonThreadPool.get(_numThreads);
 			ArrayList<ReadFileTask> tasks = new ArrayList<>();
 			for( Path lpath : IOUtilFunctions.getSequenceFilePaths(fs, path) ){
-				ReadFileTask t = new ReadFileTask(lpath, job, dest, rlen, clen, brlen, bclen, syncBlock);
+				ReadFileTask t = new ReadFileTask(lpath, job, dest, rlen, clen, brlen, bclen, ixrange, syncBlock);
 				tasks.add(t);
 			}
 
@@ -112,8 +161,8 @@ public class ReaderBinaryBlockParallel extends ReaderBinaryBlock
 			
 			//post-processing
 			dest.setNonZeros( lnnz );
-			if( dest.isInSparseFormat() && clen>bclen ) 
-				sortSparseRowsParallel(dest, rlen, _numThreads, pool);
+			if( dest.isInSparseFormat() && (ixrange==null ? clen>bclen : isMultiColBlock(ixrange, bclen)) ) 
+				sortSparseRowsParallel(dest, dest.getNumRows(), _numThreads, pool);
 			
 			pool.shutdown();
 		} 
@@ -129,9 +178,10 @@ public class ReaderBinaryBlockParallel extends ReaderBinaryBlock
 		private final MatrixBlock _dest;
 		private final long _rlen, _clen;
 		private final int _brlen, _bclen;
+		private final IndexRange _ixrange;
 		private final boolean _syncBlocks;
 		
-		public ReadFileTask(Path path, JobConf job, MatrixBlock dest, long rlen, long clen, int brlen, int bclen, boolean syncBlocks) {
+		public ReadFileTask(Path path, JobConf job, MatrixBlock dest, long rlen, long clen, int brlen, int bclen, IndexRange ixrange, boolean syncBlocks) {
 			_path = path;
 			_job = job;
 			_dest = dest;
@@ -139,6 +189,7 @@ public class ReaderBinaryBlockParallel extends ReaderBinaryBlock
 			_clen = clen;
 			_brlen = brlen;
 			_bclen = bclen;
+			_ixrange = ixrange;
 			_syncBlocks = syncBlocks;
 		}
 
@@ -148,6 +199,7 @@ public class ReaderBinaryBlockParallel extends ReaderBinaryBlock
 			boolean sparse = _dest.isInSparseFormat();
 			MatrixIndexes key = new MatrixIndexes(); 
 			MatrixBlock value = getReuseBlock(_brlen, _bclen, sparse);
+			MatrixBlock tmp = (_ixrange != null) ? new MatrixBlock() : null;
 			long lnnz = 0; //aggregate block nnz
 			
 			//directly read from sequence files (individual partfiles)
@@ -157,7 +209,8 @@ public class ReaderBinaryBlockParallel extends ReaderBinaryBlock
 			try
 			{
 				//note: next(key, value) does not yet exploit the given serialization classes, record reader does but is generally slower.
-				while( reader.next(key, value) )
+				//(for range reads, we read the key first and deserialize only overlapping blocks)
+				while( _ixrange == null ? reader.next(key, value) : nextInRange(reader, key, value) )
 				{	
 					//empty block filter (skip entire block)
 					if( value.isEmptyBlock(false) )
@@ -175,44 +228,26 @@ public class ReaderBinaryBlockParallel extends ReaderBinaryBlock
 							+(row_offset+rows)+","+(col_offset+1)+":"+(col_offset+cols)+"] " +
 							"out of overall matrix range [1:"+_rlen+",1:"+_clen+"].");
 					}
-			
-					//copy block to result
-					if( sparse )
-					{
-						//note: append requires final sort
-						if (cols < _clen ) {
-							//sparse requires lock, when matrix is wider than one block
-							//(fine-grained locking of block rows instead of the entire matrix)
-							//NOTE: fine-grained locking depends on MCSR SparseRow objects 
-							SparseBlock sblock = _dest.getSparseBlock();
-							if( sblock instanceof SparseBlockMCSR && sblock.get(row_offset) != null ) {
-								if( _syncBlocks ) {
-									synchronized( sblock.get(row_offset) ){ 
-										_dest.appendToSparse(value, row_offset, col_offset);
-									}
-								}
-								else {
-									for( int i=0; i<rows; i++ ) 
-										synchronized( sblock.get(row_offset+i) ) {
-											_dest.appendRowToSparse(sblock, value, i, row_offset, col_offset, true);
-										}
-								}
-							}
-							else {
-								synchronized( _dest ){ 
-									_dest.appendToSparse(value, row_offset, col_offset);
-								}
-							}
-						}
-						else { //quickpath (no synchronization)
-							_dest.appendToSparse(value, row_offset, col_offset);
-						}
-					} 
-					else {
-						_dest.copy( row_offset, row_offset+rows-1, 
-							col_offset, col_offset+cols-1, value, false );
+					
+					//slice intersection of block and index range
+					if( _ixrange != null ) {
+						int rl = (int)Math.max(_ixrange.rowStart, row_offset);
+						int ru = (int)Math.min(_ixrange.rowEnd, row_offset+rows-1);
+						int cl = (int)Math.max(_ixrange.colStart, col_offset);
+						int cu = (int)Math.min(_ixrange.colEnd, col_offset+cols-1);
+						MatrixBlock blk = (rl > row_offset || ru < row_offset+rows-1 || cl > col_offset || cu < col_offset+cols-1) ?
+							value.slice(rl-row_offset, ru-row_offset, cl-col_offset, cu-col_offset, tmp) : value;
+						if( blk.isEmptyBlock(false) )
+							continue;
+						appendBlock(blk, rl-(int)_ixrange.rowStart, cl-(int)_ixrange.colStart,
+							blk.getNumRows(), blk.getNumColumns(), sparse);
+						lnnz += blk.getNonZeros();
+						continue;
 					}
 					
+					//copy block to result
+					appendBlock(value, row_offset, col_offset, rows, cols, sparse);
+					
 					//aggregate nnz
 					lnnz += value.getNonZeros();
 				}
@@ -223,5 +258,62 @@ public class ReaderBinaryBlockParallel extends ReaderBinaryBlock
 			
 			return lnnz;
 		}
+		
+		private boolean nextInRange(SequenceFile.Reader reader, MatrixIndexes key, MatrixBlock value) 
+			throws IOException
+		{
+			//skip values of blocks outside the index range without deserialization
+			while( reader.next(key) ) {
+				long row_offset = (key.getRowIndex()-1)*_brlen;
+				long col_offset = (key.getColumnIndex()-1)*_bclen;
+				long rows = Math.min(_brlen, _rlen-row_offset);
+				long cols = Math.min(_bclen, _clen-col_offset);
+				if( row_offset <= _ixrange.rowEnd && row_offset+rows-1 >= _ixrange.rowStart
+					&& col_offset <= _ixrange.colEnd && col_offset+cols-1 >= _ixrange.colStart ) {
+					reader.getCurrentValue(value);
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		private void appendBlock(MatrixBlock value, int row_offset, int col_offset, int rows, int cols, boolean sparse) {
+			//copy block to result
+			if( sparse )
+			{
+				//note: append requires final sort
+				if (cols < _dest.getNumColumns() ) {
+					//sparse requires lock, when matrix is wider than one block
+					//(fine-grained locking of block rows instead of the entire matrix)
+					//NOTE: fine-grained locking depends on MCSR SparseRow objects 
+					SparseBlock sblock = _dest.getSparseBlock();
+					if( sblock instanceof SparseBlockMCSR && sblock.get(row_offset) != null ) {
+						if( _syncBlocks ) {
+							synchronized( sblock.get(row_offset) ){ 
+								_dest.appendToSparse(value, row_offset, col_offset);
+							}
+						}
+						else {
+							for( int i=0; i<rows; i++ ) 
+								synchronized( sblock.get(row_offset+i) ) {
+									_dest.appendRowToSparse(sblock, value, i, row_offset, col_offset, true);
+								}
+						}
+					}
+					else {
+						synchronized( _dest ){ 
+							_dest.appendToSparse(value, row_offset, col_offset);
+						}
+					}
+				}
+				else { //quickpath (no synchronization)
+					_dest.appendToSparse(value, row_offset, col_offset);
+				}
+			} 
+			else {
+				_dest.copy( row_offset, row_offset+rows-1, 
+					col_offset, col_offset+cols-1, value, false );
+			}
+		}
 	}
 }
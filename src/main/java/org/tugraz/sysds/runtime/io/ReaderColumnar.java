@@ -0,0 +1,201 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+import org.tugraz.sysds.conf.ConfigurationManager;
+import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.data.DenseBlock;
+import org.tugraz.sysds.runtime.data.SparseBlock;
+import org.tugraz.sysds.runtime.io.ColumnarFileFormat.ChunkMeta;
+import org.tugraz.sysds.runtime.io.ColumnarFileFormat.ChunkSource;
+import org.tugraz.sysds.runtime.io.ColumnarFileFormat.ColumnBuffer;
+import org.tugraz.sysds.runtime.io.ColumnarFileFormat.Footer;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
+
+/**
+ * Reader for matrices in the columnar binary format (see ColumnarFileFormat).
+ * The footer provides the exact number of non-zeros, which determines the
+ * output representation upfront. Groups of chunks are then read and decoded
+ * in parallel via positional reads (FileChannels for local files), for sparse
+ * outputs grouped by row chunk to append disjoint rows in column order.
+ */
+public class ReaderColumnar extends MatrixReader
+{
+	//max number of bytes per read task
+	private static final long MAX_TASK_BYTES = 64L * 1024 * 1024;
+
+	private final int _numThreads;
+
+	public ReaderColumnar() {
+		_numThreads = OptimizerUtils.getParallelBinaryReadParallelism();
+	}
+
+	@Override
+	public MatrixBlock readMatrixFromHDFS(String fname, long rlen, long clen, int brlen, int bclen, long estnnz)
+		throws IOException, DMLRuntimeException
+	{
+		//prepare file access
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+		Path path = new Path( fname );
+		FileSystem fs = IOUtilFunctions.getFileSystem(path, job);
+
+		//check existence and non-empty file
+		checkValidInputFile(fs, path);
+
+		//core read (parallel positional reads)
+		ChunkSource src = ColumnarFileFormat.openChunkSource(fs, path);
+		try {
+			return readColumnarMatrix(src, rlen, clen, _numThreads);
+		}
+		finally {
+			IOUtilFunctions.closeSilently(src);
+		}
+	}
+
+	@Override
+	public MatrixBlock readMatrixFromInputStream(InputStream is, long rlen, long clen, int brlen, int bclen, long estnnz)
+		throws IOException, DMLRuntimeException
+	{
+		return readColumnarMatrix(ColumnarFileFormat.openChunkSource(is), rlen, clen, _numThreads);
+	}
+
+	private static MatrixBlock readColumnarMatrix(ChunkSource src, long rlen, long clen, int k)
+		throws IOException
+	{
+		Footer footer = ColumnarFileFormat.readFooter(src);
+		if( footer.frame )
+			throw new IOException("Columnar input file contains a frame, but a matrix was expected.");
+
+		//check dimensions against meta data (if known)
+		if( (rlen >= 0 && rlen != footer.rows) || (clen >= 0 && clen != footer.cols) )
+			throw new DMLRuntimeException("Read matrix dimensions differ from meta data: ["
+				+footer.rows+"x"+footer.cols+"] vs. ["+rlen+"x"+clen+"].");
+		if( !OptimizerUtils.isValidCPDimensions(footer.rows, footer.cols) )
+			throw new DMLRuntimeException("Matrix dimensions too large for CP runtime: "+footer.rows+" x "+footer.cols);
+
+		//allocate output of exact size and representation
+		long nnz = footer.getNonZeros();
+		boolean sparse = MatrixBlock.evalSparseFormatInMemory(footer.rows, footer.cols, nnz);
+		MatrixBlock ret = new MatrixBlock((int)footer.rows, (int)footer.cols, sparse, nnz);
+		if( nnz == 0 )
+			return ret;
+		if( sparse ) //thread-safe appends to disjoint rows
+			ret.allocateAndResetSparseBlock(true, SparseBlock.Type.MCSR);
+		else
+			ret.allocateDenseBlock();
+
+		//create read tasks over groups of chunks
+		ArrayList<ReadChunksTask> tasks = new ArrayList<>();
+		if( sparse ) {
+			for( ArrayList<ChunkMeta> group : footer.getChunksByRowChunk() )
+				if( !group.isEmpty() )
+					tasks.add(new ReadChunksTask(src, footer, group, ret));
+		}
+		else {
+			for( List<ChunkMeta> group : ColumnarFileFormat.groupChunks(footer.chunks, k, MAX_TASK_BYTES) )
+				tasks.add(new ReadChunksTask(src, footer, group, ret));
+		}
+
+		//read and decode chunks in parallel
+		ExecutorService pool = CommonThreadPool.get(k);
+		try {
+			for( Future<Object> task : pool.invokeAll(tasks) )
+				task.get();
+		}
+		catch(Exception ex) {
+			throw new IOException("Failed parallel read of columnar file.", ex);
+		}
+		finally {
+			pool.shutdown();
+		}
+
+		ret.setNonZeros(nnz);
+		ret.examSparsity();
+		return ret;
+	}
+
+	/**
+	 * Reads a group of chunks and decodes them into the output matrix block.
+	 */
+	private static class ReadChunksTask implements Callable<Object>
+	{
+		private final ChunkSource _src;
+		private final Footer _footer;
+		private final List<ChunkMeta> _chunks;
+		private final MatrixBlock _dest;
+
+		public ReadChunksTask(ChunkSource src, Footer footer, List<ChunkMeta> chunks, MatrixBlock dest) {
+			_src = src;
+			_footer = footer;
+			_chunks = chunks;
+			_dest = dest;
+		}
+
+		@Override
+		public Object call() throws IOException {
+			byte[][] data = ColumnarFileFormat.readChunks(_src, _chunks);
+			ColumnBuffer col = new ColumnBuffer();
+			for( int i=0; i<_chunks.size(); i++ ) {
+				ChunkMeta m = _chunks.get(i);
+				int rl = m.rowChunk * _footer.chunkRows;
+				ColumnarFileFormat.decodeDoubles(m, data[i], _footer.getChunkLength(m.rowChunk), col);
+				if( _dest.isInSparseFormat() )
+					appendSparse(_dest.getSparseBlock(), col, rl, m.col);
+				else
+					setDense(_dest.getDenseBlock(), col, rl, m.col);
+			}
+			return null;
+		}
+
+		private static void setDense(DenseBlock c, ColumnBuffer col, int rl, int cix) {
+			if( col.sparse ) {
+				for( int k=0; k<col.nnz; k++ )
+					c.values(rl+col.ix[k])[c.pos(rl+col.ix[k])+cix] = col.vals[k];
+			}
+			else {
+				for( int i=0; i<col.n; i++ )
+					c.values(rl+i)[c.pos(rl+i)+cix] = col.vals[i];
+			}
+		}
+
+		private static void appendSparse(SparseBlock c, ColumnBuffer col, int rl, int cix) {
+			if( col.sparse ) {
+				for( int k=0; k<col.nnz; k++ )
+					if( col.vals[k] != 0 )
+						c.append(rl+col.ix[k], cix, col.vals[k]);
+			}
+			else {
+				for( int i=0; i<col.n; i++ )
+					if( col.vals[i] != 0 )
+						c.append(rl+i, cix, col.vals[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,499 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+import org.tugraz.sysds.conf.ConfigurationManager;
+import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.data.DenseBlock;
+import org.tugraz.sysds.runtime.data.SparseBlock;
+import org.tugraz.sysds.runtime.data.SparseRowVector;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
+
+/**
+ * Single-pass parallel CSV reader for files on the local file system. In contrast
+ * to ReaderTextCSVParallel, which requires a separate pass over the input to count
+ * the rows per split, this reader memory-maps the input files, splits them into
+ * byte ranges (aligned to newline boundaries on read), and parses the lines of
+ * each range with an allocation-free byte-level double parser into thread-local
+ * row blocks. Once all ranges are parsed, the number of rows and non-zeros is
+ * known exactly, and the row blocks are stitched in parallel into the output
+ * block of the appropriate sparse or dense representation.
+ *
+ * Every range owns the lines that start within it. Hence, a range that does
+ * not start at a line boundary skips its partial first line, and reads its last
+ * line beyond its end if necessary.
+ */
+public class ReaderTextCSVLocalParallel extends MatrixReader
+{
+	//min/max size of byte ranges (ranges per thread for load balance)
+	private static final long MIN_RANGE_SIZE = 4L * 1024 * 1024;
+	private static final long MAX_RANGE_SIZE = 256L * 1024 * 1024;
+	private static final int RANGES_PER_THREAD = 2;
+	//capacity of thread-local row blocks (rows, cells)
+	private static final int BLOCK_ROWS = 8 * 1024;
+	private static final int BLOCK_CELLS = 128 * 1024;
+	//size of bulk reads from mapped ranges
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	private final FileFormatPropertiesCSV _props;
+	private final int _numThreads;
+
+	public ReaderTextCSVLocalParallel(FileFormatPropertiesCSV props) {
+		_numThreads = OptimizerUtils.getParallelTextReadParallelism();
+		_props = props;
+	}
+
+	@Override
+	public MatrixBlock readMatrixFromHDFS(String fname, long rlen, long clen,
+			int brlen, int bclen, long estnnz)
+		throws IOException, DMLRuntimeException
+	{
+		//prepare file access
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+		Path path = new Path(fname);
+		FileSystem fs = IOUtilFunctions.getFileSystem(path, job);
+
+		//fallback to two-pass parallel reader for non-local file systems
+		if( !(fs instanceof LocalFileSystem) )
+			return new ReaderTextCSVParallel(_props)
+				.readMatrixFromHDFS(fname, rlen, clen, brlen, bclen, estnnz);
+
+		//check existence and non-empty file
+		checkValidInputFile(fs, path);
+
+		//prepare file paths in alphanumeric order
+		ArrayList<File> files = new ArrayList<>();
+		if( fs.isDirectory(path) ) {
+			ArrayList<Path> tmp = new ArrayList<>();
+			for( FileStatus stat : fs.listStatus(path, IOUtilFunctions.hiddenFileFilter) )
+				tmp.add(stat.getPath());
+			Collections.sort(tmp);
+			for( Path p : tmp )
+				files.add(((LocalFileSystem)fs).pathToFile(p));
+		}
+		else
+			files.add(((LocalFileSystem)fs).pathToFile(path));
+
+		//determine number of columns from first non-header line
+		String delim = _props.getDelim();
+		int ncol = countNumColumns(files, _props.hasHeader(), delim);
+
+		//parse byte ranges of all files in parallel (single pass)
+		ArrayList<ReadRangeTask> tasks = createReadTasks(files, ncol);
+		ExecutorService pool = CommonThreadPool.get(_numThreads);
+		try {
+			for( Future<Long> task : pool.invokeAll(tasks) )
+				task.get();
+		}
+		catch(Exception ex) {
+			pool.shutdown();
+			throw new IOException("Read task for csv input failed.", ex);
+		}
+
+		//compute row offsets and exact output size
+		long lnrow = 0, lnnz = 0;
+		int[] offsets = new int[tasks.size()];
+		for( int i=0; i<tasks.size(); i++ ) {
+			offsets[i] = (int) lnrow;
+			lnrow += tasks.get(i).getNumRows();
+			lnnz += tasks.get(i).getNonZeros();
+		}
+
+		//robustness for wrong dimensions which are already compiled into the plan
+		long nrow = lnrow;
+		if( (rlen != -1 && nrow != rlen) || (clen != -1 && ncol != clen) ) {
+			String msg = "Read matrix dimensions differ from meta data: ["+nrow+"x"+ncol+"] vs. ["+rlen+"x"+clen+"].";
+			if( rlen < nrow || clen < ncol ) {
+				//a) specified matrix dimensions too small
+				pool.shutdown();
+				throw new DMLRuntimeException(msg);
+			}
+			else {
+				//b) specified matrix dimensions too large -> padding and warning
+				LOG.warn(msg);
+				nrow = rlen;
+				ncol = (int) clen;
+			}
+		}
+
+		//allocate output with exact nnz and stitch row blocks in parallel
+		MatrixBlock ret = createOutputMatrixBlock(nrow, ncol, (int)nrow, ncol, lnnz, true, true);
+		try {
+			ArrayList<StitchTask> stasks = new ArrayList<>();
+			for( int i=0; i<tasks.size(); i++ )
+				stasks.add(new StitchTask(tasks.get(i), ret, offsets[i]));
+			for( Future<Object> task : pool.invokeAll(stasks) )
+				task.get();
+		}
+		catch(Exception ex) {
+			throw new IOException("Threadpool issue, while parallel read.", ex);
+		}
+		finally {
+			pool.shutdown();
+		}
+
+		//post-processing (no sorting required, nnz known exactly)
+		ret.setNonZeros(lnnz);
+		ret.examSparsity();
+
+		return ret;
+	}
+
+	@Override
+	public MatrixBlock readMatrixFromInputStream(InputStream is, long rlen, long clen, int brlen, int bclen, long estnnz)
+		throws IOException, DMLRuntimeException
+	{
+		//not implemented yet, fallback to sequential reader
+		return new ReaderTextCSV(_props)
+			.readMatrixFromInputStream(is, rlen, clen, brlen, bclen, estnnz);
+	}
+
+	private static int countNumColumns(ArrayList<File> files, boolean hasHeader, String delim)
+		throws IOException
+	{
+		for( File file : files ) {
+			if( file.length() == 0 )
+				continue;
+			try( BufferedReader br = new BufferedReader(new FileReader(file)) ) {
+				String line = br.readLine();
+				if( hasHeader )
+					line = br.readLine();
+				if( line != null )
+					return IOUtilFunctions.split(line.trim(), delim).length;
+			}
+			hasHeader = false; //header only in first file
+		}
+		return 0;
+	}
+
+	/**
+	 * Gets the size of byte ranges, i.e., the unit of parallel parsing.
+	 *
+	 * @param total total size of all input files in bytes
+	 * @return range size in bytes
+	 */
+	protected long getRangeSize(long total) {
+		return Math.min(Math.max((long)Math.ceil((double)total /
+			(RANGES_PER_THREAD * _numThreads)), MIN_RANGE_SIZE), MAX_RANGE_SIZE);
+	}
+
+	private ArrayList<ReadRangeTask> createReadTasks(ArrayList<File> files, int ncol) {
+		long total = 0;
+		for( File file : files )
+			total += file.length();
+		long rangeSize = getRangeSize(total);
+
+		ArrayList<ReadRangeTask> tasks = new ArrayList<>();
+		for( int i=0; i<files.size(); i++ ) {
+			File file = files.get(i);
+			long len = file.length();
+			for( long start=0; start<len; start+=rangeSize ) {
+				tasks.add(new ReadRangeTask(file, start, Math.min(start+rangeSize, len),
+					i==0 && start==0 && _props.hasHeader(), _props.getDelim(),
+					_props.isFill(), _props.getFillValue(), ncol));
+			}
+		}
+		return tasks;
+	}
+
+	private static boolean isWhitespace(byte b) {
+		//consistent with String.trim, but w/o multi-byte utf-8 chars
+		return b >= 0 && b <= ' ';
+	}
+
+	/**
+	 * Thread-local block of parsed rows in CSR layout, i.e., row
+	 * pointers, column indexes, and values of non-zero cells.
+	 */
+	private static class RowBlock
+	{
+		private final int[] _rptr;
+		private final int[] _cix;
+		private final double[] _vals;
+		private int _nrows = 0;
+
+		public RowBlock(int maxRows, int maxCells) {
+			_rptr = new int[maxRows+1];
+			_cix = new int[maxCells];
+			_vals = new double[maxCells];
+		}
+
+		public boolean hasCapacity(int ncol) {
+			return _nrows < _rptr.length-1
+				&& _rptr[_nrows] + ncol <= _vals.length;
+		}
+	}
+
+	private static class ReadRangeTask implements Callable<Long>
+	{
+		private final File _file;
+		private final long _start;
+		private final long _end;
+		private final boolean _skipHeader;
+		private final byte[] _delim;
+		private final boolean _fill;
+		private final double _fillValue;
+		private final int _ncol;
+
+		private final ArrayList<RowBlock> _blocks = new ArrayList<>();
+		private int _nrows = 0;
+		private long _nnz = 0;
+
+		public ReadRangeTask(File file, long start, long end, boolean skipHeader,
+			String delim, boolean fill, double fillValue, int ncol)
+		{
+			_file = file;
+			_start = start;
+			_end = end;
+			_skipHeader = skipHeader;
+			_delim = delim.getBytes(StandardCharsets.UTF_8);
+			_fill = fill;
+			_fillValue = fillValue;
+			_ncol = ncol;
+		}
+
+		public ArrayList<RowBlock> getRowBlocks() {
+			return _blocks;
+		}
+
+		public int getNumRows() {
+			return _nrows;
+		}
+
+		public long getNonZeros() {
+			return _nnz;
+		}
+
+		@Override
+		public Long call() throws IOException {
+			try( FileChannel channel = FileChannel.open(_file.toPath(), StandardOpenOption.READ) ) {
+				//map range incl preceding byte (line boundary) and the tail
+				//of its last line, i.e., up to the first newline at or after end-1
+				long fsize = channel.size();
+				long mstart = (_start > 0) ? _start - 1 : 0;
+				long mend = findLineEnd(channel, _end - 1, fsize);
+				if( mend - mstart > Integer.MAX_VALUE )
+					throw new IOException("Line exceeds max mapped region size in file "+_file+".");
+				MappedByteBuffer in = channel.map(MapMode.READ_ONLY, mstart, mend - mstart);
+
+				//bulk reads of mapped chunks, where lines spanning chunks are
+				//assembled in a reusable line buffer
+				byte[] chunk = new byte[CHUNK_SIZE];
+				byte[] line = new byte[1024];
+				int llen = 0;
+				boolean skip = (_start > 0); //partial first line (owned by previous range)
+				boolean first = _skipHeader;
+				while( in.hasRemaining() ) {
+					int n = Math.min(chunk.length, in.remaining());
+					in.get(chunk, 0, n);
+					int s = 0;
+					for( int i=0; i<n; i++ ) {
+						if( chunk[i] != '\n' )
+							continue;
+						if( skip )
+							skip = false;
+						else {
+							line = append(line, llen, chunk, s, i-s);
+							llen += i - s;
+							if( !first )
+								parseLine(line, llen);
+							first = false;
+							llen = 0;
+						}
+						s = i + 1;
+					}
+					if( !skip && s < n ) {
+						line = append(line, llen, chunk, s, n-s);
+						llen += n - s;
+					}
+				}
+				//last line w/o trailing newline at end of file
+				if( !skip && llen > 0 && !first )
+					parseLine(line, llen);
+			}
+			return _nnz;
+		}
+
+		private static long findLineEnd(FileChannel channel, long pos, long fsize) throws IOException {
+			ByteBuffer buff = ByteBuffer.allocate(CHUNK_SIZE);
+			while( pos < fsize ) {
+				buff.clear();
+				int n = channel.read(buff, pos);
+				if( n <= 0 )
+					break;
+				byte[] tmp = buff.array();
+				for( int i=0; i<n; i++ )
+					if( tmp[i] == '\n' )
+						return pos + i + 1;
+				pos += n;
+			}
+			return fsize;
+		}
+
+		private static byte[] append(byte[] line, int llen, byte[] src, int spos, int len) {
+			if( llen + len > line.length )
+				line = Arrays.copyOf(line, Math.max(llen + len, 2*line.length));
+			System.arraycopy(src, spos, line, llen, len);
+			return line;
+		}
+
+		private void parseLine(byte[] line, int len) throws IOException {
+			//trim line (incl carriage return)
+			int ls = 0, le = len;
+			while( ls < le && isWhitespace(line[ls]) )
+				ls++;
+			while( le > ls && isWhitespace(line[le-1]) )
+				le--;
+
+			//get row block with sufficient capacity
+			RowBlock blk = _blocks.isEmpty() ? null : _blocks.get(_blocks.size()-1);
+			if( blk == null || !blk.hasCapacity(_ncol) ) {
+				blk = new RowBlock(BLOCK_ROWS, Math.max(BLOCK_CELLS, _ncol));
+				_blocks.add(blk);
+			}
+			int[] cix = blk._cix;
+			double[] vals = blk._vals;
+			int apos = blk._rptr[blk._nrows];
+
+			//split line into tokens, parse, and append non-zeros
+			int col = 0;
+			boolean emptyFound = false;
+			int s = ls;
+			while( true ) {
+				int e = indexOfDelim(line, s, le);
+				int ts = s, te = e;
+				while( ts < te && isWhitespace(line[ts]) )
+					ts++;
+				while( te > ts && isWhitespace(line[te-1]) )
+					te--;
+				double v;
+				if( ts == te ) {
+					emptyFound |= !_fill;
+					v = _fillValue;
+				}
+				else
+					v = IOUtilFunctions.parseDouble(line, ts, te-ts);
+				if( v != 0 && col < _ncol ) {
+					cix[apos] = col;
+					vals[apos++] = v;
+				}
+				col++;
+				if( e == le )
+					break;
+				s = e + _delim.length;
+			}
+
+			//sanity checks (number of columns, fill values)
+			if( emptyFound || col != _ncol ) {
+				String str = new String(line, ls, le-ls, StandardCharsets.UTF_8);
+				IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(str, _fill, emptyFound);
+				IOUtilFunctions.checkAndRaiseErrorCSVNumColumns(_file.toString(), str, col, _ncol);
+			}
+
+			_nnz += apos - blk._rptr[blk._nrows];
+			blk._rptr[++blk._nrows] = apos;
+			_nrows++;
+		}
+
+		private int indexOfDelim(byte[] line, int s, int e) {
+			final byte d0 = _delim[0];
+			final int dlen = _delim.length;
+			for( int i=s; i<=e-dlen; i++ ) {
+				if( line[i] != d0 )
+					continue;
+				int j = 1;
+				while( j < dlen && line[i+j] == _delim[j] )
+					j++;
+				if( j == dlen )
+					return i;
+			}
+			return e;
+		}
+	}
+
+	private static class StitchTask implements Callable<Object>
+	{
+		private final ReadRangeTask _task;
+		private final MatrixBlock _dest;
+		private final int _rowOffset;
+
+		public StitchTask(ReadRangeTask task, MatrixBlock dest, int rowOffset) {
+			_task = task;
+			_dest = dest;
+			_rowOffset = rowOffset;
+		}
+
+		@Override
+		public Object call() {
+			ArrayList<RowBlock> blocks = _task.getRowBlocks();
+			int row = _rowOffset;
+			for( int k=0; k<blocks.size(); k++ ) {
+				RowBlock blk = blocks.get(k);
+				if( _dest.isInSparseFormat() ) {
+					SparseBlock c = _dest.getSparseBlock();
+					for( int i=0; i<blk._nrows; i++, row++ ) {
+						int apos = blk._rptr[i];
+						int alen = blk._rptr[i+1] - apos;
+						if( alen == 0 )
+							continue;
+						SparseRowVector srow = new SparseRowVector(alen);
+						System.arraycopy(blk._cix, apos, srow.indexes(), 0, alen);
+						System.arraycopy(blk._vals, apos, srow.values(), 0, alen);
+						srow.setSize(alen);
+						c.set(row, srow, false);
+					}
+				}
+				else {
+					DenseBlock c = _dest.getDenseBlock();
+					for( int i=0; i<blk._nrows; i++, row++ ) {
+						double[] cvals = c.values(row);
+						int cix = c.pos(row);
+						for( int j=blk._rptr[i]; j<blk._rptr[i+1]; j++ )
+							cvals[cix+blk._cix[j]] = blk._vals[j];
+					}
+				}
+				blocks.set(k, null); //free memory early
+			}
+			return null;
+		}
+	}
+}
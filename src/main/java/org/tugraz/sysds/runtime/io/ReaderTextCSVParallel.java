@@ -42,6 +42,7 @@ import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.data.DenseBlock;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.util.CommonThreadPool;
+import org.tugraz.sysds.runtime.util.IndexRange;
 
 /**
  * Parallel version of ReaderTextCSV.java. To summarize, we do two passes in
@@ -56,6 +57,9 @@ import org.tugraz.sysds.runtime.util.CommonThreadPool;
  */
 public class ReaderTextCSVParallel extends MatrixReader 
 {
+	//number of splits per thread for range reads
+	private static final int RANGE_SPLITS_PER_THREAD = 4;
+	
 	private FileFormatPropertiesCSV _props = null;
 	private int _numThreads = 1;
 
@@ -96,7 +100,7 @@ public class ReaderTextCSVParallel extends MatrixReader
 		// Second Read Pass (read, parse strings, append to matrix block)
 		readCSVMatrixFromHDFS(splits, path, job, ret, rlen, clen, brlen, bclen,
 				_props.hasHeader(), _props.getDelim(), _props.isFill(),
-				_props.getFillValue());
+				_props.getFillValue(), null);
 		
 		//post-processing (representation-specific, change of sparse/dense block representation)
 		// - no sorting required for CSV because it is read in sorted order per row
@@ -111,6 +115,50 @@ public class ReaderTextCSVParallel extends MatrixReader
 		return ret;
 	}
 
+	@Override
+	public MatrixBlock readMatrixFromHDFS(String fname, long rlen, long clen,
+			int brlen, int bclen, long estnnz, IndexRange ixrange) 
+		throws IOException, DMLRuntimeException 
+	{
+		// prepare file access
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+		Path path = new Path(fname);
+		FileSystem fs = IOUtilFunctions.getFileSystem(path, job);
+		
+		FileInputFormat.addInputPath(job, path);
+		TextInputFormat informat = new TextInputFormat();
+		informat.configure(job);
+
+		// finer-grained splits, which allow skipping the splits after the range
+		InputSplit[] splits = informat.getSplits(job, RANGE_SPLITS_PER_THREAD * _numThreads);
+		splits = IOUtilFunctions.sortInputSplits(splits);
+
+		// check existence and non-empty file
+		checkValidInputFile(fs, path);
+
+		// First Read Pass (count rows/cols, determine offsets up to the end of the range)
+		long[] dims = computeCSVSize(splits, path, job,
+			_props.hasHeader(), _props.getDelim(), rlen, clen, ixrange);
+		checkValidIndexRange(ixrange, dims[0], dims[1]);
+		
+		// allocate output matrix block of the range (w/ nnz estimate under uniform distribution)
+		long rlen2 = ixrange.rowEnd - ixrange.rowStart + 1;
+		long clen2 = ixrange.colEnd - ixrange.colStart + 1;
+		long estnnz2 = (estnnz < 0) ? rlen2 * clen2 :
+			(long)Math.ceil((double)estnnz / dims[0] / dims[1] * rlen2 * clen2);
+		MatrixBlock ret = createOutputMatrixBlock(rlen2, clen2, (int)rlen2, (int)clen2, estnnz2, true, true);
+		
+		// Second Read Pass (read and parse the range from overlapping splits only)
+		readCSVMatrixFromHDFS(splits, path, job, ret, dims[0], dims[1], brlen, bclen,
+				_props.hasHeader(), _props.getDelim(), _props.isFill(),
+				_props.getFillValue(), ixrange);
+		
+		//post-processing (change of sparse/dense block representation)
+		ret.examSparsity();
+		
+		return ret;
+	}
+
 	@Override
 	public MatrixBlock readMatrixFromInputStream(InputStream is, long rlen, long clen, int brlen, int bclen, long estnnz) 
 		throws IOException, DMLRuntimeException 
@@ -122,7 +170,7 @@ public class ReaderTextCSVParallel extends MatrixReader
 	
 	private void readCSVMatrixFromHDFS(InputSplit[] splits, Path path, JobConf job, 
 			MatrixBlock dest, long rlen, long clen, int brlen, int bclen, 
-			boolean hasHeader, String delim, boolean fill, double fillValue) 
+			boolean hasHeader, String delim, boolean fill, double fillValue, IndexRange ixrange) 
 		throws IOException 
 	{
 		FileInputFormat.addInputPath(job, path);
@@ -133,12 +181,16 @@ public class ReaderTextCSVParallel extends MatrixReader
 
 		try 
 		{
-			// create read tasks for all splits
+			// create read tasks for all splits (overlapping with the index range)
 			ArrayList<CSVReadTask> tasks = new ArrayList<>();
 			int splitCount = 0;
 			for (InputSplit split : splits) {
-				tasks.add( new CSVReadTask(split, _offsets, informat, job, dest, 
-					rlen, clen, hasHeader, delim, fill, fillValue, splitCount++) );
+				int offset = _offsets.getOffsetPerSplit(splitCount);
+				int len = _offsets.getLenghtPerSplit(splitCount);
+				if( ixrange == null || (offset <= ixrange.rowEnd && offset + len > ixrange.rowStart) )
+					tasks.add( new CSVReadTask(split, _offsets, informat, job, dest, 
+						rlen, clen, hasHeader, delim, fill, fillValue, splitCount, ixrange) );
+				splitCount++;
 			}
 			pool.invokeAll(tasks);
 			pool.shutdown();
@@ -162,9 +214,24 @@ public class ReaderTextCSVParallel extends MatrixReader
 	private MatrixBlock computeCSVSizeAndCreateOutputMatrixBlock(InputSplit[] splits, Path path,
 			JobConf job, boolean hasHeader, String delim, long rlen, long clen, long estnnz)
 		throws IOException, DMLRuntimeException 
+	{
+		long[] dims = computeCSVSize(splits, path, job, hasHeader, delim, rlen, clen, null);
+		int nrow = (int) dims[0];
+		int ncol = (int) dims[1];
+		
+		// allocate target matrix block based on given size; 
+		// need to allocate sparse as well since lock-free insert into target
+		long estnnz2 = (estnnz < 0) ? (long)nrow * ncol : estnnz;
+		return createOutputMatrixBlock(nrow, ncol, nrow, ncol, estnnz2, true, true);
+	}
+
+	private long[] computeCSVSize(InputSplit[] splits, Path path,
+			JobConf job, boolean hasHeader, String delim, long rlen, long clen, IndexRange ixrange)
+		throws IOException, DMLRuntimeException 
 	{
 		int nrow = 0;
 		int ncol = 0;
+		boolean partial = false;
 		
 		FileInputFormat.addInputPath(job, path);
 		TextInputFormat informat = new TextInputFormat();
@@ -194,24 +261,46 @@ public class ReaderTextCSVParallel extends MatrixReader
 				tasks.add(new CountRowsTask(split, informat, job, hasHeader));
 				hasHeader = false;
 			}
-			pool.invokeAll(tasks);
-			pool.shutdown();
-
-			// collect row counts for offset computation
-			// early error notify in case not all tasks successful
+			
+			// count rows in waves of splits for range reads w/ known number of rows,
+			// in order to skip all splits after the last row of the range
+			boolean waves = ixrange != null && rlen >= 0;
+			int wsize = waves ? _numThreads : tasks.size();
 			_offsets = new SplitOffsetInfos(tasks.size());
-			for (CountRowsTask rt : tasks) {
-				if (!rt.getReturnCode())
-					throw new IOException("Count task for csv input failed: "+ rt.getErrMsg());
-				_offsets.setOffsetPerSplit(tasks.indexOf(rt), nrow);
-				_offsets.setLenghtPerSplit(tasks.indexOf(rt), rt.getRowCount());
-				nrow = nrow + rt.getRowCount();
+			for( int i=0; i<tasks.size() && !partial; i+=wsize ) {
+				int iu = Math.min(i+wsize, tasks.size());
+				pool.invokeAll(tasks.subList(i, iu));
+				
+				// collect row counts for offset computation
+				// early error notify in case not all tasks successful
+				for( int j=i; j<iu; j++ ) {
+					CountRowsTask rt = tasks.get(j);
+					if (!rt.getReturnCode())
+						throw new IOException("Count task for csv input failed: "+ rt.getErrMsg());
+					_offsets.setOffsetPerSplit(j, nrow);
+					_offsets.setLenghtPerSplit(j, rt.getRowCount());
+					nrow = nrow + rt.getRowCount();
+				}
+				partial = waves && iu < tasks.size() && nrow > ixrange.rowEnd;
+				
+				// skipped splits are empty (excluded from the range read)
+				for( int j=iu; partial && j<tasks.size(); j++ )
+					_offsets.setOffsetPerSplit(j, nrow);
 			}
+			pool.shutdown();
 		} 
 		catch (Exception e) {
 			throw new IOException("Threadpool Error " + e.getMessage(), e);
 		}
 		
+		//number of rows of partially counted files given by the meta data
+		if( partial ) {
+			if( nrow > rlen )
+				throw new DMLRuntimeException("Read matrix dimensions differ from meta data: "
+					+ "[>="+nrow+"x"+ncol+"] vs. ["+rlen+"x"+clen+"].");
+			nrow = (int) rlen;
+		}
+		
 		//robustness for wrong dimensions which are already compiled into the plan
 		if( (rlen != -1 && nrow != rlen) || (clen != -1 && ncol != clen) ) {
 			String msg = "Read matrix dimensions differ from meta data: ["+nrow+"x"+ncol+"] vs. ["+rlen+"x"+clen+"].";
@@ -227,10 +316,7 @@ public class ReaderTextCSVParallel extends MatrixReader
 			}
 		}
 		
-		// allocate target matrix block based on given size; 
-		// need to allocate sparse as well since lock-free insert into target
-		long estnnz2 = (estnnz < 0) ? (long)nrow * ncol : estnnz;
-		return createOutputMatrixBlock(nrow, ncol, nrow, ncol, estnnz2, true, true);
+		return new long[]{nrow, ncol};
 	}
 
 	private static class SplitOffsetInfos {
@@ -337,6 +423,7 @@ public class ReaderTextCSVParallel extends MatrixReader
 		private double _fillValue = 0;
 		private String _delim = null;
 		private int _splitCount = 0;
+		private IndexRange _ixrange = null;
 		
 		private boolean _rc = true;
 		private Exception _exception = null;
@@ -345,7 +432,7 @@ public class ReaderTextCSVParallel extends MatrixReader
 		public CSVReadTask(InputSplit split, SplitOffsetInfos offsets,
 				TextInputFormat informat, JobConf job, MatrixBlock dest,
 				long rlen, long clen, boolean hasHeader, String delim,
-				boolean fill, double fillValue, int splitCount) 
+				boolean fill, double fillValue, int splitCount, IndexRange ixrange) 
 		{
 			_split = split;
 			_splitoffsets = offsets; // new SplitOffsetInfos(offsets);
@@ -362,6 +449,7 @@ public class ReaderTextCSVParallel extends MatrixReader
 			_delim = delim;
 			_rc = true;
 			_splitCount = splitCount;
+			_ixrange = ixrange;
 		}
 
 		public boolean getReturnCode() {
@@ -400,7 +488,10 @@ public class ReaderTextCSVParallel extends MatrixReader
 				row = _splitoffsets.getOffsetPerSplit(_splitCount);
 
 				try {
-					if (_sparse) // SPARSE<-value
+					if( _ixrange != null ) { // RANGE<-value
+						lnnz = readRangeFromSplit(reader, key, value, row);
+					}
+					else if (_sparse) // SPARSE<-value
 					{
 						while (reader.next(key, value)) // foreach line
 						{
@@ -464,8 +555,8 @@ public class ReaderTextCSVParallel extends MatrixReader
 						}
 					}
 
-					// sanity checks (number of rows)
-					if (row != (_splitoffsets.getOffsetPerSplit(_splitCount) + _splitoffsets.getLenghtPerSplit(_splitCount)) ) 
+					// sanity checks (number of rows, except range reads w/ early termination)
+					if (_ixrange == null && row != (_splitoffsets.getOffsetPerSplit(_splitCount) + _splitoffsets.getLenghtPerSplit(_splitCount)) ) 
 					{
 						throw new IOException("Incorrect number of rows ("+ row+ ") found in delimited file ("
 										+ (_splitoffsets.getOffsetPerSplit(_splitCount) 
@@ -498,5 +589,45 @@ public class ReaderTextCSVParallel extends MatrixReader
 			
 			return null;
 		}
+		
+		private long readRangeFromSplit(RecordReader<LongWritable, Text> reader, 
+			LongWritable key, Text value, int row) throws IOException
+		{
+			int rl = (int) _ixrange.rowStart, ru = (int) _ixrange.rowEnd;
+			int cl = (int) _ixrange.colStart, cu = (int) _ixrange.colEnd;
+			String[] parts = new String[cu - cl + 1];
+			DenseBlock a = _sparse ? null : _dest.getDenseBlock();
+			boolean noFillEmpty = false;
+			long lnnz = 0;
+			
+			// read lines until the end of the range, but parse only rows and columns in range
+			for( ; row <= ru && reader.next(key, value); row++ ) {
+				if( row < rl )
+					continue;
+				String cellStr = value.toString().trim();
+				int ncol = IOUtilFunctions.split(cellStr, _delim, cl, cu, parts);
+				IOUtilFunctions.checkAndRaiseErrorCSVNumColumns(_split.toString(), cellStr, ncol, _clen);
+				for( int j=0; j<parts.length; j++ ) { // foreach cell in range
+					String part = parts[j].trim();
+					double cellValue = 0;
+					if (part.isEmpty()) {
+						noFillEmpty |= !_fill;
+						cellValue = _fillValue;
+					} 
+					else {
+						cellValue = IOUtilFunctions.parseDoubleParallel(part);
+					}
+					if( cellValue != 0 ) {
+						if( _sparse )
+							_dest.appendValue(row-rl, j, cellValue);
+						else
+							a.set(row-rl, j, cellValue);
+						lnnz++;
+					}
+				}
+				IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(cellStr, _fill, noFillEmpty);
+			}
+			return lnnz;
+		}
 	}
 }
@@ -40,6 +40,9 @@ import org.tugraz.sysds.runtime.util.HDFSTool;
 
 public class WriterBinaryBlockParallel extends WriterBinaryBlock
 {
+	//direct serialization of blocks from the source matrix to local files
+	public static boolean LOCAL_DIRECT_WRITE = true;
+	
 	public WriterBinaryBlockParallel( int replication ) {
 		super(replication);
 	}
@@ -48,18 +51,18 @@ public class WriterBinaryBlockParallel extends WriterBinaryBlock
 	protected void writeBinaryBlockMatrixToHDFS( Path path, JobConf job, FileSystem fs, MatrixBlock src, long rlen, long clen, int brlen, int bclen )
 		throws IOException, DMLRuntimeException
 	{
-		//estimate output size and number of output blocks (min 1)
-		int numPartFiles = (int)(OptimizerUtils.estimatePartitionedSizeExactSparsity(rlen, clen, 
-				brlen, bclen, src.getNonZeros()) / InfrastructureAnalyzer.getHDFSBlockSize());
-		numPartFiles = Math.max(numPartFiles, 1);
+		//determine degree of parallelism (number of part files)
+		int numThreads = getNumPartFiles(rlen, clen, brlen, bclen, src.getNonZeros());
 		
-		//determine degree of parallelism
-		int numThreads = OptimizerUtils.getParallelBinaryWriteParallelism();
-		numThreads = Math.min(numThreads, numPartFiles);
+		//use direct write w/o sequence file writers for local file systems
+		boolean direct = LOCAL_DIRECT_WRITE && fs instanceof LocalFileSystem;
 		
 		//fall back to sequential write if dop is 1 (e.g., <128MB) in order to create single file
 		if( numThreads <= 1 ) {
-			super.writeBinaryBlockMatrixToHDFS(path, job, fs, src, rlen, clen, brlen, bclen);
+			if( direct )
+				writeBinaryBlockMatrixToLocalFile(path, fs, src, brlen, bclen, 0, (int)rlen);
+			else
+				super.writeBinaryBlockMatrixToHDFS(path, job, fs, src, rlen, clen, brlen, bclen);
 			return;
 		}
 
@@ -74,7 +77,7 @@ public class WriterBinaryBlockParallel extends WriterBinaryBlock
 			int blklen = (int)Math.ceil((double)rlen / brlen / numThreads) * brlen;
 			for(int i=0; i<numThreads & i*blklen<rlen; i++) {
 				Path newPath = new Path(path, IOUtilFunctions.getPartFileName(i));
-				tasks.add(new WriteFileTask(newPath, job, fs, src, i*blklen, Math.min((i+1)*blklen, rlen), brlen, bclen));
+				tasks.add(new WriteFileTask(newPath, job, fs, src, i*blklen, Math.min((i+1)*blklen, rlen), brlen, bclen, direct));
 			}
 
 			//wait until all tasks have been executed
@@ -97,6 +100,36 @@ public class WriterBinaryBlockParallel extends WriterBinaryBlock
 		}
 	}
 
+	/**
+	 * Determines the number of part files, which are written in parallel.
+	 * A single part file is written sequentially as a single file.
+	 * 
+	 * @param rlen number of rows
+	 * @param clen number of columns
+	 * @param brlen number of rows in block
+	 * @param bclen number of columns in block
+	 * @param nnz number of non-zeros
+	 * @return number of part files
+	 */
+	protected int getNumPartFiles(long rlen, long clen, int brlen, int bclen, long nnz) {
+		//estimate output size and number of output blocks (min 1)
+		int numPartFiles = (int)(OptimizerUtils.estimatePartitionedSizeExactSparsity(rlen, clen, 
+				brlen, bclen, nnz) / InfrastructureAnalyzer.getHDFSBlockSize());
+		numPartFiles = Math.max(numPartFiles, 1);
+		
+		//determine degree of parallelism
+		int numThreads = OptimizerUtils.getParallelBinaryWriteParallelism();
+		return Math.min(numThreads, numPartFiles);
+	}
+
+	private static void writeBinaryBlockMatrixToLocalFile(Path path, FileSystem fs, MatrixBlock src, int brlen, int bclen, int rl, int ru)
+		throws IOException
+	{
+		try( BinaryBlockDirectWriter writer = new BinaryBlockDirectWriter(((LocalFileSystem)fs).pathToFile(path)) ) {
+			writer.writeBlocks(src, brlen, bclen, rl, ru);
+		}
+	}
+
 	private class WriteFileTask implements Callable<Object> 
 	{
 		private Path _path = null;
@@ -107,8 +140,9 @@ public class WriterBinaryBlockParallel extends WriterBinaryBlock
 		private long _ru = -1;
 		private int _brlen = -1;
 		private int _bclen = -1;
+		private boolean _direct = false;
 		
-		public WriteFileTask(Path path, JobConf job, FileSystem fs, MatrixBlock src, long rl, long ru, int brlen, int bclen) {
+		public WriteFileTask(Path path, JobConf job, FileSystem fs, MatrixBlock src, long rl, long ru, int brlen, int bclen, boolean direct) {
 			_path = path;
 			_fs = fs;
 			_job = job;
@@ -117,13 +151,17 @@ public class WriterBinaryBlockParallel extends WriterBinaryBlock
 			_ru = ru;
 			_brlen = brlen;
 			_bclen = bclen;
+			_direct = direct;
 		}
 	
 		@Override
 		public Object call() 
 			throws Exception 
 		{
-			writeBinaryBlockMatrixToSequenceFile(_path, _job, _fs, _src, _brlen, _bclen, (int)_rl, (int)_ru);
+			if( _direct )
+				writeBinaryBlockMatrixToLocalFile(_path, _fs, _src, _brlen, _bclen, (int)_rl, (int)_ru);
+			else
+				writeBinaryBlockMatrixToSequenceFile(_path, _job, _fs, _src, _brlen, _bclen, (int)_rl, (int)_ru);
 			return null;
 		}
 	}
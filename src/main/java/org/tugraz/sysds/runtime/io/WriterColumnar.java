@@ -0,0 +1,270 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+import org.tugraz.sysds.conf.ConfigurationManager;
+import org.tugraz.sysds.conf.DMLConfig;
+import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.data.DenseBlock;
+import org.tugraz.sysds.runtime.data.SparseBlock;
+import org.tugraz.sysds.runtime.io.ColumnarFileFormat.EncodedChunk;
+import org.tugraz.sysds.runtime.io.ColumnarFileFormat.Footer;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
+import org.tugraz.sysds.runtime.util.HDFSTool;
+
+/**
+ * Writer for matrices in the columnar binary format (see ColumnarFileFormat).
+ * The column chunks are encoded in parallel, by tasks over row chunks and
+ * column ranges, and appended in order to a single output file.
+ */
+public class WriterColumnar extends MatrixWriter
+{
+	//max number of cells per encode task for dense inputs
+	private static final int TASK_CELLS = 1024 * 1024;
+
+	protected final int _numThreads;
+	protected final boolean _compress;
+
+	public WriterColumnar() {
+		this(ConfigurationManager.getDMLConfig()
+			.getBooleanValue(DMLConfig.IO_COLUMNAR_COMPRESS));
+	}
+
+	public WriterColumnar(boolean compress) {
+		_numThreads = OptimizerUtils.getParallelBinaryWriteParallelism();
+		_compress = compress;
+	}
+
+	@Override
+	public final void writeMatrixToHDFS(MatrixBlock src, String fname, long rlen, long clen, int brlen, int bclen, long nnz, boolean diag)
+		throws IOException, DMLRuntimeException
+	{
+		//validity check matrix dimensions
+		if( src.getNumRows() != rlen || src.getNumColumns() != clen )
+			throw new IOException("Matrix dimensions mismatch with metadata: "+src.getNumRows()+"x"+src.getNumColumns()+" vs "+rlen+"x"+clen+".");
+
+		//prepare file access
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+		Path path = new Path( fname );
+		FileSystem fs = IOUtilFunctions.getFileSystem(path, job);
+
+		//if the file already exists on HDFS, remove it.
+		HDFSTool.deleteFileIfExistOnHDFS( fname );
+
+		//core write (parallel encode, sequential write)
+		writeColumnarMatrixToHDFS(path, fs, src);
+
+		IOUtilFunctions.deleteCrcFilesFromLocalFileSystem(fs, path);
+	}
+
+	@Override
+	public final void writeEmptyMatrixToHDFS(String fname, long rlen, long clen, int brlen, int bclen)
+		throws IOException, DMLRuntimeException
+	{
+		Path path = new Path( fname );
+		FileSystem fs = IOUtilFunctions.getFileSystem(path);
+		writeChunksToHDFS(path, fs, createFooter(false, Math.max(rlen, 0), Math.max(clen, 0)), new ArrayList<>(), 1);
+		IOUtilFunctions.deleteCrcFilesFromLocalFileSystem(fs, path);
+	}
+
+	private void writeColumnarMatrixToHDFS(Path path, FileSystem fs, MatrixBlock src)
+		throws IOException
+	{
+		int rlen = src.getNumRows();
+		int clen = src.getNumColumns();
+		Footer footer = createFooter(false, rlen, clen);
+
+		//create encode tasks per row chunk and column range (none for empty blocks)
+		ArrayList<Callable<List<EncodedChunk>>> tasks = new ArrayList<>();
+		if( !src.isEmptyBlock(false) ) {
+			boolean sparse = src.isInSparseFormat();
+			for( int rc=0; rc<footer.getNumRowChunks(); rc++ ) {
+				int rl = rc * footer.chunkRows;
+				int ru = rl + footer.getChunkLength(rc);
+				int width = sparse ? (int)Math.ceil((double)clen / _numThreads) :
+					Math.max(TASK_CELLS / (ru - rl), 1);
+				for( int cl=0; cl<clen; cl+=width )
+					tasks.add(new EncodeTask(src, rc, rl, ru, cl, Math.min(cl + width, clen), _compress));
+			}
+		}
+
+		writeChunksToHDFS(path, fs, footer, tasks, _numThreads);
+	}
+
+	protected static Footer createFooter(boolean frame, long rlen, long clen) {
+		Footer footer = new Footer();
+		footer.frame = frame;
+		footer.rows = rlen;
+		footer.cols = clen;
+		footer.chunkRows = ColumnarFileFormat.CHUNK_ROWS;
+		return footer;
+	}
+
+	/**
+	 * Executes the given encode tasks in parallel (in bounded batches to limit
+	 * the memory for encoded chunks), and writes the chunks in task order
+	 * followed by the footer to a single file.
+	 *
+	 * @param path file path
+	 * @param fs file system
+	 * @param footer footer without chunk entries
+	 * @param tasks encode tasks
+	 * @param k degree of parallelism
+	 * @throws IOException if IOException occurs
+	 */
+	protected static void writeChunksToHDFS(Path path, FileSystem fs, Footer footer,
+		ArrayList<Callable<List<EncodedChunk>>> tasks, int k)
+		throws IOException
+	{
+		FSDataOutputStream out = fs.create(path, true);
+		ExecutorService pool = CommonThreadPool.get(k);
+		try {
+			ColumnarFileFormat.writeHeader(out);
+			int batch = 2 * k;
+			for( int i=0; i<tasks.size(); i+=batch ) {
+				List<Future<List<EncodedChunk>>> rt =
+					pool.invokeAll(tasks.subList(i, Math.min(i + batch, tasks.size())));
+				for( Future<List<EncodedChunk>> task : rt )
+					for( EncodedChunk chunk : task.get() ) {
+						chunk.meta.offset = out.getPos();
+						out.write(chunk.data);
+						footer.chunks.add(chunk.meta);
+					}
+			}
+			ColumnarFileFormat.writeFooter(out, footer);
+		}
+		catch(IOException ex) {
+			throw ex;
+		}
+		catch(Exception ex) {
+			throw new IOException("Failed parallel write of columnar file.", ex);
+		}
+		finally {
+			pool.shutdown();
+			IOUtilFunctions.closeSilently(out);
+		}
+	}
+
+	private static class EncodeTask implements Callable<List<EncodedChunk>>
+	{
+		private final MatrixBlock _src;
+		private final int _rowChunk;
+		private final int _rl, _ru, _cl, _cu;
+		private final boolean _compress;
+
+		public EncodeTask(MatrixBlock src, int rowChunk, int rl, int ru, int cl, int cu, boolean compress) {
+			_src = src;
+			_rowChunk = rowChunk;
+			_rl = rl;
+			_ru = ru;
+			_cl = cl;
+			_cu = cu;
+			_compress = compress;
+		}
+
+		@Override
+		public List<EncodedChunk> call() {
+			return _src.isInSparseFormat() ?
+				encodeSparse(_src.getSparseBlock()) :
+				encodeDense(_src.getDenseBlock());
+		}
+
+		private List<EncodedChunk> encodeDense(DenseBlock a) {
+			//transpose row chunk and column range into column-major buffer
+			int n = _ru - _rl;
+			int w = _cu - _cl;
+			double[] cols = new double[n * w];
+			for( int i=_rl; i<_ru; i++ ) {
+				double[] avals = a.values(i);
+				int apos = a.pos(i);
+				for( int j=_cl; j<_cu; j++ )
+					cols[(j-_cl)*n + (i-_rl)] = avals[apos + j];
+			}
+			ArrayList<EncodedChunk> ret = new ArrayList<>();
+			for( int j=0; j<w; j++ ) {
+				EncodedChunk chunk = ColumnarFileFormat.encodeDoubles(
+					cols, j*n, n, _cl + j, _rowChunk, _compress);
+				if( chunk != null )
+					ret.add(chunk);
+			}
+			return ret;
+		}
+
+		private List<EncodedChunk> encodeSparse(SparseBlock a) {
+			//transpose row chunk and column range into compressed columns (CSC)
+			int n = _ru - _rl;
+			int w = _cu - _cl;
+			int[] cptr = new int[w + 1];
+			for( int i=_rl; i<_ru; i++ ) {
+				if( a.isEmpty(i) ) continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				int k = (_cl == 0) ? 0 : a.posFIndexGTE(i, _cl);
+				for( k = (k < 0) ? alen : k; k<alen && aix[apos+k]<_cu; k++ )
+					cptr[aix[apos+k] - _cl + 1]++;
+			}
+			for( int j=0; j<w; j++ )
+				cptr[j+1] += cptr[j];
+			int[] pos = new int[w];
+			System.arraycopy(cptr, 0, pos, 0, w);
+			int[] rix = new int[cptr[w]];
+			double[] vals = new double[cptr[w]];
+			for( int i=_rl; i<_ru; i++ ) {
+				if( a.isEmpty(i) ) continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				int k = (_cl == 0) ? 0 : a.posFIndexGTE(i, _cl);
+				for( k = (k < 0) ? alen : k; k<alen && aix[apos+k]<_cu; k++ ) {
+					int p = pos[aix[apos+k] - _cl]++;
+					rix[p] = i - _rl;
+					vals[p] = avals[apos+k];
+				}
+			}
+
+			ArrayList<EncodedChunk> ret = new ArrayList<>();
+			int[] tix = new int[n];
+			double[] tvals = new double[n];
+			for( int j=0; j<w; j++ ) {
+				int len = cptr[j+1] - cptr[j];
+				if( len == 0 ) continue;
+				System.arraycopy(rix, cptr[j], tix, 0, len);
+				System.arraycopy(vals, cptr[j], tvals, 0, len);
+				EncodedChunk chunk = ColumnarFileFormat.encodeSparseDoubles(
+					tix, tvals, len, n, _cl + j, _rowChunk, _compress);
+				if( chunk != null )
+					ret.add(chunk);
+			}
+			return ret;
+		}
+	}
+}
@@ -20,6 +20,7 @@ import org.tugraz.sysds.runtime.controlprogram.ForProgramBlock;
 import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
 import org.tugraz.sysds.runtime.instructions.Instruction;
 import org.tugraz.sysds.runtime.instructions.cp.CPOperand;
+import org.tugraz.sysds.runtime.instructions.cp.VariableCPInstruction;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -40,6 +41,11 @@ public class Lineage {
 			_globalLineages.trace(inst, ec);
 	}
 	
+	public static void tracePersisted(VariableCPInstruction inst, ExecutionContext ec) {
+		if (_activeDedupBlock.empty())
+			_globalLineages.processPersistedLI(inst, ec);
+	}
+	
 	public static void tracePath(int block, Long path) {
 		LineageMap lm = _activeDedupBlock.peek().getMap(block, path);
 		if (lm != null)
@@ -85,6 +91,7 @@ public class Lineage {
 	public static void resetInternalState() {
 		LineageItem.resetIDSequence();
 		LineageCache.resetCache();
+		LineageCache.resetPersisted();
 		Lineage.resetLineageMaps();
 	}
 	
@@ -0,0 +1,422 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.runtime.lineage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.tugraz.sysds.runtime.io.IOUtilFunctions;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
+
+/**
+ * Compact binary format of lineage traces, as alternative to the text
+ * format of Explain/LineageParser (which remains the default for debugging).
+ * 
+ * The file consists of a header (magic, version, flags) and a sequence of
+ * blocks, terminated by an empty block. Each block holds the items in
+ * topological order (inputs before outputs, root last), encoded as varint
+ * id deltas, a block-local dictionary of opcodes, names, and data strings,
+ * and the number and id deltas of inputs. Items are written once by
+ * identity, which also keeps shared dedup patterns (see LineageDedupBlock)
+ * deduplicated. Blocks are self-contained and optionally deflated, which
+ * allows a streaming writer and parallel decoding on read.
+ */
+public class LineageBinaryFormat
+{
+	private static final byte[] MAGIC = new byte[]{'S','D','S','L'};
+	private static final byte VERSION = 1;
+	private static final byte FLAG_DEFLATE = 1;
+	
+	//target number of raw bytes per block
+	private static final int BLOCK_SIZE = 1024 * 1024;
+	
+	private LineageBinaryFormat() {
+		//prevent instantiation via private constructor
+	}
+	
+	/**
+	 * Indicates if the given file is a binary lineage trace.
+	 * 
+	 * @param fname file name
+	 * @return true if binary trace
+	 * @throws IOException if IOException occurs
+	 */
+	public static boolean isBinaryTrace(String fname) throws IOException {
+		Path path = new Path(fname);
+		FileSystem fs = IOUtilFunctions.getFileSystem(path);
+		byte[] magic = new byte[MAGIC.length];
+		try( DataInputStream in = fs.open(path) ) {
+			in.readFully(magic);
+			return Arrays.equals(magic, MAGIC);
+		}
+		catch(EOFException ex) {
+			return false;
+		}
+	}
+	
+	public static void writeTrace(LineageItem root, String fname, boolean compress) throws IOException {
+		Path path = new Path(fname);
+		FileSystem fs = IOUtilFunctions.getFileSystem(path);
+		try( DataOutputStream out = fs.create(path, true) ) {
+			writeTrace(root, out, compress);
+		}
+		IOUtilFunctions.deleteCrcFilesFromLocalFileSystem(fs, path);
+	}
+	
+	/**
+	 * Streams the lineage DAG of the given root item in blocks to the
+	 * given output stream, via an iterative post-order traversal without
+	 * recursion (for deep traces) or modification of visit status.
+	 * 
+	 * @param root lineage root item
+	 * @param out output stream
+	 * @param compress if true, deflate the blocks
+	 * @throws IOException if IOException occurs
+	 */
+	public static void writeTrace(LineageItem root, DataOutputStream out, boolean compress) throws IOException {
+		out.write(MAGIC);
+		out.writeByte(VERSION);
+		out.writeByte(compress ? FLAG_DEFLATE : 0);
+		
+		BlockWriter writer = new BlockWriter(out, compress);
+		Set<LineageItem> written = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<LineageItem> stack = new ArrayDeque<>();
+		stack.push(root);
+		while( !stack.isEmpty() ) {
+			LineageItem li = stack.peek();
+			if( written.contains(li) ) {
+				stack.pop();
+				continue;
+			}
+			boolean ready = true;
+			if( li.getInputs() != null )
+				for( int i=li.getInputs().length-1; i>=0; i-- )
+					if( !written.contains(li.getInputs()[i]) ) {
+						stack.push(li.getInputs()[i]);
+						ready = false;
+					}
+			if( ready ) {
+				writer.writeItem(stack.pop());
+				written.add(li);
+			}
+		}
+		writer.close();
+	}
+	
+	public static LineageItem readTrace(String fname, int k) throws IOException {
+		Path path = new Path(fname);
+		FileSystem fs = IOUtilFunctions.getFileSystem(path);
+		try( InputStream in = fs.open(path) ) {
+			return readTrace(in, k);
+		}
+	}
+	
+	/**
+	 * Reads a binary lineage trace from the given input stream. The blocks
+	 * are read sequentially, decoded (and inflated) in parallel, and finally
+	 * linked in order into the lineage DAG.
+	 * 
+	 * @param is input stream
+	 * @param k degree of parallelism
+	 * @return lineage root item
+	 * @throws IOException if IOException occurs
+	 */
+	public static LineageItem readTrace(InputStream is, int k) throws IOException {
+		DataInputStream in = new DataInputStream(is);
+		byte[] magic = new byte[MAGIC.length];
+		in.readFully(magic);
+		if( !Arrays.equals(magic, MAGIC) )
+			throw new IOException("Invalid binary lineage trace: wrong magic number.");
+		byte version = in.readByte();
+		if( version != VERSION )
+			throw new IOException("Unsupported binary lineage trace version: "+version+".");
+		boolean deflated = (in.readByte() & FLAG_DEFLATE) != 0;
+		
+		//read raw blocks until terminating empty block
+		ArrayList<DecodeTask> tasks = new ArrayList<>();
+		for( int rawLen = in.readInt(); rawLen > 0; rawLen = in.readInt() ) {
+			byte[] data = new byte[in.readInt()];
+			in.readFully(data);
+			tasks.add(new DecodeTask(data, rawLen, deflated));
+		}
+		
+		//decode blocks in parallel
+		List<List<Record>> blocks = new ArrayList<>();
+		if( k <= 1 || tasks.size() <= 1 ) {
+			for( DecodeTask task : tasks )
+				blocks.add(task.call());
+		}
+		else {
+			ExecutorService pool = CommonThreadPool.get(Math.min(k, tasks.size()));
+			try {
+				for( Future<List<Record>> task : pool.invokeAll(tasks) )
+					blocks.add(task.get());
+			}
+			catch(Exception ex) {
+				throw new IOException("Failed parallel read of binary lineage trace.", ex);
+			}
+			finally {
+				pool.shutdown();
+			}
+		}
+		
+		//link items in topological order
+		HashMap<Long, LineageItem> map = new HashMap<>();
+		LineageItem root = null;
+		for( List<Record> block : blocks )
+			for( Record r : block ) {
+				LineageItem[] inputs = null;
+				if( r.inputs != null ) {
+					inputs = new LineageItem[r.inputs.length];
+					for( int i=0; i<inputs.length; i++ )
+						if( (inputs[i] = map.get(r.inputs[i])) == null )
+							throw new IOException("Invalid binary lineage trace: unknown input id "+r.inputs[i]+".");
+				}
+				root = new LineageItem(r.id, r.name, r.data, r.opcode, inputs);
+				map.put(r.id, root);
+			}
+		return root;
+	}
+	
+	private static class Record {
+		private long id;
+		private String opcode;
+		private String name;
+		private String data;
+		private long[] inputs;
+	}
+	
+	private static class BlockWriter
+	{
+		private final DataOutputStream _out;
+		private final boolean _compress;
+		private final Bytes _buff = new Bytes(BLOCK_SIZE + 1024);
+		private final HashMap<String, Integer> _dict = new HashMap<>();
+		private long _prevId = 0;
+		
+		public BlockWriter(DataOutputStream out, boolean compress) {
+			_out = out;
+			_compress = compress;
+		}
+		
+		public void writeItem(LineageItem li) throws IOException {
+			long id = li.getId();
+			_buff.writeVarLong(zigzag(id - _prevId));
+			writeString(li.getOpcode());
+			writeString(li.getName());
+			writeString(li.getData());
+			LineageItem[] inputs = li.getInputs();
+			_buff.writeVarLong(inputs == null ? 0 : inputs.length + 1);
+			if( inputs != null )
+				for( LineageItem in : inputs )
+					_buff.writeVarLong(zigzag(id - in.getId()));
+			_prevId = id;
+			if( _buff.size() >= BLOCK_SIZE )
+				flush();
+		}
+		
+		public void close() throws IOException {
+			flush();
+			_out.writeInt(0);
+		}
+		
+		private void writeString(String str) {
+			//0: null, 1..n: dictionary entry, n+1: new entry
+			Integer code = (str != null) ? _dict.get(str) : Integer.valueOf(0);
+			if( code != null ) {
+				_buff.writeVarLong(code);
+				return;
+			}
+			_dict.put(str, _dict.size() + 1);
+			_buff.writeVarLong(_dict.size());
+			byte[] b = str.getBytes(StandardCharsets.UTF_8);
+			_buff.writeVarLong(b.length);
+			_buff.write(b, 0, b.length);
+		}
+		
+		private void flush() throws IOException {
+			if( _buff.size() == 0 )
+				return;
+			byte[] data = _compress ? deflate(_buff.array(), _buff.size()) : _buff.array();
+			_out.writeInt(_buff.size());
+			_out.writeInt(_compress ? data.length : _buff.size());
+			_out.write(data, 0, _compress ? data.length : _buff.size());
+			//reset block-local state
+			_buff.reset();
+			_dict.clear();
+			_prevId = 0;
+		}
+	}
+	
+	private static class DecodeTask implements Callable<List<Record>>
+	{
+		private final byte[] _data;
+		private final int _rawLen;
+		private final boolean _deflated;
+		
+		public DecodeTask(byte[] data, int rawLen, boolean deflated) {
+			_data = data;
+			_rawLen = rawLen;
+			_deflated = deflated;
+		}
+		
+		@Override
+		public List<Record> call() throws IOException {
+			byte[] b = _deflated ? inflate(_data, _rawLen) : _data;
+			ArrayList<String> dict = new ArrayList<>();
+			ArrayList<Record> ret = new ArrayList<>();
+			int[] pos = new int[]{0};
+			long prevId = 0;
+			while( pos[0] < _rawLen ) {
+				Record r = new Record();
+				r.id = prevId + unzigzag(readVarLong(b, pos));
+				r.opcode = readString(b, pos, dict);
+				r.name = readString(b, pos, dict);
+				r.data = readString(b, pos, dict);
+				int n = (int) readVarLong(b, pos);
+				if( n > 0 ) {
+					r.inputs = new long[n-1];
+					for( int i=0; i<n-1; i++ )
+						r.inputs[i] = r.id - unzigzag(readVarLong(b, pos));
+				}
+				prevId = r.id;
+				ret.add(r);
+			}
+			return ret;
+		}
+		
+		private static String readString(byte[] b, int[] pos, ArrayList<String> dict) throws IOException {
+			int code = (int) readVarLong(b, pos);
+			if( code == 0 )
+				return null;
+			if( code <= dict.size() )
+				return dict.get(code - 1);
+			if( code != dict.size() + 1 )
+				throw new IOException("Invalid binary lineage trace: unknown string code "+code+".");
+			int len = (int) readVarLong(b, pos);
+			String str = new String(b, pos[0], len, StandardCharsets.UTF_8);
+			pos[0] += len;
+			dict.add(str);
+			return str;
+		}
+	}
+	
+	private static class Bytes extends ByteArrayOutputStream
+	{
+		public Bytes(int size) {
+			super(size);
+		}
+		
+		public byte[] array() {
+			return buf;
+		}
+		
+		public void writeVarLong(long v) {
+			while( (v & ~0x7FL) != 0 ) {
+				write((int)((v & 0x7F) | 0x80));
+				v >>>= 7;
+			}
+			write((int)v);
+		}
+	}
+	
+	private static long readVarLong(byte[] b, int[] pos) throws IOException {
+		long ret = 0;
+		for( int shift=0; shift<64; shift+=7 ) {
+			if( pos[0] >= b.length )
+				throw new IOException("Invalid binary lineage trace: truncated block.");
+			byte v = b[pos[0]++];
+			ret |= (long)(v & 0x7F) << shift;
+			if( (v & 0x80) == 0 )
+				return ret;
+		}
+		throw new IOException("Invalid binary lineage trace: malformed varint.");
+	}
+	
+	private static long zigzag(long v) {
+		return (v << 1) ^ (v >> 63);
+	}
+	
+	private static long unzigzag(long v) {
+		return (v >>> 1) ^ -(v & 1);
+	}
+	
+	private static byte[] deflate(byte[] data, int len) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(data, 0, len);
+			deflater.finish();
+			Bytes out = new Bytes(len / 4 + 64);
+			byte[] buff = new byte[8192];
+			while( !deflater.finished() ) {
+				int n = deflater.deflate(buff);
+				out.write(buff, 0, n);
+			}
+			return out.toByteArray();
+		}
+		finally {
+			deflater.end();
+		}
+	}
+	
+	private static byte[] inflate(byte[] data, int rawLen) throws IOException {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(data);
+			byte[] ret = new byte[rawLen];
+			int off = 0;
+			while( off < rawLen && !inflater.finished() ) {
+				int n = inflater.inflate(ret, off, rawLen - off);
+				if( n == 0 && (inflater.needsInput() || inflater.needsDictionary()) )
+					break;
+				off += n;
+			}
+			if( off != rawLen )
+				throw new IOException("Invalid binary lineage trace: corrupt block ("+off+" of "+rawLen+" bytes).");
+			return ret;
+		}
+		catch(DataFormatException ex) {
+			throw new IOException(ex);
+		}
+		finally {
+			inflater.end();
+		}
+	}
+}
@@ -1,17 +1,24 @@
 package org.tugraz.sysds.runtime.lineage;
 
 import org.tugraz.sysds.api.DMLScript;
+import org.tugraz.sysds.common.Types.ValueType;
 import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
 import org.tugraz.sysds.runtime.instructions.Instruction;
 import org.tugraz.sysds.runtime.instructions.cp.ComputationCPInstruction;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.meta.MetaDataFormat;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class LineageCache {
-	private static final Map<LineageItem, MatrixBlock> _cache = new HashMap<>();
+	private static final Map<LineageItem, MatrixBlock> _cache = new ConcurrentHashMap<>();
+	//persisted intermediates (written during this session) by lineage
+	private static final Map<LineageItem, PersistedEntry> _persisted = new HashMap<>();
 	
 	public static void put(Instruction inst, ExecutionContext ec) {
 		if (!DMLScript.LINEAGE_REUSE)
@@ -22,7 +29,11 @@ public class LineageCache {
 			
 			for (LineageItem item : ((LineageTraceable) inst).getLineageItems()) {
 				MatrixObject mo = ec.getMatrixObject(((ComputationCPInstruction) inst).output);
-				LineageCache._cache.put(item, mo.acquireReadAndRelease());
+				MatrixBlock mb = mo.acquireReadAndRelease();
+				//mark off-heap blocks as shared w/ the cache
+				if( mb.getDenseBlock() != null )
+					mb.getDenseBlock().claim(_cache);
+				LineageCache._cache.put(item, mb);
 			}
 		}
 	}
@@ -39,6 +50,65 @@ public class LineageCache {
 		_cache.clear();
 	}
 	
+	/**
+	 * Registers a persisted intermediate with the given lineage, after
+	 * its write instruction was executed. An asynchronous write is kept
+	 * with the entry, and awaited before the file is read for reuse.
+	 * 
+	 * @param key lineage item
+	 * @param fname file name
+	 * @param meta meta data of the written file
+	 * @param write pending asynchronous write, or null if completed
+	 */
+	public static void putPersisted(LineageItem key, String fname, MetaDataFormat meta, Future<?> write) {
+		synchronized (_persisted) {
+			//drop stale entries of overwritten files
+			_persisted.values().removeIf(e -> e._fname.equals(fname));
+			_persisted.put(key, new PersistedEntry(fname, meta, write));
+		}
+	}
+	
+	public static void removePersisted(String fname) {
+		synchronized (_persisted) {
+			_persisted.values().removeIf(e -> e._fname.equals(fname));
+		}
+	}
+	
+	/**
+	 * Obtains a new matrix object for a persisted intermediate with
+	 * the given lineage, which allows reading it back instead of
+	 * recomputing it. Cleanup is disabled to retain the file. If the
+	 * write is still pending, this call waits for its completion, and
+	 * drops the entry if the write failed (the failure itself is
+	 * propagated by the write-behind scheduler).
+	 * 
+	 * @param key lineage item
+	 * @return matrix object, or null if not persisted
+	 */
+	public static MatrixObject getPersisted(LineageItem key) {
+		PersistedEntry entry = null;
+		synchronized (_persisted) {
+			entry = _persisted.get(key);
+		}
+		if (entry == null || !entry.awaitWrite()) {
+			if (entry != null) {
+				synchronized (_persisted) {
+					_persisted.remove(key, entry);
+				}
+			}
+			return null;
+		}
+		MatrixObject mo = new MatrixObject(ValueType.FP64, entry._fname, entry._meta);
+		mo.enableCleanup(false);
+		return mo;
+	}
+	
+	public static void resetPersisted() {
+		synchronized (_persisted) {
+			_persisted.clear();
+		}
+	}
+	
 	public static boolean reuse(Instruction inst, ExecutionContext ec) {
 		if (!DMLScript.LINEAGE && DMLScript.LINEAGE_REUSE)
 			return false;
@@ -47,8 +117,10 @@ public class LineageCache {
 			boolean reused = true;
 			LineageItem[] items = ((ComputationCPInstruction) inst).getLineageItems();
 			for (LineageItem item : items) {
-				if (LineageCache.probe(item))
-					ec.setMatrixOutput(((ComputationCPInstruction) inst).output.getName(), LineageCache.get(item));
+				//single lookup, robust against concurrent resets
+				MatrixBlock mb = LineageCache.get(item);
+				if (mb != null)
+					ec.setMatrixOutput(((ComputationCPInstruction) inst).output.getName(), mb);
 				else
 					reused = false;
 			}
@@ -57,4 +129,28 @@ public class LineageCache {
 			return false;
 		}
 	}
+	
+	private static class PersistedEntry {
+		private final String _fname;
+		private final MetaDataFormat _meta;
+		private final Future<?> _write;
+		
+		public PersistedEntry(String fname, MetaDataFormat meta, Future<?> write) {
+			_fname = fname;
+			_meta = meta;
+			_write = write;
+		}
+		
+		private boolean awaitWrite() {
+			if (_write == null)
+				return true;
+			try {
+				_write.get();
+				return true;
+			}
+			catch (ExecutionException | InterruptedException ex) {
+				return false;
+			}
+		}
+	}
 }
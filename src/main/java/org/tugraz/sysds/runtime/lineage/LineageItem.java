@@ -18,7 +18,6 @@ package org.tugraz.sysds.runtime.lineage;
 
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.controlprogram.parfor.util.IDSequence;
-import org.tugraz.sysds.runtime.util.UtilFunctions;
 
 public class LineageItem {
 	private static IDSequence _idSeq = new IDSequence();
@@ -28,7 +27,9 @@ public class LineageItem {
 	private final String _name;
 	private final String _data;
 	private final LineageItem[] _inputs;
-	private int _hash = 0;
+	//128-bit structural fingerprint (opcode, data, inputs)
+	private final long _fp1;
+	private final long _fp2;
 	// init visited to true to ensure visited items are
 	// not hidden when used as inputs to new items
 	private boolean _visited = true;
@@ -36,6 +37,11 @@ public class LineageItem {
 	public enum LineageItemType {Literal, Creation, Instruction, Dedup}
 	public static final String dedupItemOpcode = "dedup";
 	
+	private static final long FP_SEED1 = 0xcbf29ce484222325L;
+	private static final long FP_SEED2 = 0x84222325cbf29ce4L;
+	private static final long FP_PRIME1 = 0x100000001b3L;
+	private static final long FP_PRIME2 = 0x9e3779b97f4a7c15L;
+	
 	public LineageItem(long id, String name, String data) { this(id, name, data, "", null); }
 	
 	public LineageItem(long id, String name,  String opcode, LineageItem[] inputs) { this(id, name, "", opcode ,inputs); }
@@ -56,6 +62,9 @@ public class LineageItem {
 		_name = name;
 		_data = data;
 		_inputs = inputs;
+		long[] fp = computeFingerprint();
+		_fp1 = fp[0];
+		_fp2 = fp[1];
 	}
 	
 	public LineageItem(long id, LineageItem li) {
@@ -64,6 +73,8 @@ public class LineageItem {
 		_name = li._name;
 		_data = li._data;
 		_inputs = li._inputs;
+		_fp1 = li._fp1;
+		_fp2 = li._fp2;
 	}
 	
 	public LineageItem(LineageItem other) {
@@ -72,8 +83,9 @@ public class LineageItem {
 		_name = other._name;
 		_data = other._data;
 		_visited = other._visited;
-		_hash = other._hash;
 		_inputs = other._inputs;
+		_fp1 = other._fp1;
+		_fp2 = other._fp2;
 	}
 	
 	public LineageItem[] getInputs() {
@@ -128,52 +140,54 @@ public class LineageItem {
 	
 	@Override
 	public boolean equals(Object o) {
+		if (this == o)
+			return true;
 		if (!(o instanceof LineageItem))
 			return false;
 		
-		resetVisitStatus();
-		boolean ret = equalsLI((LineageItem) o);
-		resetVisitStatus();
-		return ret;
-	}
-	
-	private boolean equalsLI(LineageItem that) {
-		if (isVisited())
-			return true;
-		
-		boolean ret = _opcode.equals(that._opcode);
-		
-		//If this is LineageItemType.Creation, remove _name in _data
-		if (getType() == LineageItemType.Creation) {
-			String this_data = _data.replace(_name, "");
-			String that_data = that._data.replace(that._name, "");
-			ret &= this_data.equals(that_data);
-		} else
-			ret &= _data.equals(that._data);
-		
-		if (_inputs != null)
-			for (int i = 0; i < _inputs.length; i++)
-				ret &= _inputs[i].equalsLI(that._inputs[i]);
-		
-		setVisited();
-		return ret;
+		//constant-time comparison of structural fingerprints,
+		//which are computed bottom-up at construction time
+		LineageItem that = (LineageItem) o;
+		return _fp1 == that._fp1 && _fp2 == that._fp2;
 	}
 	
 	@Override
 	public int hashCode() {
-		if (_hash == 0) {
-			//compute hash over opcode and all inputs
-			int h = _opcode.hashCode();
-			if (_inputs != null)
-				for (LineageItem li : _inputs)
-					h = UtilFunctions.intHashCode(h, li.hashCode());
-			
-			//if Creation type, remove _name in _data
-			_hash = UtilFunctions.intHashCode(h, 
-				((getType() == LineageItemType.Creation) ?
-				_data.replace(_name, "") : _data).hashCode());
+		return (int) (_fp1 ^ (_fp1 >>> 32));
+	}
+	
+	private long[] computeFingerprint() {
+		//if Creation type, remove _name in _data
+		String data = (_data == null) ? "" :
+			(getType() == LineageItemType.Creation && _name != null) ?
+			_data.replace(_name, "") : _data;
+		
+		//two independently seeded 64-bit hashes over opcode, data, and 
+		//the ordered fingerprints of all inputs (already computed)
+		long h1 = hash(hash(FP_SEED1, FP_PRIME1, _opcode), FP_PRIME1, data);
+		long h2 = hash(hash(FP_SEED2, FP_PRIME2, _opcode), FP_PRIME2, data);
+		if (_inputs != null) {
+			for (LineageItem li : _inputs) {
+				h1 = mix(h1 * FP_PRIME1 + li._fp1);
+				h2 = mix(h2 * FP_PRIME2 + li._fp2);
+			}
+			h1 = mix(h1 + _inputs.length);
+			h2 = mix(h2 + _inputs.length);
 		}
-		return _hash;
+		return new long[]{h1, h2};
+	}
+	
+	private static long hash(long h, long prime, String str) {
+		for (int i = 0; i < str.length(); i++)
+			h = (h ^ str.charAt(i)) * prime;
+		return mix(h + str.length());
+	}
+	
+	private static long mix(long h) {
+		//64-bit finalizer of murmur3
+		h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+		h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return h ^ (h >>> 33);
 	}
 	
 	public boolean isLeaf() {
@@ -26,13 +26,18 @@ import org.tugraz.sysds.runtime.lineage.LineageItem.LineageItemType;
 import org.tugraz.sysds.common.Types.DataType;
 import org.tugraz.sysds.common.Types.ValueType;
 import org.tugraz.sysds.conf.ConfigurationManager;
+import org.tugraz.sysds.conf.DMLConfig;
 import org.tugraz.sysds.hops.DataGenOp;
 import org.tugraz.sysds.hops.DataOp;
 import org.tugraz.sysds.hops.Hop;
 import org.tugraz.sysds.hops.LiteralOp;
+import org.tugraz.sysds.hops.OptimizerUtils;
 import org.tugraz.sysds.hops.Hop.DataGenMethod;
 import org.tugraz.sysds.hops.Hop.DataOpTypes;
+import org.tugraz.sysds.hops.codegen.SpoofCompiler;
 import org.tugraz.sysds.hops.rewrite.HopRewriteUtils;
+import org.tugraz.sysds.hops.rewrite.ProgramRewriteStatus;
+import org.tugraz.sysds.hops.rewrite.ProgramRewriter;
 import org.tugraz.sysds.lops.Lop;
 import org.tugraz.sysds.lops.compile.Dag;
 import org.tugraz.sysds.parser.DataExpression;
@@ -40,24 +45,37 @@ import org.tugraz.sysds.parser.DataIdentifier;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.controlprogram.BasicProgramBlock;
 import org.tugraz.sysds.runtime.controlprogram.Program;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
 import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContextFactory;
+import org.tugraz.sysds.runtime.controlprogram.paramserv.ParamservUtils;
 import org.tugraz.sysds.runtime.instructions.Instruction;
 import org.tugraz.sysds.runtime.instructions.InstructionParser;
 import org.tugraz.sysds.runtime.instructions.InstructionUtils;
 import org.tugraz.sysds.runtime.instructions.cp.CPOperand;
 import org.tugraz.sysds.runtime.instructions.cp.Data;
 import org.tugraz.sysds.runtime.instructions.cp.DataGenCPInstruction;
+import org.tugraz.sysds.runtime.instructions.cp.ScalarObject;
 import org.tugraz.sysds.runtime.instructions.cp.ScalarObjectFactory;
 import org.tugraz.sysds.runtime.instructions.cp.VariableCPInstruction;
 import org.tugraz.sysds.runtime.instructions.spark.SPInstruction.SPType;
 import org.tugraz.sysds.runtime.instructions.cp.CPInstruction.CPType;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
 import org.tugraz.sysds.runtime.util.HDFSTool;
+import org.tugraz.sysds.utils.Explain;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 public class LineageItemUtils {
@@ -123,45 +141,188 @@ public class LineageItemUtils {
 	}
 	
 	public static Data computeByLineage(LineageItem root) {
-		long rootId = root.getOpcode().equals("write") ?
-				root.getInputs()[0].getId() : root.getId();
-		String varname = LVARPREFIX + rootId;
+		return computeByLineage(root, OptimizerUtils.getConstrainedNumThreads(-1));
+	}
+	
+	/**
+	 * Recomputes the output of the given lineage trace. The trace is cut at
+	 * intermediates available in the lineage cache or persisted during this
+	 * session, which are reused instead of recomputed. Independent subDAGs
+	 * are computed in parallel, and all generated HOP DAGs are optimized by
+	 * the static and dynamic rewrites (and codegen if enabled).
+	 * 
+	 * @param root lineage root item
+	 * @param k degree of parallelism
+	 * @return computed data object
+	 */
+	public static Data computeByLineage(LineageItem root, int k) {
+		LineageItem out = root.getOpcode().equals("write") ?
+			root.getInputs()[0] : root;
+		
+		//collect reusable intermediates before resetting the cache
+		HashMap<Long, Data> cuts = new HashMap<>();
+		rCollectCuts(out, cuts, new HashSet<>());
+		
+		// reset cache due to cleaned data objects
+		LineageCache.resetCache();
+		return rComputeByLineage(out, cuts, k);
+	}
+	
+	private static void rCollectCuts(LineageItem item, HashMap<Long, Data> cuts, HashSet<Long> visited) {
+		if (!visited.add(item.getId()))
+			return;
+		MatrixBlock mb = LineageCache.get(item);
+		if (mb != null) {
+			cuts.put(item.getId(), ParamservUtils.newMatrixObject(mb, false));
+			return;
+		}
+		MatrixObject mo = LineageCache.getPersisted(item);
+		if (mo != null) {
+			cuts.put(item.getId(), mo);
+			return;
+		}
+		if (!item.isLeaf())
+			for (LineageItem c : item.getInputs())
+				rCollectCuts(c, cuts, visited);
+	}
+	
+	private static Data rComputeByLineage(LineageItem root, HashMap<Long, Data> cuts, int k) {
+		if (cuts.containsKey(root.getId()))
+			return cuts.get(root.getId());
+		
+		//compute independent subDAGs in parallel, and bind them as cuts
+		ArrayList<LineageItem> subDAGs = (k > 1 && !root.isLeaf()) ?
+			planParallelSubDAGs(root, cuts.keySet()) : new ArrayList<>();
+		HashMap<Long, Data> cuts2 = new HashMap<>(cuts);
+		if (!subDAGs.isEmpty()) {
+			int k2 = Math.max(k / subDAGs.size(), 1);
+			ExecutorService pool = CommonThreadPool.get(Math.min(k, subDAGs.size()));
+			try {
+				ArrayList<Callable<Data>> tasks = new ArrayList<>();
+				for (LineageItem li : subDAGs)
+					tasks.add(() -> rComputeByLineage(li, cuts, k2));
+				List<Future<Data>> rt = pool.invokeAll(tasks);
+				for (int i = 0; i < subDAGs.size(); i++)
+					cuts2.put(subDAGs.get(i).getId(), rt.get(i).get());
+			}
+			catch (Exception ex) {
+				throw new DMLRuntimeException(ex);
+			}
+			finally {
+				pool.shutdown();
+			}
+		}
+		return computeSingle(root, cuts2);
+	}
+	
+	/**
+	 * Finds the first fork below the given root (descending over chains
+	 * of single uncomputed inputs) whose uncomputed inputs have disjoint
+	 * subDAGs and hence, can be computed independently.
+	 * 
+	 * @param root lineage root item
+	 * @param cuts ids of already available intermediates
+	 * @return list of independent subDAG roots, empty if none
+	 */
+	private static ArrayList<LineageItem> planParallelSubDAGs(LineageItem root, Set<Long> cuts) {
+		LineageItem current = root;
+		while (true) {
+			ArrayList<LineageItem> cands = new ArrayList<>();
+			for (LineageItem c : current.getInputs())
+				if (isInner(c, cuts) && !cands.contains(c))
+					cands.add(c);
+			if (cands.size() != 1)
+				return (cands.size() > 1 && isDisjoint(cands, cuts)) ?
+					cands : new ArrayList<>();
+			current = cands.get(0);
+		}
+	}
+	
+	private static boolean isInner(LineageItem item, Set<Long> cuts) {
+		return !item.isLeaf() && !cuts.contains(item.getId());
+	}
+	
+	private static boolean isDisjoint(ArrayList<LineageItem> items, Set<Long> cuts) {
+		HashSet<Long> all = new HashSet<>();
+		for (LineageItem li : items) {
+			HashSet<Long> inner = new HashSet<>();
+			rCollectInner(li, cuts, inner);
+			for (Long id : inner)
+				if (!all.add(id))
+					return false;
+		}
+		return true;
+	}
+	
+	private static void rCollectInner(LineageItem item, Set<Long> cuts, HashSet<Long> inner) {
+		if (!isInner(item, cuts) || !inner.add(item.getId()))
+			return;
+		for (LineageItem c : item.getInputs())
+			rCollectInner(c, cuts, inner);
+	}
+	
+	private static Data computeSingle(LineageItem root, HashMap<Long, Data> cuts) {
+		String varname = LVARPREFIX + root.getId();
+		ExecutionContext ec = ExecutionContextFactory.createContext();
 		
-		//recursively construct hops 
-		root.resetVisitStatus();
+		//recursively construct hops, w/ cuts bound as transient reads
 		HashMap<Long, Hop> operands = new HashMap<>();
-		rConstructHops(root, operands);
-		Hop out = HopRewriteUtils.createTransientWrite(
-				varname, operands.get(rootId));
+		rConstructHops(root, operands, cuts, ec);
+		ArrayList<Hop> roots = new ArrayList<>();
+		roots.add(HopRewriteUtils.createTransientWrite(
+			varname, operands.get(root.getId())));
+		
+		//apply static and dynamic rewrites, and codegen if enabled
+		roots = new ProgramRewriter(true, true)
+			.rewriteHopDAG(roots, new ProgramRewriteStatus());
+		if (ConfigurationManager.isCodegenEnabled())
+			roots = SpoofCompiler.optimize(roots, false);
+		Hop.resetVisitStatus(roots);
 		
 		//generate instructions for temporary hops
-		ExecutionContext ec = ExecutionContextFactory.createContext();
 		BasicProgramBlock pb = new BasicProgramBlock(new Program());
 		Dag<Lop> dag = new Dag<>();
-		Lop lops = out.constructLops();
-		lops.addToDag(dag);
+		for (Hop hop : roots)
+			hop.constructLops().addToDag(dag);
 		pb.setInstructions(dag.getJobs(null,
-				ConfigurationManager.getDMLConfig()));
+			ConfigurationManager.getDMLConfig()));
 		
-		// reset cache due to cleaned data objects
-		LineageCache.resetCache();
 		//execute instructions and get result
 		pb.execute(ec);
 		return ec.getVariable(varname);
 	}
 	
-	private static void rConstructHops(LineageItem item, HashMap<Long, Hop> operands) {
-		if (item.isVisited())
+	private static void rConstructHops(LineageItem item, HashMap<Long, Hop> operands, HashMap<Long, Data> cuts, ExecutionContext ec) {
+		if (operands.containsKey(item.getId()))
+			return;
+		
+		//bind available intermediates as inputs
+		Data cut = cuts.get(item.getId());
+		if (cut != null) {
+			String varname = LVARPREFIX + item.getId();
+			if (cut instanceof MatrixObject) {
+				MatrixObject mo = (MatrixObject) cut;
+				MatrixCharacteristics mc = mo.getMatrixCharacteristics();
+				ec.setVariable(varname, mo);
+				operands.put(item.getId(), new DataOp(varname, DataType.MATRIX, ValueType.FP64,
+					DataOpTypes.TRANSIENTREAD, null, mc.getRows(), mc.getCols(), mc.getNonZeros(),
+					ConfigurationManager.getBlocksize(), ConfigurationManager.getBlocksize()));
+			}
+			else if (cut instanceof ScalarObject)
+				operands.put(item.getId(), ScalarObjectFactory.createLiteralOp((ScalarObject) cut));
+			else
+				throw new DMLRuntimeException("Unsupported intermediate: " + cut.getDataType());
 			return;
+		}
 		
 		//recursively process children (ordering by data dependencies)
 		if (!item.isLeaf())
 			for (LineageItem c : item.getInputs())
-				rConstructHops(c, operands);
+				rConstructHops(c, operands, cuts, ec);
 		
 		//process current lineage item
-		//NOTE: we generate instructions from hops (but without rewrites) to automatically
-		//handle execution types, rmvar instructions, and rewiring of inputs/outputs
+		//NOTE: we generate instructions from hops to automatically handle
+		//execution types, rmvar instructions, and rewiring of inputs/outputs
 		switch (item.getType()) {
 			case Creation: {
 				Instruction inst = InstructionParser.parseSingleInstruction(item.getData());
@@ -250,8 +411,6 @@ public class LineageItemUtils {
 				throw new NotImplementedException();
 			}
 		}
-		
-		item.setVisited();
 	}
 	
 	public static LineageItem rDecompress(LineageItem item) {
@@ -266,10 +425,7 @@ public class LineageItemUtils {
 				item.getInputs()[1].getData(),
 				item.getInputs()[1].getOpcode(), inputs.toArray(new LineageItem[0]));
 			
-			li.resetVisitStatus();
-			rSetDedupInputOntoOutput(item.getName(), li, dedupInput);
-			li.resetVisitStatus();
-			return li;
+			return rSetDedupInputOntoOutput(item.getName(), li, dedupInput, new HashMap<>());
 		} else {
 			ArrayList<LineageItem> inputs = new ArrayList<>();
 			if (item.getInputs() != null) {
@@ -281,6 +437,43 @@ public class LineageItemUtils {
 		}
 	}
 	
+	/**
+	 * Writes the lineage trace of the given item in the configured
+	 * format (text or binary, see DMLConfig.LINEAGE_FORMAT).
+	 * 
+	 * @param li lineage root item
+	 * @param fname file name
+	 */
+	public static void writeTraceToHDFS(LineageItem li, String fname) {
+		DMLConfig conf = ConfigurationManager.getDMLConfig();
+		if (conf.getTextValue(DMLConfig.LINEAGE_FORMAT).equalsIgnoreCase("binary")) {
+			try {
+				LineageBinaryFormat.writeTrace(li, fname,
+					conf.getBooleanValue(DMLConfig.LINEAGE_COMPRESS));
+			} catch (IOException e) {
+				throw new DMLRuntimeException(e);
+			}
+		} else
+			writeTraceToHDFS(Explain.explain(li), fname);
+	}
+	
+	/**
+	 * Reads a lineage trace in text or binary format (determined
+	 * from the file header).
+	 * 
+	 * @param fname file name
+	 * @return lineage root item
+	 */
+	public static LineageItem readTraceFromHDFS(String fname) {
+		try {
+			return LineageBinaryFormat.isBinaryTrace(fname) ?
+				LineageBinaryFormat.readTrace(fname, OptimizerUtils.getParallelBinaryReadParallelism()) :
+				LineageParser.parseLineageTrace(HDFSTool.readStringFromHDFSFile(fname));
+		} catch (IOException e) {
+			throw new DMLRuntimeException(e);
+		}
+	}
+	
 	public static void writeTraceToHDFS(String trace, String fname) {
 		try {
 			HDFSTool.writeStringToHDFS(trace, fname);
@@ -295,20 +488,25 @@ public class LineageItemUtils {
 		}
 	}
 	
-	private static void rSetDedupInputOntoOutput(String name, LineageItem item, LineageItem dedupInput) {
-		if (item.isVisited())
-			return;
+	private static LineageItem rSetDedupInputOntoOutput(String name, LineageItem item, LineageItem dedupInput, HashMap<Long, LineageItem> memo) {
+		if (item.isLeaf())
+			return item;
+		if (memo.containsKey(item.getId()))
+			return memo.get(item.getId());
 		
-		if (item.getInputs() != null)
-			for (int i = 0; i < item.getInputs().length; i++) {
-				LineageItem li = item.getInputs()[i];
-				
-				if (li.getName().equals(name))
-					item.getInputs()[i] = dedupInput;
-				
-				rSetDedupInputOntoOutput(name, li, dedupInput);
-			}
-		
-		item.setVisited();
+		//recreate items with replaced inputs instead of in-place updates,
+		//because the structural fingerprints are computed on construction
+		LineageItem[] inputs = new LineageItem[item.getInputs().length];
+		boolean changed = false;
+		for (int i = 0; i < inputs.length; i++) {
+			LineageItem li = item.getInputs()[i];
+			inputs[i] = li.getName() != null && li.getName().equals(name) ?
+				dedupInput : rSetDedupInputOntoOutput(name, li, dedupInput, memo);
+			changed |= (inputs[i] != li);
+		}
+		LineageItem ret = !changed ? item : new LineageItem(item.getId(),
+			item.getName(), item.getData(), item.getOpcode(), inputs);
+		memo.put(item.getId(), ret);
+		return ret;
 	}
 }
@@ -3,19 +3,26 @@ package org.tugraz.sysds.runtime.lineage;
 import org.tugraz.sysds.api.DMLScript;
 import org.tugraz.sysds.common.Types;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.controlprogram.caching.AsyncIOScheduler;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
 import org.tugraz.sysds.runtime.instructions.Instruction;
 import org.tugraz.sysds.runtime.instructions.cp.CPOperand;
+import org.tugraz.sysds.runtime.instructions.cp.Data;
 import org.tugraz.sysds.runtime.instructions.cp.VariableCPInstruction;
-import org.tugraz.sysds.utils.Explain;
+import org.tugraz.sysds.runtime.matrix.data.InputInfo;
+import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+import org.tugraz.sysds.runtime.meta.MetaDataFormat;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LineageMap {
 	
-	private Map<String, LineageItem> _traces = new HashMap<>();
-	private Map<String, LineageItem> _literals = new HashMap<>();
+	//concurrent maps, as parfor workers and parallel recomputation
+	//trace concurrently (w/o global lock over entire instructions)
+	private Map<String, LineageItem> _traces = new ConcurrentHashMap<>();
+	private Map<String, LineageItem> _literals = new ConcurrentHashMap<>();
 	
 	public LineageMap() {
 	}
@@ -54,11 +61,8 @@ public class LineageMap {
 		String varname = variable.getName();
 		//handle literals (never in traces)
 		if (variable.isLiteral()) {
-			LineageItem ret = _literals.get(varname);
-			if (ret == null)
-				_literals.put(varname, ret = new LineageItem(
-					varname, variable.getLineageLiteral()));
-			return ret;
+			return _literals.computeIfAbsent(varname,
+				k -> new LineageItem(k, variable.getLineageLiteral()));
 		}
 		//handle variables
 		LineageItem ret = _traces.get(variable.getName());
@@ -145,10 +149,35 @@ public class LineageMap {
 		String fName = ec.getScalarInput(inst.getInput2().getName(), Types.ValueType.STRING, inst.getInput2().isLiteral()).getStringValue();
 		
 		if (DMLScript.LINEAGE_DEDUP) {
-			LineageItemUtils.writeTraceToHDFS(Explain.explain(li), fName + ".lineage.dedup");
+			LineageItemUtils.writeTraceToHDFS(li, fName + ".lineage.dedup");
 			li = LineageItemUtils.rDecompress(li);
 		}
-		LineageItemUtils.writeTraceToHDFS(Explain.explain(li), fName + ".lineage");
+		LineageItemUtils.writeTraceToHDFS(li, fName + ".lineage");
+		
+		//drop stale persisted entries of the overwritten file (the new
+		//entry is registered once the write instruction is executed)
+		LineageCache.removePersisted(fName);
+	}
+	
+	public void processPersistedLI(VariableCPInstruction inst, ExecutionContext ec) {
+		//register persisted matrix for reuse in recomputation (w/o csv/libsvm properties)
+		Data dat = ec.getVariable(inst.getInput1().getName());
+		InputInfo ii = (inst.getInput3() != null) ?
+			InputInfo.stringExternalToInputInfo(inst.getInput3().getName()) : null;
+		if (dat instanceof MatrixObject && ii != null && ii != InputInfo.CSVInputInfo
+			&& ii != InputInfo.LIBSVMInputInfo) {
+			LineageItem li = get(inst.getInput1());
+			if (li == null)
+				return;
+			if (DMLScript.LINEAGE_DEDUP)
+				li = LineageItemUtils.rDecompress(li);
+			String fName = ec.getScalarInput(inst.getInput2().getName(), Types.ValueType.STRING, inst.getInput2().isLiteral()).getStringValue();
+			MatrixCharacteristics mc = new MatrixCharacteristics(
+				((MatrixObject) dat).getMatrixCharacteristics());
+			LineageCache.putPersisted(li, fName,
+				new MetaDataFormat(mc, InputInfo.getMatchingOutputInfo(ii), ii),
+				AsyncIOScheduler.getPendingWrite(fName));
+		}
 	}
 	
 	private void processMoveLI(LineageItem li) {
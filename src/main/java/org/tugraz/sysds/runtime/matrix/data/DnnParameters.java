@@ -39,10 +39,14 @@ public class DnnParameters implements Serializable
 	
 	// Optional variables used by ConvolutionCPInstruction
 	public boolean enableNative = false;
+	// Optional convolution algorithm, otherwise auto-tuned per shape
+	public LibMatrixDNNConv2d.ConvAlgorithm convAlgorithm = null;
 	
 	public MatrixBlock input1; public MatrixBlock input2; public MatrixBlock output;
 	
 	public MatrixBlock bias;
+	// Optional relu on the conv2d output (after bias)
+	public boolean applyRelu = false;
 	public int [] start_indexes_h, end_indexes_h, start_indexes_w, end_indexes_w;
 	
 	public double minValForMaxPoolOperations = -Double.MAX_VALUE; 
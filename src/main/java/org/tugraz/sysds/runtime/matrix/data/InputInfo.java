@@ -23,7 +23,9 @@ package org.tugraz.sysds.runtime.matrix.data;
 
 import java.io.Serializable;
 
+import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.mapred.InputFormat;
@@ -31,6 +33,7 @@ import org.apache.hadoop.mapred.SequenceFileInputFormat;
 import org.apache.hadoop.mapred.TextInputFormat;
 import org.tugraz.sysds.parser.DataExpression;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.io.ColumnarInputFormat;
 import org.tugraz.sysds.runtime.meta.MetaData;
 
 @SuppressWarnings("rawtypes")
@@ -76,6 +79,9 @@ public class InputInfo implements Serializable
 
 	public static final InputInfo LIBSVMInputInfo=new InputInfo(TextInputFormat.class, 
 			 LongWritable.class, Text.class);
+
+	public static final InputInfo ColumnarInputInfo=new InputInfo(ColumnarInputFormat.class, 
+			 NullWritable.class, BytesWritable.class);
 	
 	public static OutputInfo getMatchingOutputInfo(InputInfo ii) {
 		if ( ii == InputInfo.BinaryBlockInputInfo )
@@ -90,6 +96,8 @@ public class InputInfo implements Serializable
 			return OutputInfo.CSVOutputInfo;
 		else if ( ii == InputInfo.LIBSVMInputInfo)
 			return OutputInfo.LIBSVMOutputInfo;
+		else if ( ii == InputInfo.ColumnarInputInfo)
+			return OutputInfo.ColumnarOutputInfo;
 		else 
 			throw new DMLRuntimeException("Unrecognized output info: " + ii);
 	}
@@ -111,6 +119,8 @@ public class InputInfo implements Serializable
 			return CSVInputInfo;
 		else if ( str.equalsIgnoreCase("libsvm"))
 			return LIBSVMInputInfo;
+		else if ( str.equalsIgnoreCase("columnar"))
+			return ColumnarInputInfo;
 		return null;
 	}
 
@@ -123,6 +133,8 @@ public class InputInfo implements Serializable
 			return InputInfo.CSVInputInfo; 
 		else if( DataExpression.FORMAT_TYPE_VALUE_LIBSVM.equals(str) )
 			return InputInfo.LIBSVMInputInfo; 
+		else if( DataExpression.FORMAT_TYPE_VALUE_COLUMNAR.equals(str) )
+			return InputInfo.ColumnarInputInfo; 
 		else if( DataExpression.FORMAT_TYPE_VALUE_BINARY.equals(str) )
 			return InputInfo.BinaryBlockInputInfo; 		
 		return null;
@@ -141,6 +153,8 @@ public class InputInfo implements Serializable
 			return "csv";
 		else if ( ii == LIBSVMInputInfo)
 			return "libsvm";
+		else if ( ii == ColumnarInputInfo)
+			return "columnar";
 		else
 			throw new DMLRuntimeException("Unrecognized inputInfo: " + ii);
 	}
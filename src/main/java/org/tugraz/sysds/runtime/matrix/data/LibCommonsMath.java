@@ -36,9 +36,16 @@ import org.tugraz.sysds.runtime.util.DataConverter;
  * 
  * This library currently supports following operations:
  * matrix inverse, matrix decompositions (QR, LU, Eigen), solve 
+ * 
+ * For inputs with at least BLOCKED_MIN_DIM rows and columns, inverse,
+ * cholesky, qr, lu, and solve are dispatched to the blocked, 
+ * multi-threaded kernels in LibMatrixLinAlg.
  */
 public class LibCommonsMath 
 {	
+	//min number of rows and columns for blocked kernels
+	public static final int BLOCKED_MIN_DIM = 256;
+	
 	private LibCommonsMath() {
 		//prevent instantiation via private constructor
 	}
@@ -56,6 +63,16 @@ public class LibCommonsMath
 	}
 		
 	public static MatrixBlock unaryOperations(MatrixBlock inj, String opcode) {
+		return unaryOperations(inj, opcode, 1);
+	}
+	
+	public static MatrixBlock unaryOperations(MatrixBlock inj, String opcode, int k) {
+		if( isBlockedApplicable(inj) ) {
+			if(opcode.equals("inverse"))
+				return LibMatrixLinAlg.inverse(inj, k);
+			else if (opcode.equals("cholesky"))
+				return LibMatrixLinAlg.cholesky(inj, k);
+		}
 		Array2DRowRealMatrix matrixInput = DataConverter.convertToArray2DRowRealMatrix(inj);
 		if(opcode.equals("inverse"))
 			return computeMatrixInverse(matrixInput);
@@ -65,6 +82,16 @@ public class LibCommonsMath
 	}
 	
 	public static MatrixBlock[] multiReturnOperations(MatrixBlock in, String opcode) {
+		return multiReturnOperations(in, opcode, 1);
+	}
+	
+	public static MatrixBlock[] multiReturnOperations(MatrixBlock in, String opcode, int k) {
+		if( isBlockedApplicable(in) ) {
+			if(opcode.equals("qr"))
+				return LibMatrixLinAlg.qr(in, k);
+			else if (opcode.equals("lu"))
+				return LibMatrixLinAlg.lu(in, k);
+		}
 		if(opcode.equals("qr"))
 			return computeQR(in);
 		else if (opcode.equals("lu"))
@@ -77,14 +104,25 @@ public class LibCommonsMath
 	}
 	
 	public static MatrixBlock matrixMatrixOperations(MatrixBlock in1, MatrixBlock in2, String opcode) {
+		return matrixMatrixOperations(in1, in2, opcode, 1);
+	}
+	
+	public static MatrixBlock matrixMatrixOperations(MatrixBlock in1, MatrixBlock in2, String opcode, int k) {
 		if(opcode.equals("solve")) {
 			if (in1.getNumRows() != in1.getNumColumns())
 				throw new DMLRuntimeException("The A matrix, in solve(A,b) should have squared dimensions.");
+			if( isBlockedApplicable(in1) && LibMatrixLinAlg.isSupported(in2) )
+				return LibMatrixLinAlg.solve(in1, in2, k);
 			return computeSolve(in1, in2);
 		}
 		return null;
 	}
 	
+	private static boolean isBlockedApplicable(MatrixBlock in) {
+		return Math.min(in.getNumRows(), in.getNumColumns()) >= BLOCKED_MIN_DIM
+			&& LibMatrixLinAlg.isSupported(in);
+	}
+	
 	/**
 	 * Function to solve a given system of equations.
 	 * 
@@ -198,6 +198,12 @@ public class LibMatrixAgg
 	}
 
 	public static void aggregateUnaryMatrix(MatrixBlock in, MatrixBlock out, AggregateUnaryOperator uaop) {
+		//row-panel processing of off-heap inputs
+		if( LibMatrixOffHeap.isOffHeap(in) && LibMatrixOffHeap.isSupportedAggregate(uaop) ) {
+			LibMatrixOffHeap.aggregateUnaryMatrix(in, out, uaop, 1);
+			return;
+		}
+		
 		//prepare meta data 
 		AggType aggtype = getAggType(uaop);
 		final int m = in.rlen;
@@ -229,6 +235,12 @@ public class LibMatrixAgg
 	}
 
 	public static void aggregateUnaryMatrix(MatrixBlock in, MatrixBlock out, AggregateUnaryOperator uaop, int k) {
+		//row-panel processing of off-heap inputs
+		if( LibMatrixOffHeap.isOffHeap(in) && LibMatrixOffHeap.isSupportedAggregate(uaop) ) {
+			LibMatrixOffHeap.aggregateUnaryMatrix(in, out, uaop, k);
+			return;
+		}
+		
 		//fall back to sequential version if necessary
 		if( !satisfiesMultiThreadingConstraints(in, out, uaop, k) ) {
 			aggregateUnaryMatrix(in, out, uaop);
@@ -663,7 +675,7 @@ public class LibMatrixAgg
 		return AggType.INVALID;
 	}
 
-	private static void aggregateFinalResult( AggregateOperator aop, MatrixBlock out, MatrixBlock partout ) {
+	static void aggregateFinalResult( AggregateOperator aop, MatrixBlock out, MatrixBlock partout ) {
 		AggregateOperator laop = aop;
 		
 		//special handling for mean where the final aggregate operator (kahan plus)
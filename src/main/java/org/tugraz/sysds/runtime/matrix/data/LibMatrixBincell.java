@@ -19,7 +19,11 @@
 
 package org.tugraz.sysds.runtime.matrix.data;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.data.DenseBlock;
@@ -48,6 +52,7 @@ import org.tugraz.sysds.runtime.functionobjects.ValueFunction;
 import org.tugraz.sysds.runtime.functionobjects.Builtin.BuiltinCode;
 import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
 import org.tugraz.sysds.runtime.matrix.operators.ScalarOperator;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
 import org.tugraz.sysds.runtime.util.DataConverter;
 import org.tugraz.sysds.runtime.util.SortUtils;
 import org.tugraz.sysds.runtime.util.UtilFunctions;
@@ -61,6 +66,7 @@ import org.tugraz.sysds.runtime.util.UtilFunctions;
  */
 public class LibMatrixBincell 
 {
+	private static final long PAR_NUMCELL_THRESHOLD = 1024*1024; //Min 1M elements
 
 	public enum BinaryAccessType {
 		MATRIX_MATRIX,
@@ -92,6 +98,13 @@ public class LibMatrixBincell
 			throw new DMLRuntimeException("Wrong output representation for safe="+op.sparseSafe+": "+m1.isInSparseFormat()+", "+ret.isInSparseFormat());
 		}
 		
+		//row-panel processing of off-heap inputs/outputs
+		if( !m1.sparse && !ret.sparse && (LibMatrixOffHeap.isOffHeap(m1)
+			|| LibMatrixOffHeap.isOffHeapOutput(ret, ret.rlen, ret.clen)) ) {
+			LibMatrixOffHeap.bincellOp(m1, ret, op);
+			return;
+		}
+		
 		//execute binary cell operations
 		if(op.sparseSafe)
 			safeBinaryScalar(m1, ret, op);
@@ -105,7 +118,8 @@ public class LibMatrixBincell
 	}
 	
 	/**
-	 * matrix-matrix binary operations, MM, MV
+	 * matrix-matrix binary operations, MM, MV. The degree of parallelism
+	 * is taken from the binary operator.
 	 * 
 	 * @param m1 input matrix 1
 	 * @param m2 input matrix 2
@@ -113,8 +127,17 @@ public class LibMatrixBincell
 	 * @param op binary operator
 	 */
 	public static void bincellOp(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
+		//row-panel processing of off-heap inputs/outputs
+		if( !ret.sparse && (LibMatrixOffHeap.isOffHeap(m1) || LibMatrixOffHeap.isOffHeap(m2)
+			|| LibMatrixOffHeap.isOffHeapOutput(ret, ret.rlen, ret.clen)) ) {
+			LibMatrixOffHeap.bincellOp(m1, m2, ret, op);
+			return;
+		}
+		
 		//execute binary cell operations
-		if(op.sparseSafe || isSparseSafeDivide(op, m2))
+		if( satisfiesMultiThreadingConstraints(m1, m2, ret, op) )
+			parallelBinary(m1, m2, ret, op);
+		else if(op.sparseSafe || isSparseSafeDivide(op, m2))
 			safeBinary(m1, m2, ret, op);
 		else
 			unsafeBinary(m1, m2, ret, op);
@@ -134,7 +157,9 @@ public class LibMatrixBincell
 	 */
 	public static void bincellOpInPlace(MatrixBlock m1ret, MatrixBlock m2, BinaryOperator op) {
 		//execute binary cell operations
-		if(op.sparseSafe || isSparseSafeDivide(op, m2))
+		if( satisfiesMultiThreadingConstraintsInPlace(m1ret, m2, op) )
+			parallelBinaryInPlace(m1ret, m2, op);
+		else if(op.sparseSafe || isSparseSafeDivide(op, m2))
 			safeBinaryInPlace(m1ret, m2, op);
 		else
 			unsafeBinaryInPlace(m1ret, m2, op);
@@ -189,6 +214,109 @@ public class LibMatrixBincell
 		return (op.fn instanceof Divide && rhs.getNonZeros()==(long)rhs.getNumRows()*rhs.getNumColumns());
 	}
 	
+	private static boolean isSparseDenseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
+		return !ret.sparse && (m1.sparse || m2.sparse) &&
+			(op.fn instanceof Plus || op.fn instanceof Minus ||
+			op.fn instanceof PlusMultiply || op.fn instanceof MinusMultiply ||
+			(op.fn instanceof Multiply && !m2.sparse ));
+	}
+	
+	private static boolean satisfiesMultiThreadingConstraints(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
+		//note: multi-threading only over non-empty inputs (no special cases of
+		//sparse-safe ops) and combinations w/ dedicated row-range kernels
+		int k = op.getNumThreads();
+		if( k <= 1 || m1.rlen <= k/2 || m1.isEmptyBlock(false)
+			|| m2.isEmptyBlock(false) || !ret.isThreadSafe() )
+			return false;
+		boolean safe = op.sparseSafe || isSparseSafeDivide(op, m2);
+		long ncells = (long)m1.rlen * m1.clen;
+		BinaryAccessType atype = getBinaryAccessType(m1, m2);
+		if( atype == BinaryAccessType.MATRIX_COL_VECTOR
+			|| atype == BinaryAccessType.MATRIX_ROW_VECTOR ) //DENSE all
+			return !m1.sparse && !m2.sparse && !ret.sparse && ncells >= PAR_NUMCELL_THRESHOLD;
+		else if( atype != BinaryAccessType.MATRIX_MATRIX )
+			return false;
+		else if( !m1.sparse && !m2.sparse && !ret.sparse ) //DENSE all
+			return ncells >= PAR_NUMCELL_THRESHOLD;
+		else if( safe && isSparseDenseDense(m1, m2, ret, op) ) //SPARSE-DENSE
+			return ncells >= PAR_NUMCELL_THRESHOLD;
+		else if( safe && m1.sparse && m2.sparse && ret.sparse ) //SPARSE all
+			return m1.nonZeros + m2.nonZeros >= PAR_NUMCELL_THRESHOLD;
+		return false;
+	}
+	
+	private static boolean satisfiesMultiThreadingConstraintsInPlace(MatrixBlock m1ret, MatrixBlock m2, BinaryOperator op) {
+		int k = op.getNumThreads();
+		boolean safe = op.sparseSafe || isSparseSafeDivide(op, m2);
+		return k > 1 && m1ret.rlen > k/2 && !m1ret.sparse
+			&& getBinaryAccessType(m1ret, m2) == BinaryAccessType.MATRIX_MATRIX
+			&& !m1ret.isEmptyBlock(false) && !m2.isEmptyBlock(false)
+			&& (!m2.sparse || (safe && (op.fn instanceof Plus || op.fn instanceof Minus)))
+			&& (long)m1ret.rlen * m1ret.clen >= PAR_NUMCELL_THRESHOLD;
+	}
+	
+	private static void parallelBinary(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
+		//preallocate output for row-partitioned updates (dense or MCSR)
+		ret.allocateBlock();
+		
+		try {
+			int k = op.getNumThreads();
+			ExecutorService pool = CommonThreadPool.get(k);
+			ArrayList<BincellTask> tasks = new ArrayList<>();
+			ArrayList<Integer> blklens = UtilFunctions.getBalancedBlockSizesDefault(m1.rlen, k, false);
+			for( int i=0, lb=0; i<blklens.size(); lb+=blklens.get(i), i++ )
+				tasks.add(new BincellTask(m1, m2, ret, op, lb, lb+blklens.get(i)));
+			//aggregate partial nnz of row partitions
+			long lnnz = 0;
+			for( Future<Long> task : pool.invokeAll(tasks) )
+				lnnz += task.get();
+			pool.shutdown();
+			ret.setNonZeros(lnnz);
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+	
+	private static void parallelBinaryInPlace(MatrixBlock m1ret, MatrixBlock m2, BinaryOperator op) {
+		try {
+			int k = op.getNumThreads();
+			ExecutorService pool = CommonThreadPool.get(k);
+			ArrayList<BincellInPlaceTask> tasks = new ArrayList<>();
+			ArrayList<Integer> blklens = UtilFunctions.getBalancedBlockSizesDefault(m1ret.rlen, k, false);
+			for( int i=0, lb=0; i<blklens.size(); lb+=blklens.get(i), i++ )
+				tasks.add(new BincellInPlaceTask(m1ret, m2, op, lb, lb+blklens.get(i)));
+			//aggregate partial nnz (or nnz deltas for sparse rhs) of row partitions
+			long lnnz = m2.sparse ? m1ret.getNonZeros() : 0;
+			for( Future<Long> task : pool.invokeAll(tasks) )
+				lnnz += task.get();
+			pool.shutdown();
+			m1ret.setNonZeros(lnnz);
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+	
+	private static long bincellOpRange(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru) {
+		//note: kernel selection consistent w/ satisfiesMultiThreadingConstraints
+		if( getBinaryAccessType(m1, m2) != BinaryAccessType.MATRIX_MATRIX )
+			return denseBinaryMV(m1, m2, ret, op, rl, ru);
+		else if( !m1.sparse && !m2.sparse )
+			return denseBinaryMM(m1, m2, ret, op, rl, ru);
+		else if( !ret.sparse )
+			return safeBinaryMMSparseDenseDense(m1, m2, ret, op, rl, ru);
+		else
+			return safeBinaryMMSparseSparse(m1, m2, ret, op, rl, ru);
+	}
+	
+	private static long bincellOpInPlaceRange(MatrixBlock m1ret, MatrixBlock m2, BinaryOperator op, int rl, int ru) {
+		//note: kernel selection consistent w/ satisfiesMultiThreadingConstraintsInPlace
+		return m2.sparse ?
+			safeBinaryInPlaceDenseSparseAdd(m1ret, m2, op, rl, ru) :
+			denseBinaryInPlace(m1ret, m2, op, rl, ru);
+	}
+	
 	//////////////////////////////////////////////////////
 	// private sparse-safe/sparse-unsafe implementations
 	///////////////////////////////////
@@ -240,10 +368,7 @@ public class LibMatrixBincell
 			else if(m1.sparse && m2.sparse) {
 				safeBinaryMMSparseSparse(m1, m2, ret, op);
 			}
-			else if( !ret.sparse && (m1.sparse || m2.sparse) &&
-				(op.fn instanceof Plus || op.fn instanceof Minus ||
-				op.fn instanceof PlusMultiply || op.fn instanceof MinusMultiply ||
-				(op.fn instanceof Multiply && !m2.sparse ))) {
+			else if( isSparseDenseDense(m1, m2, ret, op) ) {
 				safeBinaryMMSparseDenseDense(m1, m2, ret, op);
 			}
 			else if( !ret.sparse && !m1.sparse && !m2.sparse 
@@ -260,94 +385,91 @@ public class LibMatrixBincell
 	}
 
 	private static void safeBinaryMVDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
+		//early abort on skip and empy
+		if( op.fn instanceof Multiply && (m1.isEmptyBlock(false) || m2.isEmptyBlock(false) ) )
+			return; // skip entire empty block
+		
+		ret.allocateDenseBlock();
+		ret.nonZeros = denseBinaryMV(m1, m2, ret, op, 0, m1.rlen);
+	}
+	
+	private static long denseBinaryMV(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru) {
 		boolean isMultiply = (op.fn instanceof Multiply);
 		boolean skipEmpty = (isMultiply);
 		BinaryAccessType atype = getBinaryAccessType(m1, m2);
-		int rlen = m1.rlen;
 		int clen = m1.clen;
 		
-		//early abort on skip and empy
-		if( skipEmpty && (m1.isEmptyBlock(false) || m2.isEmptyBlock(false) ) )
-			return; // skip entire empty block
-		
-		ret.allocateDenseBlock();
 		DenseBlock da = m1.getDenseBlock();
 		DenseBlock dc = ret.getDenseBlock();
+		double[] b = m2.getDenseBlockValues(); // always single block
 		long nnz = 0;
 		
 		if( atype == BinaryAccessType.MATRIX_COL_VECTOR )
 		{
-			double[] b = m2.getDenseBlockValues(); // always single block
-			
-			for( int bi=0; bi<dc.numBlocks(); bi++ ) {
-				double[] a = da.valuesAt(bi);
-				double[] c = dc.valuesAt(bi);
-				int len = dc.blockSize(bi);
-				int off = bi * dc.blockSize();
-				for( int i=0, ix=0; i<len; i++, ix+=clen )
-				{
-					//replicate vector value
-					double v2 = (b==null) ? 0 : b[off+i];
-					if( skipEmpty && v2 == 0 ) //skip empty rows
-						continue;
-						
-					if( isMultiply && v2 == 1 ) { //ROW COPY
-						//a guaranteed to be non-null (see early abort)
-						System.arraycopy(a, ix, c, ix, clen);
-						nnz += m1.recomputeNonZeros(i, i, 0, clen-1);
-					}
-					else { //GENERAL CASE
-						if( a != null )
-							for( int j=0; j<clen; j++ ) {
-								c[ix+j] = op.fn.execute( a[ix+j], v2 );	
-								nnz += (c[ix+j] != 0) ? 1 : 0;
-							}
-						else {
-							double val = op.fn.execute( 0, v2 );
-							Arrays.fill(c, ix, ix+clen, val);
-							nnz += (val != 0) ? clen : 0;
-						}
+			for( int i=rl; i<ru; i++ )
+			{
+				//replicate vector value
+				double v2 = (b==null) ? 0 : b[i];
+				if( skipEmpty && v2 == 0 ) //skip empty rows
+					continue;
+				
+				double[] c = dc.values(i);
+				int cix = dc.pos(i);
+				if( isMultiply && v2 == 1 ) { //ROW COPY
+					//a guaranteed to be non-null (see early abort)
+					System.arraycopy(da.values(i), da.pos(i), c, cix, clen);
+					nnz += UtilFunctions.computeNnz(c, cix, clen);
+				}
+				else if( da != null ) { //GENERAL CASE
+					double[] a = da.values(i);
+					int aix = da.pos(i);
+					for( int j=0; j<clen; j++ ) {
+						c[cix+j] = op.fn.execute( a[aix+j], v2 );
+						nnz += (c[cix+j] != 0) ? 1 : 0;
 					}
 				}
+				else { //GENERAL CASE, left empty
+					double val = op.fn.execute( 0, v2 );
+					Arrays.fill(c, cix, cix+clen, val);
+					nnz += (val != 0) ? clen : 0;
+				}
 			}
 		}
 		else if( atype == BinaryAccessType.MATRIX_ROW_VECTOR )
 		{
-			double[] b = m2.getDenseBlockValues(); // always single block
-			
 			if( da==null && b==null ) { //both empty
 				double v = op.fn.execute( 0, 0 );
-				dc.set(v);
-				nnz += (v != 0) ? (long)rlen*clen : 0;
+				dc.set(rl, ru, 0, clen, v);
+				nnz += (v != 0) ? (long)(ru-rl)*clen : 0;
 			}
 			else if( da==null ) //left empty
 			{
 				//compute first row
-				double[] c = dc.valuesAt(0);
+				double[] c = dc.values(rl);
+				int cix = dc.pos(rl);
 				for( int j=0; j<clen; j++ ) {
-					c[j] = op.fn.execute( 0, b[j] );
-					nnz += (c[j] != 0) ? rlen : 0;
+					c[cix+j] = op.fn.execute( 0, b[j] );
+					nnz += (c[cix+j] != 0) ? (ru-rl) : 0;
 				}
 				//copy first to all other rows
-				for( int i=1; i<rlen; i++ )
-					dc.set(i, c);
+				for( int i=rl+1; i<ru; i++ )
+					System.arraycopy(c, cix, dc.values(i), dc.pos(i), clen);
 			}
 			else //default case (incl right empty) 
 			{
-				for( int bi=0; bi<dc.numBlocks(); bi++ ) {
-					double[] a = da.valuesAt(bi);
-					double[] c = dc.valuesAt(bi);
-					int len = dc.blockSize(bi);
-					for( int i=0, ix=0; i<len; i++, ix+=clen )
-						for( int j=0; j<clen; j++ ) {
-							c[ix+j] = op.fn.execute( a[ix+j], ((b!=null) ? b[j] : 0) );	
-							nnz += (c[ix+j] != 0) ? 1 : 0;
-						}
+				for( int i=rl; i<ru; i++ ) {
+					double[] a = da.values(i);
+					double[] c = dc.values(i);
+					int aix = da.pos(i), cix = dc.pos(i);
+					for( int j=0; j<clen; j++ ) {
+						c[cix+j] = op.fn.execute( a[aix+j], ((b!=null) ? b[j] : 0) );
+						nnz += (c[cix+j] != 0) ? 1 : 0;
+					}
 				}
 			}
 		}
 		
-		ret.nonZeros = nnz;
+		return nnz;
 	}
 
 	private static void safeBinaryMVSparse(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
@@ -611,25 +733,11 @@ public class LibMatrixBincell
 			SparseBlock lsblock = m1.sparseBlock;
 			SparseBlock rsblock = m2.sparseBlock;
 			
-			if( ret.sparse && lsblock.isAligned(rsblock) )
+			if( ret.sparse )
 			{
-				SparseBlock c = ret.sparseBlock;
-				for(int r=0; r<rlen; r++) 
-					if( !lsblock.isEmpty(r) ) {
-						int alen = lsblock.size(r);
-						int apos = lsblock.pos(r);
-						int[] aix = lsblock.indexes(r);
-						double[] avals = lsblock.values(r);
-						double[] bvals = rsblock.values(r);
-						c.allocate(r, alen);
-						for( int j=apos; j<apos+alen; j++ ) {
-							double tmp = op.fn.execute(avals[j], bvals[j]);
-							c.append(r, aix[j], tmp);
-						}
-						ret.nonZeros += c.size(r);
-					}
+				ret.nonZeros = safeBinaryMMSparseSparse(m1, m2, ret, op, 0, rlen);
 			}
-			else //general case
+			else //general case (dense output)
 			{
 				for(int r=0; r<rlen; r++) {
 					if( !lsblock.isEmpty(r) && !rsblock.isEmpty(r) ) {
@@ -670,108 +778,154 @@ public class LibMatrixBincell
 		}
 	}
 	
+	private static long safeBinaryMMSparseSparse(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru) {
+		//note: both sparse blocks existing and sparse output allocated
+		boolean skipEmpty = (op.fn instanceof Multiply);
+		SparseBlock a = m1.sparseBlock;
+		SparseBlock b = m2.sparseBlock;
+		SparseBlock c = ret.sparseBlock;
+		
+		for( int r=rl; r<ru; r++ ) {
+			boolean emptyA = a.isEmpty(r);
+			boolean emptyB = b.isEmpty(r);
+			if( (emptyA && emptyB) || (skipEmpty && (emptyA || emptyB)) )
+				continue; // do nothing if both not existing
+			
+			if( !emptyA && !emptyB && a.isAligned(r, b) ) { //ALIGNED rows
+				int alen = a.size(r);
+				int apos = a.pos(r);
+				int[] aix = a.indexes(r);
+				double[] avals = a.values(r);
+				double[] bvals = b.values(r);
+				c.allocate(r, alen);
+				for( int j=apos; j<apos+alen; j++ )
+					c.append(r, aix[j], op.fn.execute(avals[j], bvals[j]));
+			}
+			else if( !emptyA && !emptyB ) { //GENERAL case
+				mergeForSparseBinary(op, a, b, r, c, ret.clen);
+			}
+			else if( !emptyB ) { //right only
+				int blen = b.size(r);
+				int bpos = b.pos(r);
+				int[] bix = b.indexes(r);
+				double[] bvals = b.values(r);
+				c.allocate(r, blen);
+				for( int j=bpos; j<bpos+blen; j++ )
+					c.append(r, bix[j], op.fn.execute(0, bvals[j]));
+			}
+			else { //left only
+				int alen = a.size(r);
+				int apos = a.pos(r);
+				int[] aix = a.indexes(r);
+				double[] avals = a.values(r);
+				c.allocate(r, alen);
+				for( int j=apos; j<apos+alen; j++ )
+					c.append(r, aix[j], op.fn.execute(avals[j], 0));
+			}
+		}
+		
+		return c.size(rl, ru);
+	}
+	
 	private static void safeBinaryMMSparseDenseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
-		//specific case in order to prevent binary search on sparse inputs (see quickget and quickset)
 		ret.allocateDenseBlock();
+		ret.setNonZeros(safeBinaryMMSparseDenseDense(m1, m2, ret, op, 0, m1.rlen));
+	}
+	
+	private static long safeBinaryMMSparseDenseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru) {
+		//specific case in order to prevent binary search on sparse inputs (see quickget and quickset)
 		final int n = ret.clen;
 		DenseBlock dc = ret.getDenseBlock();
+		SparseBlock a = m1.sparse ? m1.sparseBlock : null;
+		SparseBlock b = m2.sparse ? m2.sparseBlock : null;
+		DenseBlock da = (!m1.sparse && !m1.isEmptyBlock(false)) ? m1.getDenseBlock() : null;
+		DenseBlock db = (!m2.sparse && !m2.isEmptyBlock(false)) ? m2.getDenseBlock() : null;
+		boolean zeroRight = (!m2.sparse && db == null && op.fn instanceof Multiply);
 		
-		//1) process left input: assignment
-		
-		if( m1.sparse && m1.sparseBlock != null ) //SPARSE left
-		{
-			SparseBlock a = m1.sparseBlock;
-			for( int bi=0; bi<dc.numBlocks(); bi++ ) {
-				double[] c = dc.valuesAt(bi);
-				int blen = dc.blockSize(bi);
-				int off = bi * dc.blockSize();
-				for( int i=0, ix=0; i<blen; i++, ix+=n ) {
-					int ai = off + i;
-					if( a.isEmpty(ai) ) continue;
-					int apos = a.pos(ai);
-					int alen = a.size(ai);
-					int[] aix = a.indexes(ai);
-					double[] avals = a.values(ai);
+		long lnnz = 0;
+		for( int i=rl; i<ru; i++ ) {
+			double[] c = dc.values(i);
+			int cix = dc.pos(i);
+			
+			//1) process left input: assignment
+			if( a != null ) { //SPARSE left
+				if( !a.isEmpty(i) ) {
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
 					for(int k = apos; k < apos+alen; k++) 
-						c[ix+aix[k]] = avals[k];
+						c[cix+aix[k]] = avals[k];
 				}
 			}
-		}
-		else if( !m1.sparse ) //DENSE left
-		{
-			if( !m1.isEmptyBlock(false) ) 
-				dc.set(m1.getDenseBlock());
-			else
-				dc.set(0);
-		}
-		
-		//2) process right input: op.fn (+,-,*), * only if dense
-		long lnnz = 0;
-		if( m2.sparse && m2.sparseBlock!=null ) //SPARSE right
-		{
-			SparseBlock a = m2.sparseBlock;
-			for( int bi=0; bi<dc.numBlocks(); bi++ ) {
-				double[] c = dc.valuesAt(bi);
-				int blen = dc.blockSize(bi);
-				int off = bi * dc.blockSize();
-				for( int i=0, ix=0; i<blen; i++, ix+=n ) {
-					int ai = off + i;
-					if( !a.isEmpty(ai) ) {
-						int apos = a.pos(ai);
-						int alen = a.size(ai);
-						int[] aix = a.indexes(ai);
-						double[] avals = a.values(ai);
-						for(int k = apos; k < apos+alen; k++) 
-							c[ix+aix[k]] = op.fn.execute(c[ix+aix[k]], avals[k]);
-					}
-					//exploit temporal locality of rows
-					lnnz += ret.recomputeNonZeros(ai, ai, 0, n-1);
-				}
+			else if( !m1.sparse ) { //DENSE left
+				if( da != null )
+					System.arraycopy(da.values(i), da.pos(i), c, cix, n);
+				else
+					Arrays.fill(c, cix, cix+n, 0);
 			}
-		}
-		else if( !m2.sparse ) //DENSE right
-		{
-			if( !m2.isEmptyBlock(false) ) {
-				for( int bi=0; bi<dc.numBlocks(); bi++ ) {
-					double[] a = m2.getDenseBlock().valuesAt(bi);
-					double[] c = dc.valuesAt(bi);
-					int len = dc.size(bi);
-					for( int i=0; i<len; i++ ) {
-						c[i] = op.fn.execute(c[i], a[i]);
-						lnnz += (c[i]!=0) ? 1 : 0;
-					}
+			
+			//2) process right input: op.fn (+,-,*), * only if dense
+			if( b != null ) { //SPARSE right
+				if( !b.isEmpty(i) ) {
+					int bpos = b.pos(i);
+					int blen = b.size(i);
+					int[] bix = b.indexes(i);
+					double[] bvals = b.values(i);
+					for(int k = bpos; k < bpos+blen; k++) 
+						c[cix+bix[k]] = op.fn.execute(c[cix+bix[k]], bvals[k]);
 				}
 			}
-			else if(op.fn instanceof Multiply)
-				ret.denseBlock.set(0);
-			else
-				lnnz = m1.nonZeros;
+			else if( db != null ) { //DENSE right
+				double[] bvals = db.values(i);
+				int bix = db.pos(i);
+				for( int j=0; j<n; j++ )
+					c[cix+j] = op.fn.execute(c[cix+j], bvals[bix+j]);
+			}
+			else if( zeroRight )
+				Arrays.fill(c, cix, cix+n, 0);
+			
+			//3) maintain nnz, exploiting temporal locality of rows
+			lnnz += UtilFunctions.computeNnz(c, cix, n);
 		}
 		
-		//3) recompute nnz
-		ret.setNonZeros(lnnz);
+		return lnnz;
 	}
 	
 	private static void safeBinaryMMDenseDenseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
 		ret.allocateDenseBlock();
+		ret.setNonZeros(denseBinaryMM(m1, m2, ret, op, 0, m1.rlen));
+	}
+	
+	private static long denseBinaryMM(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru) {
 		DenseBlock da = m1.getDenseBlock();
 		DenseBlock db = m2.getDenseBlock();
 		DenseBlock dc = ret.getDenseBlock();
 		ValueFunction fn = op.fn;
+		final int clen = m1.clen;
 		
 		//compute dense-dense binary, maintain nnz on-the-fly
 		long lnnz = 0;
-		for( int bi=0; bi<da.numBlocks(); bi++ ) {
-			double[] a = da.valuesAt(bi);
-			double[] b = db.valuesAt(bi);
-			double[] c = dc.valuesAt(bi);
-			int len = da.size(bi);
+		if( da.isContiguous(rl, ru-1) && db.isContiguous(rl, ru-1) && dc.isContiguous(rl, ru-1) ) {
+			double[] a = da.values(rl), b = db.values(rl), c = dc.values(rl);
+			int aix = da.pos(rl), bix = db.pos(rl), cix = dc.pos(rl);
+			int len = (ru-rl) * clen;
 			for( int i=0; i<len; i++ ) {
-				c[i] = fn.execute(a[i], b[i]);
-				lnnz += (c[i]!=0)? 1 : 0;
+				c[cix+i] = fn.execute(a[aix+i], b[bix+i]);
+				lnnz += (c[cix+i]!=0)? 1 : 0;
 			}
 		}
-		ret.setNonZeros(lnnz);
+		else {
+			for( int i=rl; i<ru; i++ ) {
+				double[] a = da.values(i), b = db.values(i), c = dc.values(i);
+				int aix = da.pos(i), bix = db.pos(i), cix = dc.pos(i);
+				for( int j=0; j<clen; j++ ) {
+					c[cix+j] = fn.execute(a[aix+j], b[bix+j]);
+					lnnz += (c[cix+j]!=0)? 1 : 0;
+				}
+			}
+		}
+		return lnnz;
 	}
 	
 	private static void safeBinaryMMSparseDenseSkip(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
@@ -876,7 +1030,14 @@ public class LibMatrixBincell
 		int clen = m1.clen;
 		BinaryAccessType atype = getBinaryAccessType(m1, m2);
 		
-		if( atype == BinaryAccessType.MATRIX_COL_VECTOR ) //MATRIX - COL_VECTOR
+		if( (atype == BinaryAccessType.MATRIX_COL_VECTOR //DENSE MATRIX - VECTOR
+			|| atype == BinaryAccessType.MATRIX_ROW_VECTOR) 
+			&& !m1.sparse && !m2.sparse && !ret.sparse )
+		{
+			ret.allocateDenseBlock();
+			ret.nonZeros = denseBinaryMV(m1, m2, ret, op, 0, rlen);
+		}
+		else if( atype == BinaryAccessType.MATRIX_COL_VECTOR ) //MATRIX - COL_VECTOR
 		{
 			for(int r=0; r<rlen; r++) {
 				double v2 = m2.quickGetValue(r, 0);
@@ -918,20 +1079,12 @@ public class LibMatrixBincell
 		}
 		else // MATRIX - MATRIX
 		{
-			//dense non-empty vectors (always single block)
-			if( m1.clen==1 && !m1.sparse && !m1.isEmptyBlock(false)
+			//dense non-empty inputs (incl vectors)
+			if( !m1.sparse && !m1.isEmptyBlock(false)
 				&& !m2.sparse && !m2.isEmptyBlock(false)  )
 			{
 				ret.allocateDenseBlock();
-				double[] a = m1.getDenseBlockValues();
-				double[] b = m2.getDenseBlockValues();
-				double[] c = ret.getDenseBlockValues();
-				int lnnz = 0;
-				for( int i=0; i<rlen; i++ ) {
-					c[i] = op.fn.execute( a[i], b[i] );
-					lnnz += (c[i] != 0) ? 1 : 0;
-				}
-				ret.nonZeros = lnnz;
+				ret.nonZeros = denseBinaryMM(m1, m2, ret, op, 0, rlen);
 			}
 			//general case
 			else 
@@ -1172,14 +1325,17 @@ public class LibMatrixBincell
 	private static void safeBinaryInPlaceDense(MatrixBlock m1ret, MatrixBlock m2, BinaryOperator op) {
 		//prepare outputs
 		m1ret.allocateDenseBlock();
+		m1ret.setNonZeros(denseBinaryInPlace(m1ret, m2, op, 0, m1ret.rlen));
+	}
+	
+	private static long denseBinaryInPlace(MatrixBlock m1ret, MatrixBlock m2, BinaryOperator op, int rl, int ru) {
 		DenseBlock a = m1ret.getDenseBlock();
 		DenseBlock b = m2.getDenseBlock();
-		final int rlen = m1ret.rlen;
 		final int clen = m1ret.clen;
 		
 		long lnnz = 0;
 		if( m2.isEmptyBlock(false) ) {
-			for(int r=0; r<rlen; r++) {
+			for(int r=rl; r<ru; r++) {
 				double[] avals = a.values(r);
 				for(int c=0, ix=a.pos(r); c<clen; c++, ix++) {
 					double tmp = op.fn.execute(avals[ix], 0);
@@ -1188,7 +1344,7 @@ public class LibMatrixBincell
 			}
 		}
 		else if( op.fn instanceof Plus ) {
-			for(int r=0; r<rlen; r++) {
+			for(int r=rl; r<ru; r++) {
 				int aix = a.pos(r), bix = b.pos(r);
 				double[] avals = a.values(r), bvals = b.values(r);
 				LibMatrixMult.vectAdd(bvals, avals, bix, aix, clen);
@@ -1196,7 +1352,7 @@ public class LibMatrixBincell
 			}
 		}
 		else {
-			for(int r=0; r<rlen; r++) {
+			for(int r=rl; r<ru; r++) {
 				double[] avals = a.values(r), bvals = b.values(r);
 				for(int c=0, ix=a.pos(r); c<clen; c++, ix++) {
 					double tmp = op.fn.execute(avals[ix], bvals[ix]);
@@ -1205,15 +1361,19 @@ public class LibMatrixBincell
 			}
 		}
 		
-		m1ret.setNonZeros(lnnz);
+		return lnnz;
 	}
 	
 	private static void safeBinaryInPlaceDenseSparseAdd(MatrixBlock m1ret, MatrixBlock m2, BinaryOperator op) {
-		final int rlen = m1ret.rlen;
+		m1ret.setNonZeros(m1ret.getNonZeros()
+			+ safeBinaryInPlaceDenseSparseAdd(m1ret, m2, op, 0, m1ret.rlen));
+	}
+	
+	private static long safeBinaryInPlaceDenseSparseAdd(MatrixBlock m1ret, MatrixBlock m2, BinaryOperator op, int rl, int ru) {
 		DenseBlock a = m1ret.denseBlock;
 		SparseBlock b = m2.sparseBlock;
-		long nnz = m1ret.getNonZeros();
-		for(int r=0; r<rlen; r++) {
+		long dnnz = 0; //delta nnz
+		for(int r=rl; r<ru; r++) {
 			if( b.isEmpty(r) ) continue;
 			int apos = a.pos(r), bpos = b.pos(r);
 			int blen = b.size(r);
@@ -1222,12 +1382,12 @@ public class LibMatrixBincell
 			for(int k = bpos; k<bpos+blen; k++) {
 				double vold = avals[apos+bix[k]];
 				double vnew = op.fn.execute(vold, bvals[k]);
-				nnz += (vold == 0 && vnew != 0) ? 1 :
+				dnnz += (vold == 0 && vnew != 0) ? 1 :
 					(vold != 0 && vnew ==0) ? -1  : 0;
 				avals[apos+bix[k]] = vnew;
 			}
 		}
-		m1ret.setNonZeros(nnz);
+		return dnnz;
 	}
 	
 	private static void safeBinaryInPlaceGeneric(MatrixBlock m1ret, MatrixBlock m2, BinaryOperator op) {
@@ -1248,7 +1408,11 @@ public class LibMatrixBincell
 		int clen = m1ret.clen;
 		BinaryAccessType atype = getBinaryAccessType(m1ret, m2);
 		
-		if( atype == BinaryAccessType.MATRIX_COL_VECTOR ) //MATRIX - COL_VECTOR
+		if( atype == BinaryAccessType.MATRIX_MATRIX && !m1ret.sparse && !m2.sparse ) //DENSE MATRIX - MATRIX
+		{
+			safeBinaryInPlaceDense(m1ret, m2, op);
+		}
+		else if( atype == BinaryAccessType.MATRIX_COL_VECTOR ) //MATRIX - COL_VECTOR
 		{
 			for(int r=0; r<rlen; r++) {
 				//replicated value
@@ -1327,6 +1491,50 @@ public class LibMatrixBincell
 		}
 	}
 
+	private static void mergeForSparseBinary(BinaryOperator op, SparseBlock a, SparseBlock b, int r, SparseBlock c, int clen) {
+		int apos = a.pos(r), alen = a.size(r);
+		int bpos = b.pos(r), blen = b.size(r);
+		int[] aix = a.indexes(r), bix = b.indexes(r);
+		double[] avals = a.values(r), bvals = b.values(r);
+		int p1 = apos, p2 = bpos;
+		if( op.fn instanceof Multiply ) { //skip empty
+			//skip empty: merge-join (with inner join semantics)
+			c.allocate(r, Math.min(alen, blen), clen);
+			while( p1 < apos+alen && p2 < bpos+blen ) {
+				int colPos1 = aix[p1];
+				int colPos2 = bix[p2];
+				if( colPos1 == colPos2 )
+					c.append(r, colPos1, op.fn.execute(avals[p1], bvals[p2]));
+				p1 += (colPos1 <= colPos2) ? 1 : 0;
+				p2 += (colPos1 >= colPos2) ? 1 : 0;
+			}
+		}
+		else {
+			//general case: merge-join (with outer join semantics) 
+			c.allocate(r, Math.min(clen, alen+blen), clen);
+			while( p1 < apos+alen && p2 < bpos+blen ) {
+				if( aix[p1] < bix[p2] ) {
+					c.append(r, aix[p1], op.fn.execute(avals[p1], 0));
+					p1++;
+				}
+				else if( aix[p1] == bix[p2] ) {
+					c.append(r, aix[p1], op.fn.execute(avals[p1], bvals[p2]));
+					p1++;
+					p2++;
+				}
+				else {
+					c.append(r, bix[p2], op.fn.execute(0, bvals[p2]));
+					p2++;
+				}
+			}
+			//add left over
+			for( ; p1 < apos+alen; p1++ )
+				c.append(r, aix[p1], op.fn.execute(avals[p1], 0));
+			for( ; p2 < bpos+blen; p2++ )
+				c.append(r, bix[p2], op.fn.execute(0, bvals[p2]));
+		}
+	}
+
 	private static void appendLeftForSparseBinary(BinaryOperator op, double[] values1, int[] cols1, int pos1, int size1, 
 				int pos, int resultRow, MatrixBlock result) {
 		for(int j=pos1+pos; j<pos1+size1; j++) {
@@ -1360,4 +1568,56 @@ public class LibMatrixBincell
 		if( zero )
 			c.compact(r);
 	}
+	
+	/////////////////////////////////////////////////////////
+	// Task Implementations for Multi-Threaded Operations  //
+	/////////////////////////////////////////////////////////
+	
+	private static class BincellTask implements Callable<Long> 
+	{
+		private final MatrixBlock _m1;
+		private final MatrixBlock _m2;
+		private final MatrixBlock _ret;
+		private final BinaryOperator _op;
+		private final int _rl;
+		private final int _ru;
+
+		protected BincellTask( MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru ) {
+			_m1 = m1;
+			_m2 = m2;
+			_ret = ret;
+			_op = op;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public Long call() {
+			//execute binary operation on row partition, return partial nnz
+			return bincellOpRange(_m1, _m2, _ret, _op, _rl, _ru);
+		}
+	}
+	
+	private static class BincellInPlaceTask implements Callable<Long> 
+	{
+		private final MatrixBlock _m1ret;
+		private final MatrixBlock _m2;
+		private final BinaryOperator _op;
+		private final int _rl;
+		private final int _ru;
+
+		protected BincellInPlaceTask( MatrixBlock m1ret, MatrixBlock m2, BinaryOperator op, int rl, int ru ) {
+			_m1ret = m1ret;
+			_m2 = m2;
+			_op = op;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public Long call() {
+			//execute in-place binary operation on row partition, return partial nnz
+			return bincellOpInPlaceRange(_m1ret, _m2, _op, _rl, _ru);
+		}
+	}
 }
@@ -21,11 +21,16 @@ package org.tugraz.sysds.runtime.matrix.data;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.tugraz.sysds.api.DMLScript;
 import org.tugraz.sysds.hops.OptimizerUtils;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.data.SparseBlock;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixDNNConv2dDirect.DirectConv2d;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixDNNConv2dDirect.DirectConv2dBackwardData;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixDNNConv2dDirect.DirectConv2dBackwardFilter;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixDNNConv2dDirect.WinogradConv2d;
 import org.tugraz.sysds.runtime.matrix.data.LibMatrixDNNRotate180.Rotate180Worker;
 import org.tugraz.sysds.utils.NativeHelper;
 import org.tugraz.sysds.utils.Statistics;
@@ -35,6 +40,18 @@ import org.tugraz.sysds.utils.Statistics;
  */
 public class LibMatrixDNNConv2d 
 {
+	public enum ConvAlgorithm {
+		IM2COL,   //im2col and matrix multiplication per image
+		DIRECT,   //direct convolution w/o im2col (stride 1)
+		WINOGRAD, //Winograd F(2x2,3x3) convolution (3x3, stride 1)
+	}
+	
+	//number of timed runs per candidate algorithm during auto-tuning
+	private static final int TUNE_REPETITIONS = 2;
+	
+	//auto-tuned algorithms per operation and convolution shape
+	private static final ConcurrentHashMap<String, ConvAlgorithm> _algorithms = new ConcurrentHashMap<>();
+	
 	/**
 	 * Factory method that returns list of callable tasks for performing conv2d
 	 * 
@@ -65,11 +82,21 @@ public class LibMatrixDNNConv2d
 				new MatrixBlock(params.input2.clen, params.input2.rlen, false), k);
 		}
 		
+		//select im2col-based or im2col-free algorithm for dense inputs
+		ConvAlgorithm algo = (!applyNative && !isEmptyDenseInput && !isTransPref && isDenseConv(params)) ?
+			selectAlgorithm("conv2d", params, LibMatrixDNNConv2d::createConv2dWorker,
+				1, params.K*params.P*params.Q, ConvAlgorithm.IM2COL,
+				LibMatrixDNNConv2dDirect.isEligibleDirect(params) ? ConvAlgorithm.DIRECT : null,
+				LibMatrixDNNConv2dDirect.isEligibleWinograd(params) ? ConvAlgorithm.WINOGRAD : null) :
+			ConvAlgorithm.IM2COL;
+		
 		for(int i = 0; i*taskSize < params.N; i++) {
 			//note: we prefer the java backend for sparse inputs because the native 
 			//implementation simply converts the sparse input into dense rows
 			if( applyNative ) 
 				ret.add(new SparseNativeConv2d(i*taskSize, Math.min((i+1)*taskSize, params.N), params));
+			else if( algo != ConvAlgorithm.IM2COL )
+				ret.add(createConv2dWorker(algo, i*taskSize, Math.min((i+1)*taskSize, params.N), params));
 			else if(!isEmptyDenseInput && isTransPref)
 				ret.add(new LoopedIm2ColConv2dTransAllChan(i*taskSize, Math.min((i+1)*taskSize, params.N), params));
 			else if(!isEmptyDenseInput)
@@ -101,11 +128,20 @@ public class LibMatrixDNNConv2d
 		if( applyNative )
 			Statistics.numNativeSparseConv2dBwdFilterCalls.increment();
 		
+		//select im2col-based or im2col-free algorithm for dense inputs
+		ConvAlgorithm algo = (!applyNative && !isEmptyDenseInput && isDenseConv(params)) ?
+			selectAlgorithm("conv2d_backward_filter", params, LibMatrixDNNConv2d::createConv2dBackwardFilterWorker,
+				params.K, params.C*params.R*params.S, ConvAlgorithm.IM2COL,
+				LibMatrixDNNConv2dDirect.isEligibleDirect(params) ? ConvAlgorithm.DIRECT : null) :
+			ConvAlgorithm.IM2COL;
+		
 		for(int i = 0; i*taskSize < params.N; i++) {
 			//note: we prefer the java backend for sparse filters because the native 
 			//implementation simply rotates the sparse filters into dense rows
 			if( applyNative ) 
 				ret.add(new SparseNativeConv2dBackwardFilterDense(i*taskSize, Math.min((i+1)*taskSize, params.N), params));
+			else if( algo != ConvAlgorithm.IM2COL )
+				ret.add(createConv2dBackwardFilterWorker(algo, i*taskSize, Math.min((i+1)*taskSize, params.N), params));
 			else if( params.input2.sparse && params.input1.getSparsity() > params.input2.getSparsity() )
 				ret.add(new Conv2dBackwardFilterTrans(i*taskSize, Math.min((i+1)*taskSize, params.N), params));
 			else if(!isEmptyDenseInput)
@@ -138,11 +174,20 @@ public class LibMatrixDNNConv2d
 		if( applyNative )
 			Statistics.numNativeSparseConv2dBwdDataCalls.increment();
 		
+		//select im2col-based or im2col-free algorithm for dense inputs
+		ConvAlgorithm algo = (!applyNative && !isEmptyDenseInput && isDenseConv(params)) ?
+			selectAlgorithm("conv2d_backward_data", params, LibMatrixDNNConv2d::createConv2dBackwardDataWorker,
+				1, params.C*params.H*params.W, ConvAlgorithm.IM2COL,
+				LibMatrixDNNConv2dDirect.isEligibleDirect(params) ? ConvAlgorithm.DIRECT : null) :
+			ConvAlgorithm.IM2COL;
+		
 		for(int i = 0; i*taskSize < params.N; i++) {
 			//note: we prefer the java backend for sparse filters because the native 
 			//implementation simply converts the sparse filters into dense rows
 			if( applyNative ) 
 				ret.add(new SparseNativeConv2dBackwardDataDense(i*taskSize, Math.min((i+1)*taskSize, params.N), params));
+			else if( algo != ConvAlgorithm.IM2COL )
+				ret.add(createConv2dBackwardDataWorker(algo, i*taskSize, Math.min((i+1)*taskSize, params.N), params));
 			else if(!isEmptyDenseInput)
 				ret.add(new Conv2dBackwardData(i*taskSize, Math.min((i+1)*taskSize, params.N), params));
 			else
@@ -152,6 +197,100 @@ public class LibMatrixDNNConv2d
 		return ret;
 	}
 	
+	private static Callable<Long> createConv2dWorker(ConvAlgorithm algo, int rl, int ru, DnnParameters params) {
+		switch( algo ) {
+			case DIRECT: return new DirectConv2d(rl, ru, params);
+			case WINOGRAD: return new WinogradConv2d(rl, ru, params);
+			default: return new LoopedIm2ColConv2dAllChan(rl, ru, params);
+		}
+	}
+	
+	private static Callable<Long> createConv2dBackwardFilterWorker(ConvAlgorithm algo, int rl, int ru, DnnParameters params) {
+		return (algo == ConvAlgorithm.DIRECT) ?
+			new DirectConv2dBackwardFilter(rl, ru, params) :
+			new Conv2dBackwardFilter(rl, ru, params);
+	}
+	
+	private static Callable<Long> createConv2dBackwardDataWorker(ConvAlgorithm algo, int rl, int ru, DnnParameters params) {
+		return (algo == ConvAlgorithm.DIRECT) ?
+			new DirectConv2dBackwardData(rl, ru, params) :
+			new Conv2dBackwardData(rl, ru, params);
+	}
+	
+	private interface WorkerFactory {
+		Callable<Long> create(ConvAlgorithm algo, int rl, int ru, DnnParameters params);
+	}
+	
+	/**
+	 * Selects the convolution algorithm out of the given candidates (null if not
+	 * applicable), either as explicitly requested or auto-tuned per operation and
+	 * convolution shape. On the first occurrence of a shape, all candidates are
+	 * timed on the first image with a scratch output, and the fastest algorithm
+	 * is cached for all subsequent calls.
+	 * 
+	 * @param opcode operation name
+	 * @param params convolution parameters
+	 * @param factory factory of workers per algorithm
+	 * @param trialRows number of rows of the scratch output for the trial runs
+	 * @param trialCols number of columns of the scratch output for the trial runs
+	 * @param candidates candidate algorithms, null entries are ignored
+	 * @return selected convolution algorithm
+	 */
+	private static ConvAlgorithm selectAlgorithm(String opcode, DnnParameters params,
+		WorkerFactory factory, int trialRows, int trialCols, ConvAlgorithm... candidates)
+	{
+		ConvAlgorithm[] algos = Arrays.stream(candidates)
+			.filter(a -> a != null).toArray(ConvAlgorithm[]::new);
+		if( params.convAlgorithm != null ) //explicitly requested, if applicable
+			return Arrays.asList(algos).contains(params.convAlgorithm) ?
+				params.convAlgorithm : ConvAlgorithm.IM2COL;
+		if( algos.length == 1 )
+			return algos[0];
+		
+		String key = opcode + "_" + params.C + "_" + params.H + "_" + params.W 
+			+ "_" + params.K + "_" + params.R + "_" + params.S + "_" + params.stride_h
+			+ "_" + params.stride_w + "_" + params.pad_h + "_" + params.pad_w;
+		return _algorithms.computeIfAbsent(key, k -> tuneAlgorithm(params, factory, trialRows, trialCols, algos));
+	}
+	
+	private static ConvAlgorithm tuneAlgorithm(DnnParameters params, WorkerFactory factory, int trialRows, int trialCols, ConvAlgorithm[] algos) {
+		DnnParameters tparams = new DnnParameters(params.N, params.C, params.H, params.W, params.K,
+			params.R, params.S, params.stride_h, params.stride_w, params.pad_h, params.pad_w, 1);
+		tparams.input1 = params.input1;
+		tparams.input2 = params.input2;
+		tparams.bias = params.bias;
+		tparams.output = new MatrixBlock(trialRows, trialCols, false).allocateBlock();
+		
+		ConvAlgorithm ret = algos[0];
+		long best = Long.MAX_VALUE;
+		try {
+			for( ConvAlgorithm algo : algos )
+				for( int i = 0; i < TUNE_REPETITIONS; i++ ) {
+					long t0 = System.nanoTime();
+					factory.create(algo, 0, 1, tparams).call();
+					long time = System.nanoTime() - t0;
+					if( time < best ) {
+						best = time;
+						ret = algo;
+					}
+				}
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException("Failed to auto-tune convolution algorithm.", ex);
+		}
+		return ret;
+	}
+	
+	public static void resetTunedAlgorithms() {
+		_algorithms.clear();
+	}
+	
+	private static boolean isDenseConv(DnnParameters params) {
+		return !params.input1.sparse && params.input1.denseBlock != null
+			&& !params.input2.sparse && params.input2.denseBlock != null
+			&& !params.output.sparse && params.output.denseBlock != null;
+	}
+	
 	/**
 	 * Performs convolution via: partialCopy1(filter %*% im2col(input)) = output
 	 */
@@ -190,10 +329,9 @@ public class LibMatrixDNNConv2d
 				// Copy the outMM of shape [K x PQ] to a row in params.output 
 				partialCopy1(outMM, _params.output, n, K, PQ);
 				
-				// Add bias to current row if necessary, always dense
-				if(_params.bias != null)
-					addBias(n, _params.output.getDenseBlockValues(),
-						_params.bias.getDenseBlockValues(), K, PQ);
+				// Add bias and relu to current row if necessary, always dense
+				if(_params.bias != null || _params.applyRelu)
+					addBiasRelu(n, _params);
 			}
 			
 			if(DMLScript.FINEGRAINED_STATISTICS) {
@@ -276,10 +414,9 @@ public class LibMatrixDNNConv2d
 				// Copy the matrix matMultOutBlock of shape [K X PQ] to params.output.denseBlock + destPos
 				partialCopyTrans(outMM, _params.output, n*K*PQ, K, PQ);
 				
-				// Add bias to current row if necessary, always dense
-				if(_params.bias != null)
-					addBias(n, _params.output.getDenseBlockValues(),
-						_params.bias.getDenseBlockValues(), K, PQ);
+				// Add bias and relu to current row if necessary, always dense
+				if(_params.bias != null || _params.applyRelu)
+					addBiasRelu(n, _params);
 			}
 			
 			//multi-threaded nnz maintenance of current working set
@@ -349,6 +486,8 @@ public class LibMatrixDNNConv2d
 							_params.stride_h, _params.stride_w, _params.pad_h, _params.pad_w, _params.P, _params.Q, 1);
 					System.arraycopy(temp, 0, _params.output.getDenseBlockValues(), n*KPQ, KPQ);
 				}
+				if(_params.bias != null || _params.applyRelu)
+					addBiasRelu(n, _params);
 			}
 			//multi-threaded nnz maintenance of current working set
 			return _params.output.recomputeNonZeros(_rl, _ru-1);
@@ -644,6 +783,16 @@ public class LibMatrixDNNConv2d
 			LibMatrixMult.vectAddInPlace(bias[k], out, cix, PQ);
 	}
 	
+	static void addBiasRelu(int r, DnnParameters params) {
+		// fused per-row post-processing while the row is still in cache
+		double[] out = params.output.getDenseBlockValues();
+		int K = params.K, PQ = params.P*params.Q;
+		if(params.bias != null)
+			addBias(r, out, params.bias.getDenseBlockValues(), K, PQ);
+		if(params.applyRelu)
+			LibMatrixDNNRelu.reluInPlace(out, r*K*PQ, K*PQ);
+	}
+	
 	// ----------------------------------------------------------------------------------------------
 	// TODO: Support sparse native convolution operations without dense intermediates + dense matmult
 	// Currently, it will fall back to more optimized sparse Java-based operators.
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.runtime.matrix.data;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * This class contains im2col-free convolution operators for dense inputs and
+ * filters with stride 1, which avoid the materialization and memory traffic
+ * of im2col intermediates per image. All operators are batched over a range
+ * of images and write to disjoint output rows (or thread-local partial
+ * results for the filter gradient).
+ * 
+ * The direct operators iterate over blocks of output channels such that the
+ * output tile stays in L2 cache while streaming the input channels. The
+ * Winograd operator computes F(2x2,3x3), i.e., 2x2 output tiles from 4x4
+ * input tiles, which reduces the number of multiplications from 36 to 16
+ * per tile and input/output channel pair.
+ */
+public class LibMatrixDNNConv2dDirect 
+{
+	//max number of doubles of output tile (256KB for L2)
+	private static final int TILE_SIZE = 32 * 1024;
+	//number of 2x2 output tiles per Winograd block
+	private static final int WINOGRAD_TILES = 64;
+	
+	public static boolean isEligibleDirect(DnnParameters params) {
+		return params.stride_h == 1 && params.stride_w == 1
+			&& params.P > 0 && params.Q > 0;
+	}
+	
+	public static boolean isEligibleWinograd(DnnParameters params) {
+		return isEligibleDirect(params) && params.R == 3 && params.S == 3;
+	}
+	
+	//FORWARD
+	
+	/**
+	 * Performs convolution via direct accumulation of shifted input rows.
+	 */
+	public static class DirectConv2d implements Callable<Long>
+	{
+		private final int _rl, _ru;
+		private final DnnParameters _params;
+		
+		public DirectConv2d(int rl, int ru, DnnParameters params) {
+			_rl = rl; _ru = ru;
+			_params = params;
+		}
+		
+		@Override
+		public Long call() throws Exception {
+			final int C = _params.C, H = _params.H, W = _params.W, K = _params.K;
+			final int R = _params.R, S = _params.S, P = _params.P, Q = _params.Q;
+			final int CHW = C*H*W, HW = H*W, PQ = P*Q, CRS = C*R*S, RS = R*S;
+			final int kblk = Math.max(TILE_SIZE / PQ, 1);
+			double[] in = _params.input1.getDenseBlockValues();
+			double[] filter = _params.input2.getDenseBlockValues();
+			double[] out = _params.output.getDenseBlockValues();
+			
+			for(int n = _rl; n < _ru; n++) {
+				int outPos = n*K*PQ;
+				Arrays.fill(out, outPos, outPos+K*PQ, 0);
+				//cache-conscious blocked execution over output channels
+				for( int bk = 0; bk < K; bk += kblk ) {
+					int bkmin = Math.min(bk+kblk, K);
+					for( int c = 0; c < C; c++ ) {
+						int inPos = n*CHW + c*HW;
+						for( int k = bk; k < bkmin; k++ )
+							for( int r = 0; r < R; r++ )
+								for( int s = 0; s < S; s++ ) {
+									double w = filter[k*CRS + c*RS + r*S + s];
+									if( w != 0 )
+										shiftedMultAdd(w, in, out, inPos, outPos+k*PQ,
+											r - _params.pad_h, s - _params.pad_w, H, W, P, Q);
+								}
+					}
+				}
+				if( _params.bias != null || _params.applyRelu )
+					LibMatrixDNNConv2d.addBiasRelu(n, _params);
+			}
+			
+			//multi-threaded nnz maintenance of current working set
+			return _params.output.recomputeNonZeros(_rl, _ru-1);
+		}
+	}
+	
+	/**
+	 * Performs 3x3 convolution via Winograd's minimal filtering F(2x2,3x3),
+	 * with the element-wise products over input channels computed as 16
+	 * matrix multiplications per block of tiles.
+	 */
+	public static class WinogradConv2d implements Callable<Long>
+	{
+		private final int _rl, _ru;
+		private final DnnParameters _params;
+		
+		public WinogradConv2d(int rl, int ru, DnnParameters params) {
+			_rl = rl; _ru = ru;
+			_params = params;
+		}
+		
+		@Override
+		public Long call() throws Exception {
+			final int C = _params.C, H = _params.H, W = _params.W, K = _params.K;
+			final int P = _params.P, Q = _params.Q, CHW = C*H*W, PQ = P*Q;
+			final int TP = (P+1)/2, TQ = (Q+1)/2, T = TP*TQ;
+			double[] in = _params.input1.getDenseBlockValues();
+			double[] out = _params.output.getDenseBlockValues();
+			
+			//transformed filter [16 x K x C], shared by all images of this task
+			double[] U = transformFilter(_params.input2.getDenseBlockValues(), K, C);
+			double[] V = new double[16*C*WINOGRAD_TILES];
+			double[] M = new double[16*K*WINOGRAD_TILES];
+			double[] d = new double[16];
+			double[] tmp = new double[16];
+			
+			for(int n = _rl; n < _ru; n++) {
+				int outPos = n*K*PQ;
+				for( int bt = 0; bt < T; bt += WINOGRAD_TILES ) {
+					int tlen = Math.min(WINOGRAD_TILES, T-bt);
+					//input transform V = B^T d B per channel and tile
+					for( int c = 0; c < C; c++ )
+						for( int t = 0; t < tlen; t++ ) {
+							int tp = (bt+t) / TQ, tq = (bt+t) % TQ;
+							loadInputTile(in, n*CHW + c*H*W, 2*tp - _params.pad_h, 2*tq - _params.pad_w, H, W, d);
+							transformInputTile(d, tmp, V, c*tlen + t, C*tlen);
+						}
+					//batched element-wise products M = U V (16 matrix mults)
+					Arrays.fill(M, 0, 16*K*tlen, 0);
+					for( int xi = 0; xi < 16; xi++ )
+						for( int k = 0; k < K; k++ ) {
+							int uix = (xi*K + k)*C, mix = (xi*K + k)*tlen;
+							for( int c = 0; c < C; c++ )
+								if( U[uix+c] != 0 )
+									LibMatrixMult.vectMultiplyAdd(U[uix+c], V, M, (xi*C + c)*tlen, mix, tlen);
+						}
+					//output transform Y = A^T M A per channel and tile
+					for( int k = 0; k < K; k++ )
+						for( int t = 0; t < tlen; t++ ) {
+							int tp = (bt+t) / TQ, tq = (bt+t) % TQ;
+							storeOutputTile(M, k*tlen + t, K*tlen, out, outPos + k*PQ, 2*tp, 2*tq, P, Q);
+						}
+				}
+				if( _params.bias != null || _params.applyRelu )
+					LibMatrixDNNConv2d.addBiasRelu(n, _params);
+			}
+			
+			//multi-threaded nnz maintenance of current working set
+			return _params.output.recomputeNonZeros(_rl, _ru-1);
+		}
+	}
+	
+	//BACKWARD DATA
+	
+	/**
+	 * Computes the gradient w.r.t. the input by scattering the output
+	 * gradient via shifted rows (i.e., the transposed direct convolution).
+	 */
+	public static class DirectConv2dBackwardData implements Callable<Long>
+	{
+		private final int _rl, _ru;
+		private final DnnParameters _params;
+		
+		public DirectConv2dBackwardData(int rl, int ru, DnnParameters params) {
+			_rl = rl; _ru = ru;
+			_params = params;
+		}
+		
+		@Override
+		public Long call() throws Exception {
+			final int C = _params.C, H = _params.H, W = _params.W, K = _params.K;
+			final int R = _params.R, S = _params.S, P = _params.P, Q = _params.Q;
+			final int CHW = C*H*W, HW = H*W, PQ = P*Q, CRS = C*R*S, RS = R*S;
+			final int cblk = Math.max(TILE_SIZE / HW, 1);
+			double[] filter = _params.input1.getDenseBlockValues();
+			double[] dout = _params.input2.getDenseBlockValues();
+			double[] out = _params.output.getDenseBlockValues();
+			
+			for(int n = _rl; n < _ru; n++) {
+				int outPos = n*CHW;
+				Arrays.fill(out, outPos, outPos+CHW, 0);
+				//cache-conscious blocked execution over input channels
+				for( int bc = 0; bc < C; bc += cblk ) {
+					int bcmin = Math.min(bc+cblk, C);
+					for( int k = 0; k < K; k++ ) {
+						int doutPos = n*K*PQ + k*PQ;
+						for( int c = bc; c < bcmin; c++ )
+							for( int r = 0; r < R; r++ )
+								for( int s = 0; s < S; s++ ) {
+									double w = filter[k*CRS + c*RS + r*S + s];
+									if( w != 0 )
+										shiftedMultAddTrans(w, dout, out, doutPos, outPos+c*HW,
+											r - _params.pad_h, s - _params.pad_w, H, W, P, Q);
+								}
+					}
+				}
+			}
+			
+			//multi-threaded nnz maintenance of current working set
+			return _params.output.recomputeNonZeros(_rl, _ru-1);
+		}
+	}
+	
+	//BACKWARD FILTER
+	
+	/**
+	 * Computes the gradient w.r.t. the filter via dot products of shifted
+	 * input rows and output gradient rows, accumulated in a thread-local
+	 * partial result and finally added to the shared output.
+	 */
+	public static class DirectConv2dBackwardFilter implements Callable<Long>
+	{
+		private final int _rl, _ru;
+		private final DnnParameters _params;
+		
+		public DirectConv2dBackwardFilter(int rl, int ru, DnnParameters params) {
+			_rl = rl; _ru = ru;
+			_params = params;
+		}
+		
+		@Override
+		public Long call() throws Exception {
+			final int C = _params.C, H = _params.H, W = _params.W, K = _params.K;
+			final int R = _params.R, S = _params.S, P = _params.P, Q = _params.Q;
+			final int CHW = C*H*W, HW = H*W, PQ = P*Q, CRS = C*R*S, RS = R*S;
+			double[] in = _params.input1.getDenseBlockValues();
+			double[] dout = _params.input2.getDenseBlockValues();
+			double[] partRet = new double[K*CRS];
+			
+			for(int n = _rl; n < _ru; n++)
+				for( int c = 0; c < C; c++ ) {
+					int inPos = n*CHW + c*HW;
+					for( int k = 0; k < K; k++ ) {
+						int doutPos = n*K*PQ + k*PQ;
+						for( int r = 0; r < R; r++ )
+							for( int s = 0; s < S; s++ )
+								partRet[k*CRS + c*RS + r*S + s] += shiftedDotProduct(in, dout,
+									inPos, doutPos, r - _params.pad_h, s - _params.pad_w, H, W, P, Q);
+					}
+				}
+			
+			synchronized( _params.output.denseBlock ) {
+				LibMatrixMult.vectAdd(partRet, _params.output.getDenseBlockValues(), 0, 0, K*CRS);
+			}
+			return 0L;
+		}
+	}
+	
+	// ----------------------------------------------------------------------------------------------
+	// helper functions for stride 1, where output (p,q) maps to input (p+dh,q+dw)
+	
+	private static void shiftedMultAdd(double w, double[] in, double[] out, int inPos, int outPos, int dh, int dw, int H, int W, int P, int Q) {
+		int plb = Math.max(-dh, 0), pub = Math.min(P, H-dh);
+		int qlb = Math.max(-dw, 0), qub = Math.min(Q, W-dw);
+		if( qlb >= qub ) return;
+		for( int p = plb; p < pub; p++ )
+			LibMatrixMult.vectMultiplyAdd(w, in, out,
+				inPos+(p+dh)*W+qlb+dw, outPos+p*Q+qlb, qub-qlb);
+	}
+	
+	private static void shiftedMultAddTrans(double w, double[] dout, double[] out, int doutPos, int outPos, int dh, int dw, int H, int W, int P, int Q) {
+		int plb = Math.max(-dh, 0), pub = Math.min(P, H-dh);
+		int qlb = Math.max(-dw, 0), qub = Math.min(Q, W-dw);
+		if( qlb >= qub ) return;
+		for( int p = plb; p < pub; p++ )
+			LibMatrixMult.vectMultiplyAdd(w, dout, out,
+				doutPos+p*Q+qlb, outPos+(p+dh)*W+qlb+dw, qub-qlb);
+	}
+	
+	private static double shiftedDotProduct(double[] in, double[] dout, int inPos, int doutPos, int dh, int dw, int H, int W, int P, int Q) {
+		int plb = Math.max(-dh, 0), pub = Math.min(P, H-dh);
+		int qlb = Math.max(-dw, 0), qub = Math.min(Q, W-dw);
+		double val = 0;
+		if( qlb >= qub ) return val;
+		for( int p = plb; p < pub; p++ )
+			val += LibMatrixMult.dotProduct(in, dout,
+				inPos+(p+dh)*W+qlb+dw, doutPos+p*Q+qlb, qub-qlb);
+		return val;
+	}
+	
+	// ----------------------------------------------------------------------------------------------
+	// helper functions for Winograd F(2x2,3x3)
+	
+	private static double[] transformFilter(double[] filter, int K, int C) {
+		//U = G g G^T, stored as [16 x K x C]
+		double[] U = new double[16*K*C];
+		double[] tmp = new double[12];
+		for( int k = 0; k < K; k++ )
+			for( int c = 0; c < C; c++ ) {
+				int fix = (k*C + c)*9;
+				//tmp = G g (4x3)
+				for( int j = 0; j < 3; j++ ) {
+					double g0 = filter[fix+j], g1 = filter[fix+3+j], g2 = filter[fix+6+j];
+					tmp[j] = g0;
+					tmp[3+j] = 0.5 * (g0 + g1 + g2);
+					tmp[6+j] = 0.5 * (g0 - g1 + g2);
+					tmp[9+j] = g2;
+				}
+				//U = tmp G^T (4x4)
+				for( int i = 0; i < 4; i++ ) {
+					double t0 = tmp[3*i], t1 = tmp[3*i+1], t2 = tmp[3*i+2];
+					int uix = (4*i*K + k)*C + c;
+					U[uix] = t0;
+					U[uix+K*C] = 0.5 * (t0 + t1 + t2);
+					U[uix+2*K*C] = 0.5 * (t0 - t1 + t2);
+					U[uix+3*K*C] = t2;
+				}
+			}
+		return U;
+	}
+	
+	private static void loadInputTile(double[] in, int inPos, int h0, int w0, int H, int W, double[] d) {
+		for( int i = 0; i < 4; i++ ) {
+			int h = h0 + i;
+			for( int j = 0; j < 4; j++ ) {
+				int w = w0 + j;
+				d[4*i+j] = (h >= 0 && h < H && w >= 0 && w < W) ?
+					in[inPos + h*W + w] : 0;
+			}
+		}
+	}
+	
+	private static void transformInputTile(double[] d, double[] tmp, double[] V, int vix, int vstride) {
+		//tmp = B^T d, V = tmp B (stored with stride per element)
+		for( int j = 0; j < 4; j++ ) {
+			tmp[j]    = d[j]   - d[8+j];
+			tmp[4+j]  = d[4+j] + d[8+j];
+			tmp[8+j]  = d[8+j] - d[4+j];
+			tmp[12+j] = d[4+j] - d[12+j];
+		}
+		for( int i = 0; i < 4; i++ ) {
+			double t0 = tmp[4*i], t1 = tmp[4*i+1], t2 = tmp[4*i+2], t3 = tmp[4*i+3];
+			V[vix + (4*i)*vstride]   = t0 - t2;
+			V[vix + (4*i+1)*vstride] = t1 + t2;
+			V[vix + (4*i+2)*vstride] = t2 - t1;
+			V[vix + (4*i+3)*vstride] = t1 - t3;
+		}
+	}
+	
+	private static void storeOutputTile(double[] M, int mix, int mstride, double[] out, int outPos, int p0, int q0, int P, int Q) {
+		//tmp = A^T m (2x4), Y = tmp A (2x2)
+		for( int i = 0; i < 2 && p0+i < P; i++ ) {
+			double t0, t1, t2, t3;
+			if( i == 0 ) {
+				t0 = M[mix] + M[mix+4*mstride] + M[mix+8*mstride];
+				t1 = M[mix+mstride] + M[mix+5*mstride] + M[mix+9*mstride];
+				t2 = M[mix+2*mstride] + M[mix+6*mstride] + M[mix+10*mstride];
+				t3 = M[mix+3*mstride] + M[mix+7*mstride] + M[mix+11*mstride];
+			}
+			else {
+				t0 = M[mix+4*mstride] - M[mix+8*mstride] - M[mix+12*mstride];
+				t1 = M[mix+5*mstride] - M[mix+9*mstride] - M[mix+13*mstride];
+				t2 = M[mix+6*mstride] - M[mix+10*mstride] - M[mix+14*mstride];
+				t3 = M[mix+7*mstride] - M[mix+11*mstride] - M[mix+15*mstride];
+			}
+			int oix = outPos + (p0+i)*Q + q0;
+			out[oix] = t0 + t1 + t2;
+			if( q0+1 < Q )
+				out[oix+1] = t1 - t2 - t3;
+		}
+	}
+}
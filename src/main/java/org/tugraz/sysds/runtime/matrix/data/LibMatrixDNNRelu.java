@@ -30,6 +30,18 @@ import org.tugraz.sysds.runtime.data.SparseBlock;
  */
 public class LibMatrixDNNRelu
 {
+	/**
+	 * Performs the operation max(X, 0) in-place on a range of dense values
+	 * 
+	 * @param a dense values
+	 * @param ai start position
+	 * @param len number of values
+	 */
+	public static void reluInPlace(double[] a, int ai, int len) {
+		for( int j = ai; j < ai+len; j++ )
+			a[j] = Math.max(a[j], 0);
+	}
+	
 	/**
 	 * Factory method that returns list of callable tasks for performing relu backward operation
 	 * 
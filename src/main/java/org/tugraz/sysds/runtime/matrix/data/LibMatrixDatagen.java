@@ -21,6 +21,7 @@
 package org.tugraz.sysds.runtime.matrix.data;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.Callable;
@@ -36,9 +37,13 @@ import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.controlprogram.parfor.util.IDSequence;
 import org.tugraz.sysds.runtime.data.DenseBlock;
 import org.tugraz.sysds.runtime.data.SparseBlock;
+import org.tugraz.sysds.runtime.data.SparseBlockCSR;
 import org.tugraz.sysds.runtime.util.CommonThreadPool;
 import org.tugraz.sysds.runtime.util.NormalPRNGenerator;
 import org.tugraz.sysds.runtime.util.PRNGenerator;
+import org.tugraz.sysds.runtime.util.PhiloxNormalPRNGenerator;
+import org.tugraz.sysds.runtime.util.PhiloxPRNGenerator;
+import org.tugraz.sysds.runtime.util.PhiloxPoissonPRNGenerator;
 import org.tugraz.sysds.runtime.util.PoissonPRNGenerator;
 import org.tugraz.sysds.runtime.util.UniformPRNGenerator;
 import org.tugraz.sysds.runtime.util.UtilFunctions;
@@ -48,6 +53,16 @@ public class LibMatrixDatagen
 	private static final Log LOG = LogFactory.getLog(LibMatrixDatagen.class.getName());
 	private static final long PAR_NUMCELL_THRESHOLD = 512*1024; //Min 500k elements
 	
+	//use the counter-based PRNG (Philox) instead of per-block seeds (see DMLConfig.RAND_PRNG)
+	public static boolean COUNTER_BASED_PRNG = false;
+	
+	//key offsets of the counter-based streams for non-zero selection and shuffling
+	private static final long NNZ_STREAM_KEY = 0x9E3779B97F4A7C15L;
+	private static final long SHUFFLE_STREAM_KEY = 0xBF58476D1CE4E5B9L;
+	//min number of items per sample partition, and max number of partitions
+	private static final long SAMPLE_PARTITION_SIZE = 64*1024;
+	private static final long SAMPLE_MAX_PARTITIONS = 16*1024;
+	
 	private static IDSequence _seqRandInput = new IDSequence(); 
 	
 	private LibMatrixDatagen() {
@@ -337,6 +352,115 @@ public class LibMatrixDatagen
 		out.setNonZeros(nnz);
 	}
 	
+	/**
+	 * Function to generate a matrix of random numbers with the counter-based
+	 * PRNG (Philox). The value of cell (i,j) is the random number at position
+	 * i*clen+j of the given seed, and the non-zero cells of row i are selected
+	 * via geometric skips over a dedicated stream i. Hence, any thread can
+	 * generate any row range without sequential seed setup, and the output is
+	 * independent of the blocking and degree of parallelism.
+	 * 
+	 * @param out output matrix block
+	 * @param rgen random matrix generator
+	 * @param seed seed for random generator
+	 * @param k degree of parallelism
+	 */
+	public static void generateRandomMatrixCounterBased( MatrixBlock out, RandomMatrixGenerator rgen, long seed, int k ) {
+		long lseed = (seed == DataGenOp.UNSPECIFIED_SEED ? DataGenOp.generateRandomSeed() : seed);
+		generateRandomBlockCounterBased(out, rgen, lseed, 0, 0, rgen._cols, k);
+	}
+	
+	/**
+	 * Function to generate a block of a matrix of random numbers with the
+	 * counter-based PRNG, where the block dimensions are given by the random
+	 * matrix generator, and the block position by the row and column offsets
+	 * into the overall matrix with the given number of columns. Sparse outputs
+	 * are constructed in CSR via count-then-fill over row partitions.
+	 * 
+	 * @param out output matrix block
+	 * @param rgen random matrix generator (with block dimensions)
+	 * @param seed seed for random generator
+	 * @param rowOffset row offset of the block
+	 * @param colOffset column offset of the block
+	 * @param clen number of columns of the overall matrix
+	 * @param k degree of parallelism
+	 */
+	public static void generateRandomBlockCounterBased( MatrixBlock out, RandomMatrixGenerator rgen, long seed, long rowOffset, long colOffset, long clen, int k ) {
+		int rows = rgen._rows;
+		int cols = rgen._cols;
+		double sparsity = rgen._sparsity;
+		
+		//sanity check valid dimensions and sparsity
+		checkMatrixDimensionsAndSparsity(rows, cols, sparsity);
+		
+		double min = rgen._pdf == RandomMatrixGenerator.PDF.UNIFORM ? rgen._min : 0;
+		double max = rgen._pdf == RandomMatrixGenerator.PDF.UNIFORM ? rgen._max : 1;
+		
+		//special case shortcuts for efficiency
+		if( sparsity == 0 || (rgen._pdf == RandomMatrixGenerator.PDF.UNIFORM && min == 0.0 && max == 0.0) ) {
+			out.reset(rows, cols, true);
+			return;
+		}
+		if( rgen._pdf == RandomMatrixGenerator.PDF.UNIFORM && sparsity==1.0d
+			&& (min == max || (Double.isNaN(min) && Double.isNaN(max))) ) {
+			out.reset(rows, cols, min);
+			return;
+		}
+		
+		//determine the output representation
+		final long estnnz = (long) Math.ceil(sparsity*rows*cols);
+		boolean lsparse = MatrixBlock.evalSparseFormatInMemory(rows, cols, estnnz);
+		out.reset(rows, cols, lsparse, estnnz);
+		int[] parts = LibMatrixReorg.getPartitions(rows,
+			((long)rows*cols < PAR_NUMCELL_THRESHOLD) ? 1 : k);
+		
+		long nnz = 0;
+		if( !lsparse ) {
+			out.allocateDenseBlock();
+			long[] lnnz = new long[parts.length-1];
+			LibMatrixReorg.parallelFor(parts, (p, rl, ru) -> lnnz[p] =
+				new CounterRandKernel(rgen, seed, rowOffset, colOffset, clen)
+					.fillDense(out.getDenseBlock(), rl, ru));
+			for( long lnz : lnnz )
+				nnz += lnz;
+		}
+		else {
+			//count selected cells per row (w/o value generation)
+			int[] rptr = new int[rows+1];
+			LibMatrixReorg.parallelFor(parts, (p, rl, ru) ->
+				new CounterRandKernel(rgen, seed, rowOffset, colOffset, clen).countCells(rptr, rl, ru));
+			long lnnz = 0;
+			for( int i=0; i<rows; i++ )
+				lnnz += rptr[i+1];
+			
+			if( lnnz < Integer.MAX_VALUE ) {
+				//fill disjoint ranges of CSR arrays
+				for( int i=0; i<rows; i++ )
+					rptr[i+1] += rptr[i];
+				int[] rnnz = new int[rows];
+				int[] cix = new int[(int)lnnz];
+				double[] cvals = new double[(int)lnnz];
+				LibMatrixReorg.parallelFor(parts, (p, rl, ru) ->
+					new CounterRandKernel(rgen, seed, rowOffset, colOffset, clen)
+						.fillSparse(rptr, rnnz, cix, cvals, rl, ru));
+				//remove selected cells with zero values (e.g., poisson)
+				nnz = compactCSR(rptr, rnnz, cix, cvals, rows);
+				out.sparseBlock = new SparseBlockCSR(rptr, cix, cvals, (int)nnz);
+			}
+			else {
+				//fallback to MCSR with exact row allocation
+				out.allocateAndResetSparseBlock(true, SparseBlock.Type.MCSR);
+				long[] lnnz2 = new long[parts.length-1];
+				LibMatrixReorg.parallelFor(parts, (p, rl, ru) -> lnnz2[p] =
+					new CounterRandKernel(rgen, seed, rowOffset, colOffset, clen)
+						.fillSparse(out.getSparseBlock(), rptr, rl, ru));
+				for( long lnz : lnnz2 )
+					nnz += lnz;
+			}
+		}
+		out.setNonZeros(nnz);
+	}
+	
 	/**
 	 * Method to generate a sequence according to the given parameters. The
 	 * generated sequence is always in dense format.
@@ -425,6 +549,123 @@ public class LibMatrixDatagen
 		out.examSparsity();
 	}
 
+	/**
+	 * Generates a sample of size <code>size</code> from a range of values [1,range],
+	 * multi-threaded if the counter-based PRNG is configured.
+	 * 
+	 * Sampling with replacement draws the i-th item from position i of a Philox
+	 * stream. Sampling without replacement first selects candidates via Bernoulli
+	 * sampling with a fraction that yields at least <code>size</code> candidates
+	 * with high probability, in parallel over fixed range partitions with dedicated
+	 * streams, and then draws the ordered sample from the candidates via a partial
+	 * Fisher-Yates shuffle. Both are independent of the degree of parallelism.
+	 * 
+	 * @param out output matrix block
+	 * @param range range upper bound
+	 * @param size sample size
+	 * @param replace if true, sample with replacement
+	 * @param seed seed for random generator
+	 * @param k degree of parallelism
+	 */
+	public static void generateSample(MatrixBlock out, long range, int size, boolean replace, long seed, int k) {
+		double fraction = replace ? 1 : computeSampleFraction(size, range);
+		if( !COUNTER_BASED_PRNG || (!replace && fraction * range >= Integer.MAX_VALUE) ) {
+			generateSample(out, range, size, replace, seed);
+			return;
+		}
+		
+		//set meta data and allocate dense block
+		out.reset(size, 1, false);
+		double[] a = out.allocateBlock().getDenseBlockValues();
+		long lseed = (seed == -1 ? System.nanoTime() : seed);
+		
+		if( !replace ) {
+			//parallel bernoulli sampling of candidates, repeated with new streams
+			//and increased fraction in the unlikely case of too few candidates
+			double[] cand = null;
+			for( int i=0; cand == null || cand.length < size; i++ ) {
+				cand = sampleCandidates(range, fraction, lseed + i * NNZ_STREAM_KEY, k);
+				fraction = Math.min(2 * fraction, 1);
+			}
+			//partial fisher-yates shuffle of candidates
+			PhiloxPRNGenerator rand = new PhiloxPRNGenerator(lseed ^ SHUFFLE_STREAM_KEY);
+			for( int i=0; i < size; i++ ) {
+				int j = i + (int)((rand.nextLong() >>> 1) % (cand.length - i));
+				double tmp = cand[i];
+				cand[i] = cand[j];
+				cand[j] = tmp;
+			}
+			System.arraycopy(cand, 0, a, 0, size);
+		}
+		else {
+			int[] parts = LibMatrixReorg.getPartitions(size,
+				(size < PAR_NUMCELL_THRESHOLD) ? 1 : k);
+			LibMatrixReorg.parallelFor(parts, (p, rl, ru) -> {
+				PhiloxPRNGenerator rand = new PhiloxPRNGenerator(lseed);
+				for( int i=rl; i < ru; i++ )
+					a[i] = 1 + (rand.getLong(i) >>> 1) % range;
+			});
+		}
+		
+		out.setNonZeros(size);
+		out.examSparsity();
+	}
+	
+	private static double[] sampleCandidates(long range, double fraction, long seed, int k) {
+		long plen = Math.max(SAMPLE_PARTITION_SIZE, (range + SAMPLE_MAX_PARTITIONS - 1) / SAMPLE_MAX_PARTITIONS);
+		int np = (int)((range + plen - 1) / plen);
+		double[][] pcand = new double[np][];
+		int[] pcnt = new int[np];
+		double log1mp = Math.log(1 - fraction);
+		int[] parts = LibMatrixReorg.getPartitions(np,
+			(range < PAR_NUMCELL_THRESHOLD) ? 1 : k);
+		LibMatrixReorg.parallelFor(parts, (p, pl, pu) -> {
+			PhiloxPRNGenerator rand = new PhiloxPRNGenerator(seed);
+			for( int pi = pl; pi < pu; pi++ ) {
+				long lb = pi * plen;
+				long len = Math.min(plen, range - lb);
+				double[] c = new double[(int)Math.min(len, (long)(fraction * len * 1.1) + 16)];
+				int cnt = 0;
+				if( fraction >= 1 ) {
+					for( long idx = 1; idx <= len; idx++ )
+						c[cnt++] = lb + idx;
+				}
+				else {
+					//geometric skips to next selected item (1-based)
+					rand.setStream(pi);
+					long idx = 0;
+					while( true ) {
+						double skip = Math.ceil(Math.log(rand.nextDouble())/log1mp);
+						if( skip > len - idx ) break;
+						idx += (long) skip;
+						if( cnt == c.length )
+							c = Arrays.copyOf(c, (int)Math.min(len, 2L * c.length));
+						c[cnt++] = lb + idx;
+					}
+				}
+				pcand[pi] = c;
+				pcnt[pi] = cnt;
+			}
+		});
+		//concatenate candidates in partition order
+		int total = 0;
+		for( int cnt : pcnt )
+			total += cnt;
+		double[] ret = new double[total];
+		for( int pi=0, pos=0; pi < np; pos += pcnt[pi], pi++ )
+			System.arraycopy(pcand[pi], 0, ret, pos, pcnt[pi]);
+		return ret;
+	}
+	
+	private static double computeSampleFraction(int size, long range) {
+		//fraction that yields at least size items w/ probability 1-1e-4
+		//(equivalent to spark's SamplingUtils for sampling w/o replacement)
+		double fraction = (double) size / range;
+		double gamma = -Math.log(1e-4) / range;
+		return Math.min(1, Math.max(1e-10, fraction + gamma
+			+ Math.sqrt(gamma * gamma + 2 * gamma * fraction)));
+	}
+	
 	private static long[] generateSeedsForCP(Well1024a bigrand, int nrb, int ncb)
 	{
 		int numBlocks = nrb * ncb;
@@ -575,6 +816,21 @@ public class LibMatrixDatagen
 			throw new DMLRuntimeException("Invalid matrix characteristics: "+rows+"x"+cols+", "+sp);
 	}
 	
+	private static long compactCSR(int[] rptr, int[] rnnz, int[] cix, double[] cvals, int rlen) {
+		int pos = 0;
+		for( int i=0; i<rlen; i++ ) {
+			int apos = rptr[i];
+			if( apos != pos ) {
+				System.arraycopy(cix, apos, cix, pos, rnnz[i]);
+				System.arraycopy(cvals, apos, cvals, pos, rnnz[i]);
+			}
+			rptr[i] = pos;
+			pos += rnnz[i];
+		}
+		rptr[rlen] = pos;
+		return pos;
+	}
+	
 	// modified version of java.util.nextInt
 	private static long nextLong(Random r, long n) {
 		if (n <= 0)
@@ -619,4 +875,123 @@ public class LibMatrixDatagen
 				_cl*cpb, Math.min(_cu*cpb, _rgen._cols)-1);
 		}
 	}
-}
+	
+	/**
+	 * Row-range kernel of the counter-based rand, which holds thread-local
+	 * generators for values and non-zero selection.
+	 */
+	private static class CounterRandKernel
+	{
+		private final PhiloxPRNGenerator _vals;
+		private final PhiloxPRNGenerator _nnz;
+		private final double _min, _range;
+		private final double _sparsity, _log1mp;
+		private final long _roff, _coff, _clen;
+		private final int _cols;
+		private final int[] _ix;
+		
+		public CounterRandKernel(RandomMatrixGenerator rgen, long seed, long roff, long coff, long clen) {
+			switch( rgen._pdf ) {
+				case UNIFORM: _vals = new PhiloxPRNGenerator(seed); break;
+				case NORMAL:  _vals = new PhiloxNormalPRNGenerator(seed); break;
+				case POISSON: _vals = new PhiloxPoissonPRNGenerator(rgen._mean, seed); break;
+				default:
+					throw new DMLRuntimeException("Unsupported distribution function for Rand: " + rgen._pdf);
+			}
+			_nnz = new PhiloxPRNGenerator(seed ^ NNZ_STREAM_KEY);
+			_min = rgen._pdf == RandomMatrixGenerator.PDF.UNIFORM ? rgen._min : 0;
+			_range = (rgen._pdf == RandomMatrixGenerator.PDF.UNIFORM ? rgen._max : 1) - _min;
+			_sparsity = rgen._sparsity;
+			_log1mp = Math.log(1 - _sparsity);
+			_roff = roff;
+			_coff = coff;
+			_clen = clen;
+			_cols = rgen._cols;
+			_ix = (_sparsity < 1) ? new int[_cols] : null;
+		}
+		
+		public long fillDense(DenseBlock c, int rl, int ru) {
+			long nnz = 0;
+			for( int i=rl; i<ru; i++ ) {
+				double[] cvals = c.values(i);
+				int cpos = c.pos(i);
+				long off = (_roff + i) * _clen + _coff;
+				if( _ix == null ) {
+					for( int j=0; j<_cols; j++ ) {
+						double val = _min + _range * _vals.getDouble(off + j);
+						cvals[cpos+j] = val;
+						nnz += (val != 0) ? 1 : 0;
+					}
+				}
+				else {
+					int len = selectCells(i);
+					for( int k=0; k<len; k++ ) {
+						double val = _min + _range * _vals.getDouble(off + _ix[k]);
+						cvals[cpos+_ix[k]] = val;
+						nnz += (val != 0) ? 1 : 0;
+					}
+				}
+			}
+			return nnz;
+		}
+		
+		public void countCells(int[] rptr, int rl, int ru) {
+			for( int i=rl; i<ru; i++ )
+				rptr[i+1] = (_ix == null) ? _cols : selectCells(i);
+		}
+		
+		public void fillSparse(int[] rptr, int[] rnnz, int[] cix, double[] cvals, int rl, int ru) {
+			for( int i=rl; i<ru; i++ ) {
+				long off = (_roff + i) * _clen + _coff;
+				int len = (_ix == null) ? _cols : selectCells(i);
+				int pos = rptr[i];
+				for( int k=0; k<len; k++ ) {
+					int j = (_ix == null) ? k : _ix[k];
+					double val = _min + _range * _vals.getDouble(off + j);
+					if( val != 0 ) {
+						cix[pos] = j;
+						cvals[pos++] = val;
+					}
+				}
+				rnnz[i] = pos - rptr[i];
+			}
+		}
+		
+		public long fillSparse(SparseBlock c, int[] cnt, int rl, int ru) {
+			long nnz = 0;
+			for( int i=rl; i<ru; i++ ) {
+				long off = (_roff + i) * _clen + _coff;
+				int len = (_ix == null) ? _cols : selectCells(i);
+				if( len == 0 )
+					continue;
+				c.allocate(i, cnt[i+1]);
+				for( int k=0; k<len; k++ ) {
+					int j = (_ix == null) ? k : _ix[k];
+					double val = _min + _range * _vals.getDouble(off + j);
+					if( val != 0 ) {
+						c.append(i, j, val);
+						nnz++;
+					}
+				}
+			}
+			return nnz;
+		}
+		
+		private int selectCells(int r) {
+			//geometric skips over the overall row (1-based), where the number of
+			//zeros before a non-zero is distributed as P[k] = p*(1-p)^(k-1)
+			_nnz.setStream(_roff + r);
+			long cu = _coff + _cols;
+			long idx = 0;
+			int len = 0;
+			while( true ) {
+				double skip = Math.ceil(Math.log(_nnz.nextDouble())/_log1mp);
+				if( skip > cu - idx ) break;
+				idx += (long) skip;
+				if( idx > _coff )
+					_ix[len++] = (int)(idx - 1 - _coff);
+			}
+			return len;
+		}
+	}
+}
\ No newline at end of file
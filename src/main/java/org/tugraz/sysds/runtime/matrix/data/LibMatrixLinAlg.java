@@ -0,0 +1,572 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.matrix.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.data.DenseBlock;
+import org.tugraz.sysds.runtime.data.SparseBlock;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
+import org.tugraz.sysds.runtime.util.UtilFunctions;
+
+/**
+ * Library for blocked, multi-threaded dense linear algebra kernels, which
+ * operate directly on row-major dense blocks instead of double[][] copies.
+ *
+ * Current list of supported operations: LU decomposition with partial
+ * pivoting, Cholesky decomposition, Householder QR decomposition, as well
+ * as solve and inverse via LU decomposition. All decompositions are
+ * right-looking with panels of BLOCKSIZE columns, where the panels are
+ * factorized sequentially and the trailing matrix updates are executed
+ * in parallel over row or column partitions.
+ */
+public class LibMatrixLinAlg
+{
+	//panel width of blocked decompositions
+	private static final int BLOCKSIZE = 64;
+	//tile width of trailing matrix updates
+	private static final int TILESIZE = 1024;
+	//min number of cells per step for multi-threaded execution
+	private static final long PAR_NUMCELL_THRESHOLD = 64 * 1024;
+	//see commons-math3 CholeskyDecomposition defaults
+	private static final double CHOLESKY_SYMMETRY_THRESHOLD = 1e-14;
+	private static final double CHOLESKY_POSITIVITY_THRESHOLD = 1e-10;
+
+	private LibMatrixLinAlg() {
+		//prevent instantiation via private constructor
+	}
+
+	/**
+	 * Indicates if the given input fits into a single dense block
+	 * of the blocked kernels.
+	 *
+	 * @param in input matrix
+	 * @return true if supported
+	 */
+	public static boolean isSupported(MatrixBlock in) {
+		return (long)in.getNumRows() * in.getNumColumns() < Integer.MAX_VALUE;
+	}
+
+	/**
+	 * LU decomposition with partial pivoting P A = L U.
+	 *
+	 * @param in square input matrix
+	 * @param k degree of parallelism
+	 * @return array of matrix blocks P, L, and U
+	 */
+	public static MatrixBlock[] lu(MatrixBlock in, int k) {
+		final int n = checkSquare(in, "LU Decomposition");
+		MatrixBlock U = copyToDense(in);
+		double[] a = U.getDenseBlockValues();
+		int[] piv = new int[n];
+		ExecutorService pool = createPool(k);
+		try {
+			luDecompose(a, n, piv, pool, k);
+		}
+		finally {
+			shutdown(pool);
+		}
+
+		//permutation matrix P (P[i,perm[i]]=1)
+		int[] perm = createPermutation(piv);
+		MatrixBlock P = new MatrixBlock(n, n, true);
+		for( int i=0; i<n; i++ )
+			P.appendValue(i, perm[i], 1);
+
+		//split unit lower triangular L and upper triangular U
+		MatrixBlock L = new MatrixBlock(n, n, false).allocateBlock();
+		double[] l = L.getDenseBlockValues();
+		for( int i=0, ix=0; i<n; i++, ix+=n ) {
+			System.arraycopy(a, ix, l, ix, i);
+			l[ix+i] = 1;
+			Arrays.fill(a, ix, ix+i, 0);
+		}
+
+		return new MatrixBlock[] {finalizeOutput(P),
+			finalizeOutput(L), finalizeOutput(U)};
+	}
+
+	/**
+	 * Cholesky decomposition A = L L^T of a symmetric positive-definite matrix.
+	 *
+	 * @param in square input matrix
+	 * @param k degree of parallelism
+	 * @return lower triangular matrix L
+	 */
+	public static MatrixBlock cholesky(MatrixBlock in, int k) {
+		final int n = checkSquare(in, "Input to cholesky()");
+		MatrixBlock L = copyToDense(in);
+		double[] a = L.getDenseBlockValues();
+		ExecutorService pool = createPool(k);
+		try {
+			checkSymmetric(a, n);
+			choleskyDecompose(a, n, pool, k);
+		}
+		finally {
+			shutdown(pool);
+		}
+		//clear upper triangle
+		for( int i=0, ix=0; i<n; i++, ix+=n )
+			Arrays.fill(a, ix+i+1, ix+n, 0);
+		return finalizeOutput(L);
+	}
+
+	/**
+	 * Householder QR decomposition A = Q R, compatible with
+	 * the output format of commons-math3 QRDecomposition.
+	 *
+	 * @param in input matrix of size m x n
+	 * @param k degree of parallelism
+	 * @return array of matrix blocks H (Householder vectors) and R, both of size m x n
+	 */
+	public static MatrixBlock[] qr(MatrixBlock in, int k) {
+		final int m = in.getNumRows();
+		final int n = in.getNumColumns();
+
+		//column-major (i.e., transposed) copy of the input
+		double[] a = copyToDense(in).getDenseBlockValues();
+		double[] qrt = new double[m*n];
+		for( int i=0, ix=0; i<m; i++, ix+=n )
+			for( int j=0; j<n; j++ )
+				qrt[j*m+i] = a[ix+j];
+		a = null;
+
+		double[] rdiag = new double[Math.min(m, n)];
+		ExecutorService pool = createPool(k);
+		try {
+			qrDecompose(qrt, m, n, rdiag, pool, k);
+		}
+		finally {
+			shutdown(pool);
+		}
+
+		//extract householder vectors H and upper triangular R
+		MatrixBlock H = new MatrixBlock(m, n, false).allocateBlock();
+		MatrixBlock R = new MatrixBlock(m, n, false).allocateBlock();
+		double[] h = H.getDenseBlockValues();
+		double[] r = R.getDenseBlockValues();
+		for( int i=0, ix=0; i<m; i++, ix+=n ) {
+			for( int j=0; j<Math.min(i+1, n); j++ )
+				h[ix+j] = qrt[j*m+i] / -rdiag[j];
+			if( i < rdiag.length ) {
+				r[ix+i] = rdiag[i];
+				for( int j=i+1; j<n; j++ )
+					r[ix+j] = qrt[j*m+i];
+			}
+		}
+		return new MatrixBlock[] {
+			finalizeOutput(H), finalizeOutput(R)};
+	}
+
+	/**
+	 * Solves the system of equations A X = B via LU decomposition.
+	 *
+	 * @param A square matrix of size n x n
+	 * @param B right-hand side of size n x m
+	 * @param k degree of parallelism
+	 * @return solution X of size n x m
+	 */
+	public static MatrixBlock solve(MatrixBlock A, MatrixBlock B, int k) {
+		final int n = checkSquare(A, "The A matrix, in solve(A,b)");
+		if( B.getNumRows() != n )
+			throw new DMLRuntimeException("Dimension mismatch in solve(A,b): "
+				+ "A is "+n+"x"+n+", b is "+B.getNumRows()+"x"+B.getNumColumns()+".");
+		double[] a = copyToDense(A).getDenseBlockValues();
+		MatrixBlock X = copyToDense(B);
+		int[] piv = new int[n];
+		ExecutorService pool = createPool(k);
+		try {
+			if( luDecompose(a, n, piv, pool, k) )
+				throw new DMLRuntimeException("The A matrix, in solve(A,b) is singular.");
+			luSolve(a, n, piv, X.getDenseBlockValues(), B.getNumColumns(), pool, k);
+		}
+		finally {
+			shutdown(pool);
+		}
+		return finalizeOutput(X);
+	}
+
+	/**
+	 * Computes the inverse of a square matrix via LU decomposition.
+	 *
+	 * @param in square input matrix
+	 * @param k degree of parallelism
+	 * @return matrix inverse
+	 */
+	public static MatrixBlock inverse(MatrixBlock in, int k) {
+		final int n = checkSquare(in, "Input to inv()");
+		double[] a = copyToDense(in).getDenseBlockValues();
+		MatrixBlock ret = new MatrixBlock(n, n, false).allocateBlock();
+		double[] b = ret.getDenseBlockValues();
+		for( int i=0; i<n; i++ )
+			b[i*n+i] = 1;
+		int[] piv = new int[n];
+		ExecutorService pool = createPool(k);
+		try {
+			if( luDecompose(a, n, piv, pool, k) )
+				throw new DMLRuntimeException("Input to inv() is a singular matrix.");
+			luSolve(a, n, piv, b, n, pool, k);
+		}
+		finally {
+			shutdown(pool);
+		}
+		return finalizeOutput(ret);
+	}
+
+	/**
+	 * Blocked right-looking LU decomposition with partial pivoting,
+	 * in-place of the given row-major n x n array. Row interchanges are
+	 * applied to entire rows, and recorded as sequence of swaps (LAPACK ipiv).
+	 *
+	 * @param a row-major dense array, overwritten by L (w/o unit diagonal) and U
+	 * @param n number of rows and columns
+	 * @param piv output array of row interchanges
+	 * @param pool thread pool, or null for single-threaded execution
+	 * @param k degree of parallelism
+	 * @return true if the matrix is singular (zero pivot)
+	 */
+	private static boolean luDecompose(double[] a, int n, int[] piv, ExecutorService pool, int k) {
+		boolean singular = false;
+		for( int bix=0; bix<n; bix+=BLOCKSIZE ) {
+			final int kb = bix;
+			final int ke = Math.min(bix+BLOCKSIZE, n);
+
+			//factorize panel (sequential)
+			for( int j=kb; j<ke; j++ ) {
+				int p = j;
+				double pmax = Math.abs(a[j*n+j]);
+				for( int i=j+1; i<n; i++ ) {
+					double v = Math.abs(a[i*n+j]);
+					if( v > pmax ) {
+						p = i;
+						pmax = v;
+					}
+				}
+				piv[j] = p;
+				if( p != j )
+					swapRows(a, n, j, p);
+				double ajj = a[j*n+j];
+				if( ajj == 0 ) {
+					singular = true;
+					continue;
+				}
+				for( int i=j+1, jx=j*n; i<n; i++ ) {
+					int ix = i * n;
+					double lij = (a[ix+j] /= ajj);
+					if( lij != 0 )
+						for( int c=j+1; c<ke; c++ )
+							a[ix+c] -= lij * a[jx+c];
+				}
+			}
+			if( ke == n )
+				break;
+
+			//U12 = L11^-1 A12 (parallel over column partitions)
+			parallelFor(pool, k, ke, n, ke-kb, (cl, cu) -> {
+				for( int j=kb; j<ke; j++ )
+					for( int i=j+1; i<ke; i++ ) {
+						double lij = a[i*n+j];
+						if( lij != 0 )
+							axpy(-lij, a, j*n, a, i*n, cl, cu);
+					}
+			});
+
+			//A22 = A22 - L21 U12 (parallel over row partitions)
+			parallelFor(pool, k, ke, n, n-ke, (rl, ru) -> {
+				for( int cl=ke; cl<n; cl+=TILESIZE ) {
+					int cu = Math.min(cl+TILESIZE, n);
+					for( int i=rl; i<ru; i++ )
+						for( int p=kb, ix=i*n; p<ke; p++ ) {
+							double lip = a[ix+p];
+							if( lip != 0 )
+								axpy(-lip, a, p*n, a, ix, cl, cu);
+						}
+				}
+			});
+		}
+		return singular;
+	}
+
+	/**
+	 * Solves L U X = P B for a given LU decomposition, in-place of the
+	 * given row-major n x m array, in parallel over column partitions.
+	 *
+	 * @param a row-major LU decomposition
+	 * @param n number of rows and columns of the LU decomposition
+	 * @param piv row interchanges
+	 * @param b row-major right-hand side, overwritten by the solution
+	 * @param m number of columns of the right-hand side
+	 * @param pool thread pool, or null for single-threaded execution
+	 * @param k degree of parallelism
+	 */
+	private static void luSolve(double[] a, int n, int[] piv, double[] b, int m, ExecutorService pool, int k) {
+		//apply row interchanges
+		for( int j=0; j<n; j++ )
+			if( piv[j] != j )
+				swapRows(b, m, j, piv[j]);
+
+		parallelFor(pool, k, 0, m, (long)n*n, (cl, cu) -> {
+			//forward substitution w/ unit lower triangular L
+			for( int i=1; i<n; i++ )
+				for( int j=0, ix=i*n; j<i; j++ ) {
+					double lij = a[ix+j];
+					if( lij != 0 )
+						axpy(-lij, b, j*m, b, i*m, cl, cu);
+				}
+			//backward substitution w/ upper triangular U
+			for( int i=n-1; i>=0; i-- ) {
+				int ix = i * n;
+				for( int j=i+1; j<n; j++ ) {
+					double uij = a[ix+j];
+					if( uij != 0 )
+						axpy(-uij, b, j*m, b, i*m, cl, cu);
+				}
+				double uii = a[ix+i];
+				for( int c=i*m+cl; c<i*m+cu; c++ )
+					b[c] /= uii;
+			}
+		});
+	}
+
+	/**
+	 * Blocked right-looking Cholesky decomposition, in-place of the
+	 * lower triangle of the given row-major n x n array.
+	 *
+	 * @param a row-major dense array, lower triangle overwritten by L
+	 * @param n number of rows and columns
+	 * @param pool thread pool, or null for single-threaded execution
+	 * @param k degree of parallelism
+	 */
+	private static void choleskyDecompose(double[] a, int n, ExecutorService pool, int k) {
+		for( int bix=0; bix<n; bix+=BLOCKSIZE ) {
+			final int kb = bix;
+			final int ke = Math.min(bix+BLOCKSIZE, n);
+
+			//factorize diagonal block (sequential)
+			for( int j=kb; j<ke; j++ ) {
+				int jx = j * n;
+				double s = a[jx+j] - dot(a, jx+kb, a, jx+kb, j-kb);
+				if( !(s > CHOLESKY_POSITIVITY_THRESHOLD) )
+					throw new DMLRuntimeException("Input to cholesky() must be a symmetric positive-definite matrix.");
+				double ljj = Math.sqrt(s);
+				a[jx+j] = ljj;
+				for( int i=j+1; i<ke; i++ ) {
+					int ix = i * n;
+					a[ix+j] = (a[ix+j] - dot(a, ix+kb, a, jx+kb, j-kb)) / ljj;
+				}
+			}
+			if( ke == n )
+				break;
+
+			//L21 = A21 L11^-T (parallel over row partitions)
+			parallelFor(pool, k, ke, n, ke-kb, (rl, ru) -> {
+				for( int i=rl; i<ru; i++ )
+					for( int j=kb, ix=i*n; j<ke; j++ ) {
+						int jx = j * n;
+						a[ix+j] = (a[ix+j] - dot(a, ix+kb, a, jx+kb, j-kb)) / a[jx+j];
+					}
+			});
+
+			//A22 = A22 - L21 L21^T, lower triangle (parallel over row partitions)
+			parallelFor(pool, k, ke, n, n-ke, (rl, ru) -> {
+				for( int jl=ke; jl<ru; jl+=BLOCKSIZE ) {
+					int ju = Math.min(jl+BLOCKSIZE, ru);
+					for( int i=Math.max(rl, jl); i<ru; i++ )
+						for( int j=jl, ix=i*n; j<Math.min(ju, i+1); j++ )
+							a[ix+j] -= dot(a, ix+kb, a, j*n+kb, ke-kb);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Blocked Householder QR decomposition, in-place of the given
+	 * column-major m x n array. Per column, the reflectors are applied
+	 * in the same order as in commons-math3 QRDecomposition.
+	 *
+	 * @param qrt column-major dense array
+	 * @param m number of rows
+	 * @param n number of columns
+	 * @param rdiag output array of diagonal entries of R
+	 * @param pool thread pool, or null for single-threaded execution
+	 * @param k degree of parallelism
+	 */
+	private static void qrDecompose(double[] qrt, int m, int n, double[] rdiag, ExecutorService pool, int k) {
+		for( int bix=0; bix<rdiag.length; bix+=BLOCKSIZE ) {
+			final int kb = bix;
+			final int ke = Math.min(bix+BLOCKSIZE, rdiag.length);
+
+			//factorize panel (sequential)
+			for( int minor=kb; minor<ke; minor++ ) {
+				int mx = minor * m;
+				double norm = Math.sqrt(dot(qrt, mx+minor, qrt, mx+minor, m-minor));
+				double a = (qrt[mx+minor] > 0) ? -norm : norm;
+				rdiag[minor] = a;
+				if( a != 0 )
+					qrt[mx+minor] -= a;
+				for( int col=minor+1; col<ke; col++ )
+					applyReflector(qrt, m, minor, a, col);
+			}
+			if( ke == n )
+				break;
+
+			//apply panel reflectors to trailing columns (parallel over column partitions)
+			parallelFor(pool, k, ke, n, (long)(ke-kb)*(m-kb), (cl, cu) -> {
+				for( int col=cl; col<cu; col++ )
+					for( int minor=kb; minor<ke; minor++ )
+						applyReflector(qrt, m, minor, rdiag[minor], col);
+			});
+		}
+	}
+
+	private static void applyReflector(double[] qrt, int m, int minor, double a, int col) {
+		if( a == 0 )
+			return;
+		int mx = minor * m, cx = col * m;
+		double alpha = -dot(qrt, cx+minor, qrt, mx+minor, m-minor);
+		alpha /= a * qrt[mx+minor];
+		axpy(-alpha, qrt, mx, qrt, cx, minor, m);
+	}
+
+	private static void checkSymmetric(double[] a, int n) {
+		for( int i=0; i<n; i++ )
+			for( int j=0; j<i; j++ ) {
+				double aij = a[i*n+j];
+				double aji = a[j*n+i];
+				if( Math.abs(aij - aji) > CHOLESKY_SYMMETRY_THRESHOLD
+					* Math.max(Math.abs(aij), Math.abs(aji)) )
+					throw new DMLRuntimeException("Input to cholesky() must be a symmetric matrix.");
+			}
+	}
+
+	private static double dot(double[] a, int ai, double[] b, int bi, int len) {
+		double val = 0;
+		for( int j=0; j<len; j++ )
+			val += a[ai+j] * b[bi+j];
+		return val;
+	}
+
+	private static void axpy(double alpha, double[] a, int ai, double[] c, int ci, int cl, int cu) {
+		for( int j=cl; j<cu; j++ )
+			c[ci+j] += alpha * a[ai+j];
+	}
+
+	private static void swapRows(double[] a, int n, int r1, int r2) {
+		for( int j=0, ix1=r1*n, ix2=r2*n; j<n; j++ ) {
+			double tmp = a[ix1+j];
+			a[ix1+j] = a[ix2+j];
+			a[ix2+j] = tmp;
+		}
+	}
+
+	private static int[] createPermutation(int[] piv) {
+		int[] perm = new int[piv.length];
+		for( int i=0; i<perm.length; i++ )
+			perm[i] = i;
+		for( int j=0; j<piv.length; j++ ) {
+			int tmp = perm[j];
+			perm[j] = perm[piv[j]];
+			perm[piv[j]] = tmp;
+		}
+		return perm;
+	}
+
+	private static int checkSquare(MatrixBlock in, String prefix) {
+		if( in.getNumRows() != in.getNumColumns() )
+			throw new DMLRuntimeException(prefix + " must be square matrix -- given: a "
+				+ in.getNumRows() + "x" + in.getNumColumns() + " matrix.");
+		return in.getNumRows();
+	}
+
+	private static MatrixBlock copyToDense(MatrixBlock in) {
+		final int m = in.getNumRows();
+		final int n = in.getNumColumns();
+		MatrixBlock ret = new MatrixBlock(m, n, false).allocateBlock();
+		double[] c = ret.getDenseBlockValues();
+		if( in.isEmptyBlock(false) )
+			return ret;
+		if( in.isInSparseFormat() ) {
+			SparseBlock sb = in.getSparseBlock();
+			for( int i=0; i<m; i++ ) {
+				if( sb.isEmpty(i) ) continue;
+				int apos = sb.pos(i);
+				int alen = sb.size(i);
+				int[] aix = sb.indexes(i);
+				double[] avals = sb.values(i);
+				for( int j=apos; j<apos+alen; j++ )
+					c[i*n+aix[j]] = avals[j];
+			}
+		}
+		else {
+			DenseBlock db = in.getDenseBlock();
+			for( int i=0; i<m; i++ )
+				System.arraycopy(db.values(i), db.pos(i), c, i*n, n);
+		}
+		return ret;
+	}
+
+	private static MatrixBlock finalizeOutput(MatrixBlock ret) {
+		ret.recomputeNonZeros();
+		ret.examSparsity();
+		return ret;
+	}
+
+	private static ExecutorService createPool(int k) {
+		return (k > 1) ? CommonThreadPool.get(k) : null;
+	}
+
+	private static void shutdown(ExecutorService pool) {
+		if( pool != null )
+			pool.shutdown();
+	}
+
+	/**
+	 * Executes the given range body over the index range [lb, ub), in parallel
+	 * over balanced partitions if a thread pool is given and the step is large
+	 * enough, and sequentially otherwise.
+	 */
+	private static void parallelFor(ExecutorService pool, int k, int lb, int ub, long cellsPerIndex, RangeBody body) {
+		int len = ub - lb;
+		if( pool == null || len < 2 || len * cellsPerIndex < PAR_NUMCELL_THRESHOLD ) {
+			if( len > 0 )
+				body.execute(lb, ub);
+			return;
+		}
+		try {
+			ArrayList<Callable<Object>> tasks = new ArrayList<>();
+			ArrayList<Integer> blklens = UtilFunctions.getBalancedBlockSizesDefault(len, k, false);
+			for( int i=0, rl=lb; i<blklens.size(); rl+=blklens.get(i), i++ ) {
+				final int rl2 = rl, ru2 = rl + blklens.get(i);
+				tasks.add(() -> { body.execute(rl2, ru2); return null; });
+			}
+			for( Future<Object> task : pool.invokeAll(tasks) )
+				task.get();
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+
+	private interface RangeBody {
+		public void execute(int lb, int ub);
+	}
+}
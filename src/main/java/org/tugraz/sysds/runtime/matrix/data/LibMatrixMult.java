@@ -119,6 +119,13 @@ public class LibMatrixMult
 			return;
 		}
 		
+		//row-panel processing of off-heap inputs/outputs (full range only)
+		if( rl == 0 && ru == m1.rlen && !(fixedRet && ret.sparse)
+			&& isOffHeapMatrixMult(m1, m2, ret) ) {
+			LibMatrixOffHeap.matrixMult(m1, m2, ret, 1, fixedRet);
+			return;
+		}
+		
 		//Timing time = new Timing(true);
 		
 		//pre-processing: output allocation
@@ -174,6 +181,12 @@ public class LibMatrixMult
 			return;
 		}
 		
+		//row-panel processing of off-heap inputs/outputs
+		if( isOffHeapMatrixMult(m1, m2, ret) ) {
+			LibMatrixOffHeap.matrixMult(m1, m2, ret, k, false);
+			return;
+		}
+		
 		//check too small workload and fallback to sequential if needed
 		if( !satisfiesMultiThreadingConstraints(m1, m2, m1.rlen==1, true, 2, k) ) {
 			matrixMult(m1, m2, ret);
@@ -205,7 +218,9 @@ public class LibMatrixMult
 		try {
 			ExecutorService pool = CommonThreadPool.get(k);
 			ArrayList<MatrixMultTask> tasks = new ArrayList<>();
-			ArrayList<Integer> blklens = UtilFunctions.getBalancedBlockSizesDefault(num, k, (pm2r||pm2c));
+			ArrayList<Integer> blklens = (m1.sparse && !pm2r && !pm2c) ?
+				getNnzBalancedBlockSizes(m1.sparseBlock, m1.rlen, k) :
+				UtilFunctions.getBalancedBlockSizesDefault(num, k, (pm2r||pm2c));
 			for( int i=0, lb=0; i<blklens.size(); lb+=blklens.get(i), i++ )
 				tasks.add(new MatrixMultTask(m1, m2, ret, tm2, pm2r, pm2c, lb, lb+blklens.get(i)));
 			//execute tasks
@@ -3803,6 +3818,23 @@ public class LibMatrixMult
 				&& 8*m1.rlen*m1.clen < 256*1024 ); //lhs fits in L2 cache
 	}
 	
+	private static ArrayList<Integer> getNnzBalancedBlockSizes(SparseBlock a, int m, int k) {
+		//row partitions of roughly equal nnz instead of equal number of rows,
+		//which balances skewed rows (e.g., power-law row degrees) across tasks
+		int nk = UtilFunctions.roundToNext(Math.min(8*k, m/32), k);
+		double blknnz = (double)a.size(0, m) / nk;
+		ArrayList<Integer> ret = new ArrayList<>(nk);
+		long cnnz = 0;
+		for( int i=0, lb=0; i<m; i++ ) {
+			cnnz += a.size(i);
+			if( cnnz >= (ret.size()+1) * blknnz || i == m-1 ) {
+				ret.add(i+1-lb);
+				lb = i+1;
+			}
+		}
+		return ret;
+	}
+	
 	public static boolean satisfiesMultiThreadingConstraints(MatrixBlock m1, int k) {
 		return satisfiesMultiThreadingConstraints(m1, true, false, -1, k);
 	}
@@ -3833,6 +3865,12 @@ public class LibMatrixMult
 			||(!leftTranspose && FPfactor * m1.clen * m1.rlen * m1.rlen > threshold));
 	}
 	
+	private static boolean isOffHeapMatrixMult(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret) {
+		return (LibMatrixOffHeap.isOffHeap(m1) || LibMatrixOffHeap.isOffHeap(m2)
+			|| LibMatrixOffHeap.isOffHeapOutput(ret, m1.rlen, m2.clen))
+			&& !isUltraSparseMatrixMult(m1, m2);
+	}
+	
 	public static boolean isUltraSparseMatrixMult(MatrixBlock m1, MatrixBlock m2) {
 		if( m2.clen == 1 ) //mv always dense
 			return false;
@@ -199,7 +199,13 @@ public class LibMatrixNative
 					Statistics.nativeConv2dTime += System.nanoTime() - start;
 					Statistics.numNativeConv2dCalls.increment();
 				}
-				outputBlock.setNonZeros(nnz);
+				if(params.applyRelu) {
+					// relu as separate pass, not supported by the native kernels
+					LibMatrixDNNRelu.reluInPlace(outputBlock.getDenseBlockValues(), 0, params.N*params.K*params.P*params.Q);
+					outputBlock.recomputeNonZeros();
+				}
+				else
+					outputBlock.setNonZeros(nnz);
 				return;
 			}
 			else {
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.runtime.matrix.data;
+
+import java.util.Arrays;
+
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.data.DenseBlock;
+import org.tugraz.sysds.runtime.data.DenseBlockFactory;
+import org.tugraz.sysds.runtime.data.SparseBlock;
+import org.tugraz.sysds.runtime.functionobjects.Plus;
+import org.tugraz.sysds.runtime.functionobjects.ReduceAll;
+import org.tugraz.sysds.runtime.functionobjects.ReduceCol;
+import org.tugraz.sysds.runtime.functionobjects.ReduceRow;
+import org.tugraz.sysds.runtime.matrix.operators.AggregateUnaryOperator;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
+import org.tugraz.sysds.runtime.matrix.operators.ScalarOperator;
+
+/**
+ * Library for matrix multiplications, unary aggregates, and cell-wise
+ * binary operations over off-heap dense blocks (inputs or outputs). These
+ * operations are computed over row panels, which are staged into heap blocks
+ * of bounded size and processed by the existing kernels. This avoids the
+ * full materialization of off-heap blocks on heap (see DenseBlockOffHeap).
+ */
+public class LibMatrixOffHeap
+{
+	//max number of cells per heap row panel (32MB)
+	private static final int PANEL_CELLS = 4 * 1024 * 1024;
+
+	private LibMatrixOffHeap() {
+		//prevent instantiation via private constructor
+	}
+
+	public static boolean isOffHeap(MatrixBlock mb) {
+		return !mb.sparse && mb.denseBlock != null && mb.denseBlock.isOffHeap();
+	}
+
+	public static boolean isOffHeapOutput(MatrixBlock ret, int rlen, int clen) {
+		long cells = (long)rlen * clen;
+		return (ret.denseBlock != null && ret.denseBlock.capacity() >= cells) ?
+			ret.denseBlock.isOffHeap() : DenseBlockFactory.isOffHeapAllocation(cells);
+	}
+
+	public static void matrixMult(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, int k, boolean fixedRet) {
+		final int m = m1.rlen, cd = m1.clen, n = m2.clen;
+		ret.reset(m, n, false);
+		ret.allocateDenseBlock();
+		DenseBlock c = ret.getDenseBlock();
+		BinaryOperator plus = new BinaryOperator(Plus.getPlusFnObject());
+		
+		//stage row panels of m1 (and row panels of m2 if necessary)
+		int blkm = panelRows(Math.max(cd, n));
+		int blkk = isOffHeap(m2) ? panelRows(n) : cd;
+		for( int rl=0; rl<m; rl+=blkm ) {
+			int ru = Math.min(rl+blkm, m);
+			MatrixBlock a = sliceRows(m1, rl, ru);
+			MatrixBlock cp = null;
+			for( int kl=0; kl<cd; kl+=blkk ) {
+				int ku = Math.min(kl+blkk, cd);
+				MatrixBlock ap = (blkk < cd) ?
+					a.slice(0, ru-rl-1, kl, ku-1, new MatrixBlock()) : a;
+				MatrixBlock bp = (blkk < cd) ? sliceRows(m2, kl, ku) : m2;
+				MatrixBlock tmp = createHeapBlock(ru-rl, n);
+				LibMatrixMult.matrixMult(ap, bp, tmp, k);
+				if( cp == null )
+					cp = tmp;
+				else
+					LibMatrixBincell.bincellOpInPlace(cp, tmp, plus);
+			}
+			copyRows(cp, c, rl);
+		}
+		
+		//post-processing: nnz/representation
+		ret.recomputeNonZeros();
+		if( !fixedRet )
+			ret.examSparsity();
+	}
+
+	public static void bincellOp(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
+		final int m = ret.rlen, n = ret.clen;
+		ret.allocateDenseBlock();
+		DenseBlock c = ret.getDenseBlock();
+		
+		//stage row panels of m1 and m2 (or entire m2 for row vectors)
+		boolean aligned = (m2.rlen == m1.rlen);
+		MatrixBlock b = aligned ? null : isOffHeap(m2) ? sliceRows(m2, 0, m2.rlen) : m2;
+		int blkm = panelRows(n);
+		for( int rl=0; rl<m; rl+=blkm ) {
+			int ru = Math.min(rl+blkm, m);
+			MatrixBlock cp = createHeapBlock(ru-rl, n);
+			LibMatrixBincell.bincellOp(sliceRows(m1, rl, ru),
+				aligned ? sliceRows(m2, rl, ru) : b, cp, op);
+			copyRows(cp, c, rl);
+		}
+		
+		ret.recomputeNonZeros();
+		if( ret.isEmptyBlock(false) )
+			ret.examSparsity();
+	}
+
+	public static void bincellOp(MatrixBlock m1, MatrixBlock ret, ScalarOperator op) {
+		final int m = ret.rlen, n = ret.clen;
+		ret.allocateDenseBlock();
+		DenseBlock c = ret.getDenseBlock();
+		
+		int blkm = panelRows(n);
+		for( int rl=0; rl<m; rl+=blkm ) {
+			int ru = Math.min(rl+blkm, m);
+			MatrixBlock cp = createHeapBlock(ru-rl, n);
+			LibMatrixBincell.bincellOp(sliceRows(m1, rl, ru), cp, op);
+			copyRows(cp, c, rl);
+		}
+		
+		ret.recomputeNonZeros();
+		if( ret.isEmptyBlock(false) )
+			ret.examSparsity();
+	}
+
+	public static boolean isSupportedAggregate(AggregateUnaryOperator uaop) {
+		return uaop.indexFn instanceof ReduceAll || uaop.indexFn instanceof ReduceRow
+			|| uaop.indexFn instanceof ReduceCol;
+	}
+
+	public static void aggregateUnaryMatrix(MatrixBlock in, MatrixBlock out, AggregateUnaryOperator uaop, int k) {
+		final int m = in.rlen, m2 = out.rlen, n2 = out.clen;
+		boolean rowAgg = uaop.indexFn instanceof ReduceCol;
+		if( rowAgg ) {
+			out.reset(m2, n2, false);
+			out.allocateDenseBlock();
+		}
+		
+		//aggregate row panels, and combine the partial results
+		int blkm = panelRows(in.clen);
+		for( int rl=0; rl<m; rl+=blkm ) {
+			int ru = Math.min(rl+blkm, m);
+			MatrixBlock partout = rowAgg ?
+				createHeapBlock(ru-rl, n2) : createHeapBlock(m2, n2);
+			LibMatrixAgg.aggregateUnaryMatrix(sliceRows(in, rl, ru), partout, uaop, k);
+			if( partout.isInSparseFormat() )
+				partout.sparseToDense();
+			if( rowAgg )
+				copyRows(partout, out.getDenseBlock(), rl);
+			else if( rl == 0 )
+				out.copy(partout);
+			else
+				LibMatrixAgg.aggregateFinalResult(uaop.aggOp, out, partout);
+		}
+		
+		out.recomputeNonZeros();
+		out.examSparsity();
+	}
+
+	private static int panelRows(int n) {
+		return Math.max(PANEL_CELLS / Math.max(n, 1), 1);
+	}
+
+	private static MatrixBlock createHeapBlock(int rows, int cols) {
+		//explicit heap allocation, reused by the kernels
+		MatrixBlock ret = new MatrixBlock(rows, cols, false);
+		ret.denseBlock = DenseBlockFactory.createDenseBlock(
+			ValueType.FP64, DenseBlock.Type.DRB, new int[]{rows, cols});
+		return ret;
+	}
+
+	private static MatrixBlock sliceRows(MatrixBlock in, int rl, int ru) {
+		if( !isOffHeap(in) )
+			return (rl == 0 && ru == in.rlen) ? in :
+				in.slice(rl, ru-1, 0, in.clen-1, new MatrixBlock());
+		final int n = in.clen;
+		MatrixBlock ret = createHeapBlock(ru-rl, n);
+		DenseBlock a = in.getDenseBlock();
+		DenseBlock c = ret.getDenseBlock();
+		for( int i=rl; i<ru; i++ )
+			a.getRow(i, 0, n, c.values(i-rl), c.pos(i-rl));
+		ret.recomputeNonZeros();
+		return ret;
+	}
+
+	private static void copyRows(MatrixBlock src, DenseBlock c, int rl) {
+		final int n = src.clen;
+		if( !src.sparse && src.denseBlock != null ) {
+			DenseBlock a = src.getDenseBlock();
+			for( int i=0; i<src.rlen; i++ )
+				c.setRow(rl+i, 0, n, a.values(i), a.pos(i));
+			return;
+		}
+		//sparse or empty source via row buffer
+		SparseBlock a = src.sparse ? src.getSparseBlock() : null;
+		double[] tmp = new double[n];
+		for( int i=0; i<src.rlen; i++ ) {
+			Arrays.fill(tmp, 0);
+			if( a != null && !a.isEmpty(i) ) {
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				for( int j=apos; j<apos+alen; j++ )
+					tmp[aix[j]] = avals[j];
+			}
+			c.setRow(rl+i, 0, n, tmp, 0);
+		}
+	}
+}
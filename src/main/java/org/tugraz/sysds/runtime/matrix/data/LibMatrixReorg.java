@@ -139,6 +139,10 @@ public class LibMatrixReorg
 		
 		//Timing time = new Timing(true);
 		
+		//count-then-fill construction of sparse outputs in CSR
+		if( out.sparse && isCSROutput(in.nonZeros) )
+			return transposeToCSR(in, out, 1);
+		
 		//allocate output arrays (if required)
 		if( out.sparse )
 			out.allocateSparseRowsBlock(false);
@@ -162,6 +166,11 @@ public class LibMatrixReorg
 	}
 
 	public static MatrixBlock transpose( MatrixBlock in, MatrixBlock out, int k ) {
+		//multi-threaded count-then-fill construction of sparse outputs in CSR
+		if( !in.isEmptyBlock(false) && out.sparse && isCSROutput(in.nonZeros)
+			&& (long)in.rlen * in.clen >= PAR_NUMCELL_THRESHOLD && k > 1 )
+			return transposeToCSR(in, out, k);
+		
 		//redirect small or special cases to sequential execution
 		if( in.isEmptyBlock(false) || (in.rlen * in.clen < PAR_NUMCELL_THRESHOLD) || k == 1
 			|| (SHALLOW_COPY_REORG && !in.sparse && !out.sparse && (in.rlen==1 || in.clen==1) )
@@ -502,6 +511,22 @@ public class LibMatrixReorg
 	 * @return matrix block
 	 */
 	public static MatrixBlock rmempty(MatrixBlock in, MatrixBlock ret, boolean rows, boolean emptyReturn, MatrixBlock select) {
+		return rmempty(in, ret, rows, emptyReturn, select, 1);
+	}
+	
+	/**
+	 * CP rmempty operation (single input, single output matrix), where sparse
+	 * outputs are constructed in CSR with the given degree of parallelism.
+	 * 
+	 * @param in input matrix
+	 * @param ret output matrix
+	 * @param rows ?
+	 * @param emptyReturn return row/column of zeros for empty input
+	 * @param select ?
+	 * @param k degree of parallelism
+	 * @return matrix block
+	 */
+	public static MatrixBlock rmempty(MatrixBlock in, MatrixBlock ret, boolean rows, boolean emptyReturn, MatrixBlock select, int k) {
 		//check for empty inputs 
 		//(the semantics of removeEmpty are that for an empty m-by-n matrix, the output 
 		//is an empty 1-by-n or m-by-1 matrix because we don't allow matrices with dims 0)
@@ -515,9 +540,9 @@ public class LibMatrixReorg
 		}
 		
 		if( rows )
-			return removeEmptyRows(in, ret, select, emptyReturn);
+			return removeEmptyRows(in, ret, select, emptyReturn, k);
 		else //cols
-			return removeEmptyColumns(in, ret, select, emptyReturn);
+			return removeEmptyColumns(in, ret, select, emptyReturn, k);
 	}
 
 	/**
@@ -643,7 +668,7 @@ public class LibMatrixReorg
 		
 		//execute rexpand operations
 		if( rows )
-			return rexpandRows(in, ret, lmax, cast, ignore);
+			return rexpandRows(in, ret, lmax, cast, ignore, k);
 		else //cols
 			return rexpandColumns(in, ret, lmax, cast, ignore, k);
 	}
@@ -1020,20 +1045,26 @@ public class LibMatrixReorg
 		//CASE column vector
 		if( out.sparse  ) { //SPARSE
 			if( SPARSE_OUTPUTS_IN_CSR ) {
-				int[] rptr = new int[in.rlen+1];
-				int[] cix = new int[(int)in.nonZeros];
-				double[] vals = new double[(int)in.nonZeros];
+				//count-then-fill w/o reliance on maintained nnz
+				double[] tmp = new double[rlen];
+				copyColVector(in, 0, tmp, rlen);
+				int nnz = 0;
+				for( int i=0; i<rlen; i++ )
+					nnz += (tmp[i] != 0) ? 1 : 0;
+				int[] rptr = new int[rlen+1];
+				int[] cix = new int[nnz];
+				double[] vals = new double[nnz];
 				for( int i=0, pos=0; i<rlen; i++ ) {
-					double val = in.quickGetValue(i, 0);
-					if( val != 0 ) {
+					if( tmp[i] != 0 ) {
 						cix[pos] = i;
-						vals[pos] = val;
+						vals[pos] = tmp[i];
 						pos++;
 					}
-					rptr[i+1]=pos;
+					rptr[i+1] = pos;
 				}
-				out.sparseBlock = new SparseBlockCSR(
-					rptr, cix, vals, (int)in.nonZeros);
+				out.sparseBlock = new SparseBlockCSR(rptr, cix, vals, nnz);
+				out.setNonZeros(nnz);
+				return;
 			}
 			else {
 				out.allocateBlock();
@@ -1680,7 +1711,7 @@ public class LibMatrixReorg
 		return rowwise ? ai*mcIn.getCols()+aj : ai+mcIn.getRows()*aj;
 	}
 
-	private static MatrixBlock removeEmptyRows(MatrixBlock in, MatrixBlock ret, MatrixBlock select, boolean emptyReturn) {
+	private static MatrixBlock removeEmptyRows(MatrixBlock in, MatrixBlock ret, MatrixBlock select, boolean emptyReturn, int k) {
 		final int m = in.rlen;
 		final int n = in.clen;
 		boolean[] flags = null;
@@ -1760,6 +1791,10 @@ public class LibMatrixReorg
 			else
 				ret.denseBlock = in.denseBlock;
 		}
+		else if( ret.sparse && isCSROutput(in.nonZeros) ) //SPARSE <- *
+		{
+			removeEmptyRowsToCSR(in, ret, flags, k);
+		}
 		else if( in.sparse ) //* <- SPARSE
 		{
 			//note: output dense or sparse
@@ -1803,7 +1838,7 @@ public class LibMatrixReorg
 		return ret;
 	}
 
-	private static MatrixBlock removeEmptyColumns(MatrixBlock in, MatrixBlock ret, MatrixBlock select, boolean emptyReturn) {
+	private static MatrixBlock removeEmptyColumns(MatrixBlock in, MatrixBlock ret, MatrixBlock select, boolean emptyReturn, int k) {
 		final int m = in.rlen;
 		final int n = in.clen;
 		
@@ -1872,7 +1907,11 @@ public class LibMatrixReorg
 			}
 			
 			//deep copy of modified outputs
-			if( in.sparse ) //* <- SPARSE
+			if( ret.sparse && isCSROutput(in.nonZeros) ) //SPARSE <- *
+			{
+				removeEmptyColumnsToCSR(in, ret, flags, cix, k);
+			}
+			else if( in.sparse ) //* <- SPARSE
 			{
 				//note: output dense or sparse
 				SparseBlock a = in.sparseBlock;
@@ -1924,13 +1963,17 @@ public class LibMatrixReorg
 		return ret;
 	}
 
-	private static MatrixBlock rexpandRows(MatrixBlock in, MatrixBlock ret, int max, boolean cast, boolean ignore) {
+	private static MatrixBlock rexpandRows(MatrixBlock in, MatrixBlock ret, int max, boolean cast, boolean ignore, int k) {
 		//set meta data
 		final int rlen = max;
 		final int clen = in.rlen;
 		final long nnz = in.nonZeros;
 		boolean sp = MatrixBlock.evalSparseFormatInMemory(rlen, clen, nnz);
 		ret.reset(rlen, clen, sp);
+		
+		//count-then-fill construction of sparse outputs in CSR
+		if( sp && isCSROutput(nnz) )
+			return rexpandRowsToCSR(in, ret, max, cast, ignore, k);
 
 		//setup temporary array for 'buffered append w/ sorting' in order
 		//to mitigate performance issues due to random row access for large m
@@ -1980,13 +2023,20 @@ public class LibMatrixReorg
 		final long nnz = in.nonZeros;
 		boolean sp = MatrixBlock.evalSparseFormatInMemory(rlen, clen, nnz);
 		ret.reset(rlen, clen, sp);
-		ret.allocateBlock();
+		
+		//target column indexes for single-pass CSR construction
+		int[] cix = null;
+		if( sp && SPARSE_OUTPUTS_IN_CSR ) {
+			cix = new int[rlen];
+			Arrays.fill(cix, -1);
+		}
+		else
+			ret.allocateBlock();
 		
 		//execute rexpand columns
 		long rnnz = 0; //real nnz (due to cutoff max)
-		if( k <= 1 || in.getNumRows() <= PAR_NUMCELL_THRESHOLD
-			|| (sp && SPARSE_OUTPUTS_IN_CSR) ) {
-			rnnz = rexpandColumns(in, ret, max, cast, ignore, 0, rlen);
+		if( k <= 1 || in.getNumRows() <= PAR_NUMCELL_THRESHOLD ) {
+			rnnz = rexpandColumns(in, ret, max, cast, ignore, 0, rlen, cix);
 		}
 		else {
 			try {
@@ -1994,8 +2044,8 @@ public class LibMatrixReorg
 				ArrayList<RExpandColsTask> tasks = new ArrayList<>();
 				int blklen = (int)(Math.ceil((double)rlen/k/8));
 				for( int i=0; i<8*k & i*blklen<rlen; i++ )
-					tasks.add(new RExpandColsTask(in, ret, 
-						max, cast, ignore, i*blklen, Math.min((i+1)*blklen, rlen)));
+					tasks.add(new RExpandColsTask(in, ret, max, cast, ignore,
+						i*blklen, Math.min((i+1)*blklen, rlen), cix));
 				List<Future<Long>> taskret = pool.invokeAll(tasks);	
 				pool.shutdown();
 				for( Future<Long> task : taskret )
@@ -2006,20 +2056,17 @@ public class LibMatrixReorg
 			}
 		}
 		
-		//post-processing
+		//post-processing (init CSR block once to avoid
+		//repeated updates of row pointers on append)
+		if( cix != null )
+			ret.sparseBlock = new SparseBlockCSR(rlen, (int)rnnz, cix);
 		ret.setNonZeros(rnnz);
 		
 		return ret;
 	}
 
-	private static long rexpandColumns(MatrixBlock in, MatrixBlock ret, int max, boolean cast, boolean ignore, int rl, int ru) {
-		//initialize auxiliary data structures 
+	private static long rexpandColumns(MatrixBlock in, MatrixBlock ret, int max, boolean cast, boolean ignore, int rl, int ru, int[] cix) {
 		int lnnz = 0;
-		int[] cix = null;
-		if( ret.sparse && SPARSE_OUTPUTS_IN_CSR ) {
-			cix = new int[in.rlen];
-			Arrays.fill(cix, -1);
-		}
 		
 		//expand input horizontally (input vector likely dense 
 		//but generic implementation for general case)
@@ -2052,17 +2099,337 @@ public class LibMatrixReorg
 			}
 		}
 		
-		//init CSR block once to avoid repeated updates of row pointers on append
-		if( cix != null )
-			ret.sparseBlock = new SparseBlockCSR(in.rlen, lnnz, cix);
+		//nnz of partition
+		return lnnz;
+	}
+	
+	///////////////////////////////////////
+	// count-then-fill CSR construction  //
+	///////////////////////////////////////
+	
+	private static boolean isCSROutput(long nnz) {
+		return SPARSE_OUTPUTS_IN_CSR && nnz < Integer.MAX_VALUE;
+	}
+	
+	/**
+	 * Transposes a dense or sparse input into a sparse output in CSR format.
+	 * The non-zeros per output row are counted per input row partition, and
+	 * the prefix sums over output rows and partitions give every partition
+	 * a disjoint write range per output row, which also preserves sorted
+	 * column indexes without any per-row allocations.
+	 * 
+	 * @param in input matrix
+	 * @param out output matrix
+	 * @param k degree of parallelism
+	 * @return output matrix
+	 */
+	private static MatrixBlock transposeToCSR(MatrixBlock in, MatrixBlock out, int k) {
+		final int n = in.clen;
+		int[] parts = getPartitions(in.rlen, k);
+		
+		//count non-zeros per column and partition
+		int[][] cnt = new int[parts.length-1][];
+		parallelFor(parts, (p, rl, ru) ->
+			cnt[p] = countNnzPerColumn(in, rl, ru, new int[n]));
+		int[] rptr = computeRowPointers(cnt, n);
+		
+		//fill column indexes and values into partition ranges
+		int nnz = rptr[n];
+		int[] cix = new int[nnz];
+		double[] cvals = new double[nnz];
+		parallelFor(parts, (p, rl, ru) -> {
+			int[] pos = cnt[p];
+			if( in.sparse ) {
+				SparseBlock a = in.sparseBlock;
+				for( int i=rl; i<ru; i++ ) {
+					if( a.isEmpty(i) ) continue;
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
+					for( int j=apos; j<apos+alen; j++ ) {
+						int cpos = pos[aix[j]]++;
+						cix[cpos] = i;
+						cvals[cpos] = avals[j];
+					}
+				}
+			}
+			else {
+				DenseBlock a = in.getDenseBlock();
+				for( int i=rl; i<ru; i++ ) {
+					double[] avals = a.values(i);
+					int aix = a.pos(i);
+					for( int j=0; j<n; j++ ) {
+						double aval = avals[aix+j];
+						if( aval != 0 ) {
+							int cpos = pos[j]++;
+							cix[cpos] = i;
+							cvals[cpos] = aval;
+						}
+					}
+				}
+			}
+		});
+		
+		out.sparseBlock = new SparseBlockCSR(rptr, cix, cvals, nnz);
+		out.nonZeros = nnz;
+		return out;
+	}
+	
+	private static void removeEmptyRowsToCSR(MatrixBlock in, MatrixBlock ret, boolean[] flags, int k) {
+		final int n = in.clen;
+		
+		//mapping of target rows to selected input rows
+		int[] rix = new int[ret.rlen];
+		int m2 = 0;
+		for( int i=0; i<Math.min(in.rlen, flags.length); i++ )
+			if( flags[i] )
+				rix[m2++] = i;
+		int[] parts = getPartitions(m2,
+			((long)m2 * n >= PAR_NUMCELL_THRESHOLD) ? k : 1);
+		
+		//count non-zeros per target row and compute row pointers
+		int[] rptr = new int[ret.rlen+1];
+		parallelFor(parts, (p, rl, ru) -> {
+			for( int ci=rl; ci<ru; ci++ )
+				rptr[ci+1] = in.sparse ? in.sparseBlock.size(rix[ci]) :
+					UtilFunctions.computeNnz(in.getDenseBlock().values(rix[ci]),
+						in.getDenseBlock().pos(rix[ci]), n);
+		});
+		for( int ci=0; ci<ret.rlen; ci++ )
+			rptr[ci+1] += rptr[ci];
+		
+		//copy selected rows into their target ranges
+		int nnz = rptr[ret.rlen];
+		int[] cix = new int[nnz];
+		double[] cvals = new double[nnz];
+		parallelFor(parts, (p, rl, ru) -> {
+			for( int ci=rl; ci<ru; ci++ ) {
+				int i = rix[ci];
+				if( in.sparse ) {
+					SparseBlock a = in.sparseBlock;
+					if( a.isEmpty(i) ) continue;
+					System.arraycopy(a.indexes(i), a.pos(i), cix, rptr[ci], a.size(i));
+					System.arraycopy(a.values(i), a.pos(i), cvals, rptr[ci], a.size(i));
+				}
+				else {
+					double[] avals = in.getDenseBlock().values(i);
+					int aix = in.getDenseBlock().pos(i);
+					for( int j=0, cpos=rptr[ci]; j<n; j++ )
+						if( avals[aix+j] != 0 ) {
+							cix[cpos] = j;
+							cvals[cpos++] = avals[aix+j];
+						}
+				}
+			}
+		});
+		
+		ret.sparseBlock = new SparseBlockCSR(rptr, cix, cvals, nnz);
+		ret.nonZeros = nnz;
+	}
+	
+	private static void removeEmptyColumnsToCSR(MatrixBlock in, MatrixBlock ret, boolean[] flags, int[] colmap, int k) {
+		final int m = in.rlen;
+		final int n = in.clen;
+		int[] parts = getPartitions(m,
+			((long)m * n >= PAR_NUMCELL_THRESHOLD) ? k : 1);
 		
-		//recompute nnz of partition
-		return ret.setNonZeros(lnnz);
+		//count non-zeros of selected columns per row and compute row pointers
+		int[] rptr = new int[m+1];
+		parallelFor(parts, (p, rl, ru) -> {
+			for( int i=rl; i<ru; i++ ) {
+				int lnnz = 0;
+				if( in.sparse ) {
+					SparseBlock a = in.sparseBlock;
+					if( a.isEmpty(i) ) continue;
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					for( int j=apos; j<apos+alen; j++ )
+						lnnz += flags[aix[j]] ? 1 : 0;
+				}
+				else {
+					double[] avals = in.getDenseBlock().values(i);
+					int aix = in.getDenseBlock().pos(i);
+					for( int j=0; j<n; j++ )
+						lnnz += (flags[j] && avals[aix+j] != 0) ? 1 : 0;
+				}
+				rptr[i+1] = lnnz;
+			}
+		});
+		for( int i=0; i<m; i++ )
+			rptr[i+1] += rptr[i];
+		
+		//copy selected columns with remapped indexes into target ranges
+		int nnz = rptr[m];
+		int[] cix = new int[nnz];
+		double[] cvals = new double[nnz];
+		parallelFor(parts, (p, rl, ru) -> {
+			for( int i=rl; i<ru; i++ ) {
+				int cpos = rptr[i];
+				if( in.sparse ) {
+					SparseBlock a = in.sparseBlock;
+					if( a.isEmpty(i) ) continue;
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
+					for( int j=apos; j<apos+alen; j++ )
+						if( flags[aix[j]] ) {
+							cix[cpos] = colmap[aix[j]];
+							cvals[cpos++] = avals[j];
+						}
+				}
+				else {
+					double[] avals = in.getDenseBlock().values(i);
+					int aix = in.getDenseBlock().pos(i);
+					for( int j=0; j<n; j++ )
+						if( flags[j] && avals[aix+j] != 0 ) {
+							cix[cpos] = colmap[j];
+							cvals[cpos++] = avals[aix+j];
+						}
+				}
+			}
+		});
+		
+		ret.sparseBlock = new SparseBlockCSR(rptr, cix, cvals, nnz);
+		ret.nonZeros = nnz;
+	}
+	
+	private static MatrixBlock rexpandRowsToCSR(MatrixBlock in, MatrixBlock ret, int max, boolean cast, boolean ignore, int k) {
+		final int m = in.rlen;
+		double[] tmp = new double[m];
+		copyColVector(in, 0, tmp, m);
+		int[] parts = getPartitions(m, (m >= PAR_NUMCELL_THRESHOLD) ? k : 1);
+		
+		//determine target rows, and count non-zeros per target row and partition
+		int[] tix = new int[m];
+		int[][] cnt = new int[parts.length-1][];
+		parallelFor(parts, (p, rl, ru) -> {
+			cnt[p] = new int[max];
+			for( int i=rl; i<ru; i++ )
+				if( (tix[i] = getExpandIndex(tmp[i], max, cast, ignore)) >= 0 )
+					cnt[p][tix[i]]++;
+		});
+		int[] rptr = computeRowPointers(cnt, max);
+		
+		//fill column indexes into partition ranges
+		int nnz = rptr[max];
+		int[] cix = new int[nnz];
+		double[] cvals = new double[nnz];
+		Arrays.fill(cvals, 1);
+		parallelFor(parts, (p, rl, ru) -> {
+			int[] pos = cnt[p];
+			for( int i=rl; i<ru; i++ )
+				if( tix[i] >= 0 )
+					cix[pos[tix[i]]++] = i;
+		});
+		
+		ret.sparseBlock = new SparseBlockCSR(rptr, cix, cvals, nnz);
+		ret.nonZeros = nnz;
+		return ret;
+	}
+	
+	private static int getExpandIndex(double val, int max, boolean cast, boolean ignore) {
+		//cast if necessary (table)
+		if( cast )
+			val = UtilFunctions.toLong(val);
+		//handle invalid values if not to be ignored
+		if( !ignore && val<=0 )
+			throw new DMLRuntimeException("Invalid input value <= 0 for ignore=false: "+val);
+		//target index if matching, otherwise -1
+		return (val == Math.floor(val) && val >= 1 && val <= max) ? (int)(val-1) : -1;
+	}
+	
+	private static int[] countNnzPerColumn(MatrixBlock in, int rl, int ru, int[] cnt) {
+		if( in.sparse ) {
+			SparseBlock a = in.sparseBlock;
+			for( int i=rl; i<ru; i++ )
+				if( !a.isEmpty(i) )
+					countAgg(cnt, a.indexes(i), a.pos(i), a.size(i));
+		}
+		else {
+			DenseBlock a = in.getDenseBlock();
+			for( int i=rl; i<ru; i++ ) {
+				double[] avals = a.values(i);
+				int aix = a.pos(i);
+				for( int j=0; j<cnt.length; j++ )
+					cnt[j] += (avals[aix+j] != 0) ? 1 : 0;
+			}
+		}
+		return cnt;
+	}
+	
+	/**
+	 * Computes the CSR row pointers from non-zero counts per partition and
+	 * row, and converts the counts in-place into the write offsets of each
+	 * partition per row.
+	 * 
+	 * @param cnt non-zero counts per partition and row
+	 * @param rlen number of rows
+	 * @return row pointers
+	 */
+	private static int[] computeRowPointers(int[][] cnt, int rlen) {
+		int[] rptr = new int[rlen+1];
+		for( int i=0, pos=0; i<rlen; i++ ) {
+			for( int p=0; p<cnt.length; p++ ) {
+				int lcnt = cnt[p][i];
+				cnt[p][i] = pos;
+				pos += lcnt;
+			}
+			rptr[i+1] = pos;
+		}
+		return rptr;
+	}
+	
+	static int[] getPartitions(int len, int k) {
+		int np = Math.max(Math.min(k, len), 1);
+		int[] ret = new int[np+1];
+		for( int p=1; p<=np; p++ )
+			ret[p] = (int)((long)len * p / np);
+		return ret;
+	}
+	
+	static void parallelFor(int[] parts, PartitionBody body) {
+		int np = parts.length - 1;
+		if( np == 1 ) {
+			body.execute(0, parts[0], parts[1]);
+			return;
+		}
+		ExecutorService pool = CommonThreadPool.get(np);
+		try {
+			ArrayList<Callable<Object>> tasks = new ArrayList<>();
+			for( int p=0; p<np; p++ ) {
+				final int p2 = p;
+				tasks.add(() -> { body.execute(p2, parts[p2], parts[p2+1]); return null; });
+			}
+			for( Future<Object> task : pool.invokeAll(tasks) )
+				task.get();
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+	
+	interface PartitionBody {
+		public void execute(int p, int lb, int ub);
 	}
 	
 	private static void copyColVector( MatrixBlock in, int ixin, double[] tmp, int[] tmpi, int len)
 	{
 		//copy value array from input matrix
+		copyColVector(in, ixin, tmp, len);
+		
+		//init index array
+		for( int i=0; i<len; i++ )
+			tmpi[i] = ixin + i;
+	}
+	
+	private static void copyColVector( MatrixBlock in, int ixin, double[] tmp, int len)
+	{
 		if( in.isEmptyBlock(false) ) {
 			Arrays.fill(tmp, 0, len, 0);
 		}
@@ -2073,10 +2440,6 @@ public class LibMatrixReorg
 		else { //DENSE
 			System.arraycopy(in.getDenseBlockValues(), ixin, tmp, 0, len);
 		}
-		
-		//init index array
-		for( int i=0; i<len; i++ )
-			tmpi[i] = ixin + i;
 	}
 	
 
@@ -2325,8 +2688,9 @@ public class LibMatrixReorg
 		private final boolean _ignore;
 		private final int _rl;
 		private final int _ru;
+		private final int[] _cix;
 
-		protected RExpandColsTask(MatrixBlock in, MatrixBlock out, int max, boolean cast, boolean ignore, int rl, int ru) {
+		protected RExpandColsTask(MatrixBlock in, MatrixBlock out, int max, boolean cast, boolean ignore, int rl, int ru, int[] cix) {
 			_in = in;
 			_out = out;
 			_max = max;
@@ -2334,11 +2698,12 @@ public class LibMatrixReorg
 			_ignore = ignore;
 			_rl = rl;
 			_ru = ru;
+			_cix = cix;
 		}
 		
 		@Override
 		public Long call() {
-			return rexpandColumns(_in, _out, _max, _cast, _ignore, _rl, _ru);
+			return rexpandColumns(_in, _out, _max, _cast, _ignore, _rl, _ru, _cix);
 		}
 	}
 }
@@ -55,6 +55,7 @@ import org.tugraz.sysds.runtime.data.DenseBlockFactory;
 import org.tugraz.sysds.runtime.data.SparseBlock;
 import org.tugraz.sysds.runtime.data.SparseBlockCOO;
 import org.tugraz.sysds.runtime.data.SparseBlockCSR;
+import org.tugraz.sysds.runtime.data.SparseBlockDCSR;
 import org.tugraz.sysds.runtime.data.SparseBlockFactory;
 import org.tugraz.sysds.runtime.data.SparseBlockMCSR;
 import org.tugraz.sysds.runtime.data.SparseRow;
@@ -125,6 +126,11 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 	public static final SparseBlock.Type DEFAULT_SPARSEBLOCK = SparseBlock.Type.MCSR;
 	//default sparse block type for update in place: compressed sparse rows, to prevent serialization
 	public static final SparseBlock.Type DEFAULT_INPLACE_SPARSEBLOCK = SparseBlock.Type.CSR;
+	//empty row ratio and min number of rows for doubly compressed sparse rows (ultra-sparse, skewed)
+	public static final double DCSR_EMPTY_ROW_RATIO = 0.9;
+	public static final int DCSR_MIN_ROWS = 4096;
+	//flag if ultra-sparse matrices are converted to DCSR on examSparsity (see sysml.sparse.dcsr)
+	public static boolean CONVERT_TO_DCSR = false;
 	//allowed overhead for shallow serialize in terms of in-memory-size/x <= serialized-size 
 	public static final double MAX_SHALLOW_SERIALIZE_OVERHEAD = 2; //2x size of serialized
 	//flag if MCSR blocks that do not qualify for shallow serialize should be converted to CSR
@@ -1022,6 +1028,24 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 			sparseToDense();
 		else if( !sparse && sparseDst )
 			denseToSparse(allowCSR);
+		
+		//change to doubly compressed rows if many empty rows
+		if( sparse && allowCSR && evalDCSRFormatInMemory() )
+			sparseBlock = SparseBlockFactory.copySparseBlock(
+				SparseBlock.Type.DCSR, sparseBlock, false);
+	}
+	
+	/**
+	 * Evaluates if this sparse matrix block should use the doubly
+	 * compressed sparse row format in memory. We only use an upper bound
+	 * of non-empty rows by nnz, in order to avoid scanning the rows.
+	 * 
+	 * @return true if matrix block should be in DCSR format in memory
+	 */
+	private boolean evalDCSRFormatInMemory() {
+		return CONVERT_TO_DCSR && sparseBlock != null && rlen >= DCSR_MIN_ROWS
+			&& nonZeros > 0 && nonZeros <= (1-DCSR_EMPTY_ROW_RATIO) * rlen
+			&& !(sparseBlock instanceof SparseBlockDCSR);
 	}
 	
 	/**
@@ -1850,7 +1874,18 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 		
 		DenseBlock a = getDenseBlock();
 		long nnz = 0;
-		if( in instanceof MatrixBlockDataInput ) { //fast deserialize
+		if( a.isOffHeap() ) { //row-wise deserialize (off-heap)
+			double[] tmp = new double[clen];
+			for( int i=0; i<rlen; i++ ) {
+				if( in instanceof MatrixBlockDataInput )
+					nnz += ((MatrixBlockDataInput)in).readDoubleArray(clen, tmp);
+				else
+					for( int j=0; j<clen; j++ )
+						nnz += ((tmp[j] = in.readDouble()) != 0) ? 1 : 0;
+				a.setRow(i, 0, clen, tmp, 0);
+			}
+		}
+		else if( in instanceof MatrixBlockDataInput ) { //fast deserialize
 			MatrixBlockDataInput mbin = (MatrixBlockDataInput)in;
 			for( int i=0; i<a.numBlocks(); i++ )
 				nnz += mbin.readDoubleArray(a.size(i), a.valuesAt(i));
@@ -2026,7 +2061,18 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 		out.writeByte( BlockType.DENSE_BLOCK.ordinal() );
 		
 		DenseBlock a = getDenseBlock();
-		if( out instanceof MatrixBlockDataOutput ) { //fast serialize
+		if( a.isOffHeap() ) { //row-wise serialize (off-heap)
+			double[] tmp = new double[clen];
+			for( int i=0; i<rlen; i++ ) {
+				a.getRow(i, 0, clen, tmp, 0);
+				if( out instanceof MatrixBlockDataOutput )
+					((MatrixBlockDataOutput)out).writeDoubleArray(clen, tmp);
+				else
+					for( int j=0; j<clen; j++ )
+						out.writeDouble(tmp[j]);
+			}
+		}
+		else if( out instanceof MatrixBlockDataOutput ) { //fast serialize
 			MatrixBlockDataOutput mout = (MatrixBlockDataOutput)out;
 			for(int i=0; i<a.numBlocks(); i++)
 				mout.writeDoubleArray(a.size(i), a.valuesAt(i));
@@ -3951,8 +3997,17 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 			DenseBlock a = getDenseBlock();
 			DenseBlock c = dest.getDenseBlock();
 			int len = dest.clen;
-			for(int i = rl; i <= ru; i++)
-				System.arraycopy(a.values(i), a.pos(i)+cl, c.values(i-rl), c.pos(i-rl), len);
+			if( c.isOffHeap() ) {
+				double[] tmp = new double[len];
+				for(int i = rl; i <= ru; i++) {
+					a.getRow(i, cl, cu+1, tmp, 0);
+					c.setRow(i-rl, 0, len, tmp, 0);
+				}
+			}
+			else {
+				for(int i = rl; i <= ru; i++)
+					a.getRow(i, cl, cu+1, c.values(i-rl), c.pos(i-rl));
+			}
 		}
 		
 		//compute nnz of output (not maintained due to native calls)
@@ -4968,7 +5023,11 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 	}
 
 	public MatrixBlock removeEmptyOperations( MatrixBlock ret, boolean rows, boolean emptyReturn, MatrixBlock select ) {
-		return LibMatrixReorg.rmempty(this, ret, rows, emptyReturn, select);
+		return removeEmptyOperations(ret, rows, emptyReturn, select, 1);
+	}
+	
+	public MatrixBlock removeEmptyOperations( MatrixBlock ret, boolean rows, boolean emptyReturn, MatrixBlock select, int k ) {
+		return LibMatrixReorg.rmempty(this, ret, rows, emptyReturn, select, k);
 	}
 
 	public MatrixBlock removeEmptyOperations( MatrixBlock ret, boolean rows, boolean emptyReturn) {
@@ -5492,6 +5551,12 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 		MatrixBlock out = new MatrixBlock();
 		Well1024a bigrand = null;
 
+		//counter-based rand w/o block-level seeds
+		if( LibMatrixDatagen.COUNTER_BASED_PRNG ) {
+			LibMatrixDatagen.generateRandomMatrixCounterBased(out, rgen, seed, k);
+			return out;
+		}
+
 		//setup seeds and nnz per block
 		if( !LibMatrixDatagen.isShortcutRandOperation(rgen._min, rgen._max, rgen._sparsity, rgen._pdf) )
 			bigrand = LibMatrixDatagen.setupSeedsForRand(seed);
@@ -5588,6 +5653,12 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 		LibMatrixDatagen.generateSample( out, range, size, replace, seed );
 		return out;
 	}
+
+	public static MatrixBlock sampleOperations(long range, int size, boolean replace, long seed, int k) {
+		MatrixBlock out = new MatrixBlock();
+		LibMatrixDatagen.generateSample( out, range, size, replace, seed, k );
+		return out;
+	}
 	
 	////////
 	// Misc methods
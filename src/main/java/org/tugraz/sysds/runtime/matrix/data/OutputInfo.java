@@ -23,10 +23,12 @@ package org.tugraz.sysds.runtime.matrix.data;
 import java.io.Serializable;
 import java.util.Arrays;
 
+import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.FileOutputFormat;
 import org.apache.hadoop.mapred.OutputFormat;
 import org.apache.hadoop.mapred.SequenceFileOutputFormat;
 import org.apache.hadoop.mapred.TextOutputFormat;
@@ -62,6 +64,8 @@ public class OutputInfo implements Serializable
 	public static final OutputInfo CSVOutputInfo = null;
 	public static final OutputInfo LIBSVMOutputInfo = new OutputInfo (TextOutputFormat.class, 
 			NullWritable.class, Text.class);
+	public static final OutputInfo ColumnarOutputInfo = new OutputInfo (FileOutputFormat.class, 
+			NullWritable.class, BytesWritable.class);
 	
 	public static InputInfo getMatchingInputInfo(OutputInfo oi) {
 		if ( oi == OutputInfo.BinaryBlockOutputInfo )
@@ -76,6 +80,8 @@ public class OutputInfo implements Serializable
 			return InputInfo.CSVInputInfo;
 		else if ( oi == OutputInfo.LIBSVMOutputInfo)
 			return InputInfo.LIBSVMInputInfo;
+		else if ( oi == OutputInfo.ColumnarOutputInfo)
+			return InputInfo.ColumnarInputInfo;
 		else 
 			throw new DMLRuntimeException("Unrecognized output info: " + oi);
 	}
@@ -93,6 +99,8 @@ public class OutputInfo implements Serializable
 			return CSVOutputInfo;
 		else if ( str.equalsIgnoreCase("libsvm") )
 			return LIBSVMOutputInfo;
+		else if ( str.equalsIgnoreCase("columnar") )
+			return ColumnarOutputInfo;
 		return null;
 	}
 	
@@ -109,6 +117,8 @@ public class OutputInfo implements Serializable
 			return "csv";
 		else if ( oi == LIBSVMOutputInfo)
 			return "libsvm";
+		else if ( oi == ColumnarOutputInfo)
+			return "columnar";
 		else
 			throw new DMLRuntimeException("Unrecognized outputInfo: " + oi);
 	}
@@ -123,6 +133,8 @@ public class OutputInfo implements Serializable
 			return DataExpression.FORMAT_TYPE_VALUE_CSV;
 		else if( oinfo == OutputInfo.LIBSVMOutputInfo)
 			return DataExpression.FORMAT_TYPE_VALUE_LIBSVM;
+		else if( oinfo == OutputInfo.ColumnarOutputInfo)
+			return DataExpression.FORMAT_TYPE_VALUE_COLUMNAR;
 		else if( oinfo == OutputInfo.BinaryBlockOutputInfo 
 				|| oinfo == OutputInfo.BinaryCellOutputInfo )
 			return DataExpression.FORMAT_TYPE_VALUE_BINARY;
@@ -56,8 +56,13 @@ public class BinaryOperator  extends Operator implements Serializable
 	private static final long serialVersionUID = -2547950181558989209L;
 
 	public final ValueFunction fn;
+	private final int k; //num threads
 	
 	public BinaryOperator(ValueFunction p) {
+		this(p, 1); //default single-threaded
+	}
+	
+	public BinaryOperator(ValueFunction p, int numThreads) {
 		//binaryop is sparse-safe iff (0 op 0) == 0
 		super (p instanceof Plus || p instanceof Multiply || p instanceof Minus
 			|| p instanceof PlusMultiply || p instanceof MinusMultiply
@@ -65,6 +70,11 @@ public class BinaryOperator  extends Operator implements Serializable
 			|| p instanceof BitwAnd || p instanceof BitwOr || p instanceof BitwXor
 			|| p instanceof BitwShiftL || p instanceof BitwShiftR);
 		fn = p;
+		k = numThreads;
+	}
+	
+	public int getNumThreads() {
+		return k;
 	}
 	
 	/**
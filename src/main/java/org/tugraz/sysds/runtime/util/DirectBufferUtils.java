@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.runtime.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+
+/**
+ * Explicit deallocation of direct buffers via reflection, which avoids
+ * compile-time dependencies on JDK-internal classes: Unsafe.invokeCleaner
+ * (Java 9+) or the buffer's cleaner (Java 8). Without explicit deallocation,
+ * direct buffers are only freed once the garbage collector cleans them up.
+ */
+public class DirectBufferUtils
+{
+	private static final Method CLEAN;
+	private static final Object TARGET;
+	private static final Method CLEANER;
+
+	static {
+		Method clean = null, cleaner = null;
+		Object target = null;
+		try {
+			Class<?> clazz = Class.forName("sun.misc.Unsafe");
+			Field f = clazz.getDeclaredField("theUnsafe");
+			f.setAccessible(true);
+			clean = clazz.getMethod("invokeCleaner", ByteBuffer.class);
+			target = f.get(null);
+		}
+		catch(Exception ex) {
+			//fallback to java 8
+			try {
+				clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+				cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+			}
+			catch(Exception ex2) {
+				clean = null;
+			}
+		}
+		CLEAN = clean;
+		TARGET = target;
+		CLEANER = cleaner;
+	}
+
+	private DirectBufferUtils() {
+		//prevent instantiation via private constructor
+	}
+
+	/**
+	 * Indicates if the explicit deallocation of direct buffers
+	 * is supported by the JVM.
+	 * 
+	 * @return true if explicit deallocation supported
+	 */
+	public static boolean isSupported() {
+		return CLEAN != null;
+	}
+
+	/**
+	 * Frees the memory of the given direct buffer, if supported. The
+	 * buffer (and all its views) must not be accessed afterwards.
+	 * 
+	 * @param buf direct byte buffer
+	 */
+	public static void free(ByteBuffer buf) {
+		if( CLEAN == null || buf == null || !buf.isDirect() )
+			return;
+		try {
+			if( CLEANER == null ) //java 9+
+				CLEAN.invoke(TARGET, buf);
+			else //java 8
+				CLEAN.invoke(CLEANER.invoke(buf));
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException("Failed to free direct buffer.", ex);
+		}
+	}
+}
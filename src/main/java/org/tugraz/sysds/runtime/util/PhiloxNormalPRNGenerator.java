@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.runtime.util;
+
+/**
+ * Counter-based generator of standard normal numbers N(0,1), which applies
+ * the Box-Muller transform to the two uniform numbers of a Philox output
+ * block, and thus retains random access by position.
+ */
+public class PhiloxNormalPRNGenerator extends PhiloxPRNGenerator
+{
+	private final RandNPair _pair = new RandNPair();
+	private long _pairPos = -1;
+
+	public PhiloxNormalPRNGenerator() {
+		super();
+	}
+
+	public PhiloxNormalPRNGenerator(long seed) {
+		super(seed);
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		super.setSeed(seed);
+		_pairPos = -1;
+	}
+
+	@Override
+	public void setStream(long stream) {
+		super.setStream(stream);
+		_pairPos = -1;
+	}
+
+	@Override
+	public double getDouble(long pos) {
+		long ppos = pos & ~1L;
+		if( ppos != _pairPos ) {
+			//shift to (0,1] to avoid log(0)
+			_pair.compute(1 - super.getDouble(ppos), super.getDouble(ppos + 1));
+			_pairPos = ppos;
+		}
+		return ((pos & 1) == 0) ? _pair.getFirst() : _pair.getSecond();
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.runtime.util;
+
+/**
+ * Counter-based pseudo random number generator Philox4x32-10 (Salmon et al.,
+ * "Parallel random numbers: as easy as 1, 2, 3", SC 2011). Each output block
+ * of 128 bits is a keyed bijection of a 128-bit counter, composed of a 64-bit
+ * position and a 64-bit stream id. Hence, the i-th random number of a stream is
+ * obtained via random access, which allows multiple threads to reproducibly
+ * generate arbitrary parts of a sequence without sequential seed setup.
+ */
+public class PhiloxPRNGenerator extends PRNGenerator
+{
+	private static final long M0 = 0xD2511F53L;
+	private static final long M1 = 0xCD9E8D57L;
+	private static final int W0 = 0x9E3779B9;
+	private static final int W1 = 0xBB67AE85;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+	private long _key;
+	private long _stream;
+	private long _pos;
+
+	//buffered output block (two 64-bit numbers)
+	private final int[] _buff = new int[4];
+	private long _block = -1;
+
+	public PhiloxPRNGenerator() {
+		this(System.nanoTime());
+	}
+
+	public PhiloxPRNGenerator(long seed) {
+		setSeed(seed);
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		_key = seed;
+		_stream = 0;
+		_pos = 0;
+		_block = -1;
+	}
+
+	public long getSeed() {
+		return _key;
+	}
+
+	/**
+	 * Sets the stream id, i.e., the upper half of the counter, and resets
+	 * the position to the beginning of this stream.
+	 *
+	 * @param stream stream id
+	 */
+	public void setStream(long stream) {
+		_stream = stream;
+		_pos = 0;
+		_block = -1;
+	}
+
+	public void setPosition(long pos) {
+		_pos = pos;
+	}
+
+	public long getPosition() {
+		return _pos;
+	}
+
+	@Override
+	public double nextDouble() {
+		return getDouble(_pos++);
+	}
+
+	public long nextLong() {
+		return getLong(_pos++);
+	}
+
+	/**
+	 * Gets the random number at the given position of the current stream
+	 * (without modifying the position of sequential draws), which is a
+	 * uniform number in [0,1) for this generator.
+	 *
+	 * @param pos position
+	 * @return random number
+	 */
+	public double getDouble(long pos) {
+		return (getLong(pos) >>> 11) * DOUBLE_UNIT;
+	}
+
+	public long getLong(long pos) {
+		long block = pos >>> 1;
+		if( block != _block ) {
+			philox(_key, block, _stream, _buff);
+			_block = block;
+		}
+		int off = (int)(pos & 1) << 1;
+		return ((long)_buff[off] << 32) | (_buff[off+1] & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Computes a single Philox4x32 block with 10 rounds.
+	 *
+	 * @param key 64-bit key
+	 * @param ctr lower 64 bits of the counter
+	 * @param stream upper 64 bits of the counter
+	 * @param out output array of four 32-bit words
+	 */
+	public static void philox(long key, long ctr, long stream, int[] out) {
+		int c0 = (int) ctr, c1 = (int) (ctr >>> 32);
+		int c2 = (int) stream, c3 = (int) (stream >>> 32);
+		int k0 = (int) key, k1 = (int) (key >>> 32);
+		for( int i=0; i<10; i++ ) {
+			long p0 = M0 * (c0 & 0xFFFFFFFFL);
+			long p1 = M1 * (c2 & 0xFFFFFFFFL);
+			c0 = (int)(p1 >>> 32) ^ c1 ^ k0;
+			c1 = (int) p1;
+			c2 = (int)(p0 >>> 32) ^ c3 ^ k1;
+			c3 = (int) p0;
+			k0 += W0;
+			k1 += W1;
+		}
+		out[0] = c0;
+		out[1] = c1;
+		out[2] = c2;
+		out[3] = c3;
+	}
+}
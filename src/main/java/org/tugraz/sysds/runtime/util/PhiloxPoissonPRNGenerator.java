@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.runtime.util;
+
+import org.apache.commons.math3.distribution.PoissonDistribution;
+import org.apache.commons.math3.random.AbstractRandomGenerator;
+
+/**
+ * Counter-based generator of Poisson distributed numbers. Since sampling
+ * consumes a variable number of uniform numbers, the number at position i
+ * is sampled from a dedicated Philox stream i, which retains random access.
+ */
+public class PhiloxPoissonPRNGenerator extends PhiloxPRNGenerator
+{
+	//key offset of the per-position sub streams
+	private static final long SUBSTREAM_KEY = 0x632BE59BD9B4E019L;
+
+	private final PhiloxAdapter _rand = new PhiloxAdapter();
+	private final PoissonDistribution _pdist;
+
+	public PhiloxPoissonPRNGenerator(double mean) {
+		super();
+		_pdist = new PoissonDistribution(_rand, mean,
+			PoissonDistribution.DEFAULT_EPSILON, PoissonDistribution.DEFAULT_MAX_ITERATIONS);
+	}
+
+	public PhiloxPoissonPRNGenerator(double mean, long seed) {
+		this(mean);
+		setSeed(seed);
+	}
+
+	@Override
+	public double getDouble(long pos) {
+		_rand.reset(getSeed() ^ SUBSTREAM_KEY, pos);
+		return _pdist.sample();
+	}
+
+	/**
+	 * Uniform random generator over a Philox stream, which provides the
+	 * derived draws (e.g., gaussian) required by the Poisson sampler.
+	 */
+	private static class PhiloxAdapter extends AbstractRandomGenerator
+	{
+		private final PhiloxPRNGenerator _gen = new PhiloxPRNGenerator(0);
+
+		public void reset(long key, long stream) {
+			_gen.setSeed(key);
+			_gen.setStream(stream);
+			clear();
+		}
+
+		@Override
+		public void setSeed(long seed) {
+			reset(seed, 0);
+		}
+
+		@Override
+		public double nextDouble() {
+			return _gen.nextDouble();
+		}
+	}
+}
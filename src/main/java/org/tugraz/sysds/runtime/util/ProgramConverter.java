@@ -456,6 +456,7 @@ public class ProgramConverter
 					//otherwise: preserve function name
 				}
 				inst = InstructionParser.parseSingleInstruction(tmpString);
+				inst.setLocation(oInst);
 			}
 			else
 				throw new DMLRuntimeException("Failed to clone instruction: "+oInst);
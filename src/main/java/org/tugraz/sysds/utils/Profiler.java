@@ -0,0 +1,289 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.tugraz.sysds.parser.StatementBlock;
+import org.tugraz.sysds.runtime.controlprogram.ProgramBlock;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
+import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
+import org.tugraz.sysds.runtime.instructions.Instruction;
+import org.tugraz.sysds.runtime.instructions.cp.CPOperand;
+import org.tugraz.sysds.runtime.instructions.cp.ComputationCPInstruction;
+import org.tugraz.sysds.runtime.instructions.cp.Data;
+import org.tugraz.sysds.runtime.io.IOUtilFunctions;
+import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+
+/**
+ * Instruction-level execution profiler, which records per executed instruction
+ * the originating DML script line and hop ID, wall time, allocated bytes, as
+ * well as input/output sizes and sparsity. The profile is exported either as 
+ * Chrome trace JSON (*.json, loadable via chrome://tracing), or in collapsed-stack
+ * format (file;lines;instruction time_us) as consumed by common flame graph tools.
+ * 
+ * The profiler is only invoked if enabled (-profile), i.e., the overhead when
+ * disabled is a single flag check per instruction.
+ */
+public class Profiler 
+{
+	//max number of retained trace events (aggregated stacks are unbounded)
+	public static final int MAX_TRACE_EVENTS = 1000000;
+	
+	private static final ThreadMXBean _tmxb = ManagementFactory.getThreadMXBean();
+	private static final boolean _allocSupported = isAllocatedBytesSupported();
+	
+	private static final ConcurrentHashMap<String, LongAdder> _stacks = new ConcurrentHashMap<>();
+	private static final ConcurrentLinkedQueue<ProfileEvent> _events = new ConcurrentLinkedQueue<>();
+	private static final AtomicInteger _numEvents = new AtomicInteger(0);
+	private static long _startTime = System.nanoTime();
+	
+	public static void reset() {
+		_stacks.clear();
+		_events.clear();
+		_numEvents.set(0);
+		_startTime = System.nanoTime();
+	}
+	
+	/**
+	 * Obtains the number of bytes allocated by the current thread,
+	 * if supported by the JVM. 
+	 * 
+	 * @return allocated bytes, or 0 if not supported
+	 */
+	public static long getAllocatedBytes() {
+		return _allocSupported ? ((com.sun.management.ThreadMXBean)_tmxb)
+			.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+	}
+	
+	/**
+	 * Maintains the profile for an executed instruction.
+	 * 
+	 * @param pb program block of the instruction
+	 * @param inst executed instruction
+	 * @param ec execution context
+	 * @param t0 start time in nano seconds
+	 * @param t1 end time in nano seconds
+	 * @param alloc0 allocated bytes of current thread at start
+	 */
+	public static void maintainProfile(ProgramBlock pb, Instruction inst, ExecutionContext ec, long t0, long t1, long alloc0) {
+		long alloc = _allocSupported ? getAllocatedBytes() - alloc0 : -1;
+		String opcode = inst.getExtendedOpcode();
+		
+		//aggregate collapsed stack (time in micro seconds)
+		String stack = createStack(pb, inst, opcode);
+		_stacks.computeIfAbsent(stack, k -> new LongAdder()).add((t1-t0)/1000);
+		
+		//retain trace event (incl input/output characteristics)
+		if( _numEvents.incrementAndGet() <= MAX_TRACE_EVENTS ) {
+			String[] inputs = null;
+			String output = null;
+			if( inst instanceof ComputationCPInstruction ) {
+				ComputationCPInstruction cinst = (ComputationCPInstruction) inst;
+				inputs = new String[]{getDataInfo(ec, cinst.input1),
+					getDataInfo(ec, cinst.input2), getDataInfo(ec, cinst.input3)};
+				output = getDataInfo(ec, cinst.output);
+			}
+			_events.add(new ProfileEvent(opcode, inst.getLineNum(), inst.getHopID(),
+				Thread.currentThread().getId(), t0, t1, alloc, inputs, output));
+		}
+	}
+	
+	public static int getNumEvents() {
+		return _numEvents.get();
+	}
+	
+	/**
+	 * Writes the obtained profile to the given file, where the output
+	 * format is chosen by the file extension: Chrome trace JSON for
+	 * *.json, and collapsed stacks otherwise.
+	 * 
+	 * @param fname output filename (local/hdfs)
+	 * @throws IOException if IOException occurs
+	 */
+	public static void writeProfile(String fname) 
+		throws IOException
+	{
+		Path path = new Path(fname);
+		FileSystem fs = IOUtilFunctions.getFileSystem(path);
+		BufferedWriter br = new BufferedWriter(new OutputStreamWriter(fs.create(path, true)));
+		try {
+			if( fname.toLowerCase().endsWith(".json") )
+				writeChromeTrace(br);
+			else
+				writeCollapsedStacks(br);
+		}
+		finally {
+			IOUtilFunctions.closeSilently(br);
+		}
+	}
+	
+	public static String getCollapsedStacks() {
+		StringBuilder sb = new StringBuilder();
+		for( Entry<String, LongAdder> e : _stacks.entrySet() ) {
+			sb.append(e.getKey());
+			sb.append(' ');
+			sb.append(e.getValue().longValue());
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+	
+	private static void writeCollapsedStacks(BufferedWriter br) throws IOException {
+		br.write(getCollapsedStacks());
+	}
+	
+	private static void writeChromeTrace(BufferedWriter br) throws IOException {
+		br.write("{\"traceEvents\":[\n");
+		boolean first = true;
+		StringBuilder sb = new StringBuilder();
+		for( ProfileEvent e : _events ) {
+			sb.setLength(0);
+			if( !first )
+				sb.append(",\n");
+			e.appendJSON(sb, _startTime);
+			br.write(sb.toString());
+			first = false;
+		}
+		br.write("\n],\"displayTimeUnit\":\"ms\"}\n");
+	}
+	
+	private static String createStack(ProgramBlock pb, Instruction inst, String opcode) {
+		StatementBlock sb = (pb != null) ? pb.getStatementBlock() : null;
+		StringBuilder ret = new StringBuilder();
+		ret.append(sanitize(inst.getFilename()!=null ? inst.getFilename() :
+			(sb!=null && sb.getFilename()!=null) ? sb.getFilename() : "main"));
+		ret.append(';');
+		if( sb != null ) {
+			ret.append("lines ");
+			ret.append(sb.getBeginLine());
+			ret.append('-');
+			ret.append(sb.getEndLine());
+			ret.append(';');
+		}
+		ret.append("line ");
+		ret.append(inst.getLineNum());
+		ret.append(' ');
+		ret.append(sanitize(opcode));
+		if( inst.getHopID() >= 0 ) {
+			ret.append(" (hop ");
+			ret.append(inst.getHopID());
+			ret.append(')');
+		}
+		return ret.toString();
+	}
+	
+	private static String getDataInfo(ExecutionContext ec, CPOperand op) {
+		if( op == null || op.isLiteral() )
+			return null;
+		Data dat = ec.getVariable(op.getName());
+		if( !(dat instanceof CacheableData<?>) )
+			return null;
+		MatrixCharacteristics mc = ((CacheableData<?>)dat).getMatrixCharacteristics();
+		double sp = (mc.getNonZeros() >= 0 && mc.getRows() > 0 && mc.getCols() > 0) ?
+			(double)mc.getNonZeros() / mc.getRows() / mc.getCols() : -1;
+		return mc.getRows() + "x" + mc.getCols() + (sp >= 0 ? ", sp=" + String.format("%.4f", sp) : "");
+	}
+	
+	private static String sanitize(String str) {
+		return str.replace(';', ',').replace(' ', '_');
+	}
+	
+	private static String escapeJSON(String str) {
+		return str.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+	
+	private static boolean isAllocatedBytesSupported() {
+		try {
+			return _tmxb instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean)_tmxb).isThreadAllocatedMemoryEnabled();
+		}
+		catch(Throwable ex) { //e.g., non-hotspot JVMs
+			return false;
+		}
+	}
+	
+	private static class ProfileEvent {
+		private final String _opcode;
+		private final int _line;
+		private final long _hopID;
+		private final long _tid;
+		private final long _t0, _t1;
+		private final long _alloc;
+		private final String[] _inputs;
+		private final String _output;
+		
+		public ProfileEvent(String opcode, int line, long hopID, long tid, 
+			long t0, long t1, long alloc, String[] inputs, String output) {
+			_opcode = opcode;
+			_line = line;
+			_hopID = hopID;
+			_tid = tid;
+			_t0 = t0;
+			_t1 = t1;
+			_alloc = alloc;
+			_inputs = inputs;
+			_output = output;
+		}
+		
+		public void appendJSON(StringBuilder sb, long startTime) {
+			sb.append("{\"name\":\"");
+			sb.append(escapeJSON(_opcode));
+			sb.append("\",\"cat\":\"inst\",\"ph\":\"X\",\"pid\":1,\"tid\":");
+			sb.append(_tid);
+			sb.append(",\"ts\":");
+			sb.append((_t0-startTime)/1000d);
+			sb.append(",\"dur\":");
+			sb.append((_t1-_t0)/1000d);
+			sb.append(",\"args\":{\"line\":");
+			sb.append(_line);
+			sb.append(",\"hop\":");
+			sb.append(_hopID);
+			if( _alloc >= 0 ) {
+				sb.append(",\"allocBytes\":");
+				sb.append(_alloc);
+			}
+			if( _inputs != null ) {
+				for( int i=0; i<_inputs.length; i++ )
+					if( _inputs[i] != null ) {
+						sb.append(",\"in");
+						sb.append(i+1);
+						sb.append("\":\"");
+						sb.append(_inputs[i]);
+						sb.append('"');
+					}
+			}
+			if( _output != null ) {
+				sb.append(",\"out\":\"");
+				sb.append(_output);
+				sb.append('"');
+			}
+			sb.append("}}");
+		}
+	}
+}
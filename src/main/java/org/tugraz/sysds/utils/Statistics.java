@@ -83,6 +83,7 @@ public class Statistics
 	private static final LongAdder hopRecompileTime = new LongAdder(); //in nano sec
 	private static final LongAdder hopRecompilePred = new LongAdder(); //count
 	private static final LongAdder hopRecompileSB = new LongAdder();   //count
+	private static final LongAdder hopRecompileCacheHits = new LongAdder(); //count
 
 	//CODEGEN
 	private static final LongAdder codegenCompileTime = new LongAdder(); //in nano
@@ -127,6 +128,9 @@ public class Statistics
 	private static long parforOptCount = 0; //count
 	private static long parforInitTime = 0; //in milli sec
 	private static long parforMergeTime = 0; //in milli sec
+	private static final LongAdder parforIdleTime = new LongAdder(); //in milli sec
+	private static final LongAdder parforSteals = new LongAdder(); //count
+	private static final LongAdder parforDirtyMerges = new LongAdder(); //count
 
 	private static final LongAdder lTotalUIPVar = new LongAdder();
 	private static final LongAdder lTotalLix = new LongAdder();
@@ -247,6 +251,10 @@ public class Statistics
 		hopRecompileSB.add(delta);
 	}
 	
+	public static void incrementHOPRecompileCacheHits() {
+		hopRecompileCacheHits.increment();
+	}
+	
 	public static void incrementCodegenDAGCompile() {
 		codegenHopCompile.increment();
 	}
@@ -368,6 +376,18 @@ public class Statistics
 	public static synchronized void incrementParForMergeTime( long time ) {
 		parforMergeTime += time;
 	}
+	
+	public static void incrementParForIdleTime( long time ) {
+		parforIdleTime.add(time);
+	}
+	
+	public static void incrementParForSteals( long count ) {
+		parforSteals.add(count);
+	}
+	
+	public static void incrementParForDirtyRegionMerges() {
+		parforDirtyMerges.increment();
+	}
 
 	public static void startCompileTimer() {
 		if( DMLScript.STATISTICS )
@@ -413,6 +433,7 @@ public class Statistics
 		hopRecompileTime.reset();
 		hopRecompilePred.reset();
 		hopRecompileSB.reset();
+		hopRecompileCacheHits.reset();
 		
 		funRecompiles.reset();
 		funRecompileTime.reset();
@@ -435,6 +456,9 @@ public class Statistics
 		parforOptTime = 0;
 		parforInitTime = 0;
 		parforMergeTime = 0;
+		parforIdleTime.reset();
+		parforSteals.reset();
+		parforDirtyMerges.reset();
 		
 		lTotalLix.reset();
 		lTotalLixUIP.reset();
@@ -839,6 +863,10 @@ public class Statistics
 		return hopRecompileSB.longValue();
 	}
 	
+	public static long getHopRecompileCacheHits(){
+		return hopRecompileCacheHits.longValue();
+	}
+	
 	public static long getFunRecompileTime(){
 		return funRecompileTime.longValue();
 	}
@@ -862,6 +890,18 @@ public class Statistics
 	public static long getParforMergeTime(){
 		return parforMergeTime;
 	}
+	
+	public static long getParforIdleTime(){
+		return parforIdleTime.longValue();
+	}
+	
+	public static long getParforSteals(){
+		return parforSteals.longValue();
+	}
+	
+	public static long getParforDirtyRegionMerges(){
+		return parforDirtyMerges.longValue();
+	}
 
 	public static long getNumPinnedObjects() { return maxNumPinnedObjects; }
 
@@ -931,12 +971,16 @@ public class Statistics
 			}
 
 			sb.append("Cache hits (Mem, WB, FS, HDFS):\t" + CacheStatistics.displayHits() + ".\n");
+			if( CacheStatistics.getHDFSRangeReads() > 0 )
+				sb.append("Cache HDFS range reads:\t" + CacheStatistics.getHDFSRangeReads() + ".\n");
 			sb.append("Cache writes (WB, FS, HDFS):\t" + CacheStatistics.displayWrites() + ".\n");
 			sb.append("Cache times (ACQr/m, RLS, EXP):\t" + CacheStatistics.displayTime() + " sec.\n");
 			if (DMLScript.JMLC_MEM_STATISTICS)
 				sb.append("Max size of live objects:\t" + byteCountToDisplaySize(getSizeofPinnedObjects()) + " ("  + getNumPinnedObjects() + " total objects)" + "\n");
 			sb.append("HOP DAGs recompiled (PRED, SB):\t" + getHopRecompiledPredDAGs() + "/" + getHopRecompiledSBDAGs() + ".\n");
 			sb.append("HOP DAGs recompile time:\t" + String.format("%.3f", ((double)getHopRecompileTime())/1000000000) + " sec.\n");
+			if( getHopRecompileCacheHits()>0 )
+				sb.append("HOP DAGs recompile cache hits:\t" + getHopRecompileCacheHits() + ".\n");
 			if( getFunRecompiles()>0 ) {
 				sb.append("Functions recompiled:\t\t" + getFunRecompiles() + ".\n");
 				sb.append("Functions recompile time:\t" + String.format("%.3f", ((double)getFunRecompileTime())/1000000000) + " sec.\n");
@@ -979,6 +1023,11 @@ public class Statistics
 				sb.append("ParFor optimize time:\t\t" + String.format("%.3f", ((double)getParforOptTime())/1000) + " sec.\n");
 				sb.append("ParFor initialize time:\t\t" + String.format("%.3f", ((double)getParforInitTime())/1000) + " sec.\n");
 				sb.append("ParFor result merge time:\t" + String.format("%.3f", ((double)getParforMergeTime())/1000) + " sec.\n");
+				sb.append("ParFor worker idle time:\t" + String.format("%.3f", ((double)getParforIdleTime())/1000) + " sec.\n");
+				if( getParforSteals() > 0 )
+					sb.append("ParFor work steals:\t\t" + getParforSteals() + ".\n");
+				if( getParforDirtyRegionMerges() > 0 )
+					sb.append("ParFor dirty-region merges:\t" + getParforDirtyRegionMerges() + ".\n");
 				sb.append("ParFor total update in-place:\t" + lTotalUIPVar + "/" + lTotalLixUIP + "/" + lTotalLix + "\n");
 			}
 
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.codegen;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.codegen.SpoofCellwise;
+import org.tugraz.sysds.runtime.instructions.cp.ScalarObject;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks the two-phase execution of sparse-unsafe cellwise operations over
+ * sparse inputs (non-zeros only, with analytical correction of unseen zeros)
+ * against the dense execution path, and that only non-zeros are processed.
+ */
+public class SparseUnsafeCellwiseTest extends AutomatedTestBase 
+{
+	private static final int rows = 1231;
+	private static final int cols = 837;
+	private static final double sparsity = 0.003;
+	//large inputs with >1M non-zeros for the parallel two-phase execution
+	private static final int rowsLarge = 3000;
+	private static final int colsLarge = 1500;
+	private static final double sparsityLarge = 0.25;
+	private static final int k = 4;
+	private static final double eps = 1e-8;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testNoAgg() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.NO_AGG, SpoofCellwise.AggOp.SUM, 1);
+	}
+	
+	@Test
+	public void testRowAggSum() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.ROW_AGG, SpoofCellwise.AggOp.SUM, 1);
+	}
+	
+	@Test
+	public void testRowAggSumSq() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.ROW_AGG, SpoofCellwise.AggOp.SUM_SQ, 1);
+	}
+	
+	@Test
+	public void testRowAggMin() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.ROW_AGG, SpoofCellwise.AggOp.MIN, 1);
+	}
+	
+	@Test
+	public void testRowAggMax() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.ROW_AGG, SpoofCellwise.AggOp.MAX, 1);
+	}
+	
+	@Test
+	public void testColAggSum() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.COL_AGG, SpoofCellwise.AggOp.SUM, 1);
+	}
+	
+	@Test
+	public void testColAggSumSq() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.COL_AGG, SpoofCellwise.AggOp.SUM_SQ, 1);
+	}
+	
+	@Test
+	public void testColAggMin() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.COL_AGG, SpoofCellwise.AggOp.MIN, 1);
+	}
+	
+	@Test
+	public void testColAggMax() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.COL_AGG, SpoofCellwise.AggOp.MAX, 1);
+	}
+	
+	@Test
+	public void testFullAggSum() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.FULL_AGG, SpoofCellwise.AggOp.SUM, 1);
+	}
+	
+	@Test
+	public void testFullAggSumSq() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.FULL_AGG, SpoofCellwise.AggOp.SUM_SQ, 1);
+	}
+	
+	@Test
+	public void testFullAggMin() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.FULL_AGG, SpoofCellwise.AggOp.MIN, 1);
+	}
+	
+	@Test
+	public void testFullAggMax() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.FULL_AGG, SpoofCellwise.AggOp.MAX, 1);
+	}
+	
+	@Test
+	public void testNoAggMultiThreaded() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.NO_AGG, SpoofCellwise.AggOp.SUM, k);
+	}
+	
+	@Test
+	public void testRowAggSumMultiThreaded() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.ROW_AGG, SpoofCellwise.AggOp.SUM, k);
+	}
+	
+	@Test
+	public void testRowAggMaxMultiThreaded() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.ROW_AGG, SpoofCellwise.AggOp.MAX, k);
+	}
+	
+	@Test
+	public void testColAggSumSqMultiThreaded() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.COL_AGG, SpoofCellwise.AggOp.SUM_SQ, k);
+	}
+	
+	@Test
+	public void testColAggMinMultiThreaded() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.COL_AGG, SpoofCellwise.AggOp.MIN, k);
+	}
+	
+	@Test
+	public void testFullAggSumMultiThreaded() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.FULL_AGG, SpoofCellwise.AggOp.SUM, k);
+	}
+	
+	@Test
+	public void testFullAggMaxMultiThreaded() {
+		runSparseUnsafeTest(SpoofCellwise.CellType.FULL_AGG, SpoofCellwise.AggOp.MAX, k);
+	}
+	
+	private static void runSparseUnsafeTest(SpoofCellwise.CellType type, SpoofCellwise.AggOp aggop, int k) {
+		int rows = (k > 1) ? rowsLarge : SparseUnsafeCellwiseTest.rows;
+		int cols = (k > 1) ? colsLarge : SparseUnsafeCellwiseTest.cols;
+		double sparsity = (k > 1) ? sparsityLarge : SparseUnsafeCellwiseTest.sparsity;
+		MatrixBlock sparse = MatrixBlock.randOperations(rows, cols, sparsity, -1, 1, "uniform", 7);
+		MatrixBlock dense = new MatrixBlock(sparse);
+		dense.sparseToDense();
+		Assert.assertTrue(sparse.isInSparseFormat());
+		Assert.assertFalse(dense.isInSparseFormat());
+		if( k > 1 ) //above the parallelization threshold of 1M non-zeros
+			Assert.assertTrue(sparse.getNonZeros() >= 1024*1024);
+		
+		//execute sparse-unsafe operator over sparse and dense inputs
+		PlusOneCellwise op1 = new PlusOneCellwise(type, aggop);
+		PlusOneCellwise op2 = new PlusOneCellwise(type, aggop);
+		ArrayList<ScalarObject> scalars = new ArrayList<>();
+		if( type == SpoofCellwise.CellType.FULL_AGG ) {
+			double ret1 = op1.execute(toList(sparse), scalars, k).getDoubleValue();
+			double ret2 = op2.execute(toList(dense), scalars, 1).getDoubleValue();
+			Assert.assertEquals(ret2, ret1, eps);
+		}
+		else {
+			MatrixBlock ret1 = op1.execute(toList(sparse), scalars, new MatrixBlock(), k);
+			MatrixBlock ret2 = op2.execute(toList(dense), scalars, new MatrixBlock(), 1);
+			TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(ret2),
+				DataConverter.convertToDoubleMatrix(ret1), ret2.getNumRows(), ret2.getNumColumns(), eps);
+			Assert.assertEquals(ret2.getNonZeros(), ret1.getNonZeros());
+		}
+		
+		//check that only non-zeros (and one zero-value probe per task) were processed
+		Assert.assertTrue(op1.getCount() <= sparse.getNonZeros() + 2 + ((k > 1) ? 8*k : 0));
+		Assert.assertEquals((long)rows*cols + 1, op2.getCount());
+	}
+	
+	private static ArrayList<MatrixBlock> toList(MatrixBlock mb) {
+		ArrayList<MatrixBlock> ret = new ArrayList<>();
+		ret.add(mb);
+		return ret;
+	}
+	
+	private static class PlusOneCellwise extends SpoofCellwise {
+		private static final long serialVersionUID = -6364358428718454727L;
+		private final AtomicLong _count = new AtomicLong(0);
+		
+		public PlusOneCellwise(CellType type, AggOp aggop) {
+			super(type, false, false, aggop);
+		}
+		
+		public long getCount() {
+			return _count.get();
+		}
+		
+		@Override
+		protected double genexec(double a, SideInput[] b, double[] scalars, int m, int n, long gix, int rix, int cix) {
+			_count.incrementAndGet();
+			return a + 1;
+		}
+	}
+}
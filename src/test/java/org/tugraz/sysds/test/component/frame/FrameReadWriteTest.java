@@ -147,6 +147,21 @@ public class FrameReadWriteTest extends AutomatedTestBase
 	public void testFrameMixedMixedTextCSVParallel()  {
 		runFrameReadWriteTest(OutputInfo.CSVOutputInfo, schemaMixed, schemaMixed, true);
 	}
+
+	@Test
+	public void testFrameStringsStringsColumnar()  {
+		runFrameReadWriteTest(OutputInfo.ColumnarOutputInfo, schemaStrings, schemaStrings, false);
+	}
+	
+	@Test
+	public void testFrameMixedStringsColumnarParallel()  {
+		runFrameReadWriteTest(OutputInfo.ColumnarOutputInfo, schemaMixed, schemaStrings, true);
+	}
+	
+	@Test
+	public void testFrameMixedMixedColumnarParallel()  {
+		runFrameReadWriteTest(OutputInfo.ColumnarOutputInfo, schemaMixed, schemaMixed, true);
+	}
 	
 	/**
 	 * 
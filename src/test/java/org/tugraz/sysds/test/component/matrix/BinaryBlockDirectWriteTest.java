@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.matrix;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.io.ReaderBinaryBlock;
+import org.tugraz.sysds.runtime.io.ReaderBinaryBlockParallel;
+import org.tugraz.sysds.runtime.io.WriterBinaryBlockParallel;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.runtime.util.HDFSTool;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks that binary block matrices written directly to local files (single
+ * or multiple part files) are readable by the sequential and parallel binary
+ * block readers, and equal to the output of the sequence file writer.
+ * Also compares the write throughput against the sequence file writer.
+ */
+public class BinaryBlockDirectWriteTest
+{
+	private static final int rows = 2345;
+	private static final int cols = 1789;
+	private static final int blen = 1000;
+
+	@Test
+	public void testDense() throws IOException {
+		runDirectWriteTest(MatrixBlock.randOperations(rows, cols, 0.9, -10, 10, "uniform", 7));
+	}
+
+	@Test
+	public void testSparse() throws IOException {
+		runDirectWriteTest(MatrixBlock.randOperations(rows, cols, 0.05, -10, 10, "uniform", 3));
+	}
+
+	@Test
+	public void testUltraSparse() throws IOException {
+		runDirectWriteTest(MatrixBlock.randOperations(rows, cols, 0.0001, -10, 10, "uniform", 3));
+	}
+
+	@Test
+	public void testDenseToSparse() throws IOException {
+		MatrixBlock mb = MatrixBlock.randOperations(rows, cols, 0.05, -10, 10, "uniform", 3);
+		mb.sparseToDense();
+		runDirectWriteTest(mb);
+	}
+
+	@Test
+	public void testSparseToDense() throws IOException {
+		MatrixBlock mb = new MatrixBlock();
+		mb.copy(MatrixBlock.randOperations(rows, cols, 0.9, -10, 10, "uniform", 7), true);
+		runDirectWriteTest(mb);
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		runDirectWriteTest(new MatrixBlock(rows, cols, true));
+	}
+
+	@Test
+	public void testDenseMultiPart() throws IOException {
+		runDirectWriteTest(MatrixBlock.randOperations(rows, cols, 0.9, -10, 10, "uniform", 7), 3);
+	}
+
+	@Test
+	public void testSparseMultiPart() throws IOException {
+		runDirectWriteTest(MatrixBlock.randOperations(rows, cols, 0.05, -10, 10, "uniform", 3), 3);
+	}
+
+	@Test
+	public void testUltraSparseMultiPart() throws IOException {
+		runDirectWriteTest(MatrixBlock.randOperations(rows, cols, 0.0001, -10, 10, "uniform", 3), 3);
+	}
+
+	@Test
+	public void testWriteThroughput() throws IOException {
+		MatrixBlock mb = MatrixBlock.randOperations(4000, 4000, 1.0, -10, 10, "uniform", 7);
+		double size = mb.getExactSizeOnDisk() / 1024d / 1024d;
+		measureWrite(mb, false); //warmup
+		measureWrite(mb, true);
+		double t1 = measureWrite(mb, false);
+		double t2 = measureWrite(mb, true);
+		System.out.println(String.format("Binary block write throughput: sequence file writer %.1f MB/s,"
+			+ " direct writer %.1f MB/s.", size/t1, size/t2));
+	}
+
+	private static void runDirectWriteTest(MatrixBlock mb) throws IOException {
+		runDirectWriteTest(mb, 1);
+	}
+
+	private static void runDirectWriteTest(MatrixBlock mb, int numFiles) throws IOException {
+		String fname1 = createFileName();
+		String fname2 = createFileName();
+		boolean flag = WriterBinaryBlockParallel.LOCAL_DIRECT_WRITE;
+		try {
+			//write via direct writer and sequence file writer
+			write(mb, fname1, numFiles);
+			WriterBinaryBlockParallel.LOCAL_DIRECT_WRITE = false;
+			write(mb, fname2, numFiles);
+			if( numFiles > 1 )
+				Assert.assertEquals(numFiles, new File(fname1).list((d, n) -> n.startsWith("0-m-")).length);
+			
+			//read via sequential and parallel readers
+			double[] expected = DataConverter.convertToDoubleVector(mb);
+			double[] expected2 = DataConverter.convertToDoubleVector(read(fname2, mb, false));
+			TestUtils.compareMatrices(expected, expected2, 0);
+			for( boolean par : new boolean[]{false, true} ) {
+				MatrixBlock ret = read(fname1, mb, par);
+				Assert.assertEquals(mb.getNonZeros(), ret.getNonZeros());
+				TestUtils.compareMatrices(expected, DataConverter.convertToDoubleVector(ret), 0);
+			}
+		}
+		finally {
+			WriterBinaryBlockParallel.LOCAL_DIRECT_WRITE = flag;
+			HDFSTool.deleteFileIfExistOnHDFS(fname1);
+			HDFSTool.deleteFileIfExistOnHDFS(fname2);
+		}
+	}
+
+	private static double measureWrite(MatrixBlock mb, boolean direct) throws IOException {
+		boolean flag = WriterBinaryBlockParallel.LOCAL_DIRECT_WRITE;
+		String fname = createFileName();
+		try {
+			WriterBinaryBlockParallel.LOCAL_DIRECT_WRITE = direct;
+			long t0 = System.nanoTime();
+			for( int i=0; i<3; i++ )
+				new WriterBinaryBlockParallel(1).writeMatrixToHDFS(mb, fname,
+					mb.getNumRows(), mb.getNumColumns(), blen, blen, mb.getNonZeros());
+			return (System.nanoTime() - t0) / 3 / 1e9;
+		}
+		finally {
+			WriterBinaryBlockParallel.LOCAL_DIRECT_WRITE = flag;
+			HDFSTool.deleteFileIfExistOnHDFS(fname);
+		}
+	}
+
+	private static void write(MatrixBlock mb, String fname, int numFiles) throws IOException {
+		new WriterBinaryBlockParallel(1) {
+			@Override
+			protected int getNumPartFiles(long rlen, long clen, int brlen, int bclen, long nnz) {
+				return numFiles;
+			}
+		}.writeMatrixToHDFS(mb, fname, mb.getNumRows(), mb.getNumColumns(), blen, blen, mb.getNonZeros());
+	}
+
+	private static MatrixBlock read(String fname, MatrixBlock mb, boolean par) throws IOException {
+		return (par ? new ReaderBinaryBlockParallel(false) : new ReaderBinaryBlock(false))
+			.readMatrixFromHDFS(fname, mb.getNumRows(), mb.getNumColumns(), blen, blen, mb.getNonZeros());
+	}
+
+	private static String createFileName() {
+		return new File(System.getProperty("java.io.tmpdir"),
+			"binaryblock_"+System.nanoTime()).getPath();
+	}
+}
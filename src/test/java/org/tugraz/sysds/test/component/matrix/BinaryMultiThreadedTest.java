@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.tugraz.sysds.test.component.matrix;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.functionobjects.Divide;
+import org.tugraz.sysds.runtime.functionobjects.GreaterThan;
+import org.tugraz.sysds.runtime.functionobjects.LessThan;
+import org.tugraz.sysds.runtime.functionobjects.Minus;
+import org.tugraz.sysds.runtime.functionobjects.Multiply;
+import org.tugraz.sysds.runtime.functionobjects.Plus;
+import org.tugraz.sysds.runtime.functionobjects.ValueFunction;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks the multi-threaded matrix-matrix and matrix-vector binary operations
+ * (incl in-place variants) against their single-threaded execution.
+ */
+public class BinaryMultiThreadedTest
+{
+	private static final int rows = 2500;
+	private static final int cols = 1600;
+	private static final double sparsity1 = 0.9;
+	private static final double sparsity2 = 0.15;
+	private static final int k = 4;
+	private static final double eps = 1e-10;
+
+	@Test
+	public void testDenseDensePlus() {
+		runBinaryTest(Plus.getPlusFnObject(), false, false, cols);
+	}
+
+	@Test
+	public void testDenseDenseMult() {
+		runBinaryTest(Multiply.getMultiplyFnObject(), false, false, cols);
+	}
+
+	@Test
+	public void testDenseDenseDiv() {
+		runBinaryTest(Divide.getDivideFnObject(), false, false, cols);
+	}
+
+	@Test
+	public void testDenseDenseLess() {
+		runBinaryTest(LessThan.getLessThanFnObject(), false, false, cols);
+	}
+
+	@Test
+	public void testSparseDensePlus() {
+		runBinaryTest(Plus.getPlusFnObject(), true, false, cols);
+	}
+
+	@Test
+	public void testDenseSparseMinus() {
+		runBinaryTest(Minus.getMinusFnObject(), false, true, cols);
+	}
+
+	@Test
+	public void testSparseDenseMult() {
+		runBinaryTest(Multiply.getMultiplyFnObject(), true, false, cols);
+	}
+
+	@Test
+	public void testSparseSparsePlus() {
+		runBinaryTest(Plus.getPlusFnObject(), true, true, cols);
+	}
+
+	@Test
+	public void testSparseSparseMult() {
+		runBinaryTest(Multiply.getMultiplyFnObject(), true, true, cols);
+	}
+
+	@Test
+	public void testDenseColVectorMult() {
+		runBinaryTest(Multiply.getMultiplyFnObject(), false, false, 1);
+	}
+
+	@Test
+	public void testDenseColVectorGreater() {
+		runBinaryTest(GreaterThan.getGreaterThanFnObject(), false, false, 1);
+	}
+
+	@Test
+	public void testDenseRowVectorMinus() {
+		runBinaryTest(Minus.getMinusFnObject(), false, false, -1);
+	}
+
+	@Test
+	public void testDenseRowVectorLess() {
+		runBinaryTest(LessThan.getLessThanFnObject(), false, false, -1);
+	}
+
+	@Test
+	public void testInPlaceDenseDensePlus() {
+		runBinaryInPlaceTest(Plus.getPlusFnObject(), false);
+	}
+
+	@Test
+	public void testInPlaceDenseDenseMult() {
+		runBinaryInPlaceTest(Multiply.getMultiplyFnObject(), false);
+	}
+
+	@Test
+	public void testInPlaceDenseDenseLess() {
+		runBinaryInPlaceTest(LessThan.getLessThanFnObject(), false);
+	}
+
+	@Test
+	public void testInPlaceDenseSparsePlus() {
+		runBinaryInPlaceTest(Plus.getPlusFnObject(), true);
+	}
+
+	@Test
+	public void testInPlaceDenseSparseMinus() {
+		runBinaryInPlaceTest(Minus.getMinusFnObject(), true);
+	}
+
+	/**
+	 * @param fn value function
+	 * @param sparse1 sparse left input
+	 * @param sparse2 sparse right input
+	 * @param cols2 number of columns of the right input,
+	 *   or -1 for a row vector
+	 */
+	private static void runBinaryTest(ValueFunction fn, boolean sparse1, boolean sparse2, int cols2) {
+		MatrixBlock m1 = MatrixBlock.randOperations(rows, cols,
+			sparse1 ? sparsity2 : sparsity1, -1, 1, "uniform", 7);
+		MatrixBlock m2 = MatrixBlock.randOperations((cols2 < 0) ? 1 : rows,
+			(cols2 < 0) ? cols : cols2, sparse2 ? sparsity2 : sparsity1, -1, 1, "uniform", 3);
+		Assert.assertEquals(sparse1, m1.isInSparseFormat());
+		Assert.assertEquals(sparse2 && cols2 == cols, m2.isInSparseFormat());
+
+		//execute single- and multi-threaded binary operations
+		MatrixBlock ret1 = (MatrixBlock) m1.binaryOperations(
+			new BinaryOperator(fn), m2, new MatrixBlock());
+		MatrixBlock ret2 = (MatrixBlock) m1.binaryOperations(
+			new BinaryOperator(fn, k), m2, new MatrixBlock());
+
+		compareResults(ret1, ret2);
+	}
+
+	private static void runBinaryInPlaceTest(ValueFunction fn, boolean sparse2) {
+		MatrixBlock m1 = MatrixBlock.randOperations(rows, cols, sparsity1, -1, 1, "uniform", 7);
+		MatrixBlock m2 = MatrixBlock.randOperations(rows, cols,
+			sparse2 ? sparsity2 : sparsity1, -1, 1, "uniform", 3);
+		Assert.assertEquals(sparse2, m2.isInSparseFormat());
+
+		//execute single- and multi-threaded in-place binary operations
+		MatrixBlock ret1 = new MatrixBlock(m1);
+		MatrixBlock ret2 = new MatrixBlock(m1);
+		ret1.binaryOperationsInPlace(new BinaryOperator(fn), m2);
+		ret2.binaryOperationsInPlace(new BinaryOperator(fn, k), m2);
+
+		compareResults(ret1, ret2);
+	}
+
+	private static void compareResults(MatrixBlock ret1, MatrixBlock ret2) {
+		Assert.assertEquals(ret1.getNumRows(), ret2.getNumRows());
+		Assert.assertEquals(ret1.getNumColumns(), ret2.getNumColumns());
+		Assert.assertEquals(ret1.getNonZeros(), ret2.getNonZeros());
+		Assert.assertEquals(ret1.recomputeNonZeros(), ret2.getNonZeros());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleVector(ret1),
+			DataConverter.convertToDoubleVector(ret2), eps);
+	}
+}
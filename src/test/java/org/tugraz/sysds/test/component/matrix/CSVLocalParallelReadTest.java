@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.matrix;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.io.FileFormatPropertiesCSV;
+import org.tugraz.sysds.runtime.io.ReaderTextCSVLocalParallel;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.runtime.util.HDFSTool;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks the single-pass local CSV reader with tiny byte ranges, such that
+ * range boundaries fall at arbitrary positions within lines, delimiters,
+ * headers, and line breaks, and lines span multiple ranges.
+ */
+public class CSVLocalParallelReadTest
+{
+	private static final long[] RANGE_SIZES = new long[]{1, 2, 3, 7, 16, 61, 1024*1024};
+
+	@Test
+	public void testRangeBoundaries() throws IOException {
+		runReadTest(createData(37, 5, 0.7, 7), false, "\n", true, 1);
+	}
+
+	@Test
+	public void testLinesSplitAcrossRanges() throws IOException {
+		runReadTest(createData(11, 83, 0.9, 3), false, "\n", true, 1);
+	}
+
+	@Test
+	public void testHeader() throws IOException {
+		runReadTest(createData(23, 4, 0.7, 5), true, "\n", true, 1);
+	}
+
+	@Test
+	public void testCarriageReturnNoTrailingNewline() throws IOException {
+		runReadTest(createData(19, 6, 0.5, 11), true, "\r\n", false, 1);
+	}
+
+	@Test
+	public void testSparse() throws IOException {
+		runReadTest(createData(41, 50, 0.02, 13), false, "\n", true, 1);
+	}
+
+	@Test
+	public void testMultipleFilesHeader() throws IOException {
+		runReadTest(createData(31, 7, 0.7, 17), true, "\n", true, 3);
+	}
+
+	private static void runReadTest(double[][] data, boolean header, String eol, boolean trailing, int numFiles)
+		throws IOException
+	{
+		String fname = new File(System.getProperty("java.io.tmpdir"),
+			"csvlocal_"+System.nanoTime()).getPath();
+		try {
+			writeCSV(data, fname, header, eol, trailing, numFiles);
+			double[] expected = DataConverter.convertToDoubleVector(DataConverter.convertToMatrixBlock(data));
+			long nnz = 0;
+			for( double v : expected )
+				nnz += (v != 0) ? 1 : 0;
+			for( long rangeSize : RANGE_SIZES ) {
+				MatrixBlock ret = read(fname, header, rangeSize);
+				Assert.assertEquals(data.length, ret.getNumRows());
+				Assert.assertEquals(data[0].length, ret.getNumColumns());
+				Assert.assertEquals(nnz, ret.getNonZeros());
+				TestUtils.compareMatrices(expected, DataConverter.convertToDoubleVector(ret), 0);
+			}
+		}
+		finally {
+			HDFSTool.deleteFileIfExistOnHDFS(fname);
+		}
+	}
+
+	private static MatrixBlock read(String fname, boolean header, long rangeSize) throws IOException {
+		FileFormatPropertiesCSV props = new FileFormatPropertiesCSV(header, ",", false, 0, null);
+		return new ReaderTextCSVLocalParallel(props) {
+			@Override
+			protected long getRangeSize(long total) {
+				return rangeSize;
+			}
+		}.readMatrixFromHDFS(fname, -1, -1, 1000, 1000, -1);
+	}
+
+	private static void writeCSV(double[][] data, String fname, boolean header, String eol, boolean trailing, int numFiles)
+		throws IOException
+	{
+		File dir = new File(fname);
+		if( numFiles > 1 )
+			dir.mkdirs();
+		int rowsPerFile = (int)Math.ceil((double)data.length / numFiles);
+		for( int k=0; k<numFiles; k++ ) {
+			StringBuilder sb = new StringBuilder();
+			if( header && k==0 ) {
+				for( int j=0; j<data[0].length; j++ )
+					sb.append((j>0) ? "," : "").append("C").append(j+1);
+				sb.append(eol);
+			}
+			int ru = Math.min((k+1)*rowsPerFile, data.length);
+			for( int i=k*rowsPerFile; i<ru; i++ ) {
+				for( int j=0; j<data[i].length; j++ ) {
+					if( j > 0 )
+						sb.append(',');
+					//mix of integer and decimal representations
+					if( data[i][j] == Math.rint(data[i][j]) )
+						sb.append((long)data[i][j]);
+					else
+						sb.append(data[i][j]);
+				}
+				if( trailing || i < ru-1 )
+					sb.append(eol);
+			}
+			File file = (numFiles > 1) ? new File(dir, "0-m-0000"+k) : dir;
+			Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static double[][] createData(int rows, int cols, double sparsity, long seed) {
+		Random rand = new Random(seed);
+		double[][] ret = new double[rows][cols];
+		for( int i=0; i<rows; i++ )
+			for( int j=0; j<cols; j++ )
+				if( rand.nextDouble() < sparsity )
+					ret[i][j] = (rand.nextInt(2000) - 1000) / ((rand.nextBoolean()) ? 1d : 8d);
+		return ret;
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.matrix;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.io.ReaderColumnar;
+import org.tugraz.sysds.runtime.io.WriterColumnar;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.runtime.util.HDFSTool;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks round trips of dense, sparse, and low-cardinality matrices
+ * through the columnar file format, with and without compression.
+ */
+public class ColumnarReadWriteTest
+{
+	private static final int rows = 150000; //multiple row chunks
+	private static final int cols = 7;
+
+	@Test
+	public void testDenseUncompressed() throws IOException {
+		runReadWriteTest(MatrixBlock.randOperations(rows, cols, 0.9, -10, 10, "uniform", 7), false);
+	}
+
+	@Test
+	public void testDenseCompressed() throws IOException {
+		runReadWriteTest(MatrixBlock.randOperations(rows, cols, 0.9, -10, 10, "uniform", 7), true);
+	}
+
+	@Test
+	public void testSparseUncompressed() throws IOException {
+		runReadWriteTest(MatrixBlock.randOperations(rows, cols*10, 0.01, -10, 10, "uniform", 3), false);
+	}
+
+	@Test
+	public void testSparseCompressed() throws IOException {
+		runReadWriteTest(MatrixBlock.randOperations(rows, cols*10, 0.01, -10, 10, "uniform", 3), true);
+	}
+
+	@Test
+	public void testIntegralUncompressed() throws IOException {
+		runReadWriteTest(createIntegralMatrix(), false);
+	}
+
+	@Test
+	public void testIntegralCompressed() throws IOException {
+		runReadWriteTest(createIntegralMatrix(), true);
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		runReadWriteTest(new MatrixBlock(rows, cols, true), false);
+	}
+
+	private static void runReadWriteTest(MatrixBlock mb, boolean compress) throws IOException {
+		String fname = new File(System.getProperty("java.io.tmpdir"),
+			"columnar_"+System.nanoTime()).getPath();
+		try {
+			new WriterColumnar(compress).writeMatrixToHDFS(mb, fname,
+				mb.getNumRows(), mb.getNumColumns(), -1, -1, mb.getNonZeros());
+			MatrixBlock ret = new ReaderColumnar().readMatrixFromHDFS(fname,
+				mb.getNumRows(), mb.getNumColumns(), -1, -1, -1);
+			Assert.assertEquals(mb.getNonZeros(), ret.getNonZeros());
+			TestUtils.compareMatrices(DataConverter.convertToDoubleVector(mb),
+				DataConverter.convertToDoubleVector(ret), 0);
+		}
+		finally {
+			HDFSTool.deleteFileIfExistOnHDFS(fname);
+		}
+	}
+
+	private static MatrixBlock createIntegralMatrix() {
+		MatrixBlock ret = new MatrixBlock(rows, cols, false);
+		for( int i=0; i<rows; i++ ) {
+			ret.quickSetValue(i, 0, i % 5);            //small dictionary
+			ret.quickSetValue(i, 1, (i / 1000) % 3);   //long runs
+			ret.quickSetValue(i, 2, 1000000 + 3L * i); //increasing sequence
+			ret.quickSetValue(i, 3, -i);
+			ret.quickSetValue(i, 4, (i % 13 == 0) ? Double.NaN : i);
+			ret.quickSetValue(i, 5, 0.5 * (i % 7));
+		}
+		ret.recomputeNonZeros();
+		return ret;
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.component.matrix;
+
+import org.junit.Test;
+import org.tugraz.sysds.runtime.matrix.data.DnnParameters;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixDNN;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixDNNConv2d;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixDNNConv2d.ConvAlgorithm;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks the im2col-free direct and Winograd convolutions, as well as the
+ * auto-tuned algorithm selection, against the im2col-based convolution.
+ */
+public class Conv2dDirectTest
+{
+	private static final int N = 5;
+	private static final int k = 4;
+	private static final double eps = 1e-8;
+
+	@Test
+	public void testConv3x3Pad1Direct() {
+		runConv2dTest(3, 12, 12, 8, 3, 1, false, ConvAlgorithm.DIRECT);
+	}
+
+	@Test
+	public void testConv3x3Pad1Winograd() {
+		runConv2dTest(3, 12, 12, 8, 3, 1, false, ConvAlgorithm.WINOGRAD);
+	}
+
+	@Test
+	public void testConv3x3Pad0OddWinogradBias() {
+		runConv2dTest(2, 11, 9, 6, 3, 0, true, ConvAlgorithm.WINOGRAD);
+	}
+
+	@Test
+	public void testConv1x1DirectBias() {
+		runConv2dTest(16, 7, 7, 10, 1, 0, true, ConvAlgorithm.DIRECT);
+	}
+
+	@Test
+	public void testConv5x5Pad2Direct() {
+		runConv2dTest(3, 10, 13, 4, 5, 2, false, ConvAlgorithm.DIRECT);
+	}
+
+	@Test
+	public void testConv3x3AutoTuned() {
+		runConv2dTest(4, 9, 9, 6, 3, 1, true, null);
+	}
+
+	@Test
+	public void testBackwardData3x3Direct() {
+		runConv2dBackwardDataTest(3, 12, 12, 8, 3, 1, ConvAlgorithm.DIRECT);
+	}
+
+	@Test
+	public void testBackwardData1x1Direct() {
+		runConv2dBackwardDataTest(16, 7, 7, 10, 1, 0, ConvAlgorithm.DIRECT);
+	}
+
+	@Test
+	public void testBackwardData3x3AutoTuned() {
+		runConv2dBackwardDataTest(4, 9, 9, 6, 3, 1, null);
+	}
+
+	@Test
+	public void testBackwardFilter3x3Direct() {
+		runConv2dBackwardFilterTest(3, 12, 12, 8, 3, 1, ConvAlgorithm.DIRECT);
+	}
+
+	@Test
+	public void testBackwardFilter5x5Pad2Direct() {
+		runConv2dBackwardFilterTest(3, 10, 13, 4, 5, 2, ConvAlgorithm.DIRECT);
+	}
+
+	@Test
+	public void testBackwardFilter3x3AutoTuned() {
+		runConv2dBackwardFilterTest(4, 9, 9, 6, 3, 1, null);
+	}
+
+	private static void runConv2dTest(int C, int H, int W, int K, int R, int pad, boolean bias, ConvAlgorithm algo) {
+		MatrixBlock in = MatrixBlock.randOperations(N, C*H*W, 1.0, -1, 1, "uniform", 7);
+		MatrixBlock filter = MatrixBlock.randOperations(K, C*R*R, 1.0, -1, 1, "uniform", 3);
+		MatrixBlock b = bias ? MatrixBlock.randOperations(K, 1, 1.0, -1, 1, "uniform", 5) : null;
+		LibMatrixDNNConv2d.resetTunedAlgorithms();
+
+		DnnParameters params1 = createParams(C, H, W, K, R, pad, ConvAlgorithm.IM2COL);
+		params1.bias = b;
+		MatrixBlock ret1 = new MatrixBlock(N, K*params1.P*params1.Q, false).allocateBlock();
+		LibMatrixDNN.conv2d(in, filter, ret1, params1);
+
+		DnnParameters params2 = createParams(C, H, W, K, R, pad, algo);
+		params2.bias = b;
+		MatrixBlock ret2 = new MatrixBlock(N, K*params2.P*params2.Q, false).allocateBlock();
+		LibMatrixDNN.conv2d(in, filter, ret2, params2);
+
+		compareResults(ret1, ret2);
+	}
+
+	private static void runConv2dBackwardDataTest(int C, int H, int W, int K, int R, int pad, ConvAlgorithm algo) {
+		DnnParameters params1 = createParams(C, H, W, K, R, pad, ConvAlgorithm.IM2COL);
+		DnnParameters params2 = createParams(C, H, W, K, R, pad, algo);
+		MatrixBlock filter = MatrixBlock.randOperations(K, C*R*R, 1.0, -1, 1, "uniform", 3);
+		MatrixBlock dout = MatrixBlock.randOperations(N, K*params1.P*params1.Q, 1.0, -1, 1, "uniform", 9);
+		LibMatrixDNNConv2d.resetTunedAlgorithms();
+
+		MatrixBlock ret1 = new MatrixBlock(N, C*H*W, false).allocateBlock();
+		LibMatrixDNN.conv2dBackwardData(filter, dout, ret1, params1);
+		MatrixBlock ret2 = new MatrixBlock(N, C*H*W, false).allocateBlock();
+		LibMatrixDNN.conv2dBackwardData(filter, dout, ret2, params2);
+
+		compareResults(ret1, ret2);
+	}
+
+	private static void runConv2dBackwardFilterTest(int C, int H, int W, int K, int R, int pad, ConvAlgorithm algo) {
+		DnnParameters params1 = createParams(C, H, W, K, R, pad, ConvAlgorithm.IM2COL);
+		DnnParameters params2 = createParams(C, H, W, K, R, pad, algo);
+		MatrixBlock in = MatrixBlock.randOperations(N, C*H*W, 1.0, -1, 1, "uniform", 7);
+		MatrixBlock dout = MatrixBlock.randOperations(N, K*params1.P*params1.Q, 1.0, -1, 1, "uniform", 9);
+		LibMatrixDNNConv2d.resetTunedAlgorithms();
+
+		MatrixBlock ret1 = new MatrixBlock(K, C*R*R, false).allocateBlock();
+		LibMatrixDNN.conv2dBackwardFilter(in, dout, ret1, params1);
+		MatrixBlock ret2 = new MatrixBlock(K, C*R*R, false).allocateBlock();
+		LibMatrixDNN.conv2dBackwardFilter(in, dout, ret2, params2);
+
+		compareResults(ret1, ret2);
+	}
+
+	private static DnnParameters createParams(int C, int H, int W, int K, int R, int pad, ConvAlgorithm algo) {
+		DnnParameters params = new DnnParameters(N, C, H, W, K, R, R, 1, 1, pad, pad, k);
+		params.convAlgorithm = algo;
+		return params;
+	}
+
+	private static void compareResults(MatrixBlock ret1, MatrixBlock ret2) {
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(ret1),
+			DataConverter.convertToDoubleMatrix(ret2), ret1.getNumRows(), ret1.getNumColumns(), eps);
+	}
+}
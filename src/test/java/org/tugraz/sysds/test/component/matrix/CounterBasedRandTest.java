@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.component.matrix;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.data.SparseBlockCSR;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixDatagen;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.RandomMatrixGenerator;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.runtime.util.PhiloxPRNGenerator;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks the counter-based rand and sample (Philox) for independence of the
+ * degree of parallelism and blocking, and the direct CSR construction.
+ */
+public class CounterBasedRandTest
+{
+	private static final int rows = 1201;
+	private static final int cols = 1003;
+	private static final int blen = 300;
+	private static final int k = 4;
+	private static final long seed = 7;
+
+	@Test
+	public void testPhiloxKnownAnswers() {
+		//known answer tests of the Random123 reference implementation
+		int[] out = new int[4];
+		PhiloxPRNGenerator.philox(0, 0, 0, out);
+		Assert.assertArrayEquals(new int[]{0x6627e8d5, 0xe169c58d, 0xbc57ac4c, 0x9b00dbd8}, out);
+		PhiloxPRNGenerator.philox(-1, -1, -1, out);
+		Assert.assertArrayEquals(new int[]{0x408f276d, 0x41c83b0e, 0xa20bc7c6, 0x6d5451fd}, out);
+		PhiloxPRNGenerator.philox(0x299f31d0a4093822L, 0x85a308d3243f6a88L, 0x0370734413198a2eL, out);
+		Assert.assertArrayEquals(new int[]{0xd16cfe09, 0x94fdcceb, 0x5001e420, 0x24126ea1}, out);
+	}
+
+	@Test
+	public void testRandUniformDense() {
+		runRandTest("uniform", 0.7, "");
+	}
+
+	@Test
+	public void testRandUniformSparse() {
+		runRandTest("uniform", 0.05, "");
+	}
+
+	@Test
+	public void testRandNormalDense() {
+		runRandTest("normal", 1.0, "");
+	}
+
+	@Test
+	public void testRandNormalSparse() {
+		runRandTest("normal", 0.05, "");
+	}
+
+	@Test
+	public void testRandPoissonSparse() {
+		runRandTest("poisson", 0.1, "1.5");
+	}
+
+	@Test
+	public void testSampleWithoutReplacement() {
+		runSampleTest(1000000, 5000, false);
+	}
+
+	@Test
+	public void testSamplePermutation() {
+		runSampleTest(700000, 700000, false);
+	}
+
+	@Test
+	public void testSampleWithReplacement() {
+		runSampleTest(1000, 600000, true);
+	}
+
+	private static void runRandTest(String pdf, double sparsity, String params) {
+		boolean flagOld = LibMatrixDatagen.COUNTER_BASED_PRNG;
+		try {
+			LibMatrixDatagen.COUNTER_BASED_PRNG = true;
+			RandomMatrixGenerator rgen = LibMatrixDatagen.createRandomMatrixGenerator(
+				pdf, rows, cols, blen, blen, sparsity, -1, 3, params);
+			MatrixBlock ret1 = MatrixBlock.randOperations(rgen, seed, 1);
+			MatrixBlock ret2 = MatrixBlock.randOperations(rgen, seed, k);
+			double[][] expected = DataConverter.convertToDoubleMatrix(ret1);
+			TestUtils.compareMatrices(expected, DataConverter.convertToDoubleMatrix(ret2), rows, cols, 0);
+			Assert.assertEquals(ret1.getNonZeros(), ret2.getNonZeros());
+			Assert.assertEquals(ret2.recomputeNonZeros(), ret2.getNonZeros());
+			if( ret2.isInSparseFormat() )
+				Assert.assertTrue(ret2.getSparseBlock() instanceof SparseBlockCSR);
+			checkDistribution(expected, ret2.getNonZeros(), pdf, sparsity, params);
+
+			//independent generation of individual blocks
+			for( int bi=0; bi<rows; bi+=blen )
+				for( int bj=0; bj<cols; bj+=blen ) {
+					int lrlen = Math.min(blen, rows-bi), lclen = Math.min(blen, cols-bj);
+					RandomMatrixGenerator lrgen = LibMatrixDatagen.createRandomMatrixGenerator(
+						pdf, lrlen, lclen, lrlen, lclen, sparsity, -1, 3, params);
+					MatrixBlock blk = new MatrixBlock();
+					LibMatrixDatagen.generateRandomBlockCounterBased(blk, lrgen, seed, bi, bj, cols, 1);
+					for( int i=0; i<lrlen; i++ )
+						for( int j=0; j<lclen; j++ )
+							Assert.assertEquals(expected[bi+i][bj+j], blk.quickGetValue(i, j), 0);
+				}
+		}
+		finally {
+			LibMatrixDatagen.COUNTER_BASED_PRNG = flagOld;
+		}
+	}
+
+	private static void checkDistribution(double[][] data, long nnz, String pdf, double sparsity, String params) {
+		//expected number of non-zeros (selected cells with poisson zeros are removed)
+		boolean poisson = pdf.equals("poisson");
+		double lambda = poisson ? Double.parseDouble(params) : 0;
+		double p = sparsity * (poisson ? 1 - Math.exp(-lambda) : 1);
+		double ncells = (double) rows * cols;
+		Assert.assertEquals(p * ncells, nnz, 5 * Math.sqrt(ncells * p * (1-p)) + 1);
+		
+		//value range, mean and variance of the non-zero values
+		double sum = 0, sumSq = 0;
+		for( double[] row : data )
+			for( double v : row ) {
+				if( v == 0 ) continue;
+				if( pdf.equals("uniform") )
+					Assert.assertTrue(v >= -1 && v <= 3);
+				else if( poisson )
+					Assert.assertTrue(v >= 1 && v == Math.floor(v));
+				sum += v;
+				sumSq += v * v;
+			}
+		double mean = sum / nnz;
+		double var = sumSq / nnz - mean * mean;
+		double expMean = 0, expVar = 1; //normal
+		if( pdf.equals("uniform") ) {
+			expMean = (-1 + 3) / 2d;
+			expVar = Math.pow(3 - (-1), 2) / 12;
+		}
+		else if( poisson ) { //zero-truncated poisson
+			expMean = lambda / (1 - Math.exp(-lambda));
+			expVar = expMean * (1 + lambda - expMean);
+		}
+		Assert.assertEquals(expMean, mean, 0.02);
+		Assert.assertEquals(expVar, var, 0.05);
+	}
+
+	private static void runSampleTest(long range, int size, boolean replace) {
+		boolean flagOld = LibMatrixDatagen.COUNTER_BASED_PRNG;
+		try {
+			LibMatrixDatagen.COUNTER_BASED_PRNG = true;
+			double[] ret1 = DataConverter.convertToDoubleVector(
+				MatrixBlock.sampleOperations(range, size, replace, seed, 1));
+			double[] ret2 = DataConverter.convertToDoubleVector(
+				MatrixBlock.sampleOperations(range, size, replace, seed, k));
+			Assert.assertArrayEquals(ret1, ret2, 0);
+			HashSet<Double> distinct = new HashSet<>();
+			for( double v : ret2 ) {
+				Assert.assertTrue(v >= 1 && v <= range && v == Math.floor(v));
+				distinct.add(v);
+			}
+			if( !replace )
+				Assert.assertEquals(size, distinct.size());
+			if( size == range ) //random permutation
+				Assert.assertFalse(Arrays.equals(ret2, DataConverter.convertToDoubleVector(
+					MatrixBlock.seqOperations(1, range, 1))));
+		}
+		finally {
+			LibMatrixDatagen.COUNTER_BASED_PRNG = flagOld;
+		}
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.matrix;
+
+import org.apache.commons.math3.linear.QRDecomposition;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixLinAlg;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixMult;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixReorg;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks the blocked, multi-threaded dense decompositions and solvers
+ * by reconstructing their inputs, and the QR decomposition against
+ * commons-math3.
+ */
+public class LinAlgBlockedTest
+{
+	private static final int n = 300;
+	private static final int k = 4;
+	private static final double eps = 1e-9;
+
+	@Test
+	public void testLUSingleThreaded() {
+		runLUTest(1);
+	}
+
+	@Test
+	public void testLUMultiThreaded() {
+		runLUTest(k);
+	}
+
+	@Test
+	public void testCholeskySingleThreaded() {
+		runCholeskyTest(1);
+	}
+
+	@Test
+	public void testCholeskyMultiThreaded() {
+		runCholeskyTest(k);
+	}
+
+	@Test
+	public void testQRSquareMultiThreaded() {
+		runQRTest(n, n, k);
+	}
+
+	@Test
+	public void testQRTallMultiThreaded() {
+		runQRTest(n+71, n, k);
+	}
+
+	@Test
+	public void testQRWideMultiThreaded() {
+		runQRTest(n, n+43, k);
+	}
+
+	@Test
+	public void testSolveVectorMultiThreaded() {
+		runSolveTest(1, k);
+	}
+
+	@Test
+	public void testSolveMatrixMultiThreaded() {
+		runSolveTest(17, k);
+	}
+
+	@Test
+	public void testInverseSingleThreaded() {
+		runInverseTest(1);
+	}
+
+	@Test
+	public void testInverseMultiThreaded() {
+		runInverseTest(k);
+	}
+
+	private static void runLUTest(int k) {
+		MatrixBlock A = MatrixBlock.randOperations(n, n, 1.0, -1, 1, "uniform", 7);
+		MatrixBlock[] PLU = LibMatrixLinAlg.lu(A, k);
+		compareResults(mult(PLU[0], A), mult(PLU[1], PLU[2]));
+	}
+
+	private static void runCholeskyTest(int k) {
+		MatrixBlock S = createSPDMatrix();
+		MatrixBlock L = LibMatrixLinAlg.cholesky(S, k);
+		compareResults(S, mult(L, transpose(L)));
+	}
+
+	private static void runQRTest(int rows, int cols, int k) {
+		MatrixBlock A = MatrixBlock.randOperations(rows, cols, 1.0, -1, 1, "uniform", 7);
+		MatrixBlock[] HR = LibMatrixLinAlg.qr(A, k);
+		QRDecomposition qr = new QRDecomposition(DataConverter.convertToArray2DRowRealMatrix(A));
+		compareResults(DataConverter.convertToMatrixBlock(qr.getH().getData()), HR[0]);
+		compareResults(DataConverter.convertToMatrixBlock(qr.getR().getData()), HR[1]);
+	}
+
+	private static void runSolveTest(int m, int k) {
+		MatrixBlock A = MatrixBlock.randOperations(n, n, 1.0, -1, 1, "uniform", 7);
+		MatrixBlock B = MatrixBlock.randOperations(n, m, 1.0, -1, 1, "uniform", 3);
+		MatrixBlock X = LibMatrixLinAlg.solve(A, B, k);
+		compareResults(B, mult(A, X));
+	}
+
+	private static void runInverseTest(int k) {
+		MatrixBlock A = MatrixBlock.randOperations(n, n, 1.0, -1, 1, "uniform", 7);
+		MatrixBlock Ainv = LibMatrixLinAlg.inverse(A, k);
+		MatrixBlock I = new MatrixBlock(n, n, false);
+		for( int i=0; i<n; i++ )
+			I.quickSetValue(i, i, 1);
+		compareResults(I, mult(A, Ainv));
+	}
+
+	private static MatrixBlock createSPDMatrix() {
+		MatrixBlock X = MatrixBlock.randOperations(n, n, 1.0, -1, 1, "uniform", 7);
+		MatrixBlock S = mult(transpose(X), X);
+		for( int i=0; i<n; i++ )
+			S.quickSetValue(i, i, S.quickGetValue(i, i) + n);
+		return S;
+	}
+
+	private static MatrixBlock mult(MatrixBlock m1, MatrixBlock m2) {
+		MatrixBlock ret = new MatrixBlock(m1.getNumRows(), m2.getNumColumns(), false);
+		LibMatrixMult.matrixMult(m1, m2, ret);
+		return ret;
+	}
+
+	private static MatrixBlock transpose(MatrixBlock in) {
+		return LibMatrixReorg.transpose(in,
+			new MatrixBlock(in.getNumColumns(), in.getNumRows(), false));
+	}
+
+	private static void compareResults(MatrixBlock expected, MatrixBlock actual) {
+		TestUtils.compareMatrices(DataConverter.convertToDoubleVector(expected),
+			DataConverter.convertToDoubleVector(actual), eps);
+	}
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.component.matrix;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData.CacheStatus;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
+import org.tugraz.sysds.runtime.io.FileFormatPropertiesCSV;
+import org.tugraz.sysds.runtime.io.MatrixRowIterator;
+import org.tugraz.sysds.runtime.io.MatrixRowIterator.RowBatch;
+import org.tugraz.sysds.runtime.io.MatrixWriter;
+import org.tugraz.sysds.runtime.io.WriterBinaryBlockParallel;
+import org.tugraz.sysds.runtime.io.WriterTextCSV;
+import org.tugraz.sysds.runtime.matrix.data.InputInfo;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
+import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+import org.tugraz.sysds.runtime.meta.MetaDataFormat;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.runtime.util.HDFSTool;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks the streaming row iterators over in-memory, binary block, and
+ * CSV matrices against the materialized matrices, for batch sizes that
+ * are not aligned with the block size.
+ */
+public class MatrixRowIteratorTest
+{
+	private static final int rows = 2345;
+	private static final int cols = 1234;
+	private static final int blen = 1000;
+
+	@Test
+	public void testInMemoryDense() throws IOException {
+		runInMemoryTest(0.9, 333);
+	}
+
+	@Test
+	public void testInMemorySparse() throws IOException {
+		runInMemoryTest(0.01, 333);
+	}
+
+	@Test
+	public void testInMemoryEmpty() throws IOException {
+		runInMemoryTest(0.0, 1024);
+	}
+
+	@Test
+	public void testBinaryBlockDense() throws IOException {
+		runPersistedTest(InputInfo.BinaryBlockInputInfo, 0.9, 333);
+	}
+
+	@Test
+	public void testBinaryBlockSparse() throws IOException {
+		runPersistedTest(InputInfo.BinaryBlockInputInfo, 0.01, 1500);
+	}
+
+	@Test
+	public void testBinaryBlockSingleBatch() throws IOException {
+		runPersistedTest(InputInfo.BinaryBlockInputInfo, 0.9, rows+7);
+	}
+
+	@Test
+	public void testCSVDense() throws IOException {
+		runPersistedTest(InputInfo.CSVInputInfo, 0.9, 333);
+	}
+
+	@Test
+	public void testCSVSparse() throws IOException {
+		runPersistedTest(InputInfo.CSVInputInfo, 0.01, 1);
+	}
+
+	@Test
+	public void testBinaryBlockMultiPart() throws IOException {
+		runMultiPartTest(InputInfo.BinaryBlockInputInfo, 0.9, 333);
+	}
+
+	@Test
+	public void testCSVMultiPart() throws IOException {
+		runMultiPartTest(InputInfo.CSVInputInfo, 0.9, 333);
+	}
+
+	@Test
+	public void testMatrixObjectPinnedUntilExhausted() throws IOException {
+		MatrixBlock mb = MatrixBlock.randOperations(rows, cols, 0.9, -10, 10, "uniform", 7);
+		MatrixObject mo = createMatrixObject(mb);
+		try( MatrixRowIterator iter = MatrixRowIterator.create(mo, 1000) ) {
+			Assert.assertEquals(CacheStatus.READ, mo.getStatus());
+			iter.next();
+			Assert.assertEquals(CacheStatus.READ, mo.getStatus());
+			compareResults(mb, iter, 1000, 1000);
+			Assert.assertNotEquals(CacheStatus.READ, mo.getStatus());
+		}
+		Assert.assertNotEquals(CacheStatus.READ, mo.getStatus());
+	}
+
+	@Test
+	public void testMatrixObjectPinnedUntilClosed() throws IOException {
+		MatrixBlock mb = MatrixBlock.randOperations(rows, cols, 0.9, -10, 10, "uniform", 7);
+		MatrixObject mo = createMatrixObject(mb);
+		MatrixRowIterator iter = MatrixRowIterator.create(mo, 333);
+		iter.next();
+		Assert.assertEquals(CacheStatus.READ, mo.getStatus());
+		iter.close();
+		Assert.assertNotEquals(CacheStatus.READ, mo.getStatus());
+		//repeated close must not release the pin of other readers
+		mo.acquireRead();
+		iter.close();
+		Assert.assertEquals(CacheStatus.READ, mo.getStatus());
+		mo.release();
+	}
+
+	private static void runInMemoryTest(double sparsity, int batchRows) throws IOException {
+		MatrixBlock mb = MatrixBlock.randOperations(rows, cols, sparsity, -10, 10, "uniform", 7);
+		try( MatrixRowIterator iter = MatrixRowIterator.create(mb, batchRows) ) {
+			compareResults(mb, iter, batchRows);
+		}
+	}
+
+	private static void runPersistedTest(InputInfo iinfo, double sparsity, int batchRows) throws IOException {
+		MatrixBlock mb = MatrixBlock.randOperations(rows, cols, sparsity, -10, 10, "uniform", 7);
+		boolean csv = (iinfo == InputInfo.CSVInputInfo);
+		String fname = new File(System.getProperty("java.io.tmpdir"),
+			"rowiter_"+System.nanoTime()).getPath();
+		try {
+			FileFormatPropertiesCSV props = new FileFormatPropertiesCSV(true, ",", false);
+			MatrixWriter writer = csv ? new WriterTextCSV(props) : new WriterBinaryBlockParallel(1);
+			writer.writeMatrixToHDFS(mb, fname, rows, cols, blen, blen, mb.getNonZeros());
+			try( MatrixRowIterator iter = MatrixRowIterator.create(
+				fname, iinfo, rows, cols, blen, blen, props, batchRows) ) {
+				compareResults(mb, iter, batchRows);
+			}
+		}
+		finally {
+			HDFSTool.deleteFileIfExistOnHDFS(fname);
+		}
+	}
+
+	private static void runMultiPartTest(InputInfo iinfo, double sparsity, int batchRows) throws IOException {
+		MatrixBlock mb = MatrixBlock.randOperations(rows, cols, sparsity, -10, 10, "uniform", 7);
+		String fname = new File(System.getProperty("java.io.tmpdir"),
+			"rowiter_"+System.nanoTime()).getPath();
+		FileFormatPropertiesCSV props = new FileFormatPropertiesCSV(true, ",", false);
+		try {
+			if( iinfo == InputInfo.CSVInputInfo ) {
+				//three part files with header in the first part only, split
+				//at row boundaries that are not aligned with the batch size
+				int[] bounds = new int[]{0, 1000, 1001, rows};
+				for( int i=0; i<bounds.length-1; i++ ) {
+					MatrixBlock part = mb.slice(bounds[i], bounds[i+1]-1);
+					new WriterTextCSV(new FileFormatPropertiesCSV(i==0, ",", false))
+						.writeMatrixToHDFS(part, fname+"/part-0000"+i, part.getNumRows(),
+							cols, blen, blen, part.getNonZeros());
+				}
+			}
+			else {
+				new WriterBinaryBlockParallel(1) {
+					@Override
+					protected int getNumPartFiles(long rlen, long clen, int brlen, int bclen, long nnz) {
+						return 3;
+					}
+				}.writeMatrixToHDFS(mb, fname, rows, cols, blen, blen, mb.getNonZeros());
+			}
+			Assert.assertTrue(HDFSTool.isDirectory(fname));
+			try( MatrixRowIterator iter = MatrixRowIterator.create(
+				fname, iinfo, rows, cols, blen, blen, props, batchRows) ) {
+				compareResults(mb, iter, batchRows);
+			}
+		}
+		finally {
+			HDFSTool.deleteFileIfExistOnHDFS(fname);
+		}
+	}
+
+	private static MatrixObject createMatrixObject(MatrixBlock mb) {
+		MatrixCharacteristics mc = new MatrixCharacteristics(rows, cols, blen, blen);
+		MetaDataFormat meta = new MetaDataFormat(mc,
+			OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo);
+		MatrixObject mo = new MatrixObject(ValueType.FP64, "rowiter_"+System.nanoTime(), meta);
+		mo.acquireModify(mb);
+		mo.release();
+		return mo;
+	}
+
+	private static void compareResults(MatrixBlock expected, MatrixRowIterator iter, int batchRows) {
+		compareResults(expected, iter, batchRows, 0);
+	}
+
+	private static void compareResults(MatrixBlock expected, MatrixRowIterator iter, int batchRows, int offset) {
+		double[] actual = new double[rows * cols];
+		int nrow = offset;
+		System.arraycopy(DataConverter.convertToDoubleVector(expected), 0, actual, 0, offset * cols);
+		double[] values = null;
+		while( iter.hasNext() ) {
+			RowBatch batch = iter.next();
+			Assert.assertEquals(nrow, batch.getRowIndex());
+			Assert.assertEquals(Math.min(batchRows, rows - nrow), batch.getNumRows());
+			Assert.assertEquals(cols, batch.getNumColumns());
+			//check reuse of batch arrays
+			if( values != null )
+				Assert.assertSame(values, batch.values());
+			values = batch.values();
+			System.arraycopy(values, 0, actual, nrow * cols, batch.getNumRows() * cols);
+			nrow += batch.getNumRows();
+		}
+		Assert.assertEquals(rows, nrow);
+		TestUtils.compareMatrices(DataConverter.convertToDoubleVector(expected), actual, 0);
+	}
+}
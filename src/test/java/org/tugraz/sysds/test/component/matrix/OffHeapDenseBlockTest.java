@@ -0,0 +1,366 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.component.matrix;
+
+import java.lang.reflect.Method;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
+import org.tugraz.sysds.runtime.controlprogram.caching.LazyWriteBuffer;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
+import org.tugraz.sysds.runtime.data.DenseBlock;
+import org.tugraz.sysds.runtime.data.DenseBlockFactory;
+import org.tugraz.sysds.runtime.data.DenseBlockOffHeap;
+import org.tugraz.sysds.runtime.functionobjects.Multiply;
+import org.tugraz.sysds.runtime.functionobjects.Plus;
+import org.tugraz.sysds.runtime.instructions.InstructionUtils;
+import org.tugraz.sysds.runtime.matrix.data.InputInfo;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixMult;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
+import org.tugraz.sysds.runtime.matrix.operators.RightScalarOperator;
+import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+import org.tugraz.sysds.runtime.meta.MetaDataFormat;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.runtime.util.LocalFileUtils;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks matrix multiplications, unary aggregates, and binary operations
+ * over off-heap dense blocks (processed in row panels) against their heap
+ * execution, as well as serialization, conversion to heap, and the explicit
+ * release by the owning cache objects (on rmvar, shared, and after eviction).
+ */
+public class OffHeapDenseBlockTest
+{
+	private static final int rows = 2500;
+	private static final int cols = 2000;
+	private static final int k = 4;
+	private static final double eps = 1e-8;
+
+	private long _threshold;
+
+	@Before
+	public void setUp() {
+		_threshold = DenseBlockFactory.OFFHEAP_THRESHOLD;
+	}
+
+	@After
+	public void tearDown() {
+		DenseBlockFactory.OFFHEAP_THRESHOLD = _threshold;
+	}
+
+	@Test
+	public void testMatrixMult() {
+		runMatrixMultTest(rows, cols, 30, 1);
+	}
+
+	@Test
+	public void testMatrixMultMultiThreaded() {
+		runMatrixMultTest(rows, cols, 30, k);
+	}
+
+	@Test
+	public void testMatrixMultLargeRhs() {
+		runMatrixMultTest(200, 3000, 2100, k);
+	}
+
+	@Test
+	public void testSum() {
+		runAggregateTest("uak+");
+	}
+
+	@Test
+	public void testRowSums() {
+		runAggregateTest("uark+");
+	}
+
+	@Test
+	public void testColSums() {
+		runAggregateTest("uack+");
+	}
+
+	@Test
+	public void testColMeans() {
+		runAggregateTest("uacmean");
+	}
+
+	@Test
+	public void testMatrixMatrixPlus() {
+		runBinaryTest(rows);
+	}
+
+	@Test
+	public void testMatrixColVectorMult() {
+		runBinaryTest(1);
+	}
+
+	@Test
+	public void testScalarMult() {
+		MatrixBlock X = rand(rows, cols, 7);
+		RightScalarOperator op = new RightScalarOperator(Multiply.getMultiplyFnObject(), 3);
+		MatrixBlock expected = (MatrixBlock) X.scalarOperations(op, new MatrixBlock());
+		enableOffHeap();
+		MatrixBlock ret = (MatrixBlock) toOffHeap(X).scalarOperations(op, new MatrixBlock());
+		Assert.assertTrue(ret.getDenseBlock().isOffHeap());
+		compareResults(expected, ret);
+	}
+
+	@Test
+	public void testSerialization() throws Exception {
+		MatrixBlock X = rand(100, 70, 3);
+		enableOffHeap();
+		String fname = System.getProperty("java.io.tmpdir") + "/offheap_"+System.nanoTime();
+		LocalFileUtils.writeMatrixBlockToLocal(fname, toOffHeap(X));
+		MatrixBlock ret = LocalFileUtils.readMatrixBlockFromLocal(fname);
+		LocalFileUtils.deleteFileIfExists(fname);
+		compareResults(X, ret);
+	}
+
+	@Test
+	public void testRelease() {
+		MatrixBlock X = rand(100, 70, 3);
+		enableOffHeap();
+		DenseBlock a = toOffHeap(X).getDenseBlock();
+		long before = DenseBlockOffHeap.getAllocatedBytes();
+		Object owner = new Object();
+		a.claim(owner);
+		a.release(new Object()); //no-op
+		Assert.assertEquals(before, DenseBlockOffHeap.getAllocatedBytes());
+		a.release(owner);
+		Assert.assertEquals(before - 8L*100*70, DenseBlockOffHeap.getAllocatedBytes());
+		try {
+			a.get(0, 0);
+			Assert.fail("Access to released block not detected.");
+		}
+		catch(DMLRuntimeException ex) {
+			//expected
+		}
+	}
+
+	@Test
+	public void testConvertToHeap() {
+		MatrixBlock X = rand(100, 70, 3);
+		enableOffHeap();
+		DenseBlock a = toOffHeap(X).getDenseBlock();
+		long before = DenseBlockOffHeap.getAllocatedBytes();
+		double[] vals = a.values(7); //conversion
+		Assert.assertFalse(a.isOffHeap());
+		Assert.assertEquals(before - 8L*100*70, DenseBlockOffHeap.getAllocatedBytes());
+		Assert.assertEquals(X.quickGetValue(7, 3), vals[a.pos(7, 3)], 0);
+		//subsequent writes go to the heap arrays
+		a.set(7, 3, 42);
+		Assert.assertEquals(42, vals[a.pos(7, 3)], 0);
+	}
+
+	@Test
+	public void testConvertToHeapConcurrentWrites() throws Exception {
+		enableOffHeap();
+		DenseBlock a = new MatrixBlock(1000, 100, false).allocateBlock().getDenseBlock();
+		Assert.assertTrue(a.isOffHeap());
+		Thread[] writers = new Thread[k];
+		for( int t=0; t<k; t++ ) {
+			final int rl = t * 1000 / k, ru = (t+1) * 1000 / k;
+			writers[t] = new Thread(() -> {
+				for( int i=rl; i<ru; i++ )
+					for( int j=0; j<100; j++ )
+						a.set(i, j, i*100+j+1);
+			});
+			writers[t].start();
+		}
+		a.values(0); //conversion during writes
+		for( Thread t : writers )
+			t.join();
+		for( int i=0; i<1000; i++ )
+			for( int j=0; j<100; j++ )
+				Assert.assertEquals(i*100+j+1, a.values(i)[a.pos(i, j)], 0);
+	}
+
+	@Test
+	public void testConvertToHeapConcurrentReads() throws Exception {
+		MatrixBlock X = rand(1000, 100, 7);
+		enableOffHeap();
+		DenseBlock a = toOffHeap(X).getDenseBlock();
+		Assert.assertTrue(a.isOffHeap());
+		Thread[] readers = new Thread[k];
+		Throwable[] err = new Throwable[k];
+		for( int t=0; t<k; t++ ) {
+			final int tix = t;
+			readers[t] = new Thread(() -> {
+				try {
+					double[] row = new double[100];
+					for( int rep=0; rep<10; rep++ )
+						for( int i=0; i<1000; i++ ) {
+							a.getRow(i, 0, 100, row, 0);
+							for( int j=0; j<100; j++ ) {
+								Assert.assertEquals(X.quickGetValue(i, j), row[j], 0);
+								Assert.assertEquals(X.quickGetValue(i, j), a.get(i, j), 0);
+							}
+						}
+				}
+				catch(Throwable ex) {
+					err[tix] = ex;
+				}
+			});
+			readers[t].start();
+		}
+		a.values(0); //conversion during reads
+		for( Thread t : readers )
+			t.join();
+		for( Throwable ex : err )
+			Assert.assertNull(ex);
+		Assert.assertFalse(a.isOffHeap());
+	}
+
+	@Test
+	public void testCacheReleaseOnRmvar() throws Exception {
+		CacheableData.initCaching("tmp_offheap_test");
+		MatrixBlock X = rand(100, 70, 3);
+		enableOffHeap();
+		MatrixBlock X2 = toOffHeap(X);
+		MatrixObject mo = createMatrixObject("A", X2);
+		long before = DenseBlockOffHeap.getAllocatedBytes();
+		mo.clearData(); //rmvar
+		Assert.assertEquals(before - 8L*100*70, DenseBlockOffHeap.getAllocatedBytes());
+		try {
+			X2.getDenseBlock().get(0, 0);
+			Assert.fail("Access to released block not detected.");
+		}
+		catch(DMLRuntimeException ex) {
+			//expected
+		}
+	}
+
+	@Test
+	public void testCacheSharedBlock() throws Exception {
+		CacheableData.initCaching("tmp_offheap_test");
+		MatrixBlock X = rand(100, 70, 3);
+		enableOffHeap();
+		MatrixBlock X2 = toOffHeap(X);
+		MatrixObject mo1 = createMatrixObject("A", X2);
+		MatrixObject mo2 = createMatrixObject("B", X2);
+		long before = DenseBlockOffHeap.getAllocatedBytes();
+		mo1.clearData(); //no release of shared block
+		Assert.assertEquals(before, DenseBlockOffHeap.getAllocatedBytes());
+		MatrixBlock ret = mo2.acquireRead();
+		compareResults(X, ret);
+		mo2.release();
+		mo2.clearData(); //still shared, freed once unreachable
+		Assert.assertEquals(before, DenseBlockOffHeap.getAllocatedBytes());
+		compareResults(X, X2);
+	}
+
+	@Test
+	public void testCacheReleaseAfterEviction() throws Exception {
+		CacheableData.initCaching("tmp_offheap_test");
+		MatrixBlock X = rand(100, 70, 3);
+		enableOffHeap();
+		MatrixObject mo = createMatrixObject("A", toOffHeap(X));
+		
+		//evict and clear in-memory reference
+		LazyWriteBuffer.forceEviction();
+		Method clear = CacheableData.class.getDeclaredMethod("clearCache");
+		clear.setAccessible(true);
+		clear.invoke(mo);
+		
+		//restore from eviction file into new owned block
+		MatrixBlock ret = mo.acquireRead();
+		mo.release();
+		compareResults(X, ret);
+		Assert.assertTrue(ret.getDenseBlock().isOffHeap());
+		long before = DenseBlockOffHeap.getAllocatedBytes();
+		mo.clearData();
+		Assert.assertEquals(before - 8L*100*70, DenseBlockOffHeap.getAllocatedBytes());
+	}
+
+	private static void runMatrixMultTest(int m, int cd, int n, int k) {
+		MatrixBlock A = rand(m, cd, 7);
+		MatrixBlock B = rand(cd, n, 3);
+		MatrixBlock expected = new MatrixBlock(m, n, false);
+		LibMatrixMult.matrixMult(A, B, expected, k);
+		enableOffHeap();
+		MatrixBlock ret = new MatrixBlock(m, n, false);
+		LibMatrixMult.matrixMult(toOffHeap(A), toOffHeap(B), ret, k);
+		Assert.assertTrue(ret.getDenseBlock().isOffHeap());
+		compareResults(expected, ret);
+	}
+
+	private static void runAggregateTest(String opcode) {
+		MatrixBlock X = rand(rows, cols, 7);
+		MatrixBlock expected = (MatrixBlock) X.aggregateUnaryOperations(
+			InstructionUtils.parseBasicAggregateUnaryOperator(opcode, k), new MatrixBlock(), -1, -1, null);
+		enableOffHeap();
+		MatrixBlock ret = (MatrixBlock) toOffHeap(X).aggregateUnaryOperations(
+			InstructionUtils.parseBasicAggregateUnaryOperator(opcode, k), new MatrixBlock(), -1, -1, null);
+		compareResults(expected, ret);
+	}
+
+	private static void runBinaryTest(int cols2) {
+		MatrixBlock X = rand(rows, cols, 7);
+		MatrixBlock Y = rand(rows, cols2==1 ? 1 : cols, 3);
+		BinaryOperator op = new BinaryOperator(cols2==1 ?
+			Multiply.getMultiplyFnObject() : Plus.getPlusFnObject(), k);
+		MatrixBlock expected = (MatrixBlock) X.binaryOperations(op, Y, new MatrixBlock());
+		enableOffHeap();
+		MatrixBlock ret = (MatrixBlock) toOffHeap(X)
+			.binaryOperations(op, toOffHeap(Y), new MatrixBlock());
+		Assert.assertTrue(ret.getDenseBlock().isOffHeap());
+		compareResults(expected, ret);
+	}
+
+	private static void enableOffHeap() {
+		DenseBlockFactory.OFFHEAP_THRESHOLD = 0;
+	}
+
+	private static MatrixObject createMatrixObject(String fname, MatrixBlock mb) {
+		MatrixCharacteristics mc = new MatrixCharacteristics(mb.getNumRows(), mb.getNumColumns(), 1000, 1000);
+		MetaDataFormat meta = new MetaDataFormat(mc,
+			OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo);
+		MatrixObject mo = new MatrixObject(ValueType.FP64, fname, meta);
+		mo.acquireModify(mb);
+		mo.release();
+		return mo;
+	}
+
+	private static MatrixBlock rand(int rows, int cols, long seed) {
+		return MatrixBlock.randOperations(rows, cols, 1.0, -1, 1, "uniform", seed);
+	}
+
+	private static MatrixBlock toOffHeap(MatrixBlock in) {
+		MatrixBlock ret = new MatrixBlock(in.getNumRows(), in.getNumColumns(), false);
+		ret.allocateDenseBlock();
+		DenseBlock a = in.getDenseBlock();
+		DenseBlock c = ret.getDenseBlock();
+		Assert.assertTrue(c.isOffHeap());
+		for( int i=0; i<in.getNumRows(); i++ )
+			c.setRow(i, 0, in.getNumColumns(), a.values(i), a.pos(i));
+		ret.setNonZeros(in.getNonZeros());
+		return ret;
+	}
+
+	private static void compareResults(MatrixBlock expected, MatrixBlock actual) {
+		TestUtils.compareMatrices(DataConverter.convertToDoubleVector(expected),
+			DataConverter.convertToDoubleVector(actual), eps);
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.matrix;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.io.FileFormatPropertiesCSV;
+import org.tugraz.sysds.runtime.io.FrameReader;
+import org.tugraz.sysds.runtime.io.FrameReaderTextCSV;
+import org.tugraz.sysds.runtime.io.FrameReaderTextCSVParallel;
+import org.tugraz.sysds.runtime.io.FrameWriterTextCSV;
+import org.tugraz.sysds.runtime.io.MatrixReader;
+import org.tugraz.sysds.runtime.io.MatrixWriter;
+import org.tugraz.sysds.runtime.io.ReaderBinaryBlockParallel;
+import org.tugraz.sysds.runtime.io.ReaderTextCSVParallel;
+import org.tugraz.sysds.runtime.io.WriterBinaryBlock;
+import org.tugraz.sysds.runtime.io.WriterTextCSV;
+import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.runtime.util.HDFSTool;
+import org.tugraz.sysds.runtime.util.IndexRange;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks range reads of binary block and csv matrices, and csv frames,
+ * against slices of the full reads.
+ */
+public class ReadRangePushdownTest
+{
+	private static final int rows = 3517;
+	private static final int cols = 2311;
+	private static final int blen = 1000;
+
+	private static final IndexRange[] ranges = new IndexRange[] {
+		new IndexRange(0, rows-1, 0, cols-1), //full
+		new IndexRange(7, 7, 0, cols-1),      //single row
+		new IndexRange(0, rows-1, 1999, 1999),//single column
+		new IndexRange(1000, 1999, 0, 999),   //block-aligned
+		new IndexRange(993, 2504, 17, 2003),  //unaligned, multiple blocks
+		new IndexRange(2999, rows-1, 1001, cols-1)};
+
+	@Test
+	public void testBinaryBlockDense() throws IOException {
+		runMatrixRangeTest(MatrixBlock.randOperations(rows, cols, 0.9, -10, 10, "uniform", 7), false);
+	}
+
+	@Test
+	public void testBinaryBlockSparse() throws IOException {
+		runMatrixRangeTest(MatrixBlock.randOperations(rows, cols, 0.01, -10, 10, "uniform", 3), false);
+	}
+
+	@Test
+	public void testCSVDense() throws IOException {
+		runMatrixRangeTest(MatrixBlock.randOperations(rows, cols/10, 0.9, -10, 10, "uniform", 7), true);
+	}
+
+	@Test
+	public void testCSVSparse() throws IOException {
+		runMatrixRangeTest(MatrixBlock.randOperations(rows, cols/10, 0.01, -10, 10, "uniform", 3), true);
+	}
+
+	@Test
+	public void testFrameCSV() throws IOException {
+		runFrameRangeTest(false);
+	}
+
+	@Test
+	public void testFrameCSVParallel() throws IOException {
+		runFrameRangeTest(true);
+	}
+
+	private static void runMatrixRangeTest(MatrixBlock mb, boolean csv) throws IOException {
+		String fname = createFileName();
+		int m = mb.getNumRows(), n = mb.getNumColumns();
+		MatrixWriter writer = csv ? new WriterTextCSV(new FileFormatPropertiesCSV()) : new WriterBinaryBlock(1);
+		MatrixReader reader = csv ? new ReaderTextCSVParallel(new FileFormatPropertiesCSV()) : new ReaderBinaryBlockParallel(false);
+		try {
+			writer.writeMatrixToHDFS(mb, fname, m, n, blen, blen, mb.getNonZeros());
+			MatrixBlock full = reader.readMatrixFromHDFS(fname, m, n, blen, blen, mb.getNonZeros());
+			for( IndexRange ix : ranges ) {
+				IndexRange ix2 = new IndexRange(ix.rowStart, ix.rowEnd,
+					Math.min(ix.colStart, n-1), Math.min(ix.colEnd, n-1));
+				MatrixBlock expected = full.slice(ix2, new MatrixBlock());
+				MatrixBlock actual = reader.readMatrixFromHDFS(fname, m, n, blen, blen, mb.getNonZeros(), ix2);
+				Assert.assertEquals(expected.getNumRows(), actual.getNumRows());
+				Assert.assertEquals(expected.getNumColumns(), actual.getNumColumns());
+				Assert.assertEquals(expected.getNonZeros(), actual.getNonZeros());
+				TestUtils.compareMatrices(DataConverter.convertToDoubleVector(expected),
+					DataConverter.convertToDoubleVector(actual), 1e-14);
+			}
+		}
+		finally {
+			HDFSTool.deleteFileIfExistOnHDFS(fname);
+		}
+	}
+
+	private static void runFrameRangeTest(boolean parallel) throws IOException {
+		String fname = createFileName();
+		ValueType[] schema = new ValueType[] {ValueType.STRING, ValueType.FP64, ValueType.INT64, ValueType.BOOLEAN};
+		FrameBlock fb = new FrameBlock(schema);
+		Object[] row = new Object[schema.length];
+		for( int i=0; i<rows; i++ ) {
+			row[0] = "s"+i;
+			row[1] = (double)i / 7;
+			row[2] = (long)i * 3;
+			row[3] = (i % 2 == 0);
+			fb.appendRow(row);
+		}
+		FileFormatPropertiesCSV props = new FileFormatPropertiesCSV(true, ",", false);
+		FrameReader reader = parallel ? new FrameReaderTextCSVParallel(props) : new FrameReaderTextCSV(props);
+		try {
+			new FrameWriterTextCSV(props).writeFrameToHDFS(fb, fname, rows, schema.length);
+			IndexRange[] franges = new IndexRange[] {new IndexRange(0, rows-1, 0, 3),
+				new IndexRange(3, 3, 1, 1), new IndexRange(1017, 2999, 1, 2)};
+			for( IndexRange ix : franges ) {
+				FrameBlock expected = fb.slice(ix, new FrameBlock());
+				FrameBlock actual = reader.readFrameFromHDFS(fname, schema, reader.getDefColNames(schema.length), rows, schema.length, ix);
+				Assert.assertEquals(expected.getNumRows(), actual.getNumRows());
+				Assert.assertEquals(expected.getNumColumns(), actual.getNumColumns());
+				for( int i=0; i<expected.getNumRows(); i++ )
+					for( int j=0; j<expected.getNumColumns(); j++ )
+						Assert.assertEquals(String.valueOf(expected.get(i, j)), String.valueOf(actual.get(i, j)));
+			}
+		}
+		finally {
+			HDFSTool.deleteFileIfExistOnHDFS(fname);
+		}
+	}
+
+	private static String createFileName() {
+		return new File(System.getProperty("java.io.tmpdir"),
+			"range_"+System.nanoTime()).getPath();
+	}
+}
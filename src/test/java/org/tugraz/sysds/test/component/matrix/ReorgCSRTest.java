@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.matrix;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.data.SparseBlockCSR;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixReorg;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks the count-then-fill CSR construction of sparse outputs for
+ * transpose, removeEmpty, and rexpand against dense references.
+ */
+public class ReorgCSRTest
+{
+	private static final int rows = 2017;
+	private static final int cols = 1013;
+	//rexpand parallelizes over input rows (above the cell threshold)
+	private static final int rowsLarge = (int)LibMatrixReorg.PAR_NUMCELL_THRESHOLD + 1017;
+	private static final int k = 4;
+	private static final double eps = 1e-10;
+
+	@Test
+	public void testTransposeSparseSingleThreaded() {
+		runTransposeTest(true, 1);
+	}
+
+	@Test
+	public void testTransposeSparseMultiThreaded() {
+		runTransposeTest(true, k);
+	}
+
+	@Test
+	public void testTransposeDenseMultiThreaded() {
+		runTransposeTest(false, k);
+	}
+
+	@Test
+	public void testRemoveEmptyRowsSparseMultiThreaded() {
+		runRemoveEmptyTest(true, true, false, k);
+	}
+
+	@Test
+	public void testRemoveEmptyRowsDenseMultiThreaded() {
+		runRemoveEmptyTest(false, true, false, k);
+	}
+
+	@Test
+	public void testRemoveEmptyRowsSelectMultiThreaded() {
+		runRemoveEmptyTest(true, true, true, k);
+	}
+
+	@Test
+	public void testRemoveEmptyColsSparseMultiThreaded() {
+		runRemoveEmptyTest(true, false, false, k);
+	}
+
+	@Test
+	public void testRemoveEmptyColsDenseSingleThreaded() {
+		runRemoveEmptyTest(false, false, false, 1);
+	}
+
+	@Test
+	public void testRexpandRowsSingleThreaded() {
+		runRexpandTest(rows, true, 1);
+	}
+
+	@Test
+	public void testRexpandColsSingleThreaded() {
+		runRexpandTest(rows, false, 1);
+	}
+
+	@Test
+	public void testRexpandRowsMultiThreaded() {
+		runRexpandTest(rowsLarge, true, k);
+	}
+
+	@Test
+	public void testRexpandColsMultiThreaded() {
+		runRexpandTest(rowsLarge, false, k);
+	}
+
+	private static void runTransposeTest(boolean sparse, int k) {
+		MatrixBlock in = createInput(rows, cols, 0.02, sparse);
+		MatrixBlock out = LibMatrixReorg.transpose(in, new MatrixBlock(cols, rows, true), k);
+		Assert.assertTrue(out.getSparseBlock() instanceof SparseBlockCSR);
+		Assert.assertEquals(in.getNonZeros(), out.getNonZeros());
+		double[][] A = DataConverter.convertToDoubleMatrix(in);
+		double[][] C = new double[cols][rows];
+		for( int i=0; i<rows; i++ )
+			for( int j=0; j<cols; j++ )
+				C[j][i] = A[i][j];
+		compareResults(C, out);
+	}
+
+	private static void runRemoveEmptyTest(boolean sparse, boolean margin, boolean select, int k) {
+		//input w/ many empty rows and columns
+		MatrixBlock in = createInput(rows, cols, 0.001, sparse);
+		double[][] A = DataConverter.convertToDoubleMatrix(in);
+		int len = margin ? rows : cols;
+		boolean[] flags = new boolean[len];
+		MatrixBlock sel = null;
+		if( select ) {
+			sel = new MatrixBlock(len, 1, false);
+			for( int i=0; i<len; i+=3 ) {
+				flags[i] = true;
+				sel.quickSetValue(i, 0, 1);
+			}
+		}
+		else {
+			for( int i=0; i<rows; i++ )
+				for( int j=0; j<cols; j++ )
+					flags[margin ? i : j] |= A[i][j] != 0;
+		}
+		
+		//dense reference
+		int len2 = 0;
+		for( boolean f : flags )
+			len2 += f ? 1 : 0;
+		double[][] C = margin ? new double[len2][cols] : new double[rows][len2];
+		for( int i=0, ci=0; i<rows; i++ ) {
+			if( margin && !flags[i] ) continue;
+			for( int j=0, cj=0; j<cols; j++ ) {
+				if( !margin && !flags[j] ) continue;
+				C[margin ? ci : i][margin ? j : cj] = A[i][j];
+				cj++;
+			}
+			ci++;
+		}
+		
+		MatrixBlock out = LibMatrixReorg.rmempty(in, new MatrixBlock(), margin, false, sel, k);
+		Assert.assertEquals(margin ? len2 : rows, out.getNumRows());
+		Assert.assertEquals(margin ? cols : len2, out.getNumColumns());
+		compareResults(C, out);
+	}
+
+	private static void runRexpandTest(int rows, boolean margin, int k) {
+		int max = 50;
+		MatrixBlock in = new MatrixBlock(rows, 1, false);
+		for( int i=0; i<rows; i++ )
+			in.quickSetValue(i, 0, (i * 7) % (max + 5) + 1); //incl values > max
+		MatrixBlock out = LibMatrixReorg.rexpand(in, new MatrixBlock(), max, margin, false, true, k);
+		Assert.assertEquals(margin ? max : rows, out.getNumRows());
+		Assert.assertEquals(margin ? rows : max, out.getNumColumns());
+		Assert.assertTrue(out.isInSparseFormat());
+		Assert.assertTrue(out.getSparseBlock() instanceof SparseBlockCSR);
+		
+		//check all expected cells (w/o dense reference of the large outputs),
+		//and that no other cells exist via the number of non-zeros
+		long nnz = 0;
+		for( int i=0; i<rows; i++ ) {
+			int v = (int) in.quickGetValue(i, 0);
+			if( v <= max ) {
+				Assert.assertEquals(1, margin ? out.quickGetValue(v-1, i) : out.quickGetValue(i, v-1), 0);
+				nnz++;
+			}
+		}
+		Assert.assertEquals(nnz, out.getNonZeros());
+		Assert.assertEquals(nnz, out.recomputeNonZeros());
+		Assert.assertTrue(out.getSparseBlock().checkValidity(out.getNumRows(), out.getNumColumns(), nnz, true));
+	}
+
+	private static MatrixBlock createInput(int rows, int cols, double sp, boolean sparse) {
+		MatrixBlock in = MatrixBlock.randOperations(rows, cols, sp, -1, 1, "uniform", 7);
+		if( sparse != in.isInSparseFormat() ) {
+			MatrixBlock tmp = new MatrixBlock(rows, cols, sparse);
+			tmp.copy(in, sparse);
+			in = tmp;
+		}
+		return in;
+	}
+
+	private static void compareResults(double[][] expected, MatrixBlock actual) {
+		TestUtils.compareMatrices(expected, DataConverter.convertToDoubleMatrix(actual),
+			expected.length, expected[0].length, eps);
+		long nnz = actual.getNonZeros();
+		Assert.assertEquals(actual.recomputeNonZeros(), nnz);
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.component.matrix;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.data.SparseBlockDCSR;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixMult;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks the automatic selection of doubly compressed sparse rows for
+ * ultra-sparse matrices with skewed rows, and operations over them.
+ */
+public class UltraSparseDCSRTest
+{
+	private static final int rows = 20000;
+	private static final int cols = 500;
+	private static final int nnz = 1500;
+	private static final int k = 4;
+	private static final double eps = 1e-10;
+	private static boolean flagOld;
+
+	@BeforeClass
+	public static void init() {
+		flagOld = MatrixBlock.CONVERT_TO_DCSR;
+		MatrixBlock.CONVERT_TO_DCSR = true;
+	}
+
+	@AfterClass
+	public static void cleanUp() {
+		MatrixBlock.CONVERT_TO_DCSR = flagOld;
+	}
+
+	@Test
+	public void testSelectionUltraSparse() {
+		MatrixBlock mb = createSkewedMatrix(7);
+		Assert.assertTrue(mb.getSparseBlock() instanceof SparseBlockDCSR);
+		Assert.assertTrue(mb.getSparseBlock().checkValidity(rows, cols, mb.getNonZeros(), true));
+	}
+
+	@Test
+	public void testSelectionSparse() {
+		MatrixBlock mb = MatrixBlock.randOperations(rows, cols, 0.01, -1, 1, "uniform", 7);
+		mb.examSparsity();
+		Assert.assertFalse(mb.getSparseBlock() instanceof SparseBlockDCSR);
+	}
+
+	@Test
+	public void testSelectionDisabled() {
+		MatrixBlock.CONVERT_TO_DCSR = false;
+		try {
+			MatrixBlock mb = createSkewedMatrix(7);
+			Assert.assertTrue(mb.isInSparseFormat());
+			Assert.assertFalse(mb.getSparseBlock() instanceof SparseBlockDCSR);
+		}
+		finally {
+			MatrixBlock.CONVERT_TO_DCSR = true;
+		}
+	}
+
+	@Test
+	public void testInsertRemoveRows() {
+		//random row insertions and removals with lazy rank updates
+		Random rand = new Random(13);
+		SparseBlockDCSR sblock = new SparseBlockDCSR(rows);
+		double[][] A = new double[rows][cols];
+		for( int i=0; i<4*nnz; i++ ) {
+			int r = rand.nextInt(rows);
+			int c = rand.nextInt(cols);
+			double v = (i % 3 == 2) ? 0 : rand.nextDouble() + 1;
+			sblock.set(r, c, v);
+			A[r][c] = v;
+			if( i % 97 == 0 )
+				Assert.assertEquals(A[r][c], sblock.get(r, c), eps);
+		}
+		long lnnz = 0;
+		for( int i=0; i<rows; i++ )
+			for( int j=0; j<cols; j++ ) {
+				Assert.assertEquals(A[i][j], sblock.get(i, j), eps);
+				lnnz += (A[i][j] != 0) ? 1 : 0;
+			}
+		Assert.assertEquals(lnnz, sblock.size());
+		Assert.assertTrue(sblock.checkValidity(rows, cols, lnnz, true));
+	}
+
+	@Test
+	public void testMatrixMultSingleThreaded() {
+		runMatrixMultTest(1);
+	}
+
+	@Test
+	public void testMatrixMultMultiThreaded() {
+		runMatrixMultTest(k);
+	}
+
+	@Test
+	public void testSumAndSerialize() throws Exception {
+		MatrixBlock mb = createSkewedMatrix(11);
+		double[][] A = DataConverter.convertToDoubleMatrix(mb);
+		double sum = 0;
+		for( int i=0; i<rows; i++ )
+			for( int j=0; j<cols; j++ )
+				sum += A[i][j];
+		Assert.assertEquals(sum, mb.sum(), eps);
+
+		//serialize and deserialize
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		mb.write(new DataOutputStream(bos));
+		MatrixBlock mb2 = new MatrixBlock();
+		mb2.readFields(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+		Assert.assertEquals(mb.getNonZeros(), mb2.getNonZeros());
+		TestUtils.compareMatrices(A, DataConverter.convertToDoubleMatrix(mb2), rows, cols, eps);
+	}
+
+	private static void runMatrixMultTest(int k) {
+		MatrixBlock m1 = createSkewedMatrix(3);
+		MatrixBlock m2 = MatrixBlock.randOperations(cols, 20, 0.9, -1, 1, "uniform", 5);
+		MatrixBlock ret = new MatrixBlock(rows, 20, false);
+		LibMatrixMult.matrixMult(m1, m2, ret, k);
+
+		double[][] A = DataConverter.convertToDoubleMatrix(m1);
+		double[][] B = DataConverter.convertToDoubleMatrix(m2);
+		double[][] C = new double[rows][20];
+		for( int i=0; i<rows; i++ )
+			for( int l=0; l<cols; l++ )
+				if( A[i][l] != 0 )
+					for( int j=0; j<20; j++ )
+						C[i][j] += A[i][l] * B[l][j];
+		TestUtils.compareMatrices(C, DataConverter.convertToDoubleMatrix(ret), rows, 20, eps);
+	}
+
+	private static MatrixBlock createSkewedMatrix(long seed) {
+		//few heavy rows and many light rows (power-law like)
+		Random rand = new Random(seed);
+		MatrixBlock mb = new MatrixBlock(rows, cols, true);
+		for( int i=0; i<nnz; i++ ) {
+			int r = (i < nnz/2) ? rand.nextInt(4) * 997 : rand.nextInt(rows);
+			mb.quickSetValue(r, rand.nextInt(cols), rand.nextDouble() + 1);
+		}
+		mb.recomputeNonZeros();
+		mb.examSparsity();
+		return mb;
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.misc;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.controlprogram.caching.AsyncIOScheduler;
+
+/**
+ * Checks that pending asynchronous writes are awaited before
+ * the same file is accessed again, and that flushing propagates
+ * write failures.
+ */
+public class AsyncIOSchedulerTest
+{
+	@Test
+	public void testWaitForWrite() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		AtomicBoolean done = new AtomicBoolean(false);
+		AsyncIOScheduler.submitWrite("./tmp/async1", () -> {
+			started.countDown();
+			Thread.sleep(200);
+			done.set(true);
+			return null;
+		});
+		started.await();
+		AsyncIOScheduler.waitForWrite("./tmp/async2"); //no pending write
+		AsyncIOScheduler.waitForWrite("./tmp/async1");
+		Assert.assertTrue(done.get());
+	}
+
+	@Test
+	public void testSerializedWrites() {
+		AtomicBoolean first = new AtomicBoolean(false);
+		AsyncIOScheduler.submitWrite("./tmp/async3", () -> {
+			Thread.sleep(200);
+			first.set(true);
+			return null;
+		});
+		AsyncIOScheduler.submitWrite("./tmp/async3", () -> {
+			Assert.assertTrue(first.get());
+			return null;
+		});
+		AsyncIOScheduler.flushWrites();
+	}
+
+	@Test
+	public void testFlushWriteFailure() {
+		AsyncIOScheduler.submitWrite("./tmp/async4", () -> {
+			throw new IOException("failed write");
+		});
+		try {
+			AsyncIOScheduler.flushWrites();
+			Assert.fail("Expected write failure.");
+		}
+		catch(DMLRuntimeException ex) {
+			Assert.assertTrue(ex.getMessage().contains("async4"));
+		}
+		//failed writes are removed on flush
+		AsyncIOScheduler.flushWrites();
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.component.misc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.controlprogram.caching.AsyncIOScheduler;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
+import org.tugraz.sysds.runtime.controlprogram.caching.LazyWriteBuffer;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
+import org.tugraz.sysds.runtime.matrix.data.InputInfo;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
+import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+import org.tugraz.sysds.runtime.meta.MetaDataFormat;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.runtime.util.IndexRange;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks the asynchronous prefetch of persistent reads and the write-behind
+ * of persistent writes through the buffer pool, incl the release of reserved
+ * buffer pool memory and the cancellation of pending prefetches on range reads.
+ */
+public class AsyncPrefetchTest
+{
+	private final static String DIR = "./tmp/async_prefetch_test/";
+	private final static int rows = 1234;
+	private final static int cols = 56;
+	private final static int blen = 1000;
+	
+	private MatrixBlock _mb;
+	
+	@Before
+	public void setUp() throws Exception {
+		CacheableData.initCaching("tmp_async_prefetch_test");
+		_mb = MatrixBlock.randOperations(rows, cols, 0.7, -1, 1, "uniform", 7);
+		DataConverter.writeMatrixToHDFS(_mb, DIR+"X", OutputInfo.BinaryBlockOutputInfo,
+			new MatrixCharacteristics(rows, cols, blen, blen, _mb.getNonZeros()));
+	}
+	
+	@After
+	public void tearDown() {
+		AsyncIOScheduler.flushWrites();
+		TestUtils.removeDirectories(new String[]{DIR});
+	}
+	
+	@Test
+	public void testPrefetchAcquireRead() {
+		MatrixObject mo = createMatrixObject(DIR+"X");
+		mo.prefetch();
+		Assert.assertTrue(mo.isPrefetched());
+		Assert.assertTrue(LazyWriteBuffer.getReservedSize() > 0);
+		
+		MatrixBlock mb = mo.acquireRead();
+		mo.release();
+		Assert.assertFalse(mo.isPrefetched());
+		Assert.assertEquals(0, LazyWriteBuffer.getReservedSize());
+		compare(_mb, mb);
+	}
+	
+	@Test
+	public void testPrefetchRangeReadCancel() throws Exception {
+		//occupy all read threads to keep the prefetch pending
+		CountDownLatch started = new CountDownLatch(AsyncIOScheduler.MAX_THREADS);
+		CountDownLatch blocked = new CountDownLatch(1);
+		Future<?>[] blockers = new Future<?>[AsyncIOScheduler.MAX_THREADS];
+		for( int i=0; i<blockers.length; i++ )
+			blockers[i] = AsyncIOScheduler.submitRead(() -> {
+				started.countDown();
+				blocked.await();
+				return null;
+			});
+		started.await();
+		
+		MatrixObject mo = createMatrixObject(DIR+"X");
+		mo.prefetch();
+		Assert.assertTrue(mo.isPrefetched());
+		
+		//pending prefetch is cancelled in favor of the range read
+		Assert.assertTrue(mo.allowsRangeRead());
+		Assert.assertFalse(mo.isPrefetched());
+		Assert.assertEquals(0, LazyWriteBuffer.getReservedSize());
+		blocked.countDown();
+		for( Future<?> f : blockers )
+			f.get();
+		
+		MatrixBlock mb = mo.readMatrixRange(new IndexRange(10, 99, 5, 20));
+		compare(_mb.slice(10, 99, 5, 20, new MatrixBlock()), mb);
+	}
+	
+	@Test
+	public void testPrefetchRangeReadReuse() throws Exception {
+		MatrixObject mo = createMatrixObject(DIR+"X");
+		mo.prefetch();
+		Assert.assertTrue(mo.isPrefetched());
+		
+		//wait for the prefetch to start (fifo task queue)
+		CountDownLatch started = new CountDownLatch(AsyncIOScheduler.MAX_THREADS);
+		for( int i=0; i<AsyncIOScheduler.MAX_THREADS; i++ )
+			AsyncIOScheduler.submitRead(() -> {
+				started.countDown();
+				return null;
+			});
+		started.await();
+		
+		//running or completed prefetch is reused by the full read
+		Assert.assertFalse(mo.allowsRangeRead());
+		Assert.assertTrue(mo.isPrefetched());
+		MatrixBlock mb = mo.acquireRead();
+		mo.release();
+		Assert.assertEquals(0, LazyWriteBuffer.getReservedSize());
+		compare(_mb, mb);
+	}
+	
+	@Test
+	public void testExportDataAsync() throws Exception {
+		MatrixObject mo = createMatrixObject(DIR+"Y");
+		mo.acquireModify(_mb);
+		mo.release();
+		mo.exportDataAsync(DIR+"Z", "binary", null);
+		
+		//read waits for the pending write of the same file
+		AsyncIOScheduler.waitForWrite(DIR+"Z");
+		MatrixObject mo2 = createMatrixObject(DIR+"Z");
+		MatrixBlock mb = mo2.acquireRead();
+		mo2.release();
+		compare(_mb, mb);
+		
+		//source remains readable, written file complete after flush
+		compare(_mb, mo.acquireRead());
+		mo.release();
+		AsyncIOScheduler.flushWrites();
+		compare(_mb, DataConverter.readMatrixFromHDFS(DIR+"Z",
+			InputInfo.BinaryBlockInputInfo, rows, cols, blen, blen));
+	}
+	
+	private static MatrixObject createMatrixObject(String fname) {
+		MatrixCharacteristics mc = new MatrixCharacteristics(rows, cols, blen, blen, -1);
+		MetaDataFormat meta = new MetaDataFormat(mc,
+			OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo);
+		return new MatrixObject(ValueType.FP64, fname, meta);
+	}
+	
+	private static void compare(MatrixBlock expected, MatrixBlock actual) {
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected),
+			DataConverter.convertToDoubleMatrix(actual), expected.getNumRows(), expected.getNumColumns(), 1e-14);
+	}
+}
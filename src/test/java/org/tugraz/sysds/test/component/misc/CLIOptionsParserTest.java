@@ -142,6 +142,21 @@ public class CLIOptionsParserTest {
 		Assert.assertEquals(false, o.lineage_reuse);
 	}
 	
+	@Test
+	public void testProfile() throws Exception {
+		String cl = "systemml -f test.dml -profile prof.json";
+		String[] args = cl.split(" ");
+		DMLOptions o = DMLOptions.parseCLArguments(args);
+		Assert.assertEquals("prof.json", o.profile);
+	}
+	
+	@Test(expected = ParseException.class)
+	public void testProfileMissingFile() throws Exception {
+		String cl = "systemml -f test.dml -profile";
+		String[] args = cl.split(" ");
+		DMLOptions.parseCLArguments(args);
+	}
+	
 	@Test
 	public void testLineageReuse() throws Exception {
 		String cl = "systemml -f test.dml -lineage reuse";
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.misc;
+
+import java.io.IOException;
+import java.util.EnumMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.hops.cost.CostCalibration;
+import org.tugraz.sysds.hops.cost.CostCalibration.Coefficient;
+
+/**
+ * Smoke test of the cost model calibration, which checks that all
+ * coefficients are obtained and within sane ranges (positive, finite,
+ * and not off by orders of magnitude).
+ */
+public class CostCalibrationTest
+{
+	@Test
+	public void testDefaults() {
+		CostCalibration.reset();
+		Assert.assertFalse(CostCalibration.isCalibrated());
+		for( Coefficient c : Coefficient.values() ) {
+			Assert.assertTrue(c.name(), c.getDefault() > 0);
+			Assert.assertEquals(c.name(), c.getDefault(), CostCalibration.get(c), 0);
+		}
+	}
+
+	@Test
+	public void testBaselineDefaults() {
+		//w/o calibration, the defaults match the former hard-coded constants
+		for( Coefficient c : new Coefficient[]{Coefficient.FLOPS_MATMULT,
+			Coefficient.FLOPS_CELLWISE, Coefficient.FLOPS_AGGREGATE} )
+			Assert.assertEquals(c.name(), 2d * 1024 * 1024 * 1024, c.getDefault(), 0);
+		Assert.assertEquals(150, Coefficient.MBS_HDFSREAD_BINARYBLOCK_DENSE.getDefault(), 0);
+		Assert.assertEquals(75, Coefficient.MBS_HDFSREAD_BINARYBLOCK_SPARSE.getDefault(), 0);
+		Assert.assertEquals(150, Coefficient.MBS_FSWRITE_BINARYBLOCK_DENSE.getDefault(), 0);
+		Assert.assertEquals(75, Coefficient.MBS_FSWRITE_BINARYBLOCK_SPARSE.getDefault(), 0);
+	}
+
+	@Test
+	public void testCalibrate() throws IOException {
+		EnumMap<Coefficient, Double> coeffs = CostCalibration.calibrate();
+		for( Coefficient c : Coefficient.values() ) {
+			Double val = coeffs.get(c);
+			Assert.assertNotNull("Missing coefficient "+c, val);
+			Assert.assertTrue(c+"="+val, val > 0 && !Double.isInfinite(val) && !Double.isNaN(val));
+			if( c.name().startsWith("FLOPS") ) //[1 MFLOP/s, 10 TFLOP/s]
+				Assert.assertTrue(c+"="+val, val >= 1e6 && val <= 1e13);
+			else //[0.1 MB/s, 1 TB/s]
+				Assert.assertTrue(c+"="+val, val >= 0.1 && val <= 1e6);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.component.misc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.lineage.LineageBinaryFormat;
+import org.tugraz.sysds.runtime.lineage.LineageItem;
+import org.tugraz.sysds.runtime.lineage.LineageItemUtils;
+import org.tugraz.sysds.runtime.util.HDFSTool;
+import org.tugraz.sysds.utils.Explain;
+
+/**
+ * Checks the round trip of lineage traces through the binary trace
+ * format, incl multiple (compressed) blocks, dedup items, and the format
+ * detection on read.
+ */
+public class LineageBinaryFormatTest
+{
+	@Test
+	public void testSmallTrace() throws IOException {
+		runRoundTripTest(createTrace(10), false, 1, true);
+	}
+
+	@Test
+	public void testSmallTraceCompressed() throws IOException {
+		runRoundTripTest(createTrace(10), true, 1, true);
+	}
+
+	@Test
+	public void testLargeTraceMultiThreaded() throws IOException {
+		runRoundTripTest(createTrace(100000), false, 4, false);
+	}
+
+	@Test
+	public void testLargeTraceCompressedMultiThreaded() throws IOException {
+		runRoundTripTest(createTrace(100000), true, 4, false);
+	}
+
+	@Test
+	public void testDedupTrace() throws IOException {
+		//shared dedup pattern, written once
+		LineageItem x = new LineageItem("X", "CP°rand°X°10°10", "rand");
+		LineageItem patch = new LineageItem("X", "+", new LineageItem[]{
+			new LineageItem("X", "1·SCALAR·FP64·true"), new LineageItem("c", "7·SCALAR·FP64·true")});
+		LineageItem li = x;
+		for( int i=0; i<100; i++ )
+			li = new LineageItem("X", String.valueOf(i % 2), LineageItem.dedupItemOpcode, new LineageItem[]{li, patch});
+		LineageItem ret = runRoundTripTest(li, true, 1, true);
+		Assert.assertEquals(LineageItemUtils.rDecompress(li), LineageItemUtils.rDecompress(ret));
+	}
+
+	@Test
+	public void testFormatDetection() throws IOException {
+		LineageItem li = createTrace(100);
+		String fname = System.getProperty("java.io.tmpdir") + "/lineage_" + System.nanoTime();
+		try {
+			LineageBinaryFormat.writeTrace(li, fname, true);
+			Assert.assertTrue(LineageBinaryFormat.isBinaryTrace(fname));
+			Assert.assertEquals(Explain.explain(li), Explain.explain(LineageItemUtils.readTraceFromHDFS(fname)));
+			LineageItemUtils.writeTraceToHDFS(Explain.explain(li), fname);
+			Assert.assertFalse(LineageBinaryFormat.isBinaryTrace(fname));
+			Assert.assertEquals(li, LineageItemUtils.readTraceFromHDFS(fname));
+		}
+		finally {
+			HDFSTool.deleteFileIfExistOnHDFS(fname);
+		}
+	}
+
+	private static LineageItem runRoundTripTest(LineageItem li, boolean compress, int k, boolean explain) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try( DataOutputStream out = new DataOutputStream(bos) ) {
+			LineageBinaryFormat.writeTrace(li, out, compress);
+		}
+		LineageItem ret = LineageBinaryFormat.readTrace(new ByteArrayInputStream(bos.toByteArray()), k);
+		Assert.assertEquals(li, ret);
+		Assert.assertEquals(li.getId(), ret.getId());
+		if( explain ) //recursive explain only for small traces
+			Assert.assertEquals(Explain.explain(li), Explain.explain(ret));
+		return ret;
+	}
+
+	private static LineageItem createTrace(int len) {
+		LineageItem one = new LineageItem("one", "1·SCALAR·FP64·true");
+		LineageItem x = new LineageItem("x", "3·SCALAR·FP64·true");
+		LineageItem li = x;
+		for( int i=0; i<len; i++ ) {
+			LineageItem tmp = new LineageItem("tmp", (i%3==0) ? "*" : "+", new LineageItem[]{li, one});
+			li = new LineageItem("X", "-", new LineageItem[]{tmp, (i%2==0) ? x : tmp});
+		}
+		return li;
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.component.misc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.lineage.LineageItem;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
+
+/**
+ * Checks the fingerprint-based structural equality of lineage items,
+ * including deep lineage chains and concurrent construction.
+ */
+public class LineageItemEqualsTest
+{
+	@Test
+	public void testCreationIgnoresName() {
+		LineageItem a = new LineageItem("X", "CP°rand°X°10°10", "rand");
+		LineageItem b = new LineageItem("Y", "CP°rand°Y°10°10", "rand");
+		Assert.assertEquals(a, b);
+		Assert.assertEquals(a.hashCode(), b.hashCode());
+	}
+
+	@Test
+	public void testInputOrder() {
+		LineageItem x = new LineageItem("x", "1");
+		LineageItem y = new LineageItem("y", "2");
+		LineageItem a = new LineageItem("a", "-", new LineageItem[]{x, y});
+		LineageItem b = new LineageItem("b", "-", new LineageItem[]{y, x});
+		LineageItem c = new LineageItem("c", "-", new LineageItem[]{
+			new LineageItem("x2", "1"), new LineageItem("y2", "2")});
+		Assert.assertNotEquals(a, b);
+		Assert.assertEquals(a, c);
+	}
+
+	@Test
+	public void testDeepChain() {
+		//deep loop-carried lineage (no recursion on equals/hashCode)
+		LineageItem a = createChain(100000, "+");
+		LineageItem b = createChain(100000, "+");
+		LineageItem c = createChain(100000, "*");
+		Assert.assertEquals(a, b);
+		Assert.assertEquals(a.hashCode(), b.hashCode());
+		Assert.assertNotEquals(a, c);
+	}
+
+	@Test
+	public void testConcurrentConstruction() throws Exception {
+		ExecutorService pool = CommonThreadPool.get(4);
+		try {
+			List<Callable<LineageItem>> tasks = new ArrayList<>();
+			for( int i=0; i<16; i++ )
+				tasks.add(() -> createChain(10000, "+"));
+			LineageItem first = null;
+			for( Future<LineageItem> task : pool.invokeAll(tasks) ) {
+				LineageItem li = task.get();
+				if( first != null )
+					Assert.assertEquals(first, li);
+				first = li;
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	private static LineageItem createChain(int len, String opcode) {
+		LineageItem one = new LineageItem("one", "1·SCALAR·FP64·true");
+		LineageItem li = new LineageItem("X", "CP°rand°X°10°10", "rand");
+		for( int i=0; i<len; i++ )
+			li = new LineageItem("X", opcode, new LineageItem[]{li, one});
+		return li;
+	}
+}
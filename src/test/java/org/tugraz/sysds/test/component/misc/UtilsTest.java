@@ -30,6 +30,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.tugraz.sysds.conf.DMLConfig;
 import org.tugraz.sysds.runtime.instructions.gpu.context.GPUContextPool;
+import org.tugraz.sysds.runtime.io.IOUtilFunctions;
 
 /**
  * To test utility functions scattered throughout the codebase
@@ -126,4 +127,24 @@ public class UtilsTest {
 		dmlConfig.setTextValue("E", "a");
 		Assert.assertEquals("a", dmlConfig.getTextValue("E"));
 	}
+
+	@Test
+	public void testParseDoubleBytes() {
+		String[] tests = new String[] {"0", "-0", "1", "-7", "+3", "0.5", ".25", "7.",
+			"3.14159", "-2.718281828459045", "1e10", "1.5E-7", "-4.2e+3", "0.000123",
+			"9007199254740993", "12345678901234567890123", "1e-300", "1.7976931348623157E308",
+			"NaN", "Infinity", "-Infinity", "0.1", "0.3", "123456.789e-5", "0000.00100",
+			"123456789012345678", "0.9876543210987654321", "9999999999999999999",
+			"-9223372036854775808", "18446744073709551616", "1.2345678901234567890e5"};
+		for( String str : tests ) {
+			byte[] b = (" "+str+" ").getBytes();
+			Assert.assertEquals(str, Double.doubleToLongBits(Double.parseDouble(str)),
+				Double.doubleToLongBits(IOUtilFunctions.parseDouble(b, 1, str.length())));
+		}
+	}
+
+	@Test(expected=NumberFormatException.class)
+	public void testParseDoubleBytesFail() {
+		IOUtilFunctions.parseDouble("1.2.3".getBytes(), 0, 5);
+	}
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.parfor;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.controlprogram.parfor.LocalTaskQueue;
+import org.tugraz.sysds.runtime.controlprogram.parfor.LocalTaskQueueWorkStealing;
+import org.tugraz.sysds.runtime.controlprogram.parfor.Task;
+import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitionerWorkStealing;
+import org.tugraz.sysds.runtime.instructions.cp.IntObject;
+
+/**
+ * Checks that the work-stealing task queue executes every
+ * iteration exactly once, for skewed iteration costs as well.
+ */
+public class ParForWorkStealingQueueTest
+{
+	@Test
+	public void testUniformSmall() throws InterruptedException {
+		runQueueTest(1, 7, 1, 4, false);
+	}
+
+	@Test
+	public void testUniformLarge() throws InterruptedException {
+		runQueueTest(1, 100000, 1, 8, false);
+	}
+
+	@Test
+	public void testSkewedLarge() throws InterruptedException {
+		runQueueTest(1, 20000, 1, 8, true);
+	}
+
+	@Test
+	public void testIncrementSkewed() throws InterruptedException {
+		runQueueTest(3, 30000, 7, 6, true);
+	}
+
+	@Test
+	public void testMoreWorkersThanIterations() throws InterruptedException {
+		runQueueTest(1, 3, 1, 8, false);
+	}
+
+	@Test
+	public void testWorkersStartedBeforeInit() throws InterruptedException {
+		runQueueTest(1, 20000, 1, 8, true, true);
+	}
+
+	private static void runQueueTest(long from, long to, long incr, int k, boolean skewed)
+		throws InterruptedException
+	{
+		runQueueTest(from, to, incr, k, skewed, false);
+	}
+
+	private static void runQueueTest(long from, long to, long incr, int k, boolean skewed, boolean lateInit)
+		throws InterruptedException
+	{
+		LocalTaskQueueWorkStealing queue = new LocalTaskQueueWorkStealing(k);
+		TaskPartitionerWorkStealing tp = new TaskPartitionerWorkStealing(1, k, "i",
+			new IntObject(from), new IntObject(to), new IntObject(incr));
+		if( !lateInit )
+			tp.createTasks(queue);
+		long n = tp.getNumIterations();
+
+		//execute tasks in parallel and count executed iterations
+		AtomicIntegerArray counts = new AtomicIntegerArray((int)n);
+		AtomicLong numTasks = new AtomicLong(0);
+		Thread[] threads = new Thread[k];
+		for( int i=0; i<k; i++ ) {
+			threads[i] = new Thread(() -> {
+				try {
+					Task t = null;
+					while( (t = queue.dequeueTask()) != LocalTaskQueue.NO_MORE_TASKS ) {
+						List<IntObject> it = t.getIterations();
+						for( long j=it.get(0).getLongValue(); j<=it.get(1).getLongValue(); j+=it.get(2).getLongValue() ) {
+							int pos = (int)((j - from) / incr);
+							counts.incrementAndGet(pos);
+							if( skewed && pos < n/10 )
+								busyWait(pos);
+						}
+						numTasks.incrementAndGet();
+					}
+				}
+				catch(InterruptedException ex) {
+					throw new RuntimeException(ex);
+				}
+			});
+			threads[i].start();
+		}
+		//workers started before the ranges are initialized must wait
+		if( lateInit ) {
+			Thread.sleep(50);
+			Assert.assertEquals(0, queue.getNumCreatedTasks());
+			tp.createTasks(queue);
+		}
+		for( Thread thread : threads )
+			thread.join();
+
+		for( int i=0; i<n; i++ )
+			Assert.assertEquals("iteration "+i, 1, counts.get(i));
+		Assert.assertEquals(numTasks.get(), queue.getNumCreatedTasks());
+		if( skewed )
+			Assert.assertTrue(queue.getNumSteals() > 0);
+	}
+
+	private static double busyWait(long seed) {
+		double tmp = seed;
+		for( int i=0; i<20000; i++ )
+			tmp = Math.sqrt(tmp + i);
+		return tmp;
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.parfor;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.parser.ParForStatementBlock.ResultVar;
+import org.tugraz.sysds.runtime.controlprogram.LocalVariableMap;
+import org.tugraz.sysds.runtime.controlprogram.parfor.ResultRegionTracker;
+import org.tugraz.sysds.runtime.instructions.cp.Data;
+import org.tugraz.sysds.runtime.instructions.cp.IntObject;
+import org.tugraz.sysds.runtime.util.IndexRange;
+
+/**
+ * Checks the tracking of dirty regions of parfor result variables
+ * written by left indexing.
+ */
+public class ResultRegionTrackerTest
+{
+	@Test
+	public void testRowAppends() {
+		Data[] objs = createObjects(5);
+		ResultRegionTracker rt = createTracker(objs[0]);
+		for( int i=0; i<4; i++ )
+			rt.trackLeftIndexing("R", objs[i], objs[i+1], new IndexRange(10+i, 10+i, 0, 9), false);
+		List<IndexRange> regions = rt.getDirtyRegions("R", objs[4]);
+		Assert.assertEquals(1, regions.size());
+		assertRange(regions.get(0), 10, 13, 0, 9);
+	}
+
+	@Test
+	public void testInPlaceDisjoint() {
+		Data[] objs = createObjects(1);
+		ResultRegionTracker rt = createTracker(objs[0]);
+		rt.trackLeftIndexing("R", objs[0], objs[0], new IndexRange(0, 4, 0, 4), true);
+		rt.trackLeftIndexing("R", objs[0], objs[0], new IndexRange(10, 14, 10, 14), true);
+		List<IndexRange> regions = rt.getDirtyRegions("R", objs[0]);
+		Assert.assertEquals(2, regions.size());
+	}
+
+	@Test
+	public void testOverlapBoundingBox() {
+		Data[] objs = createObjects(1);
+		ResultRegionTracker rt = createTracker(objs[0]);
+		rt.trackLeftIndexing("R", objs[0], objs[0], new IndexRange(0, 4, 0, 4), true);
+		rt.trackLeftIndexing("R", objs[0], objs[0], new IndexRange(10, 14, 10, 14), true);
+		rt.trackLeftIndexing("R", objs[0], objs[0], new IndexRange(3, 11, 3, 11), true);
+		List<IndexRange> regions = rt.getDirtyRegions("R", objs[0]);
+		Assert.assertEquals(1, regions.size());
+		assertRange(regions.get(0), 0, 14, 0, 14);
+	}
+
+	@Test
+	public void testUntrackedAssignment() {
+		Data[] objs = createObjects(3);
+		ResultRegionTracker rt = createTracker(objs[0]);
+		rt.trackLeftIndexing("R", objs[0], objs[1], new IndexRange(0, 0, 0, 9), false);
+		//final object not created by tracked left indexing
+		Assert.assertNull(rt.getDirtyRegions("R", objs[2]));
+		//left indexing into stale object
+		rt.trackLeftIndexing("R", objs[2], objs[2], new IndexRange(1, 1, 0, 9), true);
+		Assert.assertNull(rt.getDirtyRegions("R", objs[2]));
+	}
+
+	@Test
+	public void testUnknownVariable() {
+		Data[] objs = createObjects(1);
+		ResultRegionTracker rt = createTracker(objs[0]);
+		Assert.assertNull(rt.getDirtyRegions("S", objs[0]));
+	}
+
+	private static Data[] createObjects(int n) {
+		Data[] ret = new Data[n];
+		for( int i=0; i<n; i++ )
+			ret[i] = new IntObject(i);
+		return ret;
+	}
+
+	private static ResultRegionTracker createTracker(Data obj) {
+		LocalVariableMap vars = new LocalVariableMap();
+		vars.put("R", obj);
+		return new ResultRegionTracker(Arrays.asList(new ResultVar("R", false)), vars);
+	}
+
+	private static void assertRange(IndexRange r, long rl, long ru, long cl, long cu) {
+		Assert.assertEquals(rl, r.rowStart);
+		Assert.assertEquals(ru, r.rowEnd);
+		Assert.assertEquals(cl, r.colStart);
+		Assert.assertEquals(cu, r.colEnd);
+	}
+}
@@ -26,6 +26,7 @@ import org.junit.Test;
 import org.tugraz.sysds.runtime.data.SparseBlock;
 import org.tugraz.sysds.runtime.data.SparseBlockCOO;
 import org.tugraz.sysds.runtime.data.SparseBlockCSR;
+import org.tugraz.sysds.runtime.data.SparseBlockDCSR;
 import org.tugraz.sysds.runtime.data.SparseBlockMCSR;
 import org.tugraz.sysds.runtime.matrix.data.IJV;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
@@ -98,6 +99,21 @@ public class SparseBlockDelete extends AutomatedTestBase
 	public void testSparseBlockCOO3()  {
 		runSparseBlockDeleteTest(SparseBlock.Type.COO, sparsity3);
 	}
+	
+	@Test
+	public void testSparseBlockDCSR1()  {
+		runSparseBlockDeleteTest(SparseBlock.Type.DCSR, sparsity1);
+	}
+	
+	@Test
+	public void testSparseBlockDCSR2()  {
+		runSparseBlockDeleteTest(SparseBlock.Type.DCSR, sparsity2);
+	}
+	
+	@Test
+	public void testSparseBlockDCSR3()  {
+		runSparseBlockDeleteTest(SparseBlock.Type.DCSR, sparsity3);
+	}
 		
 	/**
 	 * 
@@ -119,6 +135,7 @@ public class SparseBlockDelete extends AutomatedTestBase
 				case MCSR: sblock = new SparseBlockMCSR(srtmp); break;
 				case CSR: sblock = new SparseBlockCSR(srtmp); break;
 				case COO: sblock = new SparseBlockCOO(srtmp); break;
+				case DCSR: sblock = new SparseBlockDCSR(srtmp); break;
 			}
 			
 			//delete range per row via set
@@ -24,6 +24,7 @@ import org.junit.Test;
 import org.tugraz.sysds.runtime.data.SparseBlock;
 import org.tugraz.sysds.runtime.data.SparseBlockCOO;
 import org.tugraz.sysds.runtime.data.SparseBlockCSR;
+import org.tugraz.sysds.runtime.data.SparseBlockDCSR;
 import org.tugraz.sysds.runtime.data.SparseBlockMCSR;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.util.DataConverter;
@@ -190,6 +191,51 @@ public class SparseBlockGetFirstIndex extends AutomatedTestBase
 		runSparseBlockGetFirstIndexTest(SparseBlock.Type.COO, sparsity3, IndexType.LTE);
 	}
 	
+	@Test
+	public void testSparseBlockDCSR1GT()  {
+		runSparseBlockGetFirstIndexTest(SparseBlock.Type.DCSR, sparsity1, IndexType.GT);
+	}
+	
+	@Test
+	public void testSparseBlockDCSR2GT()  {
+		runSparseBlockGetFirstIndexTest(SparseBlock.Type.DCSR, sparsity2, IndexType.GT);
+	}
+	
+	@Test
+	public void testSparseBlockDCSR3GT()  {
+		runSparseBlockGetFirstIndexTest(SparseBlock.Type.DCSR, sparsity3, IndexType.GT);
+	}
+	
+	@Test
+	public void testSparseBlockDCSR1GTE()  {
+		runSparseBlockGetFirstIndexTest(SparseBlock.Type.DCSR, sparsity1, IndexType.GTE);
+	}
+	
+	@Test
+	public void testSparseBlockDCSR2GTE()  {
+		runSparseBlockGetFirstIndexTest(SparseBlock.Type.DCSR, sparsity2, IndexType.GTE);
+	}
+	
+	@Test
+	public void testSparseBlockDCSR3GTE()  {
+		runSparseBlockGetFirstIndexTest(SparseBlock.Type.DCSR, sparsity3, IndexType.GTE);
+	}
+	
+	@Test
+	public void testSparseBlockDCSR1LTE()  {
+		runSparseBlockGetFirstIndexTest(SparseBlock.Type.DCSR, sparsity1, IndexType.LTE);
+	}
+	
+	@Test
+	public void testSparseBlockDCSR2LTE()  {
+		runSparseBlockGetFirstIndexTest(SparseBlock.Type.DCSR, sparsity2, IndexType.LTE);
+	}
+	
+	@Test
+	public void testSparseBlockDCSR3LTE()  {
+		runSparseBlockGetFirstIndexTest(SparseBlock.Type.DCSR, sparsity3, IndexType.LTE);
+	}
+	
 	/**
 	 * 
 	 * @param sparseM1
@@ -211,6 +257,7 @@ public class SparseBlockGetFirstIndex extends AutomatedTestBase
 				case MCSR: sblock = new SparseBlockMCSR(srtmp); break;
 				case CSR: sblock = new SparseBlockCSR(srtmp); break;
 				case COO: sblock = new SparseBlockCOO(srtmp); break;
+				case DCSR: sblock = new SparseBlockDCSR(srtmp); break;
 			}
 			
 			//check for correct number of non-zeros
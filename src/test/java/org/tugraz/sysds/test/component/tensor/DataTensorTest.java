@@ -0,0 +1,267 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.component.tensor;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheDataInput;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheDataOutput;
+import org.tugraz.sysds.runtime.data.DataTensorBlock;
+import org.tugraz.sysds.runtime.data.TensorBlock;
+import org.tugraz.sysds.runtime.instructions.InstructionUtils;
+import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+
+public class DataTensorTest
+{
+	private static final ValueType[] SCHEMA = new ValueType[]{
+		ValueType.FP64, ValueType.INT64, ValueType.BOOLEAN, ValueType.STRING};
+	
+	@Test
+	public void testFrameRoundTripZeroCopy() {
+		FrameBlock fb = createFrame(7);
+		DataTensorBlock tb = new DataTensorBlock(fb);
+		Assert.assertArrayEquals(SCHEMA, tb.getSchema());
+		Assert.assertSame(fb.getColumnData(0), tb.getColumnBlock(0).valuesAt(0));
+		FrameBlock fb2 = tb.toFrameBlock();
+		Assert.assertSame(fb.getColumnData(0), fb2.getColumnData(0));
+		Assert.assertSame(fb.getColumnData(1), fb2.getColumnData(1));
+		Assert.assertSame(fb.getColumnData(3), fb2.getColumnData(3));
+		for( int i=0; i<fb.getNumRows(); i++ )
+			for( int j=0; j<fb.getNumColumns(); j++ )
+				Assert.assertEquals(String.valueOf(fb.get(i, j)), String.valueOf(fb2.get(i, j)));
+	}
+	
+	@Test
+	public void testFrameColumnRange() {
+		FrameBlock fb = createFrame(5);
+		DataTensorBlock tb = new DataTensorBlock(fb, 1, 2);
+		Assert.assertEquals(5, tb.getDim(0));
+		Assert.assertEquals(2, tb.getDim(1));
+		Assert.assertArrayEquals((long[])fb.getColumnData(1), tb.getColumnINT64(0));
+		Assert.assertTrue(Arrays.equals((boolean[])fb.getColumnData(2), tb.getColumnBoolean(1)));
+	}
+	
+	@Test
+	public void testTypedColumnAccess() {
+		DataTensorBlock tb = new DataTensorBlock(SCHEMA.clone(), new int[]{3, 4});
+		tb.setColumn(0, new double[]{1.5, 0, -2});
+		tb.setColumn(1, new long[]{3, 4, 5});
+		tb.setColumn(2, new boolean[]{true, false, true});
+		tb.setColumn(3, new String[]{"7", null, "8.5"});
+		Assert.assertArrayEquals(new double[]{3, 4, 5}, tb.getColumnFP64(1), 0);
+		Assert.assertArrayEquals(new double[]{1, 0, 1}, tb.getColumnFP64(2), 0);
+		Assert.assertArrayEquals(new double[]{7, 0, 8.5}, tb.getColumnFP64(3), 0);
+		Assert.assertArrayEquals(new long[]{1, 0, -2}, tb.getColumnINT64(0));
+		Assert.assertArrayEquals(new String[]{"3", "4", "5"}, tb.getColumnString(1));
+		Assert.assertEquals(-2, tb.get(2, 0), 0);
+		Assert.assertEquals(8.5, tb.get(new int[]{2, 3}), 0);
+		tb.set(1, 1, 9);
+		Assert.assertEquals(9, tb.getColumnINT64(1)[1]);
+	}
+	
+	@Test
+	public void testToMatrix3D() {
+		runToMatrixTest(new int[]{6, 4, 3}, 1);
+	}
+	
+	@Test
+	public void testToMatrixParallel() {
+		runToMatrixTest(new int[]{3000, 4, 100}, 4);
+	}
+	
+	@Test
+	public void testSchemaNotShared() {
+		ValueType[] schema = new ValueType[]{ValueType.FP32, ValueType.INT32};
+		DataTensorBlock tb = new DataTensorBlock(schema, new int[]{3, 2});
+		tb.setColumn(0, new double[]{1, 2, 3});
+		Assert.assertEquals(ValueType.FP64, tb.getValueType(0));
+		Assert.assertEquals(ValueType.FP32, schema[0]);
+	}
+	
+	@Test
+	public void testNonZerosAndReset() {
+		DataTensorBlock tb = createTensor(new int[]{5, 4});
+		Assert.assertEquals(countNonZeros(tb.toMatrixBlock(1)), tb.getNonZeros());
+		Assert.assertTrue(tb.getNonZeros() > 0);
+		tb.reset(new int[]{8, 4});
+		Assert.assertEquals(8, tb.getDim(0));
+		Assert.assertEquals(0, tb.getNonZeros());
+		Assert.assertEquals(0, tb.get(7, 1), 0);
+		tb.reset();
+		Assert.assertEquals(0, tb.getNonZeros());
+	}
+	
+	@Test(expected = Exception.class)
+	public void testResetInvalidDims() {
+		createTensor(new int[]{5, 4}).reset(new int[]{5, 3});
+	}
+	
+	@Test
+	public void testAggregateSum() {
+		DataTensorBlock tb = createTensor(new int[]{6, 4, 3});
+		MatrixBlock mb = tb.toMatrixBlock(1);
+		TensorBlock ret = tb.aggregateUnaryOperations(
+			InstructionUtils.parseBasicAggregateUnaryOperator("uak+", 1), null);
+		double sum = 0;
+		for( int i=0; i<mb.getNumRows(); i++ )
+			for( int j=0; j<mb.getNumColumns(); j++ )
+				sum += mb.getValue(i, j);
+		Assert.assertEquals(sum, ret.get(0, 0), 1e-10);
+	}
+	
+	@Test
+	public void testSerialization2D() {
+		runSerializationTest(createTensor(new int[]{7, 4}));
+	}
+	
+	@Test
+	public void testSerialization3D() {
+		runSerializationTest(createTensor(new int[]{5, 4, 3}));
+	}
+	
+	@Test
+	public void testSerializationNarrowTypes() {
+		DataTensorBlock tb = new DataTensorBlock(
+			new ValueType[]{ValueType.FP32, ValueType.INT32}, new int[]{4, 2});
+		tb.allocateDenseBlock(true);
+		for( int i=0; i<4; i++ ) {
+			tb.set(i, 0, i * 0.5);
+			tb.set(i, 1, i * 7);
+		}
+		runSerializationTest(tb);
+	}
+	
+	@Test
+	public void testSerializationEmpty() {
+		DataTensorBlock tb = new DataTensorBlock(SCHEMA, new int[]{3, 4});
+		DataTensorBlock tb2 = serializeAndDeserialize(tb);
+		Assert.assertFalse(tb2.isAllocated());
+		Assert.assertArrayEquals(SCHEMA, tb2.getSchema());
+		Assert.assertEquals(3, tb2.getDim(0));
+		Assert.assertFalse(tb.isShallowSerialize(true));
+	}
+	
+	private static void runSerializationTest(DataTensorBlock tb) {
+		DataTensorBlock tb2 = serializeAndDeserialize(tb);
+		Assert.assertArrayEquals(tb.getSchema(), tb2.getSchema());
+		Assert.assertEquals(tb.getNumDims(), tb2.getNumDims());
+		for( int i=0; i<tb.getNumDims(); i++ )
+			Assert.assertEquals(tb.getDim(i), tb2.getDim(i));
+		for( int j=0; j<tb.getDim(1); j++ ) {
+			Assert.assertArrayEquals(tb.getColumnString(j), tb2.getColumnString(j));
+			Assert.assertArrayEquals(tb.getColumnFP64(j), tb2.getColumnFP64(j), 0);
+		}
+		Assert.assertEquals(tb.getNonZeros(), tb2.getNonZeros());
+	}
+	
+	private static DataTensorBlock serializeAndDeserialize(DataTensorBlock tb) {
+		try {
+			byte[] bdata = new byte[(int)tb.getExactSerializedSize()];
+			DataOutput dout = new CacheDataOutput(bdata);
+			tb.write(dout);
+			DataInput din = new CacheDataInput(bdata);
+			DataTensorBlock tb2 = new DataTensorBlock(new ValueType[]{ValueType.FP64, ValueType.FP64}, new int[]{0, 2});
+			tb2.readFields(din);
+			return tb2;
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	private static DataTensorBlock createTensor(int[] dims) {
+		DataTensorBlock tb = new DataTensorBlock(SCHEMA, dims);
+		tb.allocateDenseBlock(true);
+		Random rand = new Random(7);
+		int inner = tb.getInnerLength();
+		for( int i=0; i<dims[0]; i++ )
+			for( int j=0; j<dims[1]; j++ )
+				for( int l=0; l<inner; l++ ) {
+					double v = (j == 2) ? rand.nextInt(2) : (rand.nextDouble() < 0.3) ? 0 : rand.nextInt(100);
+					if( j == 3 )
+						tb.set((dims.length == 2) ? new int[]{i, j} : new int[]{i, j, l},
+							(v != 0) ? String.valueOf(v) : null);
+					else
+						tb.set(i, j * inner + l, v);
+				}
+		return tb;
+	}
+	
+	private static long countNonZeros(MatrixBlock mb) {
+		long nnz = 0;
+		for( int i=0; i<mb.getNumRows(); i++ )
+			for( int j=0; j<mb.getNumColumns(); j++ )
+				nnz += (mb.getValue(i, j) != 0) ? 1 : 0;
+		return nnz;
+	}
+	
+	private static void runToMatrixTest(int[] dims, int k) {
+		DataTensorBlock tb = new DataTensorBlock(SCHEMA.clone(), dims);
+		tb.allocateDenseBlock(true);
+		Random rand = new Random(7);
+		int inner = tb.getInnerLength();
+		double[][] expected = new double[dims[0]][dims[1] * inner];
+		for( int i=0; i<dims[0]; i++ )
+			for( int j=0; j<dims[1]; j++ )
+				for( int l=0; l<inner; l++ ) {
+					int[] ix = new int[]{i, j, l};
+					double v = (j == 2) ? rand.nextInt(2) : (rand.nextDouble() < 0.3) ? 0 : rand.nextInt(100);
+					if( j == 3 )
+						tb.set(ix, String.valueOf(v));
+					else
+						tb.set(ix, v);
+					expected[i][j * inner + l] = v;
+				}
+		MatrixBlock mb = tb.toMatrixBlock(k);
+		Assert.assertEquals(dims[0], mb.getNumRows());
+		Assert.assertEquals(dims[1] * inner, mb.getNumColumns());
+		long nnz = 0;
+		for( int i=0; i<mb.getNumRows(); i++ )
+			for( int j=0; j<mb.getNumColumns(); j++ ) {
+				Assert.assertEquals(expected[i][j], mb.getValue(i, j), 0);
+				nnz += (expected[i][j] != 0) ? 1 : 0;
+			}
+		Assert.assertEquals(nnz, mb.getNonZeros());
+	}
+	
+	private static FrameBlock createFrame(int rows) {
+		FrameBlock fb = new FrameBlock();
+		double[] c1 = new double[rows];
+		long[] c2 = new long[rows];
+		boolean[] c3 = new boolean[rows];
+		String[] c4 = new String[rows];
+		for( int i=0; i<rows; i++ ) {
+			c1[i] = i * 1.5;
+			c2[i] = i * 3;
+			c3[i] = i % 2 == 0;
+			c4[i] = "s" + i;
+		}
+		fb.appendColumn(c1);
+		fb.appendColumn(c2);
+		fb.appendColumn(c3);
+		fb.appendColumn(c4);
+		return fb;
+	}
+}
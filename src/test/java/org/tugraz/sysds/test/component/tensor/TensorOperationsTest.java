@@ -0,0 +1,303 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.component.tensor;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.data.TensorBlock;
+import org.tugraz.sysds.runtime.functionobjects.Minus;
+import org.tugraz.sysds.runtime.instructions.InstructionUtils;
+import org.tugraz.sysds.runtime.matrix.operators.AggregateUnaryOperator;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
+
+public class TensorOperationsTest
+{
+	@Test
+	public void testBinaryBroadcastDense() {
+		runBinaryTest(new int[]{4, 3, 5}, new int[]{1, 3, 1}, false, 1);
+	}
+	
+	@Test
+	public void testBinaryBroadcastBothDense() {
+		runBinaryTest(new int[]{4, 1, 5, 2}, new int[]{4, 3, 1, 2}, false, 1);
+	}
+	
+	@Test
+	public void testBinaryBroadcastSparse() {
+		runBinaryTest(new int[]{4, 3, 5}, new int[]{4, 1, 5}, true, 1);
+	}
+	
+	@Test
+	public void testBinaryBroadcastParallel() {
+		runBinaryTest(new int[]{64, 50, 400}, new int[]{1, 50, 1}, false, 4);
+	}
+	
+	@Test
+	public void testBinaryBroadcastInt64() {
+		runBinaryTest(ValueType.INT64, ValueType.INT64, new int[]{4, 3, 5}, new int[]{1, 3, 1}, false, 1);
+	}
+	
+	@Test
+	public void testBinaryBroadcastInt64Parallel() {
+		runBinaryTest(ValueType.INT64, ValueType.INT64, new int[]{64, 50, 400}, new int[]{64, 1, 400}, false, 4);
+	}
+	
+	@Test
+	public void testBinaryBroadcastBoolean() {
+		runBinaryTest(ValueType.BOOLEAN, ValueType.BOOLEAN, new int[]{4, 3, 5}, new int[]{4, 1, 5}, false, 1);
+	}
+	
+	@Test
+	public void testBinaryBroadcastMixed() {
+		runBinaryTest(ValueType.INT64, ValueType.FP64, new int[]{4, 3, 5}, new int[]{1, 3, 1}, false, 1);
+		runBinaryTest(ValueType.BOOLEAN, ValueType.INT64, new int[]{4, 3, 5}, new int[]{1, 3, 1}, false, 1);
+	}
+	
+	@Test
+	public void testAggregateAxisDense() {
+		for( int axis=0; axis<3; axis++ )
+			for( String opcode : new String[]{"uak+", "uamin", "uamax"} )
+				runAggregateTest(new int[]{4, 3, 5}, axis, opcode, false, 1);
+	}
+	
+	@Test
+	public void testAggregateAxisSparse() {
+		for( int axis=0; axis<4; axis++ )
+			for( String opcode : new String[]{"uak+", "uamin", "uamax"} )
+				runAggregateTest(new int[]{2, 3, 4, 5}, axis, opcode, true, 1);
+	}
+	
+	@Test
+	public void testAggregateAxisParallel() {
+		for( int axis=0; axis<3; axis++ )
+			runAggregateTest(new int[]{300, 40, 100}, axis, "uak+", false, 4);
+	}
+	
+	@Test
+	public void testAggregateAxisInt64() {
+		for( int axis=0; axis<3; axis++ )
+			for( String opcode : new String[]{"uak+", "uamin", "uamax"} )
+				runAggregateTest(ValueType.INT64, new int[]{4, 3, 5}, axis, opcode, false, 1);
+	}
+	
+	@Test
+	public void testAggregateAxisInt64Parallel() {
+		for( int axis=0; axis<3; axis++ )
+			runAggregateTest(ValueType.INT64, new int[]{300, 40, 100}, axis, "uak+", false, 4);
+	}
+	
+	@Test
+	public void testAggregateAxisBoolean() {
+		for( int axis=0; axis<3; axis++ )
+			for( String opcode : new String[]{"uak+", "uamin", "uamax"} )
+				runAggregateTest(ValueType.BOOLEAN, new int[]{4, 3, 5}, axis, opcode, false, 1);
+	}
+	
+	@Test
+	public void testAggregateAxisBooleanParallel() {
+		for( int axis=0; axis<3; axis++ )
+			runAggregateTest(ValueType.BOOLEAN, new int[]{300, 40, 100}, axis, "uak+", false, 4);
+	}
+	
+	@Test
+	public void testPermuteDense() {
+		runPermuteTest(new int[]{4, 3, 5}, new int[]{0, 2, 1}, false, 1);
+		runPermuteTest(new int[]{4, 3, 5}, new int[]{2, 0, 1}, false, 1);
+	}
+	
+	@Test
+	public void testPermuteSparse() {
+		runPermuteTest(new int[]{2, 3, 4, 5}, new int[]{3, 1, 0, 2}, true, 1);
+	}
+	
+	@Test
+	public void testPermuteParallel() {
+		runPermuteTest(new int[]{120, 90, 110}, new int[]{1, 2, 0}, false, 4);
+	}
+	
+	@Test
+	public void testPermuteInt64() {
+		runPermuteTest(ValueType.INT64, new int[]{4, 3, 5}, new int[]{2, 0, 1}, false, 1);
+		runPermuteTest(ValueType.INT64, new int[]{120, 90, 110}, new int[]{1, 2, 0}, false, 4);
+	}
+	
+	@Test
+	public void testPermuteBoolean() {
+		runPermuteTest(ValueType.BOOLEAN, new int[]{4, 3, 5}, new int[]{2, 0, 1}, false, 1);
+		runPermuteTest(ValueType.BOOLEAN, new int[]{120, 90, 110}, new int[]{1, 2, 0}, false, 4);
+	}
+	
+	@Test
+	public void testTransposeMatrix() {
+		runPermuteTest(new int[]{6, 7}, null, false, 1);
+	}
+	
+	@Test
+	public void testSliceDense() {
+		runSliceTest(new int[]{6, 5, 7}, new int[]{1, 0, 2}, new int[]{4, 3, 6}, false);
+	}
+	
+	@Test
+	public void testSliceSparse() {
+		runSliceTest(new int[]{6, 5, 7, 3}, new int[]{2, 1, 3, 0}, new int[]{2, 4, 5, 1}, true);
+	}
+	
+	@Test
+	public void testSliceInt64() {
+		runSliceTest(ValueType.INT64, new int[]{6, 5, 7}, new int[]{1, 0, 2}, new int[]{4, 3, 6}, false);
+	}
+	
+	@Test
+	public void testSliceBoolean() {
+		runSliceTest(ValueType.BOOLEAN, new int[]{6, 5, 7}, new int[]{1, 0, 2}, new int[]{4, 3, 6}, false);
+	}
+	
+	private static void runBinaryTest(int[] dims1, int[] dims2, boolean sparse, int k) {
+		runBinaryTest(ValueType.FP64, ValueType.FP64, dims1, dims2, sparse, k);
+	}
+	
+	private static void runBinaryTest(ValueType vt1, ValueType vt2, int[] dims1, int[] dims2, boolean sparse, int k) {
+		TensorBlock tb1 = createTensor(vt1, dims1, sparse, 1);
+		TensorBlock tb2 = createTensor(vt2, dims2, false, 2);
+		TensorBlock ret = tb1.binaryOperations(new BinaryOperator(Minus.getMinusFnObject(), k), tb2, null);
+		
+		//same value types are retained (except boolean), otherwise fp64
+		Assert.assertEquals((vt1 == vt2 && vt1 != ValueType.BOOLEAN) ? vt1 : ValueType.FP64, ret.getValueType());
+		int[] dims = new int[dims1.length];
+		for( int i=0; i<dims.length; i++ )
+			dims[i] = Math.max(dims1[i], dims2[i]);
+		checkDims(ret, dims);
+		int[] ix = new int[dims.length];
+		for( long i=0; i<ret.getLength(); i++ ) {
+			int[] ix1 = ix.clone();
+			int[] ix2 = ix.clone();
+			for( int j=0; j<dims.length; j++ ) {
+				ix1[j] = (dims1[j] == 1) ? 0 : ix[j];
+				ix2[j] = (dims2[j] == 1) ? 0 : ix[j];
+			}
+			Assert.assertEquals(tb1.get(ix1) - tb2.get(ix2), ret.get(ix), 0);
+			ret.getNextIndexes(ix);
+		}
+	}
+	
+	private static void runAggregateTest(int[] dims, int axis, String opcode, boolean sparse, int k) {
+		runAggregateTest(ValueType.FP64, dims, axis, opcode, sparse, k);
+	}
+	
+	private static void runAggregateTest(ValueType vt, int[] dims, int axis, String opcode, boolean sparse, int k) {
+		TensorBlock tb = createTensor(vt, dims, sparse, 3);
+		AggregateUnaryOperator op = InstructionUtils.parseBasicAggregateUnaryOperator(opcode, k);
+		TensorBlock ret = tb.aggregateUnaryOperations(op, axis, null);
+		
+		//sums of integer and boolean tensors are int64, min/max retain the value type
+		Assert.assertEquals(!opcode.equals("uak+") ? vt :
+			(vt == ValueType.FP64 || vt == ValueType.FP32) ? ValueType.FP64 : ValueType.INT64, ret.getValueType());
+		int[] rdims = dims.clone();
+		rdims[axis] = 1;
+		checkDims(ret, rdims);
+		int[] ix = new int[dims.length];
+		for( long i=0; i<ret.getLength(); i++ ) {
+			int[] ix2 = ix.clone();
+			double expected = opcode.equals("uamin") ? Double.POSITIVE_INFINITY :
+				opcode.equals("uamax") ? Double.NEGATIVE_INFINITY : 0;
+			for( int j=0; j<dims[axis]; j++ ) {
+				ix2[axis] = j;
+				double v = tb.get(ix2);
+				expected = opcode.equals("uamin") ? Math.min(expected, v) :
+					opcode.equals("uamax") ? Math.max(expected, v) : expected + v;
+			}
+			Assert.assertEquals(expected, ret.get(ix), 1e-10);
+			ret.getNextIndexes(ix);
+		}
+	}
+	
+	private static void runPermuteTest(int[] dims, int[] perm, boolean sparse, int k) {
+		runPermuteTest(ValueType.FP64, dims, perm, sparse, k);
+	}
+	
+	private static void runPermuteTest(ValueType vt, int[] dims, int[] perm, boolean sparse, int k) {
+		TensorBlock tb = createTensor(vt, dims, sparse, 4);
+		TensorBlock ret = (perm != null) ? tb.permute(perm, null, k) : tb.transpose(null, k);
+		Assert.assertEquals(vt, ret.getValueType());
+		if( perm == null ) {
+			perm = new int[dims.length];
+			for( int i=0; i<dims.length; i++ )
+				perm[i] = dims.length - i - 1;
+		}
+		
+		int[] rdims = new int[dims.length];
+		for( int i=0; i<dims.length; i++ )
+			rdims[i] = dims[perm[i]];
+		checkDims(ret, rdims);
+		int[] ix = new int[dims.length];
+		for( long i=0; i<ret.getLength(); i++ ) {
+			int[] ix2 = new int[dims.length];
+			for( int j=0; j<dims.length; j++ )
+				ix2[perm[j]] = ix[j];
+			Assert.assertEquals(tb.get(ix2), ret.get(ix), 0);
+			ret.getNextIndexes(ix);
+		}
+	}
+	
+	private static void runSliceTest(int[] dims, int[] lower, int[] upper, boolean sparse) {
+		runSliceTest(ValueType.FP64, dims, lower, upper, sparse);
+	}
+	
+	private static void runSliceTest(ValueType vt, int[] dims, int[] lower, int[] upper, boolean sparse) {
+		TensorBlock tb = createTensor(vt, dims, sparse, 5);
+		TensorBlock ret = tb.slice(lower, upper, null, 1);
+		Assert.assertEquals(vt, ret.getValueType());
+		
+		int[] rdims = new int[dims.length];
+		for( int i=0; i<dims.length; i++ )
+			rdims[i] = upper[i] - lower[i] + 1;
+		checkDims(ret, rdims);
+		int[] ix = new int[dims.length];
+		for( long i=0; i<ret.getLength(); i++ ) {
+			int[] ix2 = new int[dims.length];
+			for( int j=0; j<dims.length; j++ )
+				ix2[j] = lower[j] + ix[j];
+			Assert.assertEquals(tb.get(ix2), ret.get(ix), 0);
+			ret.getNextIndexes(ix);
+		}
+	}
+	
+	private static TensorBlock createTensor(ValueType vt, int[] dims, boolean sparse, int seed) {
+		TensorBlock tb = new TensorBlock(vt, dims, sparse);
+		tb.allocateBlock();
+		Random rand = new Random(seed);
+		int[] ix = new int[dims.length];
+		for( long i=0; i<tb.getLength(); i++ ) {
+			if( !sparse || rand.nextDouble() < 0.2 )
+				tb.set(ix, (vt == ValueType.BOOLEAN) ? rand.nextInt(2) : rand.nextInt(100) - 50);
+			tb.getNextIndexes(ix);
+		}
+		return tb;
+	}
+	
+	private static void checkDims(TensorBlock tb, int[] dims) {
+		int[] tdims = new int[tb.getNumDims()];
+		for( int i=0; i<tdims.length; i++ )
+			tdims[i] = tb.getDim(i);
+		Assert.assertArrayEquals(Arrays.toString(tdims), dims, tdims);
+	}
+}
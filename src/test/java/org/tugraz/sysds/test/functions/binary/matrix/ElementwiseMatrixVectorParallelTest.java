@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.functions.binary.matrix;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+import org.tugraz.sysds.common.Types.ExecMode;
+import org.tugraz.sysds.runtime.functionobjects.Divide;
+import org.tugraz.sysds.runtime.functionobjects.GreaterThan;
+import org.tugraz.sysds.runtime.functionobjects.Minus;
+import org.tugraz.sysds.runtime.functionobjects.Multiply;
+import org.tugraz.sysds.runtime.functionobjects.ValueFunction;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixValue.CellIndex;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks the multi-threaded matrix-vector binary operations (row and column
+ * vector broadcasting) compiled from a DML script, against the single-threaded
+ * library calls.
+ */
+public class ElementwiseMatrixVectorParallelTest extends AutomatedTestBase
+{
+	private final static String TEST_NAME = "ElementwiseMatrixVectorParallel";
+	private final static String TEST_DIR = "functions/binary/matrix/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + ElementwiseMatrixVectorParallelTest.class.getSimpleName() + "/";
+	
+	//above the parallelization threshold of 1M cells
+	private final static int rows = 1500;
+	private final static int cols = 1000;
+	private final static double sparsity1 = 0.9;
+	private final static double sparsity2 = 0.1;
+	private final static double eps = 1e-10;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[]{"R1","R2","R3","R4"}));
+	}
+	
+	@Test
+	public void testMatrixVectorDense() {
+		runMatrixVectorTest(sparsity1);
+	}
+	
+	@Test
+	public void testMatrixVectorSparse() {
+		runMatrixVectorTest(sparsity2);
+	}
+	
+	private void runMatrixVectorTest(double sparsity) {
+		ExecMode platformOld = rtplatform;
+		
+		try {
+			rtplatform = ExecMode.SINGLE_NODE;
+			getAndLoadTestConfiguration(TEST_NAME);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + TEST_NAME + ".dml";
+			programArgs = new String[]{"-stats", "-args", input("X"), input("v"), input("w"),
+				output("R1"), output("R2"), output("R3"), output("R4")};
+			
+			//generate inputs (dense vectors)
+			double[][] X = getRandomMatrix(rows, cols, -1, 1, sparsity, 7);
+			double[][] v = getRandomMatrix(rows, 1, 1, 2, 1.0, 3);
+			double[][] w = getRandomMatrix(1, cols, 1, 2, 1.0, 5);
+			writeInputMatrixWithMTD("X", X, true);
+			writeInputMatrixWithMTD("v", v, true);
+			writeInputMatrixWithMTD("w", w, true);
+			
+			runTest(true, false, null, -1);
+			
+			//compare with single-threaded binary operations
+			MatrixBlock mX = DataConverter.convertToMatrixBlock(X);
+			MatrixBlock mv = DataConverter.convertToMatrixBlock(v);
+			MatrixBlock mw = DataConverter.convertToMatrixBlock(w);
+			compareResult("R1", mX, mw, Minus.getMinusFnObject());
+			compareResult("R2", mX, mv, Multiply.getMultiplyFnObject());
+			compareResult("R3", mX, mv, GreaterThan.getGreaterThanFnObject());
+			compareResult("R4", mX, mw, Divide.getDivideFnObject());
+		}
+		finally {
+			rtplatform = platformOld;
+		}
+	}
+	
+	private void compareResult(String name, MatrixBlock m1, MatrixBlock m2, ValueFunction fn) {
+		MatrixBlock exp = (MatrixBlock) m1.binaryOperations(
+			new BinaryOperator(fn), m2, new MatrixBlock());
+		HashMap<CellIndex, Double> ret = readDMLMatrixFromHDFS(name);
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(exp),
+			TestUtils.convertHashMapToDoubleArray(ret, rows, cols), rows, cols, eps);
+	}
+}
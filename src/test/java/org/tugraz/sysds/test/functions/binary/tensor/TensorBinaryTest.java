@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.binary.tensor;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.tugraz.sysds.common.Types.ExecMode;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+@RunWith(value = Parameterized.class)
+public class TensorBinaryTest extends AutomatedTestBase
+{
+	private final static String TEST_DIR = "functions/binary/tensor/";
+	private final static String TEST_NAME = "TensorBinary";
+	private final static String TEST_CLASS_DIR = TEST_DIR + TensorBinaryTest.class.getSimpleName() + "/";
+
+	private int[] dimensionsA;
+	private int[] dimensionsB;
+	private double valueA;
+	private double valueB;
+
+	public TensorBinaryTest(int[] dimsA, int[] dimsB, double vA, double vB) {
+		dimensionsA = dimsA;
+		dimensionsB = dimsB;
+		valueA = vA;
+		valueB = vB;
+	}
+	
+	@Parameters
+	public static Collection<Object[]> data() {
+		Object[][] data = new Object[][] { 
+				{new int[]{3, 4, 5}, new int[]{3, 4, 5}, 3, 0.5},
+				{new int[]{3, 4, 5}, new int[]{1, 4, 1}, 1.5, 2},
+				{new int[]{10, 20}, new int[]{10, 1}, 2, -3},
+				{new int[]{7, 1, 1, 2}, new int[]{1, 1, 1, 1}, 0.5, 4},
+				{new int[]{1000, 100, 20}, new int[]{1, 100, 1}, 1, 2},
+				};
+		return Arrays.asList(data);
+	}
+	
+	@Override
+	public void setUp() {
+		addTestConfiguration(TEST_NAME,new TestConfiguration(TEST_CLASS_DIR, TEST_NAME,new String[]{"A.scalar"}));
+	}
+
+	@Test
+	public void tensorBinaryTest() {
+		ExecMode platformOld = rtplatform;
+		try {
+			getAndLoadTestConfiguration(TEST_NAME);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+
+			fullDMLScriptName = HOME + TEST_NAME + ".dml";
+			programArgs = new String[]{"-explain", "-args", Double.toString(valueA), Double.toString(valueB),
+				toDimensionsString(dimensionsA), toDimensionsString(dimensionsB), output("A") };
+
+			// Generate Data in CP
+			rtplatform = ExecMode.SINGLE_NODE;
+			// C = A * B + A, with B broadcast to the dimensions of A
+			writeExpectedScalar("A", Arrays.stream(dimensionsA).reduce(1, (a, b) -> a*b)
+				* (valueA * valueB + valueA));
+
+			runTest(true, false, null, -1);
+
+			compareResults(1e-6);
+		}
+		finally {
+			rtplatform = platformOld;
+		}
+	}
+	
+	private static String toDimensionsString(int[] dims) {
+		return Arrays.toString(dims).replace("[", "")
+			.replace(",", "").replace("]", "");
+	}
+}
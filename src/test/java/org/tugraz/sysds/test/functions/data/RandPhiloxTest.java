@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.functions.data;
+
+import java.io.File;
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.common.Types.ExecMode;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixDatagen;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixValue.CellIndex;
+import org.tugraz.sysds.runtime.matrix.data.RandomMatrixGenerator;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks rand and sample with the counter-based PRNG configured via
+ * sysml.rand.prng=philox, against the single-threaded library calls.
+ */
+public class RandPhiloxTest extends AutomatedTestBase
+{
+	private final static String TEST_NAME = "RandPhilox";
+	private final static String TEST_DIR = "functions/data/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + RandPhiloxTest.class.getSimpleName() + "/";
+	private final static String TEST_CONF = "SystemDS-config-philox.xml";
+	
+	private final static int rows = 1201;
+	private final static int cols = 503;
+	private final static long range = 1000000;
+	private final static int size = 5000;
+	private final static long seed = 7;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[]{"X","S"}));
+	}
+	
+	@Test
+	public void testRandDenseSampleWithoutReplacement() {
+		runRandPhiloxTest(0.7, false);
+	}
+	
+	@Test
+	public void testRandSparseSampleWithoutReplacement() {
+		runRandPhiloxTest(0.05, false);
+	}
+	
+	@Test
+	public void testRandDenseSampleWithReplacement() {
+		runRandPhiloxTest(0.7, true);
+	}
+	
+	private void runRandPhiloxTest(double sparsity, boolean replace) {
+		ExecMode platformOld = rtplatform;
+		boolean flagOld = LibMatrixDatagen.COUNTER_BASED_PRNG;
+		
+		try {
+			rtplatform = ExecMode.SINGLE_NODE;
+			getAndLoadTestConfiguration(TEST_NAME);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + TEST_NAME + ".dml";
+			programArgs = new String[]{"-stats", "-args", String.valueOf(rows), String.valueOf(cols),
+				String.valueOf(sparsity), String.valueOf(range), String.valueOf(size),
+				String.valueOf(replace).toUpperCase(), output("X"), output("S")};
+			
+			runTest(true, false, null, -1);
+			
+			//configuration parsed and multi-threaded sample executed in CP
+			Assert.assertTrue(LibMatrixDatagen.COUNTER_BASED_PRNG);
+			Assert.assertTrue(heavyHittersContainsString("sample"));
+			
+			//compare with single-threaded counter-based generation
+			RandomMatrixGenerator rgen = LibMatrixDatagen.createRandomMatrixGenerator(
+				"uniform", rows, cols, 1000, 1000, sparsity, -1, 3, "");
+			MatrixBlock expX = MatrixBlock.randOperations(rgen, seed, 1);
+			MatrixBlock expS = MatrixBlock.sampleOperations(range, size, replace, seed, 1);
+			HashMap<CellIndex, Double> retX = readDMLMatrixFromHDFS("X");
+			HashMap<CellIndex, Double> retS = readDMLMatrixFromHDFS("S");
+			TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expX),
+				TestUtils.convertHashMapToDoubleArray(retX, rows, cols), rows, cols, 0);
+			TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expS),
+				TestUtils.convertHashMapToDoubleArray(retS, size, 1), size, 1, 0);
+		}
+		finally {
+			rtplatform = platformOld;
+			LibMatrixDatagen.COUNTER_BASED_PRNG = flagOld;
+		}
+	}
+	
+	/**
+	 * Override default configuration with custom test configuration to ensure
+	 * scratch space and local temporary directory locations are also updated.
+	 */
+	@Override
+	protected File getConfigTemplateFile() {
+		return new File(SCRIPT_DIR + TEST_DIR, TEST_CONF);
+	}
+}
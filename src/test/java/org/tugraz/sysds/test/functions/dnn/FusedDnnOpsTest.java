@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.functions.dnn;
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.common.Types.ExecMode;
+import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.runtime.matrix.data.MatrixValue.CellIndex;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+
+public class FusedDnnOpsTest extends AutomatedTestBase
+{
+	private final static String TEST_NAME = "FusedDnnOpsTest";
+	private final static String TEST_DIR = "functions/tensor/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + FusedDnnOpsTest.class.getSimpleName() + "/";
+	private final static double epsilon=1e-10;
+	
+	private final static String[] OUTPUTS = new String[] {"R1", "R2", "R3", "R4"};
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, OUTPUTS));
+	}
+	
+	@Test
+	public void testFusedDnnOpsDense() {
+		runFusedDnnOpsTest(false);
+	}
+	
+	@Test
+	public void testFusedDnnOpsSparse() {
+		runFusedDnnOpsTest(true);
+	}
+	
+	private void runFusedDnnOpsTest(boolean sparse) {
+		ExecMode platformOld = rtplatform;
+		boolean fusionOld = OptimizerUtils.ALLOW_OPERATOR_FUSION;
+		rtplatform = ExecMode.HYBRID;
+		
+		try
+		{
+			TestConfiguration config = getTestConfiguration(TEST_NAME);
+			loadTestConfiguration(config);
+			
+			String RI_HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = RI_HOME + TEST_NAME + ".dml";
+			String threshold = sparse ? "0.9" : "-2";
+			
+			//run without fused operators (reference)
+			OptimizerUtils.ALLOW_OPERATOR_FUSION = false;
+			programArgs = new String[]{"-stats", "-args", threshold,
+				output("R1"), output("R2"), output("R3"), output("R4")};
+			runTest(true, false, null, -1);
+			Assert.assertFalse(heavyHittersContainsString("conv2d_bias_add_relu"));
+			HashMap<String, HashMap<CellIndex, Double>> expected = new HashMap<>();
+			for( String name : OUTPUTS )
+				expected.put(name, readDMLMatrixFromHDFS(name));
+			
+			//run with fused operators and batch norm folding
+			OptimizerUtils.ALLOW_OPERATOR_FUSION = true;
+			runTest(true, false, null, -1);
+			Assert.assertTrue(heavyHittersContainsString("conv2d_bias_add_relu"));
+			Assert.assertTrue(heavyHittersContainsString("conv2d_bias_add"));
+			Assert.assertFalse(heavyHittersContainsString("bias_multiply"));
+			for( String name : OUTPUTS )
+				TestUtils.compareMatrices(readDMLMatrixFromHDFS(name),
+					expected.get(name), epsilon, name+"-fused", name+"-ref");
+		}
+		finally {
+			rtplatform = platformOld;
+			OptimizerUtils.ALLOW_OPERATOR_FUSION = fusionOld;
+		}
+	}
+}
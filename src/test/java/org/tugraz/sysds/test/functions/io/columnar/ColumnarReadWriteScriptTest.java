@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.io.columnar;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+import org.tugraz.sysds.runtime.matrix.data.MatrixValue.CellIndex;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+
+public class ColumnarReadWriteScriptTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME1 = "ColumnarWrite";
+	private final static String TEST_NAME2 = "ColumnarRead";
+	private final static String TEST_DIR = "functions/io/columnar/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + ColumnarReadWriteScriptTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 1200;
+	private final static int cols = 70;
+	private final static double sparsity1 = 0.9;
+	private final static double sparsity2 = 0.05;
+	
+	@Override
+	public void setUp() {
+		addTestConfiguration(TEST_NAME1, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME1, new String[]{"X","R"}));
+		addTestConfiguration(TEST_NAME2, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME2, new String[]{"R2"}));
+	}
+
+	@Test
+	public void testColumnarRoundTripDense() {
+		runColumnarRoundTripTest(sparsity1);
+	}
+	
+	@Test
+	public void testColumnarRoundTripSparse() {
+		runColumnarRoundTripTest(sparsity2);
+	}
+	
+	private void runColumnarRoundTripTest( double sparsity )
+	{
+		String HOME = SCRIPT_DIR + TEST_DIR;
+		
+		//write in columnar and text format
+		TestConfiguration config = getTestConfiguration(TEST_NAME1);
+		loadTestConfiguration(config);
+		fullDMLScriptName = HOME + TEST_NAME1 + ".dml";
+		programArgs = new String[]{"-args", String.valueOf(rows), String.valueOf(cols),
+			String.valueOf(sparsity), output("X"), output("R") };
+		runTest(true, false, null, -1);
+		HashMap<CellIndex, Double> dmlfile1 = readDMLMatrixFromHDFS("R");
+		
+		//read columnar file (via metadata) and write in text format
+		String fname = output("X");
+		config = getTestConfiguration(TEST_NAME2);
+		loadTestConfiguration(config);
+		fullDMLScriptName = HOME + TEST_NAME2 + ".dml";
+		programArgs = new String[]{"-args", fname, output("R2") };
+		runTest(true, false, null, -1);
+		HashMap<CellIndex, Double> dmlfile2 = readDMLMatrixFromHDFS("R2");
+		
+		TestUtils.compareMatrices(dmlfile1, dmlfile2, 0, "Stat-R", "Stat-R2");
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.functions.io.range;
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheStatistics;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
+import org.tugraz.sysds.runtime.matrix.data.MatrixValue.CellIndex;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks the pushdown of right indexing ranges into persistent reads end-to-end,
+ * i.e., the rewrite, the compiled indexing instruction, and the range read at
+ * runtime, against the results without pushdown.
+ */
+public class ReadRangePushdownScriptTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME1 = "ReadRangeWrite";
+	private final static String TEST_NAME2 = "ReadRange";
+	private final static String TEST_DIR = "functions/io/range/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + ReadRangePushdownScriptTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 2345;
+	private final static int cols = 70;
+	private final static double sparsity1 = 0.9;
+	private final static double sparsity2 = 0.05;
+	
+	@Override
+	public void setUp() {
+		addTestConfiguration(TEST_NAME1, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME1, new String[]{"X","R"}));
+		addTestConfiguration(TEST_NAME2, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME2, new String[]{"R2"}));
+	}
+
+	@Test
+	public void testBinaryDensePushdown() {
+		runReadRangeTest("binary", sparsity1, true);
+	}
+	
+	@Test
+	public void testBinarySparsePushdown() {
+		runReadRangeTest("binary", sparsity2, true);
+	}
+	
+	@Test
+	public void testCSVDensePushdown() {
+		runReadRangeTest("csv", sparsity1, true);
+	}
+	
+	@Test
+	public void testCSVSparsePushdown() {
+		runReadRangeTest("csv", sparsity2, true);
+	}
+	
+	@Test
+	public void testBinaryDenseNoPushdown() {
+		runReadRangeTest("binary", sparsity1, false);
+	}
+	
+	@Test
+	public void testCSVDenseNoPushdown() {
+		runReadRangeTest("csv", sparsity1, false);
+	}
+	
+	private void runReadRangeTest(String format, double sparsity, boolean pushdown)
+	{
+		String HOME = SCRIPT_DIR + TEST_DIR;
+		boolean oldPushdown = OptimizerUtils.ALLOW_READ_RANGE_PUSHDOWN;
+		boolean oldPrefetch = CacheableData.CACHING_ASYNC_PREFETCH;
+		
+		try {
+			//write input and expected slice
+			TestConfiguration config = getTestConfiguration(TEST_NAME1);
+			loadTestConfiguration(config);
+			fullDMLScriptName = HOME + TEST_NAME1 + ".dml";
+			programArgs = new String[]{"-args", String.valueOf(rows), String.valueOf(cols),
+				String.valueOf(sparsity), output("X"), format, output("R") };
+			runTest(true, false, null, -1);
+			HashMap<CellIndex, Double> dmlfile1 = readDMLMatrixFromHDFS("R");
+			
+			//read input (via metadata) and slice it, w/o prefetch that would
+			//compete with the range read (see AsyncPrefetchTest)
+			OptimizerUtils.ALLOW_READ_RANGE_PUSHDOWN = pushdown;
+			CacheableData.CACHING_ASYNC_PREFETCH = false;
+			String fname = output("X");
+			config = getTestConfiguration(TEST_NAME2);
+			loadTestConfiguration(config);
+			fullDMLScriptName = HOME + TEST_NAME2 + ".dml";
+			programArgs = new String[]{"-stats", "-args", fname, output("R2") };
+			runTest(true, false, null, -1);
+			HashMap<CellIndex, Double> dmlfile2 = readDMLMatrixFromHDFS("R2");
+			
+			TestUtils.compareMatrices(dmlfile1, dmlfile2, 0, "Stat-R", "Stat-R2");
+			Assert.assertEquals(pushdown ? 1 : 0, CacheStatistics.getHDFSRangeReads());
+		}
+		finally {
+			OptimizerUtils.ALLOW_READ_RANGE_PUSHDOWN = oldPushdown;
+			CacheableData.CACHING_ASYNC_PREFETCH = oldPrefetch;
+		}
+	}
+}
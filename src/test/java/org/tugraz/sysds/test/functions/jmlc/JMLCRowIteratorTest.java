@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.functions.jmlc;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.api.DMLException;
+import org.tugraz.sysds.api.jmlc.Connection;
+import org.tugraz.sysds.api.jmlc.PreparedScript;
+import org.tugraz.sysds.api.jmlc.ResultVariables;
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.io.FileFormatPropertiesCSV;
+import org.tugraz.sysds.runtime.io.MatrixRowIterator;
+import org.tugraz.sysds.runtime.io.MatrixRowIterator.RowBatch;
+import org.tugraz.sysds.runtime.io.MatrixWriter;
+import org.tugraz.sysds.runtime.io.WriterBinaryBlockParallel;
+import org.tugraz.sysds.runtime.io.WriterTextCSV;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
+import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.runtime.util.HDFSTool;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks the streaming row iterators of the JMLC API over persisted
+ * (single- and multi-part) inputs and over in-memory script outputs.
+ */
+public class JMLCRowIteratorTest extends AutomatedTestBase
+{
+	private final static String TEST_NAME = "JMLCRowIteratorTest";
+	private final static String TEST_DIR = "functions/jmlc/";
+
+	private final static int rows = 1701;
+	private final static int cols = 23;
+	private final static int blen = 1000;
+	private final static int batch = 333;
+
+	@Override
+	public void setUp() {
+		addTestConfiguration(TEST_DIR, TEST_NAME);
+		getAndLoadTestConfiguration(TEST_NAME);
+	}
+
+	@Test
+	public void testReadMatrixRowsBinary() throws IOException {
+		runReadMatrixRowsTest(OutputInfo.BinaryBlockOutputInfo, 1);
+	}
+
+	@Test
+	public void testReadMatrixRowsBinaryMultiPart() throws IOException {
+		runReadMatrixRowsTest(OutputInfo.BinaryBlockOutputInfo, 3);
+	}
+
+	@Test
+	public void testReadMatrixRowsCSV() throws IOException {
+		runReadMatrixRowsTest(OutputInfo.CSVOutputInfo, 1);
+	}
+
+	@Test
+	public void testReadMatrixRowsCSVMultiPart() throws IOException {
+		runReadMatrixRowsTest(OutputInfo.CSVOutputInfo, 3);
+	}
+
+	@Test
+	public void testGetMatrixRows() throws IOException {
+		MatrixBlock mb = MatrixBlock.randOperations(rows, cols, 0.7, -10, 10, "uniform", 7);
+		try( Connection conn = new Connection() ) {
+			PreparedScript script = conn.prepareScript(
+				"X = read(\"./tmp/X\", rows=-1, cols=-1);\nR = X * 2;\nwrite(R, \"./tmp/R\");",
+				new String[]{"X"}, new String[]{"R"});
+			script.setMatrix("X", DataConverter.convertToDoubleMatrix(mb));
+			ResultVariables res = script.executeScript();
+			MatrixBlock expected = res.getMatrixBlock("R");
+			try( MatrixRowIterator iter = res.getMatrixRows("R", batch) ) {
+				compareResults(expected, iter);
+			}
+			//repeated iteration after the pin was released
+			try( MatrixRowIterator iter = res.getMatrixRows("R", rows) ) {
+				compareResults(expected, iter);
+			}
+		}
+	}
+
+	@Test(expected = DMLException.class)
+	public void testGetMatrixRowsNonExisting() throws IOException {
+		try( Connection conn = new Connection() ) {
+			PreparedScript script = conn.prepareScript(
+				"R = matrix(1, 10, 10);\nwrite(R, \"./tmp/R\");",
+				new String[]{}, new String[]{"R"});
+			script.executeScript().getMatrixRows("S", batch);
+		}
+	}
+
+	private void runReadMatrixRowsTest(OutputInfo oinfo, int parts) throws IOException {
+		MatrixBlock mb = MatrixBlock.randOperations(rows, cols, 0.7, -10, 10, "uniform", 7);
+		String fname = output("X");
+		HDFSTool.deleteFileIfExistOnHDFS(fname);
+		if( oinfo == OutputInfo.CSVOutputInfo ) {
+			FileFormatPropertiesCSV props = new FileFormatPropertiesCSV();
+			if( parts > 1 ) {
+				//part files split at row boundaries not aligned with the batch size
+				int len = (rows + parts - 1) / parts;
+				for( int i=0; i<parts; i++ ) {
+					MatrixBlock part = mb.slice(i*len, Math.min((i+1)*len, rows)-1);
+					new WriterTextCSV(props).writeMatrixToHDFS(part, fname+"/part-0000"+i,
+						part.getNumRows(), cols, blen, blen, part.getNonZeros());
+				}
+			}
+			else
+				new WriterTextCSV(props).writeMatrixToHDFS(mb, fname, rows, cols, blen, blen, mb.getNonZeros());
+		}
+		else {
+			MatrixWriter writer = new WriterBinaryBlockParallel(1) {
+				@Override
+				protected int getNumPartFiles(long rlen, long clen, int brlen, int bclen, long nnz) {
+					return parts;
+				}
+			};
+			writer.writeMatrixToHDFS(mb, fname, rows, cols, blen, blen, mb.getNonZeros());
+		}
+		HDFSTool.writeMetaDataFile(fname+".mtd", ValueType.FP64,
+			new MatrixCharacteristics(rows, cols, blen, blen, mb.getNonZeros()), oinfo);
+		Assert.assertEquals(parts > 1, HDFSTool.isDirectory(fname));
+
+		try( Connection conn = new Connection();
+			MatrixRowIterator iter = conn.readMatrixRows(fname, batch) ) {
+			compareResults(mb, iter);
+		}
+	}
+
+	private static void compareResults(MatrixBlock expected, MatrixRowIterator iter) {
+		int nrows = expected.getNumRows();
+		int ncols = expected.getNumColumns();
+		double[] actual = new double[nrows * ncols];
+		int nrow = 0;
+		while( iter.hasNext() ) {
+			RowBatch rb = iter.next();
+			Assert.assertEquals(nrow, rb.getRowIndex());
+			System.arraycopy(rb.values(), 0, actual, nrow * ncols, rb.getNumRows() * ncols);
+			nrow += rb.getNumRows();
+		}
+		Assert.assertEquals(nrows, nrow);
+		TestUtils.compareMatrices(DataConverter.convertToDoubleVector(expected), actual, 0);
+	}
+}
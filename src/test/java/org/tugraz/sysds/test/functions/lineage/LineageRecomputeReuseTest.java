@@ -0,0 +1,170 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.functions.lineage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.conf.ConfigurationManager;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
+import org.tugraz.sysds.runtime.instructions.cp.Data;
+import org.tugraz.sysds.runtime.io.MatrixWriterFactory;
+import org.tugraz.sysds.runtime.lineage.Lineage;
+import org.tugraz.sysds.runtime.lineage.LineageCache;
+import org.tugraz.sysds.runtime.lineage.LineageItem;
+import org.tugraz.sysds.runtime.lineage.LineageItemUtils;
+import org.tugraz.sysds.runtime.lineage.LineageParser;
+import org.tugraz.sysds.runtime.matrix.data.InputInfo;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
+import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+import org.tugraz.sysds.runtime.meta.MetaDataFormat;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.runtime.util.HDFSTool;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+
+/**
+ * Checks that recomputation from lineage cuts the lineage DAG at
+ * intermediates in the lineage cache or persisted during the session.
+ * To verify that these intermediates are indeed reused instead of
+ * recomputed, they are replaced by constant matrices before recomputation.
+ */
+public class LineageRecomputeReuseTest extends AutomatedTestBase {
+	
+	protected static final String TEST_DIR = "functions/lineage/";
+	protected static final String TEST_NAME1 = "LineageRecomputeReuse1";
+	protected String TEST_CLASS_DIR = TEST_DIR + LineageRecomputeReuseTest.class.getSimpleName() + "/";
+	
+	protected static final int numRecords = 10;
+	protected static final int numFeatures = 5;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME1, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME1, new String[] {"Y", "R"}));
+	}
+	
+	@Test
+	public void testRecomputeReuseCache() {
+		LineageItem R = runLineageTest(true);
+		
+		//replace the cached result by a constant matrix
+		MatrixBlock mb = LineageCache.get(R);
+		Assert.assertNotNull(mb);
+		mb.reset(numRecords, numFeatures, 3);
+		
+		Data ret = LineageItemUtils.computeByLineage(R, 1);
+		compareResults(ret, 3);
+		Assert.assertNull(LineageCache.get(R));
+	}
+	
+	@Test
+	public void testRecomputeReusePersisted() throws IOException {
+		LineageItem R = runLineageTest(false);
+		
+		//replace the persisted intermediate Y by a constant matrix
+		//(R itself is written as csv and hence, not registered)
+		int blen = ConfigurationManager.getBlocksize();
+		HDFSTool.deleteFileIfExistOnHDFS(output("Y"));
+		MatrixWriterFactory.createMatrixWriter(OutputInfo.BinaryBlockOutputInfo)
+			.writeMatrixToHDFS(new MatrixBlock(numRecords, numFeatures, 3d),
+			output("Y"), numRecords, numFeatures, blen, blen, numRecords*numFeatures);
+		
+		//compare serial and parallel recomputation (R = Y + 1)
+		for( int k : new int[]{1, 4} )
+			compareResults(LineageItemUtils.computeByLineage(R, k), 4);
+	}
+	
+	@Test
+	public void testRecomputePersistedWriteFailed() throws IOException {
+		LineageItem R = runLineageTest(false);
+		
+		//re-register Y with a failed asynchronous write, and replace the file
+		LineageItem Y = R.getInputs()[0];
+		int blen = ConfigurationManager.getBlocksize();
+		CompletableFuture<Void> write = new CompletableFuture<>();
+		write.completeExceptionally(new IOException("write failed"));
+		LineageCache.putPersisted(Y, output("Y"), new MetaDataFormat(
+			new MatrixCharacteristics(numRecords, numFeatures, blen, blen),
+			OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo), write);
+		HDFSTool.deleteFileIfExistOnHDFS(output("Y"));
+		MatrixWriterFactory.createMatrixWriter(OutputInfo.BinaryBlockOutputInfo)
+			.writeMatrixToHDFS(new MatrixBlock(numRecords, numFeatures, 3d),
+			output("Y"), numRecords, numFeatures, blen, blen, numRecords*numFeatures);
+		
+		//the failed write is never read, and the entry is dropped
+		MatrixBlock expected = DataConverter.readMatrixFromHDFS(output("R"),
+			InputInfo.CSVInputInfo, numRecords, numFeatures, blen, blen);
+		MatrixBlock tmp = ((MatrixObject)LineageItemUtils.computeByLineage(R, 1)).acquireReadAndRelease();
+		TestUtils.compareMatrices(DataConverter.convertToDoubleVector(expected),
+			DataConverter.convertToDoubleVector(tmp), 1e-6);
+		Assert.assertNull(LineageCache.getPersisted(Y));
+	}
+	
+	@Test
+	public void testRecomputeNoReuse() throws IOException {
+		LineageItem R = runLineageTest(false);
+		
+		//w/o registered intermediates, recomputation matches the original result
+		Lineage.resetInternalState();
+		int blen = ConfigurationManager.getBlocksize();
+		MatrixBlock expected = DataConverter.readMatrixFromHDFS(output("R"),
+			InputInfo.CSVInputInfo, numRecords, numFeatures, blen, blen);
+		for( int k : new int[]{1, 4} ) {
+			MatrixBlock tmp = ((MatrixObject)LineageItemUtils.computeByLineage(R, k)).acquireReadAndRelease();
+			TestUtils.compareMatrices(DataConverter.convertToDoubleVector(expected),
+				DataConverter.convertToDoubleVector(tmp), 1e-6);
+		}
+	}
+	
+	private LineageItem runLineageTest(boolean reuse) {
+		getAndLoadTestConfiguration(TEST_NAME1);
+		List<String> proArgs = new ArrayList<>();
+		proArgs.add("-lineage");
+		if( reuse )
+			proArgs.add("reuse");
+		proArgs.add("-args");
+		proArgs.add(output("Y"));
+		proArgs.add(output("R"));
+		proArgs.add(String.valueOf(numRecords));
+		proArgs.add(String.valueOf(numFeatures));
+		programArgs = proArgs.toArray(new String[proArgs.size()]);
+		fullDMLScriptName = getScript();
+		
+		Lineage.resetInternalState();
+		runTest(true, EXCEPTION_NOT_EXPECTED, null, -1);
+		
+		//parse lineage of the written result
+		return LineageParser.parseLineageTrace(readDMLLineageFromHDFS("R"));
+	}
+	
+	private static void compareResults(Data ret, double expected) {
+		MatrixBlock tmp = ((MatrixObject)ret).acquireReadAndRelease();
+		Assert.assertEquals(numRecords, tmp.getNumRows());
+		Assert.assertEquals(numFeatures, tmp.getNumColumns());
+		for( int i=0; i<numRecords; i++ )
+			for( int j=0; j<numFeatures; j++ )
+				Assert.assertEquals(expected, tmp.quickGetValue(i, j), 0);
+	}
+}
@@ -115,8 +115,13 @@ public class LineageTraceExecTest extends AutomatedTestBase {
 		//get lineage and generate program
 		String Rtrace = readDMLLineageFromHDFS("R");
 		LineageItem R = LineageParser.parseLineageTrace(Rtrace);
-		Data ret = LineageItemUtils.computeByLineage(R);
 		
+		//compare serial and parallel recomputation
+		for( int k : new int[]{1, 4} )
+			compareResults(testname, LineageItemUtils.computeByLineage(R, k));
+	}
+	
+	private void compareResults(String testname, Data ret) {
 		if( testname.equals(TEST_NAME2) || testname.equals(TEST_NAME5)) {
 			double val1 = readDMLScalarFromHDFS("R").get(new CellIndex(1,1));
 			double val2 = ((ScalarObject)ret).getDoubleValue();
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.misc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+
+public class ProfileInstructionsTest extends AutomatedTestBase
+{
+	private final static String TEST_NAME = "ProfileInstructions";
+	private final static String TEST_DIR = "functions/misc/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + ProfileInstructionsTest.class.getSimpleName() + "/";
+	
+	//file;[lines begin-end;]line number opcode [(hop id)] time_us
+	private final static Pattern STACK = Pattern.compile(
+		"^[^; ]+;(lines \\d+-\\d+;)?line \\d+ [^; ]+( \\(hop \\d+\\))? \\d+$");
+	private final static Pattern EVENT = Pattern.compile(
+		"^,?\\{\"name\":\"[^\"]+\",\"cat\":\"inst\",\"ph\":\"X\",\"pid\":1,\"tid\":\\d+,"
+		+ "\"ts\":[0-9.E]+,\"dur\":[0-9.E]+,\"args\":\\{\"line\":\\d+,\"hop\":-?\\d+.*\\}\\}$");
+	
+	private final static int rows = 100;
+	
+	@Override
+	public void setUp() {
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[]{"R"}));
+	}
+	
+	@Test
+	public void testCollapsedStacks() throws IOException {
+		List<String> lines = runProfileTest("profile.txt");
+		Assert.assertFalse(lines.isEmpty());
+		for( String line : lines )
+			Assert.assertTrue("Invalid collapsed stack: "+line, STACK.matcher(line).matches());
+		Assert.assertTrue(lines.stream().anyMatch(l -> l.contains(";line 19 rand")));
+		Assert.assertTrue(lines.stream().anyMatch(l -> l.contains(";line 20 ")));
+		Assert.assertTrue(lines.stream().anyMatch(l -> l.contains(" (hop ")));
+	}
+	
+	@Test
+	public void testChromeTrace() throws IOException {
+		List<String> lines = runProfileTest("profile.json");
+		Assert.assertTrue(lines.size() > 2);
+		Assert.assertEquals("{\"traceEvents\":[", lines.get(0));
+		Assert.assertEquals("],\"displayTimeUnit\":\"ms\"}", lines.get(lines.size()-1));
+		List<String> events = lines.subList(1, lines.size()-1);
+		for( String event : events )
+			Assert.assertTrue("Invalid trace event: "+event, EVENT.matcher(event).matches());
+		Assert.assertTrue(events.stream().anyMatch(e ->
+			e.contains("\"name\":\"rand\"") && e.contains("\"line\":19")));
+		Assert.assertTrue(events.stream().anyMatch(e -> e.contains("\"out\":\""+rows+"x"+rows)));
+	}
+	
+	private List<String> runProfileTest(String fname) throws IOException {
+		loadTestConfiguration(getTestConfiguration(TEST_NAME));
+		String HOME = SCRIPT_DIR + TEST_DIR;
+		String profile = output(fname);
+		fullDMLScriptName = HOME + TEST_NAME + ".dml";
+		programArgs = new String[]{"-profile", profile,
+			"-args", String.valueOf(rows), output("R")};
+		runTest(true, false, null, -1);
+		return Files.readAllLines(Paths.get(profile), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.tugraz.sysds.test.functions.mlcontext;
+
+import static org.tugraz.sysds.api.mlcontext.ScriptFactory.dml;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.api.mlcontext.Matrix;
+import org.tugraz.sysds.api.mlcontext.Script;
+import org.tugraz.sysds.runtime.io.MatrixRowIterator;
+import org.tugraz.sysds.runtime.io.MatrixRowIterator.RowBatch;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.TestUtils;
+
+public class MLContextRowIteratorTest extends MLContextTestBase
+{
+	private final static int rows = 1234;
+	private final static int cols = 57;
+
+	@Test
+	public void testToRowIteratorDense() throws IOException {
+		runToRowIteratorTest(0.9, 100);
+	}
+
+	@Test
+	public void testToRowIteratorSparse() throws IOException {
+		runToRowIteratorTest(0.01, 1000);
+	}
+
+	@Test
+	public void testToRowIteratorSingleBatch() throws IOException {
+		runToRowIteratorTest(0.9, rows+1);
+	}
+
+	@Test
+	public void testToRowIteratorEarlyClose() throws IOException {
+		Matrix m = executeScript(0.9);
+		MatrixBlock expected = m.toMatrixBlock();
+		try( MatrixRowIterator iter = m.toRowIterator(100) ) {
+			iter.next();
+		}
+		//the matrix is still accessible after closing a partially consumed iterator
+		try( MatrixRowIterator iter = m.toRowIterator(100) ) {
+			compareResults(expected, iter);
+		}
+	}
+
+	private void runToRowIteratorTest(double sparsity, int batchRows) throws IOException {
+		Matrix m = executeScript(sparsity);
+		MatrixBlock expected = m.toMatrixBlock();
+		try( MatrixRowIterator iter = m.toRowIterator(batchRows) ) {
+			compareResults(expected, iter);
+		}
+	}
+
+	private Matrix executeScript(double sparsity) {
+		Script script = dml("M = rand(rows=" + rows + ", cols=" + cols
+			+ ", min=-10, max=10, sparsity=" + sparsity + ", seed=7);").out("M");
+		return ml.execute(script).getMatrix("M");
+	}
+
+	private static void compareResults(MatrixBlock expected, MatrixRowIterator iter) {
+		double[] actual = new double[rows * cols];
+		int nrow = 0;
+		while( iter.hasNext() ) {
+			RowBatch batch = iter.next();
+			Assert.assertEquals(nrow, batch.getRowIndex());
+			Assert.assertEquals(cols, batch.getNumColumns());
+			System.arraycopy(batch.values(), 0, actual, nrow * cols, batch.getNumRows() * cols);
+			nrow += batch.getNumRows();
+		}
+		Assert.assertEquals(rows, nrow);
+		TestUtils.compareMatrices(DataConverter.convertToDoubleVector(expected), actual, 0);
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.parfor;
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.matrix.data.MatrixValue.CellIndex;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+import org.tugraz.sysds.utils.Statistics;
+
+public class ParForDirtyRegionMergeTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "parfor_dirtymerge";
+	private final static String TEST_DIR = "functions/parfor/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + ParForDirtyRegionMergeTest.class.getSimpleName() + "/";
+	
+	private final static double eps = 1e-10;
+	private final static int rows = 1000;
+	private final static int cols = 300;
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.05;
+	
+	@Override
+	public void setUp() {
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[]{"R1","R2"}));
+	}
+
+	@Test
+	public void testParForDirtyRegionMergeDense() {
+		runParForDirtyRegionMergeTest(sparsity1);
+	}
+	
+	@Test
+	public void testParForDirtyRegionMergeSparse() {
+		runParForDirtyRegionMergeTest(sparsity2);
+	}
+	
+	private void runParForDirtyRegionMergeTest( double sparsity )
+	{
+		TestConfiguration config = getTestConfiguration(TEST_NAME);
+		loadTestConfiguration(config);
+		
+		String HOME = SCRIPT_DIR + TEST_DIR;
+		fullDMLScriptName = HOME + TEST_NAME + ".dml";
+		programArgs = new String[]{"-stats", "-args", String.valueOf(rows),
+			String.valueOf(cols), String.valueOf(sparsity), output("R1"), output("R2") };
+		
+		runTest(true, false, null, -1);
+		
+		//compare results of parfor and vectorized computation
+		HashMap<CellIndex, Double> dmlfile1 = readDMLMatrixFromHDFS("R1");
+		HashMap<CellIndex, Double> dmlfile2 = readDMLMatrixFromHDFS("R2");
+		TestUtils.compareMatrices(dmlfile1, dmlfile2, eps, "Stat-R1", "Stat-R2");
+		
+		//check that the result merge used the tracked dirty regions
+		Assert.assertEquals(1, Statistics.getParforDirtyRegionMerges());
+	}
+}
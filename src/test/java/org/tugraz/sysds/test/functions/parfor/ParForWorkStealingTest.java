@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.parfor;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+import org.tugraz.sysds.runtime.matrix.data.MatrixValue.CellIndex;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+
+public class ParForWorkStealingTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "parfor_workstealing";
+	private final static String TEST_DIR = "functions/parfor/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + ParForWorkStealingTest.class.getSimpleName() + "/";
+	
+	private final static double eps = 1e-6;
+	private final static int cols = 50;
+	
+	@Override
+	public void setUp() {
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[]{"R1","R2"}));
+	}
+
+	@Test
+	public void testParForWorkStealingFewIterations() {
+		runParForWorkStealingTest(3);
+	}
+	
+	@Test
+	public void testParForWorkStealingManyIterations() {
+		runParForWorkStealingTest(2000);
+	}
+	
+	private void runParForWorkStealingTest( int rows )
+	{
+		TestConfiguration config = getTestConfiguration(TEST_NAME);
+		loadTestConfiguration(config);
+		
+		String HOME = SCRIPT_DIR + TEST_DIR;
+		fullDMLScriptName = HOME + TEST_NAME + ".dml";
+		programArgs = new String[]{"-stats", "-args", String.valueOf(rows),
+			String.valueOf(cols), output("R1"), output("R2") };
+		
+		//fails on task count mismatch if workers miss ranges
+		runTest(true, false, null, -1);
+		
+		//compare results of parfor and vectorized computation
+		HashMap<CellIndex, Double> dmlfile1 = readDMLMatrixFromHDFS("R1");
+		HashMap<CellIndex, Double> dmlfile2 = readDMLMatrixFromHDFS("R2");
+		TestUtils.compareMatrices(dmlfile1, dmlfile2, eps, "Stat-R1", "Stat-R2");
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.recompile;
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.runtime.matrix.data.MatrixValue.CellIndex;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+import org.tugraz.sysds.utils.Statistics;
+
+public class RecompileCacheTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "recompile_cache";
+	private final static String TEST_DIR = "functions/recompile/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + RecompileCacheTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 1050;
+	private final static int cols = 20;
+	private final static int batchSize = 100;
+	
+	@Override
+	public void setUp() {
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[]{"R","R2"}));
+	}
+
+	@Test
+	public void testMiniBatchesWithoutCache() {
+		runRecompileCacheTest(false);
+	}
+	
+	@Test
+	public void testMiniBatchesWithCache() {
+		runRecompileCacheTest(true);
+	}
+	
+	private void runRecompileCacheTest( boolean cache )
+	{
+		boolean oldFlag = OptimizerUtils.ALLOW_RECOMPILE_CACHE;
+		
+		try
+		{
+			TestConfiguration config = getTestConfiguration(TEST_NAME);
+			loadTestConfiguration(config);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + TEST_NAME + ".dml";
+			programArgs = new String[]{"-stats", "-args", String.valueOf(rows),
+				String.valueOf(cols), String.valueOf(batchSize), output("R"), output("R2") };
+			
+			OptimizerUtils.ALLOW_RECOMPILE_CACHE = cache;
+			runTest(true, false, null, -1);
+			
+			//compare results of batch-wise and full computation
+			HashMap<CellIndex, Double> dmlfile1 = readDMLMatrixFromHDFS("R");
+			HashMap<CellIndex, Double> dmlfile2 = readDMLMatrixFromHDFS("R2");
+			TestUtils.compareMatrices(dmlfile1, dmlfile2, 1e-8, "Stat-R", "Stat-R2");
+			
+			//check cache hits for the recurring full batch shapes
+			if( cache )
+				Assert.assertTrue(Statistics.getHopRecompileCacheHits() > 0);
+			else
+				Assert.assertEquals(0, Statistics.getHopRecompileCacheHits());
+		}
+		finally {
+			OptimizerUtils.ALLOW_RECOMPILE_CACHE = oldFlag;
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.reorg;
+
+import org.apache.commons.lang.ArrayUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.tugraz.sysds.common.Types.ExecMode;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+@RunWith(value = Parameterized.class)
+public class TensorTransposeTest extends AutomatedTestBase
+{
+	private final static String TEST_DIR = "functions/reorg/";
+	private final static String TEST_NAME = "TensorTranspose";
+	private final static String TEST_CLASS_DIR = TEST_DIR + TensorTransposeTest.class.getSimpleName() + "/";
+
+	private int[] dimensions;
+	private double valueA;
+	private double valueB;
+
+	public TensorTransposeTest(int[] dims, double vA, double vB) {
+		dimensions = dims;
+		valueA = vA;
+		valueB = vB;
+	}
+	
+	@Parameters
+	public static Collection<Object[]> data() {
+		Object[][] data = new Object[][] { 
+				{new int[]{2, 3, 4}, 3, 0.5},
+				{new int[]{10, 20}, 1.5, 2},
+				{new int[]{5, 1, 7, 2}, 2, -3},
+				{new int[]{1000, 20, 100}, 1, 0.25},
+				};
+		return Arrays.asList(data);
+	}
+	
+	@Override
+	public void setUp() {
+		addTestConfiguration(TEST_NAME,new TestConfiguration(TEST_CLASS_DIR, TEST_NAME,new String[]{"A.scalar"}));
+	}
+
+	@Test
+	public void tensorTransposeTest() {
+		ExecMode platformOld = rtplatform;
+		try {
+			getAndLoadTestConfiguration(TEST_NAME);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+
+			// t(A) reverses the dimensions, which need to match the dimensions of B
+			int[] rdimensions = dimensions.clone();
+			ArrayUtils.reverse(rdimensions);
+			fullDMLScriptName = HOME + TEST_NAME + ".dml";
+			programArgs = new String[]{"-explain", "-args", Double.toString(valueA), Double.toString(valueB),
+				toDimensionsString(dimensions), toDimensionsString(rdimensions), output("A") };
+
+			// Generate Data in CP
+			rtplatform = ExecMode.SINGLE_NODE;
+			writeExpectedScalar("A", Arrays.stream(dimensions).reduce(1, (a, b) -> a*b) * (valueA - valueB));
+
+			runTest(true, false, null, -1);
+
+			compareResults(1e-6);
+		}
+		finally {
+			rtplatform = platformOld;
+		}
+	}
+	
+	private static String toDimensionsString(int[] dims) {
+		return Arrays.toString(dims).replace("[", "")
+			.replace(",", "").replace("]", "");
+	}
+}